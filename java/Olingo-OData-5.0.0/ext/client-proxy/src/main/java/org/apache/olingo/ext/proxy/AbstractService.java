@@ -78,6 +78,8 @@ public abstract class AbstractService<C extends EdmEnabledODataClient> {
 
   private PersistenceManager persistenceManager;
 
+  private volatile int flushParallelism = 1;
+
   protected AbstractService(final String compressedMetadata, final String metadataETag,
       final ODataServiceVersion version, final String serviceRoot, final boolean transactional) {
 
@@ -136,6 +138,25 @@ public abstract class AbstractService<C extends EdmEnabledODataClient> {
     return transactional;
   }
 
+  /**
+   * Gets the maximum number of requests a non-transactional flush sends at the same time.
+   */
+  public int getFlushParallelism() {
+    return flushParallelism;
+  }
+
+  /**
+   * Sets the maximum number of requests a non-transactional flush sends at the same time (default: 1).
+   * Requests run concurrently only when neither refers to the other through a <tt>$N</tt> reference,
+   * and requests for the same entity keep their order.
+   * Concurrent requests are executed by the executor of the client configuration.
+   *
+   * @param flushParallelism maximum number of concurrent requests; values less than 1 are treated as 1
+   */
+  public void setFlushParallelism(final int flushParallelism) {
+    this.flushParallelism = Math.max(1, flushParallelism);
+  }
+
   public PersistenceManager getPersistenceManager() {
     synchronized (this) {
       if (persistenceManager == null) {
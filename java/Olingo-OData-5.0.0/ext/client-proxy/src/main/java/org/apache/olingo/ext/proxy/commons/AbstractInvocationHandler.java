@@ -25,7 +25,6 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.lang.reflect.UndeclaredThrowableException;
 import java.net.URI;
-import java.util.Arrays;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -46,6 +45,7 @@ import org.apache.olingo.ext.proxy.context.AttachedEntityStatus;
 import org.apache.olingo.ext.proxy.context.Context;
 import org.apache.olingo.ext.proxy.context.EntityContext;
 import org.apache.olingo.ext.proxy.utils.CoreUtils;
+import org.apache.olingo.ext.proxy.utils.TypeMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -71,23 +71,18 @@ abstract class AbstractInvocationHandler implements InvocationHandler {
   }
 
   protected boolean isSelfMethod(final Method method) {
-    final Method[] selfMethods = getClass().getMethods();
-
-    boolean result = false;
-
-    for (int i = 0; i < selfMethods.length && !result; i++) {
-      result = method.getName().equals(selfMethods[i].getName())
-          && Arrays.equals(method.getParameterTypes(), selfMethods[i].getParameterTypes());
-    }
-
-    return result;
+    return TypeMetadata.of(getClass()).findSameSignatureMethod(method) != null;
   }
 
   protected Object invokeSelfMethod(final Method method, final Object[] args)
       throws Throwable {
+    final Method selfMethod = TypeMetadata.of(getClass()).findSameSignatureMethod(method);
+    if (selfMethod == null) {
+      throw new NoSuchMethodException(getClass().getName() + '.' + method.getName());
+    }
     //Try as per https://amitstechblog.wordpress.com/2011/07/24/java-proxies-and-undeclaredthrowableexception/
     try {
-      return getClass().getMethod(method.getName(), method.getParameterTypes()).invoke(this, args);
+      return selfMethod.invoke(this, args);
     } catch (UndeclaredThrowableException e) {
       throw e.getCause();
     } catch(InvocationTargetException e) {
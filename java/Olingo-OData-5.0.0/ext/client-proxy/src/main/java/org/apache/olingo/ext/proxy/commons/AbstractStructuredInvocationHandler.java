@@ -19,7 +19,6 @@
 package org.apache.olingo.ext.proxy.commons;
 
 import java.io.InputStream;
-import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
@@ -66,6 +65,7 @@ import org.apache.olingo.ext.proxy.context.EntityUUID;
 import org.apache.olingo.ext.proxy.utils.ClassUtils;
 import org.apache.olingo.ext.proxy.utils.CoreUtils;
 import org.apache.olingo.ext.proxy.utils.ProxyUtils;
+import org.apache.olingo.ext.proxy.utils.TypeMetadata;
 
 public abstract class AbstractStructuredInvocationHandler extends AbstractInvocationHandler {
 
@@ -161,11 +161,12 @@ public abstract class AbstractStructuredInvocationHandler extends AbstractInvoca
       // get method annotation and check if it exists as expected
 
       final Object res;
-      final Method getter = typeRef.getMethod(method.getName());
+      final TypeMetadata.Accessor accessor = TypeMetadata.of(typeRef).getAccessor(method.getName());
+      final Method getter = accessor.getGetter();
 
-      final Property property = ClassUtils.getAnnotation(Property.class, getter);
+      final Property property = accessor.getProperty();
       if (property == null) {
-        final NavigationProperty navProp = ClassUtils.getAnnotation(NavigationProperty.class, getter);
+        final NavigationProperty navProp = accessor.getNavigationProperty();
         if (navProp == null) {
           throw new UnsupportedOperationException("Unsupported method " + method.getName());
         } else {
@@ -181,11 +182,11 @@ public abstract class AbstractStructuredInvocationHandler extends AbstractInvoca
     } else if (method.getName().startsWith("set")) {
       // get the corresponding getter method (see assumption above)
       final String getterName = method.getName().replaceFirst("set", "get");
-      final Method getter = typeRef.getMethod(getterName);
+      final TypeMetadata.Accessor accessor = TypeMetadata.of(typeRef).getAccessor(getterName);
 
-      final Property property = ClassUtils.getAnnotation(Property.class, getter);
+      final Property property = accessor.getProperty();
       if (property == null) {
-        final NavigationProperty navProp = ClassUtils.getAnnotation(NavigationProperty.class, getter);
+        final NavigationProperty navProp = accessor.getNavigationProperty();
         if (navProp == null) {
           throw new UnsupportedOperationException("Unsupported method " + method.getName());
         } else {
@@ -604,17 +605,9 @@ public abstract class AbstractStructuredInvocationHandler extends AbstractInvoca
 
   public Collection<String> readAdditionalPropertyNames() {
     final Set<String> res = new HashSet<String>(propertyChanges.keySet());
-    final Set<String> propertyNames = new HashSet<String>();
-    for (Method method : typeRef.getMethods()) {
-      final Annotation ann = method.getAnnotation(Property.class);
-      if (ann != null) {
-        final String property = ((Property) ann).name();
-        propertyNames.add(property);
-
-        // maybe someone could add a normal attribute to the additional set
-        res.remove(property);
-      }
-    }
+    final Set<String> propertyNames = TypeMetadata.of(typeRef).getPropertyNames();
+    // maybe someone could add a normal attribute to the additional set
+    res.removeAll(propertyNames);
 
     for (ClientProperty property : getInternalProperties()) {
       if (!propertyNames.contains(property.getName())) {
@@ -19,9 +19,17 @@
 package org.apache.olingo.ext.proxy.commons;
 
 import java.net.URI;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+
 import org.apache.olingo.client.api.communication.request.ODataBasicRequest;
 import org.apache.olingo.client.api.communication.request.ODataBatchableRequest;
 import org.apache.olingo.client.api.communication.request.ODataRequest;
@@ -37,6 +45,12 @@ import org.apache.olingo.ext.proxy.api.ODataResponseError;
 /**
  * {@link org.apache.olingo.ext.proxy.api.PersistenceManager} implementation not using OData batch requests: any
  * read-write operation will be sent separately to the OData service when calling <tt>flush()</tt>.
+ * <p>
+ * A request waits for the requests it refers to through <tt>$N</tt> references in its URI or payload and for the
+ * preceding requests on the same entity; up to {@link AbstractService#getFlushParallelism()} other requests are sent
+ * concurrently. When a request fails, the requests depending on it are not sent; all failures are reported together
+ * by the thrown {@link ODataFlushException}, which stops the flush early unless the client configuration
+ * continues on error.
  */
 public class NonTransactionalPersistenceManagerImpl extends AbstractPersistenceManager {
 
@@ -48,60 +62,193 @@ public class NonTransactionalPersistenceManagerImpl extends AbstractPersistenceM
 
   @Override
   protected void doFlush(final PersistenceChanges changes, final TransactionItems items) {
-    final Map<Integer, URI> responses = new HashMap<Integer, URI>();
+    final List<Map.Entry<ODataBatchableRequest, EntityInvocationHandler>> entries =
+        new ArrayList<Map.Entry<ODataBatchableRequest, EntityInvocationHandler>>(changes.getChanges().entrySet());
+    final int size = entries.size();
 
-    int index = 0;
-    for (Map.Entry<ODataBatchableRequest, EntityInvocationHandler> entry : changes.getChanges().entrySet()) {
-      index++;
+    // dependency graph over the 1-based positions of the changes
+    final int[] pendingDependencies = new int[size + 1];
+    final List<List<Integer>> dependents = new ArrayList<List<Integer>>(size + 1);
+    for (int index = 0; index <= size; index++) {
+      dependents.add(new ArrayList<Integer>());
+    }
+    final Map<EntityInvocationHandler, Integer> lastByHandler = new HashMap<EntityInvocationHandler, Integer>();
+    for (int index = 1; index <= size; index++) {
+      final Map.Entry<ODataBatchableRequest, EntityInvocationHandler> entry = entries.get(index - 1);
+      final TreeSet<Integer> dependencies = new TreeSet<Integer>();
+      for (Integer reference : changes.getReferences(entry.getKey())) {
+        if (reference >= 1 && reference < index) {
+          dependencies.add(reference);
+        }
+      }
+      if (entry.getValue() != null) {
+        final Integer previous = lastByHandler.put(entry.getValue(), index);
+        if (previous != null) {
+          dependencies.add(previous);
+        }
+      }
+      pendingDependencies[index] = dependencies.size();
+      for (Integer dependency : dependencies) {
+        dependents.get(dependency).add(index);
+      }
+    }
 
-      final ODataRequest request = ODataRequest.class.cast(entry.getKey());
-      final ODataResponse response;
-      try {
-        String uri = request.getURI().toASCIIString();
-        if (uri.startsWith("$")) {
-          int slashIndex = uri.indexOf('/');
-          final Integer toBeReplaced = Integer.valueOf(uri.substring(1, slashIndex < 0 ? uri.length() : slashIndex));
-          if (responses.containsKey(toBeReplaced)) {
-            uri = uri.replace("$" + toBeReplaced, responses.get(toBeReplaced).toASCIIString());
-            request.setURI(URI.create(uri));
+    final TreeSet<Integer> ready = new TreeSet<Integer>();
+    for (int index = 1; index <= size; index++) {
+      if (pendingDependencies[index] == 0) {
+        ready.add(index);
+      }
+    }
+
+    final int parallelism = service.getFlushParallelism();
+    final CompletionService<ODataResponse> completionService = parallelism > 1
+        ? new ExecutorCompletionService<ODataResponse>(service.getClient().getConfiguration().getExecutor())
+        : null;
+    final Map<Future<ODataResponse>, Integer> running =
+        new HashMap<Future<ODataResponse>, Integer>();
+
+    final Map<Integer, URI> responses = new HashMap<Integer, URI>();
+    final List<ODataResponseError> errors = new ArrayList<ODataResponseError>();
+    final boolean continueOnError = service.getClient().getConfiguration().isContinueOnError();
+
+    while (!ready.isEmpty() || !running.isEmpty()) {
+      while (!ready.isEmpty() && running.size() < parallelism && (errors.isEmpty() || continueOnError)) {
+        final int index = ready.pollFirst();
+        final ODataRequest request = prepare(entries.get(index - 1).getKey(), responses);
+        if (completionService == null) {
+          ODataResponse response = null;
+          try {
+            response = send(request);
+          } catch (ODataRuntimeException e) {
+            fail(index, request, e, errors);
+          }
+          if (response != null) {
+            complete(index, entries.get(index - 1).getValue(), response, responses);
+            release(index, dependents, pendingDependencies, ready);
           }
+        } else {
+          running.put(completionService.submit(new Callable<ODataResponse>() {
+            @Override
+            public ODataResponse call() {
+              return send(request);
+            }
+          }), index);
         }
+      }
+
+      if (running.isEmpty()) {
+        break;
+      }
 
-        if (ODataStreamedRequest.class.isAssignableFrom(request.getClass())) {
-          response = ((ODataStreamedRequest<?, ?>) request).payloadManager().getResponse();
+      final Future<ODataResponse> done;
+      try {
+        done = completionService.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ODataRuntimeException("Interrupted while flushing", e);
+      }
+      final int index = running.remove(done);
+      try {
+        complete(index, entries.get(index - 1).getValue(), done.get(), responses);
+        release(index, dependents, pendingDependencies, ready);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof ODataRuntimeException) {
+          fail(index, (ODataRequest) entries.get(index - 1).getKey(), (ODataRuntimeException) e.getCause(), errors);
+        } else if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
         } else {
-          response = ((ODataBasicRequest<?>) request).execute();
+          throw new ODataRuntimeException("Error while flushing", e);
         }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ODataRuntimeException("Interrupted while flushing", e);
+      }
+    }
 
-        if (entry.getValue() != null
-            && response instanceof ODataEntityCreateResponse && (response.getStatusCode() == 201 || response
-                .getStatusCode() == 204)) {
-          if (response.getStatusCode() == 201) {
-            entry.getValue().setEntity(((ODataEntityCreateResponse<?>) response).getBody());
-            responses.put(index, entry.getValue().getEntityURI());
-            LOG.debug("Upgrade created object '{}'", entry.getValue());
-          } else {
-            entry.getValue().applyChanges();
-            responses.put(index, null);
-          }
-        } else if (entry.getValue() != null
-            && response instanceof ODataEntityUpdateResponse && (response.getStatusCode() == 200 || response
-                .getStatusCode() == 204)) {
-          if (response.getStatusCode() == 200) {
-            entry.getValue().setEntity(((ODataEntityUpdateResponse<?>) response).getBody());
-            responses.put(index, entry.getValue().getEntityURI());
-            LOG.debug("Upgrade updated object '{}'", entry.getValue());
-          } else {
-            entry.getValue().applyChanges();
-            responses.put(index, null);
+    if (!errors.isEmpty()) {
+      if (continueOnError) {
+        // report the changes which were not sent because a change they depend on failed
+        for (int index = 1; index <= size; index++) {
+          if (pendingDependencies[index] > 0) {
+            final ODataBatchableRequest request = entries.get(index - 1).getKey();
+            errors.add(new ODataResponseError(new ODataRuntimeException(
+                "Not sent because a change it depends on failed: " + request.getURI()),
+                index, (ODataRequest) request));
           }
-        } else {
-          responses.put(index, null);
         }
-      } catch (ODataRuntimeException e) {
-        LOG.error("While performing {}", entry.getKey().getURI(), e);
+      }
+      throw new ODataFlushException(0, errors);
+    }
+  }
+
+  /**
+   * Replaces a leading <tt>$N</tt> reference in the request URI by the URI of the entity created or updated by
+   * change N.
+   */
+  private ODataRequest prepare(final ODataBatchableRequest batchableRequest, final Map<Integer, URI> responses) {
+    final ODataRequest request = ODataRequest.class.cast(batchableRequest);
+    final String uri = request.getURI().toASCIIString();
+    final Integer toBeReplaced = PersistenceChanges.getReferencedPosition(uri);
+    if (toBeReplaced != null && responses.get(toBeReplaced) != null) {
+      request.setURI(URI.create(uri.replace("$" + toBeReplaced, responses.get(toBeReplaced).toASCIIString())));
+    }
+    return request;
+  }
+
+  private ODataResponse send(final ODataRequest request) {
+    if (ODataStreamedRequest.class.isAssignableFrom(request.getClass())) {
+      return ((ODataStreamedRequest<?, ?>) request).payloadManager().getResponse();
+    } else {
+      return ((ODataBasicRequest<?>) request).execute();
+    }
+  }
+
+  private void complete(final int index, final EntityInvocationHandler handler, final ODataResponse response,
+      final Map<Integer, URI> responses) {
+
+    if (handler != null
+        && response instanceof ODataEntityCreateResponse && (response.getStatusCode() == 201 || response
+            .getStatusCode() == 204)) {
+      if (response.getStatusCode() == 201) {
+        handler.setEntity(((ODataEntityCreateResponse<?>) response).getBody());
+        responses.put(index, handler.getEntityURI());
+        LOG.debug("Upgrade created object '{}'", handler);
+      } else {
+        handler.applyChanges();
+        responses.put(index, null);
+      }
+    } else if (handler != null
+        && response instanceof ODataEntityUpdateResponse && (response.getStatusCode() == 200 || response
+            .getStatusCode() == 204)) {
+      if (response.getStatusCode() == 200) {
+        handler.setEntity(((ODataEntityUpdateResponse<?>) response).getBody());
+        responses.put(index, handler.getEntityURI());
+        LOG.debug("Upgrade updated object '{}'", handler);
+      } else {
+        handler.applyChanges();
+        responses.put(index, null);
+      }
+    } else {
+      responses.put(index, null);
+    }
+  }
+
+  private void fail(final int index, final ODataRequest request, final ODataRuntimeException e,
+      final List<ODataResponseError> errors) {
+
+    LOG.error("While performing {}", request.getURI(), e);
+    errors.add(new ODataResponseError(e, index, request));
+  }
+
+  /**
+   * Marks the given change as done and moves the changes waiting only for it to the ready set.
+   */
+  private void release(final int index, final List<List<Integer>> dependents, final int[] pendingDependencies,
+      final TreeSet<Integer> ready) {
 
-        throw new ODataFlushException(0, Collections.singletonList(new ODataResponseError(e, index, request)));
+    for (Integer dependent : dependents.get(index)) {
+      if (--pendingDependencies[dependent] == 0) {
+        ready.add(dependent);
       }
     }
   }
@@ -19,20 +19,81 @@
 package org.apache.olingo.ext.proxy.commons;
 
 import org.apache.olingo.client.api.communication.request.ODataBatchableRequest;
+import org.apache.olingo.client.api.domain.ClientEntity;
+import org.apache.olingo.client.api.domain.ClientLink;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 public class PersistenceChanges {
 
   private final Map<ODataBatchableRequest, EntityInvocationHandler> requests =
           new LinkedHashMap<ODataBatchableRequest, EntityInvocationHandler>();
 
+  private final Map<ODataBatchableRequest, Set<Integer>> references =
+          new HashMap<ODataBatchableRequest, Set<Integer>>();
+
   public void addChange(final ODataBatchableRequest request, final EntityInvocationHandler handler) {
     this.requests.put(request, handler);
   }
 
+  /**
+   * Adds a change whose payload may link to entities created earlier in the same flush;
+   * such links are given as <tt>$N</tt> URIs and recorded as references of the request.
+   */
+  public void addChange(
+          final ODataBatchableRequest request, final EntityInvocationHandler handler, final ClientEntity payload) {
+    addChange(request, handler);
+    for (ClientLink link : payload.getNavigationLinks()) {
+      final Integer position = getReferencedPosition(link.getLink() == null ? null : link.getLink().toASCIIString());
+      if (position != null) {
+        Set<Integer> positions = references.get(request);
+        if (positions == null) {
+          positions = new TreeSet<Integer>();
+          references.put(request, positions);
+        }
+        positions.add(position);
+      }
+    }
+  }
+
   public Map<ODataBatchableRequest, EntityInvocationHandler> getChanges() {
     return requests;
   }
+
+  /**
+   * Gets the positions of the changes the given request refers to in its URI or its payload.
+   */
+  public Set<Integer> getReferences(final ODataBatchableRequest request) {
+    final Set<Integer> result = new TreeSet<Integer>();
+    final Integer position = getReferencedPosition(request.getURI().toASCIIString());
+    if (position != null) {
+      result.add(position);
+    }
+    final Set<Integer> payloadReferences = references.get(request);
+    if (payloadReferences != null) {
+      result.addAll(payloadReferences);
+    }
+    return Collections.unmodifiableSet(result);
+  }
+
+  /**
+   * Gets the position N of a URI starting with <tt>$N</tt>.
+   * @return the position or <tt>null</tt> if the URI does not refer to another change
+   */
+  static Integer getReferencedPosition(final String uri) {
+    if (uri == null || !uri.startsWith("$")) {
+      return null;
+    }
+    final int slashIndex = uri.indexOf('/');
+    try {
+      return Integer.valueOf(uri.substring(1, slashIndex < 0 ? uri.length() : slashIndex));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
 }
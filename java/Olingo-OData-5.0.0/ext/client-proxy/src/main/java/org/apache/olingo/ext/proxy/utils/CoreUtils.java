@@ -365,10 +365,8 @@ public final class CoreUtils {
   private static Class<?> getPropertyClass(final Class<?> entityClass, final String propertyName) {
     Class<?> propertyClass = null;
     try {
-      final Method getter = entityClass.getMethod("get" + StringUtils.capitalize(propertyName));
-      if (getter != null) {
-        propertyClass = getter.getReturnType();
-      }
+      propertyClass = TypeMetadata.of(entityClass)
+          .getAccessor("get" + StringUtils.capitalize(propertyName)).getGetter().getReturnType();
     } catch (Exception e) {
       LOG.error("Could not determine the Java type of {}", propertyName, e);
     }
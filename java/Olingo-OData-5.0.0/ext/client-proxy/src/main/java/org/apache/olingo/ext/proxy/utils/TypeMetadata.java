@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.ext.proxy.utils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.olingo.ext.proxy.api.annotations.NavigationProperty;
+import org.apache.olingo.ext.proxy.api.annotations.Property;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reflective information about a proxied interface or an invocation handler class, resolved once per class.
+ * <p>Proxy calls look up getters, their annotations and handler methods here instead of scanning
+ * the methods of the class on each call.</p>
+ */
+public final class TypeMetadata {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TypeMetadata.class);
+
+  // stored with the class itself, so that cached metadata does not keep classes or their class loaders alive
+  private static final ClassValue<TypeMetadata> CACHE = new ClassValue<TypeMetadata>() {
+    @Override
+    protected TypeMetadata computeValue(final Class<?> type) {
+      return new TypeMetadata(type);
+    }
+  };
+
+  /** A getter of a structured type together with its property or navigation property annotation. */
+  public static final class Accessor {
+
+    private final Method getter;
+
+    private final Property property;
+
+    private final NavigationProperty navigationProperty;
+
+    private Accessor(final Method getter) {
+      this.getter = getter;
+      this.property = getter.getAnnotation(Property.class);
+      this.navigationProperty = getter.getAnnotation(NavigationProperty.class);
+    }
+
+    public Method getGetter() {
+      return getter;
+    }
+
+    /** @return the property annotation or <code>null</code> */
+    public Property getProperty() {
+      return property;
+    }
+
+    /** @return the navigation property annotation or <code>null</code> */
+    public NavigationProperty getNavigationProperty() {
+      return navigationProperty;
+    }
+  }
+
+  private final Class<?> type;
+
+  private final Map<String, Accessor> accessors = new HashMap<String, Accessor>();
+
+  private final Set<String> propertyNames = new HashSet<String>();
+
+  private final ConcurrentMap<Class<? extends Annotation>, Map<String, Method>> gettersByAnnotatedName =
+      new ConcurrentHashMap<Class<? extends Annotation>, Map<String, Method>>();
+
+  // keyed by name only, so that no methods of other classes are referenced from here
+  private final Map<String, List<Method>> methodsByName = new HashMap<String, List<Method>>();
+
+  private final Method[] methods;
+
+  private TypeMetadata(final Class<?> type) {
+    this.type = type;
+    this.methods = type.getMethods();
+    for (Method method : methods) {
+      if (!method.isBridge()) {
+        List<Method> sameName = methodsByName.get(method.getName());
+        if (sameName == null) {
+          sameName = new ArrayList<Method>(1);
+          methodsByName.put(method.getName(), sameName);
+        }
+        sameName.add(method);
+      }
+      if (method.getParameterTypes().length == 0 && !method.isBridge() && !method.isSynthetic()) {
+        final Accessor accessor = new Accessor(method);
+        final Accessor current = accessors.get(method.getName());
+        if (current == null || isMoreSpecific(method, current.getGetter())) {
+          accessors.put(method.getName(), accessor);
+        }
+        if (accessor.getProperty() != null) {
+          propertyNames.add(accessor.getProperty().name());
+        }
+      }
+    }
+  }
+
+  /**
+   * Checks whether the candidate overrides the current method: it has a narrower (covariant) return type,
+   * or the same return type and is declared in a subtype.
+   */
+  private static boolean isMoreSpecific(final Method candidate, final Method current) {
+    if (candidate.getReturnType() != current.getReturnType()) {
+      return current.getReturnType().isAssignableFrom(candidate.getReturnType());
+    }
+    return current.getDeclaringClass() != candidate.getDeclaringClass()
+        && current.getDeclaringClass().isAssignableFrom(candidate.getDeclaringClass());
+  }
+
+  /**
+   * Gets the metadata of the given class, resolving it on first use.
+   * @param type the proxied interface or the invocation handler class
+   */
+  public static TypeMetadata of(final Class<?> type) {
+    return CACHE.get(type);
+  }
+
+  /**
+   * Gets the public method without parameters of the given name, like {@link Class#getMethod(String, Class...)}.
+   * Of covariant overrides, the one with the most specific return type is returned; bridge methods are ignored.
+   * @throws NoSuchMethodException if there is no such method
+   */
+  public Accessor getAccessor(final String getterName) throws NoSuchMethodException {
+    final Accessor accessor = accessors.get(getterName);
+    if (accessor == null) {
+      throw new NoSuchMethodException(type.getName() + '.' + getterName + "()");
+    }
+    return accessor;
+  }
+
+  /** Gets the names of all properties annotated with {@link Property}. */
+  public Set<String> getPropertyNames() {
+    return Collections.unmodifiableSet(propertyNames);
+  }
+
+  /**
+   * Finds the getter annotated with the given annotation whose <code>name</code> attribute is the given name.
+   * @return the getter or <code>null</code>
+   */
+  public Method findGetterByAnnotatedName(final Class<? extends Annotation> ann, final String name) {
+    Map<String, Method> getters = gettersByAnnotatedName.get(ann);
+    if (getters == null) {
+      getters = new HashMap<String, Method>();
+      for (Method method : methods) {
+        final Annotation annotation = method.getAnnotation(ann);
+        // Assumption: getter is always prefixed by 'get' word
+        if (annotation != null && method.getName().startsWith("get") && !method.isBridge() && !method.isSynthetic()) {
+          try {
+            final Object annotatedName = ann.getMethod("name").invoke(annotation);
+            if (annotatedName instanceof String
+                && (!getters.containsKey(annotatedName) || isMoreSpecific(method, getters.get(annotatedName)))) {
+              getters.put((String) annotatedName, method);
+            }
+          } catch (Exception e) {
+            LOG.warn("Error retrieving value annotation name for {}.{}", type.getName(), method.getName());
+          }
+        }
+      }
+      gettersByAnnotatedName.putIfAbsent(ann, getters);
+    }
+    return getters.get(name);
+  }
+
+  /**
+   * Finds the public method of this class with the same name and parameter types as the given method.
+   * @return the method or <code>null</code>
+   */
+  public Method findSameSignatureMethod(final Method method) {
+    final List<Method> sameName = methodsByName.get(method.getName());
+    if (sameName != null) {
+      final Class<?>[] parameterTypes = method.getParameterTypes();
+      for (Method candidate : sameName) {
+        if (Arrays.equals(parameterTypes, candidate.getParameterTypes())) {
+          return candidate;
+        }
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.ext.proxy.commons;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.apache.olingo.client.api.EdmEnabledODataClient;
+import org.apache.olingo.client.api.communication.request.ODataBatchableRequest;
+import org.apache.olingo.client.api.domain.ClientEntity;
+import org.apache.olingo.client.api.domain.ClientObjectFactory;
+import org.apache.olingo.client.api.http.HttpClientFactory;
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.edm.constants.ODataServiceVersion;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.ext.proxy.AbstractService;
+import org.apache.olingo.ext.proxy.api.AbstractTerm;
+import org.apache.olingo.ext.proxy.api.ODataFlushException;
+import org.apache.olingo.ext.proxy.api.ODataResponseError;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NonTransactionalPersistenceManagerTest {
+
+  private static final String SERVICE_ROOT = "http://localhost/odata";
+
+  /** Decides the status code of a scripted response; called on the thread sending the request. */
+  private interface Responder {
+
+    int respond(String uri) throws Exception;
+  }
+
+  private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+  private volatile Responder responder;
+
+  private AbstractService<EdmEnabledODataClient> service;
+
+  private NonTransactionalPersistenceManagerImpl manager;
+
+  @Before
+  public void setUp() {
+    service = new AbstractService<EdmEnabledODataClient>("", null, ODataServiceVersion.V40, SERVICE_ROOT, false) {
+      @Override
+      public Class<?> getEntityTypeClass(final String name) {
+        return null;
+      }
+
+      @Override
+      public Class<?> getComplexTypeClass(final String name) {
+        return null;
+      }
+
+      @Override
+      public Class<?> getEnumTypeClass(final String name) {
+        return null;
+      }
+
+      @Override
+      public Class<? extends AbstractTerm> getTermClass(final String name) {
+        return null;
+      }
+    };
+    service.getClient().getConfiguration().setHttpClientFactory(new HttpClientFactory() {
+      @Override
+      public HttpClient create(final HttpMethod method, final URI uri) {
+        return new ScriptedHttpClient();
+      }
+
+      @Override
+      public void close(final HttpClient httpClient) {
+        // nothing to release
+      }
+    });
+    manager = new NonTransactionalPersistenceManagerImpl(service);
+  }
+
+  @Test
+  public void dependentChangeIsFlushedAfterReferencedChange() {
+    responder = new Responder() {
+      @Override
+      public int respond(final String uri) throws Exception {
+        if (uri.endsWith("People(1)")) {
+          Thread.sleep(200);
+        }
+        return 204;
+      }
+    };
+    service.setFlushParallelism(4);
+
+    final PersistenceChanges changes = new PersistenceChanges();
+    changes.addChange(delete(SERVICE_ROOT + "/People(1)"), null);
+    addCreate(changes, SERVICE_ROOT + "/Friends", "$1");
+    changes.addChange(delete(SERVICE_ROOT + "/Orders(1)"), null);
+    manager.doFlush(changes, new TransactionItems());
+
+    assertEquals(6, events.size());
+    assertTrue(events.indexOf("end " + SERVICE_ROOT + "/People(1)")
+        < events.indexOf("start " + SERVICE_ROOT + "/Friends"));
+    // the independent change is not held back by the slow one
+    assertTrue(events.indexOf("end " + SERVICE_ROOT + "/Orders(1)")
+        < events.indexOf("end " + SERVICE_ROOT + "/People(1)"));
+  }
+
+  @Test
+  public void independentChangesAreFlushedConcurrently() {
+    final CountDownLatch allStarted = new CountDownLatch(3);
+    responder = new Responder() {
+      @Override
+      public int respond(final String uri) throws Exception {
+        // succeeds only if all three requests are in flight at the same time
+        allStarted.countDown();
+        return allStarted.await(10, TimeUnit.SECONDS) ? 204 : 500;
+      }
+    };
+    service.setFlushParallelism(3);
+
+    final PersistenceChanges changes = new PersistenceChanges();
+    changes.addChange(delete(SERVICE_ROOT + "/People(1)"), null);
+    changes.addChange(delete(SERVICE_ROOT + "/People(2)"), null);
+    changes.addChange(delete(SERVICE_ROOT + "/Orders(1)"), null);
+    manager.doFlush(changes, new TransactionItems());
+
+    assertEquals(6, events.size());
+    assertEquals(0, allStarted.getCount());
+  }
+
+  @Test
+  public void failuresAreAggregated() {
+    responder = new Responder() {
+      @Override
+      public int respond(final String uri) {
+        return uri.contains("Fail") ? 500 : 204;
+      }
+    };
+    service.setFlushParallelism(2);
+    service.getClient().getConfiguration().setContinueOnError(true);
+
+    final PersistenceChanges changes = new PersistenceChanges();
+    changes.addChange(delete(SERVICE_ROOT + "/People('Fail1')"), null);
+    changes.addChange(delete(SERVICE_ROOT + "/Orders('Fail2')"), null);
+    addCreate(changes, SERVICE_ROOT + "/Friends", "$1");
+    changes.addChange(delete(SERVICE_ROOT + "/Orders(3)"), null);
+    try {
+      manager.doFlush(changes, new TransactionItems());
+      fail("Expected ODataFlushException");
+    } catch (ODataFlushException e) {
+      final List<Integer> indexes = new ArrayList<Integer>();
+      for (ODataResponseError error : e.getErrors()) {
+        indexes.add(error.getIndex());
+      }
+      Collections.sort(indexes);
+      assertEquals(3, indexes.size());
+      assertEquals(Integer.valueOf(1), indexes.get(0));
+      assertEquals(Integer.valueOf(2), indexes.get(1));
+      assertEquals(Integer.valueOf(3), indexes.get(2));
+      for (ODataResponseError error : e.getErrors()) {
+        if (error.getIndex() == 3) {
+          assertTrue(error.getException().getMessage().startsWith("Not sent"));
+        }
+      }
+    }
+
+    // the change depending on a failed one is skipped, the independent one is sent
+    assertFalse(events.contains("start " + SERVICE_ROOT + "/Friends"));
+    assertTrue(events.contains("end " + SERVICE_ROOT + "/Orders(3)"));
+  }
+
+  /**
+   * Adds the creation of an entity whose navigation link refers to the change at the given <tt>$N</tt> position.
+   */
+  private void addCreate(final PersistenceChanges changes, final String uri, final String reference) {
+    final ClientObjectFactory factory = service.getClient().getObjectFactory();
+    final ClientEntity entity = factory.newEntity(new FullQualifiedName("NS", "Person"));
+    entity.addLink(factory.newEntityNavigationLink("Friend", URI.create(reference)));
+    changes.addChange(
+        service.getClient().getCUDRequestFactory().getEntityCreateRequest(URI.create(uri), entity), null, entity);
+  }
+
+  private ODataBatchableRequest delete(final String uri) {
+    return (ODataBatchableRequest) service.getClient().getCUDRequestFactory().getDeleteRequest(URI.create(uri));
+  }
+
+  private static class ScriptedResponse extends BasicHttpResponse implements CloseableHttpResponse {
+
+    ScriptedResponse(final int status) {
+      super(HttpVersion.HTTP_1_1, status, null);
+    }
+
+    @Override
+    public void close() {
+      // nothing to release
+    }
+  }
+
+  private class ScriptedHttpClient extends CloseableHttpClient {
+
+    @Override
+    protected CloseableHttpResponse doExecute(final HttpHost target, final HttpRequest request,
+        final HttpContext context) {
+      final String uri = request.getRequestLine().getUri();
+      events.add("start " + uri);
+      try {
+        return new ScriptedResponse(responder.respond(uri));
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      } finally {
+        events.add("end " + uri);
+      }
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public HttpParams getParams() {
+      return new BasicHttpParams();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public ClientConnectionManager getConnectionManager() {
+      return null;
+    }
+
+    @Override
+    public void close() {
+      // nothing to release
+    }
+  }
+}
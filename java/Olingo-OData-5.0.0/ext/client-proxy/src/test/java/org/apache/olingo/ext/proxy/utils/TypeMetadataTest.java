@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.ext.proxy.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.apache.olingo.ext.proxy.api.annotations.NavigationProperty;
+import org.apache.olingo.ext.proxy.api.annotations.Property;
+import org.junit.Test;
+
+public class TypeMetadataTest {
+
+  interface Person {
+
+    @Property(name = "Name", type = "Edm.String")
+    Object getName();
+
+    @Property(name = "Age", type = "Edm.Int32")
+    Integer getAge();
+
+    @NavigationProperty(name = "Friends", type = "Person", targetSchema = "", targetContainer = "", targetEntitySet = "")
+    Object getFriends();
+  }
+
+  interface Employee extends Person {
+
+    @Override
+    @Property(name = "Name", type = "Edm.String", nullable = false)
+    String getName();
+
+    @Override
+    @Property(name = "Age", type = "Edm.Int32", nullable = false)
+    Integer getAge();
+  }
+
+  public static class Handler {
+
+    public Object getValue() {
+      return "handler";
+    }
+
+    public Object invoke(final Object value) {
+      return value;
+    }
+  }
+
+  public static class SpecificHandler extends Handler {
+
+    @Override
+    public String getValue() {
+      return "specific";
+    }
+
+    @Override
+    public String invoke(final Object value) {
+      return String.valueOf(value);
+    }
+  }
+
+  @Test
+  public void accessors() throws Exception {
+    final TypeMetadata metadata = TypeMetadata.of(Person.class);
+    assertEquals(Person.class.getMethod("getName"), metadata.getAccessor("getName").getGetter());
+    assertEquals("Name", metadata.getAccessor("getName").getProperty().name());
+    assertNull(metadata.getAccessor("getName").getNavigationProperty());
+    assertEquals("Friends", metadata.getAccessor("getFriends").getNavigationProperty().name());
+    assertNull(metadata.getAccessor("getFriends").getProperty());
+    assertEquals(new HashSet<String>(Arrays.asList("Name", "Age")), metadata.getPropertyNames());
+  }
+
+  @Test(expected = NoSuchMethodException.class)
+  public void missingAccessor() throws Exception {
+    TypeMetadata.of(Person.class).getAccessor("getUnknown");
+  }
+
+  @Test
+  public void covariantGetterOfInterface() throws Exception {
+    final TypeMetadata metadata = TypeMetadata.of(Employee.class);
+    final Method name = metadata.getAccessor("getName").getGetter();
+    assertEquals(String.class, name.getReturnType());
+    assertFalse(name.getAnnotation(Property.class).nullable());
+
+    // same return type: the override in the subinterface wins
+    final Method age = metadata.getAccessor("getAge").getGetter();
+    assertEquals(Employee.class, age.getDeclaringClass());
+    assertFalse(age.getAnnotation(Property.class).nullable());
+
+    assertEquals(String.class, metadata.findGetterByAnnotatedName(Property.class, "Name").getReturnType());
+    assertEquals(Person.class, metadata.getAccessor("getFriends").getGetter().getDeclaringClass());
+  }
+
+  @Test
+  public void covariantGetterOfClass() throws Exception {
+    final TypeMetadata metadata = TypeMetadata.of(SpecificHandler.class);
+    final Method getter = metadata.getAccessor("getValue").getGetter();
+    assertFalse(getter.isBridge());
+    assertEquals(String.class, getter.getReturnType());
+    assertEquals("specific", getter.invoke(new SpecificHandler()));
+
+    final Method invoke = metadata.findSameSignatureMethod(Handler.class.getMethod("invoke", Object.class));
+    assertNotNull(invoke);
+    assertFalse(invoke.isBridge());
+    assertEquals(String.class, invoke.getReturnType());
+  }
+
+  @Test
+  public void cacheReuse() throws Exception {
+    final TypeMetadata metadata = TypeMetadata.of(Employee.class);
+    assertSame(metadata, TypeMetadata.of(Employee.class));
+    assertSame(metadata.getAccessor("getName"), TypeMetadata.of(Employee.class).getAccessor("getName"));
+    assertSame(metadata.findGetterByAnnotatedName(Property.class, "Age"),
+        metadata.findGetterByAnnotatedName(Property.class, "Age"));
+    final Method invoke = Handler.class.getMethod("invoke", Object.class);
+    assertSame(TypeMetadata.of(Handler.class).findSameSignatureMethod(invoke),
+        TypeMetadata.of(Handler.class).findSameSignatureMethod(invoke));
+    assertNotSame(metadata, TypeMetadata.of(Person.class));
+  }
+}
@@ -26,7 +26,6 @@ import java.util.Map;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
-import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.Attribute;
 import javax.xml.stream.events.StartElement;
@@ -37,11 +36,10 @@ import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.olingo.fit.utils.ConstantKey;
 import org.apache.olingo.fit.utils.Constants;
+import org.apache.olingo.fit.utils.XMLUtilities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static javax.xml.stream.XMLInputFactory.*;
-
 public class Metadata extends AbstractMetadataElement {
 
   /**
@@ -58,10 +56,8 @@ public class Metadata extends AbstractMetadataElement {
     schemas = new HashMap<String, Schema>();
 
     try {
-      final XMLInputFactory ifactory = XMLInputFactory.newInstance();
-      ifactory.setProperty(SUPPORT_DTD, false);
-      ifactory.setProperty(IS_SUPPORTING_EXTERNAL_ENTITIES, false);
-      final XMLEventReader reader = ifactory.createXMLEventReader(is, org.apache.olingo.commons.api.Constants.UTF8);
+      final XMLEventReader reader = XMLUtilities.getInputFactory().createXMLEventReader(is,
+          org.apache.olingo.commons.api.Constants.UTF8);
 
       try {
         while (reader.hasNext()) {
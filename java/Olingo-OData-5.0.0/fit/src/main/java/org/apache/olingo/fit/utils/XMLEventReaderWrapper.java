@@ -25,14 +25,11 @@ import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 
 import javax.xml.stream.XMLEventReader;
-import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.XMLEvent;
 
 import org.apache.commons.io.IOUtils;
 
-import static javax.xml.stream.XMLInputFactory.*;
-
 public class XMLEventReaderWrapper implements XMLEventReader {
 
   private static final Charset ENCODING = Charset.forName(org.apache.olingo.commons.api.Constants.UTF8);
@@ -59,17 +56,13 @@ public class XMLEventReaderWrapper implements XMLEventReader {
 
     CONTENT_STAG = startBuilder.toString();
 
-    final XMLInputFactory factory = XMLInputFactory.newInstance();
-    factory.setProperty(SUPPORT_DTD, false);
-    factory.setProperty(IS_SUPPORTING_EXTERNAL_ENTITIES, false);
-
     final InputStreamReader reader = new InputStreamReader(
         new ByteArrayInputStream((CONTENT_STAG
             + IOUtils.toString(stream, ENCODING).replaceAll("^<\\?xml.*\\?>", "")
             + XMLEventReaderWrapper.CONTENT_ETAG).getBytes(ENCODING)),
             Constants.DECODER);
 
-    wrapped = factory.createXMLEventReader(reader);
+    wrapped = XMLUtilities.getInputFactory().createXMLEventReader(reader);
 
     init();
   }
@@ -66,9 +66,9 @@ public class XMLUtilities extends AbstractUtilities {
 
   private static final Pattern ENTITY_URI_PATTERN = Pattern.compile(".*\\/.*\\(.*\\)");
 
-  protected static XMLInputFactory ifactory = null;
+  protected static final XMLInputFactory ifactory = createInputFactory();
 
-  protected static XMLOutputFactory ofactory = null;
+  protected static final XMLOutputFactory ofactory = XMLOutputFactory.newInstance();
 
   public XMLUtilities(final Metadata metadata) throws IOException {
     super(metadata);
@@ -79,21 +79,26 @@ public class XMLUtilities extends AbstractUtilities {
     return Accept.ATOM;
   }
 
-  protected XMLEventReader getEventReader(final InputStream is) throws XMLStreamException {
-    if (ifactory == null) {
-      ifactory = XMLInputFactory.newInstance();
-      ifactory.setProperty(SUPPORT_DTD, false);
-      ifactory.setProperty(IS_SUPPORTING_EXTERNAL_ENTITIES, false);
-    }
+  private static XMLInputFactory createInputFactory() {
+    final XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(SUPPORT_DTD, false);
+    factory.setProperty(IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    return factory;
+  }
+
+  /**
+   * Returns the shared input factory, configured without DTD and external entity support.
+   * It MUST NOT be reconfigured.
+   */
+  public static XMLInputFactory getInputFactory() {
+    return ifactory;
+  }
 
+  protected XMLEventReader getEventReader(final InputStream is) throws XMLStreamException {
     return ifactory.createXMLEventReader(new InputStreamReader(is, Constants.DECODER));
   }
 
   protected static XMLEventWriter getEventWriter(final OutputStream os) throws XMLStreamException {
-    if (ofactory == null) {
-      ofactory = XMLOutputFactory.newInstance();
-    }
-
     return ofactory.createXMLEventWriter(os, "UTF-8");
   }
 
@@ -20,9 +20,12 @@ package org.apache.olingo.fit.tecsvc.client;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
@@ -35,6 +38,7 @@ import org.apache.olingo.client.api.communication.request.retrieve.ODataEntitySe
 import org.apache.olingo.client.api.communication.response.ODataRetrieveResponse;
 import org.apache.olingo.client.api.domain.ClientEntity;
 import org.apache.olingo.client.api.domain.ClientEntitySet;
+import org.apache.olingo.client.api.domain.ClientLink;
 import org.apache.olingo.client.api.uri.QueryOption;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.junit.Test;
@@ -44,6 +48,7 @@ public class ExpandWithSystemQueryOptionsITCase extends AbstractParamTecSvcITCas
   private static final String ES_KEY_NAV = "ESKeyNav";
   private static final String ES_TWO_KEY_NAV = "ESTwoKeyNav";
   private static final String NAV_PROPERTY_ET_KEY_NAV_MANY = "NavPropertyETKeyNavMany";
+  private static final String NAV_PROPERTY_ET_KEY_NAV_ONE = "NavPropertyETKeyNavOne";
   private static final String NAV_PROPERTY_ET_TWO_KEY_NAV_MANY = "NavPropertyETTwoKeyNavMany";
   private static final String PROPERTY_INT16 = "PropertyInt16";
   private static final String PROPERTY_STRING = "PropertyString";
@@ -505,69 +510,144 @@ public class ExpandWithSystemQueryOptionsITCase extends AbstractParamTecSvcITCas
  
   @Test
   public void expandWithLevels() {
-    final ODataClient client = getEdmEnabledClient();
+    // expand=NavPropertyETTwoKeyNavMany($levels=2)
+    final List<ClientEntity> entities = buildRequest(ES_KEY_NAV, NAV_PROPERTY_ET_TWO_KEY_NAV_MANY,
+        Collections.<QueryOption, Object> singletonMap(QueryOption.LEVELS, 2)).getBody().getEntities();
+    assertEquals(3, entities.size());
 
-    // expand=*($levels=2)
-    URI uri = client.newURIBuilder(SERVICE_URI).appendEntitySetSegment(ES_KEY_NAV)
-            .expandWithOptions("*", Collections.<QueryOption, Object> singletonMap(QueryOption.LEVELS, 2))
-            .build();
+    final List<ClientEntity> firstLevel = inline(keyNav(entities, 1), NAV_PROPERTY_ET_TWO_KEY_NAV_MANY);
+    assertEquals(Arrays.asList("1/1", "1/2"), twoKeys(firstLevel));
+    assertEquals(Arrays.asList("1/1", "1/2"), twoKeys(inline(firstLevel.get(0), NAV_PROPERTY_ET_TWO_KEY_NAV_MANY)));
+    assertEquals(Arrays.asList("1/1"), twoKeys(inline(firstLevel.get(1), NAV_PROPERTY_ET_TWO_KEY_NAV_MANY)));
+    // The second level is the last one.
+    assertNotExpanded(inline(firstLevel.get(1), NAV_PROPERTY_ET_TWO_KEY_NAV_MANY).get(0),
+        NAV_PROPERTY_ET_TWO_KEY_NAV_MANY);
+
+    final List<ClientEntity> secondEntity = inline(keyNav(entities, 2), NAV_PROPERTY_ET_TWO_KEY_NAV_MANY);
+    assertEquals(Arrays.asList("2/1"), twoKeys(secondEntity));
+    assertEquals(Arrays.asList("1/2"), twoKeys(inline(secondEntity.get(0), NAV_PROPERTY_ET_TWO_KEY_NAV_MANY)));
+  }
 
-    try {
-      client.getRetrieveRequestFactory().getEntitySetRequest(uri);
-    } catch (ODataServerErrorException e) {
-      assertEquals("HTTP/1.1 501 Not Implemented", e.getMessage());
-    }
+  @Test
+  public void expandAllWithLevels() {
+    // expand=*($levels=2) expands every navigation property on both levels.
+    final List<ClientEntity> entities = buildRequest(ES_KEY_NAV, "*",
+        Collections.<QueryOption, Object> singletonMap(QueryOption.LEVELS, 2)).getBody().getEntities();
+    assertEquals(3, entities.size());
+    final ClientEntity entity = keyNav(entities, 1);
+
+    final List<ClientEntity> firstLevel = inline(entity, NAV_PROPERTY_ET_TWO_KEY_NAV_MANY);
+    assertEquals(Arrays.asList("1/1", "1/2"), twoKeys(firstLevel));
+    assertEquals(Arrays.asList("1/1", "1/2"), twoKeys(inline(firstLevel.get(0), NAV_PROPERTY_ET_TWO_KEY_NAV_MANY)));
+    assertEquals(Arrays.asList("1/1"), twoKeys(inline(firstLevel.get(1), NAV_PROPERTY_ET_TWO_KEY_NAV_MANY)));
+
+    final ClientEntity keyNavOne = entity.getNavigationLink(NAV_PROPERTY_ET_KEY_NAV_ONE).asInlineEntity().getEntity();
+    assertShortOrInt(2, keyNavOne.getProperty(PROPERTY_INT16).getPrimitiveValue().toValue());
+    final ClientEntity keyNavOneSecondLevel = keyNavOne.getNavigationLink(NAV_PROPERTY_ET_KEY_NAV_ONE)
+        .asInlineEntity().getEntity();
+    assertShortOrInt(3, keyNavOneSecondLevel.getProperty(PROPERTY_INT16).getPrimitiveValue().toValue());
+    assertEquals(Arrays.asList(2, 3), int16s(inline(entity, NAV_PROPERTY_ET_KEY_NAV_MANY).get(1)
+        .getNavigationLink(NAV_PROPERTY_ET_KEY_NAV_MANY).asInlineEntitySet().getEntitySet().getEntities()));
+  }
 
-    // expand=NavPropertyETTwoKeyNavMany($levels=2)
-    uri = client.newURIBuilder(SERVICE_URI).appendEntitySetSegment(ES_KEY_NAV)
-            .expandWithOptions(NAV_PROPERTY_ET_TWO_KEY_NAV_MANY,
-                Collections.<QueryOption, Object> singletonMap(QueryOption.LEVELS, 2))
-            .build();
+  @Test
+  public void expandWithNestedLevels() {
+    // expand=NavPropertyETTwoKeyNavMany($expand=NavPropertyETTwoKeyNavMany($levels=2))
+    final List<ClientEntity> nested = buildRequest(ES_KEY_NAV, NAV_PROPERTY_ET_TWO_KEY_NAV_MANY,
+        Collections.<QueryOption, Object> singletonMap(QueryOption.EXPAND,
+            NAV_PROPERTY_ET_TWO_KEY_NAV_MANY + "($levels=2)")).getBody().getEntities();
+    assertThreeLevels(keyNav(nested, 1));
 
-    try {
-      client.getRetrieveRequestFactory().getEntitySetRequest(uri);
-    } catch (ODataServerErrorException e) {
-      assertEquals("HTTP/1.1 501 Not Implemented", e.getMessage());
-    }
+    // expand=NavPropertyETTwoKeyNavMany($expand=NavPropertyETTwoKeyNavMany($levels=2);$levels=3)
+    final Map<QueryOption, Object> expandOptions = new EnumMap<QueryOption, Object>(QueryOption.class);
+    expandOptions.put(QueryOption.EXPAND, NAV_PROPERTY_ET_TWO_KEY_NAV_MANY + "($levels=2)");
+    expandOptions.put(QueryOption.LEVELS, 3);
+    final List<ClientEntity> combined = buildRequest(ES_KEY_NAV, NAV_PROPERTY_ET_TWO_KEY_NAV_MANY, expandOptions)
+        .getBody().getEntities();
+    assertThreeLevels(keyNav(combined, 1));
+  }
 
-    // expand=NavPropertyETTwoKeyNavMany($expand=NavPropertyETTwoKeyNavMany($levels=2))
-    uri = client.newURIBuilder(SERVICE_URI).appendEntitySetSegment(ES_KEY_NAV)
-            .expandWithOptions(NAV_PROPERTY_ET_TWO_KEY_NAV_MANY,
-                Collections.<QueryOption, Object> singletonMap(QueryOption.EXPAND,
-                    NAV_PROPERTY_ET_TWO_KEY_NAV_MANY + "($levels=2)"))
-            .build();
+  @Test
+  public void expandWithMaxLevels() {
+    // expand=NavPropertyETTwoKeyNavMany($levels=max) ends where the data cycles.
+    final List<ClientEntity> entities = buildRequest(ES_KEY_NAV, NAV_PROPERTY_ET_TWO_KEY_NAV_MANY,
+        Collections.<QueryOption, Object> singletonMap(QueryOption.LEVELS, "max")).getBody().getEntities();
+    assertEquals(3, entities.size());
 
-    try {
-      client.getRetrieveRequestFactory().getEntitySetRequest(uri);
-    } catch (ODataServerErrorException e) {
-      assertEquals("HTTP/1.1 501 Not Implemented", e.getMessage());
-    }
+    final List<ClientEntity> firstLevel = inline(keyNav(entities, 3), NAV_PROPERTY_ET_TWO_KEY_NAV_MANY);
+    assertEquals(Arrays.asList("3/1"), twoKeys(firstLevel));
+    assertEquals(0, inline(firstLevel.get(0), NAV_PROPERTY_ET_TWO_KEY_NAV_MANY).size());
 
-    // expand=NavPropertyETTwoKeyNavMany($expand=NavPropertyETTwoKeyNavMany($levels=2);$levels=3)
-    uri = client.newURIBuilder(SERVICE_URI).appendEntitySetSegment(ES_KEY_NAV)
-            .expandWithOptions(NAV_PROPERTY_ET_TWO_KEY_NAV_MANY,
-                Collections.<QueryOption, Object> singletonMap(QueryOption.LEVELS, 2))
-            .build();
+    final List<ClientEntity> secondLevel = inline(inline(keyNav(entities, 2), NAV_PROPERTY_ET_TWO_KEY_NAV_MANY).get(0),
+        NAV_PROPERTY_ET_TWO_KEY_NAV_MANY);
+    assertEquals(Arrays.asList("1/2"), twoKeys(secondLevel));
+    assertEquals(Arrays.asList("1/1"), twoKeys(inline(secondLevel.get(0), NAV_PROPERTY_ET_TWO_KEY_NAV_MANY)));
+  }
 
-    try {
-      client.getRetrieveRequestFactory().getEntitySetRequest(uri);
-    } catch (ODataServerErrorException e) {
-      assertEquals("HTTP/1.1 501 Not Implemented", e.getMessage());
+  /**
+   * Checks three levels of NavPropertyETTwoKeyNavMany starting at ESKeyNav(1).
+   */
+  private void assertThreeLevels(final ClientEntity entity) {
+    final List<ClientEntity> firstLevel = inline(entity, NAV_PROPERTY_ET_TWO_KEY_NAV_MANY);
+    assertEquals(Arrays.asList("1/1", "1/2"), twoKeys(firstLevel));
+    final List<ClientEntity> secondLevel = inline(firstLevel.get(1), NAV_PROPERTY_ET_TWO_KEY_NAV_MANY);
+    assertEquals(Arrays.asList("1/1"), twoKeys(secondLevel));
+    final List<ClientEntity> thirdLevel = inline(secondLevel.get(0), NAV_PROPERTY_ET_TWO_KEY_NAV_MANY);
+    assertEquals(Arrays.asList("1/1", "1/2"), twoKeys(thirdLevel));
+    assertNotExpanded(thirdLevel.get(0), NAV_PROPERTY_ET_TWO_KEY_NAV_MANY);
+  }
+
+  private ClientEntity keyNav(final List<ClientEntity> entities, final int key) {
+    for (final ClientEntity entity : entities) {
+      if (((Number) entity.getProperty(PROPERTY_INT16).getPrimitiveValue().toValue()).intValue() == key) {
+        return entity;
+      }
     }
+    fail("ESKeyNav(" + key + ") not found");
+    return null;
+  }
 
-    // expand=NavPropertyETTwoKeyNavMany($expand=NavPropertyETTwoKeyNavMany($levels=2))
-    Map<QueryOption, Object> expandOptions = new EnumMap<QueryOption, Object>(QueryOption.class);
-    expandOptions.put(QueryOption.EXPAND, NAV_PROPERTY_ET_TWO_KEY_NAV_MANY + "($levels=2)");
-    expandOptions.put(QueryOption.LEVELS, 3);
-    uri = client.newURIBuilder(SERVICE_URI).appendEntitySetSegment(ES_KEY_NAV)
-            .expandWithOptions(NAV_PROPERTY_ET_TWO_KEY_NAV_MANY, expandOptions)
-            .build();
+  private List<ClientEntity> inline(final ClientEntity entity, final String navigationProperty) {
+    assertNotNull(entity.getNavigationLink(navigationProperty));
+    return entity.getNavigationLink(navigationProperty).asInlineEntitySet().getEntitySet().getEntities();
+  }
 
-    try {
-      client.getRetrieveRequestFactory().getEntitySetRequest(uri);
-    } catch (ODataServerErrorException e) {
-      assertEquals("HTTP/1.1 501 Not Implemented", e.getMessage());
+  private void assertNotExpanded(final ClientEntity entity, final String navigationProperty) {
+    final ClientLink link = entity.getNavigationLink(navigationProperty);
+    assertTrue(link == null || link.asInlineEntitySet() == null);
+  }
+
+  /**
+   * Returns the keys of ESTwoKeyNav entities as "PropertyInt16/PropertyString".
+   * Entities repeated along a cycle in the data are serialized as references, so their keys are read from the id.
+   */
+  private List<String> twoKeys(final List<ClientEntity> entities) {
+    final List<String> keys = new ArrayList<String>();
+    for (final ClientEntity entity : entities) {
+      if (entity.getProperty(PROPERTY_INT16) == null) {
+        keys.add(entity.getId().toASCIIString()
+            .replaceAll(".*\\(PropertyInt16=(\\d+),PropertyString='([^']*)'\\)$", "$1/$2"));
+      } else {
+        keys.add(((Number) entity.getProperty(PROPERTY_INT16).getPrimitiveValue().toValue()).intValue()
+            + "/" + entity.getProperty(PROPERTY_STRING).getPrimitiveValue().toValue());
+      }
+    }
+    return keys;
+  }
+
+  /**
+   * Returns the keys of ESKeyNav entities, read from the id for references.
+   */
+  private List<Integer> int16s(final List<ClientEntity> entities) {
+    final List<Integer> keys = new ArrayList<Integer>();
+    for (final ClientEntity entity : entities) {
+      if (entity.getProperty(PROPERTY_INT16) == null) {
+        keys.add(Integer.valueOf(entity.getId().toASCIIString().replaceAll(".*\\((\\d+)\\)$", "$1")));
+      } else {
+        keys.add(((Number) entity.getProperty(PROPERTY_INT16).getPrimitiveValue().toValue()).intValue());
+      }
     }
+    return keys;
   }
 
   private ODataRetrieveResponse<ClientEntitySet> buildRequest(final String entitySet, final String navigationProperty,
@@ -20,7 +20,9 @@ package org.apache.olingo.client.api;
 
 import java.util.concurrent.ExecutorService;
 
+import org.apache.olingo.client.api.communication.request.batch.RequestCoalescer;
 import org.apache.olingo.client.api.http.HttpClientFactory;
+import org.apache.olingo.client.api.http.HttpResponseCache;
 import org.apache.olingo.client.api.http.HttpUriRequestFactory;
 import org.apache.olingo.commons.api.format.ContentType;
 
@@ -126,6 +128,36 @@ public interface Configuration {
    */
   void setHttpUriRequestFactory(HttpUriRequestFactory factory);
 
+  /**
+   * Gets the cache used for responses of <tt>GET</tt> requests.
+   *
+   * @return configured cache or <tt>null</tt> if responses are not cached (default).
+   */
+  HttpResponseCache getResponseCache();
+
+  /**
+   * Sets the cache used for responses of <tt>GET</tt> requests.
+   *
+   * @param cache implementation of <tt>HttpResponseCache</tt> or <tt>null</tt> to disable caching.
+   * @see HttpResponseCache
+   */
+  void setResponseCache(HttpResponseCache cache);
+
+  /**
+   * Gets the coalescer used to combine concurrent <tt>GET</tt> requests into <tt>$batch</tt> requests.
+   *
+   * @return configured coalescer or <tt>null</tt> if every request is sent on its own (default).
+   */
+  RequestCoalescer getRequestCoalescer();
+
+  /**
+   * Sets the coalescer used to combine concurrent <tt>GET</tt> requests into <tt>$batch</tt> requests.
+   *
+   * @param coalescer implementation of <tt>RequestCoalescer</tt> or <tt>null</tt> to disable coalescing.
+   * @see RequestCoalescer
+   */
+  void setRequestCoalescer(RequestCoalescer coalescer);
+
   /**
    * Gets whether <tt>PUT</tt>, <tt>MERGE</tt>, <tt>PATCH</tt>, <tt>DELETE</tt> HTTP methods need to be translated to
    * <tt>POST</tt> with additional <tt>X-HTTTP-Method</tt> header.
@@ -253,6 +285,41 @@ public interface Configuration {
    */
   void setContinueOnError(boolean value);
 
+  /**
+   * Checks whether JSON entities and entity sets are read straight into client domain objects, skipping the
+   * intermediate data model otherwise built by the deserializer and then copied by the binder.
+   *
+   * @return whether direct JSON deserialization is enabled
+   */
+  boolean isDirectJsonDeserialization();
+
+  /**
+   * Sets whether JSON entities and entity sets are read straight into client domain objects.
+   *
+   * @param value 'TRUE' to use this feature.
+   */
+  void setDirectJsonDeserialization(boolean value);
+
+  /**
+   * Checks whether asynchronous requests run on one new thread per request instead of the default bounded pool.
+   * <p>
+   * On Java 21 or later these are virtual threads, so thousands of requests can be in flight at once; on earlier
+   * runtimes an unbounded pool of daemon platform threads is used. Unless an HttpClient factory has been set
+   * explicitly, all requests then share one HttpClient with a bounded connection pool.
+   *
+   * @return whether a thread-per-request executor is used.
+   */
+  boolean isThreadPerRequest();
+
+  /**
+   * Sets whether asynchronous requests run on one new thread per request instead of the default bounded pool.
+   * <p>
+   * This has no effect once a custom executor has been provided through {@link #setExecutor(ExecutorService)}.
+   *
+   * @param value 'TRUE' to use this feature.
+   */
+  void setThreadPerRequest(boolean value);
+
   /**
    * Retrieves request executor service.
    *
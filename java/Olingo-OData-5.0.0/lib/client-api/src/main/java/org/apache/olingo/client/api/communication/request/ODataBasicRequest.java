@@ -18,6 +18,7 @@
  */
 package org.apache.olingo.client.api.communication.request;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 
 import org.apache.olingo.client.api.communication.response.ODataResponse;
@@ -44,6 +45,17 @@ public interface ODataBasicRequest<T extends ODataResponse> extends ODataRequest
    */
   Future<T> asyncExecute();
 
+  /**
+   * Async request execute.
+   * <p>
+   * The request is run on the configured executor; dependent stages can be chained on the returned future instead of
+   * blocking on it. Cancelling the future aborts the underlying HTTP request.
+   *
+   * @return <code>CompletableFuture&lt;ODataResponse&gt;</code> about the executed request.
+   * @see org.apache.olingo.client.api.Configuration#getExecutor()
+   */
+  CompletableFuture<T> executeAsync();
+
   /**
    * Override configured request Content-Type.
    *
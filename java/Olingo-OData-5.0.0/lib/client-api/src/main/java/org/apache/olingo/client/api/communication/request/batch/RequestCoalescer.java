@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.api.communication.request.batch;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.olingo.client.api.ODataClient;
+
+/**
+ * <p>Collects requests issued concurrently by independent callers and sends them together as a single
+ * <tt>$batch</tt> request.</p>
+ * <p>The client hands every eligible <tt>GET</tt> request to the configured coalescer instead of sending it;
+ * the caller is blocked until its request has been answered, either on its own or as part of a batch, and then
+ * receives its own response as if it had been sent on its own. Errors are reported per request.</p>
+ * <p>Implementations must be thread-safe since one configuration is shared by all requests.</p>
+ *
+ * @see org.apache.olingo.client.api.Configuration#setRequestCoalescer(RequestCoalescer)
+ */
+public interface RequestCoalescer {
+
+  /**
+   * Executes the given request, on its own or as part of a batch.
+   *
+   * @param client client issuing the request; requests are only batched with others of the same client
+   * @param httpClient HTTP client to send the request with if it is not batched
+   * @param request request to be executed; all its headers, including conditional ones, have already been set
+   * @return the response to the given request, or <tt>null</tt> if the request cannot be coalesced and must be
+   * sent as usual
+   */
+  HttpResponse execute(ODataClient client, HttpClient httpClient, HttpUriRequest request);
+}
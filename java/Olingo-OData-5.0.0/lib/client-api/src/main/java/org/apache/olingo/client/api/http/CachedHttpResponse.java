@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.api.http;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.http.Header;
+import org.apache.olingo.commons.api.http.HttpHeader;
+
+/**
+ * Immutable HTTP response stored in an {@link HttpResponseCache}.
+ */
+public final class CachedHttpResponse {
+
+  private final String uri;
+
+  private final String accept;
+
+  private final int statusCode;
+
+  private final String reasonPhrase;
+
+  private final Header[] headers;
+
+  private final byte[] body;
+
+  private final String eTag;
+
+  private final long storedAt;
+
+  private final long maxAgeSeconds;
+
+  /**
+   * Constructor.
+   *
+   * @param uri request URI
+   * @param accept <tt>Accept</tt> header of the request
+   * @param statusCode HTTP status code
+   * @param reasonPhrase HTTP reason phrase
+   * @param headers response headers
+   * @param body response body; it is not copied and must not be modified afterwards
+   * @param eTag entity tag used for revalidation or <tt>null</tt>
+   * @param storedAt time of storage or last revalidation in milliseconds since the epoch
+   * @param maxAgeSeconds number of seconds the response is fresh after <tt>storedAt</tt>,
+   * <tt>0</tt> if it must always be revalidated
+   */
+  public CachedHttpResponse(final String uri, final String accept, final int statusCode, final String reasonPhrase,
+      final Header[] headers, final byte[] body, final String eTag, final long storedAt, final long maxAgeSeconds) {
+
+    this.uri = uri;
+    this.accept = accept;
+    this.statusCode = statusCode;
+    this.reasonPhrase = reasonPhrase;
+    this.headers = headers.clone();
+    this.body = body;
+    this.eTag = eTag;
+    this.storedAt = storedAt;
+    this.maxAgeSeconds = maxAgeSeconds;
+  }
+
+  public String getUri() {
+    return uri;
+  }
+
+  public String getAccept() {
+    return accept;
+  }
+
+  public int getStatusCode() {
+    return statusCode;
+  }
+
+  public String getReasonPhrase() {
+    return reasonPhrase;
+  }
+
+  public Header[] getHeaders() {
+    return headers.clone();
+  }
+
+  /**
+   * Gets the value of the first header with the given name.
+   *
+   * @param name header name (case-insensitive)
+   * @return header value or <tt>null</tt>
+   */
+  public String getHeader(final String name) {
+    final String lowerCaseName = name.toLowerCase(Locale.ROOT);
+    for (Header header : headers) {
+      if (header.getName().toLowerCase(Locale.ROOT).equals(lowerCaseName)) {
+        return header.getValue();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Gets the response body. The returned array is shared and must not be modified.
+   *
+   * @return response body
+   */
+  public byte[] getBody() {
+    return body;
+  }
+
+  public String getETag() {
+    return eTag;
+  }
+
+  public long getStoredAt() {
+    return storedAt;
+  }
+
+  public long getMaxAgeSeconds() {
+    return maxAgeSeconds;
+  }
+
+  /**
+   * Checks whether the response can be served without revalidation.
+   *
+   * @param now current time in milliseconds since the epoch
+   * @return whether the response is still fresh
+   */
+  public boolean isFresh(final long now) {
+    return maxAgeSeconds > 0 && now - storedAt < maxAgeSeconds * 1000;
+  }
+
+  /**
+   * Gets the approximate number of bytes occupied by this response.
+   *
+   * @return size in bytes
+   */
+  public long getSize() {
+    long size = body.length + uri.length() + (accept == null ? 0 : accept.length());
+    for (Header header : headers) {
+      size += header.getName().length() + header.getValue().length();
+    }
+    return size;
+  }
+
+  /**
+   * Creates a copy after a successful revalidation (<tt>304 Not Modified</tt>). Headers of the revalidation
+   * response replace all stored headers with the same name, so that e.g. <tt>ETag</tt> and <tt>Date</tt> are
+   * up to date; other stored headers are kept.
+   *
+   * @param now time of revalidation in milliseconds since the epoch
+   * @param newMaxAgeSeconds freshness lifetime sent with the revalidation response
+   * @param newHeaders headers sent with the revalidation response
+   * @return revalidated response
+   */
+  public CachedHttpResponse revalidated(final long now, final long newMaxAgeSeconds, final Header[] newHeaders) {
+    final List<Header> merged = new ArrayList<>(headers.length + newHeaders.length);
+    final Set<String> replaced = new HashSet<>();
+    for (Header header : newHeaders) {
+      replaced.add(header.getName().toLowerCase(Locale.ROOT));
+    }
+    for (Header header : headers) {
+      if (!replaced.contains(header.getName().toLowerCase(Locale.ROOT))) {
+        merged.add(header);
+      }
+    }
+    String newETag = eTag;
+    for (Header header : newHeaders) {
+      merged.add(header);
+      if (HttpHeader.ETAG.equalsIgnoreCase(header.getName())) {
+        newETag = header.getValue();
+      }
+    }
+    return new CachedHttpResponse(uri, accept, statusCode, reasonPhrase, merged.toArray(new Header[merged.size()]),
+        body, newETag, now, newMaxAgeSeconds);
+  }
+
+  @Override
+  public String toString() {
+    return "CachedHttpResponse [uri=" + uri + ", accept=" + accept + ", statusCode=" + statusCode
+        + ", eTag=" + eTag + ", headers=" + Arrays.toString(headers) + ", bodyLength=" + body.length + "]";
+  }
+}
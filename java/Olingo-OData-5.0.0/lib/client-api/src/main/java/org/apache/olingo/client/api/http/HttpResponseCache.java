@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.api.http;
+
+/**
+ * <p>Store for responses of <tt>GET</tt> requests, used by the client to avoid repeated downloads.</p>
+ * <p>Entries are identified by request URI and <tt>Accept</tt> header so that different formats of
+ * the same resource are kept apart; responses varying on other request headers are not stored.
+ * The client serves fresh entries directly, revalidates stale entries carrying an ETag with
+ * <tt>If-None-Match</tt>, and invalidates all entries below the entity set of a successful
+ * modifying request.</p>
+ * <p>Implementations must be thread-safe since one configuration is shared by all requests.</p>
+ *
+ * @see org.apache.olingo.client.api.Configuration#setResponseCache(HttpResponseCache)
+ */
+public interface HttpResponseCache {
+
+  /**
+   * Looks up a response.
+   *
+   * @param uri request URI
+   * @param accept <tt>Accept</tt> header of the request
+   * @return the stored response or <tt>null</tt>
+   */
+  CachedHttpResponse get(String uri, String accept);
+
+  /**
+   * Stores a response, replacing any previously stored response for the same URI and <tt>Accept</tt> header.
+   *
+   * @param response response to be stored
+   */
+  void put(CachedHttpResponse response);
+
+  /**
+   * Removes all responses whose request URI starts with the given URI.
+   *
+   * @param uriPrefix URI of a modified resource
+   */
+  void invalidate(String uriPrefix);
+
+  /**
+   * Removes all responses.
+   */
+  void clear();
+}
@@ -19,16 +19,21 @@
 package org.apache.olingo.client.core;
 
 import org.apache.olingo.client.api.Configuration;
+import org.apache.olingo.client.api.communication.request.batch.RequestCoalescer;
 import org.apache.olingo.client.api.http.HttpClientFactory;
+import org.apache.olingo.client.api.http.HttpResponseCache;
 import org.apache.olingo.client.api.http.HttpUriRequestFactory;
 import org.apache.olingo.client.core.http.DefaultHttpClientFactory;
+import org.apache.olingo.client.core.http.PoolingHttpClientFactory;
 import org.apache.olingo.client.core.http.DefaultHttpUriRequestFactory;
 import org.apache.olingo.commons.api.format.ContentType;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -46,6 +51,10 @@ public class ConfigurationImpl implements Configuration {
 
   private static final String HTTP_URI_REQUEST_FACTORY = "httpUriRequestFactory";
 
+  private static final String RESPONSE_CACHE = "responseCache";
+
+  private static final String REQUEST_COALESCER = "requestCoalescer";
+
   private static final String USE_XHTTP_METHOD = "useHTTPMethod";
 
   private static final String KEY_AS_SEGMENT = "keyAsSegment";
@@ -60,12 +69,22 @@ public class ConfigurationImpl implements Configuration {
 
   private static final String CONTINUE_ON_ERROR = "continueOnError";
 
+  private static final String DIRECT_JSON_DESERIALIZATION = "directJsonDeserialization";
+
+  private static final String THREAD_PER_REQUEST = "threadPerRequest";
+
   public static final int DEFAULT_BUFFER_SIZE = 4 * 1024 * 1024;  // 4MB
 
   private final Map<String, Object> CONF = new HashMap<>();
 
   private transient ExecutorService executor = createExecutor(10);
 
+  private transient boolean customExecutor = false;
+
+  private transient ExecutorService threadPerRequestExecutor;
+
+  private transient HttpClientFactory threadPerRequestHttpClientFactory;
+
   private ExecutorService createExecutor(final int threads) {
     final ThreadPoolExecutor tp = new ThreadPoolExecutor(
         threads,
@@ -77,6 +96,26 @@ public class ConfigurationImpl implements Configuration {
     return tp;
   }
 
+  /**
+   * Creates an executor starting a new thread for each submitted task: virtual threads where the runtime supports
+   * them (Java 21+), an unbounded cached pool of daemon threads otherwise.
+   */
+  private static ExecutorService createThreadPerRequestExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      final ThreadFactory defaultFactory = Executors.defaultThreadFactory();
+      return Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable runnable) {
+          final Thread thread = defaultFactory.newThread(runnable);
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    }
+  }
+
   /**
    * Gets given configuration property.
    *
@@ -147,6 +186,15 @@ public class ConfigurationImpl implements Configuration {
 
   @Override
   public HttpClientFactory getHttpClientFactory() {
+    if (!CONF.containsKey(HTTP_CLIENT_FACTORY) && isThreadPerRequest()) {
+      // Many requests in flight must not open one client with its own connections each.
+      synchronized (this) {
+        if (threadPerRequestHttpClientFactory == null) {
+          threadPerRequestHttpClientFactory = new PoolingHttpClientFactory();
+        }
+        return threadPerRequestHttpClientFactory;
+      }
+    }
     return (HttpClientFactory) getProperty(HTTP_CLIENT_FACTORY, new DefaultHttpClientFactory());
   }
 
@@ -165,6 +213,26 @@ public class ConfigurationImpl implements Configuration {
     setProperty(HTTP_URI_REQUEST_FACTORY, factory);
   }
 
+  @Override
+  public HttpResponseCache getResponseCache() {
+    return (HttpResponseCache) getProperty(RESPONSE_CACHE, null);
+  }
+
+  @Override
+  public void setResponseCache(final HttpResponseCache cache) {
+    setProperty(RESPONSE_CACHE, cache);
+  }
+
+  @Override
+  public RequestCoalescer getRequestCoalescer() {
+    return (RequestCoalescer) getProperty(REQUEST_COALESCER, null);
+  }
+
+  @Override
+  public void setRequestCoalescer(final RequestCoalescer coalescer) {
+    setProperty(REQUEST_COALESCER, coalescer);
+  }
+
   @Override
   public boolean isUseXHTTPMethod() {
     return (Boolean) getProperty(USE_XHTTP_METHOD, false);
@@ -235,13 +303,42 @@ public class ConfigurationImpl implements Configuration {
     setProperty(CONTINUE_ON_ERROR, value);
   }
 
+  @Override
+  public boolean isDirectJsonDeserialization() {
+    return (Boolean) getProperty(DIRECT_JSON_DESERIALIZATION, false);
+  }
+
+  @Override
+  public void setDirectJsonDeserialization(final boolean value) {
+    setProperty(DIRECT_JSON_DESERIALIZATION, value);
+  }
+
+  @Override
+  public boolean isThreadPerRequest() {
+    return (Boolean) getProperty(THREAD_PER_REQUEST, false);
+  }
+
+  @Override
+  public void setThreadPerRequest(final boolean value) {
+    setProperty(THREAD_PER_REQUEST, value);
+  }
+
   @Override
   public ExecutorService getExecutor() {
+    if (!customExecutor && isThreadPerRequest()) {
+      synchronized (this) {
+        if (threadPerRequestExecutor == null) {
+          threadPerRequestExecutor = createThreadPerRequestExecutor();
+        }
+        return threadPerRequestExecutor;
+      }
+    }
     return executor;
   }
 
   @Override
   public void setExecutor(final ExecutorService executorService) {
     executor = executorService;
+    customExecutor = true;
   }
 }
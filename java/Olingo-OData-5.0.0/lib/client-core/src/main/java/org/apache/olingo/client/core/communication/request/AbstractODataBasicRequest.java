@@ -22,7 +22,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.nio.charset.Charset;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 
 import org.apache.commons.io.IOUtils;
@@ -68,12 +68,39 @@ public abstract class AbstractODataBasicRequest<T extends ODataResponse>
 
   @Override
   public final Future<T> asyncExecute() {
-    return odataClient.getConfiguration().getExecutor().submit(new Callable<T>() {
+    return executeAsync();
+  }
+
+  @Override
+  public final CompletableFuture<T> executeAsync() {
+    final CompletableFuture<T> future = new CompletableFuture<T>() {
+      @Override
+      public boolean cancel(final boolean mayInterruptIfRunning) {
+        final boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled) {
+          // Blocking I/O does not react to interrupts; aborting the request releases the waiting thread.
+          request.abort();
+        }
+        return cancelled;
+      }
+    };
+    odataClient.getConfiguration().getExecutor().execute(new Runnable() {
       @Override
-      public T call() throws Exception { //NOSONAR
-        return execute();
+      public void run() {
+        if (future.isDone()) {
+          return;
+        }
+        try {
+          final T response = execute();
+          if (!future.complete(response)) {
+            response.close();
+          }
+        } catch (RuntimeException | Error e) { //NOSONAR
+          future.completeExceptionally(e);
+        }
       }
     });
+    return future;
   }
 
   /**
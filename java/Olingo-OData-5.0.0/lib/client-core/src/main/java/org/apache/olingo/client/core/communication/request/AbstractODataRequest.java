@@ -23,6 +23,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
@@ -30,9 +31,13 @@ import org.apache.http.impl.client.DecompressingHttpClient;
 import org.apache.http.util.EntityUtils;
 import org.apache.olingo.client.api.ODataClient;
 import org.apache.olingo.client.api.communication.header.ODataHeaders;
+import org.apache.olingo.client.api.communication.request.ODataBatchableRequest;
 import org.apache.olingo.client.api.communication.request.ODataRequest;
+import org.apache.olingo.client.api.communication.request.batch.RequestCoalescer;
 import org.apache.olingo.client.api.communication.response.ODataResponse;
+import org.apache.olingo.client.api.http.CachedHttpResponse;
 import org.apache.olingo.client.api.http.HttpClientException;
+import org.apache.olingo.client.api.http.HttpResponseCache;
 import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpHeader;
@@ -291,10 +296,24 @@ public abstract class AbstractODataRequest extends AbstractRequest implements OD
       addCustomHeader("DataServiceUrlConventions", odataClient.newPreferences().keyAsSegment());
     }
 
+    // Serve fresh responses from the cache or prepare revalidation of stale ones
+    final HttpResponseCache cache = odataClient.getConfiguration().getResponseCache();
+    final String cacheUri = request.getURI().toASCIIString();
+    CachedHttpResponse cached = null;
+    if (cache != null && isCacheable()) {
+      cached = cache.get(cacheUri, getAccept());
+      if (cached != null && cached.isFresh(System.currentTimeMillis())) {
+        return ResponseCaching.toHttpResponse(cached);
+      }
+    }
+
     // Add all available headers
     for (String key : getHeaderNames()) {
       request.addHeader(key, odataHeaders.getHeader(key));
     }
+    if (cached != null && cached.getETag() != null) {
+      request.addHeader(HttpHeader.IF_NONE_MATCH, cached.getETag());
+    }
 
     if (LOG.isDebugEnabled()) {
       for (Header header : request.getAllHeaders()) {
@@ -302,14 +321,25 @@ public abstract class AbstractODataRequest extends AbstractRequest implements OD
       }
     }
 
-    HttpResponse response;
-    try {
-      response = httpClient.execute(request);
-    } catch (IOException e) {
-      throw new HttpClientException(request.getURI().toASCIIString(), e);
-    } catch (RuntimeException e) {
-      request.abort();
-      throw new HttpClientException(request.getURI().toASCIIString(), e);
+    // Let concurrent requests share a single $batch round trip, if configured
+    final RequestCoalescer coalescer = odataClient.getConfiguration().getRequestCoalescer();
+    HttpResponse response = coalescer != null && isCoalescable()
+        ? coalescer.execute(odataClient, httpClient, request)
+        : null;
+
+    if (response == null) {
+      try {
+        response = httpClient.execute(request);
+      } catch (IOException e) {
+        throw new HttpClientException(request.getURI().toASCIIString(), e);
+      } catch (RuntimeException e) {
+        request.abort();
+        throw new HttpClientException(request.getURI().toASCIIString(), e);
+      }
+    }
+
+    if (cache != null) {
+      response = applyResponseCache(cache, cacheUri, cached, response);
     }
 
     try {
@@ -323,6 +353,72 @@ public abstract class AbstractODataRequest extends AbstractRequest implements OD
     return response;
   }
 
+  /**
+   * Checks whether the response of this request may be taken from and stored in the configured
+   * {@link HttpResponseCache}. By default this is the case for <tt>GET</tt> requests without an explicit
+   * <tt>If-None-Match</tt> header; requests returning streams should not be cached. Requests with
+   * <tt>Prefer</tt> or <tt>Authorization</tt> headers are not cached either, since cache entries are only
+   * keyed by URI and <tt>Accept</tt> header.
+   *
+   * @return whether the response cache applies to this request
+   */
+  protected boolean isCacheable() {
+    return method == HttpMethod.GET && StringUtils.isBlank(getIfNoneMatch())
+        && StringUtils.isBlank(getPrefer()) && StringUtils.isBlank(getHeader(HttpHeader.AUTHORIZATION));
+  }
+
+  /**
+   * Checks whether this request may be sent through the configured {@link RequestCoalescer} as part of a
+   * <tt>$batch</tt> request. By default this is the case for batchable <tt>GET</tt> requests; requests returning
+   * streams should not be coalesced.
+   *
+   * @return whether this request may be coalesced with others
+   */
+  protected boolean isCoalescable() {
+    return method == HttpMethod.GET && this instanceof ODataBatchableRequest;
+  }
+
+  private HttpResponse applyResponseCache(final HttpResponseCache cache, final String cacheUri,
+      final CachedHttpResponse cached, final HttpResponse response) {
+
+    final int statusCode = response.getStatusLine().getStatusCode();
+    if (method != HttpMethod.GET) {
+      if (statusCode < 400) {
+        final String invalidationPrefix = ResponseCaching.getInvalidationPrefix(cacheUri);
+        if (invalidationPrefix == null) {
+          cache.clear();
+        } else {
+          cache.invalidate(invalidationPrefix);
+        }
+      }
+      return response;
+    }
+    if (!isCacheable()) {
+      return response;
+    }
+
+    final long now = System.currentTimeMillis();
+    try {
+      if (statusCode == HttpStatus.SC_NOT_MODIFIED && cached != null) {
+        final CachedHttpResponse revalidated = ResponseCaching.revalidate(cached, response, now);
+        cache.put(revalidated);
+        EntityUtils.consumeQuietly(response.getEntity());
+        closeHttpResponse(response);
+        return ResponseCaching.toHttpResponse(revalidated);
+      }
+      final CachedHttpResponse stored = ResponseCaching.toCachedResponse(cacheUri, getAccept(), response, now);
+      if (stored != null) {
+        cache.put(stored);
+        closeHttpResponse(response);
+        return ResponseCaching.toHttpResponse(stored);
+      }
+    } catch (IOException e) {
+      closeHttpResponse(response);
+      throw new HttpClientException(cacheUri, e);
+    }
+    return response;
+  }
+
   private void closeHttpResponse(HttpResponse response) {
     if (response instanceof CloseableHttpResponse) {
       try {
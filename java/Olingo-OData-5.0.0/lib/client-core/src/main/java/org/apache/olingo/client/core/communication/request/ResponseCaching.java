@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.communication.request;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.apache.olingo.client.api.http.CachedHttpResponse;
+import org.apache.olingo.commons.api.http.HttpHeader;
+
+/**
+ * Conversion between HTTP responses and {@link CachedHttpResponse} instances,
+ * following the <tt>Cache-Control</tt> rules relevant for a private client cache.
+ */
+final class ResponseCaching {
+
+  private static final String NO_STORE = "no-store";
+
+  private static final String NO_CACHE = "no-cache";
+
+  private static final String MAX_AGE = "max-age=";
+
+  /**
+   * Headers describing the transfer of the original body, which do not apply to the buffered copy.
+   */
+  private static final String[] TRANSFER_HEADERS = { "Content-Length", "Transfer-Encoding", "Content-Encoding" };
+
+  /**
+   * Request headers a response may vary on and still be stored: entries are keyed by <tt>Accept</tt>,
+   * and the body is stored after content decoding.
+   */
+  private static final String[] KEY_HEADERS = { HttpHeader.ACCEPT, "Accept-Encoding" };
+
+  private static final String BATCH_SEGMENT = "/$batch";
+
+  private ResponseCaching() {
+    // Utility class
+  }
+
+  /**
+   * Gets the freshness lifetime granted by the <tt>Cache-Control</tt> headers of a response.
+   *
+   * @param response HTTP response
+   * @return seconds the response is fresh, <tt>0</tt> if it must be revalidated, <tt>-1</tt> if it must not be stored
+   */
+  static long getMaxAge(final HttpResponse response) {
+    long maxAge = 0;
+    boolean noCache = false;
+    for (Header header : response.getHeaders(HttpHeader.CACHE_CONTROL)) {
+      for (String directive : header.getValue().split(",")) {
+        final String normalized = directive.trim().toLowerCase(Locale.ROOT);
+        if (normalized.equals(NO_STORE)) {
+          return -1;
+        } else if (normalized.equals(NO_CACHE)) {
+          noCache = true;
+        } else if (normalized.startsWith(MAX_AGE)) {
+          try {
+            maxAge = Math.max(0, Long.parseLong(normalized.substring(MAX_AGE.length()).replace("\"", "")));
+          } catch (NumberFormatException e) {
+            maxAge = 0;
+          }
+        }
+      }
+    }
+    return noCache ? 0 : maxAge;
+  }
+
+  /**
+   * Buffers a successful response for storage. Responses that are neither fresh for some time nor
+   * carry an ETag for revalidation are not worth storing.
+   *
+   * @param uri request URI
+   * @param accept <tt>Accept</tt> header of the request
+   * @param response HTTP response; its entity is consumed if a cache entry is created
+   * @param now current time in milliseconds since the epoch
+   * @return cache entry or <tt>null</tt> if the response must not or need not be stored
+   * @throws IOException if the response body cannot be read
+   */
+  static CachedHttpResponse toCachedResponse(final String uri, final String accept, final HttpResponse response,
+      final long now) throws IOException {
+
+    if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
+      return null;
+    }
+    final long maxAge = getMaxAge(response);
+    final Header eTagHeader = response.getFirstHeader(HttpHeader.ETAG);
+    if (maxAge < 0 || maxAge == 0 && eTagHeader == null || !isKeyedByAccept(response)) {
+      return null;
+    }
+
+    final List<Header> headers = new ArrayList<>();
+    for (Header header : response.getAllHeaders()) {
+      if (!isTransferHeader(header.getName())) {
+        headers.add(header);
+      }
+    }
+    final HttpEntity entity = response.getEntity();
+    final byte[] body = entity == null ? new byte[0] : EntityUtils.toByteArray(entity);
+    if (entity != null && entity.getContentType() != null && response.getFirstHeader(HttpHeader.CONTENT_TYPE) == null) {
+      headers.add(entity.getContentType());
+    }
+
+    return new CachedHttpResponse(uri, accept, HttpStatus.SC_OK, response.getStatusLine().getReasonPhrase(),
+        headers.toArray(new Header[headers.size()]), body,
+        eTagHeader == null ? null : eTagHeader.getValue(), now, maxAge);
+  }
+
+  /**
+   * Updates a cache entry after a <tt>304 Not Modified</tt> response.
+   *
+   * @param cached stale cache entry
+   * @param response revalidation response
+   * @param now current time in milliseconds since the epoch
+   * @return revalidated entry
+   */
+  static CachedHttpResponse revalidate(final CachedHttpResponse cached, final HttpResponse response, final long now) {
+    final List<Header> headers = new ArrayList<>();
+    for (Header header : response.getAllHeaders()) {
+      if (!isTransferHeader(header.getName())) {
+        headers.add(header);
+      }
+    }
+    return cached.revalidated(now, Math.max(0, getMaxAge(response)), headers.toArray(new Header[headers.size()]));
+  }
+
+  /**
+   * Gets the URI prefix of the cache entries a successful modification may have changed. Besides the
+   * target itself, this is the whole entity set, since collection requests with e.g. <tt>$filter</tt> or
+   * <tt>$expand</tt> below it may contain the modified entity.
+   *
+   * @param uri request URI of the modification
+   * @return URI of the entity set, i.e., the path up to the first key predicate, or <tt>null</tt>
+   * if any cache entry may be affected, as for <tt>$batch</tt> requests
+   */
+  static String getInvalidationPrefix(final String uri) {
+    int end = uri.indexOf('?');
+    if (end < 0) {
+      end = uri.indexOf('#');
+    }
+    final String path = end < 0 ? uri : uri.substring(0, end);
+    if (path.endsWith(BATCH_SEGMENT)) {
+      return null;
+    }
+    final int keyPredicate = path.indexOf('(', path.indexOf("//") + 2);
+    return keyPredicate < 0 ? path : path.substring(0, keyPredicate);
+  }
+
+  /**
+   * Creates an HTTP response serving a cache entry.
+   *
+   * @param cached cache entry
+   * @return HTTP response with a repeatable in-memory entity
+   */
+  static HttpResponse toHttpResponse(final CachedHttpResponse cached) {
+    final BasicHttpResponse response =
+        new BasicHttpResponse(HttpVersion.HTTP_1_1, cached.getStatusCode(), cached.getReasonPhrase());
+    response.setHeaders(cached.getHeaders());
+    final ByteArrayEntity entity = new ByteArrayEntity(cached.getBody());
+    entity.setContentType(cached.getHeader(HttpHeader.CONTENT_TYPE));
+    response.setEntity(entity);
+    return response;
+  }
+
+  /**
+   * Checks whether the <tt>Vary</tt> headers of a response name only request headers the cache key covers.
+   * Responses varying on e.g. <tt>Authorization</tt> or <tt>Prefer</tt> must not be served to other requests.
+   */
+  private static boolean isKeyedByAccept(final HttpResponse response) {
+    for (Header header : response.getHeaders(HttpHeader.VARY)) {
+      for (String name : header.getValue().split(",")) {
+        final String trimmed = name.trim();
+        if (!trimmed.isEmpty() && !isKeyHeader(trimmed)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static boolean isKeyHeader(final String name) {
+    for (String keyHeader : KEY_HEADERS) {
+      if (keyHeader.equalsIgnoreCase(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isTransferHeader(final String name) {
+    for (String transferHeader : TRANSFER_HEADERS) {
+      if (transferHeader.equalsIgnoreCase(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,445 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.communication.request.batch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.olingo.client.api.ODataBatchConstants;
+import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.api.communication.header.ODataPreferences;
+import org.apache.olingo.client.api.communication.request.batch.ODataBatchLineIterator;
+import org.apache.olingo.client.api.communication.request.batch.RequestCoalescer;
+import org.apache.olingo.client.api.http.HttpClientException;
+import org.apache.olingo.commons.api.Constants;
+import org.apache.olingo.commons.api.edm.constants.ODataServiceVersion;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces requests issued concurrently into a single <tt>$batch</tt> request.
+ * <br/>
+ * A request arriving while no other request is in flight is sent on its own right away, so a lone caller is
+ * never delayed. Requests arriving while others are in flight are collected in a window, one per client, until
+ * the in-flight requests have been answered, the window elapses or the maximum number of requests is reached.
+ * The first request of the window then sends the batch on its own thread and hands each waiting caller its part
+ * of the response. Each batch is sent with the configuration of the client its requests were issued by, and
+ * carries all headers of each request, including conditional ones added for cache revalidation.
+ * <br/>
+ * The batch is sent with the <tt>odata.continue-on-error</tt> preference, so a failing request does not affect
+ * the others; each caller gets its own error status. Only requests below the configured service root are
+ * coalesced.
+ */
+public class BatchRequestCoalescer implements RequestCoalescer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BatchRequestCoalescer.class);
+
+  private static final Charset DEFAULT_CHARSET = Charset.forName("UTF-8");
+
+  private static final byte[] CRLF = { 13, 10 };
+
+  private final String serviceRoot;
+
+  private final long windowMillis;
+
+  private final int maxRequests;
+
+  private final Object lock = new Object();
+
+  /**
+   * Windows currently collecting requests, per client.
+   */
+  private final Map<ODataClient, Window> windows = new IdentityHashMap<>();
+
+  /**
+   * Number of requests and batches sent and not yet answered.
+   */
+  private int inFlight;
+
+  private final AtomicLong batches = new AtomicLong();
+
+  private final AtomicLong batchedRequests = new AtomicLong();
+
+  private final AtomicLong singleRequests = new AtomicLong();
+
+  private final AtomicLong failedRequests = new AtomicLong();
+
+  /**
+   * Constructor.
+   *
+   * @param serviceRoot service root the <tt>$batch</tt> requests are sent to
+   * @param windowMillis maximum time in milliseconds the first request of a window waits for others while
+   * requests are in flight
+   * @param maxRequests maximum number of requests in one batch
+   */
+  public BatchRequestCoalescer(final String serviceRoot, final long windowMillis, final int maxRequests) {
+    if (windowMillis < 0 || maxRequests < 1) {
+      throw new IllegalArgumentException("Invalid window " + windowMillis + " ms / " + maxRequests + " requests");
+    }
+    this.serviceRoot = serviceRoot.endsWith("/") ? serviceRoot : serviceRoot + "/";
+    this.windowMillis = windowMillis;
+    this.maxRequests = maxRequests;
+  }
+
+  @Override
+  public HttpResponse execute(final ODataClient client, final HttpClient httpClient, final HttpUriRequest request) {
+    if (!request.getURI().toASCIIString().startsWith(serviceRoot)) {
+      return null;
+    }
+
+    final Window window;
+    final CompletableFuture<HttpResponse> response = new CompletableFuture<>();
+    final boolean leader;
+    synchronized (lock) {
+      if (inFlight == 0 && !windows.containsKey(client)) {
+        inFlight++;
+        window = null;
+        leader = false;
+      } else {
+        leader = !windows.containsKey(client);
+        if (leader) {
+          windows.put(client, new Window(client));
+        }
+        window = windows.get(client);
+        window.requests.add(request);
+        window.responses.add(response);
+        if (window.requests.size() >= maxRequests) {
+          close(window);
+        }
+      }
+    }
+
+    if (window == null) {
+      singleRequests.incrementAndGet();
+      return sendSingle(httpClient, request);
+    }
+    if (leader) {
+      awaitWindow(window);
+      send(window, httpClient);
+    }
+
+    try {
+      return response.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HttpClientException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new HttpClientException(e.getCause());
+    }
+  }
+
+  /**
+   * Waits until the given window has been filled up or has elapsed, or no other request is in flight any more,
+   * and closes it.
+   */
+  private void awaitWindow(final Window window) {
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMillis);
+    synchronized (lock) {
+      try {
+        long remaining = windowMillis;
+        while (windows.get(window.client) == window && inFlight > 0 && remaining > 0) {
+          lock.wait(remaining);
+          remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        if (windows.get(window.client) == window) {
+          close(window);
+        }
+      }
+    }
+  }
+
+  /**
+   * Stops the given window from collecting further requests; the batch it is sent with counts as in flight.
+   * Must be called while holding the lock.
+   */
+  private void close(final Window window) {
+    windows.remove(window.client);
+    inFlight++;
+    lock.notifyAll();
+  }
+
+  private void released() {
+    synchronized (lock) {
+      inFlight--;
+      lock.notifyAll();
+    }
+  }
+
+  private HttpResponse sendSingle(final HttpClient httpClient, final HttpUriRequest request) {
+    try {
+      return httpClient.execute(request);
+    } catch (IOException e) {
+      throw new HttpClientException(request.getURI().toASCIIString(), e);
+    } catch (RuntimeException e) {
+      request.abort();
+      throw new HttpClientException(request.getURI().toASCIIString(), e);
+    } finally {
+      released();
+    }
+  }
+
+  private void send(final Window window, final HttpClient httpClient) {
+    if (window.requests.size() == 1) {
+      singleRequests.incrementAndGet();
+      try {
+        window.responses.get(0).complete(sendSingle(httpClient, window.requests.get(0)));
+      } catch (RuntimeException e) {
+        window.responses.get(0).completeExceptionally(e);
+      }
+      return;
+    }
+
+    batches.incrementAndGet();
+    batchedRequests.addAndGet(window.requests.size());
+    try {
+      final List<HttpResponse> responses = sendBatch(window.client, window.requests);
+      for (int i = 0; i < window.responses.size(); i++) {
+        final HttpResponse response = i < responses.size() ? responses.get(i) : null;
+        if (response == null) {
+          failedRequests.incrementAndGet();
+          window.responses.get(i).completeExceptionally(new HttpClientException(
+              "No response for " + window.requests.get(i).getURI() + " in batch response"));
+        } else {
+          if (response.getStatusLine().getStatusCode() >= 400) {
+            failedRequests.incrementAndGet();
+          }
+          window.responses.get(i).complete(response);
+        }
+      }
+    } catch (RuntimeException e) {
+      LOG.error("Error executing coalesced batch request", e);
+      failedRequests.addAndGet(window.requests.size());
+      for (CompletableFuture<HttpResponse> response : window.responses) {
+        response.completeExceptionally(e);
+      }
+    } finally {
+      released();
+    }
+  }
+
+  private List<HttpResponse> sendBatch(final ODataClient client, final List<HttpUriRequest> requests) {
+    final String boundary = "batch_" + UUID.randomUUID().toString();
+    final URI uri = URI.create(serviceRoot + "$batch");
+
+    final HttpUriRequest batch = client.getConfiguration().getHttpUriRequestFactory().create(HttpMethod.POST, uri);
+    batch.addHeader(HttpHeader.CONTENT_TYPE,
+        ContentType.MULTIPART_MIXED.toContentTypeString() + ";" + ODataBatchConstants.BOUNDARY + "=" + boundary);
+    batch.addHeader(HttpHeader.ACCEPT, ContentType.MULTIPART_MIXED.toContentTypeString());
+    batch.addHeader(HttpHeader.ODATA_MAX_VERSION, ODataServiceVersion.V40.toString());
+    batch.addHeader(HttpHeader.PREFER, new ODataPreferences().continueOnError());
+    ((HttpEntityEnclosingRequestBase) batch).setEntity(new ByteArrayEntity(toPayload(boundary, requests)));
+
+    final HttpClient httpClient = client.getConfiguration().getHttpClientFactory().create(HttpMethod.POST, uri);
+    HttpResponse response = null;
+    try {
+      response = httpClient.execute(batch);
+      if (response.getStatusLine().getStatusCode() >= 400 || response.getEntity() == null) {
+        throw new HttpClientException("Batch request failed with '" + response.getStatusLine() + "'");
+      }
+      return toResponses(response, requests.size());
+    } catch (IOException e) {
+      throw new HttpClientException(uri.toASCIIString(), e);
+    } finally {
+      if (response instanceof CloseableHttpResponse) {
+        IOUtils.closeQuietly((CloseableHttpResponse) response);
+      }
+      client.getConfiguration().getHttpClientFactory().close(httpClient);
+    }
+  }
+
+  private static byte[] toPayload(final String boundary, final List<HttpUriRequest> requests) {
+    final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    try {
+      for (HttpUriRequest request : requests) {
+        payload.write(CRLF);
+        payload.write(("--" + boundary).getBytes(DEFAULT_CHARSET));
+        payload.write(CRLF);
+        payload.write(ODataBatchConstants.ITEM_CONTENT_TYPE_LINE.getBytes(DEFAULT_CHARSET));
+        payload.write(CRLF);
+        payload.write(ODataBatchConstants.ITEM_TRANSFER_ENCODING_LINE.getBytes(DEFAULT_CHARSET));
+        payload.write(CRLF);
+        payload.write(CRLF);
+        writeRequest(payload, request);
+        payload.write(CRLF);
+      }
+      payload.write(CRLF);
+      payload.write(("--" + boundary + "--").getBytes(DEFAULT_CHARSET));
+      payload.write(CRLF);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    return payload.toByteArray();
+  }
+
+  /**
+   * Writes request line and headers of the given request, exactly as they would have been sent on their own.
+   */
+  private static void writeRequest(final ByteArrayOutputStream payload, final HttpUriRequest request)
+      throws IOException {
+
+    payload.write((request.getMethod() + ' ' + request.getURI() + " HTTP/1.1").getBytes(DEFAULT_CHARSET));
+    payload.write(CRLF);
+    for (Header header : request.getAllHeaders()) {
+      if (StringUtils.isNotBlank(header.getValue())) {
+        payload.write((header.getName() + ": " + header.getValue()).getBytes(DEFAULT_CHARSET));
+        payload.write(CRLF);
+      }
+    }
+  }
+
+  /**
+   * Splits the batch response into one HTTP response per item; missing items are returned as <tt>null</tt>.
+   */
+  private static List<HttpResponse> toResponses(final HttpResponse batchResponse, final int expected)
+      throws IOException {
+
+    final List<HttpResponse> responses = new ArrayList<>(expected);
+    final InputStream content = batchResponse.getEntity().getContent();
+    try {
+      final List<String> contentType = new ArrayList<>();
+      contentType.add(batchResponse.getFirstHeader(HttpHeader.CONTENT_TYPE).getValue());
+      final String boundary = ODataBatchUtilities.getBoundaryFromHeader(contentType);
+      final ODataBatchLineIterator lines =
+          new ODataBatchLineIteratorImpl(IOUtils.lineIterator(content, Constants.UTF8));
+
+      while (responses.size() < expected) {
+        final Map<String, Collection<String>> itemHeaders = ODataBatchUtilities.nextItemHeaders(lines, boundary);
+        if (ODataBatchUtilities.getItemType(itemHeaders) != ODataBatchUtilities.BatchItemType.RETRIEVE) {
+          break;
+        }
+        responses.add(toResponse(lines, boundary));
+      }
+    } finally {
+      IOUtils.closeQuietly(content);
+    }
+    while (responses.size() < expected) {
+      responses.add(null);
+    }
+    return responses;
+  }
+
+  private static HttpResponse toResponse(final ODataBatchLineIterator lines, final String boundary) {
+    final Map.Entry<Integer, String> responseLine = ODataBatchUtilities.readResponseLine(lines);
+    final Map<String, Collection<String>> headers = ODataBatchUtilities.readHeaders(lines);
+
+    final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    ODataBatchUtilities.readBatchPart(new ODataBatchController(lines, boundary), body, true);
+
+    final BasicHttpResponse response =
+        new BasicHttpResponse(HttpVersion.HTTP_1_1, responseLine.getKey(), responseLine.getValue());
+    for (Map.Entry<String, Collection<String>> header : headers.entrySet()) {
+      for (String value : header.getValue()) {
+        response.addHeader(header.getKey(), value);
+      }
+    }
+    final ByteArrayEntity entity = new ByteArrayEntity(body.toByteArray());
+    if (response.getFirstHeader(HttpHeader.CONTENT_TYPE) != null) {
+      entity.setContentType(response.getFirstHeader(HttpHeader.CONTENT_TYPE));
+    }
+    response.setEntity(entity);
+    return response;
+  }
+
+  /**
+   * Gets the number of <tt>$batch</tt> requests sent.
+   *
+   * @return number of batches
+   */
+  public long getBatchCount() {
+    return batches.get();
+  }
+
+  /**
+   * Gets the number of requests sent as part of a <tt>$batch</tt> request.
+   *
+   * @return number of batched requests
+   */
+  public long getBatchedRequestCount() {
+    return batchedRequests.get();
+  }
+
+  /**
+   * Gets the number of requests sent on their own, because no other request was in flight or arrived within
+   * their window.
+   *
+   * @return number of requests not batched
+   */
+  public long getSingleRequestCount() {
+    return singleRequests.get();
+  }
+
+  /**
+   * Gets the number of batched requests which failed, either with an error status or because the whole batch
+   * failed.
+   *
+   * @return number of failed batched requests
+   */
+  public long getFailedRequestCount() {
+    return failedRequests.get();
+  }
+
+  /**
+   * Requests collected within one window.
+   */
+  private static final class Window {
+
+    private final ODataClient client;
+
+    private final List<HttpUriRequest> requests = new ArrayList<>();
+
+    private final List<CompletableFuture<HttpResponse>> responses = new ArrayList<>();
+
+    private Window(final ODataClient client) {
+      this.client = client;
+    }
+  }
+}
@@ -25,10 +25,8 @@ import org.apache.http.client.HttpClient;
 import org.apache.olingo.client.api.ODataClient;
 import org.apache.olingo.client.api.communication.request.retrieve.ODataEntityRequest;
 import org.apache.olingo.client.api.communication.response.ODataRetrieveResponse;
-import org.apache.olingo.client.api.data.ResWrap;
 import org.apache.olingo.client.api.domain.ClientEntity;
 import org.apache.olingo.client.api.serialization.ODataDeserializerException;
-import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.format.ContentType;
 
 /**
@@ -75,10 +73,7 @@ public class ODataEntityRequestImpl<E extends ClientEntity>
     public E getBody() {
       if (entity == null) {
         try {
-          final ResWrap<Entity> resource = odataClient.getDeserializer(ContentType.parse(getContentType())).
-                  toEntity(getRawResponse());
-
-          entity = (E) odataClient.getBinder().getODataEntity(resource);
+          entity = (E) odataClient.getReader().readEntity(getRawResponse(), ContentType.parse(getContentType()));
         } catch (ODataDeserializerException e) {
           throw new IllegalArgumentException(e);
         } finally {
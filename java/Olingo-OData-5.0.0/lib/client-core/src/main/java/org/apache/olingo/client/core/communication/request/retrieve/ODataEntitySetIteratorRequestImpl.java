@@ -54,6 +54,22 @@ public class ODataEntitySetIteratorRequestImpl<ES extends ClientEntitySet, E ext
     return odataClient.getConfiguration().getDefaultPubFormat();
   }
 
+  /**
+   * The response is consumed as a stream, so it is never buffered into the response cache.
+   */
+  @Override
+  protected boolean isCacheable() {
+    return false;
+  }
+
+  /**
+   * The response is consumed as a stream, so it is never buffered out of a batch response.
+   */
+  @Override
+  protected boolean isCoalescable() {
+    return false;
+  }
+
   @Override
   public ODataRetrieveResponse<ClientEntitySetIterator<ES, E>> execute() {
     final HttpResponse res = doExecute();
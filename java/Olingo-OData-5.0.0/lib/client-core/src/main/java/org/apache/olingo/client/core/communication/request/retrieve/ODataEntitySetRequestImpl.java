@@ -25,10 +25,8 @@ import org.apache.http.client.HttpClient;
 import org.apache.olingo.client.api.ODataClient;
 import org.apache.olingo.client.api.communication.request.retrieve.ODataEntitySetRequest;
 import org.apache.olingo.client.api.communication.response.ODataRetrieveResponse;
-import org.apache.olingo.client.api.data.ResWrap;
 import org.apache.olingo.client.api.domain.ClientEntitySet;
 import org.apache.olingo.client.api.serialization.ODataDeserializerException;
-import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.format.ContentType;
 
 /**
@@ -78,11 +76,8 @@ public class ODataEntitySetRequestImpl<ES extends ClientEntitySet>
     public ES getBody() {
       if (entitySet == null) {
         try {
-          final ResWrap<EntityCollection> resource =
-              odataClient.getDeserializer(ContentType.parse(getContentType())).
-                  toEntitySet(getRawResponse());
-
-          entitySet = (ES) odataClient.getBinder().getODataEntitySet(resource);
+          entitySet = (ES) odataClient.getReader().
+              readEntitySet(getRawResponse(), ContentType.parse(getContentType()));
         } catch (final ODataDeserializerException e) {
           throw new IllegalArgumentException(e);
         } finally {
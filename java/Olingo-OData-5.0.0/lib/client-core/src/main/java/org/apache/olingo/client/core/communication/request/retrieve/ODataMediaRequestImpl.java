@@ -51,6 +51,22 @@ public class ODataMediaRequestImpl extends AbstractODataRetrieveRequest<InputStr
     return odataClient.getConfiguration().getDefaultMediaFormat();
   }
 
+  /**
+   * The response is consumed as a stream, so it is never buffered into the response cache.
+   */
+  @Override
+  protected boolean isCacheable() {
+    return false;
+  }
+
+  /**
+   * Binary content does not survive the line-based parsing of batch responses.
+   */
+  @Override
+  protected boolean isCoalescable() {
+    return false;
+  }
+
   @Override
   public ODataRetrieveResponse<InputStream> execute() {
     final HttpResponse res = doExecute();
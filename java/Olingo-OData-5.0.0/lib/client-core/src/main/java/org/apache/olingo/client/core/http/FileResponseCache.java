@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.http;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import org.apache.http.Header;
+import org.apache.http.message.BasicHeader;
+import org.apache.olingo.client.api.http.CachedHttpResponse;
+import org.apache.olingo.client.api.http.HttpResponseCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Response cache storing one file per response in a directory, so that responses survive restarts.
+ * <br/>
+ * The directory is scanned once on construction; unreadable files are deleted. The total size of the
+ * files is bounded; the least recently used responses are deleted when it is exceeded. Typically used as
+ * second level of an {@link InMemoryResponseCache}. I/O errors are logged and treated as cache misses.
+ */
+public class FileResponseCache implements HttpResponseCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FileResponseCache.class);
+
+  private static final int FORMAT_VERSION = 1;
+
+  private static final String SUFFIX = ".response";
+
+  /**
+   * Default bound of the total file size: 64 MB.
+   */
+  public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+  private final File directory;
+
+  private final long maxBytes;
+
+  /**
+   * Files by cache key, least recently used first; guarded by <tt>this</tt>.
+   */
+  private final LinkedHashMap<String, CacheFile> files = new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * Keys in natural order, used to find all entries below a URI; guarded by <tt>this</tt>.
+   */
+  private final NavigableSet<String> keys = new TreeSet<>();
+
+  /**
+   * Total size of the files; guarded by <tt>this</tt>.
+   */
+  private long size;
+
+  /**
+   * Constructor, bounding the total size by {@link #DEFAULT_MAX_BYTES}.
+   *
+   * @param directory directory holding the cached responses; it is created if it does not exist
+   */
+  public FileResponseCache(final File directory) {
+    this(directory, DEFAULT_MAX_BYTES);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param directory directory holding the cached responses; it is created if it does not exist
+   * @param maxBytes maximum total size of the files in the directory
+   */
+  public FileResponseCache(final File directory, final long maxBytes) {
+    this.directory = directory;
+    this.maxBytes = maxBytes;
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IllegalArgumentException("Cannot create cache directory " + directory);
+    }
+    final List<File> existing = new ArrayList<>();
+    final File[] listed = directory.listFiles();
+    if (listed != null) {
+      Collections.addAll(existing, listed);
+    }
+    // the least recently written files are the first to be evicted
+    Collections.sort(existing, new Comparator<File>() {
+      @Override
+      public int compare(final File file1, final File file2) {
+        return Long.compare(file1.lastModified(), file2.lastModified());
+      }
+    });
+    synchronized (this) {
+      for (File file : existing) {
+        if (file.getName().endsWith(SUFFIX)) {
+          final CachedHttpResponse response = read(file);
+          if (response == null) {
+            delete(file);
+          } else {
+            store(InMemoryResponseCache.key(response.getUri(), response.getAccept()),
+                new CacheFile(file, file.length()));
+          }
+        }
+      }
+      evict();
+    }
+  }
+
+  @Override
+  public CachedHttpResponse get(final String uri, final String accept) {
+    final CacheFile cacheFile;
+    synchronized (this) {
+      cacheFile = files.get(InMemoryResponseCache.key(uri, accept));
+    }
+    return cacheFile == null ? null : read(cacheFile.file);
+  }
+
+  @Override
+  public void put(final CachedHttpResponse response) {
+    final String key = InMemoryResponseCache.key(response.getUri(), response.getAccept());
+    final File file = new File(directory, digest(key) + SUFFIX);
+    final File temp = new File(directory, file.getName() + "." + Thread.currentThread().getId() + ".tmp");
+    try {
+      write(temp, response);
+      if (!temp.renameTo(file)) {
+        delete(file);
+        if (!temp.renameTo(file)) {
+          throw new IOException("Cannot rename " + temp + " to " + file);
+        }
+      }
+      final CacheFile cacheFile = new CacheFile(file, file.length());
+      synchronized (this) {
+        store(key, cacheFile);
+        evict();
+      }
+    } catch (IOException e) {
+      LOG.warn("Unable to store cached response for {}", response.getUri(), e);
+      delete(temp);
+    }
+  }
+
+  @Override
+  public synchronized void invalidate(final String uriPrefix) {
+    final Iterator<String> iterator = keys.subSet(uriPrefix, true, uriPrefix + Character.MAX_VALUE, true).iterator();
+    while (iterator.hasNext()) {
+      final CacheFile cacheFile = files.remove(iterator.next());
+      delete(cacheFile.file);
+      size -= cacheFile.size;
+      iterator.remove();
+    }
+  }
+
+  @Override
+  public void clear() {
+    invalidate("");
+  }
+
+  /**
+   * Gets the total size of the cached responses.
+   *
+   * @return size in bytes
+   */
+  public synchronized long getSize() {
+    return size;
+  }
+
+  /**
+   * Adds or replaces the file of a key as most recently used; called with the lock held.
+   */
+  private void store(final String key, final CacheFile cacheFile) {
+    final CacheFile previous = files.put(key, cacheFile);
+    if (previous != null) {
+      size -= previous.size;
+    }
+    keys.add(key);
+    size += cacheFile.size;
+  }
+
+  /**
+   * Deletes least recently used responses until the total size is within the bound; called with the lock held.
+   */
+  private void evict() {
+    final Iterator<Map.Entry<String, CacheFile>> eldest = files.entrySet().iterator();
+    while (size > maxBytes && eldest.hasNext()) {
+      final Map.Entry<String, CacheFile> entry = eldest.next();
+      delete(entry.getValue().file);
+      size -= entry.getValue().size;
+      keys.remove(entry.getKey());
+      eldest.remove();
+    }
+  }
+
+  private static void write(final File file, final CachedHttpResponse response) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+      out.writeInt(FORMAT_VERSION);
+      out.writeUTF(response.getUri());
+      writeNullable(out, response.getAccept());
+      out.writeInt(response.getStatusCode());
+      writeNullable(out, response.getReasonPhrase());
+      writeNullable(out, response.getETag());
+      out.writeLong(response.getStoredAt());
+      out.writeLong(response.getMaxAgeSeconds());
+      final Header[] headers = response.getHeaders();
+      out.writeInt(headers.length);
+      for (Header header : headers) {
+        out.writeUTF(header.getName());
+        out.writeUTF(header.getValue());
+      }
+      out.writeInt(response.getBody().length);
+      out.write(response.getBody());
+    }
+  }
+
+  private static CachedHttpResponse read(final File file) {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != FORMAT_VERSION) {
+        return null;
+      }
+      final String uri = in.readUTF();
+      final String accept = readNullable(in);
+      final int statusCode = in.readInt();
+      final String reasonPhrase = readNullable(in);
+      final String eTag = readNullable(in);
+      final long storedAt = in.readLong();
+      final long maxAge = in.readLong();
+      final Header[] headers = new Header[in.readInt()];
+      for (int i = 0; i < headers.length; i++) {
+        headers[i] = new BasicHeader(in.readUTF(), in.readUTF());
+      }
+      final byte[] body = new byte[in.readInt()];
+      in.readFully(body);
+      return new CachedHttpResponse(uri, accept, statusCode, reasonPhrase, headers, body, eTag, storedAt, maxAge);
+    } catch (IOException e) {
+      LOG.debug("Unable to read cached response {}", file, e);
+      return null;
+    }
+  }
+
+  private static void writeNullable(final DataOutputStream out, final String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readNullable(final DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static void delete(final File file) {
+    if (file.exists() && !file.delete()) {
+      LOG.warn("Unable to delete cached response {}", file);
+    }
+  }
+
+  /**
+   * A file holding one response, with its size.
+   */
+  private static final class CacheFile {
+
+    private final File file;
+
+    private final long size;
+
+    CacheFile(final File file, final long size) {
+      this.file = file;
+      this.size = size;
+    }
+  }
+
+  private static String digest(final String key) {
+    try {
+      final byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+      final StringBuilder hex = new StringBuilder(hash.length * 2);
+      for (byte b : hash) {
+        hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
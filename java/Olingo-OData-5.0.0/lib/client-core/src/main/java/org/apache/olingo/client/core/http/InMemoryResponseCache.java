@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.http;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import org.apache.olingo.client.api.http.CachedHttpResponse;
+import org.apache.olingo.client.api.http.HttpResponseCache;
+
+/**
+ * In-memory least-recently-used response cache bounded by number of entries and total size.
+ * <br/>
+ * An optional second-level cache (e.g. a {@link FileResponseCache}) receives all stored responses and
+ * is consulted on misses; hits from the second level are promoted into memory.
+ */
+public class InMemoryResponseCache implements HttpResponseCache {
+
+  private final int maxEntries;
+
+  private final long maxBytes;
+
+  private final HttpResponseCache secondLevel;
+
+  private final LinkedHashMap<String, CachedHttpResponse> entries =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * Keys in natural order, used to find all entries below a URI.
+   */
+  private final NavigableSet<String> keys = new TreeSet<>();
+
+  private long size;
+
+  /**
+   * Constructor.
+   *
+   * @param maxEntries maximum number of responses kept in memory
+   * @param maxBytes maximum total size of the responses kept in memory
+   */
+  public InMemoryResponseCache(final int maxEntries, final long maxBytes) {
+    this(maxEntries, maxBytes, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param maxEntries maximum number of responses kept in memory
+   * @param maxBytes maximum total size of the responses kept in memory
+   * @param secondLevel cache consulted on misses and updated on every change, or <tt>null</tt>
+   */
+  public InMemoryResponseCache(final int maxEntries, final long maxBytes, final HttpResponseCache secondLevel) {
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+    this.secondLevel = secondLevel;
+  }
+
+  @Override
+  public CachedHttpResponse get(final String uri, final String accept) {
+    synchronized (this) {
+      final CachedHttpResponse response = entries.get(key(uri, accept));
+      if (response != null || secondLevel == null) {
+        return response;
+      }
+    }
+    final CachedHttpResponse response = secondLevel.get(uri, accept);
+    if (response != null) {
+      synchronized (this) {
+        store(response);
+      }
+    }
+    return response;
+  }
+
+  @Override
+  public void put(final CachedHttpResponse response) {
+    synchronized (this) {
+      store(response);
+    }
+    if (secondLevel != null) {
+      secondLevel.put(response);
+    }
+  }
+
+  @Override
+  public void invalidate(final String uriPrefix) {
+    synchronized (this) {
+      final Iterator<String> iterator = keys.subSet(uriPrefix, true, uriPrefix + Character.MAX_VALUE, true).iterator();
+      while (iterator.hasNext()) {
+        size -= entries.remove(iterator.next()).getSize();
+        iterator.remove();
+      }
+    }
+    if (secondLevel != null) {
+      secondLevel.invalidate(uriPrefix);
+    }
+  }
+
+  @Override
+  public void clear() {
+    synchronized (this) {
+      entries.clear();
+      keys.clear();
+      size = 0;
+    }
+    if (secondLevel != null) {
+      secondLevel.clear();
+    }
+  }
+
+  /**
+   * Gets the number of responses kept in memory.
+   *
+   * @return number of responses
+   */
+  public synchronized int getEntryCount() {
+    return entries.size();
+  }
+
+  /**
+   * Gets the total size of the responses kept in memory.
+   *
+   * @return size in bytes
+   */
+  public synchronized long getSize() {
+    return size;
+  }
+
+  private void store(final CachedHttpResponse response) {
+    final long responseSize = response.getSize();
+    if (responseSize > maxBytes) {
+      return;
+    }
+    final String key = key(response.getUri(), response.getAccept());
+    final CachedHttpResponse previous = entries.put(key, response);
+    if (previous == null) {
+      keys.add(key);
+    } else {
+      size -= previous.getSize();
+    }
+    size += responseSize;
+
+    final Iterator<Map.Entry<String, CachedHttpResponse>> eldest = entries.entrySet().iterator();
+    while ((entries.size() > maxEntries || size > maxBytes) && eldest.hasNext()) {
+      final Map.Entry<String, CachedHttpResponse> entry = eldest.next();
+      size -= entry.getValue().getSize();
+      keys.remove(entry.getKey());
+      eldest.remove();
+    }
+  }
+
+  static String key(final String uri, final String accept) {
+    return accept == null ? uri + '\u0000' : uri + '\u0000' + accept;
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.http;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation returning one shared HttpClient whose connection pool is bounded, so that many concurrent
+ * (e.g. asynchronous) requests reuse a limited number of connections instead of opening one client each.
+ * <br/>
+ * Connections return to the pool when the response is closed; {@link #close(HttpClient)} therefore keeps the
+ * shared client open, and {@link #shutdown()} releases it.
+ */
+public class PoolingHttpClientFactory extends AbstractHttpClientFactory {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PoolingHttpClientFactory.class);
+
+  /**
+   * Default maximum number of open connections.
+   */
+  public static final int DEFAULT_MAX_CONNECTIONS = 50;
+
+  private final CloseableHttpClient httpClient;
+
+  /**
+   * Constructor, allowing {@link #DEFAULT_MAX_CONNECTIONS} open connections.
+   */
+  public PoolingHttpClientFactory() {
+    this(DEFAULT_MAX_CONNECTIONS);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param maxConnections maximum number of open connections, in total and per host; further requests wait
+   * for a connection to be released
+   */
+  public PoolingHttpClientFactory(final int maxConnections) {
+    final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(maxConnections);
+    connectionManager.setDefaultMaxPerRoute(maxConnections);
+    httpClient = HttpClientBuilder.create()
+        .setConnectionManager(connectionManager)
+        .setUserAgent(USER_AGENT)
+        .build();
+  }
+
+  @Override
+  public HttpClient create(final HttpMethod method, final URI uri) {
+    return httpClient;
+  }
+
+  @Override
+  public void close(final HttpClient httpClient) {
+    // the client is shared; connections are released by closing the responses
+  }
+
+  /**
+   * Closes the shared client and all pooled connections.
+   */
+  public void shutdown() {
+    try {
+      httpClient.close();
+    } catch (IOException e) {
+      LOG.warn("Unable to close shared HTTP client", e);
+    }
+  }
+}
@@ -0,0 +1,946 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.olingo.client.api.EdmEnabledODataClient;
+import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.api.data.ResWrap;
+import org.apache.olingo.client.api.domain.ClientAnnotation;
+import org.apache.olingo.client.api.domain.ClientCollectionValue;
+import org.apache.olingo.client.api.domain.ClientComplexValue;
+import org.apache.olingo.client.api.domain.ClientEntity;
+import org.apache.olingo.client.api.domain.ClientEntitySet;
+import org.apache.olingo.client.api.domain.ClientInlineEntity;
+import org.apache.olingo.client.api.domain.ClientInlineEntitySet;
+import org.apache.olingo.client.api.domain.ClientLink;
+import org.apache.olingo.client.api.domain.ClientLinkType;
+import org.apache.olingo.client.api.domain.ClientLinked;
+import org.apache.olingo.client.api.domain.ClientObjectFactory;
+import org.apache.olingo.client.api.domain.ClientOperation;
+import org.apache.olingo.client.api.domain.ClientProperty;
+import org.apache.olingo.client.api.domain.ClientValue;
+import org.apache.olingo.client.api.serialization.ODataDeserializerException;
+import org.apache.olingo.client.core.domain.ClientAnnotationImpl;
+import org.apache.olingo.client.core.domain.ClientPropertyImpl;
+import org.apache.olingo.client.core.uri.URIUtils;
+import org.apache.olingo.commons.api.Constants;
+import org.apache.olingo.commons.api.data.ContextURL;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmElement;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.EdmStructuredType;
+import org.apache.olingo.commons.api.edm.EdmTerm;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.edm.geo.Geospatial;
+import org.apache.olingo.commons.core.edm.EdmTypeInfo;
+import org.apache.olingo.commons.core.edm.primitivetype.EdmPrimitiveTypeFactory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads JSON entities and entity sets straight into client domain objects.
+ * <br/>
+ * Unlike {@link JsonDeserializer} followed by {@link ODataBinderImpl}, no intermediate
+ * {@link org.apache.olingo.commons.api.data.Entity} model and no JSON tree are built: values are typed and
+ * converted once, while walking the parser token stream. If the client is an {@link EdmEnabledODataClient},
+ * property types are taken from the entity type resolved via <tt>@odata.type</tt> or the context URL.
+ * <br/>
+ * As mandated by the OData JSON format, control information and property annotations are expected to precede the
+ * value they apply to.
+ */
+public class JsonClientEntityReader {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory(new ObjectMapper());
+
+  private final ODataClient client;
+
+  private final ODataBinderImpl binder;
+
+  private final JsonGeoValueDeserializer geoDeserializer = new JsonGeoValueDeserializer();
+
+  public JsonClientEntityReader(final ODataClient client) {
+    this.client = client;
+    this.binder = new ODataBinderImpl(client);
+  }
+
+  public ResWrap<ClientEntitySet> readEntitySet(final InputStream input) throws ODataDeserializerException {
+    try (JsonParser parser = JSON_FACTORY.createParser(input)) {
+      expectObject(parser);
+      return readEntitySet(parser, new ReadContext());
+    } catch (final IOException | EdmPrimitiveTypeException e) {
+      throw new ODataDeserializerException(e);
+    }
+  }
+
+  public ResWrap<ClientEntity> readEntity(final InputStream input) throws ODataDeserializerException {
+    try (JsonParser parser = JSON_FACTORY.createParser(input)) {
+      expectObject(parser);
+      final ReadContext context = new ReadContext();
+      final ClientEntity entity = readEntity(parser, new Structured(false, true, null), context);
+      return new ResWrap<>(context.contextURL, context.metadataETag, entity);
+    } catch (final IOException | EdmPrimitiveTypeException e) {
+      throw new ODataDeserializerException(e);
+    }
+  }
+
+  private void expectObject(final JsonParser parser) throws IOException, ODataDeserializerException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new ODataDeserializerException("Expected JSON object, found " + parser.getCurrentToken());
+    }
+  }
+
+  private ResWrap<ClientEntitySet> readEntitySet(final JsonParser parser, final ReadContext context)
+      throws IOException, EdmPrimitiveTypeException {
+
+    Integer count = null;
+    String next = null;
+    String deltaLink = null;
+    final List<ClientEntity> entities = new ArrayList<>();
+    final List<ClientAnnotation> annotations = new ArrayList<>();
+    final List<String[]> operations = new ArrayList<>();
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = parser.getCurrentName();
+      final JsonToken token = parser.nextToken();
+
+      if (Constants.JSON_CONTEXT.equals(name) || Constants.JSON_METADATA.equals(name)) {
+        context.setContextURL(text(parser));
+      } else if (Constants.JSON_METADATA_ETAG.equals(name)) {
+        context.metadataETag = text(parser);
+      } else if (Constants.JSON_COUNT.equals(name)) {
+        count = token == JsonToken.VALUE_NULL ? null : parser.getValueAsInt();
+      } else if (Constants.JSON_NEXT_LINK.equals(name)) {
+        next = text(parser);
+      } else if (Constants.JSON_DELTA_LINK.equals(name)) {
+        deltaLink = text(parser);
+      } else if (Constants.VALUE.equals(name) && token == JsonToken.START_ARRAY) {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+          entities.add(readEntity(parser, new Structured(false, true, null), context));
+        }
+      } else if (name.startsWith("@")) {
+        annotations.add(readAnnotation(parser, name.substring(1), context));
+      } else if (name.startsWith("#")) {
+        operations.add(readOperation(parser, name));
+      } else {
+        parser.skipChildren();
+      }
+    }
+
+    final ClientObjectFactory factory = client.getObjectFactory();
+    final ClientEntitySet entitySet = next == null
+        ? factory.newEntitySet()
+        : factory.newEntitySet(URIUtils.getURI(context.base, next));
+    if (count != null) {
+      entitySet.setCount(count);
+    }
+    for (String[] operation : operations) {
+      entitySet.getOperations().add(newOperation(operation, context.base));
+    }
+    entitySet.getEntities().addAll(entities);
+    if (deltaLink != null) {
+      entitySet.setDeltaLink(URIUtils.getURI(context.base, deltaLink));
+    }
+    entitySet.getAnnotations().addAll(annotations);
+
+    return new ResWrap<>(context.contextURL, context.metadataETag, entitySet);
+  }
+
+  private ClientEntity readEntity(final JsonParser parser, final Structured entity, final ReadContext context)
+      throws IOException, EdmPrimitiveTypeException {
+
+    readFields(parser, entity, context);
+
+    final URI base = entity.topLevel ? context.base : null;
+    final EdmStructuredType edmType = resolveType(entity, context);
+    final FullQualifiedName typeName = entity.typeName == null
+        ? edmType == null ? null : edmType.getFullQualifiedName()
+        : new FullQualifiedName(entity.typeName);
+
+    final ClientObjectFactory factory = client.getObjectFactory();
+    final ClientEntity result = entity.readLink == null
+        ? factory.newEntity(typeName)
+        : factory.newEntity(typeName, URIUtils.getURI(base, entity.readLink));
+    if (StringUtils.isNotBlank(entity.eTag)) {
+      result.setETag(entity.eTag);
+    }
+    if (entity.editLink != null) {
+      result.setEditLink(URIUtils.getURI(base, entity.editLink));
+    }
+
+    if (entity.associationLinks != null) {
+      for (Map.Entry<String, String> link : entity.associationLinks.entrySet()) {
+        result.addLink(factory.newAssociationLink(link.getKey(), URIUtils.getURI(base, link.getValue())));
+      }
+    }
+    addNavigationLinks(entity, edmType, base, result);
+    if (entity.counts != null && edmType != null) {
+      // expanded but empty navigation properties only advertise their count
+      for (Map.Entry<String, Integer> count : entity.counts.entrySet()) {
+        if (edmType.getNavigationProperty(count.getKey()) != null
+            && result.getNavigationLink(count.getKey()) == null) {
+          final ClientEntitySet inline = factory.newEntitySet();
+          inline.setCount(count.getValue());
+          result.addLink(new ClientInlineEntitySet(null, ClientLinkType.ENTITY_SET_NAVIGATION, count.getKey(), inline));
+        }
+      }
+    }
+    if (entity.mediaLinks != null) {
+      for (Map.Entry<String, MediaLink> entry : entity.mediaLinks.entrySet()) {
+        final MediaLink link = entry.getValue();
+        if (link.readLink != null) {
+          result.addLink(factory.newMediaReadLink(entry.getKey(),
+              URIUtils.getURI(base, link.readLink), link.contentType, link.eTag));
+        }
+        if (link.editLink != null) {
+          result.addLink(factory.newMediaEditLink(entry.getKey(),
+              URIUtils.getURI(base, link.editLink), link.contentType, link.eTag));
+        }
+      }
+    }
+
+    if (entity.operations != null) {
+      for (String[] operation : entity.operations) {
+        result.getOperations().add(newOperation(operation, base));
+      }
+    }
+
+    final String mediaContentSource = entity.mediaEditLink == null ? entity.mediaReadLink : entity.mediaEditLink;
+    if (mediaContentSource != null) {
+      result.setMediaEntity(true);
+      result.setMediaContentSource(URIUtils.getURI(base, mediaContentSource));
+      result.setMediaContentType(entity.mediaContentType);
+      result.setMediaETag(entity.mediaETag);
+    }
+
+    result.getProperties().addAll(entity.properties);
+    result.setId(entity.id);
+    result.getAnnotations().addAll(entity.annotations);
+
+    return result;
+  }
+
+  private ClientComplexValue readComplex(final JsonParser parser, final EdmTypeInfo type,
+      final boolean collectionItem, final ReadContext context) throws IOException, EdmPrimitiveTypeException {
+
+    final Structured complex = new Structured(true, false,
+        type == null || !type.isComplexType() ? null : type.getComplexType());
+    readFields(parser, complex, context);
+
+    // items of complex collections keep the type name as advertised in the payload
+    final String typeName = complex.typeName == null
+        ? type == null ? null : type.getFullQualifiedName().toString()
+        : collectionItem ? context.getTypeInfo(complex.typeName).external() : complex.typeName;
+    final ClientComplexValue result = client.getObjectFactory().newComplexValue(typeName);
+    for (ClientProperty property : complex.properties) {
+      result.add(property);
+    }
+    addNavigationLinks(complex, resolveType(complex, context), null, result);
+    result.getAnnotations().addAll(complex.annotations);
+
+    return result;
+  }
+
+  private void addNavigationLinks(final Structured structured, final EdmStructuredType edmType, final URI base,
+      final ClientLinked linked) {
+
+    if (structured.navigationLinks == null) {
+      return;
+    }
+    for (Map.Entry<String, ClientLink> entry : structured.navigationLinks.entrySet()) {
+      ClientLink link = entry.getValue();
+      if (link == null) {
+        final String name = entry.getKey();
+        final EdmNavigationProperty navProperty = edmType == null ? null : edmType.getNavigationProperty(name);
+        final URI uri = URIUtils.getURI(base, structured.navigationHrefs.get(name));
+        link = navProperty != null && navProperty.isCollection()
+            ? client.getObjectFactory().newEntitySetNavigationLink(name, uri)
+            : client.getObjectFactory().newEntityNavigationLink(name, uri);
+        final List<ClientAnnotation> annotations = structured.removePropertyAnnotations(name);
+        if (annotations != null) {
+          link.getAnnotations().addAll(annotations);
+        }
+      }
+      linked.addLink(link);
+    }
+  }
+
+  private void readFields(final JsonParser parser, final Structured structured, final ReadContext context)
+      throws IOException, EdmPrimitiveTypeException {
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = parser.getCurrentName();
+      parser.nextToken();
+
+      final int at = name.indexOf('@');
+      if (at == 0) {
+        readControlInformation(parser, name, structured, context);
+      } else if (at > 0) {
+        readPropertyAnnotation(parser, name.substring(0, at), name.substring(at), structured, context);
+      } else if (name.startsWith("#")) {
+        structured.addOperation(readOperation(parser, name));
+      } else if (Constants.JSON_METADATA.equals(name) && structured.topLevel) {
+        context.setContextURL(text(parser));
+      } else {
+        readProperty(parser, name, structured, context);
+      }
+    }
+  }
+
+  private void readControlInformation(final JsonParser parser, final String name, final Structured structured,
+      final ReadContext context) throws IOException, EdmPrimitiveTypeException {
+
+    switch (name) {
+    case Constants.JSON_CONTEXT:
+      if (structured.topLevel && context.contextURL == null) {
+        context.setContextURL(text(parser));
+      }
+      break;
+
+    case Constants.JSON_METADATA_ETAG:
+      context.metadataETag = text(parser);
+      break;
+
+    case Constants.JSON_TYPE:
+      final String type = text(parser);
+      structured.typeName = type == null ? null : context.getTypeInfo(type).internal();
+      break;
+
+    case Constants.JSON_ID:
+      final String id = text(parser);
+      structured.id = id == null ? null : URI.create(id);
+      break;
+
+    case Constants.JSON_ETAG:
+      structured.eTag = text(parser);
+      break;
+
+    case Constants.JSON_READ_LINK:
+      structured.readLink = text(parser);
+      break;
+
+    case Constants.JSON_EDIT_LINK:
+      structured.editLink = text(parser);
+      break;
+
+    case Constants.JSON_MEDIA_READ_LINK:
+      structured.mediaReadLink = text(parser);
+      break;
+
+    case Constants.JSON_MEDIA_EDIT_LINK:
+      structured.mediaEditLink = text(parser);
+      break;
+
+    case Constants.JSON_MEDIA_CONTENT_TYPE:
+      structured.mediaContentType = text(parser);
+      break;
+
+    case Constants.JSON_MEDIA_ETAG:
+      structured.mediaETag = text(parser);
+      break;
+
+    default:
+      structured.annotations.add(readAnnotation(parser, name.substring(1), context));
+    }
+  }
+
+  private void readPropertyAnnotation(final JsonParser parser, final String property, final String suffix,
+      final Structured structured, final ReadContext context) throws IOException, EdmPrimitiveTypeException {
+
+    switch (suffix) {
+    case Constants.JSON_NAVIGATION_LINK:
+      final String href = text(parser);
+      if (href != null) {
+        structured.addNavigationHref(property, href);
+      }
+      break;
+
+    case Constants.JSON_ASSOCIATION_LINK:
+      final String associationHref = text(parser);
+      if (associationHref != null) {
+        structured.addAssociationLink(property, associationHref);
+      }
+      break;
+
+    case Constants.JSON_MEDIA_READ_LINK:
+      structured.getMediaLink(property).readLink = text(parser);
+      break;
+
+    case Constants.JSON_MEDIA_EDIT_LINK:
+      structured.getMediaLink(property).editLink = text(parser);
+      break;
+
+    case Constants.JSON_MEDIA_CONTENT_TYPE:
+      structured.getMediaLink(property).contentType = text(parser);
+      break;
+
+    case Constants.JSON_MEDIA_ETAG:
+      structured.getMediaLink(property).eTag = text(parser);
+      break;
+
+    case Constants.JSON_TYPE:
+      structured.addPropertyType(property, text(parser));
+      break;
+
+    case Constants.JSON_COUNT:
+      if (parser.getCurrentToken() != JsonToken.VALUE_NULL) {
+        structured.addCount(property, parser.getValueAsInt());
+      }
+      break;
+
+    default:
+      if (suffix.startsWith("@odata.")) {
+        parser.skipChildren();
+      } else {
+        structured.addPropertyAnnotation(property, readAnnotation(parser, suffix.substring(1), context));
+      }
+    }
+  }
+
+  private void readProperty(final JsonParser parser, final String name, final Structured structured,
+      final ReadContext context) throws IOException, EdmPrimitiveTypeException {
+
+    final EdmStructuredType edmType = resolveType(structured, context);
+    final EdmElement element = edmType == null ? null : edmType.getProperty(name);
+    final JsonToken token = parser.getCurrentToken();
+
+    final boolean linked = structured.navigationHrefs != null && structured.navigationHrefs.containsKey(name);
+
+    if ((token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY)
+        && (linked || element instanceof EdmNavigationProperty)) {
+
+      structured.putNavigationLink(name, readInline(parser, name,
+          element instanceof EdmNavigationProperty ? (EdmNavigationProperty) element : null, structured, context));
+    } else if (linked) {
+      // a navigation link with no expanded value
+      parser.skipChildren();
+    } else {
+      final String explicitType = structured.removePropertyType(name);
+      final ClientProperty property = new ClientPropertyImpl(name,
+          readValue(parser, context.getPropertyTypeInfo(element, explicitType), context));
+      final List<ClientAnnotation> annotations = structured.removePropertyAnnotations(name);
+      if (annotations != null) {
+        property.getAnnotations().addAll(annotations);
+      }
+      structured.properties.add(property);
+    }
+  }
+
+  private ClientLink readInline(final JsonParser parser, final String name, final EdmNavigationProperty navProperty,
+      final Structured structured, final ReadContext context) throws IOException, EdmPrimitiveTypeException {
+
+    final String href = structured.navigationHrefs == null ? null : structured.navigationHrefs.get(name);
+    final URI uri = href == null ? null : URIUtils.getURI(structured.topLevel ? context.base : null, href);
+    final EdmEntityType targetType = navProperty == null ? null : navProperty.getType();
+
+    if (parser.getCurrentToken() == JsonToken.START_OBJECT) {
+      return new ClientInlineEntity(uri, ClientLinkType.ENTITY_NAVIGATION, name,
+          readEntity(parser, new Structured(false, false, targetType), context));
+    }
+
+    final ClientEntitySet entitySet = client.getObjectFactory().newEntitySet();
+    final Integer count = structured.counts == null ? null : structured.counts.remove(name);
+    if (count != null) {
+      entitySet.setCount(count);
+    }
+    JsonToken token;
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+      if (token == JsonToken.START_OBJECT) {
+        entitySet.getEntities().add(readEntity(parser, new Structured(false, false, targetType), context));
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return new ClientInlineEntitySet(uri, ClientLinkType.ENTITY_SET_NAVIGATION, name, entitySet);
+  }
+
+  private ClientAnnotation readAnnotation(final JsonParser parser, final String term, final ReadContext context)
+      throws IOException, EdmPrimitiveTypeException {
+
+    EdmTypeInfo type = null;
+    final Edm edm = term.indexOf('.') > 0 ? context.getEdm() : null;
+    if (edm != null) {
+      final EdmTerm edmTerm = edm.getTerm(new FullQualifiedName(term));
+      if (edmTerm != null) {
+        type = context.getTypeInfo(edmTerm.getType().getFullQualifiedName().toString());
+      }
+    }
+    return new ClientAnnotationImpl(term, readValue(parser, type, context));
+  }
+
+  private String[] readOperation(final JsonParser parser, final String metadataAnchor) throws IOException {
+    final String[] operation = new String[] { metadataAnchor, null, null };
+    if (parser.getCurrentToken() == JsonToken.START_OBJECT) {
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        final String name = parser.getCurrentName();
+        parser.nextToken();
+        if (Constants.ATTR_TITLE.equals(name)) {
+          operation[1] = text(parser);
+        } else if (Constants.ATTR_TARGET.equals(name)) {
+          operation[2] = text(parser);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    } else {
+      parser.skipChildren();
+    }
+    return operation;
+  }
+
+  private ClientOperation newOperation(final String[] operation, final URI base) {
+    final ClientOperation result = new ClientOperation();
+    result.setMetadataAnchor(operation[0]);
+    result.setTitle(operation[1]);
+    result.setTarget(operation[2] == null ? null : URIUtils.getURI(base, operation[2]));
+    return result;
+  }
+
+  private ClientValue readValue(final JsonParser parser, final EdmTypeInfo type, final ReadContext context)
+      throws IOException, EdmPrimitiveTypeException {
+
+    return readValue(parser, type, false, context);
+  }
+
+  private ClientValue readValue(final JsonParser parser, final EdmTypeInfo type, final boolean collectionItem,
+      final ReadContext context) throws IOException, EdmPrimitiveTypeException {
+
+    switch (parser.getCurrentToken()) {
+    case START_ARRAY:
+      return readCollection(parser, type, context);
+
+    case START_OBJECT:
+      if (type != null && type.isPrimitiveType()) {
+        return readGeospatial(parser.<JsonNode> readValueAsTree(), type);
+      }
+      if (type == null) {
+        // without type information, geospatial values can only be told from complex values by their content
+        final JsonNode node = parser.readValueAsTree();
+        if (node.has(Constants.ATTR_TYPE)) {
+          final EdmTypeInfo geoType =
+              context.getTypeInfo("Edm.Geography" + node.get(Constants.ATTR_TYPE).asText());
+          if (geoType.isPrimitiveType()) {
+            return readGeospatial(node, geoType);
+          }
+        }
+        final JsonParser nodeParser = node.traverse(parser.getCodec());
+        nodeParser.nextToken();
+        return readComplex(nodeParser, null, collectionItem, context);
+      }
+      return readComplex(parser, type, collectionItem, context);
+
+    default:
+      return readScalar(parser, type);
+    }
+  }
+
+  private ClientValue readCollection(final JsonParser parser, final EdmTypeInfo type, final ReadContext context)
+      throws IOException, EdmPrimitiveTypeException {
+
+    final EdmTypeInfo itemType = type == null || !type.isCollection()
+        ? type
+        : context.getTypeInfo(type.getFullQualifiedName().toString());
+
+    final List<ClientValue> items = new ArrayList<>();
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      items.add(readValue(parser, itemType, true, context));
+    }
+
+    final ClientCollectionValue<ClientValue> collection = client.getObjectFactory().newCollectionValue(type == null
+        ? null
+        : "Collection(" + type.getFullQualifiedName().toString() + ")");
+    for (ClientValue item : items) {
+      collection.add(item);
+    }
+    return collection;
+  }
+
+  private ClientValue readGeospatial(final JsonNode node, final EdmTypeInfo type) {
+    final Geospatial geospatial = geoDeserializer.deserialize(node, type);
+    final EdmPrimitiveTypeKind kind = type.getPrimitiveTypeKind();
+    return client.getObjectFactory().newPrimitiveValueBuilder()
+        .setValue(geospatial)
+        .setType(kind == EdmPrimitiveTypeKind.Geography || kind == EdmPrimitiveTypeKind.Geometry
+            ? geospatial.getEdmPrimitiveTypeKind()
+            : kind)
+        .build();
+  }
+
+  private ClientValue readScalar(final JsonParser parser, final EdmTypeInfo type)
+      throws IOException, EdmPrimitiveTypeException {
+
+    final JsonToken token = parser.getCurrentToken();
+    if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+      parser.skipChildren();
+    }
+    final boolean isNull = token == JsonToken.VALUE_NULL;
+
+    if (type == null) {
+      return readUntypedScalar(parser, token);
+    }
+
+    EdmPrimitiveTypeKind kind = type.getPrimitiveTypeKind();
+    if (kind == null && type.isTypeDefinition()) {
+      kind = EdmPrimitiveTypeKind.valueOfFQN(type.getTypeDefinition().getUnderlyingType().getFullQualifiedName());
+    }
+    if (kind != null) {
+      return primitive(kind, isNull ? null : valueOf(kind, parser.getText()));
+    }
+    if (isNull && type.isComplexType()) {
+      return client.getObjectFactory().newComplexValue(type.getFullQualifiedName().toString());
+    }
+    if (isNull && !type.isEnumType()) {
+      return primitive(null, null);
+    }
+    return client.getObjectFactory().newEnumValue(type.getFullQualifiedName().toString(),
+        isNull ? null : parser.getText());
+  }
+
+  private ClientValue readUntypedScalar(final JsonParser parser, final JsonToken token) throws IOException {
+    switch (token) {
+    case VALUE_TRUE:
+    case VALUE_FALSE:
+      return primitive(EdmPrimitiveTypeKind.Boolean, parser.getBooleanValue());
+
+    case VALUE_NUMBER_INT:
+      switch (parser.getNumberType()) {
+      case INT:
+        return primitive(EdmPrimitiveTypeKind.Int32, parser.getIntValue());
+      case LONG:
+        return primitive(EdmPrimitiveTypeKind.Int64, parser.getLongValue());
+      default:
+        return primitive(EdmPrimitiveTypeKind.String, parser.getText());
+      }
+
+    case VALUE_NUMBER_FLOAT:
+      return primitive(EdmPrimitiveTypeKind.Double, parser.getDoubleValue());
+
+    case VALUE_NULL:
+      return primitive(EdmPrimitiveTypeKind.String, null);
+
+    default:
+      return primitive(EdmPrimitiveTypeKind.String, parser.getText());
+    }
+  }
+
+  private Object valueOf(final EdmPrimitiveTypeKind kind, final String text) throws EdmPrimitiveTypeException {
+    if (kind == EdmPrimitiveTypeKind.String) {
+      return text;
+    }
+    final EdmPrimitiveType primitiveType = EdmPrimitiveTypeFactory.getInstance(kind);
+    return primitiveType.valueOfString(text, null, null, Constants.DEFAULT_PRECISION, Constants.DEFAULT_SCALE, null,
+        primitiveType.getDefaultType());
+  }
+
+  private ClientValue primitive(final EdmPrimitiveTypeKind kind, final Object value) {
+    return client.getObjectFactory().newPrimitiveValueBuilder().setType(kind).setValue(value).build();
+  }
+
+  private EdmStructuredType resolveType(final Structured structured, final ReadContext context) {
+    if (!structured.typeResolved) {
+      structured.typeResolved = true;
+
+      EdmType type = structured.typeName == null ? null
+          : context.getStructuredType(structured.typeName, structured.complex);
+      if (type == null) {
+        type = structured.declaredType;
+      }
+      if (type == null && structured.topLevel) {
+        type = context.getContextType();
+      }
+      structured.edmType = type instanceof EdmStructuredType ? (EdmStructuredType) type : null;
+    }
+    return structured.edmType;
+  }
+
+  private static String text(final JsonParser parser) throws IOException {
+    final JsonToken token = parser.getCurrentToken();
+    if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return null;
+    }
+    return token == JsonToken.VALUE_NULL ? null : parser.getText();
+  }
+
+  /**
+   * State shared by all the objects read from a single payload: context URL, Edm and type lookups.
+   */
+  private final class ReadContext {
+
+    private URI contextURL;
+
+    private ContextURL parsedContextURL;
+
+    private URI base;
+
+    private String metadataETag;
+
+    private Edm edm;
+
+    private boolean edmResolved;
+
+    private EdmType contextType;
+
+    private boolean contextTypeResolved;
+
+    private final Map<String, EdmTypeInfo> typeInfos = new HashMap<>();
+
+    private final Map<EdmElement, EdmTypeInfo> propertyTypeInfos = new HashMap<>();
+
+    private final Map<String, EdmType> structuredTypes = new HashMap<>();
+
+    private void setContextURL(final String value) {
+      if (value != null) {
+        contextURL = URI.create(value);
+        parsedContextURL = ContextURLParser.parse(contextURL);
+        base = parsedContextURL.getServiceRoot();
+      }
+    }
+
+    private Edm getEdm() {
+      if (!edmResolved) {
+        edmResolved = true;
+        if (client instanceof EdmEnabledODataClient) {
+          edm = ((EdmEnabledODataClient) client).getEdm(metadataETag);
+        }
+      }
+      return edm;
+    }
+
+    private EdmType getContextType() {
+      if (!contextTypeResolved) {
+        contextTypeResolved = true;
+        contextType = parsedContextURL == null ? null : binder.findType(null, parsedContextURL, metadataETag);
+      }
+      return contextType;
+    }
+
+    private EdmType getStructuredType(final String typeName, final boolean complex) {
+      if (getEdm() == null) {
+        return null;
+      }
+      final String key = complex ? "#" + typeName : typeName;
+      if (structuredTypes.containsKey(key)) {
+        return structuredTypes.get(key);
+      }
+      final FullQualifiedName fqn = new FullQualifiedName(typeName);
+      final EdmType type = complex ? edm.getComplexType(fqn) : edm.getEntityType(fqn);
+      structuredTypes.put(key, type);
+      return type;
+    }
+
+    private EdmTypeInfo getTypeInfo(final String typeExpression) {
+      EdmTypeInfo typeInfo = typeInfos.get(typeExpression);
+      if (typeInfo == null) {
+        typeInfo = new EdmTypeInfo.Builder().setEdm(getEdm()).setTypeExpression(typeExpression).build();
+        typeInfos.put(typeExpression, typeInfo);
+      }
+      return typeInfo;
+    }
+
+    /**
+     * Combines the declared type of a property with the type advertised in the payload, the same way as
+     * {@link ODataBinderImpl} does: primitive types cannot be derived, so the declared type wins for them.
+     */
+    private EdmTypeInfo getPropertyTypeInfo(final EdmElement element, final String explicitType) {
+      EdmTypeInfo declared = null;
+      if (element != null) {
+        declared = propertyTypeInfos.get(element);
+        if (declared == null) {
+          final String name = element.getType().getFullQualifiedName().toString();
+          declared = getTypeInfo(element.isCollection() ? "Collection(" + name + ")" : name);
+          propertyTypeInfos.put(element, declared);
+        }
+      }
+      if (declared == null) {
+        return explicitType == null ? null : getTypeInfo(explicitType);
+      }
+      return explicitType == null || declared.isPrimitiveType() ? declared : getTypeInfo(explicitType);
+    }
+  }
+
+  /**
+   * Everything collected while reading a JSON object, before the entity or complex value can be built.
+   */
+  private static final class Structured {
+
+    private final boolean complex;
+
+    private final boolean topLevel;
+
+    private final EdmType declaredType;
+
+    private String typeName;
+
+    private EdmStructuredType edmType;
+
+    private boolean typeResolved;
+
+    private URI id;
+
+    private String eTag;
+
+    private String readLink;
+
+    private String editLink;
+
+    private String mediaReadLink;
+
+    private String mediaEditLink;
+
+    private String mediaContentType;
+
+    private String mediaETag;
+
+    private final List<ClientProperty> properties = new ArrayList<>();
+
+    private final List<ClientAnnotation> annotations = new ArrayList<>(0);
+
+    private List<String[]> operations;
+
+    private Map<String, String> associationLinks;
+
+    private Map<String, String> navigationHrefs;
+
+    private Map<String, ClientLink> navigationLinks;
+
+    private Map<String, MediaLink> mediaLinks;
+
+    private Map<String, String> propertyTypes;
+
+    private Map<String, List<ClientAnnotation>> propertyAnnotations;
+
+    private Map<String, Integer> counts;
+
+    private Structured(final boolean complex, final boolean topLevel, final EdmType declaredType) {
+      this.complex = complex;
+      this.topLevel = topLevel;
+      this.declaredType = declaredType;
+    }
+
+    private void addOperation(final String[] operation) {
+      if (operations == null) {
+        operations = new ArrayList<>();
+      }
+      operations.add(operation);
+    }
+
+    private void addAssociationLink(final String name, final String href) {
+      if (associationLinks == null) {
+        associationLinks = new LinkedHashMap<>();
+      }
+      associationLinks.put(name, href);
+    }
+
+    private void addNavigationHref(final String name, final String href) {
+      if (navigationHrefs == null) {
+        navigationHrefs = new HashMap<>();
+      }
+      navigationHrefs.put(name, href);
+      if (navigationLinks == null || !navigationLinks.containsKey(name)) {
+        // keeps the position of the link, whether it is followed by an inline value or not
+        putNavigationLink(name, null);
+      }
+    }
+
+    private void putNavigationLink(final String name, final ClientLink link) {
+      if (navigationLinks == null) {
+        navigationLinks = new LinkedHashMap<>();
+      }
+      navigationLinks.put(name, link);
+    }
+
+    private MediaLink getMediaLink(final String name) {
+      if (mediaLinks == null) {
+        mediaLinks = new LinkedHashMap<>();
+      }
+      MediaLink link = mediaLinks.get(name);
+      if (link == null) {
+        link = new MediaLink();
+        mediaLinks.put(name, link);
+      }
+      return link;
+    }
+
+    private void addPropertyType(final String name, final String type) {
+      if (type != null) {
+        if (propertyTypes == null) {
+          propertyTypes = new HashMap<>();
+        }
+        propertyTypes.put(name, type);
+      }
+    }
+
+    private String removePropertyType(final String name) {
+      return propertyTypes == null ? null : propertyTypes.remove(name);
+    }
+
+    private void addPropertyAnnotation(final String name, final ClientAnnotation annotation) {
+      if (propertyAnnotations == null) {
+        propertyAnnotations = new HashMap<>();
+      }
+      List<ClientAnnotation> list = propertyAnnotations.get(name);
+      if (list == null) {
+        list = new ArrayList<>();
+        propertyAnnotations.put(name, list);
+      }
+      list.add(annotation);
+    }
+
+    private List<ClientAnnotation> removePropertyAnnotations(final String name) {
+      return propertyAnnotations == null ? null : propertyAnnotations.remove(name);
+    }
+
+    private void addCount(final String name, final int count) {
+      if (counts == null) {
+        counts = new LinkedHashMap<>();
+      }
+      counts.put(name, count);
+    }
+  }
+
+  private static final class MediaLink {
+
+    private String readLink;
+
+    private String editLink;
+
+    private String contentType = Constants.MEDIA_EDIT_LINK_TYPE;
+
+    private String eTag;
+  }
+}
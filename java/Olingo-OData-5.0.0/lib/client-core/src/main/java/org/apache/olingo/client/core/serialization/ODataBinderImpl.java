@@ -540,7 +540,7 @@ public class ODataBinderImpl implements ODataBinder {
    * @param metadataETag metadata ETag
    * @return Edm type information
    */
-  private EdmType findType(final String candidateTypeName, final ContextURL contextURL, final String metadataETag) {
+  EdmType findType(final String candidateTypeName, final ContextURL contextURL, final String metadataETag) {
     EdmType type = null;
 
     if (client instanceof EdmEnabledODataClient) {
@@ -98,6 +98,12 @@ public class ODataReaderImpl implements ODataReader {
             null,
             reference.cast(new ClientEntitySetIterator<ClientEntitySet, ClientEntity>(
                 client, src, ContentType.parse(format))));
+      } else if (ClientEntitySet.class.isAssignableFrom(reference) && isDirectJson(ContentType.parse(format))) {
+        final ResWrap<ClientEntitySet> resource = new JsonClientEntityReader(client).readEntitySet(src);
+        res = new ResWrap<>(
+            resource.getContextURL(),
+            resource.getMetadataETag(),
+            reference.cast(resource.getPayload()));
       } else if (ClientEntitySet.class.isAssignableFrom(reference)) {
         final ResWrap<EntityCollection> resource = client.getDeserializer(ContentType.parse(format))
             .toEntitySet(src);
@@ -105,6 +111,12 @@ public class ODataReaderImpl implements ODataReader {
             resource.getContextURL(),
             resource.getMetadataETag(),
             reference.cast(client.getBinder().getODataEntitySet(resource)));
+      } else if (ClientEntity.class.isAssignableFrom(reference) && isDirectJson(ContentType.parse(format))) {
+        final ResWrap<ClientEntity> resource = new JsonClientEntityReader(client).readEntity(src);
+        res = new ResWrap<>(
+            resource.getContextURL(),
+            resource.getMetadataETag(),
+            reference.cast(resource.getPayload()));
       } else if (ClientEntity.class.isAssignableFrom(reference)) {
         final ResWrap<Entity> container = client.getDeserializer(ContentType.parse(format)).toEntity(src);
         res = new ResWrap<>(
@@ -161,15 +173,29 @@ public class ODataReaderImpl implements ODataReader {
   @Override
   public ClientEntitySet readEntitySet(final InputStream input, final ContentType contentType)
       throws ODataDeserializerException {
+    if (isDirectJson(contentType)) {
+      return new JsonClientEntityReader(client).readEntitySet(input).getPayload();
+    }
     return client.getBinder().getODataEntitySet(client.getDeserializer(contentType).toEntitySet(input));
   }
 
   @Override
   public ClientEntity readEntity(final InputStream input, final ContentType contentType)
       throws ODataDeserializerException {
+    if (isDirectJson(contentType)) {
+      return new JsonClientEntityReader(client).readEntity(input).getPayload();
+    }
     return client.getBinder().getODataEntity(client.getDeserializer(contentType).toEntity(input));
   }
 
+  /**
+   * Whether entities and entity sets in the given format can be read without the intermediate data model.
+   */
+  protected boolean isDirectJson(final ContentType contentType) {
+    return client.getConfiguration().isDirectJsonDeserialization()
+        && contentType.isCompatible(ContentType.APPLICATION_JSON);
+  }
+
   @Override
   public ClientProperty readProperty(final InputStream input, final ContentType contentType)
       throws ODataDeserializerException {
@@ -19,13 +19,26 @@
 package org.apache.olingo.client.core;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.api.http.HttpClientFactory;
 import org.apache.olingo.client.api.uri.SearchFactory;
+import org.apache.olingo.client.core.http.PoolingHttpClientFactory;
 import org.apache.olingo.commons.api.edm.constants.ODataServiceVersion;
 import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpMethod;
 import org.junit.Test;
 
 public class ODataClientTest {
@@ -124,4 +137,50 @@ public class ODataClientTest {
     config.setProperty("key", "value");
     assertEquals("value", config.getProperty("key", "value"));
   }
+
+  @Test
+  public void threadPerRequestTest() throws Exception {
+    final ODataClient client = ODataClientFactory.getClient();
+    final ExecutorService pool = client.getConfiguration().getExecutor();
+    assertFalse(client.getConfiguration().isThreadPerRequest());
+
+    client.getConfiguration().setThreadPerRequest(true);
+    assertTrue(client.getConfiguration().isThreadPerRequest());
+    final ExecutorService perRequest = client.getConfiguration().getExecutor();
+    assertNotSame(pool, perRequest);
+    assertSame(perRequest, client.getConfiguration().getExecutor());
+
+    // all requests share one pooled HttpClient
+    final HttpClientFactory factory = client.getConfiguration().getHttpClientFactory();
+    assertTrue(factory instanceof PoolingHttpClientFactory);
+    assertSame(factory, client.getConfiguration().getHttpClientFactory());
+    assertSame(factory.create(HttpMethod.GET, URI.create("http://localhost/a")),
+        factory.create(HttpMethod.POST, URI.create("http://localhost/b")));
+    ((PoolingHttpClientFactory) factory).shutdown();
+
+    // more tasks than the default pool size must all be running at the same time
+    final int tasks = 50;
+    final CountDownLatch started = new CountDownLatch(tasks);
+    final CountDownLatch release = new CountDownLatch(1);
+    for (int i = 0; i < tasks; i++) {
+      perRequest.submit(new Runnable() {
+        @Override
+        public void run() {
+          started.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      });
+    }
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    release.countDown();
+
+    final ExecutorService custom = Executors.newSingleThreadExecutor();
+    client.getConfiguration().setExecutor(custom);
+    assertSame(custom, client.getConfiguration().getExecutor());
+    custom.shutdown();
+  }
 }
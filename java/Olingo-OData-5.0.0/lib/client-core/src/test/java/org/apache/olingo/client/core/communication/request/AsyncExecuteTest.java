@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.communication.request;
+
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.api.communication.response.ODataRetrieveResponse;
+import org.apache.olingo.client.api.domain.ClientEntity;
+import org.apache.olingo.client.core.ODataClientFactory;
+import org.junit.Test;
+
+public class AsyncExecuteTest {
+
+  @Test
+  public void cancelAbortsRequest() throws Exception {
+    final ODataClient client = ODataClientFactory.getClient();
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    client.getConfiguration().setExecutor(executor);
+
+    try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+      server.setSoTimeout(10000);
+      final URI uri = URI.create("http://" + server.getInetAddress().getHostAddress() + ':' + server.getLocalPort()
+          + "/People(1)");
+      final CompletableFuture<ODataRetrieveResponse<ClientEntity>> future =
+          client.getRetrieveRequestFactory().getEntityRequest(uri).executeAsync();
+
+      // The server accepts the connection but never answers.
+      try (Socket connection = server.accept()) {
+        assertTrue(future.cancel(true));
+        assertTrue(future.isCancelled());
+
+        // Without aborting the request, the only worker would wait for the response forever.
+        final Future<Boolean> next = executor.submit(new Callable<Boolean>() {
+          @Override
+          public Boolean call() {
+            return true;
+          }
+        });
+        assertTrue(next.get(10, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.communication.request;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.api.communication.request.retrieve.ODataRawRequest;
+import org.apache.olingo.client.api.communication.response.ODataRawResponse;
+import org.apache.olingo.client.api.http.HttpClientFactory;
+import org.apache.olingo.client.core.ODataClientFactory;
+import org.apache.olingo.client.core.http.InMemoryResponseCache;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResponseCacheTest {
+
+  private static final URI PEOPLE = URI.create("http://localhost/odata/People");
+  private static final URI PERSON = URI.create("http://localhost/odata/People(1)");
+  private static final URI FILTERED_PEOPLE = URI.create("http://localhost/odata/People?$filter=Age%20gt%2030");
+
+  private final LinkedList<CloseableHttpResponse> responses = new LinkedList<>();
+  private final List<HttpRequest> requests = new ArrayList<>();
+  private ODataClient client;
+
+  @Before
+  public void setUp() {
+    client = ODataClientFactory.getClient();
+    client.getConfiguration().setHttpClientFactory(new HttpClientFactory() {
+      @Override
+      public HttpClient create(final HttpMethod method, final URI uri) {
+        return new ScriptedHttpClient();
+      }
+
+      @Override
+      public void close(final HttpClient httpClient) {
+        // nothing to release
+      }
+    });
+    client.getConfiguration().setResponseCache(new InMemoryResponseCache(100, 1024 * 1024));
+  }
+
+  @Test
+  public void freshResponseIsServedFromCache() throws Exception {
+    responses.add(response(200, "first", HttpHeader.CACHE_CONTROL, "max-age=60"));
+    assertEquals("first", get(PEOPLE));
+    assertEquals("first", get(PEOPLE));
+    assertEquals(1, requests.size());
+  }
+
+  @Test
+  public void staleResponseIsRevalidated() throws Exception {
+    responses.add(response(200, "first", HttpHeader.ETAG, "W/\"1\""));
+    responses.add(response(304, null, HttpHeader.ETAG, "W/\"1\""));
+    responses.add(response(200, "second", HttpHeader.ETAG, "W/\"2\""));
+    responses.add(response(304, null));
+    assertEquals("first", get(PEOPLE));
+    assertEquals("first", get(PEOPLE));
+    assertEquals("W/\"1\"", requests.get(1).getFirstHeader(HttpHeader.IF_NONE_MATCH).getValue());
+    assertEquals("second", get(PEOPLE));
+    assertEquals("second", get(PERSON.resolve("People")));
+    assertEquals("W/\"2\"", requests.get(3).getFirstHeader(HttpHeader.IF_NONE_MATCH).getValue());
+  }
+
+  @Test
+  public void revalidationUpdatesHeaders() throws Exception {
+    responses.add(response(200, "first", HttpHeader.ETAG, "W/\"1\"", HttpHeader.DATE, "Mon, 19 Oct 2026 10:00:00 GMT",
+        HttpHeader.CONTENT_LANGUAGE, "en"));
+    responses.add(response(304, null, HttpHeader.ETAG, "W/\"2\"", HttpHeader.DATE, "Mon, 19 Oct 2026 11:00:00 GMT",
+        HttpHeader.CONTENT_LENGTH, "0"));
+    responses.add(response(304, null));
+    assertEquals("first", get(PEOPLE));
+
+    final ODataRawResponse revalidated = client.getRetrieveRequestFactory().getRawRequest(PEOPLE).execute();
+    assertEquals("W/\"2\"", revalidated.getETag());
+    assertEquals("Mon, 19 Oct 2026 11:00:00 GMT", revalidated.getHeader(HttpHeader.DATE).iterator().next());
+    assertEquals(1, revalidated.getHeader(HttpHeader.DATE).size());
+    assertEquals("en", revalidated.getHeader(HttpHeader.CONTENT_LANGUAGE).iterator().next());
+    assertEquals("first", IOUtils.toString(revalidated.getRawResponse(), "UTF-8"));
+
+    assertEquals("first", get(PEOPLE));
+    assertEquals("W/\"2\"", requests.get(2).getFirstHeader(HttpHeader.IF_NONE_MATCH).getValue());
+  }
+
+  @Test
+  public void varyingResponseIsNotCached() throws Exception {
+    responses.add(response(200, "first", HttpHeader.CACHE_CONTROL, "max-age=60", HttpHeader.VARY, "Prefer"));
+    responses.add(response(200, "second", HttpHeader.CACHE_CONTROL, "max-age=60", HttpHeader.VARY, "accept, *"));
+    responses.add(response(200, "third", HttpHeader.CACHE_CONTROL, "max-age=60", HttpHeader.VARY, "Accept"));
+    assertEquals("first", get(PEOPLE));
+    assertEquals("second", get(PEOPLE));
+    assertEquals("third", get(PEOPLE));
+    assertEquals("third", get(PEOPLE));
+    assertEquals(3, requests.size());
+  }
+
+  @Test
+  public void preferAndAuthorizationBypassCache() throws Exception {
+    responses.add(response(200, "first", HttpHeader.CACHE_CONTROL, "max-age=60"));
+    responses.add(response(200, "minimal", HttpHeader.CACHE_CONTROL, "max-age=60"));
+    responses.add(response(200, "private", HttpHeader.CACHE_CONTROL, "max-age=60"));
+    assertEquals("first", get(PEOPLE));
+
+    ODataRawRequest request = client.getRetrieveRequestFactory().getRawRequest(PEOPLE);
+    request.setPrefer(client.newPreferences().returnMinimal());
+    assertEquals("minimal", IOUtils.toString(request.execute().getRawResponse(), "UTF-8"));
+
+    request = client.getRetrieveRequestFactory().getRawRequest(PEOPLE);
+    request.addCustomHeader(HttpHeader.AUTHORIZATION, "Basic b3RoZXI6dXNlcg==");
+    assertEquals("private", IOUtils.toString(request.execute().getRawResponse(), "UTF-8"));
+
+    assertEquals("first", get(PEOPLE));
+    assertEquals(3, requests.size());
+  }
+
+  @Test
+  public void noStoreIsNotCached() throws Exception {
+    responses.add(response(200, "first", HttpHeader.CACHE_CONTROL, "no-store", HttpHeader.ETAG, "\"1\""));
+    responses.add(response(200, "second", HttpHeader.ETAG, "\"2\""));
+    assertEquals("first", get(PEOPLE));
+    assertEquals("second", get(PEOPLE));
+    assertNull(requests.get(1).getFirstHeader(HttpHeader.IF_NONE_MATCH));
+  }
+
+  @Test
+  public void noStoreAfterNoCacheIsNotCached() throws Exception {
+    responses.add(response(200, "first", HttpHeader.CACHE_CONTROL, "no-cache, no-store", HttpHeader.ETAG, "\"1\""));
+    responses.add(response(200, "second", HttpHeader.CACHE_CONTROL, "no-cache", HttpHeader.CACHE_CONTROL,
+        "max-age=60", HttpHeader.ETAG, "\"2\""));
+    responses.add(response(304, null));
+    assertEquals("first", get(PEOPLE));
+    assertEquals("second", get(PEOPLE));
+    assertNull(requests.get(1).getFirstHeader(HttpHeader.IF_NONE_MATCH));
+    // no-cache in one header is not overridden by max-age in another: the entry is revalidated
+    assertEquals("second", get(PEOPLE));
+    assertEquals("\"2\"", requests.get(2).getFirstHeader(HttpHeader.IF_NONE_MATCH).getValue());
+  }
+
+  @Test
+  public void modificationInvalidates() throws Exception {
+    responses.add(response(200, "first", HttpHeader.CACHE_CONTROL, "max-age=60"));
+    responses.add(response(204, null));
+    responses.add(response(200, "second", HttpHeader.CACHE_CONTROL, "max-age=60"));
+    assertEquals("first", get(PERSON));
+    client.getCUDRequestFactory().getDeleteRequest(PERSON).execute();
+    assertEquals("second", get(PERSON));
+    assertEquals(3, requests.size());
+  }
+
+  @Test
+  public void modificationInvalidatesEntitySet() throws Exception {
+    responses.add(response(200, "filtered", HttpHeader.CACHE_CONTROL, "max-age=60"));
+    responses.add(response(200, "orders", HttpHeader.CACHE_CONTROL, "max-age=60"));
+    responses.add(response(204, null));
+    responses.add(response(200, "refiltered", HttpHeader.CACHE_CONTROL, "max-age=60"));
+    final URI orders = PEOPLE.resolve("Orders");
+    assertEquals("filtered", get(FILTERED_PEOPLE));
+    assertEquals("orders", get(orders));
+    client.getCUDRequestFactory().getDeleteRequest(PERSON).execute();
+    assertEquals("refiltered", get(FILTERED_PEOPLE));
+    assertEquals("orders", get(orders));
+    assertEquals(4, requests.size());
+  }
+
+  @Test
+  public void explicitIfNoneMatchBypassesCache() throws Exception {
+    responses.add(response(200, "first", HttpHeader.CACHE_CONTROL, "max-age=60"));
+    responses.add(response(304, null));
+    assertEquals("first", get(PEOPLE));
+    final ODataRawRequest request = client.getRetrieveRequestFactory().getRawRequest(PEOPLE);
+    request.setIfNoneMatch("\"0\"");
+    final ODataRawResponse response = request.execute();
+    assertEquals(304, response.getStatusCode());
+    assertEquals(2, requests.size());
+  }
+
+  private String get(final URI uri) throws IOException {
+    final ODataRawResponse response = client.getRetrieveRequestFactory().getRawRequest(uri).execute();
+    assertEquals(200, response.getStatusCode());
+    return IOUtils.toString(response.getRawResponse(), "UTF-8");
+  }
+
+  private static CloseableHttpResponse response(final int status, final String body, final String... headers) {
+    final ScriptedResponse response = new ScriptedResponse(status);
+    for (int i = 0; i < headers.length; i += 2) {
+      response.addHeader(headers[i], headers[i + 1]);
+    }
+    if (body != null) {
+      response.setEntity(new StringEntity(body, "UTF-8"));
+    }
+    return response;
+  }
+
+  private static class ScriptedResponse extends BasicHttpResponse implements CloseableHttpResponse {
+
+    ScriptedResponse(final int status) {
+      super(HttpVersion.HTTP_1_1, status, null);
+    }
+
+    @Override
+    public void close() {
+      // nothing to release
+    }
+  }
+
+  private class ScriptedHttpClient extends CloseableHttpClient {
+
+    @Override
+    protected CloseableHttpResponse doExecute(final HttpHost target, final HttpRequest request,
+        final HttpContext context) {
+      requests.add(request);
+      return responses.removeFirst();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public HttpParams getParams() {
+      return new BasicHttpParams();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public ClientConnectionManager getConnectionManager() {
+      return null;
+    }
+
+    @Override
+    public void close() {
+      // nothing to release
+    }
+  }
+}
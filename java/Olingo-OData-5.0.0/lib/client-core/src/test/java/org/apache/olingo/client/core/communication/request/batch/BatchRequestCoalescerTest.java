@@ -0,0 +1,329 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.communication.request.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.api.communication.ODataClientErrorException;
+import org.apache.olingo.client.api.communication.response.ODataRetrieveResponse;
+import org.apache.olingo.client.api.domain.ClientEntity;
+import org.apache.olingo.client.api.http.HttpClientFactory;
+import org.apache.olingo.client.core.ODataClientFactory;
+import org.apache.olingo.client.core.http.InMemoryResponseCache;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchRequestCoalescerTest {
+
+  private static final String SERVICE_ROOT = "http://localhost/odata";
+
+  private static final Pattern REQUEST_LINE = Pattern.compile("GET (\\S+) HTTP/1.1");
+
+  private final List<HttpRequest> requests = Collections.synchronizedList(new ArrayList<HttpRequest>());
+  private final List<String> batchedUris = Collections.synchronizedList(new ArrayList<String>());
+  private final CountDownLatch blockerStarted = new CountDownLatch(1);
+  private volatile CountDownLatch batchesSent = new CountDownLatch(0);
+  private ODataClient client;
+
+  @Before
+  public void setUp() {
+    client = newClient(requests);
+  }
+
+  @Test
+  public void concurrentRequestsShareOneBatch() throws Exception {
+    final BatchRequestCoalescer coalescer = new BatchRequestCoalescer(SERVICE_ROOT, 10000, 3);
+    client.getConfiguration().setRequestCoalescer(coalescer);
+
+    final CompletableFuture<ODataRetrieveResponse<ClientEntity>> blocker = startBlocker(1);
+    final List<CompletableFuture<ODataRetrieveResponse<ClientEntity>>> futures = new ArrayList<>();
+    for (int id : new int[] { 1, 2, 404 }) {
+      futures.add(get(client, id));
+    }
+
+    assertEquals("Person 1", name(futures.get(0).get().getBody()));
+    assertEquals("Person 2", name(futures.get(1).get().getBody()));
+    try {
+      futures.get(2).get();
+      fail("error expected");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof ODataClientErrorException);
+      assertEquals(404, ((ODataClientErrorException) e.getCause()).getStatusLine().getStatusCode());
+    }
+    assertEquals("Person 0", name(blocker.get().getBody()));
+
+    assertEquals(2, requests.size());
+    assertEquals("GET", requests.get(0).getRequestLine().getMethod());
+    assertEquals("POST", requests.get(1).getRequestLine().getMethod());
+    assertEquals(SERVICE_ROOT + "/$batch", requests.get(1).getRequestLine().getUri());
+    assertEquals(3, batchedUris.size());
+    assertEquals(1, coalescer.getBatchCount());
+    assertEquals(3, coalescer.getBatchedRequestCount());
+    assertEquals(1, coalescer.getSingleRequestCount());
+    assertEquals(1, coalescer.getFailedRequestCount());
+  }
+
+  @Test
+  public void loneRequestIsSentRightAway() throws Exception {
+    final BatchRequestCoalescer coalescer = new BatchRequestCoalescer(SERVICE_ROOT, 10000, 10);
+    client.getConfiguration().setRequestCoalescer(coalescer);
+
+    final long start = System.nanoTime();
+    for (int id = 1; id <= 2; id++) {
+      final ClientEntity person = client.getRetrieveRequestFactory()
+          .getEntityRequest(URI.create(SERVICE_ROOT + "/People(" + id + ")")).execute().getBody();
+      assertEquals("Person " + id, name(person));
+    }
+    // neither request waits for the window since nothing else is in flight
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+    assertEquals("GET", requests.get(0).getRequestLine().getMethod());
+    assertEquals("GET", requests.get(1).getRequestLine().getMethod());
+    assertEquals(0, coalescer.getBatchCount());
+    assertEquals(2, coalescer.getSingleRequestCount());
+  }
+
+  @Test
+  public void clientsAreBatchedSeparately() throws Exception {
+    final BatchRequestCoalescer coalescer = new BatchRequestCoalescer(SERVICE_ROOT, 10000, 2);
+    final List<HttpRequest> otherRequests = Collections.synchronizedList(new ArrayList<HttpRequest>());
+    final ODataClient other = newClient(otherRequests);
+    client.getConfiguration().setRequestCoalescer(coalescer);
+    other.getConfiguration().setRequestCoalescer(coalescer);
+
+    final CompletableFuture<ODataRetrieveResponse<ClientEntity>> blocker = startBlocker(2);
+    final List<CompletableFuture<ODataRetrieveResponse<ClientEntity>>> futures = new ArrayList<>();
+    futures.add(get(client, 1));
+    futures.add(get(other, 2));
+    futures.add(get(client, 3));
+    futures.add(get(other, 4));
+    for (int i = 0; i < futures.size(); i++) {
+      assertEquals("Person " + (i + 1), name(futures.get(i).get().getBody()));
+    }
+    blocker.get();
+
+    // each batch is sent through the HTTP client of the client its requests were issued by
+    assertEquals(2, requests.size());
+    assertEquals("POST", requests.get(1).getRequestLine().getMethod());
+    assertTrue(body(requests.get(1)).contains("/People(1) "));
+    assertTrue(body(requests.get(1)).contains("/People(3) "));
+    assertEquals(1, otherRequests.size());
+    assertTrue(body(otherRequests.get(0)).contains("/People(2) "));
+    assertTrue(body(otherRequests.get(0)).contains("/People(4) "));
+    assertEquals(2, coalescer.getBatchCount());
+  }
+
+  @Test
+  public void revalidationHeadersAreBatched() throws Exception {
+    final BatchRequestCoalescer coalescer = new BatchRequestCoalescer(SERVICE_ROOT, 10000, 2);
+    client.getConfiguration().setRequestCoalescer(coalescer);
+    client.getConfiguration().setResponseCache(new InMemoryResponseCache(100, 1024 * 1024));
+    assertEquals("Person 1", name(get(client, 1).get().getBody()));
+
+    final CompletableFuture<ODataRetrieveResponse<ClientEntity>> blocker = startBlocker(1);
+    final CompletableFuture<ODataRetrieveResponse<ClientEntity>> person1 = get(client, 1);
+    final CompletableFuture<ODataRetrieveResponse<ClientEntity>> person2 = get(client, 2);
+    assertEquals("Person 1", name(person1.get().getBody()));
+    assertEquals("Person 2", name(person2.get().getBody()));
+    blocker.get();
+
+    assertEquals(3, requests.size());
+    assertTrue(Pattern.compile("GET \\S+/People\\(1\\) HTTP/1.1\r\n(?:[^\r]+\r\n)*"
+        + HttpHeader.IF_NONE_MATCH + ": W/\"1\"\r\n").matcher(body(requests.get(2))).find());
+    assertEquals(1, coalescer.getBatchCount());
+  }
+
+  @Test
+  public void otherServicesAreNotCoalesced() throws Exception {
+    final BatchRequestCoalescer coalescer = new BatchRequestCoalescer(SERVICE_ROOT, 10000, 10);
+    client.getConfiguration().setRequestCoalescer(coalescer);
+
+    client.getRetrieveRequestFactory().getEntityRequest(URI.create("http://otherhost/odata/People(1)")).execute();
+    assertEquals("GET", requests.get(0).getRequestLine().getMethod());
+    assertEquals(0, coalescer.getSingleRequestCount());
+  }
+
+  private ODataClient newClient(final List<HttpRequest> log) {
+    final ODataClient newClient = ODataClientFactory.getClient();
+    newClient.getConfiguration().setHttpClientFactory(new HttpClientFactory() {
+      @Override
+      public HttpClient create(final HttpMethod method, final URI uri) {
+        return new ScriptedHttpClient(log);
+      }
+
+      @Override
+      public void close(final HttpClient httpClient) {
+        // nothing to release
+      }
+    });
+    return newClient;
+  }
+
+  /**
+   * Starts requesting <tt>People(0)</tt>, which stays in flight until the given number of batches has been sent.
+   */
+  private CompletableFuture<ODataRetrieveResponse<ClientEntity>> startBlocker(final int batches)
+      throws InterruptedException {
+
+    batchesSent = new CountDownLatch(batches);
+    final CompletableFuture<ODataRetrieveResponse<ClientEntity>> blocker = get(client, 0);
+    assertTrue(blockerStarted.await(10, TimeUnit.SECONDS));
+    return blocker;
+  }
+
+  private static CompletableFuture<ODataRetrieveResponse<ClientEntity>> get(final ODataClient client,
+      final int id) {
+
+    return client.getRetrieveRequestFactory()
+        .getEntityRequest(URI.create(SERVICE_ROOT + "/People(" + id + ")")).executeAsync();
+  }
+
+  private static String name(final ClientEntity entity) {
+    return entity.getProperty("Name").getPrimitiveValue().toString();
+  }
+
+  private static String body(final HttpRequest request) throws IOException {
+    return EntityUtils.toString(((HttpEntityEnclosingRequest) request).getEntity(), "UTF-8");
+  }
+
+  private static String id(final String uri) {
+    final Matcher id = Pattern.compile("People\\((\\d+)\\)").matcher(uri);
+    id.find();
+    return id.group(1);
+  }
+
+  private static String part(final String uri) {
+    final String id = id(uri);
+    return "404".equals(id)
+        ? "HTTP/1.1 404 Not Found\r\nContent-Type: application/json\r\n\r\n"
+            + "{\"error\":{\"code\":null,\"message\":\"Not found\"}}\r\n"
+        : "HTTP/1.1 200 OK\r\nContent-Type: application/json;odata.metadata=minimal\r\n\r\n"
+            + "{\"@odata.context\":\"" + SERVICE_ROOT + "/$metadata#People/$entity\","
+            + "\"Id\":" + id + ",\"Name\":\"Person " + id + "\"}\r\n";
+  }
+
+  private CloseableHttpResponse respond(final HttpRequest request) throws IOException {
+    final ScriptedResponse response = new ScriptedResponse();
+    if (request instanceof HttpEntityEnclosingRequest) {
+      final Matcher lines = REQUEST_LINE.matcher(body(request));
+      final StringBuilder body = new StringBuilder();
+      while (lines.find()) {
+        batchedUris.add(lines.group(1));
+        body.append("--batchresponse_1\r\nContent-Type: application/http\r\nContent-Transfer-Encoding: binary\r\n\r\n")
+            .append(part(lines.group(1)));
+      }
+      body.append("--batchresponse_1--\r\n");
+      response.addHeader(HttpHeader.CONTENT_TYPE, "multipart/mixed; boundary=batchresponse_1");
+      response.setEntity(new StringEntity(body.toString(), "UTF-8"));
+    } else {
+      final String part = part(request.getRequestLine().getUri());
+      response.addHeader(HttpHeader.CONTENT_TYPE, "application/json;odata.metadata=minimal");
+      response.addHeader(HttpHeader.ETAG, "W/\"" + id(request.getRequestLine().getUri()) + "\"");
+      response.setEntity(new StringEntity(part.substring(part.indexOf("\r\n\r\n") + 4), "UTF-8"));
+    }
+    return response;
+  }
+
+  private static class ScriptedResponse extends BasicHttpResponse implements CloseableHttpResponse {
+
+    ScriptedResponse() {
+      super(HttpVersion.HTTP_1_1, 200, null);
+    }
+
+    @Override
+    public void close() {
+      // nothing to release
+    }
+  }
+
+  private class ScriptedHttpClient extends CloseableHttpClient {
+
+    private final List<HttpRequest> log;
+
+    ScriptedHttpClient(final List<HttpRequest> log) {
+      this.log = log;
+    }
+
+    @Override
+    protected CloseableHttpResponse doExecute(final HttpHost target, final HttpRequest request,
+        final HttpContext context) throws IOException {
+      log.add(request);
+      if (request.getRequestLine().getUri().endsWith("/People(0)")) {
+        blockerStarted.countDown();
+        try {
+          batchesSent.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          throw new IOException(e);
+        }
+      }
+      final CloseableHttpResponse response = respond(request);
+      if (request instanceof HttpEntityEnclosingRequest) {
+        batchesSent.countDown();
+      }
+      return response;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public HttpParams getParams() {
+      return new BasicHttpParams();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public ClientConnectionManager getConnectionManager() {
+      return null;
+    }
+
+    @Override
+    public void close() {
+      // nothing to release
+    }
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.http;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.http.Header;
+import org.apache.http.message.BasicHeader;
+import org.apache.olingo.client.api.http.CachedHttpResponse;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResponseCacheStoreTest {
+
+  private static final String ROOT = "http://localhost/odata/";
+  private static final String JSON = "application/json";
+
+  private File directory;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("olingo-response-cache").toFile();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(directory);
+  }
+
+  @Test
+  public void leastRecentlyUsedEntriesAreEvicted() {
+    final InMemoryResponseCache cache = new InMemoryResponseCache(2, Long.MAX_VALUE);
+    cache.put(response("People(1)", JSON, "1"));
+    cache.put(response("People(2)", JSON, "2"));
+    assertNotNull(cache.get(ROOT + "People(1)", JSON));
+    cache.put(response("People(3)", JSON, "3"));
+
+    assertEquals(2, cache.getEntryCount());
+    assertNotNull(cache.get(ROOT + "People(1)", JSON));
+    assertNull(cache.get(ROOT + "People(2)", JSON));
+    assertNotNull(cache.get(ROOT + "People(3)", JSON));
+  }
+
+  @Test
+  public void sizeLimit() {
+    final CachedHttpResponse first = response("People(1)", JSON, "first");
+    final InMemoryResponseCache cache = new InMemoryResponseCache(100, first.getSize() * 2);
+    cache.put(first);
+    cache.put(response("People(2)", JSON, "other"));
+    assertEquals(first.getSize() * 2, cache.getSize());
+    cache.put(response("People(3)", JSON, "third"));
+    assertEquals(2, cache.getEntryCount());
+    assertNull(cache.get(ROOT + "People(1)", JSON));
+
+    cache.put(response("Large", JSON, new String(new char[(int) first.getSize() * 3])));
+    assertNull(cache.get(ROOT + "Large", JSON));
+    assertEquals(2, cache.getEntryCount());
+  }
+
+  @Test
+  public void variantsAndInvalidation() {
+    final InMemoryResponseCache cache = new InMemoryResponseCache(100, Long.MAX_VALUE);
+    cache.put(response("People(1)", JSON, "json"));
+    cache.put(response("People(1)", "application/xml", "xml"));
+    cache.put(response("People(1)/Name", JSON, "name"));
+    cache.put(response("People(10)", JSON, "ten"));
+    cache.put(response("Orders", JSON, "orders"));
+    assertEquals("xml", body(cache.get(ROOT + "People(1)", "application/xml")));
+
+    cache.invalidate(ROOT + "People(1)");
+    assertNull(cache.get(ROOT + "People(1)", JSON));
+    assertNull(cache.get(ROOT + "People(1)", "application/xml"));
+    assertNull(cache.get(ROOT + "People(1)/Name", JSON));
+    assertNotNull(cache.get(ROOT + "Orders", JSON));
+    assertEquals(2, cache.getEntryCount());
+
+    cache.clear();
+    assertEquals(0, cache.getEntryCount());
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  public void fileCacheSurvivesRestart() {
+    FileResponseCache cache = new FileResponseCache(directory);
+    cache.put(response("People(1)", JSON, "persisted"));
+    cache.put(response("Orders", null, "orders"));
+
+    cache = new FileResponseCache(directory);
+    final CachedHttpResponse restored = cache.get(ROOT + "People(1)", JSON);
+    assertEquals("persisted", body(restored));
+    assertEquals("W/\"persisted\"", restored.getETag());
+    assertEquals(JSON, restored.getHeader("content-type"));
+    assertEquals(60, restored.getMaxAgeSeconds());
+    assertEquals("orders", body(cache.get(ROOT + "Orders", null)));
+
+    cache.invalidate(ROOT + "People");
+    assertNull(cache.get(ROOT + "People(1)", JSON));
+    assertEquals(1, directory.list().length);
+    cache.clear();
+    assertEquals(0, directory.list().length);
+  }
+
+  @Test
+  public void fileCacheSizeLimit() throws InterruptedException {
+    FileResponseCache cache = new FileResponseCache(directory);
+    cache.put(response("People(1)", JSON, "first"));
+    final long fileSize = cache.getSize();
+    cache.clear();
+
+    cache = new FileResponseCache(directory, fileSize * 2);
+    cache.put(response("People(1)", JSON, "first"));
+    Thread.sleep(5);
+    cache.put(response("People(2)", JSON, "other"));
+    Thread.sleep(5);
+    assertNotNull(cache.get(ROOT + "People(1)", JSON));
+    Thread.sleep(5);
+    cache.put(response("People(3)", JSON, "third"));
+    assertEquals(fileSize * 2, cache.getSize());
+    assertEquals(2, directory.list().length);
+    assertNotNull(cache.get(ROOT + "People(1)", JSON));
+    assertNull(cache.get(ROOT + "People(2)", JSON));
+    assertNotNull(cache.get(ROOT + "People(3)", JSON));
+
+    cache = new FileResponseCache(directory, fileSize);
+    assertEquals(fileSize, cache.getSize());
+    assertEquals(1, directory.list().length);
+    // on restart the least recently written file is evicted first
+    assertNotNull(cache.get(ROOT + "People(3)", JSON));
+  }
+
+  @Test
+  public void secondLevelIsConsultedOnMiss() {
+    final FileResponseCache disk = new FileResponseCache(directory);
+    InMemoryResponseCache cache = new InMemoryResponseCache(100, Long.MAX_VALUE, disk);
+    cache.put(response("People(1)", JSON, "persisted"));
+
+    cache = new InMemoryResponseCache(100, Long.MAX_VALUE, disk);
+    assertEquals(0, cache.getEntryCount());
+    assertEquals("persisted", body(cache.get(ROOT + "People(1)", JSON)));
+    assertEquals(1, cache.getEntryCount());
+
+    cache.invalidate(ROOT + "People(1)");
+    assertNull(disk.get(ROOT + "People(1)", JSON));
+  }
+
+  @Test
+  public void freshness() {
+    final CachedHttpResponse response = response("People", JSON, "x");
+    assertTrue(response.isFresh(response.getStoredAt() + 59999));
+    assertFalse(response.isFresh(response.getStoredAt() + 60000));
+    final CachedHttpResponse revalidated = response.revalidated(response.getStoredAt() + 60000, 0, new Header[0]);
+    assertFalse(revalidated.isFresh(revalidated.getStoredAt()));
+    assertEquals(response.getETag(), revalidated.getETag());
+    assertArrayEquals(response.getBody(), revalidated.getBody());
+
+    final CachedHttpResponse updated = response.revalidated(response.getStoredAt() + 60000, 30,
+        new Header[] { new BasicHeader(HttpHeader.ETAG, "W/\"y\""), new BasicHeader(HttpHeader.DATE, "now") });
+    assertEquals("W/\"y\"", updated.getETag());
+    assertEquals("W/\"y\"", updated.getHeader(HttpHeader.ETAG));
+    assertEquals("now", updated.getHeader(HttpHeader.DATE));
+    assertEquals(JSON, updated.getHeader(HttpHeader.CONTENT_TYPE));
+    assertEquals(3, updated.getHeaders().length);
+  }
+
+  private static CachedHttpResponse response(final String path, final String accept, final String body) {
+    return new CachedHttpResponse(ROOT + path, accept, 200, "OK",
+        new Header[] { new BasicHeader(HttpHeader.CONTENT_TYPE, JSON) },
+        body.getBytes(StandardCharsets.UTF_8), "W/\"" + body + "\"", System.currentTimeMillis(), 60);
+  }
+
+  private static String body(final CachedHttpResponse response) {
+    return new String(response.getBody(), StandardCharsets.UTF_8);
+  }
+}
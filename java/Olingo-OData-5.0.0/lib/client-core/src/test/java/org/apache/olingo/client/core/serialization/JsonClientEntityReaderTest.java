@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.serialization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.olingo.client.api.EdmEnabledODataClient;
+import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.api.domain.ClientEntity;
+import org.apache.olingo.client.api.domain.ClientEntitySet;
+import org.apache.olingo.client.api.domain.ClientInlineEntitySet;
+import org.apache.olingo.client.api.domain.ClientLink;
+import org.apache.olingo.client.api.domain.ClientLinkType;
+import org.apache.olingo.client.api.domain.ClientProperty;
+import org.apache.olingo.client.core.EdmEnabledODataClientImpl;
+import org.apache.olingo.client.core.ODataClientFactory;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.edm.provider.CsdlComplexType;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainer;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntitySet;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
+import org.apache.olingo.commons.api.edm.provider.CsdlEnumMember;
+import org.apache.olingo.commons.api.edm.provider.CsdlEnumType;
+import org.apache.olingo.commons.api.edm.provider.CsdlNavigationProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlPropertyRef;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.junit.Test;
+
+public class JsonClientEntityReaderTest {
+
+  private static final String RESOURCES = "/org/apache/olingo/client/core/";
+
+  private final ODataClient client = ODataClientFactory.getClient();
+
+  private InputStream resource(final String name) {
+    return getClass().getResourceAsStream(RESOURCES + name);
+  }
+
+  @Test
+  public void entitiesMatchBinder() throws Exception {
+    for (String name : Arrays.asList("Customer.json", "Employee.json", "PersonDetails_1.json",
+        "entity.withcomplexnavigation.json", "entity.collection.primitive.json", "entity.complex.json")) {
+
+      final ClientEntity expected = client.getBinder().getODataEntity(
+          client.getDeserializer(ContentType.JSON_FULL_METADATA).toEntity(resource(name)));
+      final ClientEntity actual = new JsonClientEntityReader(client).readEntity(resource(name)).getPayload();
+      assertEquals(name, expected, actual);
+    }
+  }
+
+  @Test
+  public void entitySetsMatchBinder() throws Exception {
+    for (String name : Arrays.asList("Customers.json", "CustomersWithFullMetadata.json")) {
+      final ClientEntitySet expected = client.getBinder().getODataEntitySet(
+          client.getDeserializer(ContentType.JSON_FULL_METADATA).toEntitySet(resource(name)));
+      final ClientEntitySet actual = new JsonClientEntityReader(client).readEntitySet(resource(name)).getPayload();
+      assertEquals(name, expected, actual);
+    }
+  }
+
+  @Test
+  public void generatedFeedMatchesBinder() throws Exception {
+    final StringBuilder builder = new StringBuilder(
+        "{\"@odata.context\":\"http://host/service/$metadata#Items\",\"value\":[");
+    for (int i = 0; i < 50; i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      builder.append("{\"@odata.type\":\"#NS.Item\",\"@odata.id\":\"Items(").append(i).append(")\",")
+          .append("\"Id\":").append(i).append(",\"Name\":\"Item ").append(i).append("\",")
+          .append("\"Price@odata.type\":\"#Decimal\",\"Price\":").append(i).append(".25,")
+          .append("\"Address\":{\"Street\":\"Main ").append(i).append("\",\"City\":\"Rome\"},")
+          .append("\"Tags\":[\"a\",\"b\",\"c\"]}");
+    }
+    final byte[] payload = builder.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+
+    final ClientEntitySet expected = client.getBinder().getODataEntitySet(
+        client.getDeserializer(ContentType.JSON_FULL_METADATA).toEntitySet(new ByteArrayInputStream(payload)));
+    final ClientEntitySet actual = new JsonClientEntityReader(client)
+        .readEntitySet(new ByteArrayInputStream(payload)).getPayload();
+    assertEquals(50, actual.getEntities().size());
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void inlineEntitySet() throws Exception {
+    final ClientEntity entity = new JsonClientEntityReader(client)
+        .readEntity(resource("Accounts_101_expand_MyPaymentInstruments.json")).getPayload();
+
+    final ClientLink instruments = entity.getNavigationLink("MyPaymentInstruments");
+    assertEquals(ClientLinkType.ENTITY_SET_NAVIGATION, instruments.getType());
+    assertEquals(URI.create("http://odatae2etest.azurewebsites.net/javatest/DefaultService/"
+        + "Accounts(101)/MyPaymentInstruments"), instruments.getLink());
+    final ClientEntitySet inline = instruments.asInlineEntitySet().getEntitySet();
+    assertEquals(3, inline.getEntities().size());
+    assertEquals(URI.create("Accounts(101)/MyPaymentInstruments(101901)"), inline.getEntities().get(0).getId());
+    assertNotNull(inline.getEntities().get(0).getNavigationLink("TheStoredPI"));
+    assertEquals(3, entity.getProperties().size());
+  }
+
+  @Test
+  public void typedByEdm() throws Exception {
+    final String payload = "{\"@odata.context\":\"http://host/service/$metadata#Items\","
+        + "\"@odata.count\":1,"
+        + "\"value\":[{\"Id\":1,\"Price\":9.5,\"Created\":\"2024-01-02T03:04:05Z\",\"Color\":\"Red\","
+        + "\"Address\":{\"City\":\"Rome\"},\"Tags\":[\"a\",\"b\"],"
+        + "\"Parts@odata.count\":2,\"Parts\":[{\"Id\":7},{\"Id\":8}]}],"
+        + "\"@odata.nextLink\":\"Items?$skiptoken=1\"}";
+
+    final ClientEntitySet entitySet = new JsonClientEntityReader(getEdmEnabledClient())
+        .readEntitySet(new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8))).getPayload();
+    assertEquals(Integer.valueOf(1), entitySet.getCount());
+    assertEquals(URI.create("http://host/service/Items?$skiptoken=1"), entitySet.getNext());
+
+    final ClientEntity item = entitySet.getEntities().get(0);
+    assertEquals(new FullQualifiedName("NS", "Item"), item.getTypeName());
+
+    final ClientProperty id = item.getProperty("Id");
+    assertEquals(EdmPrimitiveTypeKind.Int64, id.getPrimitiveValue().getTypeKind());
+    assertEquals(1L, id.getPrimitiveValue().toValue());
+    assertEquals(new BigDecimal("9.5"), item.getProperty("Price").getPrimitiveValue().toValue());
+    assertTrue(item.getProperty("Created").getPrimitiveValue().toValue() instanceof Timestamp);
+
+    assertTrue(item.getProperty("Color").hasEnumValue());
+    assertEquals("NS.Color", item.getProperty("Color").getEnumValue().getTypeName());
+    assertEquals("NS.Address", item.getProperty("Address").getComplexValue().getTypeName());
+    assertEquals("Rome", item.getProperty("Address").getComplexValue().get("City").getPrimitiveValue().toValue());
+    assertEquals("Collection(Edm.String)", item.getProperty("Tags").getCollectionValue().getTypeName());
+
+    assertNull(item.getProperty("Parts"));
+    final ClientInlineEntitySet parts = item.getNavigationLink("Parts").asInlineEntitySet();
+    assertEquals(Integer.valueOf(2), parts.getEntitySet().getCount());
+    final ClientEntity part = parts.getEntitySet().getEntities().get(1);
+    assertEquals(new FullQualifiedName("NS", "Part"), part.getTypeName());
+    assertEquals(8, part.getProperty("Id").getPrimitiveValue().toValue());
+  }
+
+  @Test
+  public void readerHonorsConfiguration() throws Exception {
+    final ODataClient directClient = ODataClientFactory.getClient();
+    assertFalse(directClient.getConfiguration().isDirectJsonDeserialization());
+    directClient.getConfiguration().setDirectJsonDeserialization(true);
+
+    final ClientEntity entity = directClient.getReader().readEntity(
+        resource("Products_5.json"), ContentType.JSON_FULL_METADATA);
+    assertEquals("Microsoft.Test.OData.Services.ODataWCFService.Color",
+        entity.getProperty("SkinColor").getEnumValue().getTypeName());
+    assertEquals(3, entity.getProperty("CoverColors").getCollectionValue().size());
+    assertEquals(2, entity.getOperations().size());
+    assertNotNull(entity.getAssociationLink("Details"));
+  }
+
+  private EdmEnabledODataClient getEdmEnabledClient() {
+    final CsdlSchema schema = new CsdlSchema().setNamespace("NS")
+        .setEnumTypes(Collections.singletonList(new CsdlEnumType().setName("Color")
+            .setMembers(Arrays.asList(new CsdlEnumMember().setName("Red"), new CsdlEnumMember().setName("Blue")))))
+        .setComplexTypes(Collections.singletonList(new CsdlComplexType().setName("Address")
+            .setProperties(Collections.singletonList(new CsdlProperty().setName("City").setType("Edm.String")))))
+        .setEntityTypes(Arrays.asList(
+            new CsdlEntityType().setName("Item")
+                .setKey(Collections.singletonList(new CsdlPropertyRef().setName("Id")))
+                .setProperties(Arrays.asList(
+                    new CsdlProperty().setName("Id").setType("Edm.Int64"),
+                    new CsdlProperty().setName("Price").setType("Edm.Decimal"),
+                    new CsdlProperty().setName("Created").setType("Edm.DateTimeOffset"),
+                    new CsdlProperty().setName("Color").setType("NS.Color"),
+                    new CsdlProperty().setName("Address").setType("NS.Address"),
+                    new CsdlProperty().setName("Tags").setType("Edm.String").setCollection(true)))
+                .setNavigationProperties(Collections.singletonList(
+                    new CsdlNavigationProperty().setName("Parts").setType("NS.Part").setCollection(true))),
+            new CsdlEntityType().setName("Part")
+                .setKey(Collections.singletonList(new CsdlPropertyRef().setName("Id")))
+                .setProperties(Collections.singletonList(new CsdlProperty().setName("Id").setType("Edm.Int32")))))
+        .setEntityContainer(new CsdlEntityContainer().setName("Container")
+            .setEntitySets(Collections.singletonList(new CsdlEntitySet().setName("Items").setType("NS.Item"))));
+
+    final Edm edm = client.getReader().readMetadata(Collections.singletonMap("NS", schema));
+    return new EdmEnabledODataClientImpl("http://host/service", null, null) {
+
+      @Override
+      public Edm getEdm(final String metadataETag) {
+        return edm;
+      }
+
+      @Override
+      public Edm getCachedEdm() {
+        return edm;
+      }
+    };
+  }
+}
@@ -18,9 +18,13 @@
  */
 package org.apache.olingo.commons.api.data;
 
+/**
+ * Binary content of a media entity, given either as bytes or as {@link MediaContent}.
+ */
 public class EntityMediaObject {
 	
 	private byte[] bytes;
+	private MediaContent content;
 	
 	public void setBytes(byte[] bytes) {
 		this.bytes = bytes;
@@ -29,4 +33,20 @@ public class EntityMediaObject {
 	public byte[] getBytes() {
 		return bytes;
 	}
+
+	/**
+	 * Sets the content source; it takes precedence over bytes set with {@link #setBytes(byte[])}.
+	 */
+	public void setContent(MediaContent content) {
+		this.content = content;
+	}
+
+	/**
+	 * Gets the content source.
+	 * @return the content set with {@link #setContent(MediaContent)}, the bytes wrapped as content,
+	 * or <code>null</code> if neither is set
+	 */
+	public MediaContent getContent() {
+		return content == null && bytes != null ? MediaContent.of(bytes) : content;
+	}
 }
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.commons.api.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Source of the binary content of a media entity or a stream property.
+ * <p>The content is not held in memory; it is read from its source every time it is written, so
+ * it can be written more than once and any byte range of it can be written on its own.</p>
+ */
+public abstract class MediaContent {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  /** Opens a new stream on the content; used by {@link #of(StreamSupplier, long)}. */
+  public interface StreamSupplier {
+    InputStream open() throws IOException;
+  }
+
+  /**
+   * Returns the length of the content in bytes.
+   * @return the length or -1 if it is not known in advance
+   */
+  public abstract long getLength();
+
+  /**
+   * Writes a part of the content to the given channel.
+   * @param position the index of the first byte to write
+   * @param count the maximum number of bytes to write
+   * @param target the channel to write to
+   * @return the number of bytes written
+   */
+  public abstract long transferTo(long position, long count, WritableByteChannel target) throws IOException;
+
+  /**
+   * Writes the complete content to the given channel.
+   * @param target the channel to write to
+   * @return the number of bytes written
+   */
+  public long transferTo(final WritableByteChannel target) throws IOException {
+    return transferTo(0, Long.MAX_VALUE, target);
+  }
+
+  /** Creates media content from a byte array; the array is not copied. */
+  public static MediaContent of(final byte[] bytes) {
+    return new BytesContent(bytes);
+  }
+
+  /**
+   * Creates media content from a file. The file is opened on each write and its bytes
+   * are handed to the target channel with {@link FileChannel#transferTo(long, long, WritableByteChannel)}.
+   */
+  public static MediaContent of(final Path path) {
+    return new FileContent(path);
+  }
+
+  /**
+   * Creates media content from streams opened on demand.
+   * @param supplier opens a new stream positioned at the start of the content
+   * @param length the length in bytes or -1 if it is not known
+   */
+  public static MediaContent of(final StreamSupplier supplier, final long length) {
+    return new StreamContent(supplier, length);
+  }
+
+  private static final class BytesContent extends MediaContent {
+    private final byte[] bytes;
+
+    private BytesContent(final byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    @Override
+    public long getLength() {
+      return bytes.length;
+    }
+
+    @Override
+    public long transferTo(final long position, final long count, final WritableByteChannel target)
+        throws IOException {
+      if (position >= bytes.length) {
+        return 0;
+      }
+      final ByteBuffer buffer = ByteBuffer.wrap(bytes, (int) position, (int) Math.min(count, bytes.length - position));
+      long written = 0;
+      while (buffer.hasRemaining()) {
+        written += target.write(buffer);
+      }
+      return written;
+    }
+  }
+
+  private static final class FileContent extends MediaContent {
+    private final Path path;
+
+    private FileContent(final Path path) {
+      this.path = path;
+    }
+
+    @Override
+    public long getLength() {
+      try {
+        return Files.size(path);
+      } catch (final IOException e) {
+        return -1;
+      }
+    }
+
+    @Override
+    public long transferTo(final long position, final long count, final WritableByteChannel target)
+        throws IOException {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+        final long end = Math.min(channel.size(), position + Math.min(count, Long.MAX_VALUE - position));
+        long current = position;
+        while (current < end) {
+          final long transferred = channel.transferTo(current, end - current, target);
+          if (transferred <= 0) {
+            break;
+          }
+          current += transferred;
+        }
+        return Math.max(current - position, 0);
+      }
+    }
+  }
+
+  private static final class StreamContent extends MediaContent {
+    private final StreamSupplier supplier;
+    private final long length;
+
+    private StreamContent(final StreamSupplier supplier, final long length) {
+      this.supplier = supplier;
+      this.length = length;
+    }
+
+    @Override
+    public long getLength() {
+      return length;
+    }
+
+    @Override
+    public long transferTo(final long position, final long count, final WritableByteChannel target)
+        throws IOException {
+      try (InputStream stream = supplier.open()) {
+        long skipped = 0;
+        while (skipped < position) {
+          final long step = stream.skip(position - skipped);
+          if (step <= 0) {
+            if (stream.read() < 0) {
+              return 0;
+            }
+            skipped++;
+          } else {
+            skipped += step;
+          }
+        }
+        final ReadableByteChannel source = Channels.newChannel(stream);
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long written = 0;
+        while (written < count) {
+          buffer.clear();
+          if (count - written < BUFFER_SIZE) {
+            buffer.limit((int) (count - written));
+          }
+          if (source.read(buffer) < 0) {
+            break;
+          }
+          buffer.flip();
+          while (buffer.hasRemaining()) {
+            written += target.write(buffer);
+          }
+        }
+        return written;
+      }
+    }
+  }
+}
@@ -18,7 +18,7 @@
  */
 package org.apache.olingo.commons.core;
 
-import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Decodes a Java String containing a percent-encoded UTF-8 String value
@@ -38,7 +38,7 @@ public class Decoder {
    * are not hexadecimal digits
    */
   public static String decode(final String value) throws IllegalArgumentException, NumberFormatException {
-    if (value == null) {
+    if (value == null || !needsDecoding(value)) {
       return value;
     }
 
@@ -51,7 +51,8 @@ public class Decoder {
     byte[] result = new byte[value.length()];
     int position = 0;
     byte encodedPart = -2;
-    for (final char c : value.toCharArray()) {
+    for (int index = 0; index < value.length(); index++) {
+      final char c = value.charAt(index);
       if (c <= Byte.MAX_VALUE) {
         if (c == '%') {
           if (encodedPart == -2) {
@@ -62,9 +63,10 @@ public class Decoder {
         } else if (encodedPart == -1) {
           encodedPart = (byte) c;
         } else if (encodedPart >= 0) {
-          final int i = Integer.parseInt(String.valueOf(new char[] { (char) encodedPart, c }), 16);
-          if (i >= 0) {
-            result[position++] = (byte) i;
+          final int high = Character.digit((char) encodedPart, 16);
+          final int low = Character.digit(c, 16);
+          if (high >= 0 && low >= 0) {
+            result[position++] = (byte) (high << 4 | low);
           } else {
             throw new NumberFormatException();
           }
@@ -81,10 +83,22 @@ public class Decoder {
       throw new IllegalArgumentException();
     }
 
-    try {
-      return new String(result, 0, position, "UTF-8");
-    } catch (UnsupportedEncodingException e) {
-      throw new IllegalArgumentException(e);
+    return new String(result, 0, position, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Checks whether the value contains percent-encoded characters; values without them are returned as they are.
+   * @throws IllegalArgumentException if value contains characters not representing UTF-8 bytes
+   */
+  private static boolean needsDecoding(final String value) throws IllegalArgumentException {
+    boolean percent = false;
+    for (int index = 0; index < value.length(); index++) {
+      final char c = value.charAt(index);
+      if (c > Byte.MAX_VALUE) {
+        throw new IllegalArgumentException();
+      }
+      percent |= c == '%';
     }
+    return percent;
   }
 }
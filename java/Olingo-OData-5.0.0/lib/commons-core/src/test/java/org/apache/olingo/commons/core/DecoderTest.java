@@ -20,6 +20,7 @@ package org.apache.olingo.commons.core;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Test;
 
@@ -39,6 +40,17 @@ public class DecoderTest {
     assertEquals(s, Decoder.decode(s));
   }
 
+  @Test
+  public void unencodedValueIsNotCopied() {
+    final String s = "PropertyString in ('a','b')";
+    assertSame(s, Decoder.decode(s));
+  }
+
+  @Test
+  public void upperAndLowerCaseHexDigits() {
+    assertEquals("\u00ff\u00ff", Decoder.decode("%C3%BF%c3%bf"));
+  }
+
   @Test
   public void asciiControl() {
     assertEquals("\u0000\b\t\n\r", Decoder.decode("%00%08%09%0a%0d"));
@@ -67,6 +79,16 @@ public class DecoderTest {
     Decoder.decode("%20ä");
   }
 
+  @Test(expected = IllegalArgumentException.class)
+  public void wrongCharacterWithoutPercent() {
+    Decoder.decode("ä");
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void wrongHexDigit() {
+    Decoder.decode("%2g");
+  }
+
   @Test(expected = NumberFormatException.class)
   public void wrongPercentNumber() {
     Decoder.decode("%-3");
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.etag;
+
+import java.util.List;
+
+import org.apache.olingo.commons.api.edm.EdmBindingTarget;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.OlingoExtension;
+import org.apache.olingo.server.api.uri.UriParameter;
+
+/**
+ * <p>Supplies the current ETags of resources without reading the resources themselves,
+ * e.g., from a version column, from a content hash maintained on each update, or from a
+ * modification counter of an entity set.</p>
+ * <p>If an implementation is registered at the ODataHttpHandler, GET requests with an If-None-Match
+ * or If-Match header which address an entity, a property or the media value of an entity, or an
+ * entity collection without $expand are checked against the ETag returned here before any processor
+ * is called. If the If-None-Match header matches, a "Not Modified" response is returned immediately;
+ * if the If-Match header does not match, a "Precondition Failed" response is returned.
+ * If a method returns <code>null</code>, the request is dispatched to the processor as usual.</p>
+ */
+public interface ETagProvider extends OlingoExtension {
+
+  /**
+   * Returns the current ETag of an entity.
+   * @param entitySetOrSingleton the entity set or singleton of the entity
+   * @param keyPredicates the key predicates of the entity; empty for singletons
+   * @return the ETag or <code>null</code> if it is not available without reading the entity
+   */
+  String getETag(EdmBindingTarget entitySetOrSingleton, List<UriParameter> keyPredicates)
+      throws ODataApplicationException;
+
+  /**
+   * Returns the current ETag of the media value of a media entity.
+   * @param entitySetOrSingleton the entity set or singleton of the entity
+   * @param keyPredicates the key predicates of the entity; empty for singletons
+   * @return the ETag or <code>null</code> if it is not available without reading the entity
+   */
+  String getMediaETag(EdmBindingTarget entitySetOrSingleton, List<UriParameter> keyPredicates)
+      throws ODataApplicationException;
+
+  /**
+   * Returns the current ETag of the whole content of an entity set; it must change whenever
+   * an entity of the set is created, changed, or deleted.
+   * @param entitySet the entity set
+   * @return the ETag or <code>null</code> if collection ETags are not supported for this entity set
+   */
+  String getCollectionETag(EdmEntitySet entitySet) throws ODataApplicationException;
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.metrics;
+
+import org.apache.olingo.commons.api.http.HttpMethod;
+
+/**
+ * The dimensions of a request measurement.
+ * The resource kind and name describe the first resource-path segment, e.g., kind
+ * <code>entitySet</code> and the name of the entity set, or kind <code>function</code> and the
+ * full-qualified name of the function import's function.
+ */
+public final class MetricTags {
+
+  public static final String KIND_SERVICE = "service";
+  public static final String KIND_METADATA = "metadata";
+  public static final String KIND_BATCH = "batch";
+  public static final String KIND_ENTITY_SET = "entitySet";
+  public static final String KIND_SINGLETON = "singleton";
+  public static final String KIND_FUNCTION = "function";
+  public static final String KIND_ACTION = "action";
+  public static final String KIND_OTHER = "other";
+  public static final String KIND_UNKNOWN = "unknown";
+
+  private final HttpMethod method;
+  private final String resourceKind;
+  private final String resourceName;
+  private final int statusCode;
+
+  /**
+   * Creates the dimensions of a request measurement.
+   * @param method       the HTTP method, may be <code>null</code> if the request could not be read
+   * @param resourceKind the kind of the addressed resource, one of the <code>KIND_*</code> constants
+   * @param resourceName the name of the addressed resource, may be <code>null</code>
+   * @param statusCode   the HTTP status code of the response
+   */
+  public MetricTags(final HttpMethod method, final String resourceKind, final String resourceName,
+      final int statusCode) {
+    this.method = method;
+    this.resourceKind = resourceKind == null ? KIND_UNKNOWN : resourceKind;
+    this.resourceName = resourceName;
+    this.statusCode = statusCode;
+  }
+
+  public HttpMethod getMethod() {
+    return method;
+  }
+
+  public String getResourceKind() {
+    return resourceKind;
+  }
+
+  public String getResourceName() {
+    return resourceName;
+  }
+
+  public int getStatusCode() {
+    return statusCode;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof MetricTags)) {
+      return false;
+    }
+    final MetricTags other = (MetricTags) obj;
+    return method == other.method
+        && resourceKind.equals(other.resourceKind)
+        && (resourceName == null ? other.resourceName == null : resourceName.equals(other.resourceName))
+        && statusCode == other.statusCode;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = method == null ? 0 : method.hashCode();
+    result = 31 * result + resourceKind.hashCode();
+    result = 31 * result + (resourceName == null ? 0 : resourceName.hashCode());
+    return 31 * result + statusCode;
+  }
+
+  @Override
+  public String toString() {
+    return method + " " + resourceKind + (resourceName == null ? "" : ":" + resourceName) + " " + statusCode;
+  }
+}
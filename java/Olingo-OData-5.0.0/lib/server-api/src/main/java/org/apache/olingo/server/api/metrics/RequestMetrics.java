@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.metrics;
+
+import org.apache.olingo.server.api.OlingoExtension;
+
+/**
+ * <p>Receives request-level measurements from the server library.</p>
+ * <p>An implementation is registered as {@link OlingoExtension} at the
+ * {@link org.apache.olingo.server.api.ODataHttpHandler}. It is called for every request,
+ * independent of any debug mode, so it has to be thread-safe and should return quickly;
+ * typical implementations forward the values to a metrics backend.</p>
+ * <p>The library reports stage latencies and payload sizes itself.
+ * Entity counts and cache accesses can be reported by processors and application caches
+ * through the same instance so that all values share the same dimensions.</p>
+ */
+public interface RequestMetrics extends OlingoExtension {
+
+  /**
+   * Records the time spent in a processing stage.
+   * @param stage the stage
+   * @param tags  the dimensions of the request
+   * @param nanos the elapsed time in nanoseconds
+   */
+  void recordStage(RequestStage stage, MetricTags tags, long nanos);
+
+  /**
+   * Records the size of a response body.
+   * @param tags  the dimensions of the request
+   * @param bytes the number of bytes written
+   */
+  void recordPayloadSize(MetricTags tags, long bytes);
+
+  /**
+   * Records the number of entities returned or processed by a request.
+   * @param tags  the dimensions of the request
+   * @param count the number of entities
+   */
+  void recordEntityCount(MetricTags tags, long count);
+
+  /**
+   * Records an access to a cache.
+   * @param cacheName the name of the cache
+   * @param hit       <code>true</code> if the value was found in the cache
+   */
+  void recordCacheAccess(String cacheName, boolean hit);
+}
@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.metrics;
+
+/**
+ * The stages of the processing of a single request which are timed by the server library.
+ */
+public enum RequestStage {
+  /** Reading the HTTP request into an {@link org.apache.olingo.server.api.ODataRequest}. */
+  READ_REQUEST,
+  /** Parsing the resource path and the query options. */
+  PARSE_URI,
+  /** Validating the parsed URI against the HTTP method. */
+  VALIDATE,
+  /** Dispatching to and running the processor, including any serialization done by the processor. */
+  DISPATCH,
+  /** Creating the error response after a failure. */
+  ERROR,
+  /** Writing the response body, including serialization of streamed content. */
+  WRITE,
+  /** The complete request from start to end. */
+  TOTAL
+}
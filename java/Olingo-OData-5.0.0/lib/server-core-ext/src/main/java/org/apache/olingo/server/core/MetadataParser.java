@@ -32,7 +32,6 @@ import java.util.Map;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
-import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.Attribute;
 import javax.xml.stream.events.EndElement;
@@ -92,6 +91,7 @@ import org.apache.olingo.commons.api.edmx.EdmxReference;
 import org.apache.olingo.commons.api.edmx.EdmxReferenceInclude;
 import org.apache.olingo.commons.api.edmx.EdmxReferenceIncludeAnnotation;
 import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.core.serializer.utils.XmlFactories;
 
 /**
  * This class can convert a CSDL document into EDMProvider object
@@ -162,16 +162,14 @@ public class MetadataParser {
   }
 
   public SchemaBasedEdmProvider buildEdmProvider(Reader csdl) throws XMLStreamException {
-    XMLInputFactory xmlInputFactory = createXmlInputFactory();
-    XMLEventReader reader = xmlInputFactory.createXMLEventReader(csdl);    
+    XMLEventReader reader = XmlFactories.getInputFactory().createXMLEventReader(csdl);    
     return buildEdmProvider(reader, this.referenceResolver, this.implicitlyLoadCoreVocabularies,
             this.useLocalCoreVocabularies, true, null);
   }
   
   public SchemaBasedEdmProvider addToEdmProvider(SchemaBasedEdmProvider existing, Reader csdl)
       throws XMLStreamException {
-    XMLInputFactory xmlInputFactory = createXmlInputFactory();
-    XMLEventReader reader = xmlInputFactory.createXMLEventReader(csdl);
+    XMLEventReader reader = XmlFactories.getInputFactory().createXMLEventReader(csdl);
     return addToEdmProvider(existing, reader, this.referenceResolver, this.implicitlyLoadCoreVocabularies,
         this.useLocalCoreVocabularies, true, null);
   }
@@ -180,8 +178,7 @@ public class MetadataParser {
                                                     boolean loadCore, boolean useLocal,
                                                     boolean loadReferenceSchemas, String namespace)
           throws XMLStreamException {
-    XMLInputFactory xmlInputFactory = createXmlInputFactory();
-    XMLEventReader reader = xmlInputFactory.createXMLEventReader(csdl);
+    XMLEventReader reader = XmlFactories.getInputFactory().createXMLEventReader(csdl);
     return buildEdmProvider(reader, resolver, loadCore, useLocal, loadReferenceSchemas, namespace);
   }
 
@@ -189,8 +186,7 @@ public class MetadataParser {
                                                     boolean loadCore, boolean useLocal,
                                                     boolean loadReferenceSchemas, String namespace)
           throws XMLStreamException {
-    XMLInputFactory xmlInputFactory = createXmlInputFactory();
-    XMLEventReader reader = xmlInputFactory.createXMLEventReader(csdl);
+    XMLEventReader reader = XmlFactories.getInputFactory().createXMLEventReader(csdl);
     return buildEdmProvider(reader, resolver, loadCore, useLocal, loadReferenceSchemas, namespace);
   } 
 
@@ -251,13 +247,6 @@ public class MetadataParser {
     return provider;
   }
 
-  private XMLInputFactory createXmlInputFactory() {
-    XMLInputFactory factory = XMLInputFactory.newInstance();
-    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
-    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
-    return factory;
-  }
-
   private void loadReferencesSchemas(SchemaBasedEdmProvider provider,
       String xmlBase, ReferenceResolver resolver, boolean loadCore,
       boolean useLocal) {    
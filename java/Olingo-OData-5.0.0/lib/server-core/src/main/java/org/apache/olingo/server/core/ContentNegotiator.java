@@ -21,10 +21,11 @@ package org.apache.olingo.server.core;
 import java.nio.charset.UnsupportedCharsetException;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import org.apache.olingo.commons.api.format.AcceptCharset;
 import org.apache.olingo.commons.api.format.AcceptType;
@@ -44,6 +45,7 @@ public final class ContentNegotiator {
   private static final String METADATA = "METADATA";
   private static final String COLON = ":";
   private static final Pattern CHARSET_PATTERN = Pattern.compile("([^,][\\w!#$%&'*+-._`|~;^]*)");
+  private static final int CACHE_SIZE = 256;
 
   private static final List<ContentType> DEFAULT_SUPPORTED_CONTENT_TYPES =
       Collections.unmodifiableList(Arrays.asList(
@@ -54,9 +56,30 @@ public final class ContentNegotiator {
           ContentType.APPLICATION_ATOM_XML,
           ContentType.APPLICATION_XML));
 
+  private static final Map<RepresentationType, List<ContentType>> DEFAULT_SUPPORTED_CONTENT_TYPES_BY_TYPE =
+      new EnumMap<>(RepresentationType.class);
+
+  static {
+    for (final RepresentationType type : RepresentationType.values()) {
+      DEFAULT_SUPPORTED_CONTENT_TYPES_BY_TYPE.put(type, createDefaultSupportedContentTypes(type));
+    }
+  }
+
+  private static final HeaderValueCache<String, List<AcceptType>> ACCEPT_TYPES =
+      new HeaderValueCache<>(CACHE_SIZE);
+  private static final HeaderValueCache<String, List<AcceptCharset>> ACCEPT_CHARSETS =
+      new HeaderValueCache<>(CACHE_SIZE);
+  private static final HeaderValueCache<String, ContentType> CONTENT_TYPES = new HeaderValueCache<>(CACHE_SIZE);
+  private static final HeaderValueCache<NegotiationKey, ContentType> NEGOTIATED_CONTENT_TYPES =
+      new HeaderValueCache<>(CACHE_SIZE);
+
   private ContentNegotiator() {}
 
   private static List<ContentType> getDefaultSupportedContentTypes(final RepresentationType type) {
+    return DEFAULT_SUPPORTED_CONTENT_TYPES_BY_TYPE.get(type);
+  }
+
+  private static List<ContentType> createDefaultSupportedContentTypes(final RepresentationType type) {
     switch (type) {
     case METADATA:
       return Collections.unmodifiableList(Arrays.asList(ContentType.APPLICATION_XML,
@@ -88,29 +111,48 @@ public final class ContentNegotiator {
     }
   }
 
+  /**
+   * Determines the content type of the response from the <code>$format</code> system query option
+   * and the <code>Accept</code> and <code>Accept-Charset</code> headers.
+   * The result for a combination of these values and the supported content types is computed once
+   * and then taken from a cache; failed negotiations are not cached.
+   */
   public static ContentType doContentNegotiation(final FormatOption formatOption, final ODataRequest request,
       final CustomContentTypeSupport customContentTypeSupport, final RepresentationType representationType)
           throws ContentNegotiatorException {
     final List<ContentType> supportedContentTypes =
         getSupportedContentTypes(customContentTypeSupport, representationType);
-    final List<String> acceptHeaderValueList = request.getHeaders(HttpHeader.ACCEPT);
-    final String acceptHeaderValue = acceptHeaderValueList != null ? 
-    		acceptHeaderValueList.stream().collect(Collectors.joining(", ")) : null;
-    List<String> acceptCharsetValueList = request.getHeaders(HttpHeader.ACCEPT_CHARSET);
-    String acceptCharset = acceptCharsetValueList != null ? 
-    		acceptCharsetValueList.stream().collect(Collectors.joining(", ")) : null;
+    final String format = formatOption == null ? null : formatOption.getFormat();
+    final String acceptHeaderValue = joinHeaderValues(request.getHeaders(HttpHeader.ACCEPT));
+    final String acceptCharset = joinHeaderValues(request.getHeaders(HttpHeader.ACCEPT_CHARSET));
+
+    final NegotiationKey key = new NegotiationKey(representationType, supportedContentTypes,
+        format, acceptHeaderValue, acceptCharset);
+    final ContentType cached = NEGOTIATED_CONTENT_TYPES.get(key);
+    return cached == null ?
+        NEGOTIATED_CONTENT_TYPES.put(key,
+            doContentNegotiation(format, acceptHeaderValue, acceptCharset, supportedContentTypes, representationType)) :
+        cached;
+  }
+
+  private static String joinHeaderValues(final List<String> values) {
+    return values == null ? null : values.size() == 1 ? values.get(0) : String.join(", ", values);
+  }
+
+  private static ContentType doContentNegotiation(final String format, final String acceptHeaderValue,
+      final String acceptCharset, final List<ContentType> supportedContentTypes,
+      final RepresentationType representationType) throws ContentNegotiatorException {
     List<AcceptCharset> charsets = null;
-      
     ContentType result = null;
 
-    if (formatOption != null && formatOption.getFormat() != null) {
-      final String formatString = formatOption.getFormat().trim();
+    if (format != null) {
+      final String formatString = format.trim();
       final ContentType contentType = mapContentType(formatString, representationType);
       boolean isCharsetInFormat = false;
       List<AcceptType> formatTypes = null;
       try {
       formatTypes = AcceptType.fromContentType(contentType == null ?
-          ContentType.create(formatOption.getFormat()) : contentType);
+          parseContentType(format) : contentType);
       } catch (final IllegalArgumentException e) {
         throw new AcceptHeaderContentNegotiatorException(
             "Unsupported $format=" + formatString, e,
@@ -148,15 +190,14 @@ public final class ContentNegotiator {
     } else if (acceptHeaderValue != null) {
       charsets = getAcceptCharset(acceptCharset);
       try {
-        result = getAcceptedType(AcceptType.create(acceptHeaderValue), 
-            supportedContentTypes, charsets);
+        result = getAcceptedType(parseAcceptTypes(acceptHeaderValue), supportedContentTypes, charsets);
       } catch (final IllegalArgumentException e) {
         throw new AcceptHeaderContentNegotiatorException(e.getMessage(), e,
             AcceptHeaderContentNegotiatorException.MessageKeys.UNSUPPORTED_ACCEPT_TYPES, 
             e.getMessage().substring(e.getMessage().lastIndexOf(COLON) + 1));
       } 
       if (result == null) {
-        List<AcceptType> types = AcceptType.create(acceptHeaderValue);
+        List<AcceptType> types = parseAcceptTypes(acceptHeaderValue);
         throw new ContentNegotiatorException(
             "The combination of type and subtype " + types.get(0) +
             " != " + supportedContentTypes,
@@ -189,7 +230,11 @@ public final class ContentNegotiator {
     List<AcceptCharset> charsets = null;
     if (acceptCharset != null) {
       try {
-        charsets = AcceptCharset.create(acceptCharset); 
+        charsets = ACCEPT_CHARSETS.get(acceptCharset);
+        if (charsets == null) {
+          charsets = ACCEPT_CHARSETS.put(acceptCharset,
+              Collections.unmodifiableList(AcceptCharset.create(acceptCharset)));
+        }
       } catch (UnsupportedCharsetException e) {
         throw new ContentNegotiatorException(e.getMessage(), e,
             ContentNegotiatorException.MessageKeys.UNSUPPORTED_ACCEPT_CHARSET, 
@@ -203,6 +248,25 @@ public final class ContentNegotiator {
     return charsets;
   }
 
+  private static List<AcceptType> parseAcceptTypes(final String acceptHeaderValue) {
+    final List<AcceptType> cached = ACCEPT_TYPES.get(acceptHeaderValue);
+    return cached == null ?
+        ACCEPT_TYPES.put(acceptHeaderValue, Collections.unmodifiableList(AcceptType.create(acceptHeaderValue))) :
+        cached;
+  }
+
+  /**
+   * Parses the value of a <code>Content-Type</code> header as {@link ContentType#create(String)} does;
+   * the results for already seen values are taken from a cache.
+   * @param contentTypeHeader the header value
+   * @return the content type
+   * @throws IllegalArgumentException if the value is <code>null</code> or not parseable
+   */
+  public static ContentType parseContentType(final String contentTypeHeader) {
+    final ContentType cached = CONTENT_TYPES.get(contentTypeHeader);
+    return cached == null ? CONTENT_TYPES.put(contentTypeHeader, ContentType.create(contentTypeHeader)) : cached;
+  }
+
   private static ContentType mapContentType(final String formatString, 
       RepresentationType representationType) {
     if (representationType.name().equals(METADATA)) {
@@ -299,4 +363,45 @@ public final class ContentNegotiator {
     }
     return false;
   }
+
+  /** Key of the negotiation cache; the supported content types are part of it as they may be customized. */
+  private static final class NegotiationKey {
+    private final RepresentationType representationType;
+    private final List<ContentType> supportedContentTypes;
+    private final String format;
+    private final String accept;
+    private final String acceptCharset;
+    private final int hashCode;
+
+    private NegotiationKey(final RepresentationType representationType, final List<ContentType> supportedContentTypes,
+        final String format, final String accept, final String acceptCharset) {
+      this.representationType = representationType;
+      this.supportedContentTypes = supportedContentTypes;
+      this.format = format;
+      this.accept = accept;
+      this.acceptCharset = acceptCharset;
+      hashCode = Objects.hash(representationType, supportedContentTypes, format, accept, acceptCharset);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof NegotiationKey)) {
+        return false;
+      }
+      final NegotiationKey other = (NegotiationKey) obj;
+      return representationType == other.representationType
+          && Objects.equals(format, other.format)
+          && Objects.equals(accept, other.accept)
+          && Objects.equals(acceptCharset, other.acceptCharset)
+          && supportedContentTypes.equals(other.supportedContentTypes);
+    }
+  }
 }
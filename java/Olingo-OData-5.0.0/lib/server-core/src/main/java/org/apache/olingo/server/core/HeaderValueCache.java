@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>Bounded, thread-safe cache for values parsed from HTTP header fields.</p>
+ * <p>Clients send only a few distinct header values, so nearly every lookup is a hit and
+ * parsing is done once per distinct value. To keep the memory bounded even for clients sending
+ * arbitrary values, the cache is simply cleared when it is full.
+ * Cached values must be immutable because they are shared among requests.</p>
+ * @param <K> the key type, usually the header value
+ * @param <V> the type of the parsed value
+ */
+public final class HeaderValueCache<K, V> {
+
+  private final int maxSize;
+  private final ConcurrentMap<K, V> values;
+
+  public HeaderValueCache(final int maxSize) {
+    this.maxSize = maxSize;
+    values = new ConcurrentHashMap<>(Math.min(maxSize, 64));
+  }
+
+  /**
+   * Gets the cached value.
+   * @param key the key, may be <code>null</code>
+   * @return the value or <code>null</code> if it is not cached
+   */
+  public V get(final K key) {
+    return key == null ? null : values.get(key);
+  }
+
+  /**
+   * Caches a value; <code>null</code> keys or values are not cached.
+   * @return the given value
+   */
+  public V put(final K key, final V value) {
+    if (key != null && value != null) {
+      if (values.size() >= maxSize) {
+        values.clear();
+      }
+      values.put(key, value);
+    }
+    return value;
+  }
+
+  public int size() {
+    return values.size();
+  }
+}
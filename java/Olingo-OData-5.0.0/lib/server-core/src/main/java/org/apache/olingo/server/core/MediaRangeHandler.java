@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import java.util.Locale;
+
+import org.apache.olingo.commons.api.data.MediaContent;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataContent;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+
+/**
+ * Serves byte ranges of media content according to
+ * <a href="http://www.rfc-editor.org/rfc/rfc7233.txt">RFC 7233</a>.
+ * <p>Only successful responses whose content is media content of known length are touched.
+ * A single range is answered with <code>206 Partial Content</code>; multiple ranges,
+ * malformed ranges, and a non-matching <code>If-Range</code> validator result in the complete content.</p>
+ */
+public final class MediaRangeHandler {
+
+  private static final String BYTES = "bytes";
+  private static final String BYTES_PREFIX = BYTES + '=';
+
+  private MediaRangeHandler() {}
+
+  /**
+   * Applies the <code>Range</code> header of the request to the response.
+   * @param request the request of a GET method
+   * @param response the response created by the processor
+   */
+  public static void apply(final ODataRequest request, final ODataResponse response) {
+    final ODataContent odataContent = response.getODataContent();
+    if (response.getStatusCode() != HttpStatusCode.OK.getStatusCode()
+        || !(odataContent instanceof ODataWritableContent)) {
+      return;
+    }
+    final MediaContent media = ((ODataWritableContent) odataContent).getMediaContent();
+    final long length = media == null ? -1 : media.getLength();
+    if (length < 0) {
+      return;
+    }
+    response.setHeader(HttpHeader.ACCEPT_RANGES, BYTES);
+
+    final String range = request.getHeader(HttpHeader.RANGE);
+    final long[] bounds = range == null || !isValidatorMatching(request.getHeader(HttpHeader.IF_RANGE), response) ?
+        null :
+        parseRange(range, length);
+    if (bounds == null) {
+      response.setHeader(HttpHeader.CONTENT_LENGTH, Long.toString(length));
+    } else if (bounds.length == 0) {
+      response.setStatusCode(HttpStatusCode.RANGE_NOT_SATISFIABLE.getStatusCode());
+      response.setHeader(HttpHeader.CONTENT_RANGE, BYTES + " */" + length);
+      response.setODataContent(null);
+    } else {
+      final long count = bounds[1] - bounds[0] + 1;
+      response.setStatusCode(HttpStatusCode.PARTIAL_CONTENT.getStatusCode());
+      response.setHeader(HttpHeader.CONTENT_RANGE, BYTES + ' ' + bounds[0] + '-' + bounds[1] + '/' + length);
+      response.setHeader(HttpHeader.CONTENT_LENGTH, Long.toString(count));
+      response.setODataContent(((ODataWritableContent) odataContent).range(bounds[0], count));
+    }
+  }
+
+  /**
+   * An <code>If-Range</code> entity tag matches only a strong, equal entity tag of the response;
+   * an <code>If-Range</code> date matches only an equal <code>Last-Modified</code> value.
+   */
+  private static boolean isValidatorMatching(final String ifRange, final ODataResponse response) {
+    if (ifRange == null) {
+      return true;
+    }
+    final String validator = ifRange.trim();
+    if (validator.startsWith("\"") || validator.startsWith("W/")) {
+      final String eTag = response.getHeader(HttpHeader.ETAG);
+      return !validator.startsWith("W/") && validator.equals(eTag);
+    }
+    return validator.equals(response.getHeader(HttpHeader.LAST_MODIFIED));
+  }
+
+  /**
+   * Parses a byte-range specification.
+   * @return the first and last byte position, an empty array if the range is not satisfiable,
+   * or <code>null</code> if the specification is malformed or contains more than one range
+   */
+  static long[] parseRange(final String range, final long length) {
+    final String value = range.trim();
+    if (!value.toLowerCase(Locale.ROOT).startsWith(BYTES_PREFIX)) {
+      return null;
+    }
+    final String spec = value.substring(BYTES_PREFIX.length()).trim();
+    final int dash = spec.indexOf('-');
+    if (dash < 0 || spec.indexOf(',') >= 0) {
+      return null;
+    }
+    try {
+      final String first = spec.substring(0, dash).trim();
+      final String last = spec.substring(dash + 1).trim();
+      if (first.isEmpty()) {
+        // suffix range: the last n bytes
+        final long suffix = Long.parseLong(last);
+        if (suffix < 0) {
+          return null;
+        }
+        return suffix == 0 || length == 0 ? new long[0] : new long[] { Math.max(length - suffix, 0), length - 1 };
+      }
+      final long start = Long.parseLong(first);
+      final long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+      if (start < 0 || end < start) {
+        return null;
+      }
+      return start >= length ? new long[0] : new long[] { start, Math.min(end, length - 1) };
+    } catch (final NumberFormatException e) {
+      return null;
+    }
+  }
+}
@@ -32,12 +32,14 @@ import org.apache.olingo.commons.api.edm.constants.EdmTypeKind;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.commons.core.edm.primitivetype.EdmPrimitiveTypeFactory;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.ODataLibraryException;
 import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.etag.CustomETagSupport;
+import org.apache.olingo.server.api.etag.ETagProvider;
 import org.apache.olingo.server.api.etag.PreconditionException;
 import org.apache.olingo.server.api.processor.ActionComplexCollectionProcessor;
 import org.apache.olingo.server.api.processor.ActionComplexProcessor;
@@ -74,6 +76,8 @@ import org.apache.olingo.server.api.uri.UriResourcePrimitiveProperty;
 import org.apache.olingo.server.api.uri.UriResourceProperty;
 import org.apache.olingo.server.api.uri.UriResourceSingleton;
 import org.apache.olingo.server.core.batchhandler.BatchHandler;
+import org.apache.olingo.server.core.etag.ETagHelperImpl;
+import org.apache.olingo.server.core.etag.ETagLookup;
 import org.apache.olingo.server.core.etag.PreconditionsValidator;
 
 public class ODataDispatcher {
@@ -134,6 +138,10 @@ public class ODataDispatcher {
   private void handleResourceDispatching(final ODataRequest request, final ODataResponse response)
       throws ODataApplicationException, ODataLibraryException {
 
+    if (isNotModified(request, response)) {
+      return;
+    }
+
     final int lastPathSegmentIndex = uriInfo.getUriResourceParts().size() - 1;
     final UriResource lastPathSegment = uriInfo.getUriResourceParts().get(lastPathSegmentIndex);
 
@@ -347,7 +355,7 @@ public class ODataDispatcher {
     } else if (method == HttpMethod.PUT && (isEntityOrNavigationMedia(resource) 
         || isSingletonMedia(resource))) {
       validatePreconditions(request, true);
-      final ContentType requestFormat = ContentType.parse(request.getHeader(HttpHeader.CONTENT_TYPE));
+      final ContentType requestFormat = parseContentType(request.getHeader(HttpHeader.CONTENT_TYPE));
       final ContentType responseFormat = ContentNegotiator.doContentNegotiation(uriInfo.getFormatOption(),
           request, handler.getCustomContentTypeSupport(), RepresentationType.ENTITY);
       handler.selectProcessor(MediaEntityProcessor.class)
@@ -467,7 +475,7 @@ public class ODataDispatcher {
       if (uriResource instanceof UriResourcePrimitiveProperty &&
     		  ((UriResourcePrimitiveProperty)uriResource).getType()
     		  .getFullQualifiedName().getFullQualifiedNameAsString().equalsIgnoreCase(EDMSTREAM)) {
-    	 requestFormat = ContentType.parse(request.getHeader(HttpHeader.CONTENT_TYPE));
+    	 requestFormat = parseContentType(request.getHeader(HttpHeader.CONTENT_TYPE));
       } else {
     	  requestFormat = getSupportedContentType(request.getHeader(HttpHeader.CONTENT_TYPE),
     	          representationType, true);
@@ -545,7 +553,7 @@ public class ODataDispatcher {
           request, handler.getCustomContentTypeSupport(), RepresentationType.ENTITY);
       if (isMedia) {
         validatePreferHeader(request);
-        final ContentType requestFormat = ContentType.parse(
+        final ContentType requestFormat = parseContentType(
             request.getHeader(HttpHeader.CONTENT_TYPE));
         handler.selectProcessor(MediaEntityProcessor.class)
             .createMediaEntity(request, response, uriInfo, requestFormat, responseFormat);
@@ -662,6 +670,28 @@ public class ODataDispatcher {
   }
 
 
+  /**
+   * Answers a conditional GET request with "Not Modified" if the registered {@link ETagProvider}
+   * knows the current ETag of the requested resource and it is matched by the If-None-Match header;
+   * the processor is not called in this case.
+   */
+  private boolean isNotModified(final ODataRequest request, final ODataResponse response)
+      throws ODataApplicationException, PreconditionException {
+    final ETagProvider eTagProvider = handler.getETagProvider();
+    if (eTagProvider == null || request.getMethod() != HttpMethod.GET
+        || request.getHeader(HttpHeader.IF_NONE_MATCH) == null && request.getHeader(HttpHeader.IF_MATCH) == null) {
+      return false;
+    }
+    final String eTag = new ETagLookup(uriInfo).getETag(eTagProvider);
+    if (new ETagHelperImpl().checkReadPreconditions(eTag,
+        request.getHeaders(HttpHeader.IF_MATCH), request.getHeaders(HttpHeader.IF_NONE_MATCH))) {
+      response.setStatusCode(HttpStatusCode.NOT_MODIFIED.getStatusCode());
+      response.setHeader(HttpHeader.ETAG, eTag);
+      return true;
+    }
+    return false;
+  }
+
   private void validatePreconditions(final ODataRequest request, final boolean isMediaValue)
       throws PreconditionException {
     // If needed perform preconditions validation.
@@ -699,6 +729,14 @@ public class ODataDispatcher {
         ODataHandlerException.MessageKeys.HTTP_METHOD_NOT_ALLOWED, httpMethod.toString());
   }
 
+  private static ContentType parseContentType(final String contentTypeHeader) {
+    try {
+      return ContentNegotiator.parseContentType(contentTypeHeader);
+    } catch (final IllegalArgumentException e) {
+      return null;
+    }
+  }
+
   private ContentType getSupportedContentType(final String contentTypeHeader,
       final RepresentationType representationType, final boolean mustNotBeNull)
       throws ODataHandlerException, ContentNegotiatorException {
@@ -711,7 +749,7 @@ public class ODataDispatcher {
     }
     ContentType contentType;
     try {
-      contentType = ContentType.create(contentTypeHeader);
+      contentType = ContentNegotiator.parseContentType(contentTypeHeader);
     } catch (final IllegalArgumentException e) {
       throw new ODataHandlerException("Illegal content type.", e,
           ODataHandlerException.MessageKeys.INVALID_CONTENT_TYPE, contentTypeHeader);
@@ -37,7 +37,10 @@ import org.apache.olingo.server.api.OlingoExtension;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.deserializer.DeserializerException;
 import org.apache.olingo.server.api.etag.CustomETagSupport;
+import org.apache.olingo.server.api.etag.ETagProvider;
 import org.apache.olingo.server.api.etag.PreconditionException;
+import org.apache.olingo.server.api.metrics.RequestMetrics;
+import org.apache.olingo.server.api.metrics.RequestStage;
 import org.apache.olingo.server.api.processor.DefaultProcessor;
 import org.apache.olingo.server.api.processor.ErrorProcessor;
 import org.apache.olingo.server.api.processor.Processor;
@@ -48,6 +51,7 @@ import org.apache.olingo.server.api.uri.UriInfo;
 import org.apache.olingo.server.api.uri.queryoption.FormatOption;
 import org.apache.olingo.server.api.uri.queryoption.SystemQueryOptionKind;
 import org.apache.olingo.server.core.debug.ServerCoreDebugger;
+import org.apache.olingo.server.core.metrics.RequestMeasurement;
 import org.apache.olingo.server.core.uri.parser.Parser;
 import org.apache.olingo.server.core.uri.parser.UriParserException;
 import org.apache.olingo.server.core.uri.parser.UriParserSemanticException;
@@ -69,6 +73,9 @@ public class ODataHandlerImpl implements ODataHandler {
 
   private CustomContentTypeSupport customContentTypeSupport;
   private CustomETagSupport customETagSupport;
+  private ETagProvider eTagProvider;
+  private RequestMetrics requestMetrics;
+  private RequestMeasurement measurement;
 
   private UriInfo uriInfo;
   private Exception lastThrownException;
@@ -83,6 +90,7 @@ public class ODataHandlerImpl implements ODataHandler {
   }
 
   public ODataResponse process(final ODataRequest request) {
+    final boolean measured = startMeasurement();
     ODataResponse response = new ODataResponse();
     final int responseHandle = debugger.startRuntimeMeasurement("ODataHandler", "process");
     try {
@@ -124,13 +132,20 @@ public class ODataHandlerImpl implements ODataHandler {
       ODataServerError serverError = ODataExceptionHelper.createServerErrorObject(e);
       handleException(request, response, serverError, e);
     }
+    if (request.getMethod() == HttpMethod.GET) {
+      MediaRangeHandler.apply(request, response);
+    }
     debugger.stopRuntimeMeasurement(responseHandle);
+    if (measured) {
+      finishMeasurement(request, response);
+    }
     return response;
   }
 
   private void processInternal(final ODataRequest request, final ODataResponse response)
       throws ODataApplicationException, ODataLibraryException {
     final int measurementHandle = debugger.startRuntimeMeasurement("ODataHandler", "processInternal");
+    uriInfo = null;
 
     response.setHeader(HttpHeader.ODATA_VERSION, ODataServiceVersion.V40.toString());
     
@@ -142,6 +157,7 @@ public class ODataHandlerImpl implements ODataHandler {
     }
 
     final int measurementUriParser = debugger.startRuntimeMeasurement("Parser", "parseUri");
+    final long parseStarted = startStage();
     try {
       uriInfo = new Parser(serviceMetadata.getEdm(), odata)
           .parseUri(request.getRawODataPath(), request.getRawQueryPath(), null, request.getRawBaseUri());
@@ -149,24 +165,31 @@ public class ODataHandlerImpl implements ODataHandler {
       debugger.stopRuntimeMeasurement(measurementUriParser);
       debugger.stopRuntimeMeasurement(measurementHandle);
       throw e;
+    } finally {
+      stopStage(RequestStage.PARSE_URI, parseStarted);
     }
     debugger.stopRuntimeMeasurement(measurementUriParser);
 
     final int measurementUriValidator = debugger.startRuntimeMeasurement("UriValidator", "validate");
     final HttpMethod method = request.getMethod();
+    final long validateStarted = startStage();
     try {
       new UriValidator().validate(uriInfo, method);
     } catch (final UriValidationException e) {
       debugger.stopRuntimeMeasurement(measurementUriValidator);
       debugger.stopRuntimeMeasurement(measurementHandle);
       throw e;
+    } finally {
+      stopStage(RequestStage.VALIDATE, validateStarted);
     }
     debugger.stopRuntimeMeasurement(measurementUriValidator);
 
     final int measurementDispatcher = debugger.startRuntimeMeasurement("ODataDispatcher", "dispatch");
+    final long dispatchStarted = startStage();
     try {
       new ODataDispatcher(uriInfo, this).dispatch(request, response);
     } finally {
+      stopStage(RequestStage.DISPATCH, dispatchStarted);
       debugger.stopRuntimeMeasurement(measurementDispatcher);
       debugger.stopRuntimeMeasurement(measurementHandle);
     }
@@ -175,6 +198,7 @@ public class ODataHandlerImpl implements ODataHandler {
   public void handleException(final ODataRequest request, final ODataResponse response,
       final ODataServerError serverError, final Exception exception) {
     final int measurementHandle = debugger.startRuntimeMeasurement("ODataHandler", "handleException");
+    final long errorStarted = startStage();
     lastThrownException = exception;
     ErrorProcessor exceptionProcessor;
     try {
@@ -197,6 +221,53 @@ public class ODataHandlerImpl implements ODataHandler {
     exceptionProcessor.processError(request, response, serverError, requestedContentType);
     debugger.stopRuntimeMeasurement(measurementError);
     debugger.stopRuntimeMeasurement(measurementHandle);
+    stopStage(RequestStage.ERROR, errorStarted);
+  }
+
+  /**
+   * Starts the measurement of a request if {@link RequestMetrics} are registered
+   * and no measurement is running yet.
+   * @return <code>true</code> if a measurement has been started;
+   * the caller then has to call {@link #finishMeasurement(ODataRequest, ODataResponse)}
+   */
+  boolean startMeasurement() {
+    if (requestMetrics == null || measurement != null) {
+      return false;
+    }
+    measurement = new RequestMeasurement();
+    return true;
+  }
+
+  /**
+   * Reports the running measurement to the registered {@link RequestMetrics}.
+   * Failures of the metrics implementation are ignored so that they never affect the response.
+   */
+  void finishMeasurement(final ODataRequest request, final ODataResponse response) {
+    final RequestMeasurement finished = measurement;
+    measurement = null;
+    if (finished != null) {
+      try {
+        finished.report(requestMetrics, request.getMethod(), uriInfo, response.getStatusCode());
+      } catch (final RuntimeException e) {
+        // Metrics are best-effort.
+      }
+    }
+  }
+
+  long startStage() {
+    return measurement == null ? 0 : measurement.start();
+  }
+
+  void stopStage(final RequestStage stage, final long started) {
+    if (measurement != null) {
+      measurement.stop(stage, started);
+    }
+  }
+
+  void setPayloadSize(final long bytes) {
+    if (measurement != null) {
+      measurement.setPayloadSize(bytes);
+    }
   }
 
   /**
@@ -265,6 +336,10 @@ public class ODataHandlerImpl implements ODataHandler {
       this.customContentTypeSupport = (CustomContentTypeSupport) extension;
     } else if(extension instanceof CustomETagSupport) {
       this.customETagSupport = (CustomETagSupport) extension;
+    } else if (extension instanceof ETagProvider) {
+      this.eTagProvider = (ETagProvider) extension;
+    } else if (extension instanceof RequestMetrics) {
+      this.requestMetrics = (RequestMetrics) extension;
     } else {
       throw new ODataRuntimeException("Got not supported exception with class name " +
           extension.getClass().getSimpleName());
@@ -279,6 +354,10 @@ public class ODataHandlerImpl implements ODataHandler {
     return customETagSupport;
   }
 
+  public ETagProvider getETagProvider() {
+    return eTagProvider;
+  }
+
   public Exception getLastThrownException() {
     return lastThrownException;
   }
@@ -50,6 +50,7 @@ import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.debug.DebugSupport;
 import org.apache.olingo.server.api.deserializer.DeserializerException;
 import org.apache.olingo.server.api.etag.CustomETagSupport;
+import org.apache.olingo.server.api.metrics.RequestStage;
 import org.apache.olingo.server.api.processor.Processor;
 import org.apache.olingo.server.api.serializer.CustomContentTypeSupport;
 import org.apache.olingo.server.core.debug.ServerCoreDebugger;
@@ -80,10 +81,16 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
     Exception exception = null;
     ODataResponse odResponse;
     debugger.resolveDebugMode(request);
+    final boolean measured = handler.startMeasurement();
 
     final int processMethodHandle = debugger.startRuntimeMeasurement("ODataHttpHandlerImpl", "process");
     try {
-      fillODataRequest(odRequest, request, split);
+      final long readStarted = handler.startStage();
+      try {
+        fillODataRequest(odRequest, request, split);
+      } finally {
+        handler.stopStage(RequestStage.READ_REQUEST, readStarted);
+      }
 
       odResponse = process(odRequest);
       // ALL future methods after process must not throw exceptions!
@@ -104,7 +111,15 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
               serverEnvironmentVariables);
     }
 
-    convertToHttp(response, odResponse);
+    final long writeStarted = handler.startStage();
+    try {
+      handler.setPayloadSize(convertToHttp(response, odResponse));
+    } finally {
+      handler.stopStage(RequestStage.WRITE, writeStarted);
+      if (measured) {
+        handler.finishMeasurement(odRequest, odResponse);
+      }
+    }
   }
 
   private Map<String, String> createEnvironmentVariablesMap(final HttpServletRequest request) {
@@ -149,7 +164,11 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
     return resp;
   }
 
-  static void convertToHttp(final HttpServletResponse response, final ODataResponse odResponse) {
+  /**
+   * Copies status, headers, and content of the OData response to the servlet response.
+   * @return the number of bytes written as response body
+   */
+  static long convertToHttp(final HttpServletResponse response, final ODataResponse odResponse) {
     response.setStatus(odResponse.getStatusCode());
 
     for (Entry<String, List<String>> entry : odResponse.getAllHeaders().entrySet()) {
@@ -159,33 +178,38 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
     }
 
     if (odResponse.getContent() != null) {
-      copyContent(odResponse.getContent(), response);
+      return copyContent(odResponse.getContent(), response);
     } else if (odResponse.getODataContent() != null) {
-      writeContent(odResponse, response);
+      return writeContent(odResponse, response);
     }
+    return 0;
   }
   
-  static void writeContent(final ODataResponse odataResponse, final HttpServletResponse servletResponse) {
+  static long writeContent(final ODataResponse odataResponse, final HttpServletResponse servletResponse) {
     try {
       ODataContent res = odataResponse.getODataContent();
-      res.write(Channels.newChannel(servletResponse.getOutputStream()));
+      final CountingChannel output = new CountingChannel(Channels.newChannel(servletResponse.getOutputStream()));
+      res.write(output);
+      return output.count;
     } catch (IOException e) {
       throw new ODataRuntimeException("Error on reading request content", e);
     }
   }
 
-  static void copyContent(final InputStream inputStream, final HttpServletResponse servletResponse) {
-    copyContent(Channels.newChannel(inputStream), servletResponse);
+  static long copyContent(final InputStream inputStream, final HttpServletResponse servletResponse) {
+    return copyContent(Channels.newChannel(inputStream), servletResponse);
   }
 
-  static void copyContent(final ReadableByteChannel input, final HttpServletResponse servletResponse) {
+  static long copyContent(final ReadableByteChannel input, final HttpServletResponse servletResponse) {
     try (WritableByteChannel output = Channels.newChannel(servletResponse.getOutputStream());) {
       ByteBuffer inBuffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+      long count = 0;
       while (input.read(inBuffer) > 0) {
         inBuffer.flip();
-        output.write(inBuffer);
+        count += output.write(inBuffer);
         inBuffer.clear();
       }
+      return count;
     } catch (IOException e) {
       throw new ODataRuntimeException("Error on reading request content", e);
     } finally {
@@ -203,6 +227,33 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
     }
   }
   
+  /** Channel which counts the bytes written to the wrapped channel. */
+  private static final class CountingChannel implements WritableByteChannel {
+    private final WritableByteChannel target;
+    private long count;
+
+    private CountingChannel(final WritableByteChannel target) {
+      this.target = target;
+    }
+
+    @Override
+    public int write(final ByteBuffer src) throws IOException {
+      final int written = target.write(src);
+      count += written;
+      return written;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return target.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+      target.close();
+    }
+  }
+
   private ODataRequest fillODataRequest(final ODataRequest odRequest, final HttpServletRequest httpRequest,
       final int split) throws ODataLibraryException {
     final int requestHandle = debugger.startRuntimeMeasurement("ODataHttpHandlerImpl", "fillODataRequest");
@@ -25,6 +25,7 @@ import java.nio.channels.WritableByteChannel;
 
 import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.commons.api.data.EntityMediaObject;
+import org.apache.olingo.commons.api.data.MediaContent;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.server.api.ODataContent;
@@ -121,12 +122,21 @@ public class ODataWritableContent implements ODataContent {
   
   private static class StreamContentForMedia extends StreamContent {
 	    private FixedFormatSerializerImpl fixedFormatSerializer;
+	    private final long position;
+	    private final long count;
 
 	    public StreamContentForMedia(EntityMediaObject mediaEntity, 
 	    		FixedFormatSerializerImpl fixedFormatSerializer) {
+	      this(mediaEntity, fixedFormatSerializer, 0, Long.MAX_VALUE);
+	    }
+
+	    private StreamContentForMedia(EntityMediaObject mediaEntity,
+	        FixedFormatSerializerImpl fixedFormatSerializer, long position, long count) {
 	      super(mediaEntity);
 
 	      this.fixedFormatSerializer = fixedFormatSerializer;
+	      this.position = position;
+	      this.count = count;
 	    }
 
 	    protected void writeEntity(EntityIterator entity, 
@@ -137,7 +147,19 @@ public class ODataWritableContent implements ODataContent {
 		@Override
 		protected void writeBinary(EntityMediaObject mediaEntity, 
 				OutputStream outputStream) throws SerializerException {
-			fixedFormatSerializer.binaryIntoStreamed(mediaEntity, outputStream);
+			write(Channels.newChannel(outputStream));
+		}
+
+		/** Hands the content directly to the channel so that file content is not copied through the heap. */
+		protected void write(WritableByteChannel channel) {
+			final MediaContent content = mediaEntity.getContent();
+			if (content != null) {
+				try {
+					content.transferTo(position, count, channel);
+				} catch (final IOException e) {
+					throw new ODataRuntimeException("Failed media serialization", e);
+				}
+			}
 		}
 	  }
 
@@ -169,7 +191,34 @@ public class ODataWritableContent implements ODataContent {
 
   @Override
   public void write(WritableByteChannel writeChannel) {
-    this.streamContent.write(Channels.newOutputStream(writeChannel));
+    if (streamContent instanceof StreamContentForMedia) {
+      ((StreamContentForMedia) streamContent).write(writeChannel);
+    } else {
+      this.streamContent.write(Channels.newOutputStream(writeChannel));
+    }
+  }
+
+  /**
+   * Returns the media content written by this instance.
+   * @return the media content or <code>null</code> if this instance does not write media
+   */
+  public MediaContent getMediaContent() {
+    return streamContent instanceof StreamContentForMedia ? streamContent.mediaEntity.getContent() : null;
+  }
+
+  /**
+   * Creates content which writes only a byte range of the media content of this instance.
+   * @param position the index of the first byte to write
+   * @param count the number of bytes to write
+   * @throws ODataRuntimeException if this instance does not write media
+   */
+  public ODataWritableContent range(final long position, final long count) {
+    if (!(streamContent instanceof StreamContentForMedia)) {
+      throw new ODataRuntimeException("Ranges are supported for media content only");
+    }
+    final StreamContentForMedia media = (StreamContentForMedia) streamContent;
+    return new ODataWritableContent(
+        new StreamContentForMedia(media.mediaEntity, media.fixedFormatSerializer, position, count));
   }
 
   @Override
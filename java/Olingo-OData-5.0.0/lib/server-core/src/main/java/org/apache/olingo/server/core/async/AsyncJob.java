@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.async;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An asynchronously processed request, identified by the ID used in its status-monitor URI.
+ * Created by {@link AsyncJobManager#submit(AsyncTask, int)}.
+ */
+public class AsyncJob {
+
+  /** Lifecycle of a job. */
+  public enum State {
+    QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+  }
+
+  private final String id;
+  private final int priority;
+  private final long sequence;
+  private final long creationTime = System.currentTimeMillis();
+  private final AtomicReference<State> state = new AtomicReference<>(State.QUEUED);
+  private final CountDownLatch done = new CountDownLatch(1);
+  private volatile long completionTime;
+  private volatile Exception exception;
+  private int statusCode;
+  private Map<String, List<String>> headers = Collections.emptyMap();
+  private SpillableBuffer body;
+
+  AsyncJob(final String id, final int priority, final long sequence) {
+    this.id = id;
+    this.priority = priority;
+    this.sequence = sequence;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  /** Jobs with higher priority are started first; jobs with equal priority in order of submission. */
+  public int getPriority() {
+    return priority;
+  }
+
+  long getSequence() {
+    return sequence;
+  }
+
+  public State getState() {
+    return state.get();
+  }
+
+  /** Returns whether the job has completed, failed, or been cancelled. */
+  public boolean isDone() {
+    return done.getCount() == 0;
+  }
+
+  /** Creation time in milliseconds since the epoch. */
+  public long getCreationTime() {
+    return creationTime;
+  }
+
+  /** Completion time in milliseconds since the epoch, or 0 if the job is not yet done. */
+  public long getCompletionTime() {
+    return completionTime;
+  }
+
+  /** Returns the exception that made the job fail, or <code>null</code>. */
+  public Exception getException() {
+    return exception;
+  }
+
+  /**
+   * Waits until the job is done or the timeout has elapsed.
+   * @return whether the job is done
+   */
+  public boolean await(final long timeout, final TimeUnit unit) throws InterruptedException {
+    return done.await(timeout, unit);
+  }
+
+  boolean start() {
+    return state.compareAndSet(State.QUEUED, State.RUNNING);
+  }
+
+  boolean cancel() {
+    final State current = state.get();
+    if ((current == State.QUEUED || current == State.RUNNING) && state.compareAndSet(current, State.CANCELLED)) {
+      finish();
+      return true;
+    }
+    return false;
+  }
+
+  void complete(final int statusCode, final Map<String, List<String>> headers, final SpillableBuffer body) {
+    synchronized (this) {
+      this.statusCode = statusCode;
+      this.headers = headers;
+      this.body = body;
+    }
+    if (state.compareAndSet(State.RUNNING, State.COMPLETED)) {
+      finish();
+    } else {
+      discard();
+    }
+  }
+
+  void fail(final Exception exception, final int statusCode) {
+    this.exception = exception;
+    synchronized (this) {
+      this.statusCode = statusCode;
+    }
+    if (state.compareAndSet(State.RUNNING, State.FAILED)) {
+      finish();
+    }
+  }
+
+  synchronized int getStatusCode() {
+    return statusCode;
+  }
+
+  synchronized Map<String, List<String>> getHeaders() {
+    return headers;
+  }
+
+  synchronized SpillableBuffer getBody() {
+    return body;
+  }
+
+  /** Releases the result of the job. */
+  synchronized void discard() {
+    if (body != null) {
+      body.discard();
+      body = null;
+    }
+  }
+
+  private void finish() {
+    completionTime = System.currentTimeMillis();
+    done.countDown();
+  }
+
+  @Override
+  public String toString() {
+    return id + " (" + state.get() + ")";
+  }
+}
@@ -0,0 +1,422 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.async;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.format.PreferenceName;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.prefer.Preferences;
+import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.core.serializer.AsyncResponseSerializer;
+
+/**
+ * <p>Executes requests with the preference <code>respond-async</code> in the background.</p>
+ * <p>Jobs run on a fixed number of worker threads; waiting jobs are held in a bounded queue
+ * ordered by priority. If the queue is full, the request is processed synchronously, which
+ * the OData protocol allows for every <code>respond-async</code> request.
+ * The body of a result is kept in memory up to a configurable threshold and spilled to a
+ * temporary file beyond it, so long-running exports occupy neither servlet threads nor heap.</p>
+ * <p>Usage in a processor or handler:</p>
+ * <pre>
+ * <code>
+ * AsyncJobManager manager = AsyncJobManager.with().threads(4).queueCapacity(100).build();
+ * // request thread
+ * manager.process(request, response, odata.createPreferences(request.getHeaders(HttpHeader.PREFER)),
+ *     task, 0, "http://host/service/status");
+ * // status-monitor resource, e.g., GET or DELETE http://host/service/status/{id}
+ * manager.handleStatusRequest(id, request, response);
+ * </code>
+ * </pre>
+ */
+public class AsyncJobManager {
+
+  private static final String CONTENT_TRANSFER_ENCODING = "Content-Transfer-Encoding";
+  private static final int COPY_BUFFER_SIZE = 8192;
+
+  private final ThreadPoolExecutor executor;
+  private final int queueCapacity;
+  private final int memoryThreshold;
+  private final File spillDirectory;
+  private final long resultRetentionMillis;
+  private final int retryAfterSeconds;
+  private final Map<String, AsyncJob> jobs = new ConcurrentHashMap<>();
+  private final Map<String, JobRunner> runners = new ConcurrentHashMap<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicLong sequence = new AtomicLong();
+
+  private AsyncJobManager(final Builder builder) {
+    queueCapacity = builder.queueCapacity;
+    memoryThreshold = builder.memoryThreshold;
+    spillDirectory = builder.spillDirectory;
+    resultRetentionMillis = builder.resultRetentionMillis;
+    retryAfterSeconds = builder.retryAfterSeconds;
+    executor = new ThreadPoolExecutor(builder.threads, builder.threads, 0, TimeUnit.MILLISECONDS,
+        new PriorityBlockingQueue<Runnable>(), new WorkerThreadFactory());
+  }
+
+  /** Initializes the builder with the default configuration. */
+  public static Builder with() {
+    return new Builder();
+  }
+
+  /**
+   * Processes a request, asynchronously if the client prefers <code>respond-async</code>.
+   * If the client also sets the preference <code>wait</code> and the job completes within
+   * that time, the result is returned synchronously. Otherwise the response is set to
+   * <code>202 Accepted</code> with the status-monitor URI as location.
+   * @param request the request
+   * @param response the response
+   * @param preferences the preferences of the request
+   * @param task the work to be done
+   * @param priority the priority of the job, see {@link AsyncJob#getPriority()}
+   * @param statusMonitorBaseUri base URI of the status-monitor resources; the job ID is appended
+   */
+  public void process(final ODataRequest request, final ODataResponse response, final Preferences preferences,
+      final AsyncTask task, final int priority, final String statusMonitorBaseUri)
+      throws ODataApplicationException, ODataLibraryException {
+    if (!preferences.hasRespondAsync()) {
+      task.process(response);
+      return;
+    }
+    final AsyncJob job = submit(task, priority);
+    if (job == null) {
+      task.process(response);
+      return;
+    }
+    final Integer wait = preferences.getWait();
+    try {
+      if (wait != null && job.await(wait, TimeUnit.SECONDS) && job.getState() != AsyncJob.State.CANCELLED) {
+        jobs.remove(job.getId());
+        writeResult(job, response);
+        return;
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    response.setStatusCode(HttpStatusCode.ACCEPTED.getStatusCode());
+    response.setHeader(HttpHeader.LOCATION,
+        statusMonitorBaseUri + (statusMonitorBaseUri.endsWith("/") ? "" : "/") + job.getId());
+    response.setHeader(HttpHeader.PREFERENCE_APPLIED, PreferenceName.RESPOND_ASYNC.getName());
+    response.setHeader(HttpHeader.RETRY_AFTER, Integer.toString(retryAfterSeconds));
+  }
+
+  /**
+   * Submits a task for background execution.
+   * @param task the work to be done
+   * @param priority the priority of the job, see {@link AsyncJob#getPriority()}
+   * @return the job or <code>null</code> if the queue is full
+   */
+  public AsyncJob submit(final AsyncTask task, final int priority) {
+    purgeExpired();
+    if (queued.incrementAndGet() > queueCapacity) {
+      queued.decrementAndGet();
+      return null;
+    }
+    final long number = sequence.incrementAndGet();
+    final AsyncJob job = new AsyncJob(Long.toString(number, Character.MAX_RADIX), priority, number);
+    final JobRunner runner = new JobRunner(job, task);
+    jobs.put(job.getId(), job);
+    runners.put(job.getId(), runner);
+    executor.execute(runner);
+    return job;
+  }
+
+  /** Returns the job with the given ID or <code>null</code> if there is none (anymore). */
+  public AsyncJob getJob(final String id) {
+    return jobs.get(id);
+  }
+
+  /** Returns all known jobs. */
+  public List<AsyncJob> getJobs() {
+    return new ArrayList<>(jobs.values());
+  }
+
+  /**
+   * Cancels a job and releases its result.
+   * @return whether the job has been known
+   */
+  public boolean cancel(final String id) {
+    final AsyncJob job = jobs.remove(id);
+    if (job == null) {
+      return false;
+    }
+    final JobRunner runner = runners.remove(id);
+    if (job.cancel() && runner != null) {
+      if (executor.remove(runner)) {
+        queued.decrementAndGet();
+      }
+      runner.cancel(true);
+    }
+    job.discard();
+    return true;
+  }
+
+  /**
+   * <p>Handles a request to the status-monitor resource of a job.</p>
+   * <p><code>GET</code> returns <code>202 Accepted</code> while the job is running and the
+   * result as <code>application/http</code> once it is done; the result can be fetched once.
+   * <code>DELETE</code> cancels the job.</p>
+   * @param id the job ID, taken from the status-monitor URI
+   * @param request the request
+   * @param response the response
+   */
+  public void handleStatusRequest(final String id, final ODataRequest request, final ODataResponse response)
+      throws SerializerException {
+    purgeExpired();
+    if (request.getMethod() == HttpMethod.DELETE) {
+      response.setStatusCode(cancel(id) ?
+          HttpStatusCode.NO_CONTENT.getStatusCode() :
+          HttpStatusCode.NOT_FOUND.getStatusCode());
+    } else if (request.getMethod() == HttpMethod.GET) {
+      final AsyncJob job = jobs.get(id);
+      if (job == null) {
+        response.setStatusCode(HttpStatusCode.NOT_FOUND.getStatusCode());
+      } else if (!job.isDone()) {
+        response.setStatusCode(HttpStatusCode.ACCEPTED.getStatusCode());
+        response.setHeader(HttpHeader.LOCATION, request.getRawRequestUri());
+        response.setHeader(HttpHeader.RETRY_AFTER, Integer.toString(retryAfterSeconds));
+      } else if (jobs.remove(id, job)) {
+        ODataResponse result = new ODataResponse();
+        writeResult(job, result);
+        final InputStream head = new AsyncResponseSerializer().serialize(withoutContent(result));
+        response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+        response.setHeader(HttpHeader.CONTENT_TYPE, ContentType.APPLICATION_HTTP.toContentTypeString());
+        response.setHeader(CONTENT_TRANSFER_ENCODING, "binary");
+        response.setContent(result.getContent() == null ? head : new SequenceInputStream(head, result.getContent()));
+      } else {
+        response.setStatusCode(HttpStatusCode.NOT_FOUND.getStatusCode());
+      }
+    } else {
+      response.setStatusCode(HttpStatusCode.METHOD_NOT_ALLOWED.getStatusCode());
+    }
+  }
+
+  /** Cancels all jobs and stops the worker threads. */
+  public void shutdown() {
+    for (final String id : new ArrayList<>(jobs.keySet())) {
+      cancel(id);
+    }
+    executor.shutdownNow();
+  }
+
+  private void execute(final AsyncJob job, final AsyncTask task) {
+    queued.decrementAndGet();
+    if (!job.start()) {
+      return;
+    }
+    try {
+      ODataResponse response = new ODataResponse();
+      task.process(response);
+      job.complete(response.getStatusCode(), new LinkedHashMap<>(response.getAllHeaders()), store(response));
+    } catch (final ODataApplicationException e) {
+      job.fail(e, e.getStatusCode());
+    } catch (final ODataLibraryException | IOException | RuntimeException e) {
+      job.fail(e, HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode());
+    } finally {
+      runners.remove(job.getId());
+    }
+  }
+
+  private SpillableBuffer store(final ODataResponse response) throws IOException {
+    SpillableBuffer buffer = new SpillableBuffer(memoryThreshold, spillDirectory);
+    try {
+      if (response.getODataContent() != null) {
+        response.getODataContent().write(buffer);
+      } else if (response.getContent() != null) {
+        try (InputStream content = response.getContent()) {
+          copy(content, buffer);
+        }
+      }
+      buffer.close();
+      return buffer;
+    } catch (final IOException | RuntimeException e) {
+      buffer.discard();
+      throw e;
+    }
+  }
+
+  private void writeResult(final AsyncJob job, final ODataResponse response) {
+    response.setStatusCode(job.getStatusCode());
+    for (final Map.Entry<String, List<String>> header : job.getHeaders().entrySet()) {
+      response.addHeader(header.getKey(), header.getValue());
+    }
+    final SpillableBuffer body = job.getBody();
+    if (body != null && body.size() > 0) {
+      try {
+        response.setContent(new DiscardingInputStream(body.getInputStream(), job));
+      } catch (final IOException e) {
+        job.discard();
+        response.setStatusCode(HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode());
+      }
+    } else {
+      job.discard();
+    }
+  }
+
+  private static ODataResponse withoutContent(final ODataResponse response) {
+    ODataResponse copy = new ODataResponse();
+    copy.setStatusCode(response.getStatusCode());
+    for (final Map.Entry<String, List<String>> header : response.getAllHeaders().entrySet()) {
+      copy.addHeader(header.getKey(), header.getValue());
+    }
+    return copy;
+  }
+
+  private void purgeExpired() {
+    final long expiry = System.currentTimeMillis() - resultRetentionMillis;
+    for (final AsyncJob job : jobs.values()) {
+      if (job.isDone() && job.getCompletionTime() < expiry && jobs.remove(job.getId(), job)) {
+        job.discard();
+      }
+    }
+  }
+
+  private static void copy(final InputStream input, final OutputStream output) throws IOException {
+    byte[] buffer = new byte[COPY_BUFFER_SIZE];
+    int read;
+    while ((read = input.read(buffer)) >= 0) {
+      output.write(buffer, 0, read);
+    }
+  }
+
+  /** Runs a job on a worker thread; ordered by descending priority, then by submission. */
+  private final class JobRunner extends FutureTask<Void> implements Comparable<JobRunner> {
+    private final AsyncJob job;
+
+    private JobRunner(final AsyncJob job, final AsyncTask task) {
+      super(() -> execute(job, task), null);
+      this.job = job;
+    }
+
+    @Override
+    public int compareTo(final JobRunner other) {
+      final int byPriority = Integer.compare(other.job.getPriority(), job.getPriority());
+      return byPriority == 0 ? Long.compare(job.getSequence(), other.job.getSequence()) : byPriority;
+    }
+  }
+
+  /** Releases the result of the job once its content has been read. */
+  private static final class DiscardingInputStream extends FilterInputStream {
+    private final AsyncJob job;
+
+    private DiscardingInputStream(final InputStream input, final AsyncJob job) {
+      super(input);
+      this.job = job;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        job.discard();
+      }
+    }
+  }
+
+  private static final class WorkerThreadFactory implements ThreadFactory {
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+    private final String prefix = "odata-async-" + POOL_NUMBER.incrementAndGet() + "-";
+    private final AtomicInteger threadNumber = new AtomicInteger();
+
+    @Override
+    public Thread newThread(final Runnable runnable) {
+      Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+  /** Builder of the configuration of an {@link AsyncJobManager}. */
+  public static final class Builder {
+    private int threads = 4;
+    private int queueCapacity = 1000;
+    private int memoryThreshold = 1024 * 1024;
+    private File spillDirectory;
+    private long resultRetentionMillis = TimeUnit.HOURS.toMillis(1);
+    private int retryAfterSeconds = 1;
+
+    private Builder() {}
+
+    /** Sets the number of worker threads; default is 4. */
+    public Builder threads(final int threads) {
+      this.threads = threads;
+      return this;
+    }
+
+    /** Sets the maximum number of jobs waiting for a worker thread; default is 1000. */
+    public Builder queueCapacity(final int queueCapacity) {
+      this.queueCapacity = queueCapacity;
+      return this;
+    }
+
+    /** Sets the number of bytes of a result body kept in memory; default is 1 MiB. */
+    public Builder memoryThreshold(final int memoryThreshold) {
+      this.memoryThreshold = memoryThreshold;
+      return this;
+    }
+
+    /** Sets the directory for spilled result bodies; default is the temporary directory of the JVM. */
+    public Builder spillDirectory(final File spillDirectory) {
+      this.spillDirectory = spillDirectory;
+      return this;
+    }
+
+    /** Sets how long results that have not been fetched are kept; default is one hour. */
+    public Builder resultRetention(final long duration, final TimeUnit unit) {
+      resultRetentionMillis = unit.toMillis(duration);
+      return this;
+    }
+
+    /** Sets the value of the <code>Retry-After</code> header in seconds; default is 1. */
+    public Builder retryAfter(final int seconds) {
+      retryAfterSeconds = seconds;
+      return this;
+    }
+
+    public AsyncJobManager build() {
+      return new AsyncJobManager(this);
+    }
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.async;
+
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.ODataResponse;
+
+/**
+ * Work of an asynchronously processed request, typically the call of a processor method.
+ * <p/>
+ * The task runs after the HTTP request has been completed, so it MUST NOT read from the
+ * original request; request bodies have to be copied before the task is submitted.
+ */
+public interface AsyncTask {
+
+  /**
+   * Processes the request and fills the given response.
+   * @param response the response to be filled
+   */
+  void process(ODataResponse response) throws ODataApplicationException, ODataLibraryException;
+}
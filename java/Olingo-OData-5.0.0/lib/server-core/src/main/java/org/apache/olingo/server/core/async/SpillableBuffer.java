@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.async;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Buffer for the body of an asynchronous result.
+ * Content is kept in memory up to a threshold; everything beyond is written to a temporary file,
+ * so large results do not occupy the heap until the client fetches them.
+ * The buffer is written once, then read any number of times until it is discarded.
+ */
+class SpillableBuffer extends OutputStream {
+
+  private static final String TEMP_FILE_PREFIX = "odata-async-";
+
+  private final int memoryThreshold;
+  private final File spillDirectory;
+  private byte[] memory = new byte[256];
+  private int memorySize;
+  private Path file;
+  private FileChannel fileChannel;
+  private long size;
+  private boolean closed;
+
+  /**
+   * @param memoryThreshold number of bytes kept in memory
+   * @param spillDirectory directory for temporary files,
+   * or <code>null</code> for the default temporary directory
+   */
+  SpillableBuffer(final int memoryThreshold, final File spillDirectory) {
+    this.memoryThreshold = memoryThreshold;
+    this.spillDirectory = spillDirectory;
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    write(new byte[] { (byte) b }, 0, 1);
+  }
+
+  @Override
+  public void write(final byte[] buffer, final int offset, final int length) throws IOException {
+    if (closed) {
+      throw new IOException("Buffer already closed.");
+    }
+    int inMemory = 0;
+    if (fileChannel == null) {
+      inMemory = Math.min(length, memoryThreshold - memorySize);
+      if (memorySize + inMemory > memory.length) {
+        memory = Arrays.copyOf(memory,
+            Math.min(memoryThreshold, Math.max(memory.length * 2, memorySize + inMemory)));
+      }
+      System.arraycopy(buffer, offset, memory, memorySize, inMemory);
+      memorySize += inMemory;
+    }
+    if (inMemory < length) {
+      if (fileChannel == null) {
+        file = spillDirectory == null ?
+            Files.createTempFile(TEMP_FILE_PREFIX, null) :
+            Files.createTempFile(spillDirectory.toPath(), TEMP_FILE_PREFIX, null);
+        fileChannel = FileChannel.open(file, StandardOpenOption.WRITE);
+      }
+      ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, offset + inMemory, length - inMemory);
+      while (byteBuffer.hasRemaining()) {
+        fileChannel.write(byteBuffer);
+      }
+    }
+    size += length;
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    if (fileChannel != null) {
+      fileChannel.close();
+    }
+  }
+
+  /** Returns the number of bytes written. */
+  long size() {
+    return size;
+  }
+
+  /** Returns whether the content exceeded the memory threshold and has been written to a file. */
+  boolean isSpilled() {
+    return file != null;
+  }
+
+  /** Returns a new stream over the complete content; the buffer must have been closed. */
+  InputStream getInputStream() throws IOException {
+    if (!closed) {
+      throw new IOException("Buffer must be closed before reading.");
+    }
+    final InputStream head = new ByteArrayInputStream(memory, 0, memorySize);
+    return file == null ?
+        head :
+        new SequenceInputStream(head, Channels.newInputStream(FileChannel.open(file, StandardOpenOption.READ)));
+  }
+
+  /** Releases the memory and deletes the temporary file, if any. */
+  void discard() {
+    memory = new byte[0];
+    memorySize = 0;
+    try {
+      close();
+      if (file != null) {
+        Files.deleteIfExists(file);
+      }
+    } catch (final IOException e) {
+      // The file is in the temporary directory; failing to delete it is not worth failing the request.
+      if (file != null) {
+        file.toFile().deleteOnExit();
+      }
+    }
+  }
+}
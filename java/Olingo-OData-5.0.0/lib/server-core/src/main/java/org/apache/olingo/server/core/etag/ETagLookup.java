@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.etag;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.edm.EdmBindingTarget;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.etag.ETagProvider;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriInfoKind;
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.api.uri.UriResourceKind;
+import org.apache.olingo.server.api.uri.UriResourceSingleton;
+
+/**
+ * Determines which ETag of an {@link ETagProvider} describes the resource of a read request.
+ * Only resources whose representation depends on a single entity or on a single entity set are considered:
+ * an entity set, its count, an entity of an entity set or a singleton, its properties, and its media value.
+ */
+public class ETagLookup {
+
+  private enum Target { NONE, ENTITY, MEDIA, COLLECTION }
+
+  private final Target target;
+  private final EdmBindingTarget bindingTarget;
+  private final List<UriParameter> keyPredicates;
+
+  public ETagLookup(final UriInfo uriInfo) {
+    Target found = Target.NONE;
+    EdmBindingTarget foundBindingTarget = null;
+    List<UriParameter> foundKeyPredicates = Collections.emptyList();
+
+    final List<UriResource> parts = uriInfo.getUriResourceParts();
+    if (uriInfo.getKind() == UriInfoKind.resource && uriInfo.getExpandOption() == null && !parts.isEmpty()) {
+      final UriResource first = parts.get(0);
+      if (first instanceof UriResourceEntitySet) {
+        final UriResourceEntitySet entitySet = (UriResourceEntitySet) first;
+        foundBindingTarget = entitySet.getEntitySet();
+        if (entitySet.getKeyPredicates().isEmpty()) {
+          found = parts.size() == 1 || parts.size() == 2 && parts.get(1).getKind() == UriResourceKind.count ?
+              Target.COLLECTION :
+              Target.NONE;
+        } else {
+          foundKeyPredicates = entitySet.getKeyPredicates();
+          found = getEntityTarget(parts);
+        }
+      } else if (first instanceof UriResourceSingleton) {
+        foundBindingTarget = ((UriResourceSingleton) first).getSingleton();
+        found = getEntityTarget(parts);
+      }
+    }
+
+    target = found;
+    bindingTarget = foundBindingTarget;
+    keyPredicates = foundKeyPredicates;
+  }
+
+  /**
+   * Gets the current ETag of the resource from the given provider.
+   * @return the ETag or <code>null</code> if the resource is not supported or the provider does not know its ETag
+   */
+  public String getETag(final ETagProvider provider) throws ODataApplicationException {
+    switch (target) {
+    case ENTITY:
+      return provider.getETag(bindingTarget, keyPredicates);
+    case MEDIA:
+      return provider.getMediaETag(bindingTarget, keyPredicates);
+    case COLLECTION:
+      return provider.getCollectionETag((EdmEntitySet) bindingTarget);
+    default:
+      return null;
+    }
+  }
+
+  /** The segments after the entity may address its properties, their values or counts, or its media value. */
+  private static Target getEntityTarget(final List<UriResource> parts) {
+    if (parts.size() == 2 && parts.get(1).getKind() == UriResourceKind.value) {
+      return Target.MEDIA;
+    }
+    for (UriResource part : parts.subList(1, parts.size())) {
+      switch (part.getKind()) {
+      case primitiveProperty:
+      case complexProperty:
+      case value:
+      case count:
+        break;
+      default:
+        return Target.NONE;
+      }
+    }
+    return Target.ENTITY;
+  }
+}
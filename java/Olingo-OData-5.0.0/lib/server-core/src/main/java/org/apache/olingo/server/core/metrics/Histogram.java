@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>Lock-free histogram of non-negative long values with a bounded relative error.</p>
+ * <p>Values below 128 are counted exactly; larger values are counted in log-linear buckets
+ * with 64 sub-buckets per power of two, so each recorded value is represented with a relative
+ * error below 1.6% over the complete long range in a fixed array of counters.
+ * Recording never allocates, so the histogram can be updated for every request.</p>
+ */
+public class Histogram {
+
+  private static final int SUB_BUCKET_BITS = 6;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int LINEAR_LIMIT = SUB_BUCKETS << 1;
+  private static final int BUCKET_COUNT = LINEAR_LIMIT + (Long.SIZE - 2 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong sum = new AtomicLong();
+  private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+  private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+  /**
+   * Records a value. Negative values are recorded as zero.
+   * @param value the value
+   */
+  public void record(final long value) {
+    final long v = value < 0 ? 0 : value;
+    counts.incrementAndGet(indexOf(v));
+    count.incrementAndGet();
+    sum.addAndGet(v);
+    long current = min.get();
+    while (v < current && !min.compareAndSet(current, v)) {
+      current = min.get();
+    }
+    current = max.get();
+    while (v > current && !max.compareAndSet(current, v)) {
+      current = max.get();
+    }
+  }
+
+  public long getCount() {
+    return count.get();
+  }
+
+  public long getSum() {
+    return sum.get();
+  }
+
+  /** @return the smallest recorded value or 0 if nothing has been recorded */
+  public long getMin() {
+    return count.get() == 0 ? 0 : min.get();
+  }
+
+  /** @return the largest recorded value or 0 if nothing has been recorded */
+  public long getMax() {
+    return count.get() == 0 ? 0 : max.get();
+  }
+
+  /** @return the arithmetic mean of the recorded values or 0 if nothing has been recorded */
+  public double getMean() {
+    final long n = count.get();
+    return n == 0 ? 0 : (double) sum.get() / n;
+  }
+
+  /**
+   * Returns the value at the given percentile, i.e., the largest value equivalent (within the
+   * precision of the histogram) to the smallest recorded value that is greater than or equal to
+   * the given percentage of all recorded values.
+   * @param percentile the percentile between 0 and 100
+   * @return the value or 0 if nothing has been recorded
+   */
+  public long getValueAtPercentile(final double percentile) {
+    final long total = count.get();
+    if (total == 0) {
+      return 0;
+    }
+    final double bounded = Math.min(Math.max(percentile, 0.0), 100.0);
+    final long target = Math.max(1, (long) Math.ceil(bounded / 100.0 * total));
+    long seen = 0;
+    for (int index = 0; index < BUCKET_COUNT; index++) {
+      seen += counts.get(index);
+      if (seen >= target) {
+        return Math.min(highestEquivalentValue(index), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  /** Removes all recorded values. */
+  public void reset() {
+    for (int index = 0; index < BUCKET_COUNT; index++) {
+      counts.set(index, 0);
+    }
+    count.set(0);
+    sum.set(0);
+    min.set(Long.MAX_VALUE);
+    max.set(Long.MIN_VALUE);
+  }
+
+  static int indexOf(final long value) {
+    if (value < LINEAR_LIMIT) {
+      return (int) value;
+    }
+    final int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+  }
+
+  static long highestEquivalentValue(final int index) {
+    if (index < LINEAR_LIMIT) {
+      return index;
+    }
+    final int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+    final long mantissa = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+    final long upper = ((mantissa + 1) << shift) - 1;
+    return upper < 0 ? Long.MAX_VALUE : upper;
+  }
+
+  @Override
+  public String toString() {
+    return "count=" + getCount() + ", min=" + getMin() + ", mean=" + Math.round(getMean())
+        + ", p50=" + getValueAtPercentile(50) + ", p99=" + getValueAtPercentile(99) + ", max=" + getMax();
+  }
+}
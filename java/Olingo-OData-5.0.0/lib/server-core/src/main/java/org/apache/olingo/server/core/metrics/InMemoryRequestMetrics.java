@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.metrics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.olingo.server.api.metrics.MetricTags;
+import org.apache.olingo.server.api.metrics.RequestMetrics;
+import org.apache.olingo.server.api.metrics.RequestStage;
+
+/**
+ * <p>{@link RequestMetrics} implementation which keeps all measurements in memory.</p>
+ * <p>Stage latencies (in nanoseconds), payload sizes and entity counts are kept in one
+ * {@link Histogram} per metric and {@link MetricTags}, and additionally in one histogram per
+ * metric over all requests. Cache accesses are counted per cache name.
+ * One instance can be shared by all handlers of a service.</p>
+ */
+public class InMemoryRequestMetrics implements RequestMetrics {
+
+  private final Map<RequestStage, Histogram> stages = new EnumMap<>(RequestStage.class);
+  private final ConcurrentMap<StageKey, Histogram> stagesByTags = new ConcurrentHashMap<>();
+  private final Histogram payloadSizes = new Histogram();
+  private final ConcurrentMap<MetricTags, Histogram> payloadSizesByTags = new ConcurrentHashMap<>();
+  private final Histogram entityCounts = new Histogram();
+  private final ConcurrentMap<MetricTags, Histogram> entityCountsByTags = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, AtomicLong> cacheHits = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, AtomicLong> cacheMisses = new ConcurrentHashMap<>();
+
+  public InMemoryRequestMetrics() {
+    for (final RequestStage stage : RequestStage.values()) {
+      stages.put(stage, new Histogram());
+    }
+  }
+
+  @Override
+  public void recordStage(final RequestStage stage, final MetricTags tags, final long nanos) {
+    stages.get(stage).record(nanos);
+    histogram(stagesByTags, new StageKey(stage, tags)).record(nanos);
+  }
+
+  @Override
+  public void recordPayloadSize(final MetricTags tags, final long bytes) {
+    payloadSizes.record(bytes);
+    histogram(payloadSizesByTags, tags).record(bytes);
+  }
+
+  @Override
+  public void recordEntityCount(final MetricTags tags, final long count) {
+    entityCounts.record(count);
+    histogram(entityCountsByTags, tags).record(count);
+  }
+
+  @Override
+  public void recordCacheAccess(final String cacheName, final boolean hit) {
+    final ConcurrentMap<String, AtomicLong> counters = hit ? cacheHits : cacheMisses;
+    AtomicLong counter = counters.get(cacheName);
+    if (counter == null) {
+      final AtomicLong created = new AtomicLong();
+      counter = counters.putIfAbsent(cacheName, created);
+      if (counter == null) {
+        counter = created;
+      }
+    }
+    counter.incrementAndGet();
+  }
+
+  /**
+   * Returns the latencies of a stage over all requests.
+   * @param stage the stage
+   * @return the histogram of latencies in nanoseconds
+   */
+  public Histogram getStage(final RequestStage stage) {
+    return stages.get(stage);
+  }
+
+  /**
+   * Returns the latencies of a stage for requests with the given dimensions.
+   * @param stage the stage
+   * @param tags  the dimensions
+   * @return the histogram of latencies in nanoseconds or <code>null</code> if nothing has been recorded
+   */
+  public Histogram getStage(final RequestStage stage, final MetricTags tags) {
+    return stagesByTags.get(new StageKey(stage, tags));
+  }
+
+  /**
+   * Returns the latencies of a stage for all recorded dimensions.
+   * @param stage the stage
+   * @return an unmodifiable snapshot of the histograms per dimensions
+   */
+  public Map<MetricTags, Histogram> getStageByTags(final RequestStage stage) {
+    Map<MetricTags, Histogram> result = new HashMap<>();
+    for (final Map.Entry<StageKey, Histogram> entry : stagesByTags.entrySet()) {
+      if (entry.getKey().stage == stage) {
+        result.put(entry.getKey().tags, entry.getValue());
+      }
+    }
+    return Collections.unmodifiableMap(result);
+  }
+
+  public Histogram getPayloadSizes() {
+    return payloadSizes;
+  }
+
+  public Histogram getPayloadSizes(final MetricTags tags) {
+    return payloadSizesByTags.get(tags);
+  }
+
+  public Histogram getEntityCounts() {
+    return entityCounts;
+  }
+
+  public Histogram getEntityCounts(final MetricTags tags) {
+    return entityCountsByTags.get(tags);
+  }
+
+  public long getCacheHits(final String cacheName) {
+    final AtomicLong counter = cacheHits.get(cacheName);
+    return counter == null ? 0 : counter.get();
+  }
+
+  public long getCacheMisses(final String cacheName) {
+    final AtomicLong counter = cacheMisses.get(cacheName);
+    return counter == null ? 0 : counter.get();
+  }
+
+  /** Removes all measurements. */
+  public void reset() {
+    for (final Histogram histogram : stages.values()) {
+      histogram.reset();
+    }
+    stagesByTags.clear();
+    payloadSizes.reset();
+    payloadSizesByTags.clear();
+    entityCounts.reset();
+    entityCountsByTags.clear();
+    cacheHits.clear();
+    cacheMisses.clear();
+  }
+
+  private static <K> Histogram histogram(final ConcurrentMap<K, Histogram> histograms, final K key) {
+    Histogram histogram = histograms.get(key);
+    if (histogram == null) {
+      final Histogram created = new Histogram();
+      histogram = histograms.putIfAbsent(key, created);
+      if (histogram == null) {
+        histogram = created;
+      }
+    }
+    return histogram;
+  }
+
+  private static final class StageKey {
+    private final RequestStage stage;
+    private final MetricTags tags;
+
+    private StageKey(final RequestStage stage, final MetricTags tags) {
+      this.stage = stage;
+      this.tags = tags;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      return obj instanceof StageKey && stage == ((StageKey) obj).stage && tags.equals(((StageKey) obj).tags);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * stage.hashCode() + tags.hashCode();
+    }
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.metrics;
+
+import java.util.List;
+
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.metrics.MetricTags;
+import org.apache.olingo.server.api.metrics.RequestMetrics;
+import org.apache.olingo.server.api.metrics.RequestStage;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceAction;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.api.uri.UriResourceFunction;
+import org.apache.olingo.server.api.uri.UriResourceSingleton;
+
+/**
+ * <p>Collects the stage timings of a single request and reports them to {@link RequestMetrics}
+ * once the request is finished.</p>
+ * <p>The dimensions of a request are only known after URI parsing and after the response status
+ * has been set, so all values are buffered in a small array and reported together.
+ * This class is not thread-safe; it belongs to the handler processing the request.</p>
+ */
+public class RequestMeasurement {
+
+  private final long started = System.nanoTime();
+  private final long[] stages = new long[RequestStage.values().length];
+  private long payloadSize = -1;
+
+  /** @return the current time to be passed to {@link #stop(RequestStage, long)} */
+  public long start() {
+    return System.nanoTime();
+  }
+
+  /**
+   * Adds the time since <code>startTime</code> to the given stage.
+   * @param stage     the stage
+   * @param startTime the value returned by {@link #start()}
+   */
+  public void stop(final RequestStage stage, final long startTime) {
+    stages[stage.ordinal()] += System.nanoTime() - startTime;
+  }
+
+  public long getStage(final RequestStage stage) {
+    return stages[stage.ordinal()];
+  }
+
+  public void setPayloadSize(final long payloadSize) {
+    this.payloadSize = payloadSize;
+  }
+
+  /**
+   * Reports all measured stages, the total time since creation, and the payload size if known.
+   * @param metrics    the receiver of the measurements
+   * @param method     the HTTP method of the request, may be <code>null</code>
+   * @param uriInfo    the parsed URI, may be <code>null</code> if parsing failed
+   * @param statusCode the HTTP status code of the response
+   */
+  public void report(final RequestMetrics metrics, final HttpMethod method, final UriInfo uriInfo,
+      final int statusCode) {
+    stages[RequestStage.TOTAL.ordinal()] = System.nanoTime() - started;
+    final MetricTags tags = createTags(method, uriInfo, statusCode);
+    for (final RequestStage stage : RequestStage.values()) {
+      if (stages[stage.ordinal()] > 0) {
+        metrics.recordStage(stage, tags, stages[stage.ordinal()]);
+      }
+    }
+    if (payloadSize >= 0) {
+      metrics.recordPayloadSize(tags, payloadSize);
+    }
+  }
+
+  /**
+   * Creates the dimensions of a request from its parsed URI.
+   * @param method     the HTTP method, may be <code>null</code>
+   * @param uriInfo    the parsed URI, may be <code>null</code>
+   * @param statusCode the HTTP status code of the response
+   * @return the dimensions
+   */
+  public static MetricTags createTags(final HttpMethod method, final UriInfo uriInfo, final int statusCode) {
+    if (uriInfo == null) {
+      return new MetricTags(method, MetricTags.KIND_UNKNOWN, null, statusCode);
+    }
+    switch (uriInfo.getKind()) {
+    case service:
+      return new MetricTags(method, MetricTags.KIND_SERVICE, null, statusCode);
+    case metadata:
+      return new MetricTags(method, MetricTags.KIND_METADATA, null, statusCode);
+    case batch:
+      return new MetricTags(method, MetricTags.KIND_BATCH, null, statusCode);
+    case resource:
+      return createResourceTags(method, uriInfo.getUriResourceParts(), statusCode);
+    default:
+      return new MetricTags(method, MetricTags.KIND_OTHER, uriInfo.getKind().name(), statusCode);
+    }
+  }
+
+  private static MetricTags createResourceTags(final HttpMethod method, final List<UriResource> parts,
+      final int statusCode) {
+    final UriResource first = parts.isEmpty() ? null : parts.get(0);
+    if (first instanceof UriResourceEntitySet) {
+      return new MetricTags(method, MetricTags.KIND_ENTITY_SET,
+          ((UriResourceEntitySet) first).getEntitySet().getName(), statusCode);
+    } else if (first instanceof UriResourceSingleton) {
+      return new MetricTags(method, MetricTags.KIND_SINGLETON,
+          ((UriResourceSingleton) first).getSingleton().getName(), statusCode);
+    } else if (first instanceof UriResourceFunction) {
+      final UriResourceFunction function = (UriResourceFunction) first;
+      return new MetricTags(method, MetricTags.KIND_FUNCTION,
+          function.getFunctionImport() == null ? function.getSegmentValue() : function.getFunctionImport().getName(),
+          statusCode);
+    } else if (first instanceof UriResourceAction) {
+      final UriResourceAction action = (UriResourceAction) first;
+      return new MetricTags(method, MetricTags.KIND_ACTION,
+          action.getActionImport() == null ? action.getSegmentValue() : action.getActionImport().getName(),
+          statusCode);
+    } else {
+      return new MetricTags(method, MetricTags.KIND_OTHER, first == null ? null : first.getSegmentValue(),
+          statusCode);
+    }
+  }
+}
@@ -27,6 +27,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.olingo.server.api.prefer.Preferences.Preference;
+import org.apache.olingo.server.core.HeaderValueCache;
 
 /**
  * <p>Parses the values of <code>Prefer</code> HTTP header fields.</p>
@@ -47,6 +48,7 @@ import org.apache.olingo.server.api.prefer.Preferences.Preference;
  * BWS = OWS ; "bad" whitespace
  * </pre>
  * <p>Values with illegal syntax do not contribute to the result but no exception is thrown.</p>
+ * <p>The preferences parsed from a header value are cached so that repeated values are parsed only once.</p>
  */
 public class PreferParser {
 
@@ -59,6 +61,8 @@ public class PreferParser {
       + "(?:" + NAMED_VALUE + "((?:\\s*;\\s*(?:" + NAMED_VALUE + ")?)*))");
   private static final Pattern PARAMETER = Pattern.compile("\\s*(;\\s*)+|(?:" + NAMED_VALUE + ")");
 
+  private static final HeaderValueCache<String, Map<String, Preference>> PREFERENCES = new HeaderValueCache<>(256);
+
   private PreferParser() {
     // Private constructor for utility classes
   }
@@ -67,17 +71,31 @@ public class PreferParser {
     if (values == null || values.isEmpty()) {
       return Collections.emptyMap();
     }
+    if (values.size() == 1) {
+      final String value = values.iterator().next();
+      return value == null || value.isEmpty() ? Collections.<String, Preference> emptyMap() : getPreferences(value);
+    }
 
     Map<String, Preference> result = new HashMap<>();
     for (final String value : values) {
       if (value != null && !value.isEmpty()) {
-        parse(value, result);
+        // Here we also have to keep already existing preferences.
+        for (final Map.Entry<String, Preference> entry : getPreferences(value).entrySet()) {
+          if (!result.containsKey(entry.getKey())) {
+            result.put(entry.getKey(), entry.getValue());
+          }
+        }
       }
     }
     return result;
   }
 
-  private static void parse(final String value, final Map<String, Preference> result) {
+  private static Map<String, Preference> getPreferences(final String value) {
+    final Map<String, Preference> cached = PREFERENCES.get(value);
+    return cached == null ? PREFERENCES.put(value, parse(value)) : cached;
+  }
+
+  private static Map<String, Preference> parse(final String value) {
     Map<String, Preference> partResult = new HashMap<>();
     String separator = "";
     int start = 0;
@@ -101,17 +119,10 @@ public class PreferParser {
         }
         separator = null;
       } else {
-        return;
-      }
-    }
-    if (matcher.hitEnd()) {
-      // Here we also have to keep already existing preferences.
-      for (final Map.Entry<String, Preference> entry : partResult.entrySet()) {
-        if (!result.containsKey(entry.getKey())) {
-          result.put(entry.getKey(), entry.getValue());
-        }
+        return Collections.emptyMap();
       }
     }
+    return matcher.hitEnd() ? Collections.unmodifiableMap(partResult) : Collections.<String, Preference> emptyMap();
   }
 
   private static Map<String, String> parseParameters(final String parameters) {
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Postings of one term: the ascending document numbers containing the term
+ * together with the positions of the term inside each document.
+ */
+class PostingList {
+
+  private static final int INITIAL_CAPACITY = 4;
+
+  private int[] docs = new int[INITIAL_CAPACITY];
+  private int[][] positions = new int[INITIAL_CAPACITY][];
+  private int[] frequencies = new int[INITIAL_CAPACITY];
+  private int size;
+
+  /**
+   * Adds an occurrence of the term. Documents must be added in ascending order;
+   * positions of a document must be added in ascending order.
+   */
+  void add(final int doc, final int position) {
+    if (size > 0 && docs[size - 1] == doc) {
+      final int index = size - 1;
+      if (frequencies[index] == positions[index].length) {
+        positions[index] = Arrays.copyOf(positions[index], positions[index].length * 2);
+      }
+      positions[index][frequencies[index]++] = position;
+    } else {
+      if (size == docs.length) {
+        final int capacity = size * 2;
+        docs = Arrays.copyOf(docs, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        frequencies = Arrays.copyOf(frequencies, capacity);
+      }
+      docs[size] = doc;
+      positions[size] = new int[] { position, 0 };
+      frequencies[size] = 1;
+      size++;
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  int doc(final int index) {
+    return docs[index];
+  }
+
+  int frequency(final int index) {
+    return frequencies[index];
+  }
+
+  int position(final int index, final int occurrence) {
+    return positions[index][occurrence];
+  }
+
+  /** Returns the index of the document in this list or a negative value if it is not contained. */
+  int indexOf(final int doc) {
+    return Arrays.binarySearch(docs, 0, size, doc);
+  }
+
+  /** Returns whether the document contains the term at the given position. */
+  boolean hasPosition(final int index, final int position) {
+    return Arrays.binarySearch(positions[index], 0, frequencies[index], position) >= 0;
+  }
+
+  /** Returns the documents of this list that are set in <code>live</code>. */
+  int[] docs(final BitSet live) {
+    int[] result = new int[size];
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      if (live.get(docs[i])) {
+        result[count++] = docs[i];
+      }
+    }
+    return count == size ? result : Arrays.copyOf(result, count);
+  }
+
+  /**
+   * Removes all documents not set in <code>live</code> and renumbers the remaining ones.
+   * @param newNumbers new document number for each old document number
+   * @return whether documents remain in this list
+   */
+  boolean compact(final BitSet live, final int[] newNumbers) {
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      if (live.get(docs[i])) {
+        docs[count] = newNumbers[docs[i]];
+        positions[count] = positions[i];
+        frequencies[count] = frequencies[i];
+        count++;
+      }
+    }
+    Arrays.fill(positions, count, size, null);
+    size = count;
+    return size > 0;
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.search;
+
+import java.util.List;
+
+/**
+ * Splits text into the terms stored in and looked up from a {@link SearchIndex}.
+ * The same analyzer must be used for indexing a property and for the search terms
+ * evaluated against it; otherwise terms will not match.
+ */
+public interface SearchAnalyzer {
+
+  /**
+   * Analyzes the given text.
+   * @param text the text, never <code>null</code>
+   * @return the terms in the order of their occurrence, never <code>null</code>
+   */
+  List<String> analyze(String text);
+}
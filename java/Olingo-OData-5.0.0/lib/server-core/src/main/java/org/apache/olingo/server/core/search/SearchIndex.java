@@ -0,0 +1,467 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.olingo.commons.api.data.ComplexValue;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.server.api.uri.queryoption.SearchOption;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchBinary;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchBinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchExpression;
+
+/**
+ * <p>Inverted index over the entities of one entity set, used to evaluate
+ * <code>$search</code> expressions without looking at every property of every entity.</p>
+ * <p>The index is maintained incrementally with {@link #put(Object, Entity)} and
+ * {@link #remove(Object)}; entities are identified by an application-defined key,
+ * e.g., the key predicate. The textual values of primitive properties (also inside
+ * complex and collection properties) are split into terms by a {@link SearchAnalyzer};
+ * a different analyzer can be configured for each top-level property.
+ * Binary, temporal, and geospatial values are not indexed.</p>
+ * <p>Search terms are analyzed with each configured analyzer, and an entity matches if
+ * it matches with any of them. A search term resulting in more than one analyzed term
+ * is treated as phrase, i.e., its terms must occur consecutively in the same property value.
+ * <code>AND</code> is evaluated by intersection of the sorted posting lists, <code>OR</code>
+ * by their union, and <code>NOT</code> as difference, so the cost depends on the length of
+ * the posting lists involved and not on the number of entities.</p>
+ * <p>Instances are thread-safe: searches run concurrently, updates are exclusive.</p>
+ * @param <K> type of the entity keys
+ */
+public class SearchIndex<K> {
+
+  /** Number of removed or replaced documents that triggers a compaction if they are also the majority. */
+  private static final int COMPACTION_THRESHOLD = 1024;
+  private static final int[] NO_DOCS = new int[0];
+
+  private final SearchAnalyzer analyzer;
+  private final Map<String, SearchAnalyzer> propertyAnalyzers = new HashMap<>();
+  private final Set<SearchAnalyzer> analyzers = new LinkedHashSet<>();
+  private final Map<String, PostingList> postings = new HashMap<>();
+  private final Map<K, Integer> docNumbers = new HashMap<>();
+  private final List<K> keys = new ArrayList<>();
+  private BitSet live = new BitSet();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  public SearchIndex() {
+    this(new StandardSearchAnalyzer());
+  }
+
+  public SearchIndex(final SearchAnalyzer analyzer) {
+    this.analyzer = analyzer;
+    analyzers.add(analyzer);
+  }
+
+  /**
+   * Sets the analyzer used for the values of a top-level property.
+   * Only entities indexed afterwards are affected.
+   * @param propertyName name of the property
+   * @param propertyAnalyzer the analyzer, or <code>null</code> to exclude the property from indexing
+   */
+  public void setAnalyzer(final String propertyName, final SearchAnalyzer propertyAnalyzer) {
+    lock.writeLock().lock();
+    try {
+      propertyAnalyzers.put(propertyName, propertyAnalyzer);
+      analyzers.clear();
+      analyzers.add(analyzer);
+      for (final SearchAnalyzer configured : propertyAnalyzers.values()) {
+        if (configured != null) {
+          analyzers.add(configured);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Adds an entity to the index or replaces the indexed content of the entity with the same key.
+   * @param key the key of the entity
+   * @param entity the entity
+   */
+  public void put(final K key, final Entity entity) {
+    lock.writeLock().lock();
+    try {
+      delete(key);
+      final int doc = keys.size();
+      keys.add(key);
+      docNumbers.put(key, doc);
+      live.set(doc);
+      int position = 0;
+      for (final Property property : entity.getProperties()) {
+        final SearchAnalyzer propertyAnalyzer = propertyAnalyzers.containsKey(property.getName()) ?
+            propertyAnalyzers.get(property.getName()) :
+            analyzer;
+        if (propertyAnalyzer != null) {
+          List<String> texts = new ArrayList<>();
+          collectTexts(property, texts);
+          for (final String text : texts) {
+            for (final String term : propertyAnalyzer.analyze(text)) {
+              PostingList postingList = postings.get(term);
+              if (postingList == null) {
+                postingList = new PostingList();
+                postings.put(term, postingList);
+              }
+              postingList.add(doc, position++);
+            }
+            // Leave a gap so that phrases never span different values.
+            position++;
+          }
+        }
+      }
+      // A replaced entity leaves its old document behind, so updates need compaction, too.
+      compactIfSparse();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes an entity from the index.
+   * @param key the key of the entity
+   * @return whether the entity has been indexed
+   */
+  public boolean remove(final K key) {
+    lock.writeLock().lock();
+    try {
+      final boolean removed = delete(key);
+      compactIfSparse();
+      return removed;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Removes all entities from the index. */
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      postings.clear();
+      docNumbers.clear();
+      keys.clear();
+      live = new BitSet();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Returns the number of indexed entities. */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return docNumbers.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Returns the number of documents including the removed ones not yet compacted away. */
+  int documentCount() {
+    lock.readLock().lock();
+    try {
+      return keys.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the keys of the entities matching the search option in the order of indexing.
+   * @param searchOption the search option; if <code>null</code>, all entities match
+   */
+  public List<K> search(final SearchOption searchOption) {
+    return search(searchOption == null ? null : searchOption.getSearchExpression(), false);
+  }
+
+  /**
+   * Returns the keys of the entities matching the search expression.
+   * @param searchExpression the search expression; if <code>null</code>, all entities match
+   * @param ranked if <code>true</code>, the keys are ordered by descending relevance, i.e., the sum
+   * of term frequency times inverse document frequency of the non-negated search terms;
+   * otherwise in the order of indexing
+   */
+  public List<K> search(final SearchExpression searchExpression, final boolean ranked) {
+    lock.readLock().lock();
+    try {
+      final int[] docs = searchExpression == null ? allDocs() : evaluate(searchExpression);
+      List<K> result = new ArrayList<>(docs.length);
+      if (ranked && searchExpression != null) {
+        final double[] scores = new double[docs.length];
+        Integer[] order = new Integer[docs.length];
+        for (int i = 0; i < docs.length; i++) {
+          scores[i] = score(docs[i], searchExpression);
+          order[i] = i;
+        }
+        // The sort is stable, so documents with equal score stay in the order of indexing.
+        Arrays.sort(order, (first, second) -> Double.compare(scores[second], scores[first]));
+        for (final Integer index : order) {
+          result.add(keys.get(docs[index]));
+        }
+      } else {
+        for (final int doc : docs) {
+          result.add(keys.get(doc));
+        }
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private boolean delete(final K key) {
+    final Integer doc = docNumbers.remove(key);
+    if (doc == null) {
+      return false;
+    }
+    live.clear(doc);
+    keys.set(doc, null);
+    return true;
+  }
+
+  private void compactIfSparse() {
+    final int deleted = keys.size() - docNumbers.size();
+    if (deleted > COMPACTION_THRESHOLD && deleted > docNumbers.size()) {
+      compact();
+    }
+  }
+
+  /** Drops the postings of removed documents and renumbers the remaining ones densely. */
+  private void compact() {
+    int[] newNumbers = new int[keys.size()];
+    List<K> newKeys = new ArrayList<>(docNumbers.size());
+    for (int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+      newNumbers[doc] = newKeys.size();
+      newKeys.add(keys.get(doc));
+    }
+    postings.values().removeIf(postingList -> !postingList.compact(live, newNumbers));
+    keys.clear();
+    keys.addAll(newKeys);
+    docNumbers.clear();
+    for (int doc = 0; doc < keys.size(); doc++) {
+      docNumbers.put(keys.get(doc), doc);
+    }
+    live = new BitSet(keys.size());
+    live.set(0, keys.size());
+  }
+
+  private void collectTexts(final Property property, final List<String> texts) {
+    if (property.isNull()) {
+      return;
+    }
+    if (property.isCollection()) {
+      for (final Object value : property.asCollection()) {
+        collectTexts(value, texts);
+      }
+    } else if (property.isComplex()) {
+      collectTexts(property.asComplex(), texts);
+    } else if (property.isPrimitive() || property.isEnum()) {
+      collectTexts(property.getValue(), texts);
+    }
+  }
+
+  private void collectTexts(final Object value, final List<String> texts) {
+    if (value instanceof ComplexValue) {
+      for (final Property property : ((ComplexValue) value).getValue()) {
+        collectTexts(property, texts);
+      }
+    } else if (value instanceof Property) {
+      collectTexts((Property) value, texts);
+    } else if (value instanceof String || value instanceof Number || value instanceof Boolean
+        || value instanceof Character || value instanceof UUID) {
+      texts.add(value.toString());
+    }
+  }
+
+  private int[] allDocs() {
+    return live.stream().toArray();
+  }
+
+  private int[] evaluate(final SearchExpression expression) {
+    if (expression.isSearchTerm()) {
+      return evaluateTerm(expression.asSearchTerm().getSearchTerm());
+    } else if (expression.isSearchUnary()) {
+      return difference(allDocs(), evaluate(expression.asSearchUnary().getOperand()));
+    } else if (expression.isSearchBinary()) {
+      final SearchBinary binary = expression.asSearchBinary();
+      final SearchExpression left = binary.getLeftOperand();
+      final SearchExpression right = binary.getRightOperand();
+      if (binary.getOperator() == SearchBinaryOperatorKind.AND) {
+        // "a AND NOT b" is evaluated as difference; the complement of "b" is never built.
+        if (right.isSearchUnary()) {
+          final int[] leftDocs = evaluate(left);
+          return leftDocs.length == 0 ? leftDocs :
+              difference(leftDocs, evaluate(right.asSearchUnary().getOperand()));
+        } else if (left.isSearchUnary()) {
+          final int[] rightDocs = evaluate(right);
+          return rightDocs.length == 0 ? rightDocs :
+              difference(rightDocs, evaluate(left.asSearchUnary().getOperand()));
+        }
+        final int[] leftDocs = evaluate(left);
+        return leftDocs.length == 0 ? leftDocs : intersection(leftDocs, evaluate(right));
+      } else if (binary.getOperator() == SearchBinaryOperatorKind.OR) {
+        return union(evaluate(left), evaluate(right));
+      }
+      throw new IllegalArgumentException("Unknown search operator " + binary.getOperator());
+    }
+    throw new IllegalArgumentException("Unknown search expression " + expression);
+  }
+
+  private int[] evaluateTerm(final String searchTerm) {
+    int[] docs = NO_DOCS;
+    for (final SearchAnalyzer termAnalyzer : analyzers) {
+      docs = union(docs, evaluateTerm(termAnalyzer.analyze(searchTerm)));
+    }
+    return docs;
+  }
+
+  private int[] evaluateTerm(final List<String> terms) {
+    if (terms.isEmpty()) {
+      return NO_DOCS;
+    }
+    PostingList[] lists = new PostingList[terms.size()];
+    for (int i = 0; i < lists.length; i++) {
+      lists[i] = postings.get(terms.get(i));
+      if (lists[i] == null) {
+        return NO_DOCS;
+      }
+    }
+    int[] docs = lists[0].docs(live);
+    if (lists.length == 1) {
+      return docs;
+    }
+    for (int i = 1; i < lists.length && docs.length > 0; i++) {
+      docs = intersection(docs, lists[i].docs(live));
+    }
+    int[] phraseDocs = new int[docs.length];
+    int count = 0;
+    for (final int doc : docs) {
+      if (containsPhrase(lists, doc)) {
+        phraseDocs[count++] = doc;
+      }
+    }
+    return Arrays.copyOf(phraseDocs, count);
+  }
+
+  private boolean containsPhrase(final PostingList[] lists, final int doc) {
+    final int first = lists[0].indexOf(doc);
+    for (int occurrence = 0; occurrence < lists[0].frequency(first); occurrence++) {
+      final int start = lists[0].position(first, occurrence);
+      boolean matches = true;
+      for (int i = 1; i < lists.length && matches; i++) {
+        matches = lists[i].hasPosition(lists[i].indexOf(doc), start + i);
+      }
+      if (matches) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Computes the relevance of a document for the non-negated terms of the search expression
+   * as the sum of term frequency times inverse document frequency.
+   */
+  private double score(final int doc, final SearchExpression expression) {
+    if (expression.isSearchTerm()) {
+      Set<String> terms = new LinkedHashSet<>();
+      for (final SearchAnalyzer termAnalyzer : analyzers) {
+        terms.addAll(termAnalyzer.analyze(expression.asSearchTerm().getSearchTerm()));
+      }
+      double score = 0;
+      for (final String term : terms) {
+        final PostingList postingList = postings.get(term);
+        final int index = postingList == null ? -1 : postingList.indexOf(doc);
+        if (index >= 0) {
+          score += postingList.frequency(index) * Math.log(1.0 + (double) docNumbers.size() / postingList.size());
+        }
+      }
+      return score;
+    } else if (expression.isSearchBinary()) {
+      return score(doc, expression.asSearchBinary().getLeftOperand())
+          + score(doc, expression.asSearchBinary().getRightOperand());
+    } else {
+      return 0;
+    }
+  }
+
+  private static int[] intersection(final int[] left, final int[] right) {
+    int[] result = new int[Math.min(left.length, right.length)];
+    int count = 0;
+    int i = 0;
+    int j = 0;
+    while (i < left.length && j < right.length) {
+      if (left[i] < right[j]) {
+        i++;
+      } else if (left[i] > right[j]) {
+        j++;
+      } else {
+        result[count++] = left[i];
+        i++;
+        j++;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  private static int[] union(final int[] left, final int[] right) {
+    int[] result = new int[left.length + right.length];
+    int count = 0;
+    int i = 0;
+    int j = 0;
+    while (i < left.length || j < right.length) {
+      if (j == right.length || i < left.length && left[i] < right[j]) {
+        result[count++] = left[i++];
+      } else if (i == left.length || left[i] > right[j]) {
+        result[count++] = right[j++];
+      } else {
+        result[count++] = left[i];
+        i++;
+        j++;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  private static int[] difference(final int[] left, final int[] right) {
+    int[] result = new int[left.length];
+    int count = 0;
+    int j = 0;
+    for (final int doc : left) {
+      while (j < right.length && right[j] < doc) {
+        j++;
+      }
+      if (j == right.length || right[j] != doc) {
+        result[count++] = doc;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+}
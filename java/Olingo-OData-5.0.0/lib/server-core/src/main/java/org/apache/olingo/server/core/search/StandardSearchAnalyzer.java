@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Default {@link SearchAnalyzer}: a term is a maximal sequence of letters and digits;
+ * everything else separates terms. Terms are converted to lower case unless the analyzer
+ * has been created as case-sensitive.
+ */
+public class StandardSearchAnalyzer implements SearchAnalyzer {
+
+  private final boolean ignoreCase;
+
+  public StandardSearchAnalyzer() {
+    this(true);
+  }
+
+  public StandardSearchAnalyzer(final boolean ignoreCase) {
+    this.ignoreCase = ignoreCase;
+  }
+
+  @Override
+  public List<String> analyze(final String text) {
+    List<String> terms = new ArrayList<>();
+    int start = -1;
+    int i = 0;
+    while (i < text.length()) {
+      final int codePoint = text.codePointAt(i);
+      if (Character.isLetterOrDigit(codePoint)) {
+        if (start < 0) {
+          start = i;
+        }
+      } else if (start >= 0) {
+        terms.add(term(text, start, i));
+        start = -1;
+      }
+      i += Character.charCount(codePoint);
+    }
+    if (start >= 0) {
+      terms.add(term(text, start, text.length()));
+    }
+    return terms;
+  }
+
+  private String term(final String text, final int start, final int end) {
+    final String term = text.substring(start, end);
+    return ignoreCase ? term.toLowerCase(Locale.ROOT) : term;
+  }
+}
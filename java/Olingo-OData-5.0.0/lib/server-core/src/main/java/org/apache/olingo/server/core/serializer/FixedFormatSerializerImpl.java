@@ -23,9 +23,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.channels.Channels;
 import java.util.List;
 
 import org.apache.olingo.commons.api.data.EntityMediaObject;
+import org.apache.olingo.commons.api.data.MediaContent;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
 import org.apache.olingo.server.api.ODataResponse;
@@ -47,7 +49,10 @@ public class FixedFormatSerializerImpl implements FixedFormatSerializer {
   protected void binary(final EntityMediaObject mediaEntity, 
 		  OutputStream outputStream) throws SerializerException {
 	  try {
-		outputStream.write(mediaEntity.getBytes());
+		final MediaContent content = mediaEntity.getContent();
+		if (content != null) {
+			content.transferTo(Channels.newChannel(outputStream));
+		}
 	} catch (IOException e) {
 		throw new SerializerException("IO Exception occured ", e, SerializerException.MessageKeys.IO_EXCEPTION);
 	}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.utils;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+
+/**
+ * Holds the StAX factories used by all XML serializers and deserializers of the server.
+ * <p/>
+ * Looking up a factory with <code>newInstance()</code> involves a service-loader lookup
+ * and the creation of a new factory, so the factories are created and configured once.
+ * The input factory does not support DTDs and external entities.
+ * The factories are shared and therefore MUST NOT be reconfigured by callers.
+ */
+public final class XmlFactories {
+
+  private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+  private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+  private XmlFactories() {
+    // Private constructor for utility classes
+  }
+
+  /**
+   * Returns the shared, secure XML input factory.
+   * @return XML input factory
+   */
+  public static XMLInputFactory getInputFactory() {
+    return INPUT_FACTORY;
+  }
+
+  /**
+   * Returns the shared XML output factory.
+   * @return XML output factory
+   */
+  public static XMLOutputFactory getOutputFactory() {
+    return OUTPUT_FACTORY;
+  }
+
+  private static XMLInputFactory createInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    return factory;
+  }
+}
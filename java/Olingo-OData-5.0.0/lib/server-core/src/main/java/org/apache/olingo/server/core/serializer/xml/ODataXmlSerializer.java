@@ -18,6 +18,7 @@
  */
 package org.apache.olingo.server.core.serializer.xml;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
@@ -27,7 +28,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 
@@ -80,6 +80,7 @@ import org.apache.olingo.server.core.serializer.SerializerResultImpl;
 import org.apache.olingo.server.core.serializer.utils.CircleStreamBuffer;
 import org.apache.olingo.server.core.serializer.utils.ContextURLBuilder;
 import org.apache.olingo.server.core.serializer.utils.ExpandSelectHelper;
+import org.apache.olingo.server.core.serializer.utils.XmlFactories;
 import org.apache.olingo.server.core.uri.UriHelperImpl;
 import org.apache.olingo.server.core.uri.queryoption.ExpandOptionImpl;
 
@@ -92,6 +93,8 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
   private static final String NS_METADATA = Constants.NS_METADATA;
   private static final String DATA = Constants.PREFIX_DATASERVICES;
   private static final String NS_DATA = Constants.NS_DATASERVICES;
+  /** Size of the chunks in which streamed entity collections are written. */
+  private static final int STREAM_BUFFER_SIZE = 8192;
 
   @Override
   public SerializerResult serviceDocument(final ServiceMetadata metadata, final String serviceRoot)
@@ -101,7 +104,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlFactories.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       ServiceDocumentXmlSerializer serializer = new ServiceDocumentXmlSerializer(metadata, serviceRoot);
       serializer.writeServiceDocument(writer);
 
@@ -126,7 +129,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlFactories.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       MetadataDocumentXmlSerializer serializer = new MetadataDocumentXmlSerializer(serviceMetadata);
       serializer.writeMetadataDocument(writer);
 
@@ -160,7 +163,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlFactories.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
 
       writer.writeStartElement("error");
@@ -232,7 +235,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlFactories.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(ATOM, Constants.ATOM_ELEM_FEED, NS_ATOM);
       writer.writeNamespace(ATOM, NS_ATOM);
@@ -287,6 +290,12 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     }
   }
 
+  /**
+   * Writes the entities of the iterator as feed into the output stream while iterating.
+   * The output is buffered in chunks of bounded size, so neither the entity collection
+   * nor the serialized feed is held completely in memory.
+   * If the next link is not known before iterating, it is written after the entities.
+   */
   public void entityCollectionIntoStream(ServiceMetadata metadata, EdmEntityType entityType, EntityIterator entitySet,
       EntityCollectionSerializerOptions options, OutputStream outputStream) throws SerializerException {
 
@@ -294,7 +303,8 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     final String name = contextURL == null ? null : contextURL.getEntitySetOrSingletonOrType();
     SerializerException cachedException;
     try {
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      OutputStream bufferedStream = new BufferedOutputStream(outputStream, STREAM_BUFFER_SIZE);
+      XMLStreamWriter writer = XmlFactories.getOutputFactory().createXMLStreamWriter(bufferedStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(ATOM, Constants.ATOM_ELEM_FEED, NS_ATOM);
       writer.writeNamespace(ATOM, NS_ATOM);
@@ -315,7 +325,8 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
           && entitySet.getCount() != null) {
         writeCount(entitySet, writer);
       }
-      if (entitySet!=null && entitySet.getNext() != null) {
+      final boolean nextLinkKnown = entitySet.getNext() != null;
+      if (nextLinkKnown) {
         writeNextLink(entitySet, writer);
       }
       boolean writeOnlyRef = (options != null && options.getWriteOnlyReferences());
@@ -326,12 +337,16 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
             options.getExpand(), null, 
             options.getSelect(), options.xml10InvalidCharReplacement(), writer, writeOnlyRef, name, null);
       }
+      if (!nextLinkKnown && entitySet.getNext() != null) {
+        writeNextLink(entitySet, writer);
+      }
 
       writer.writeEndElement();
       writer.writeEndDocument();
 
       writer.flush();
-    } catch (final XMLStreamException e) {
+      bufferedStream.flush();
+    } catch (final XMLStreamException | IOException e) {
       cachedException =
           new SerializerException(IO_EXCEPTION_TEXT, e, SerializerException.MessageKeys.IO_EXCEPTION);
       throw cachedException;
@@ -359,7 +374,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlFactories.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writeEntity(metadata, entityType, entity, contextURL,
           options == null ? null : options.getExpand(),
@@ -1045,7 +1060,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlFactories.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
 
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(METADATA, Constants.VALUE, NS_METADATA);
@@ -1116,7 +1131,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
       }
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlFactories.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(METADATA, Constants.VALUE, NS_METADATA);
       writer.writeNamespace(METADATA, NS_METADATA);
@@ -1165,7 +1180,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlFactories.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
 
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(METADATA, Constants.VALUE, NS_METADATA);
@@ -1219,7 +1234,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlFactories.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(METADATA, Constants.VALUE, NS_METADATA);
       writer.writeNamespace(METADATA, NS_METADATA);
@@ -1275,7 +1290,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlFactories.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writeReference(entity, options == null ? null : options.getContextURL(), writer, true);
       writer.writeEndDocument();
@@ -1326,7 +1341,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlFactories.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(ATOM, Constants.ATOM_ELEM_FEED, NS_ATOM);
       writer.writeNamespace(ATOM, NS_ATOM);
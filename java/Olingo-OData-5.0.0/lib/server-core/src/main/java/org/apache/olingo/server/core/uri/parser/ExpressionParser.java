@@ -160,6 +160,25 @@ public class ExpressionParser {
     tokenToMethod = Collections.unmodifiableMap(temp);
   }
 
+  // The token kinds to look for are kept in arrays so that no array is created for each look-up.
+  private static final TokenKind[] EQUALITY_OPERATORS = { TokenKind.EqualsOperator, TokenKind.NotEqualsOperator };
+  private static final TokenKind[] RELATIONAL_OPERATORS = {
+      TokenKind.GreaterThanOperator, TokenKind.GreaterThanOrEqualsOperator,
+      TokenKind.LessThanOperator, TokenKind.LessThanOrEqualsOperator };
+  private static final TokenKind[] ADDITIVE_OPERATORS = { TokenKind.AddOperator, TokenKind.SubOperator };
+  private static final TokenKind[] MULTIPLICATIVE_OPERATORS = {
+      TokenKind.MulOperator, TokenKind.DivOperator, TokenKind.ModOperator };
+  private static final TokenKind[] METHODS = tokenToMethod.keySet().toArray(new TokenKind[tokenToMethod.size()]);
+  private static final TokenKind[] NAMES = { TokenKind.QualifiedName, TokenKind.ODataIdentifier };
+
+  private static final EdmPrimitiveTypeKind[] INTEGER_TYPES = {
+      EdmPrimitiveTypeKind.Int64, EdmPrimitiveTypeKind.Int32, EdmPrimitiveTypeKind.Int16,
+      EdmPrimitiveTypeKind.Byte, EdmPrimitiveTypeKind.SByte };
+  private static final EdmPrimitiveTypeKind[] NUMERIC_TYPES = {
+      EdmPrimitiveTypeKind.Int64, EdmPrimitiveTypeKind.Int32, EdmPrimitiveTypeKind.Int16,
+      EdmPrimitiveTypeKind.Byte, EdmPrimitiveTypeKind.SByte,
+      EdmPrimitiveTypeKind.Decimal, EdmPrimitiveTypeKind.Single, EdmPrimitiveTypeKind.Double };
+
   private final Edm edm;
   private final OData odata;
 
@@ -190,7 +209,7 @@ public class ExpressionParser {
 
   private Expression parseExpression() throws UriParserException, UriValidationException {
     Expression left = parseAnd();
-    while (tokenizer.next(TokenKind.OrOperator)) {
+    while (tokenizer.isNextWhitespace() && tokenizer.next(TokenKind.OrOperator)) {
       checkType(left, EdmPrimitiveTypeKind.Boolean);
       checkNoCollection(left);
       final Expression right = parseAnd();
@@ -204,7 +223,7 @@ public class ExpressionParser {
 
   private Expression parseAnd() throws UriParserException, UriValidationException {
     Expression left = parseExprEquality();
-    while (tokenizer.next(TokenKind.AndOperator)) {
+    while (tokenizer.isNextWhitespace() && tokenizer.next(TokenKind.AndOperator)) {
       checkType(left, EdmPrimitiveTypeKind.Boolean);
       checkNoCollection(left);
       final Expression right = parseExprEquality();
@@ -218,14 +237,14 @@ public class ExpressionParser {
 
   private Expression parseExprEquality() throws UriParserException, UriValidationException {
     Expression left = parseExprRel();
-    TokenKind operatorTokenKind = ParserHelper.next(tokenizer, TokenKind.EqualsOperator, TokenKind.NotEqualsOperator);
+    TokenKind operatorTokenKind = nextBinaryOperator(EQUALITY_OPERATORS);
     // Null for everything other than EQ or NE
     while (operatorTokenKind != null) {
       final Expression right = parseExprEquality();
       checkEqualityTypes(left, right);
       left = new BinaryImpl(left, tokenToBinaryOperator.get(operatorTokenKind), right,
           odata.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Boolean));
-      operatorTokenKind = ParserHelper.next(tokenizer, TokenKind.EqualsOperator, TokenKind.NotEqualsOperator);
+      operatorTokenKind = nextBinaryOperator(EQUALITY_OPERATORS);
     }
     return left;
   }
@@ -236,23 +255,24 @@ public class ExpressionParser {
       return parseIsOfOrCastMethod(MethodKind.ISOF);
     } else {
       Expression left = parseExprAdd();
-      TokenKind operatorTokenKind = ParserHelper.next(tokenizer,
-          TokenKind.GreaterThanOperator, TokenKind.GreaterThanOrEqualsOperator,
-          TokenKind.LessThanOperator, TokenKind.LessThanOrEqualsOperator);
+      TokenKind operatorTokenKind = nextBinaryOperator(RELATIONAL_OPERATORS);
       // Null for everything other than GT or GE or LT or LE
       while (operatorTokenKind != null) {
         final Expression right = parseExprAdd();
         checkRelationTypes(left, right);
         left = new BinaryImpl(left, tokenToBinaryOperator.get(operatorTokenKind), right,
             odata.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Boolean));
-        operatorTokenKind = ParserHelper.next(tokenizer,
-            TokenKind.GreaterThanOperator, TokenKind.GreaterThanOrEqualsOperator,
-            TokenKind.LessThanOperator, TokenKind.LessThanOrEqualsOperator);
+        operatorTokenKind = nextBinaryOperator(RELATIONAL_OPERATORS);
       }
       return left;
     }
   }
 
+  /** Looks for one of the given binary operators; all of them start with whitespace. */
+  private TokenKind nextBinaryOperator(final TokenKind[] operators) {
+    return tokenizer.isNextWhitespace() ? ParserHelper.next(tokenizer, operators) : null;
+  }
+
   private Expression parseIsOfOrCastMethod(final MethodKind kind) throws UriParserException, UriValidationException {
     // The TokenKind 'IsOfMethod' consumes also the opening parenthesis.
     // The first parameter could be an expression or a type literal.
@@ -279,22 +299,21 @@ public class ExpressionParser {
 
   private Expression parseExprAdd() throws UriParserException, UriValidationException {
     Expression left = parseExprMul();
-    TokenKind operatorTokenKind = ParserHelper.next(tokenizer, TokenKind.AddOperator, TokenKind.SubOperator);
+    TokenKind operatorTokenKind = nextBinaryOperator(ADDITIVE_OPERATORS);
     // Null for everything other than ADD or SUB
     while (operatorTokenKind != null) {
       final Expression right = parseExprMul();
       final EdmType resultType = getAddSubTypeAndCheckLeftAndRight(left, right,
           operatorTokenKind == TokenKind.SubOperator);
       left = new BinaryImpl(left, tokenToBinaryOperator.get(operatorTokenKind), right, resultType);
-      operatorTokenKind = ParserHelper.next(tokenizer, TokenKind.AddOperator, TokenKind.SubOperator);
+      operatorTokenKind = nextBinaryOperator(ADDITIVE_OPERATORS);
     }
     return left;
   }
 
   private Expression parseExprMul() throws UriParserException, UriValidationException {
     Expression left = parseExprUnary();
-    TokenKind operatorTokenKind = ParserHelper.next(tokenizer,
-        TokenKind.MulOperator, TokenKind.DivOperator, TokenKind.ModOperator);
+    TokenKind operatorTokenKind = nextBinaryOperator(MULTIPLICATIVE_OPERATORS);
     // Null for everything other than MUL or DIV or MOD
     while (operatorTokenKind != null) {
       checkNumericType(left);
@@ -302,8 +321,7 @@ public class ExpressionParser {
       checkNumericType(right);
       left = new BinaryImpl(left, tokenToBinaryOperator.get(operatorTokenKind), right,
           odata.createPrimitiveTypeInstance(EdmPrimitiveTypeKind.Double));
-      operatorTokenKind = ParserHelper.next(tokenizer,
-          TokenKind.MulOperator, TokenKind.DivOperator, TokenKind.ModOperator);
+      operatorTokenKind = nextBinaryOperator(MULTIPLICATIVE_OPERATORS);
     }
     return left;
   }
@@ -329,6 +347,9 @@ public class ExpressionParser {
 
   private Expression parseExprPrimary() throws UriParserException, UriValidationException {
     final Expression left = parseExprValue();
+    if (!tokenizer.isNextWhitespace()) {
+      return left;
+    }
     if (isEnumType(left) && tokenizer.next(TokenKind.HasOperator)) {
       ParserHelper.requireNext(tokenizer, TokenKind.EnumValue);
       final Expression right = createEnumExpression(tokenizer.getText());
@@ -362,15 +383,20 @@ public class ExpressionParser {
    */
   private void checkInExpressionTypes(List<Expression> expressionList, EdmType leftExprType)
       throws UriParserException, UriParserSemanticException {
+    // Long lists usually contain values of only a few types, so only type changes are checked.
+    EdmType compatibleType = null;
     for (Expression expr : expressionList) {
       EdmType inExprType = getType(expr);
-      
+      if (inExprType != null && inExprType == compatibleType) {
+        continue;
+      }
       if (!(((EdmPrimitiveType) leftExprType).isCompatible((EdmPrimitiveType) inExprType))) {
         throw new UriParserSemanticException("Incompatible types.",
             UriParserSemanticException.MessageKeys.TYPES_NOT_COMPATIBLE,
             inExprType == null ? "" : inExprType.getFullQualifiedName().getFullQualifiedNameAsString(),
             leftExprType.getFullQualifiedName().getFullQualifiedNameAsString());
       }
+      compatibleType = inExprType;
     }
   }
 
@@ -432,8 +458,10 @@ public class ExpressionParser {
       return parsePrimitive(nextPrimitive);
     }
 
-    final TokenKind nextMethod =
-        ParserHelper.next(tokenizer, tokenToMethod.keySet().toArray(new TokenKind[tokenToMethod.size()]));
+    // All method names start with a lower-case letter.
+    final TokenKind nextMethod = tokenizer.isNextCharacterInRange('a', 'z') ?
+        ParserHelper.next(tokenizer, METHODS) :
+        null;
     if (nextMethod != null) {
       return parseMethod(nextMethod);
     }
@@ -711,7 +739,7 @@ public class ExpressionParser {
           checkStructuredTypeFilter(referringType, filterType);
           startTypeFilter = filterType;
 
-          final TokenKind tokenKind = ParserHelper.next(tokenizer, TokenKind.QualifiedName, TokenKind.ODataIdentifier);
+          final TokenKind tokenKind = ParserHelper.next(tokenizer, NAMES);
           parseMemberExpression(tokenKind, uriInfo, new UriResourceStartingTypeFilterImpl(filterType, false), false);
         } else {
           // Type literal
@@ -768,7 +796,7 @@ public class ExpressionParser {
     UriResourceItImpl itResource = new UriResourceItImpl(referringType, false);
     uriInfo.addResourcePart(itResource);
     if (tokenizer.next(TokenKind.SLASH)) {
-      final TokenKind tokenKind = ParserHelper.next(tokenizer, TokenKind.QualifiedName, TokenKind.ODataIdentifier);
+      final TokenKind tokenKind = ParserHelper.next(tokenizer, NAMES);
       parseMemberExpression(tokenKind, uriInfo, itResource, true);
     }
   }
@@ -783,7 +811,7 @@ public class ExpressionParser {
             new UriResourceEntitySetImpl(edm.getEntityContainer().getEntitySet(name));
         uriInfo.addResourcePart(resource);
         if (tokenizer.next(TokenKind.SLASH)) {
-          final TokenKind tokenKind = ParserHelper.next(tokenizer, TokenKind.QualifiedName, TokenKind.ODataIdentifier);
+          final TokenKind tokenKind = ParserHelper.next(tokenizer, NAMES);
           parseMemberExpression(tokenKind, uriInfo, resource, true);
         }
         return;
@@ -807,7 +835,7 @@ public class ExpressionParser {
           new UriResourceLambdaVarImpl(lambdaVariable.getVariableName(), lambdaVariable.getType());
       uriInfo.addResourcePart(lambdaResource);
       if (tokenizer.next(TokenKind.SLASH)) {
-        final TokenKind tokenKind = ParserHelper.next(tokenizer, TokenKind.QualifiedName, TokenKind.ODataIdentifier);
+        final TokenKind tokenKind = ParserHelper.next(tokenizer, NAMES);
         parseMemberExpression(tokenKind, uriInfo, lambdaResource, true);
       }
     } else {
@@ -951,7 +979,7 @@ public class ExpressionParser {
   private void parseSingleNavigationExpr(UriInfoImpl uriInfo, final UriResourcePartTyped lastResource)
       throws UriParserException, UriValidationException {
     if (tokenizer.next(TokenKind.SLASH)) {
-      final TokenKind tokenKind = ParserHelper.next(tokenizer, TokenKind.QualifiedName, TokenKind.ODataIdentifier);
+      final TokenKind tokenKind = ParserHelper.next(tokenizer, NAMES);
       parseMemberExpression(tokenKind, uriInfo, lastResource, true);
     }
   }
@@ -1229,17 +1257,12 @@ public class ExpressionParser {
 
   protected void checkIntegerType(final Expression expression) throws UriParserException {
     checkNoCollection(expression);
-    checkType(expression,
-        EdmPrimitiveTypeKind.Int64, EdmPrimitiveTypeKind.Int32, EdmPrimitiveTypeKind.Int16,
-        EdmPrimitiveTypeKind.Byte, EdmPrimitiveTypeKind.SByte);
+    checkType(expression, INTEGER_TYPES);
   }
 
   protected void checkNumericType(final Expression expression) throws UriParserException {
     checkNoCollection(expression);
-    checkType(expression,
-        EdmPrimitiveTypeKind.Int64, EdmPrimitiveTypeKind.Int32, EdmPrimitiveTypeKind.Int16,
-        EdmPrimitiveTypeKind.Byte, EdmPrimitiveTypeKind.SByte,
-        EdmPrimitiveTypeKind.Decimal, EdmPrimitiveTypeKind.Single, EdmPrimitiveTypeKind.Double);
+    checkType(expression, NUMERIC_TYPES);
   }
 
   private void checkEqualityTypes(final Expression left, final Expression right) throws UriParserException {
@@ -1283,9 +1306,7 @@ public class ExpressionParser {
     final EdmType expressionType = getType(expression);
     return expressionType == null
         || expressionType.getKind() == EdmTypeKind.ENUM
-        || isType(expressionType,
-            EdmPrimitiveTypeKind.Int16, EdmPrimitiveTypeKind.Int32, EdmPrimitiveTypeKind.Int64,
-            EdmPrimitiveTypeKind.Byte, EdmPrimitiveTypeKind.SByte);
+        || isType(expressionType, INTEGER_TYPES);
   }
 
   private Enumeration createEnumExpression(final String primitiveValueLiteral) throws UriParserException {
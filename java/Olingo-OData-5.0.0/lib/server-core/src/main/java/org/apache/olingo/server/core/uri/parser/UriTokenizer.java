@@ -232,6 +232,31 @@ public class UriTokenizer {
     return parseString.substring(startIndex, index);
   }
 
+  /**
+   * Returns whether the character at the current index is in the given character range;
+   * the index is not changed. This allows to skip looking for several tokens at once
+   * if all of them start with characters outside the range.
+   */
+  boolean isNextCharacterInRange(final char from, final char to) {
+    if (index < parseString.length()) {
+      final char code = parseString.charAt(index);
+      return code >= from && code <= to;
+    }
+    return false;
+  }
+
+  /**
+   * Returns whether whitespace follows at the current index; the index is not changed.
+   * Binary operators start with whitespace, so looking for them can be skipped if there is none.
+   */
+  boolean isNextWhitespace() {
+    if (index < parseString.length()) {
+      final char code = parseString.charAt(index);
+      return code == ' ' || code == '\t';
+    }
+    return false;
+  }
+
   /**
    * Tries to find a token of the given token kind at the current index.
    * The order in which this method is called with different token kinds is important,
@@ -742,10 +767,8 @@ public class UriTokenizer {
    * @return whether the constant has been found at the current index
    */
   private boolean nextConstantIgnoreCase(final String constant) {
-    final int length = constant.length();
-    if (index + length <= parseString.length()
-        && constant.equalsIgnoreCase(parseString.substring(index, index + length))) {
-      index += length;
+    if (parseString.regionMatches(true, index, constant, 0, constant.length())) {
+      index += constant.length();
       return true;
     } else {
       return false;
@@ -1541,8 +1564,12 @@ public class UriTokenizer {
         break;
       }
     }
-    final String word = parseString.substring(index - count, index);
-    return count > 0 && !("OR".equals(word) || "AND".equals(word) || "NOT".equals(word));
+    return count > 0 && !(isWord("OR", count) || isWord("AND", count) || isWord("NOT", count));
+  }
+
+  /** Checks whether the given word of the given length ends at the current index. */
+  private boolean isWord(final String word, final int count) {
+    return count == word.length() && parseString.startsWith(word, index - count);
   }
 
   private boolean nextPhrase() {
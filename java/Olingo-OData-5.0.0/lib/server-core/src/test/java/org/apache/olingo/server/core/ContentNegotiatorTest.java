@@ -257,6 +257,49 @@ public class ContentNegotiatorTest {
     }
   }
 
+  @Test
+  public void repeatedNegotiation() throws Exception {
+    ODataRequest request = new ODataRequest();
+    request.addHeader(HttpHeader.ACCEPT, Arrays.asList("a/a", "b/b;q=0.5"));
+    try {
+      ContentNegotiator.doContentNegotiation(null, request, null, RepresentationType.ENTITY);
+      fail("Exception expected.");
+    } catch (final ContentNegotiatorException e) {
+      assertEquals(ContentNegotiatorException.MessageKeys.UNSUPPORTED_ACCEPT_TYPES, e.getMessageKey());
+    }
+    final ContentType first = ContentNegotiator.doContentNegotiation(null, request,
+        createCustomContentTypeSupport("b/b"), RepresentationType.ENTITY);
+    assertEquals(ContentType.create("b/b"), first);
+    assertSame(first, ContentNegotiator.doContentNegotiation(null, request,
+        createCustomContentTypeSupport("b/b"), RepresentationType.ENTITY));
+    assertEquals(ContentType.create("a/a"), ContentNegotiator.doContentNegotiation(null, request,
+        createCustomContentTypeSupport("b/b,a/a"), RepresentationType.ENTITY));
+    try {
+      ContentNegotiator.doContentNegotiation(null, request, null, RepresentationType.ENTITY);
+      fail("Exception expected.");
+    } catch (final ContentNegotiatorException e) {
+      assertEquals(ContentNegotiatorException.MessageKeys.UNSUPPORTED_ACCEPT_TYPES, e.getMessageKey());
+    }
+  }
+
+  @Test
+  public void parseContentType() {
+    assertEquals(ContentType.JSON, ContentNegotiator.parseContentType(ACCEPT_CASE_MIN));
+    assertSame(ContentNegotiator.parseContentType("a/b;c=d"), ContentNegotiator.parseContentType("a/b;c=d"));
+    try {
+      ContentNegotiator.parseContentType("a");
+      fail("Exception expected.");
+    } catch (final IllegalArgumentException e) {
+      // Expected Exception
+    }
+    try {
+      ContentNegotiator.parseContentType(null);
+      fail("Exception expected.");
+    } catch (final IllegalArgumentException e) {
+      // Expected Exception
+    }
+  }
+
   private void testContentNegotiation(final String[] useCase, final RepresentationType representationType)
       throws Exception {
 
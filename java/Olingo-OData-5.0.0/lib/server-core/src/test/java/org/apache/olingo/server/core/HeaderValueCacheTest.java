@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class HeaderValueCacheTest {
+
+  @Test
+  public void cache() {
+    HeaderValueCache<String, Object> cache = new HeaderValueCache<>(10);
+    assertNull(cache.get("a"));
+    final Object value = new Object();
+    assertSame(value, cache.put("a", value));
+    assertSame(value, cache.get("a"));
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void nullIsNotCached() {
+    HeaderValueCache<String, Object> cache = new HeaderValueCache<>(10);
+    assertNull(cache.get(null));
+    assertSame("a", cache.put(null, "a"));
+    assertNull(cache.put("b", null));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void bounded() {
+    HeaderValueCache<Integer, Integer> cache = new HeaderValueCache<>(3);
+    for (int i = 0; i < 10; i++) {
+      cache.put(i, i);
+      assertEquals(i, cache.get(i).intValue());
+    }
+    assertEquals(1, cache.size());
+  }
+}
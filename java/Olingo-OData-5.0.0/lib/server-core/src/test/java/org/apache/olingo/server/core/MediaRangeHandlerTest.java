@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.olingo.commons.api.data.EntityMediaObject;
+import org.apache.olingo.commons.api.data.MediaContent;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.core.serializer.FixedFormatSerializerImpl;
+import org.junit.Test;
+
+public class MediaRangeHandlerTest {
+
+  private static final byte[] DATA = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+  @Test
+  public void parseRange() {
+    assertArrayEquals(new long[] { 0, 4 }, MediaRangeHandler.parseRange("bytes=0-4", 10));
+    assertArrayEquals(new long[] { 5, 9 }, MediaRangeHandler.parseRange("bytes=5-", 10));
+    assertArrayEquals(new long[] { 7, 9 }, MediaRangeHandler.parseRange("bytes=-3", 10));
+    assertArrayEquals(new long[] { 0, 9 }, MediaRangeHandler.parseRange("bytes=-30", 10));
+    assertArrayEquals(new long[] { 8, 9 }, MediaRangeHandler.parseRange("Bytes=8-100", 10));
+    assertArrayEquals(new long[0], MediaRangeHandler.parseRange("bytes=10-", 10));
+    assertArrayEquals(new long[0], MediaRangeHandler.parseRange("bytes=-0", 10));
+    assertNull(MediaRangeHandler.parseRange("bytes=4-2", 10));
+    assertNull(MediaRangeHandler.parseRange("bytes=0-1,4-5", 10));
+    assertNull(MediaRangeHandler.parseRange("items=0-1", 10));
+    assertNull(MediaRangeHandler.parseRange("bytes=a-b", 10));
+  }
+
+  @Test
+  public void partialContent() throws Exception {
+    final ODataResponse response = process(MediaContent.of(DATA), "bytes=2-5", null);
+    assertEquals(HttpStatusCode.PARTIAL_CONTENT.getStatusCode(), response.getStatusCode());
+    assertEquals("bytes 2-5/10", response.getHeader(HttpHeader.CONTENT_RANGE));
+    assertEquals("4", response.getHeader(HttpHeader.CONTENT_LENGTH));
+    assertEquals("2345", write(response));
+  }
+
+  @Test
+  public void partialContentFromFile() throws Exception {
+    final Path file = Files.createTempFile("olingo", ".bin");
+    try {
+      Files.write(file, DATA);
+      final ODataResponse response = process(MediaContent.of(file), "bytes=-3", null);
+      assertEquals(HttpStatusCode.PARTIAL_CONTENT.getStatusCode(), response.getStatusCode());
+      assertEquals("bytes 7-9/10", response.getHeader(HttpHeader.CONTENT_RANGE));
+      assertEquals("789", write(response));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void partialContentFromStream() throws Exception {
+    final MediaContent content = MediaContent.of(new MediaContent.StreamSupplier() {
+      @Override
+      public InputStream open() {
+        return new ByteArrayInputStream(DATA);
+      }
+    }, DATA.length);
+    final ODataResponse response = process(content, "bytes=3-4", null);
+    assertEquals(HttpStatusCode.PARTIAL_CONTENT.getStatusCode(), response.getStatusCode());
+    assertEquals("34", write(response));
+  }
+
+  @Test
+  public void completeContent() throws Exception {
+    final ODataResponse response = process(MediaContent.of(DATA), null, null);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    assertEquals("bytes", response.getHeader(HttpHeader.ACCEPT_RANGES));
+    assertEquals("10", response.getHeader(HttpHeader.CONTENT_LENGTH));
+    assertNull(response.getHeader(HttpHeader.CONTENT_RANGE));
+    assertEquals("0123456789", write(response));
+  }
+
+  @Test
+  public void notSatisfiable() throws Exception {
+    final ODataResponse response = process(MediaContent.of(DATA), "bytes=10-20", null);
+    assertEquals(HttpStatusCode.RANGE_NOT_SATISFIABLE.getStatusCode(), response.getStatusCode());
+    assertEquals("bytes */10", response.getHeader(HttpHeader.CONTENT_RANGE));
+    assertNull(response.getODataContent());
+  }
+
+  @Test
+  public void ifRange() throws Exception {
+    ODataResponse response = process(MediaContent.of(DATA), "bytes=0-0", "\"1\"");
+    assertEquals(HttpStatusCode.PARTIAL_CONTENT.getStatusCode(), response.getStatusCode());
+    assertEquals("0", write(response));
+
+    response = process(MediaContent.of(DATA), "bytes=0-0", "\"2\"");
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    assertEquals("0123456789", write(response));
+
+    response = process(MediaContent.of(DATA), "bytes=0-0", "W/\"1\"");
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+  }
+
+  @Test
+  public void otherContentIsUntouched() {
+    final ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    request.setHeader(HttpHeader.RANGE, "bytes=0-1");
+    final ODataResponse response = new ODataResponse();
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    response.setContent(new ByteArrayInputStream(DATA));
+    MediaRangeHandler.apply(request, response);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    assertNull(response.getHeader(HttpHeader.ACCEPT_RANGES));
+  }
+
+  private ODataResponse process(final MediaContent content, final String range, final String ifRange)
+      throws Exception {
+    final ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    if (range != null) {
+      request.setHeader(HttpHeader.RANGE, range);
+    }
+    if (ifRange != null) {
+      request.setHeader(HttpHeader.IF_RANGE, ifRange);
+    }
+    final EntityMediaObject media = new EntityMediaObject();
+    media.setContent(content);
+    final ODataResponse response = new ODataResponse();
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    response.setHeader(HttpHeader.ETAG, "\"1\"");
+    response.setODataContent(new FixedFormatSerializerImpl().mediaEntityStreamed(media).getODataContent());
+    MediaRangeHandler.apply(request, response);
+    return response;
+  }
+
+  private String write(final ODataResponse response) throws Exception {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    response.getODataContent().write(output);
+    return new String(output.toByteArray(), StandardCharsets.US_ASCII);
+  }
+}
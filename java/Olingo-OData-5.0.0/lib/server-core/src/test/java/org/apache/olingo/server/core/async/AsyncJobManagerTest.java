@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.async;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.prefer.Preferences;
+import org.apache.olingo.server.core.prefer.PreferencesImpl;
+import org.junit.After;
+import org.junit.Test;
+
+public class AsyncJobManagerTest {
+
+  private static final String CRLF = "\r\n";
+  private static final String STATUS_MONITOR = "http://host/service/status";
+
+  private AsyncJobManager manager;
+
+  @After
+  public void tearDown() {
+    if (manager != null) {
+      manager.shutdown();
+    }
+  }
+
+  @Test
+  public void synchronousWithoutPreference() throws Exception {
+    manager = AsyncJobManager.with().build();
+    ODataResponse response = new ODataResponse();
+    manager.process(new ODataRequest(), response, preferences(), textTask("result"), 0, STATUS_MONITOR);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    assertEquals("result", IOUtils.toString(response.getContent(), "UTF-8"));
+    assertTrue(manager.getJobs().isEmpty());
+  }
+
+  @Test
+  public void acceptedAndStatusMonitor() throws Exception {
+    manager = AsyncJobManager.with().build();
+    final CountDownLatch release = new CountDownLatch(1);
+    ODataResponse response = new ODataResponse();
+    manager.process(new ODataRequest(), response, preferences("respond-async"),
+        blockingTask(release, null, "result"), 0, STATUS_MONITOR);
+
+    assertEquals(HttpStatusCode.ACCEPTED.getStatusCode(), response.getStatusCode());
+    assertEquals("respond-async", response.getHeader(HttpHeader.PREFERENCE_APPLIED));
+    final String location = response.getHeader(HttpHeader.LOCATION);
+    assertTrue(location.startsWith(STATUS_MONITOR + "/"));
+    final String id = location.substring(STATUS_MONITOR.length() + 1);
+
+    ODataResponse status = status(HttpMethod.GET, id);
+    assertEquals(HttpStatusCode.ACCEPTED.getStatusCode(), status.getStatusCode());
+    assertNotNull(status.getHeader(HttpHeader.RETRY_AFTER));
+
+    release.countDown();
+    assertTrue(manager.getJob(id).await(5, TimeUnit.SECONDS));
+    assertEquals(AsyncJob.State.COMPLETED, manager.getJob(id).getState());
+
+    status = status(HttpMethod.GET, id);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), status.getStatusCode());
+    assertEquals(ContentType.APPLICATION_HTTP.toContentTypeString(), status.getHeader(HttpHeader.CONTENT_TYPE));
+    assertEquals("HTTP/1.1 200 OK" + CRLF
+        + "Content-Type: text/plain" + CRLF + CRLF
+        + "result", IOUtils.toString(status.getContent(), "UTF-8"));
+
+    // The result can be fetched only once.
+    assertEquals(HttpStatusCode.NOT_FOUND.getStatusCode(), status(HttpMethod.GET, id).getStatusCode());
+  }
+
+  @Test
+  public void waitPreference() throws Exception {
+    manager = AsyncJobManager.with().build();
+    ODataResponse response = new ODataResponse();
+    manager.process(new ODataRequest(), response, preferences("respond-async, wait=10"),
+        textTask("quick"), 0, STATUS_MONITOR);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    assertEquals("quick", IOUtils.toString(response.getContent(), "UTF-8"));
+    assertTrue(manager.getJobs().isEmpty());
+  }
+
+  @Test
+  public void failure() throws Exception {
+    manager = AsyncJobManager.with().build();
+    final AsyncJob job = manager.submit(response -> {
+      throw new ODataApplicationException("missing", HttpStatusCode.NOT_FOUND.getStatusCode(), Locale.ROOT);
+    }, 0);
+    assertTrue(job.await(5, TimeUnit.SECONDS));
+    assertEquals(AsyncJob.State.FAILED, job.getState());
+    assertTrue(job.getException() instanceof ODataApplicationException);
+
+    final ODataResponse status = status(HttpMethod.GET, job.getId());
+    assertEquals(HttpStatusCode.OK.getStatusCode(), status.getStatusCode());
+    assertEquals("HTTP/1.1 404 Not Found" + CRLF + CRLF, IOUtils.toString(status.getContent(), "UTF-8"));
+  }
+
+  @Test
+  public void cancel() throws Exception {
+    manager = AsyncJobManager.with().threads(1).build();
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch started = new CountDownLatch(1);
+    final AsyncJob running = manager.submit(blockingTask(release, started, "running"), 0);
+    final AsyncJob waiting = manager.submit(textTask("waiting"), 0);
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    assertEquals(HttpStatusCode.NO_CONTENT.getStatusCode(), status(HttpMethod.DELETE, waiting.getId()).getStatusCode());
+    assertEquals(AsyncJob.State.CANCELLED, waiting.getState());
+    assertEquals(HttpStatusCode.NOT_FOUND.getStatusCode(), status(HttpMethod.GET, waiting.getId()).getStatusCode());
+
+    assertTrue(manager.cancel(running.getId()));
+    assertEquals(AsyncJob.State.CANCELLED, running.getState());
+    assertFalse(manager.cancel(running.getId()));
+    assertTrue(manager.getJobs().isEmpty());
+  }
+
+  @Test
+  public void priority() throws Exception {
+    manager = AsyncJobManager.with().threads(1).build();
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch started = new CountDownLatch(1);
+    manager.submit(blockingTask(release, started, "first"), 0);
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+    final AsyncJob low = manager.submit(recordingTask(order, "low"), 1);
+    manager.submit(recordingTask(order, "high"), 10);
+    final AsyncJob normal = manager.submit(recordingTask(order, "normal"), 5);
+    release.countDown();
+    assertTrue(low.await(5, TimeUnit.SECONDS));
+    assertTrue(normal.isDone());
+    assertEquals(Arrays.asList("high", "normal", "low"), order);
+  }
+
+  @Test
+  public void fullQueueFallsBackToSynchronousProcessing() throws Exception {
+    manager = AsyncJobManager.with().threads(1).queueCapacity(1).build();
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch started = new CountDownLatch(1);
+    manager.submit(blockingTask(release, started, "first"), 0);
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    assertNotNull(manager.submit(textTask("queued"), 0));
+    assertNull(manager.submit(textTask("rejected"), 0));
+
+    ODataResponse response = new ODataResponse();
+    manager.process(new ODataRequest(), response, preferences("respond-async"),
+        textTask("synchronous"), 0, STATUS_MONITOR);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    assertEquals("synchronous", IOUtils.toString(response.getContent(), "UTF-8"));
+    release.countDown();
+  }
+
+  @Test
+  public void largeResultIsSpilled() throws Exception {
+    manager = AsyncJobManager.with().memoryThreshold(16).build();
+    byte[] content = new byte[100000];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) ('a' + i % 26);
+    }
+    final String text = new String(content, "US-ASCII");
+    final AsyncJob job = manager.submit(textTask(text), 0);
+    assertTrue(job.await(5, TimeUnit.SECONDS));
+    assertTrue(job.getBody().isSpilled());
+
+    final ODataResponse status = status(HttpMethod.GET, job.getId());
+    final InputStream result = status.getContent();
+    assertEquals("HTTP/1.1 200 OK" + CRLF + "Content-Type: text/plain" + CRLF + CRLF + text,
+        IOUtils.toString(result, "US-ASCII"));
+    result.close();
+    assertNull(job.getBody());
+  }
+
+  @Test
+  public void spillableBuffer() throws Exception {
+    SpillableBuffer buffer = new SpillableBuffer(4, null);
+    buffer.write(new byte[] { 1, 2, 3 }, 0, 3);
+    assertFalse(buffer.isSpilled());
+    buffer.write(new byte[] { 4, 5, 6, 7 }, 0, 4);
+    buffer.write(8);
+    buffer.close();
+    assertTrue(buffer.isSpilled());
+    assertEquals(8, buffer.size());
+    assertArrayEquals(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }, IOUtils.toByteArray(buffer.getInputStream()));
+    buffer.discard();
+  }
+
+  private ODataResponse status(final HttpMethod method, final String id) throws Exception {
+    ODataRequest request = new ODataRequest();
+    request.setMethod(method);
+    request.setRawRequestUri(STATUS_MONITOR + "/" + id);
+    ODataResponse response = new ODataResponse();
+    manager.handleStatusRequest(id, request, response);
+    return response;
+  }
+
+  private static Preferences preferences(final String... preferHeaders) {
+    return new PreferencesImpl(Arrays.asList(preferHeaders));
+  }
+
+  private static AsyncTask textTask(final String text) {
+    return response -> {
+      response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+      response.setHeader(HttpHeader.CONTENT_TYPE, ContentType.TEXT_PLAIN.toContentTypeString());
+      response.setContent(IOUtils.toInputStream(text, "US-ASCII"));
+    };
+  }
+
+  private static AsyncTask blockingTask(final CountDownLatch release, final CountDownLatch started,
+      final String text) {
+    return response -> {
+      if (started != null) {
+        started.countDown();
+      }
+      try {
+        release.await(10, TimeUnit.SECONDS);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      textTask(text).process(response);
+    };
+  }
+
+  private static AsyncTask recordingTask(final List<String> order, final String name) {
+    return response -> {
+      order.add(name);
+      textTask(name).process(response);
+    };
+  }
+}
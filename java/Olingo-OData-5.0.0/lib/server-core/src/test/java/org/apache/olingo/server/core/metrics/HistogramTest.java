@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class HistogramTest {
+
+  @Test
+  public void empty() {
+    Histogram histogram = new Histogram();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMin());
+    assertEquals(0, histogram.getMax());
+    assertEquals(0, histogram.getValueAtPercentile(50));
+    assertEquals(0.0, histogram.getMean(), 0.0);
+  }
+
+  @Test
+  public void smallValuesAreExact() {
+    Histogram histogram = new Histogram();
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i);
+    }
+    assertEquals(100, histogram.getCount());
+    assertEquals(1, histogram.getMin());
+    assertEquals(100, histogram.getMax());
+    assertEquals(50.5, histogram.getMean(), 0.0);
+    assertEquals(50, histogram.getValueAtPercentile(50));
+    assertEquals(99, histogram.getValueAtPercentile(99));
+    assertEquals(100, histogram.getValueAtPercentile(100));
+    assertEquals(1, histogram.getValueAtPercentile(0));
+  }
+
+  @Test
+  public void largeValuesWithinRelativeError() {
+    Histogram histogram = new Histogram();
+    for (long value = 1000; value <= 1000000; value += 1000) {
+      histogram.record(value * 1000);
+    }
+    assertEquals(1000, histogram.getCount());
+    assertWithinError(500000000L, histogram.getValueAtPercentile(50));
+    assertWithinError(990000000L, histogram.getValueAtPercentile(99));
+    assertEquals(1000000000L, histogram.getValueAtPercentile(100));
+  }
+
+  @Test
+  public void bucketIndexes() {
+    long previous = -1;
+    for (int index = 0; index < 3712; index++) {
+      final long upper = Histogram.highestEquivalentValue(index);
+      assertTrue(upper > previous);
+      assertEquals(index, Histogram.indexOf(upper));
+      assertEquals(index, Histogram.indexOf(previous + 1));
+      previous = upper;
+    }
+    assertEquals(Long.MAX_VALUE, previous);
+  }
+
+  @Test
+  public void negativeValuesAndReset() {
+    Histogram histogram = new Histogram();
+    histogram.record(-5);
+    assertEquals(0, histogram.getMax());
+    assertEquals(1, histogram.getCount());
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    histogram.record(7);
+    assertEquals(7, histogram.getMin());
+  }
+
+  private static void assertWithinError(final long expected, final long actual) {
+    assertTrue("expected " + expected + " but was " + actual,
+        Math.abs(actual - expected) <= expected / 64);
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Collections;
+
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.metrics.MetricTags;
+import org.apache.olingo.server.api.metrics.RequestStage;
+import org.junit.Test;
+
+public class InMemoryRequestMetricsTest {
+
+  private static final MetricTags PEOPLE = new MetricTags(HttpMethod.GET, MetricTags.KIND_ENTITY_SET, "People", 200);
+  private static final MetricTags ORDERS = new MetricTags(HttpMethod.GET, MetricTags.KIND_ENTITY_SET, "Orders", 200);
+
+  @Test
+  public void stagesPerTags() {
+    InMemoryRequestMetrics metrics = new InMemoryRequestMetrics();
+    metrics.recordStage(RequestStage.PARSE_URI, PEOPLE, 10);
+    metrics.recordStage(RequestStage.PARSE_URI, PEOPLE, 30);
+    metrics.recordStage(RequestStage.PARSE_URI, ORDERS, 20);
+    metrics.recordStage(RequestStage.DISPATCH, ORDERS, 100);
+
+    assertEquals(3, metrics.getStage(RequestStage.PARSE_URI).getCount());
+    assertEquals(2, metrics.getStage(RequestStage.PARSE_URI, PEOPLE).getCount());
+    assertEquals(30, metrics.getStage(RequestStage.PARSE_URI, PEOPLE).getMax());
+    assertEquals(20, metrics.getStage(RequestStage.PARSE_URI,
+        new MetricTags(HttpMethod.GET, MetricTags.KIND_ENTITY_SET, "Orders", 200)).getMax());
+    assertNull(metrics.getStage(RequestStage.DISPATCH, PEOPLE));
+    assertEquals(Collections.singleton(ORDERS), metrics.getStageByTags(RequestStage.DISPATCH).keySet());
+    assertEquals(0, metrics.getStage(RequestStage.WRITE).getCount());
+  }
+
+  @Test
+  public void payloadEntitiesAndCaches() {
+    InMemoryRequestMetrics metrics = new InMemoryRequestMetrics();
+    metrics.recordPayloadSize(PEOPLE, 1024);
+    metrics.recordEntityCount(PEOPLE, 17);
+    metrics.recordCacheAccess("metadata", true);
+    metrics.recordCacheAccess("metadata", true);
+    metrics.recordCacheAccess("metadata", false);
+
+    assertEquals(1024, metrics.getPayloadSizes(PEOPLE).getMax());
+    assertEquals(1, metrics.getPayloadSizes().getCount());
+    assertEquals(17, metrics.getEntityCounts(PEOPLE).getMax());
+    assertNull(metrics.getEntityCounts(ORDERS));
+    assertEquals(2, metrics.getCacheHits("metadata"));
+    assertEquals(1, metrics.getCacheMisses("metadata"));
+    assertEquals(0, metrics.getCacheHits("other"));
+
+    metrics.reset();
+    assertEquals(0, metrics.getPayloadSizes().getCount());
+    assertEquals(0, metrics.getCacheHits("metadata"));
+  }
+
+  @Test
+  public void measurementReportsBufferedStages() {
+    InMemoryRequestMetrics metrics = new InMemoryRequestMetrics();
+    RequestMeasurement measurement = new RequestMeasurement();
+    final long started = measurement.start();
+    measurement.stop(RequestStage.PARSE_URI, started - 5);
+    measurement.setPayloadSize(42);
+    measurement.report(metrics, HttpMethod.POST, null, 400);
+
+    final MetricTags tags = new MetricTags(HttpMethod.POST, MetricTags.KIND_UNKNOWN, null, 400);
+    assertEquals(1, metrics.getStage(RequestStage.PARSE_URI, tags).getCount());
+    assertEquals(1, metrics.getStage(RequestStage.TOTAL, tags).getCount());
+    assertNull(metrics.getStage(RequestStage.VALIDATE, tags));
+    assertEquals(42, metrics.getPayloadSizes(tags).getMax());
+  }
+}
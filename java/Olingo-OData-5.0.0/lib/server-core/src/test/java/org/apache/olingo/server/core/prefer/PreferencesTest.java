@@ -98,6 +98,18 @@ public class PreferencesTest {
     assertEquals(Integer.valueOf(1), preferences.getWait());
   }
 
+  @Test
+  public void repeatedValues() {
+    final String value = "return=minimal, odata.callback;url=\"callbackURI\", wait=1";
+    final Preferences preferences = new PreferencesImpl(Collections.singleton(value));
+    final Preferences repeated = new PreferencesImpl(Arrays.asList(value, "wait=2"));
+    assertEquals(Return.MINIMAL, repeated.getReturn());
+    assertEquals(URI.create("callbackURI"), repeated.getCallback());
+    assertEquals(Integer.valueOf(1), repeated.getWait());
+    assertEquals(preferences.getPreference("odata.callback").getParameters(),
+        repeated.getPreference("odata.callback").getParameters());
+  }
+
   @Test
   public void multipleParameters() {
     final Preferences preferences = new PreferencesImpl(Collections.singleton(
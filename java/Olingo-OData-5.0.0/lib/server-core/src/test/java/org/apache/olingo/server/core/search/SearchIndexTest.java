@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.ComplexValue;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchExpression;
+import org.apache.olingo.server.core.uri.parser.search.SearchParser;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SearchIndexTest {
+
+  private SearchIndex<Integer> index;
+
+  @Before
+  public void setUp() {
+    index = new SearchIndex<>();
+    index.put(1, entity("The quick brown fox", "jumps over the lazy dog"));
+    index.put(2, entity("A quick movement", "of the enemy"));
+    index.put(3, entity("Brown bears", "eat fox food"));
+  }
+
+  @Test
+  public void term() throws Exception {
+    assertEquals(Arrays.asList(1, 2), search("quick"));
+    assertEquals(Arrays.asList(1, 3), search("FOX"));
+    assertEquals(Collections.emptyList(), search("cat"));
+  }
+
+  @Test
+  public void and() throws Exception {
+    assertEquals(Collections.singletonList(1), search("quick AND fox"));
+    assertEquals(Collections.singletonList(1), search("quick fox"));
+    assertEquals(Collections.emptyList(), search("cat AND fox"));
+  }
+
+  @Test
+  public void or() throws Exception {
+    assertEquals(Arrays.asList(1, 2, 3), search("movement OR fox"));
+    assertEquals(Arrays.asList(2, 3), search("enemy OR bears"));
+  }
+
+  @Test
+  public void not() throws Exception {
+    assertEquals(Collections.singletonList(2), search("NOT fox"));
+    assertEquals(Collections.singletonList(3), search("fox AND NOT quick"));
+    assertEquals(Collections.singletonList(3), search("NOT quick AND fox"));
+  }
+
+  @Test
+  public void phrase() throws Exception {
+    assertEquals(Collections.singletonList(1), search("\"brown fox\""));
+    assertEquals(Collections.singletonList(3), search("\"fox food\""));
+    assertEquals(Collections.emptyList(), search("\"fox brown\""));
+    // A phrase never spans two property values.
+    assertEquals(Collections.emptyList(), search("\"fox jumps\""));
+  }
+
+  @Test
+  public void ranked() throws Exception {
+    index.put(4, entity("fox fox fox", null));
+    assertEquals(Arrays.asList(4, 1, 3), index.search(parse("fox"), true));
+    assertEquals(Arrays.asList(1, 3, 4), index.search(parse("fox"), false));
+  }
+
+  @Test
+  public void update() throws Exception {
+    index.put(2, entity("A slow movement", null));
+    assertEquals(Collections.singletonList(1), search("quick"));
+    assertEquals(Collections.singletonList(2), search("slow"));
+    assertEquals(3, index.size());
+
+    assertTrue(index.remove(1));
+    assertFalse(index.remove(1));
+    assertEquals(Collections.singletonList(3), search("fox"));
+    assertEquals(Arrays.asList(3, 2), index.search(null, false));
+  }
+
+  @Test
+  public void compaction() throws Exception {
+    for (int i = 10; i < 3000; i++) {
+      index.put(i, entity("filler " + i, null));
+    }
+    for (int i = 10; i < 3000; i++) {
+      index.remove(i);
+    }
+    assertEquals(3, index.size());
+    assertEquals(Arrays.asList(1, 3), search("fox"));
+    assertEquals(Collections.emptyList(), search("filler"));
+    index.put(5, entity("another fox", null));
+    assertEquals(Arrays.asList(1, 3, 5), search("fox"));
+  }
+
+  @Test
+  public void compactionOnUpdate() throws Exception {
+    for (int i = 0; i < 10000; i++) {
+      index.put(2, entity("revision " + i, null));
+      assertTrue(index.documentCount() <= 3 + 1025);
+    }
+    assertEquals(3, index.size());
+    assertEquals(Collections.singletonList(2), search("9999"));
+    assertEquals(Collections.emptyList(), search("9998"));
+    assertEquals(Arrays.asList(1, 3, 2), index.search(null, false));
+  }
+
+  @Test
+  public void nestedValues() throws Exception {
+    ComplexValue address = new ComplexValue();
+    address.getValue().add(new Property(null, "City", ValueType.PRIMITIVE, "Walldorf"));
+    Entity entity = new Entity()
+        .addProperty(new Property(null, "Address", ValueType.COMPLEX, address))
+        .addProperty(new Property(null, "Tags", ValueType.COLLECTION_PRIMITIVE, Arrays.asList("red", "green")))
+        .addProperty(new Property(null, "Number", ValueType.PRIMITIVE, 4711));
+    index.put(7, entity);
+    assertEquals(Collections.singletonList(7), search("walldorf"));
+    assertEquals(Collections.singletonList(7), search("green"));
+    assertEquals(Collections.singletonList(7), search("4711"));
+  }
+
+  @Test
+  public void propertyAnalyzer() throws Exception {
+    SearchIndex<Integer> caseSensitive = new SearchIndex<>();
+    caseSensitive.setAnalyzer("Title", new StandardSearchAnalyzer(false));
+    caseSensitive.setAnalyzer("Text", null);
+    caseSensitive.put(1, entity("Fox", "fox"));
+    assertEquals(Collections.emptyList(), caseSensitive.search(parse("fox"), false));
+    assertEquals(Collections.singletonList(1), caseSensitive.search(parse("Fox"), false));
+  }
+
+  private List<Integer> search(final String searchQuery) throws Exception {
+    return index.search(parse(searchQuery), false);
+  }
+
+  private static SearchExpression parse(final String searchQuery) throws Exception {
+    return new SearchParser().parse(searchQuery).getSearchExpression();
+  }
+
+  private static Entity entity(final String title, final String text) {
+    return new Entity()
+        .addProperty(new Property(null, "Title", ValueType.PRIMITIVE, title))
+        .addProperty(new Property(null, "Text", ValueType.PRIMITIVE, text));
+  }
+}
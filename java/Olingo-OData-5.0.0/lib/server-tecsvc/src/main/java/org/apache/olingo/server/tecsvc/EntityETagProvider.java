@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc;
+
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.EdmBindingTarget;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edm.EdmSingleton;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.etag.ETagProvider;
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.tecsvc.data.DataProvider;
+
+/**
+ * Looks up the ETags of the in-memory entities of the data provider.
+ * Collection ETags are not supported because the data provider does not keep a version per entity set.
+ */
+public class EntityETagProvider implements ETagProvider {
+
+  private final DataProvider dataProvider;
+
+  public EntityETagProvider(final DataProvider dataProvider) {
+    this.dataProvider = dataProvider;
+  }
+
+  @Override
+  public String getETag(final EdmBindingTarget entitySetOrSingleton, final List<UriParameter> keyPredicates)
+      throws ODataApplicationException {
+    final Entity entity = read(entitySetOrSingleton, keyPredicates);
+    return entity == null ? null : entity.getETag();
+  }
+
+  @Override
+  public String getMediaETag(final EdmBindingTarget entitySetOrSingleton, final List<UriParameter> keyPredicates)
+      throws ODataApplicationException {
+    final Entity entity = read(entitySetOrSingleton, keyPredicates);
+    return entity == null ? null : entity.getMediaETag();
+  }
+
+  @Override
+  public String getCollectionETag(final EdmEntitySet entitySet) {
+    return null;
+  }
+
+  private Entity read(final EdmBindingTarget entitySetOrSingleton, final List<UriParameter> keyPredicates)
+      throws ODataApplicationException {
+    return entitySetOrSingleton instanceof EdmSingleton ?
+        dataProvider.read((EdmSingleton) entitySetOrSingleton) :
+        dataProvider.read((EdmEntitySet) entitySetOrSingleton, keyPredicates);
+  }
+}
@@ -87,6 +87,7 @@ public class TechnicalServlet extends HttpServlet {
       handler.register(new TechnicalBatchProcessor(dataProvider));
       // Register helpers.
       handler.register(new ETagSupport());
+      handler.register(new EntityETagProvider(dataProvider));
       handler.register(new DefaultDebugSupport());
       // Process the request.
       handler.process(request, response);
@@ -166,7 +166,6 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
     } else {
     	response.setContent(odata.createFixedFormatSerializer().binary(dataProvider.readMedia(entity)));
     }
-    response.setContent(odata.createFixedFormatSerializer().binary(dataProvider.readMedia(entity)));
     response.setStatusCode(HttpStatusCode.OK.getStatusCode());
     response.setHeader(HttpHeader.CONTENT_TYPE, entity.getMediaContentType());
     if (entity.getMediaETag() != null) {
@@ -492,10 +491,8 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
     final ExpandOption expand = uriInfo.getExpandOption();
     final SelectOption select = uriInfo.getSelectOption();
 
-    final ExpandSystemQueryOptionHandler expandHandler = new ExpandSystemQueryOptionHandler();
-    final Entity entitySerialization = expandHandler.transformEntityGraphToTree(entity, edmEntitySet, expand, null);
-    expandHandler.applyExpandQueryOptions(entitySerialization, edmEntitySet, expand, uriInfo,
-        serviceMetadata.getEdm());
+    final Entity entitySerialization = new ExpandSystemQueryOptionHandler().expand(entity, edmEntitySet, expand,
+        uriInfo, serviceMetadata.getEdm());
 
     final SerializerResult serializerResult = isReference ?
         serializeReference(entity, edmEntitySet, requestedFormat) :
@@ -632,16 +629,10 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
     final ExpandOption expand = uriInfo.getExpandOption();
     final SelectOption select = uriInfo.getSelectOption();
 
-    // Transform the entity graph to a tree. The construction is controlled by the expand tree.
-    // Apply all expand system query options to the tree.
-    // So the expanded navigation properties can be modified for serialization,
-    // without affecting the data stored in the database.
-    final ExpandSystemQueryOptionHandler expandHandler = new ExpandSystemQueryOptionHandler();
-    final EntityCollection entitySetSerialization = expandHandler.transformEntitySetGraphToTree(entitySet,
-        edmEntitySet,
-        expand, null);
-    expandHandler.applyExpandQueryOptions(entitySetSerialization, edmEntitySet, expand, uriInfo,
-        serviceMetadata.getEdm());
+    // Attach the expanded navigation properties, level by level, and apply their system query options.
+    // Entities getting expanded links are copied, so the data stored in the database is not affected.
+    final EntityCollection entitySetSerialization = new ExpandSystemQueryOptionHandler().expand(entitySet,
+        edmEntitySet, expand, uriInfo, serviceMetadata.getEdm());
     final CountOption countOption = uriInfo.getCountOption();
     final List<SystemQueryOption> systemQueryOptions = uriInfo.getSystemQueryOptions();
     String deltaToken = null;
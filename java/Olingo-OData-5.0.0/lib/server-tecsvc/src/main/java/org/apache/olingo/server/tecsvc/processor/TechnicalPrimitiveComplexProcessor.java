@@ -27,6 +27,7 @@ import java.util.Locale;
 import org.apache.olingo.commons.api.data.ContextURL;
 import org.apache.olingo.commons.api.data.ContextURL.Builder;
 import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityMediaObject;
 import org.apache.olingo.commons.api.data.Link;
 import org.apache.olingo.commons.api.data.Property;
 import org.apache.olingo.commons.api.edm.EdmComplexType;
@@ -278,7 +279,10 @@ public class TechnicalPrimitiveComplexProcessor extends TechnicalProcessor
             response.setContent(serializePrimitiveValue(property, edmProperty, (EdmPrimitiveType) type, returnType));
           }else if(representationType == RepresentationType.PRIMITIVE && type.getFullQualifiedName()
               .getFullQualifiedNameAsString().equals(EDMSTREAM)){
-            response.setContent(odata.createFixedFormatSerializer().binary(dataProvider.readStreamProperty(property)));
+            final EntityMediaObject streamValue = new EntityMediaObject();
+            streamValue.setBytes(dataProvider.readStreamProperty(property));
+            response.setODataContent(odata.createFixedFormatSerializer()
+                .mediaEntityStreamed(streamValue).getODataContent());
             response.setStatusCode(HttpStatusCode.OK.getStatusCode());
             response.setHeader(HttpHeader.CONTENT_TYPE, ((Link)property.getValue()).getType());
             if (entity.getMediaETag() != null) {
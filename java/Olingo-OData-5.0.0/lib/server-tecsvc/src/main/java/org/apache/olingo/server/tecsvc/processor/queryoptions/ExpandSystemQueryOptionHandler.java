@@ -19,9 +19,11 @@
 package org.apache.olingo.server.tecsvc.processor.queryoptions;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.ListIterator;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.olingo.commons.api.data.Entity;
@@ -29,164 +31,220 @@ import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.data.Link;
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmBindingTarget;
-import org.apache.olingo.commons.api.edm.EdmElement;
-import org.apache.olingo.commons.api.edm.EdmEntitySet;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
-import org.apache.olingo.commons.api.edm.EdmNavigationPropertyBinding;
-import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.uri.UriInfoResource;
 import org.apache.olingo.server.api.uri.UriResource;
 import org.apache.olingo.server.api.uri.UriResourceNavigation;
-import org.apache.olingo.server.api.uri.queryoption.CountOption;
 import org.apache.olingo.server.api.uri.queryoption.ExpandItem;
 import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
-import org.apache.olingo.server.api.uri.queryoption.FilterOption;
-import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
-import org.apache.olingo.server.api.uri.queryoption.SkipOption;
-import org.apache.olingo.server.api.uri.queryoption.TopOption;
+import org.apache.olingo.server.api.uri.queryoption.LevelsExpandOption;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.CountHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.FilterHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.OrderByHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.SkipHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.TopHandler;
 
+/**
+ * Executes the $expand system query option.
+ * <br/>
+ * Expansion proceeds level by level: the related entities of all entities of one level are requested from the
+ * {@link NavigationLoader} with a single call per navigation property, the inner system query options
+ * ($filter, $orderby, $count, $skip, $top) are applied to each expanded collection, and the next level is
+ * expanded for all remaining related entities at once. $levels is supported, including <code>max</code>.
+ * <br/>
+ * The stored data is never modified. Only entities which get expanded navigation links attached are
+ * copied, and only shallowly; all other entities and all properties are shared with the data store.
+ */
 public class ExpandSystemQueryOptionHandler {
 
-  public void applyExpandQueryOptions(final EntityCollection entitySet, final EdmEntitySet edmEntitySet,
-      final ExpandOption expandOption, final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
-    if (expandOption == null) {
-      return;
-    }
+  private final NavigationLoader navigationLoader;
 
-    for (final Entity entity : entitySet.getEntities()) {
-      applyExpandOptionToEntity(entity, edmEntitySet, expandOption, uriInfo, edm);
-    }
+  public ExpandSystemQueryOptionHandler() {
+    this(new LinkedNavigationLoader());
+  }
+
+  public ExpandSystemQueryOptionHandler(final NavigationLoader navigationLoader) {
+    this.navigationLoader = navigationLoader;
   }
 
-  public void applyExpandQueryOptions(final Entity entity, final EdmEntitySet edmEntitySet,
-      final ExpandOption expandOption, final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
-    if (expandOption == null) {
-      return;
+  /**
+   * Expands the given entity collection.
+   * @return a new entity collection ready for serialization
+   */
+  public EntityCollection expand(final EntityCollection entitySet, final EdmBindingTarget edmBindingTarget,
+      final ExpandOption expand, final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
+    final EntityCollection result = newEntitySet(entitySet);
+    if (hasExpandItems(expand) && edmBindingTarget != null) {
+      final Map<Entity, Entity> copies = new IdentityHashMap<Entity, Entity>();
+      final List<Entity> entities = new ArrayList<Entity>();
+      for (final Entity entity : entitySet.getEntities()) {
+        result.getEntities().add(copy(entity, copies, entities, null));
+      }
+      expand(entities, edmBindingTarget, edmBindingTarget.getEntityType(), expand, uriInfo, edm);
+    } else {
+      result.getEntities().addAll(entitySet.getEntities());
     }
+    return result;
+  }
 
-    applyExpandOptionToEntity(entity, edmEntitySet, expandOption, uriInfo, edm);
+  /**
+   * Expands the given entity.
+   * @return the entity ready for serialization; a copy if anything has been expanded
+   */
+  public Entity expand(final Entity entity, final EdmBindingTarget edmBindingTarget,
+      final ExpandOption expand, final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
+    if (!hasExpandItems(expand) || edmBindingTarget == null) {
+      return entity;
+    }
+    final Entity result = newEntity(entity);
+    expand(Collections.singletonList(result), edmBindingTarget, edmBindingTarget.getEntityType(), expand,
+        uriInfo, edm);
+    return result;
   }
 
-  private void applyExpandOptionToEntity(final Entity entity, final EdmBindingTarget edmBindingTarget,
-      final ExpandOption expandOption, final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
+  private void expand(final List<Entity> entities, final EdmBindingTarget edmBindingTarget,
+      final EdmEntityType edmEntityType, final ExpandOption expand, final UriInfoResource uriInfo, final Edm edm)
+      throws ODataApplicationException {
+    for (final ExpandItem item : expand.getExpandItems()) {
+      final int levels = getLevels(item);
+      // Only unbounded expansions have to be guarded against cycles in the data.
+      final Set<Entity> visited = levels == Integer.MAX_VALUE ?
+          Collections.newSetFromMap(new IdentityHashMap<Entity, Boolean>()) :
+          null;
+      expand(entities, edmBindingTarget, edmEntityType, item, levels, uriInfo, edm, visited);
+    }
+  }
 
-    final EdmEntityType entityType = edmBindingTarget.getEntityType();
+  private void expand(final List<Entity> entities, final EdmBindingTarget edmBindingTarget,
+      final EdmEntityType edmEntityType, final ExpandItem item, final int levels,
+      final UriInfoResource uriInfo, final Edm edm, final Set<Entity> visited) throws ODataApplicationException {
+    for (final EdmNavigationProperty navigationProperty : getNavigationProperties(item, edmEntityType)) {
+      expand(entities, edmBindingTarget, navigationProperty, item, levels, uriInfo, edm, visited);
+    }
+  }
 
-    for (ExpandItem item : expandOption.getExpandItems()) {
-      if(item.getLevelsOption() != null) {
-        throw new ODataApplicationException("$levels is not implemented", 
-            HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+  /**
+   * Expands one navigation property for all given entities, then the next level for all related entities.
+   */
+  private void expand(final List<Entity> entities, final EdmBindingTarget edmBindingTarget,
+      final EdmNavigationProperty navigationProperty, final ExpandItem item, final int levels,
+      final UriInfoResource uriInfo, final Edm edm, final Set<Entity> visited) throws ODataApplicationException {
+    final String name = navigationProperty.getName();
+    final List<List<Entity>> related = navigationLoader.load(edmBindingTarget, navigationProperty, entities);
+    final boolean expandNext = levels > 1 || hasExpandItems(item.getExpandOption());
+
+    // Related entities to be expanded further are copied once, even if related to several entities.
+    final Map<Entity, Entity> copies = new IdentityHashMap<Entity, Entity>();
+    final List<Entity> nextLevel = new ArrayList<Entity>();
+
+    for (int index = 0; index < entities.size(); index++) {
+      final Entity entity = entities.get(index);
+      final List<Entity> targets = related.get(index);
+      final Link storedLink = entity.getNavigationLink(name);
+      if (storedLink == null && targets.isEmpty()) {
+        continue;
       }
-      
-      List<EdmNavigationProperty> navigationProperties = new ArrayList<EdmNavigationProperty>();
-      if(item.isStar()) {
-        List<EdmNavigationPropertyBinding> bindings = edmBindingTarget.getNavigationPropertyBindings();
-        for (EdmNavigationPropertyBinding binding : bindings) {
-          EdmElement property = entityType.getProperty(binding.getPath());
-          if(property instanceof EdmNavigationProperty) {
-            navigationProperties.add((EdmNavigationProperty) property);
+
+      final Link link = newLink(storedLink, name);
+      if (navigationProperty.isCollection()) {
+        final EntityCollection inlineEntitySet = new EntityCollection();
+        inlineEntitySet.getEntities().addAll(targets);
+        applyOptionsToEntityCollection(inlineEntitySet, item, uriInfo, edm);
+        if (expandNext) {
+          final ListIterator<Entity> iterator = inlineEntitySet.getEntities().listIterator();
+          while (iterator.hasNext()) {
+            iterator.set(copy(iterator.next(), copies, nextLevel, visited));
           }
         }
-      } else {
-        final List<UriResource> uriResourceParts = item.getResourcePath().getUriResourceParts();
-        if (uriResourceParts.get(0) instanceof UriResourceNavigation) {
-          navigationProperties.add(((UriResourceNavigation) uriResourceParts.get(0)).getProperty());
-        }
+        link.setInlineEntitySet(inlineEntitySet);
+      } else if (!targets.isEmpty()) {
+        link.setInlineEntity(expandNext ? copy(targets.get(0), copies, nextLevel, visited) : targets.get(0));
       }
+      setNavigationLink(entity, link);
+    }
 
-      for (EdmNavigationProperty navigationProperty: navigationProperties) {
-        final String navPropertyName = navigationProperty.getName();
-        final EdmBindingTarget targetEdmEntitySet = edmBindingTarget.getRelatedBindingTarget(navPropertyName);
-
-        final Link link = entity.getNavigationLink(navPropertyName);
-        if (link != null && entityType.getNavigationProperty(navPropertyName).isCollection()) {
-          applyOptionsToEntityCollection(link.getInlineEntitySet(),
-              targetEdmEntitySet,
-              item.getFilterOption(),
-              item.getOrderByOption(),
-              item.getCountOption(),
-              item.getSkipOption(),
-              item.getTopOption(),
-              item.getExpandOption(),
-              uriInfo, edm);
-        }
+    if (!nextLevel.isEmpty()) {
+      final EdmBindingTarget nextBindingTarget = edmBindingTarget == null ? null :
+          edmBindingTarget.getRelatedBindingTarget(name);
+      final EdmEntityType nextEntityType = navigationProperty.getType();
+      if (levels > 1) {
+        expand(nextLevel, nextBindingTarget, nextEntityType, item,
+            levels == Integer.MAX_VALUE ? levels : levels - 1, uriInfo, edm, visited);
+      }
+      if (hasExpandItems(item.getExpandOption())) {
+        expand(nextLevel, nextBindingTarget, nextEntityType, item.getExpandOption(), uriInfo, edm);
       }
     }
   }
 
-  private void applyOptionsToEntityCollection(final EntityCollection entitySet,
-      final EdmBindingTarget edmBindingTarget,
-      final FilterOption filterOption, final OrderByOption orderByOption, final CountOption countOption,
-      final SkipOption skipOption, final TopOption topOption, final ExpandOption expandOption,
-      final UriInfoResource uriInfo, final Edm edm)
-      throws ODataApplicationException {
+  private void applyOptionsToEntityCollection(final EntityCollection entitySet, final ExpandItem item,
+      final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
+    FilterHandler.applyFilterSystemQuery(item.getFilterOption(), entitySet, uriInfo, edm);
+    OrderByHandler.applyOrderByOption(item.getOrderByOption(), entitySet, uriInfo, edm);
+    if (item.hasCountPath()) {
+      entitySet.setCount(entitySet.getEntities().size());
+    }
+    CountHandler.applyCountSystemQueryOption(item.getCountOption(), entitySet);
+    SkipHandler.applySkipSystemQueryHandler(item.getSkipOption(), entitySet);
+    TopHandler.applyTopSystemQueryOption(item.getTopOption(), entitySet);
+  }
 
-    FilterHandler.applyFilterSystemQuery(filterOption, entitySet, uriInfo, edm);
-    OrderByHandler.applyOrderByOption(orderByOption, entitySet, uriInfo, edm);
-    CountHandler.applyCountSystemQueryOption(countOption, entitySet);
-    SkipHandler.applySkipSystemQueryHandler(skipOption, entitySet);
-    TopHandler.applyTopSystemQueryOption(topOption, entitySet);
+  private int getLevels(final ExpandItem item) {
+    final LevelsExpandOption levelsOption = item.getLevelsOption();
+    return levelsOption == null ? 1 : levelsOption.isMax() ? Integer.MAX_VALUE : levelsOption.getValue();
+  }
 
-    // Apply nested expand system query options to remaining entities
-    if (expandOption != null) {
-      for (final Entity entity : entitySet.getEntities()) {
-        applyExpandOptionToEntity(entity, edmBindingTarget, expandOption, uriInfo, edm);
+  private List<EdmNavigationProperty> getNavigationProperties(final ExpandItem item,
+      final EdmEntityType edmEntityType) {
+    final List<EdmNavigationProperty> navigationProperties = new ArrayList<EdmNavigationProperty>();
+    if (item.isStar()) {
+      for (final String name : edmEntityType.getNavigationPropertyNames()) {
+        navigationProperties.add(edmEntityType.getNavigationProperty(name));
+      }
+    } else if (item.getResourcePath() != null) {
+      final List<UriResource> uriResourceParts = item.getResourcePath().getUriResourceParts();
+      if (uriResourceParts.get(0) instanceof UriResourceNavigation) {
+        // On deeper $levels the navigation property is looked up again in the type reached so far.
+        final EdmNavigationProperty navigationProperty = edmEntityType.getNavigationProperty(
+            ((UriResourceNavigation) uriResourceParts.get(0)).getProperty().getName());
+        if (navigationProperty != null) {
+          navigationProperties.add(navigationProperty);
+        }
       }
     }
+    return navigationProperties;
   }
 
-  public EntityCollection transformEntitySetGraphToTree(final EntityCollection entitySet,
-      final EdmBindingTarget edmBindingTarget, final ExpandOption expand, 
-      final ExpandItem expandItem) throws ODataApplicationException {
-
-    final EntityCollection newEntitySet = newEntitySet(entitySet);
-
-    for (final Entity entity : entitySet.getEntities()) {
-      newEntitySet.getEntities().add(transformEntityGraphToTree(entity, edmBindingTarget, expand, expandItem));
-    }
-    if (expandItem != null && expandItem.hasCountPath()) {
-      newEntitySet.setCount(entitySet.getEntities().size());
+  /**
+   * Copies the given entity for further expansion, once per level.
+   * With a set of visited entities (<code>$levels=max</code>), entities already expanded before are not
+   * copied again, which ends expansions along cycles in the data.
+   */
+  private Entity copy(final Entity entity, final Map<Entity, Entity> copies, final List<Entity> copied,
+      final Set<Entity> visited) {
+    Entity copy = copies.get(entity);
+    if (copy == null) {
+      if (visited != null && !visited.add(entity)) {
+        return entity;
+      }
+      copy = newEntity(entity);
+      copies.put(entity, copy);
+      copied.add(copy);
     }
-    return newEntitySet;
+    return copy;
   }
 
-  public Entity transformEntityGraphToTree(final Entity entity, final EdmBindingTarget edmEntitySet,
-      final ExpandOption expand, final ExpandItem parentExpandItem) throws ODataApplicationException {
-    final Entity newEntity = newEntity(entity);
-    if (hasExpandItems(expand)) {
-      final boolean expandAll = expandAll(expand);
-      final Set<String> expanded = expandAll ? null : getExpandedPropertyNames(expand.getExpandItems());
-      final EdmEntityType edmType = edmEntitySet.getEntityType();
-
-      for (final Link link : entity.getNavigationLinks()) {
-        final String propertyName = link.getTitle();
-
-        if (expandAll || expanded.contains(propertyName)) {
-          final EdmNavigationProperty edmNavigationProperty = edmType.getNavigationProperty(propertyName);
-          final EdmBindingTarget edmBindingTarget = edmEntitySet.getRelatedBindingTarget(propertyName);
-          final Link newLink = newLink(link);
-          newEntity.getNavigationLinks().add(newLink);
-          final ExpandItem expandItem = getInnerExpandItem(expand, propertyName);
-
-          if (edmNavigationProperty.isCollection()) {
-            newLink.setInlineEntitySet(transformEntitySetGraphToTree(link.getInlineEntitySet(),
-                edmBindingTarget, expandItem.getExpandOption(), expandItem));
-          } else {
-            newLink.setInlineEntity(transformEntityGraphToTree(link.getInlineEntity(),
-                edmBindingTarget,expandItem.getExpandOption(), expandItem));
-          }
-        }
+  private void setNavigationLink(final Entity entity, final Link link) {
+    final ListIterator<Link> iterator = entity.getNavigationLinks().listIterator();
+    while (iterator.hasNext()) {
+      if (link.getTitle().equals(iterator.next().getTitle())) {
+        iterator.set(link);
+        return;
       }
-
     }
-    return newEntity;
+    entity.getNavigationLinks().add(link);
   }
 
   public EntityCollection newEntitySet(final EntityCollection entitySet) {
@@ -221,54 +279,19 @@ public class ExpandSystemQueryOptionHandler {
     return newEntity;
   }
 
-  private Link newLink(final Link link) {
+  private Link newLink(final Link link, final String name) {
     final Link newLink = new Link();
-    newLink.setMediaETag(link.getMediaETag());
-    newLink.setTitle(link.getTitle());
-    newLink.setType(link.getType());
-    newLink.setRel(link.getRel());
-    newLink.setHref(link.getHref());
+    newLink.setTitle(name);
+    if (link != null) {
+      newLink.setMediaETag(link.getMediaETag());
+      newLink.setType(link.getType());
+      newLink.setRel(link.getRel());
+      newLink.setHref(link.getHref());
+    }
     return newLink;
   }
 
   private boolean hasExpandItems(final ExpandOption expand) {
     return expand != null && expand.getExpandItems() != null && !expand.getExpandItems().isEmpty();
   }
-
-  private boolean expandAll(final ExpandOption expand) {
-    for (final ExpandItem item : expand.getExpandItems()) {
-      if (item.isStar()) {
-        return true;
-      }
-    }
-    return false;
-  }
-
-  private Set<String> getExpandedPropertyNames(final List<ExpandItem> expandItems) throws ODataApplicationException {
-    Set<String> expanded = new HashSet<String>();
-    for (final ExpandItem item : expandItems) {
-      final List<UriResource> resourceParts = item.getResourcePath().getUriResourceParts();
-      final UriResource resource = resourceParts.get(0);
-      if (resource instanceof UriResourceNavigation) {
-        expanded.add(((UriResourceNavigation) resource).getProperty().getName());
-      }
-    }
-    return expanded;
-  }
-
-  private ExpandItem getInnerExpandItem(final ExpandOption expand, final String propertyName) {
-    for (final ExpandItem item : expand.getExpandItems()) {
-      if(item.isStar()) {
-        return item;
-      }
-
-      final UriResource resource = item.getResourcePath().getUriResourceParts().get(0);
-      if (resource instanceof UriResourceNavigation
-          && propertyName.equals(((UriResourceNavigation) resource).getProperty().getName())) {
-        return item;
-      }
-    }
-
-    return null;
-  }
 }
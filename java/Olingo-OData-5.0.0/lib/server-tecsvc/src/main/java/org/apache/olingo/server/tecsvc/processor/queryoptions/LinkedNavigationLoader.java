@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Link;
+import org.apache.olingo.commons.api.edm.EdmBindingTarget;
+import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
+
+/**
+ * Navigation loader for the in-memory data of the technical service, where related entities are
+ * stored inline in the navigation links of their source entities.
+ */
+public class LinkedNavigationLoader implements NavigationLoader {
+
+  @Override
+  public List<List<Entity>> load(final EdmBindingTarget source, final EdmNavigationProperty navigationProperty,
+      final List<Entity> entities) {
+    final List<List<Entity>> result = new ArrayList<List<Entity>>(entities.size());
+    for (final Entity entity : entities) {
+      final Link link = entity.getNavigationLink(navigationProperty.getName());
+      if (link == null) {
+        result.add(Collections.<Entity> emptyList());
+      } else if (navigationProperty.isCollection()) {
+        result.add(link.getInlineEntitySet() == null ?
+            Collections.<Entity> emptyList() :
+            link.getInlineEntitySet().getEntities());
+      } else {
+        result.add(link.getInlineEntity() == null ?
+            Collections.<Entity> emptyList() :
+            Collections.singletonList(link.getInlineEntity()));
+      }
+    }
+    return result;
+  }
+}
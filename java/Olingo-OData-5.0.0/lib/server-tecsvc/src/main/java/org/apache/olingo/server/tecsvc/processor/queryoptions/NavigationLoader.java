@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions;
+
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.EdmBindingTarget;
+import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
+import org.apache.olingo.server.api.ODataApplicationException;
+
+/**
+ * Loads the targets of a navigation property for many source entities at once.
+ * <br/>
+ * The {@link ExpandSystemQueryOptionHandler} calls a loader once per expanded navigation property and
+ * expand level, passing all source entities of that level. An implementation backed by a database typically
+ * collects the keys of all sources and issues a single query instead of one query per source entity.
+ */
+public interface NavigationLoader {
+
+  /**
+   * Loads the entities related to each of the given source entities.
+   *
+   * @param source binding target of the source entities
+   * @param navigationProperty navigation property to follow
+   * @param entities source entities, without duplicates
+   * @return one list of related entities per source entity, in the order of the source entities;
+   * lists may be empty but must not be <code>null</code>
+   * @throws ODataApplicationException if the related entities cannot be loaded
+   */
+  List<List<Entity>> load(EdmBindingTarget source, EdmNavigationProperty navigationProperty, List<Entity> entities)
+      throws ODataApplicationException;
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Link;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmBindingTarget;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.tecsvc.data.DataProvider;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExpandSystemQueryOptionHandlerTest {
+
+  private static final String NAV_MANY = "NavPropertyETTwoKeyNavMany";
+  private static final String NAV_ONE = "NavPropertyETKeyNavOne";
+
+  private final OData oData = OData.newInstance();
+  private final Edm edm =
+      oData.createServiceMetadata(new EdmTechProvider(), Collections.<EdmxReference> emptyList())
+      .getEdm();
+  private final EdmEntitySet esTwoKeyNav = edm.getEntityContainer().getEntitySet("ESTwoKeyNav");
+  private final DataProvider dataProvider = new DataProvider(oData, edm);
+  private final CountingNavigationLoader loader = new CountingNavigationLoader();
+
+  @Test
+  public void loadsOncePerNavigationPropertyAndLevel() throws Exception {
+    final EntityCollection stored = dataProvider.readAll(esTwoKeyNav);
+    final EntityCollection result = expand(stored, "$expand=" + NAV_MANY + "($expand=" + NAV_ONE + ")");
+
+    Assert.assertEquals(2, loader.calls.size());
+    Assert.assertEquals(NAV_MANY + ':' + stored.getEntities().size(), loader.calls.get(0));
+    Assert.assertTrue(loader.calls.get(1).startsWith(NAV_ONE + ':'));
+
+    for (int index = 0; index < stored.getEntities().size(); index++) {
+      final Entity entity = result.getEntities().get(index);
+      final Link storedLink = stored.getEntities().get(index).getNavigationLink(NAV_MANY);
+      if (storedLink == null) {
+        Assert.assertNull(entity.getNavigationLink(NAV_MANY));
+        continue;
+      }
+      final List<Entity> expanded = entity.getNavigationLink(NAV_MANY).getInlineEntitySet().getEntities();
+      Assert.assertEquals(storedLink.getInlineEntitySet().getEntities().size(), expanded.size());
+      Assert.assertEquals(storedLink.getHref(), entity.getNavigationLink(NAV_MANY).getHref());
+      for (final Entity related : expanded) {
+        Assert.assertNotNull(related.getNavigationLink(NAV_ONE).getInlineEntity());
+      }
+    }
+  }
+
+  @Test
+  public void innerOptionsDoNotModifyStoredData() throws Exception {
+    final EntityCollection stored = dataProvider.readAll(esTwoKeyNav);
+    final Entity storedEntity = stored.getEntities().get(0);
+    final int storedSize = storedEntity.getNavigationLink(NAV_MANY).getInlineEntitySet().getEntities().size();
+    Assert.assertTrue(storedSize > 1);
+
+    final Entity entity = expand(stored, "$expand=" + NAV_MANY + "($top=1;$count=true)").getEntities().get(0);
+
+    final EntityCollection expanded = entity.getNavigationLink(NAV_MANY).getInlineEntitySet();
+    Assert.assertEquals(1, expanded.getEntities().size());
+    Assert.assertEquals(Integer.valueOf(storedSize), expanded.getCount());
+    Assert.assertSame(storedEntity.getProperties().get(0), entity.getProperties().get(0));
+    Assert.assertEquals(storedSize,
+        storedEntity.getNavigationLink(NAV_MANY).getInlineEntitySet().getEntities().size());
+  }
+
+  @Test
+  public void levels() throws Exception {
+    final EntityCollection stored = dataProvider.readAll(esTwoKeyNav);
+    final EntityCollection result = expand(stored, "$expand=" + NAV_MANY + "($levels=2)");
+
+    Assert.assertEquals(2, loader.calls.size());
+    final Entity second = result.getEntities().get(0).getNavigationLink(NAV_MANY).getInlineEntitySet()
+        .getEntities().get(0);
+    Assert.assertNotNull(second.getNavigationLink(NAV_MANY).getInlineEntitySet());
+
+    loader.calls.clear();
+    expand(stored, "$expand=" + NAV_MANY + "($levels=max)");
+    Assert.assertTrue(loader.calls.size() > 1);
+  }
+
+  @Test
+  public void withoutExpandNothingIsCopied() throws Exception {
+    final EntityCollection stored = dataProvider.readAll(esTwoKeyNav);
+    final EntityCollection result = expand(stored, null);
+    Assert.assertNotSame(stored, result);
+    Assert.assertSame(stored.getEntities().get(0), result.getEntities().get(0));
+    Assert.assertTrue(loader.calls.isEmpty());
+  }
+
+  private EntityCollection expand(final EntityCollection entitySet, final String query) throws Exception {
+    final UriInfo uriInfo = new Parser(edm, oData).parseUri("ESTwoKeyNav", query, null, null);
+    return new ExpandSystemQueryOptionHandler(loader)
+        .expand(entitySet, esTwoKeyNav, uriInfo.getExpandOption(), uriInfo, edm);
+  }
+
+  private static class CountingNavigationLoader extends LinkedNavigationLoader {
+
+    private final List<String> calls = new ArrayList<String>();
+
+    @Override
+    public List<List<Entity>> load(final EdmBindingTarget source, final EdmNavigationProperty navigationProperty,
+        final List<Entity> entities) {
+      calls.add(navigationProperty.getName() + ':' + entities.size());
+      return super.load(source, navigationProperty, entities);
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmBindingTarget;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.etag.ETagProvider;
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.core.etag.ETagLookup;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Test;
+
+public class ETagLookupTest {
+
+  private static final OData odata = OData.newInstance();
+  private static final Edm edm = odata.createServiceMetadata(
+      new EdmTechProvider(), Collections.<EdmxReference> emptyList()).getEdm();
+
+  @Test
+  public void entity() throws Exception {
+    assertEquals("entity ESAllPrim 1", lookup("ESAllPrim(1)", null));
+    assertEquals("entity SI 0", lookup("SI", null));
+    assertEquals("entity ESAllPrim 1", lookup("ESAllPrim(1)", "$select=PropertyInt16"));
+  }
+
+  @Test
+  public void property() throws Exception {
+    assertEquals("entity ESAllPrim 1", lookup("ESAllPrim(1)/PropertyInt16", null));
+    assertEquals("entity ESAllPrim 1", lookup("ESAllPrim(1)/PropertyInt16/$value", null));
+    assertEquals("entity ESMixPrimCollComp 1", lookup("ESMixPrimCollComp(0)/PropertyComp/PropertyString", null));
+    assertEquals("entity ESMixPrimCollComp 1", lookup("ESMixPrimCollComp(0)/CollPropertyString/$count", null));
+  }
+
+  @Test
+  public void mediaValue() throws Exception {
+    assertEquals("media ESMedia 1", lookup("ESMedia(1)/$value", null));
+  }
+
+  @Test
+  public void collection() throws Exception {
+    assertEquals("collection ESAllPrim", lookup("ESAllPrim", null));
+    assertEquals("collection ESAllPrim", lookup("ESAllPrim/$count", null));
+    assertEquals("collection ESAllPrim", lookup("ESAllPrim", "$filter=PropertyInt16%20eq%201"));
+  }
+
+  @Test
+  public void notSupported() throws Exception {
+    assertNull(lookup("ESKeyNav(1)/NavPropertyETTwoKeyNavOne", null));
+    assertNull(lookup("ESKeyNav(1)", "$expand=NavPropertyETKeyNavOne"));
+    assertNull(lookup("ESAllPrim", "$expand=NavPropertyETTwoPrimMany"));
+    assertNull(lookup("ESAllPrim(1)/$ref", null));
+    assertNull(lookup("FICRTString()", null));
+    assertNull(lookup("$metadata", null));
+  }
+
+  @Test
+  public void unknownETag() throws Exception {
+    final ETagLookup lookup = new ETagLookup(new Parser(edm, odata).parseUri("ESAllPrim(1)", null, null, null));
+    assertNull(lookup.getETag(new ETagProvider() {
+      @Override
+      public String getETag(final EdmBindingTarget entitySetOrSingleton, final List<UriParameter> keyPredicates) {
+        return null;
+      }
+
+      @Override
+      public String getMediaETag(final EdmBindingTarget entitySetOrSingleton,
+          final List<UriParameter> keyPredicates) {
+        return null;
+      }
+
+      @Override
+      public String getCollectionETag(final EdmEntitySet entitySet) {
+        return null;
+      }
+    }));
+  }
+
+  private String lookup(final String path, final String query) throws Exception {
+    final ETagLookup lookup = new ETagLookup(new Parser(edm, odata).parseUri(path, query, null, null));
+    return lookup.getETag(new RecordingETagProvider());
+  }
+
+  /** Describes each request in its returned ETag. */
+  private static class RecordingETagProvider implements ETagProvider {
+
+    @Override
+    public String getETag(final EdmBindingTarget entitySetOrSingleton, final List<UriParameter> keyPredicates) {
+      return "entity " + entitySetOrSingleton.getName() + ' ' + keyPredicates.size();
+    }
+
+    @Override
+    public String getMediaETag(final EdmBindingTarget entitySetOrSingleton, final List<UriParameter> keyPredicates) {
+      assertTrue(keyPredicates.size() == 1);
+      return "media " + entitySetOrSingleton.getName() + ' ' + keyPredicates.size();
+    }
+
+    @Override
+    public String getCollectionETag(final EdmEntitySet entitySet) {
+      return "collection " + entitySet.getName();
+    }
+  }
+}
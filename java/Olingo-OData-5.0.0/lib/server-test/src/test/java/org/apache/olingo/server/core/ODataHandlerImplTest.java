@@ -30,6 +30,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
@@ -41,6 +42,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.edm.EdmBindingTarget;
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
 import org.apache.olingo.commons.api.edm.constants.ODataServiceVersion;
 import org.apache.olingo.commons.api.edm.provider.CsdlAbstractEdmProvider;
@@ -58,6 +60,9 @@ import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.batch.BatchFacade;
+import org.apache.olingo.server.api.etag.ETagProvider;
+import org.apache.olingo.server.api.metrics.MetricTags;
+import org.apache.olingo.server.api.metrics.RequestStage;
 import org.apache.olingo.server.api.processor.ActionComplexCollectionProcessor;
 import org.apache.olingo.server.api.processor.ActionComplexProcessor;
 import org.apache.olingo.server.api.processor.ActionEntityCollectionProcessor;
@@ -85,6 +90,7 @@ import org.apache.olingo.server.api.processor.ReferenceProcessor;
 import org.apache.olingo.server.api.processor.ServiceDocumentProcessor;
 import org.apache.olingo.server.api.uri.UriInfo;
 import org.apache.olingo.server.core.debug.ServerCoreDebugger;
+import org.apache.olingo.server.core.metrics.InMemoryRequestMetrics;
 import org.apache.olingo.server.tecsvc.processor.TechnicalActionProcessor;
 import org.apache.olingo.server.tecsvc.provider.ContainerProvider;
 import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
@@ -1123,6 +1129,39 @@ public class ODataHandlerImplTest {
         any(ContentType.class));
   }
 
+  @Test
+  public void notModifiedFromETagProvider() throws Exception {
+    final EntityProcessor processor = mock(EntityProcessor.class);
+    final ETagProvider eTagProvider = mock(ETagProvider.class);
+    when(eTagProvider.getETag(any(EdmBindingTarget.class), any())).thenReturn("W/\"1\"");
+
+    ODataResponse response = dispatchConditional("W/\"1\"", processor, eTagProvider);
+    assertEquals(HttpStatusCode.NOT_MODIFIED.getStatusCode(), response.getStatusCode());
+    assertEquals("W/\"1\"", response.getHeader(HttpHeader.ETAG));
+    verifyNoInteractions(processor);
+
+    dispatchConditional("W/\"0\"", processor, eTagProvider);
+    verify(processor).readEntity(any(ODataRequest.class), any(ODataResponse.class), any(UriInfo.class),
+        any(ContentType.class));
+  }
+
+  private ODataResponse dispatchConditional(final String ifNoneMatch, final Processor processor,
+      final ETagProvider eTagProvider) {
+    ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath("ESAllPrim(0)");
+    request.addHeader(HttpHeader.IF_NONE_MATCH, ifNoneMatch);
+
+    final OData odata = OData.newInstance();
+    final ServiceMetadata metadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList());
+    ODataHandlerImpl handler = new ODataHandlerImpl(odata, metadata, new ServerCoreDebugger(odata));
+    handler.register(processor);
+    handler.register(eTagProvider);
+    return handler.process(request);
+  }
+
   private ODataResponse dispatch(final HttpMethod method, final String path, final String query,
       final String headerName, final String headerValue, final Processor processor) {
     ODataRequest request = new ODataRequest();
@@ -1184,6 +1223,38 @@ public class ODataHandlerImplTest {
     assertNotNull(response);
   }
   
+  @Test
+  public void requestMetrics() throws Exception {
+    final OData odata = OData.newInstance();
+    final ServiceMetadata metadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList());
+    ODataHandlerImpl handler = new ODataHandlerImpl(odata, metadata, new ServerCoreDebugger(odata));
+    final InMemoryRequestMetrics metrics = new InMemoryRequestMetrics();
+    handler.register(metrics);
+    handler.register(mock(EntityCollectionProcessor.class));
+
+    ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath("ESAllPrim");
+    ODataResponse response = handler.process(request);
+    MetricTags tags = new MetricTags(HttpMethod.GET, MetricTags.KIND_ENTITY_SET, "ESAllPrim",
+        response.getStatusCode());
+    assertEquals(1, metrics.getStage(RequestStage.PARSE_URI, tags).getCount());
+    assertEquals(1, metrics.getStage(RequestStage.VALIDATE, tags).getCount());
+    assertEquals(1, metrics.getStage(RequestStage.DISPATCH, tags).getCount());
+    assertEquals(1, metrics.getStage(RequestStage.TOTAL, tags).getCount());
+    assertNull(metrics.getStage(RequestStage.ERROR, tags));
+
+    request.setRawODataPath("NotExisting");
+    response = handler.process(request);
+    assertEquals(HttpStatusCode.NOT_FOUND.getStatusCode(), response.getStatusCode());
+    tags = new MetricTags(HttpMethod.GET, MetricTags.KIND_UNKNOWN, null, HttpStatusCode.NOT_FOUND.getStatusCode());
+    assertEquals(1, metrics.getStage(RequestStage.PARSE_URI, tags).getCount());
+    assertEquals(1, metrics.getStage(RequestStage.ERROR, tags).getCount());
+    assertEquals(2, metrics.getStage(RequestStage.TOTAL).getCount());
+  }
+
   private ODataResponse dispatch(final HttpMethod method, final String path, final Processor processor) {
     return dispatch(method, path, null, null, null, processor);
   }
@@ -18,6 +18,7 @@
  */
 package org.apache.olingo.server.core.serializer.xml;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -26,6 +27,7 @@ import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.olingo.commons.api.Constants;
@@ -34,6 +36,7 @@ import org.apache.olingo.commons.api.data.ContextURL;
 import org.apache.olingo.commons.api.data.ContextURL.Suffix;
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.commons.api.data.Property;
 import org.apache.olingo.commons.api.data.ValueType;
 import org.apache.olingo.commons.api.edm.EdmComplexType;
@@ -46,6 +49,7 @@ import org.apache.olingo.commons.api.edm.FullQualifiedName;
 import org.apache.olingo.commons.api.edmx.EdmxReference;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataContent;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.serializer.ComplexSerializerOptions;
 import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions;
@@ -494,6 +498,54 @@ public class ODataXmlSerializerTest {
     Assert.assertTrue(resultString.startsWith(prefix));
   }
 
+  @Test
+  public void entitySetStreamedWithLateNextLink() throws Exception {
+    final EdmEntitySet edmEntitySet = entityContainer.getEntitySet("ESAllPrim");
+    final EntityIterator entityIterator = new EntityIterator() {
+      EntityCollection entityCollection = data.readAll(edmEntitySet);
+      Iterator<Entity> innerIterator = entityCollection.iterator();
+
+      @Override
+      public boolean hasNext() {
+        if (innerIterator.hasNext()) {
+          return true;
+        }
+        // The next link is only known when the last entity has been read.
+        setNext(URI.create("/next"));
+        return false;
+      }
+
+      @Override
+      public Entity next() {
+        return innerIterator.next();
+      }
+    };
+    ODataContent result = serializer.entityCollectionStreamed(metadata, edmEntitySet.getEntityType(),
+        entityIterator,
+        EntityCollectionSerializerOptions.with()
+            .contextURL(ContextURL.with().entitySet(edmEntitySet).build())
+            .build()).getODataContent();
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    result.write(bout);
+    final String resultString = new String(bout.toByteArray(), "UTF-8");
+
+    Assert.assertThat(resultString, CoreMatchers.startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+        + "<a:feed xmlns:a=\"http://www.w3.org/2005/Atom\" "
+        + "xmlns:m=\"http://docs.oasis-open.org/odata/ns/metadata\" "
+        + "xmlns:d=\"http://docs.oasis-open.org/odata/ns/data\" "
+        + "m:context=\"$metadata#ESAllPrim\" "
+        + "m:metadata-etag=\"metadataETag\">"
+        + "<a:entry"));
+    Assert.assertThat(resultString, CoreMatchers.endsWith(
+        "</a:entry><a:link rel=\"next\" href=\"/next\"></a:link></a:feed>"));
+    int count = 0;
+    int index = -1;
+    while ((index = resultString.indexOf("<a:entry", ++index)) > 0) {
+      count++;
+    }
+    Assert.assertEquals(4, count);
+  }
+
   @Test
   public void entityCollAllPrim() throws Exception {
     final EdmEntitySet edmEntitySet = entityContainer.getEntitySet("ESCollAllPrim");
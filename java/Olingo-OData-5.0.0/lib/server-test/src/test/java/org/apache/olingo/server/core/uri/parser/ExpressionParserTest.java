@@ -18,6 +18,8 @@
  */
 package org.apache.olingo.server.core.uri.parser;
 
+import static org.junit.Assert.assertEquals;
+
 import java.util.Arrays;
 import java.util.Collections;
 
@@ -26,7 +28,9 @@ import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
 import org.apache.olingo.commons.api.edmx.EdmxReference;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.uri.UriResourceKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Binary;
 import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
 import org.apache.olingo.server.api.uri.queryoption.expression.MethodKind;
 import org.apache.olingo.server.core.uri.parser.UriParserSemanticException.MessageKeys;
 import org.apache.olingo.server.core.uri.testutil.FilterValidator;
@@ -2415,6 +2419,20 @@ public class ExpressionParserTest {
         .isExValidation(UriValidationException.MessageKeys.INVALID_KEY_PROPERTY);
   }
 
+  @Test
+  public void longInList() throws Exception {
+    StringBuilder values = new StringBuilder();
+    for (int i = 0; i < 10000; i++) {
+      values.append(i == 0 ? "" : i % 2 == 0 ? ", " : ",").append(i % 300);
+    }
+    final Expression expression = testFilter.runOnETTwoKeyNav("PropertyInt16 in (" + values + ")")
+        .isBinary(BinaryOperatorKind.IN).getExpression();
+    assertEquals(10000, ((Binary) expression).getExpressions().size());
+
+    testFilter.runOnETTwoKeyNavEx("PropertyInt16 in (" + values + ",'x')")
+        .isExSemantic(MessageKeys.TYPES_NOT_COMPATIBLE);
+  }
+
   @Test
   public void geo() throws Exception {
     testFilter.runOnETAllPrim("geo.distance(geometry'SRID=0;Point(0 0)',geometry'SRID=0;Point(1 1)') lt 1.5")
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.uri.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.queryoption.ApplyItem;
+import org.apache.olingo.server.api.uri.queryoption.ExpandItem;
+import org.apache.olingo.server.api.uri.queryoption.expression.Binary;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchExpression;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Test;
+
+/**
+ * Tests the URI parser on long, generated URLs with $filter, $apply, $expand, and $search
+ * against the technical service.
+ */
+public class LongUriParserTest {
+
+  private static final int VALUES = 500;
+
+  private static final OData odata = OData.newInstance();
+  private static final Edm edm = odata.createServiceMetadata(
+      new EdmTechProvider(), Collections.<EdmxReference> emptyList()).getEdm();
+
+  @Test
+  public void longInLists() throws Exception {
+    final StringBuilder builder = new StringBuilder("$filter=PropertyString in (");
+    for (int i = 0; i < VALUES; i++) {
+      builder.append(i == 0 ? "" : ",").append("'value ").append(i).append('\'');
+    }
+    builder.append(") and PropertyInt16 in (");
+    for (int i = 0; i < VALUES; i++) {
+      builder.append(i == 0 ? "" : ", ").append(i);
+    }
+    builder.append(") and (PropertyDecimal gt 1.5 or PropertyDate le 2012-12-03")
+        .append(" or contains(PropertyString,'x') or PropertyGuid eq 01234567-89ab-cdef-0123-456789abcdef)");
+
+    final Binary and = (Binary) parse("ESAllPrim", builder.toString()).getFilterOption().getExpression();
+    assertEquals(BinaryOperatorKind.AND, and.getOperator());
+    assertEquals(BinaryOperatorKind.OR, ((Binary) and.getRightOperand()).getOperator());
+    final Binary inLists = (Binary) and.getLeftOperand();
+    final List<Expression> strings = ((Binary) inLists.getLeftOperand()).getExpressions();
+    assertEquals(VALUES, strings.size());
+    assertEquals("'value " + (VALUES - 1) + "'", ((Literal) strings.get(VALUES - 1)).getText());
+    final List<Expression> numbers = ((Binary) inLists.getRightOperand()).getExpressions();
+    assertEquals(VALUES, numbers.size());
+    assertEquals(String.valueOf(VALUES - 1), ((Literal) numbers.get(VALUES - 1)).getText());
+  }
+
+  @Test
+  public void longApply() throws Exception {
+    final StringBuilder builder = new StringBuilder("$apply=filter(");
+    for (int i = 0; i < VALUES; i++) {
+      builder.append(i == 0 ? "" : " or ").append("PropertyInt16 eq ").append(i);
+    }
+    builder.append(")/compute(PropertyInt16 mul 2 as p,day(now()) as d)")
+        .append("/groupby((PropertyString),aggregate(PropertyInt16 with sum as s))");
+
+    final List<ApplyItem> items = parse("ESTwoKeyNav", builder.toString()).getApplyOption().getApplyItems();
+    assertEquals(3, items.size());
+    assertEquals(ApplyItem.Kind.FILTER, items.get(0).getKind());
+    assertEquals(ApplyItem.Kind.COMPUTE, items.get(1).getKind());
+    assertEquals(ApplyItem.Kind.GROUP_BY, items.get(2).getKind());
+  }
+
+  @Test
+  public void longExpand() throws Exception {
+    final StringBuilder builder =
+        new StringBuilder("$expand=NavPropertyETTwoKeyNavMany($filter=PropertyInt16 in (");
+    for (int i = 0; i < VALUES; i++) {
+      builder.append(i == 0 ? "" : ",").append(i);
+    }
+    builder.append(");$select=PropertyString;$orderby=PropertyString desc;$top=10)")
+        .append(",NavPropertyETKeyNavOne($expand=NavPropertyETKeyNavMany($levels=3;$count=true))");
+
+    final List<ExpandItem> items = parse("ESKeyNav", builder.toString()).getExpandOption().getExpandItems();
+    assertEquals(2, items.size());
+    assertEquals(VALUES,
+        ((Binary) items.get(0).getFilterOption().getExpression()).getExpressions().size());
+    assertEquals(10, items.get(0).getTopOption().getValue());
+    final ExpandItem nested = items.get(1).getExpandOption().getExpandItems().get(0);
+    assertEquals(3, nested.getLevelsOption().getValue());
+    assertTrue(nested.getCountOption().getValue());
+  }
+
+  @Test
+  public void longSearch() throws Exception {
+    final StringBuilder builder = new StringBuilder("$search=");
+    for (int i = 0; i < VALUES; i++) {
+      builder.append(i == 0 ? "" : i % 3 == 0 ? " OR " : " AND ").append(i % 5 == 0 ? "NOT " : "")
+          .append(i % 2 == 0 ? "word" + i : "\"two words" + i + '"');
+    }
+
+    final SearchExpression search = parse("ESAllPrim", builder.toString()).getSearchOption().getSearchExpression();
+    assertEquals(VALUES, countTerms(search));
+  }
+
+  private static int countTerms(final SearchExpression expression) {
+    if (expression.isSearchBinary()) {
+      return countTerms(expression.asSearchBinary().getLeftOperand())
+          + countTerms(expression.asSearchBinary().getRightOperand());
+    }
+    return 1;
+  }
+
+  private static UriInfo parse(final String path, final String query) throws Exception {
+    return new Parser(edm, odata).parseUri(path, query, null, null);
+  }
+}
@@ -20,59 +20,158 @@ package org.apache.olingo.advanced.xmlparser.cache;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.concurrent.ConcurrentHashMap;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import org.apache.olingo.advanced.xmlparser.statistics.ParseStatistics;
 import org.apache.olingo.server.core.SchemaBasedEdmProvider;
 
 /**
  * Manages caching of parsed schema providers with unique key generation.
  * Uses verified business logic from AdvancedMetadataParser.
+ * <p>
+ * Keys combine the canonical schema path with a fingerprint of the content the provider was
+ * built from, so a changed file simply misses the cache; the stale entry for the same path is
+ * dropped when the new one is stored. The cache is bounded by entry count and by total weight
+ * (the size of the source documents) and evicts the least recently used entries first.
  */
 public class CacheManager implements ICacheManager {
-    private final ConcurrentHashMap<String, SchemaBasedEdmProvider> providerCache = new ConcurrentHashMap<>();
-    private final boolean enableCaching;
+    
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+    public static final long DEFAULT_MAX_WEIGHT = 64L * 1024 * 1024;
+    
+    private static final char KEY_SEPARATOR = '#';
+    
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, CacheEntry> providerCache = new LinkedHashMap<>(16, 0.75f, true);
+    
+    // Current cache key for each schema path
+    private final Map<String, String> keysByPath = new HashMap<>();
+    
+    private final ParseStatistics statistics;
+    private volatile boolean enableCaching;
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+    private long maxWeight = DEFAULT_MAX_WEIGHT;
+    private long totalWeight = 0;
     
     public CacheManager(boolean enableCaching) {
+        this(enableCaching, null);
+    }
+    
+    /**
+     * @param statistics receives hit, miss, eviction and invalidation counts; may be null
+     */
+    public CacheManager(boolean enableCaching, ParseStatistics statistics) {
         this.enableCaching = enableCaching;
+        this.statistics = statistics;
     }
     
     /**
-     * Get cached provider if exists and caching is enabled
+     * Get cached provider for a cache key if it exists and caching is enabled.
+     * Counts as a cache hit or miss.
      */
-    public SchemaBasedEdmProvider getCachedProvider(String schemaPath) {
-        if (!enableCaching) {
+    @Override
+    public synchronized SchemaBasedEdmProvider getCachedProvider(String cacheKey) {
+        if (!enableCaching || cacheKey == null) {
             return null;
         }
-        String cacheKey = generateCacheKey(schemaPath);
-        return providerCache.get(cacheKey);
+        CacheEntry entry = providerCache.get(cacheKey);
+        if (statistics != null) {
+            if (entry != null) {
+                statistics.incrementCacheHits();
+            } else {
+                statistics.incrementCacheMisses();
+            }
+        }
+        return entry != null ? entry.provider : null;
+    }
+    
+    /**
+     * Cache provider if caching is enabled, with a weight of 1
+     */
+    @Override
+    public void cacheProvider(String cacheKey, SchemaBasedEdmProvider provider) {
+        cacheProvider(cacheKey, provider, 1);
+    }
+    
+    /**
+     * Cache provider if caching is enabled. An older entry for the same schema path is replaced.
+     */
+    @Override
+    public synchronized void cacheProvider(String cacheKey, SchemaBasedEdmProvider provider, long weight) {
+        if (!enableCaching || cacheKey == null || provider == null) {
+            return;
+        }
+        
+        String path = pathOf(cacheKey);
+        String previousKey = keysByPath.put(path, cacheKey);
+        if (previousKey != null && !previousKey.equals(cacheKey) && remove(previousKey) && statistics != null) {
+            statistics.incrementCacheInvalidations();
+        }
+        
+        CacheEntry previous = providerCache.put(cacheKey, new CacheEntry(path, provider, Math.max(0, weight)));
+        if (previous != null) {
+            totalWeight -= previous.weight;
+        }
+        totalWeight += Math.max(0, weight);
+        evict();
     }
     
     /**
-     * Cache provider if caching is enabled
+     * Remove least recently used entries until the cache is within its bounds
      */
-    public void cacheProvider(String schemaPath, SchemaBasedEdmProvider provider) {
-        if (enableCaching && provider != null) {
-            String cacheKey = generateCacheKey(schemaPath);
-            providerCache.put(cacheKey, provider);
+    private void evict() {
+        Iterator<Map.Entry<String, CacheEntry>> iterator = providerCache.entrySet().iterator();
+        while ((providerCache.size() > maxEntries || totalWeight > maxWeight) && iterator.hasNext()) {
+            Map.Entry<String, CacheEntry> eldest = iterator.next();
+            iterator.remove();
+            totalWeight -= eldest.getValue().weight;
+            keysByPath.remove(eldest.getValue().path, eldest.getKey());
+            if (statistics != null) {
+                statistics.incrementCacheEvictions();
+            }
+        }
+    }
+    
+    private boolean remove(String cacheKey) {
+        CacheEntry removed = providerCache.remove(cacheKey);
+        if (removed == null) {
+            return false;
         }
+        totalWeight -= removed.weight;
+        return true;
     }
     
     /**
      * Clear cache
      */
     @Override
-    public void clearCache() {
+    public synchronized void clearCache() {
         providerCache.clear();
+        keysByPath.clear();
+        totalWeight = 0;
     }
     
     /**
      * Get cache size
      */
     @Override
-    public int getCacheSize() {
+    public synchronized int getCacheSize() {
         return providerCache.size();
     }
     
+    /**
+     * Get the total weight of the cached entries
+     */
+    public synchronized long getCacheWeight() {
+        return totalWeight;
+    }
+    
     /**
      * Check if caching is enabled
      */
@@ -81,19 +180,34 @@ public class CacheManager implements ICacheManager {
     }
     
     /**
-     * Set caching enabled/disabled (for configuration changes)
-     * Note: This is for compatibility, but actual enableCaching is final
+     * Enable or disable caching. Disabling releases all cached providers.
      */
     @Override
-    public void setEnabled(boolean enabled) {
-        // This method exists for API compatibility but the actual
-        // enableCaching field is final and set in constructor
-        if (enabled != enableCaching) {
-            // Log a warning that caching setting cannot be changed after construction
-            System.err.println("Warning: Cache setting cannot be changed after CacheManager construction");
+    public synchronized void setEnabled(boolean enabled) {
+        this.enableCaching = enabled;
+        if (!enabled) {
+            clearCache();
         }
     }
     
+    /**
+     * Set the maximum number of cached providers
+     */
+    @Override
+    public synchronized void setMaxEntries(int maxEntries) {
+        this.maxEntries = Math.max(0, maxEntries);
+        evict();
+    }
+    
+    /**
+     * Set the maximum total weight of cached providers
+     */
+    @Override
+    public synchronized void setMaxWeight(long maxWeight) {
+        this.maxWeight = Math.max(0, maxWeight);
+        evict();
+    }
+    
     /**
      * Generate cache key that includes path information to avoid conflicts (verified logic from AdvancedMetadataParser)
      */
@@ -135,21 +249,86 @@ public class CacheManager implements ICacheManager {
         }
     }
     
+    /**
+     * Generate a cache key for a schema path and the fingerprint of the content it is built from
+     */
+    @Override
+    public String generateCacheKey(String schemaPath, String contentFingerprint) {
+        String pathKey = generateCacheKey(schemaPath);
+        return contentFingerprint != null ? pathKey + KEY_SEPARATOR + contentFingerprint : pathKey;
+    }
+    
+    private static String pathOf(String cacheKey) {
+        int separator = cacheKey.lastIndexOf(KEY_SEPARATOR);
+        return separator >= 0 ? cacheKey.substring(0, separator) : cacheKey;
+    }
+    
+    /**
+     * SHA-256 of document content, as lowercase hex
+     */
+    public static String contentHash(byte[] content) {
+        try {
+            return toHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * Combine content hashes into one fingerprint; the order of the hashes matters
+     */
+    public static String combineHashes(Iterable<String> hashes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String hash : hashes) {
+                digest.update(hash.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return toHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+            hex.append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+    
     /**
      * Check if cache contains key
      */
     @Override
-    public boolean containsKey(String cacheKey) {
+    public synchronized boolean containsKey(String cacheKey) {
         return enableCaching && providerCache.containsKey(cacheKey);
     }
     
     @Override
-    public boolean isCached(String filePath) {
-        return containsKey(generateCacheKey(filePath));
+    public synchronized boolean isCached(String filePath) {
+        return enableCaching && keysByPath.containsKey(generateCacheKey(filePath));
     }
     
     @Override
     public boolean isEnabled() {
         return enableCaching;
     }
+    
+    /**
+     * A cached provider with the path it belongs to and its weight
+     */
+    private static final class CacheEntry {
+        private final String path;
+        private final SchemaBasedEdmProvider provider;
+        private final long weight;
+        
+        CacheEntry(String path, SchemaBasedEdmProvider provider, long weight) {
+            this.path = path;
+            this.provider = provider;
+            this.weight = weight;
+        }
+    }
 }
@@ -26,14 +26,19 @@ import org.apache.olingo.server.core.SchemaBasedEdmProvider;
 public interface ICacheManager {
     
     /**
-     * Get cached provider for a file
+     * Get cached provider for a cache key, counting a hit or miss
      */
-    SchemaBasedEdmProvider getCachedProvider(String filePath);
+    SchemaBasedEdmProvider getCachedProvider(String cacheKey);
     
     /**
-     * Cache a provider for a file
+     * Cache a provider under a cache key
      */
-    void cacheProvider(String filePath, SchemaBasedEdmProvider provider);
+    void cacheProvider(String cacheKey, SchemaBasedEdmProvider provider);
+    
+    /**
+     * Cache a provider under a cache key with a weight used for the size bound
+     */
+    void cacheProvider(String cacheKey, SchemaBasedEdmProvider provider, long weight);
     
     /**
      * Check if a file is cached
@@ -60,11 +65,26 @@ public interface ICacheManager {
      */
     boolean isEnabled();
     
+    /**
+     * Set the maximum number of cached providers
+     */
+    void setMaxEntries(int maxEntries);
+    
+    /**
+     * Set the maximum total weight of cached providers
+     */
+    void setMaxWeight(long maxWeight);
+    
     /**
      * Generate cache key for a file path
      */
     String generateCacheKey(String filePath);
     
+    /**
+     * Generate cache key for a file path and the fingerprint of the content it is built from
+     */
+    String generateCacheKey(String filePath, String contentFingerprint);
+    
     /**
      * Check if cache contains a specific cache key
      */
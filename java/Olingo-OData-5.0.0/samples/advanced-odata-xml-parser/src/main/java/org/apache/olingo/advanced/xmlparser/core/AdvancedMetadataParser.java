@@ -18,15 +18,29 @@
  */
 package org.apache.olingo.advanced.xmlparser.core;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.apache.olingo.advanced.xmlparser.cache.CacheManager;
 import org.apache.olingo.advanced.xmlparser.cache.ICacheManager;
@@ -56,6 +70,10 @@ import org.apache.olingo.server.core.SchemaBasedEdmProvider;
 /**
  * Modular Advanced Metadata Parser that uses composition of smaller modules
  * to handle complex OData schema parsing with dependency resolution.
+ * <p>
+ * Each referenced document is read once while the dependency graph is built. The files
+ * are then loaded in dependency waves: the files of one wave are parsed concurrently and
+ * merged into the result in a deterministic order before the next wave starts.
  */
 public class AdvancedMetadataParser {
     
@@ -63,6 +81,7 @@ public class AdvancedMetadataParser {
     private boolean allowCircularDependencies = false;
     private boolean enableCaching = true;
     private int maxDependencyDepth = 10;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
     
     private final Map<String, List<String>> errorReport = new ConcurrentHashMap<>();
     private final ParseStatistics statistics = new ParseStatistics();
@@ -75,7 +94,10 @@ public class AdvancedMetadataParser {
     private final IReferenceResolverManager referenceManager;
     private final ISchemaValidator schemaValidator;
     private final ICacheManager cacheManager;
-    private final QualifierFixer qualifierFixer;
+    
+    // Document content and its hash read during dependency analysis, keyed by normalized path
+    private final Map<String, byte[]> documents = new ConcurrentHashMap<>();
+    private final Map<String, String> documentHashes = new ConcurrentHashMap<>();
     
     /**
      * Constructor
@@ -89,8 +111,7 @@ public class AdvancedMetadataParser {
         this.schemaMerger = new SchemaMerger(schemaComparator, statistics, errorReport);
         this.referenceManager = new ReferenceResolverManager();
         this.schemaValidator = new SchemaValidator(statistics);
-        this.cacheManager = new CacheManager(enableCaching);
-        this.qualifierFixer = new QualifierFixer();
+        this.cacheManager = new CacheManager(enableCaching, statistics);
         
         // Add default reference resolvers
         referenceManager.addReferenceResolver(new ClassPathReferenceResolver());
@@ -123,11 +144,35 @@ public class AdvancedMetadataParser {
         return this;
     }
     
+    /**
+     * Maximum number of parsed providers kept in the cache
+     */
+    public AdvancedMetadataParser maxCacheEntries(int maxEntries) {
+        this.cacheManager.setMaxEntries(maxEntries);
+        return this;
+    }
+    
+    /**
+     * Maximum total size, in bytes of source XML, of the parsed providers kept in the cache
+     */
+    public AdvancedMetadataParser maxCacheWeight(long maxWeight) {
+        this.cacheManager.setMaxWeight(maxWeight);
+        return this;
+    }
+    
     public AdvancedMetadataParser maxDependencyDepth(int depth) {
         this.maxDependencyDepth = depth;
         return this;
     }
     
+    /**
+     * Number of threads used to parse the files of one dependency wave; 1 parses on the calling thread
+     */
+    public AdvancedMetadataParser parallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        return this;
+    }
+    
     public AdvancedMetadataParser addReferenceResolver(ReferenceResolver resolver) {
         this.referenceManager.addReferenceResolver(resolver);
         return this;
@@ -151,6 +196,7 @@ public class AdvancedMetadataParser {
             clearState();
             
             // Build dependency graph
+            long phaseStart = System.currentTimeMillis();
             buildDependencyGraph(mainSchemaPath, 0);
             
             // Check for circular dependencies
@@ -164,12 +210,15 @@ public class AdvancedMetadataParser {
             
             // Resolve dependencies in topological order
             List<String> loadOrder = dependencyManager.calculateLoadOrder();
+            statistics.addReferenceDiscoveryTime(System.currentTimeMillis() - phaseStart);
             
             // Load schemas in dependency order
             SchemaBasedEdmProvider result = loadSchemasInOrder(loadOrder, mainSchemaPath);
             
             // Validate references after all schemas are loaded
+            phaseStart = System.currentTimeMillis();
             schemaValidator.validateReferences(result);
+            statistics.addReferenceValidationTime(System.currentTimeMillis() - phaseStart);
             
             return result;
             
@@ -177,6 +226,8 @@ public class AdvancedMetadataParser {
             statistics.addError(ResultType.PARSING_ERROR, "Failed to parse schema", mainSchemaPath, e);
             throw e;
         } finally {
+            documents.clear();
+            documentHashes.clear();
             statistics.addParsingTime(System.currentTimeMillis() - startTime);
         }
     }
@@ -207,8 +258,16 @@ public class AdvancedMetadataParser {
         
         try {
             // Extract references from XML using our own XML parsing
-            // to avoid Olingo's deduplication by namespace
-            Set<String> xmlReferences = referenceManager.extractReferencesFromXml(schemaPath);
+            // to avoid Olingo's deduplication by namespace. The content is kept for the load phase.
+            byte[] content;
+            try {
+                content = readDocument(schemaPath);
+            } catch (IOException e) {
+                content = null; // Unreadable documents are reported when they are loaded
+            }
+            Set<String> xmlReferences = content != null
+                ? referenceManager.extractReferencesFromXml(schemaPath, new ByteArrayInputStream(content))
+                : new HashSet<String>();
             
             // Add all found references to dependencies
             for (String refPath : xmlReferences) {
@@ -230,54 +289,214 @@ public class AdvancedMetadataParser {
     }
     
     /**
-     * Load schemas in the calculated order
+     * Read a document once and keep its content for the rest of the parsing operation
+     */
+    private byte[] readDocument(String schemaPath) throws IOException {
+        String key = dependencyManager.normalizePath(schemaPath);
+        byte[] content = documents.get(key);
+        if (content != null) {
+            return content;
+        }
+        
+        InputStream inputStream = referenceManager.resolveReference(schemaPath);
+        if (inputStream == null) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            int read;
+            while ((read = inputStream.read(chunk)) != -1) {
+                buffer.write(chunk, 0, read);
+            }
+            content = buffer.toByteArray();
+        } finally {
+            inputStream.close();
+        }
+        documentHashes.put(key, CacheManager.contentHash(content));
+        documents.put(key, content);
+        return content;
+    }
+    
+    /**
+     * Load schemas in the calculated order, one dependency wave at a time
      */
     private SchemaBasedEdmProvider loadSchemasInOrder(List<String> loadOrder, String mainSchemaPath) throws Exception {
         SchemaBasedEdmProvider result = new SchemaBasedEdmProvider();
         
-        // Load dependencies first
-        for (String schemaPath : loadOrder) {
-            if (!schemaPath.equals(mainSchemaPath)) {
-                loadSchema(schemaPath, result);
+        // Load dependencies first, main schema last
+        List<List<String>> waves = calculateLoadWaves(loadOrder, mainSchemaPath);
+        waves.add(Collections.singletonList(mainSchemaPath));
+        
+        Map<String, Set<String>> dependencies = dependencyManager.getAllDependencies();
+        List<String> mergeOrder = new ArrayList<>();
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            for (List<String> wave : waves) {
+                long phaseStart = System.currentTimeMillis();
+                List<LoadedSchema> loaded = parseWave(wave, dependencies, pool);
+                statistics.addSchemaParsingTime(System.currentTimeMillis() - phaseStart);
+                
+                phaseStart = System.currentTimeMillis();
+                try {
+                    for (LoadedSchema schema : loaded) {
+                        mergeLoadedSchema(schema, result);
+                        mergeOrder.add(schema.schemaPath);
+                    }
+                } finally {
+                    statistics.addSchemaMergingTime(System.currentTimeMillis() - phaseStart);
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
             }
         }
         
-        // Load main schema last
-        loadSchema(mainSchemaPath, result);
+        statistics.addLoadWaves(waves.size());
+        statistics.setLoadOrder(mergeOrder);
+        return result;
+    }
+    
+    /**
+     * Group the schemas into waves by dependency depth: a schema is placed one wave after the
+     * deepest of its dependencies. Edges that close a cycle are ignored. Within a wave the
+     * schemas are sorted by path so the merge order does not depend on thread scheduling.
+     */
+    private List<List<String>> calculateLoadWaves(List<String> loadOrder, String mainSchemaPath) {
+        Map<String, Set<String>> dependencies = dependencyManager.getAllDependencies();
+        Set<String> schemas = new HashSet<>(loadOrder);
+        schemas.remove(mainSchemaPath);
+        
+        Map<String, Integer> levels = new HashMap<>();
+        Set<String> inProgress = new HashSet<>();
+        TreeMap<Integer, List<String>> waves = new TreeMap<>();
+        for (String schemaPath : schemas) {
+            int level = calculateLevel(schemaPath, schemas, dependencies, levels, inProgress);
+            waves.computeIfAbsent(level, k -> new ArrayList<>()).add(schemaPath);
+        }
         
+        List<List<String>> result = new ArrayList<>();
+        for (List<String> wave : waves.values()) {
+            Collections.sort(wave);
+            result.add(wave);
+        }
         return result;
     }
     
+    private int calculateLevel(String schemaPath, Set<String> schemas, Map<String, Set<String>> dependencies,
+                               Map<String, Integer> levels, Set<String> inProgress) {
+        Integer known = levels.get(schemaPath);
+        if (known != null) {
+            return known;
+        }
+        if (!inProgress.add(schemaPath)) {
+            return -1; // Back edge of a cycle
+        }
+        
+        int level = 0;
+        Set<String> schemaDependencies = dependencies.get(schemaPath);
+        if (schemaDependencies != null) {
+            for (String dependency : schemaDependencies) {
+                if (schemas.contains(dependency)) {
+                    level = Math.max(level, calculateLevel(dependency, schemas, dependencies, levels, inProgress) + 1);
+                }
+            }
+        }
+        
+        inProgress.remove(schemaPath);
+        levels.put(schemaPath, level);
+        return level;
+    }
+    
     /**
-     * Load a single schema with caching
+     * Fingerprint of the content of a schema and of every document it transitively references,
+     * or null when one of them could not be read
      */
-    private void loadSchema(String schemaPath, SchemaBasedEdmProvider targetProvider) throws Exception {
-        // Generate cache key that includes path information to avoid conflicts with same filename
-        String cacheKey = cacheManager.generateCacheKey(schemaPath);
-        
-        // Check cache first
-        if (enableCaching && cacheManager.containsKey(cacheKey)) {
-            SchemaBasedEdmProvider cachedProvider = cacheManager.getCachedProvider(cacheKey);
-            schemaMerger.copySchemas(cachedProvider, targetProvider);
-            statistics.incrementCachedReused();
-            return;
+    private String closureFingerprint(String schemaPath, Map<String, Set<String>> dependencies) {
+        Set<String> closure = new TreeSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+        pending.push(dependencyManager.normalizePath(schemaPath));
+        while (!pending.isEmpty()) {
+            String path = pending.pop();
+            if (closure.add(path)) {
+                Set<String> pathDependencies = dependencies.get(path);
+                if (pathDependencies != null) {
+                    for (String dependency : pathDependencies) {
+                        pending.push(dependency);
+                    }
+                }
+            }
         }
-
-        // Check for recursive loading
-        if (dependencyManager.isCurrentlyLoading(schemaPath)) {
-            return;
+        
+        List<String> hashes = new ArrayList<>(closure.size());
+        for (String path : closure) {
+            String hash = documentHashes.get(path);
+            if (hash == null) {
+                return null;
+            }
+            hashes.add(path + "=" + hash);
         }
-
-        dependencyManager.markLoading(schemaPath);
-
+        return CacheManager.combineHashes(hashes);
+    }
+    
+    /**
+     * Parse the schemas of one wave, concurrently when a pool is given. Cached providers are
+     * reused without parsing. Results are returned in wave order.
+     */
+    private List<LoadedSchema> parseWave(List<String> wave, Map<String, Set<String>> dependencies,
+                                         ForkJoinPool pool) throws Exception {
+        List<LoadedSchema> loaded = new ArrayList<>(wave.size());
+        List<Future<LoadedSchema>> futures = new ArrayList<>(wave.size());
+        
+        for (String schemaPath : wave) {
+            // The key covers the path and the content of the whole reference closure,
+            // so a change to any referenced file misses the cache
+            String fingerprint = enableCaching ? closureFingerprint(schemaPath, dependencies) : null;
+            String cacheKey = fingerprint != null ? cacheManager.generateCacheKey(schemaPath, fingerprint) : null;
+            SchemaBasedEdmProvider cached = cacheKey != null ? cacheManager.getCachedProvider(cacheKey) : null;
+            if (cached != null) {
+                futures.add(null);
+                loaded.add(LoadedSchema.cached(schemaPath, cached));
+            } else if (pool == null || wave.size() == 1) {
+                futures.add(null);
+                loaded.add(parseSchema(schemaPath, cacheKey));
+            } else {
+                futures.add(pool.submit(() -> parseSchema(schemaPath, cacheKey)));
+                loaded.add(null);
+            }
+        }
+        
+        for (int i = 0; i < futures.size(); i++) {
+            Future<LoadedSchema> future = futures.get(i);
+            if (future != null) {
+                try {
+                    loaded.set(i, future.get());
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        }
+        return loaded;
+    }
+    
+    /**
+     * Parse a single schema from the content read during dependency analysis.
+     * Runs on a worker thread, so it only records its outcome and leaves statistics to the merge.
+     */
+    private LoadedSchema parseSchema(String schemaPath, String cacheKey) {
+        LoadedSchema loaded = new LoadedSchema(schemaPath, cacheKey);
         try {
-            // Resolve and load schema
-            InputStream inputStream = referenceManager.resolveReference(schemaPath);
-            if (inputStream == null) {
-                statistics.addError(ResultType.DEPENDENCY_RESOLUTION_FAILED, "Could not resolve schema", schemaPath);
-                throw new IllegalArgumentException("Could not resolve schema: " + schemaPath);
+            byte[] content = documents.get(dependencyManager.normalizePath(schemaPath));
+            if (content == null) {
+                content = readDocument(schemaPath);
             }
-
+            if (content == null) {
+                loaded.unresolved = true;
+                loaded.failure = new IllegalArgumentException("Could not resolve schema: " + schemaPath);
+                return loaded;
+            }
+            
             // Configure parser with reference resolver for this schema
             File schemaFile = new File(schemaPath);
             File schemaDir = schemaFile.getParentFile();
@@ -297,19 +516,52 @@ public class AdvancedMetadataParser {
                 .referenceResolver(new FileBasedReferenceResolver(schemaDir));
             
             // Parse schema using configured parser
-            SchemaBasedEdmProvider schemaProvider = parser.buildEdmProvider(new InputStreamReader(inputStream));
+            loaded.provider = parser.buildEdmProvider(
+                new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8));
             
-            // Fix missing qualifiers using our QualifierFixer
+            // Fix missing qualifiers; QualifierFixer keeps per-file state, so each task uses its own
             try {
-                qualifierFixer.fixQualifiers(schemaProvider, schemaPath);
+                new QualifierFixer().fixQualifiersFromContent(loaded.provider,
+                    new String(content, StandardCharsets.UTF_8));
             } catch (Exception e) {
-                statistics.addError(ResultType.PARSING_ERROR, "Failed to fix qualifiers", schemaPath, e);
-                // Continue without qualifier fix - not critical
+                loaded.qualifierFailure = e; // Not critical
             }
+        } catch (Exception e) {
+            loaded.failure = e;
+        }
+        return loaded;
+    }
+    
+    /**
+     * Merge a loaded schema into the target provider and record its statistics
+     */
+    private void mergeLoadedSchema(LoadedSchema loaded, SchemaBasedEdmProvider targetProvider) throws Exception {
+        String schemaPath = loaded.schemaPath;
+        
+        if (loaded.cachedReuse) {
+            schemaMerger.copySchemas(loaded.provider, targetProvider);
+            statistics.incrementCachedReused();
+            return;
+        }
+        
+        try {
+            if (loaded.unresolved) {
+                statistics.addError(ResultType.DEPENDENCY_RESOLUTION_FAILED, "Could not resolve schema", schemaPath);
+            }
+            if (loaded.failure != null) {
+                throw loaded.failure;
+            }
+            if (loaded.qualifierFailure != null) {
+                statistics.addError(ResultType.PARSING_ERROR, "Failed to fix qualifiers", schemaPath,
+                    loaded.qualifierFailure);
+            }
+            
+            SchemaBasedEdmProvider schemaProvider = loaded.provider;
             
             // Cache the provider
-            if (enableCaching) {
-                cacheManager.cacheProvider(cacheKey, schemaProvider);
+            if (enableCaching && loaded.cacheKey != null) {
+                byte[] content = documents.get(dependencyManager.normalizePath(schemaPath));
+                cacheManager.cacheProvider(loaded.cacheKey, schemaProvider, content != null ? content.length : 1);
             }
             
             // Copy schemas to target provider
@@ -327,8 +579,31 @@ public class AdvancedMetadataParser {
             statistics.addError(ResultType.SCHEMA_LOADING_ERROR, "Schema loading failed", schemaPath, e);
             errorReport.put(schemaPath, java.util.Arrays.asList("Schema loading failed: " + e.getMessage()));
             throw e;
-        } finally {
-            dependencyManager.markFinished(schemaPath);
+        }
+    }
+    
+    /**
+     * Outcome of loading one schema file in a wave
+     */
+    private static final class LoadedSchema {
+        private final String schemaPath;
+        private final String cacheKey;
+        private boolean cachedReuse;
+        private boolean unresolved;
+        private SchemaBasedEdmProvider provider;
+        private Exception failure;
+        private Exception qualifierFailure;
+        
+        LoadedSchema(String schemaPath, String cacheKey) {
+            this.schemaPath = schemaPath;
+            this.cacheKey = cacheKey;
+        }
+        
+        static LoadedSchema cached(String schemaPath, SchemaBasedEdmProvider provider) {
+            LoadedSchema loaded = new LoadedSchema(schemaPath, null);
+            loaded.cachedReuse = true;
+            loaded.provider = provider;
+            return loaded;
         }
     }
     
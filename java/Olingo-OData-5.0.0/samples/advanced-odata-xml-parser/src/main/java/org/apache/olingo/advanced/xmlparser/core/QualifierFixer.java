@@ -48,22 +48,30 @@ public class QualifierFixer {
      * @throws IOException if the XML file cannot be read
      */
     public void fixQualifiers(SchemaBasedEdmProvider provider, String xmlFilePath) throws IOException {
+        fixQualifiersFromContent(provider, readFileContent(xmlFilePath));
+    }
+    
+    /**
+     * Fix missing qualifiers using XML content that has already been read,
+     * so the caller does not have to read the file again
+     * 
+     * @param provider The parsed provider to fix
+     * @param xmlContent The original XML content of the provider
+     */
+    public void fixQualifiersFromContent(SchemaBasedEdmProvider provider, String xmlContent) {
         // Extract qualifiers from XML
-        extractQualifiersFromXml(xmlFilePath);
+        extractQualifiersFromXml(xmlContent);
         
         // Fix qualifiers in the provider
         fixMissingQualifiers(provider);
     }
     
     /**
-     * Extract qualifiers from XML file using regex
+     * Extract qualifiers from XML content using regex
      */
-    private void extractQualifiersFromXml(String xmlFilePath) throws IOException {
+    private void extractQualifiersFromXml(String xmlContent) {
         qualifierCache.clear();
         
-        // Read XML content
-        String xmlContent = readFileContent(xmlFilePath);
-        
         // Pattern to match Annotation elements with both Term and Qualifier attributes
         Pattern pattern = Pattern.compile(
             "<Annotation\\s+(?=.*Term=\"([^\"]+)\")(?=.*Qualifier=\"([^\"]+)\")[^>]*>",
@@ -217,7 +217,7 @@ public class DependencyGraphManager implements IDependencyGraphManager {
     /**
      * Normalize path for consistent comparison in circular dependency detection
      */
-    private String normalizePath(String path) {
+    public String normalizePath(String path) {
         if (path == null) {
             return null;
         }
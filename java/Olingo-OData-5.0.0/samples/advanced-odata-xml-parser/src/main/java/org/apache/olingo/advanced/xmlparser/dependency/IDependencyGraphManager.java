@@ -72,6 +72,11 @@ public interface IDependencyGraphManager {
      */
     List<String> calculateLoadOrder();
     
+    /**
+     * Normalize a schema path to the form used as key in the dependency graph and load order
+     */
+    String normalizePath(String schemaPath);
+    
     /**
      * Clear state
      */
@@ -48,4 +48,9 @@ public interface IReferenceResolverManager {
      * Extract references from XML content
      */
     Set<String> extractReferencesFromXml(String schemaPath) throws Exception;
+    
+    /**
+     * Extract references from XML content that has already been read for the given schema path
+     */
+    Set<String> extractReferencesFromXml(String schemaPath, InputStream content) throws Exception;
 }
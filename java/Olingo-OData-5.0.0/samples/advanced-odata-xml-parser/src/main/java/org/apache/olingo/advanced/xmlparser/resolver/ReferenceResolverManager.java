@@ -161,8 +161,14 @@ public class ReferenceResolverManager implements IReferenceResolverManager {
      * (verified logic from AdvancedMetadataParser)
      */
     public Set<String> extractReferencesFromXml(String schemaPath) throws Exception {
+        return extractReferencesFromXml(schemaPath, resolveReference(schemaPath));
+    }
+    
+    /**
+     * Extract edmx:Reference elements from content that has already been read for the schema path
+     */
+    public Set<String> extractReferencesFromXml(String schemaPath, InputStream inputStream) throws Exception {
         try {
-            InputStream inputStream = resolveReference(schemaPath);
             if (inputStream == null) {
                 return new java.util.HashSet<>();
             }
@@ -22,6 +22,19 @@ public class ParseStatistics {
     private int schemasLoaded = 0;
     private long totalTime = 0;
     private List<String> loadOrder = new ArrayList<>();
+    
+    // Per-phase timings of buildEdmProvider, in milliseconds
+    private long referenceDiscoveryTime = 0;
+    private long schemaParsingTime = 0;
+    private long schemaMergingTime = 0;
+    private long referenceValidationTime = 0;
+    private int loadWaves = 0;
+    
+    // Provider cache counters
+    private int cacheHits = 0;
+    private int cacheMisses = 0;
+    private int cacheEvictions = 0;
+    private int cacheInvalidations = 0;
     private final List<ErrorInfo> errors = new ArrayList<>();
     
     // Getters
@@ -35,6 +48,44 @@ public class ParseStatistics {
     public long getTotalTime() { return totalTime; }
     public List<String> getLoadOrder() { return new ArrayList<>(loadOrder); }
     
+    /**
+     * Time spent reading documents and walking their references
+     */
+    public long getReferenceDiscoveryTime() { return referenceDiscoveryTime; }
+    
+    /**
+     * Wall-clock time spent parsing schema files, summed over all load waves
+     */
+    public long getSchemaParsingTime() { return schemaParsingTime; }
+    
+    /**
+     * Time spent merging parsed schemas into the target provider
+     */
+    public long getSchemaMergingTime() { return schemaMergingTime; }
+    
+    /**
+     * Time spent validating type references of the merged provider
+     */
+    public long getReferenceValidationTime() { return referenceValidationTime; }
+    
+    /**
+     * Number of dependency waves loaded; files of one wave are parsed concurrently
+     */
+    public int getLoadWaves() { return loadWaves; }
+    
+    public int getCacheHits() { return cacheHits; }
+    public int getCacheMisses() { return cacheMisses; }
+    
+    /**
+     * Entries removed to keep the provider cache within its size bounds
+     */
+    public int getCacheEvictions() { return cacheEvictions; }
+    
+    /**
+     * Entries replaced because the content of the file or of a referenced file changed
+     */
+    public int getCacheInvalidations() { return cacheInvalidations; }
+    
     /**
      * Get all error information
      */
@@ -97,6 +148,15 @@ public class ParseStatistics {
         maxDepthReached = Math.max(maxDepthReached, depth); 
     }
     public void addParsingTime(long time) { totalParsingTime += time; }
+    public void addReferenceDiscoveryTime(long time) { referenceDiscoveryTime += time; }
+    public void addSchemaParsingTime(long time) { schemaParsingTime += time; }
+    public void addSchemaMergingTime(long time) { schemaMergingTime += time; }
+    public void addReferenceValidationTime(long time) { referenceValidationTime += time; }
+    public void addLoadWaves(int waves) { loadWaves += waves; }
+    public void incrementCacheHits() { cacheHits++; }
+    public void incrementCacheMisses() { cacheMisses++; }
+    public void incrementCacheEvictions() { cacheEvictions++; }
+    public void incrementCacheInvalidations() { cacheInvalidations++; }
     
     // Additional methods for AdvancedMetadataParser
     public void recordStart() { startTime = System.currentTimeMillis(); }
@@ -144,6 +204,15 @@ public class ParseStatistics {
         schemasProcessed = 0;
         schemasLoaded = 0;
         totalTime = 0;
+        referenceDiscoveryTime = 0;
+        schemaParsingTime = 0;
+        schemaMergingTime = 0;
+        referenceValidationTime = 0;
+        loadWaves = 0;
+        cacheHits = 0;
+        cacheMisses = 0;
+        cacheEvictions = 0;
+        cacheInvalidations = 0;
         loadOrder.clear();
         errors.clear();
     }
@@ -21,6 +21,9 @@ package org.apache.olingo.advanced.xmlparser;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 
@@ -45,6 +48,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Comprehensive test suite for AdvancedMetadataParser covering all functionality.
@@ -218,6 +222,46 @@ public class AdvancedMetadataParserTest {
         assertEquals(3, stats.getMaxDepthReached(), "Should reach depth of 3 in dependency chain");
     }
 
+    @Test
+    @DisplayName("Parallel wave loading matches sequential loading")
+    void testParallelLoadingMatchesSequential() throws Exception {
+        // common and currencies are independent, customers, orders and suppliers all depend on common only
+        String schemaPath = testResourcesPath + "/parallel/main.xml";
+        List<String> expectedOrder = java.util.Arrays.asList(
+            "common.xml", "currencies.xml", "customers.xml", "orders.xml", "suppliers.xml", "main.xml");
+        
+        AdvancedMetadataParser sequentialParser = new AdvancedMetadataParser().parallelism(1);
+        SchemaBasedEdmProvider sequential = sequentialParser.buildEdmProvider(schemaPath);
+        List<String> sequentialNamespaces = sequential.getSchemas().stream()
+            .map(CsdlSchema::getNamespace).collect(java.util.stream.Collectors.toList());
+        assertEquals(6, sequentialNamespaces.size());
+        assertEquals(expectedOrder, fileNames(sequentialParser.getStatistics().getLoadOrder()));
+        
+        // Files of one wave finish in any order, the merge order must not depend on it
+        for (int run = 0; run < 20; run++) {
+            AdvancedMetadataParser parallelParser = new AdvancedMetadataParser().parallelism(4);
+            SchemaBasedEdmProvider parallel = parallelParser.buildEdmProvider(schemaPath);
+            
+            List<String> parallelNamespaces = parallel.getSchemas().stream()
+                .map(CsdlSchema::getNamespace).collect(java.util.stream.Collectors.toList());
+            assertEquals(sequentialNamespaces, parallelNamespaces, "Merge order should not depend on parallelism");
+            
+            ParseStatistics stats = parallelParser.getStatistics();
+            assertEquals(expectedOrder, fileNames(stats.getLoadOrder()), "Load order differs in run " + run);
+            assertEquals(schemaPath, stats.getLoadOrder().get(5));
+            assertEquals(3, stats.getLoadWaves());
+            assertEquals(6, stats.getTotalFilesProcessed());
+            assertTrue(stats.getReferenceDiscoveryTime() >= 0);
+            assertTrue(stats.getSchemaParsingTime() >= 0);
+            assertTrue(stats.getSchemaMergingTime() >= 0);
+            assertTrue(stats.getReferenceValidationTime() >= 0);
+        }
+    }
+
+    private static List<String> fileNames(List<String> paths) {
+        return paths.stream().map(path -> new File(path).getName()).collect(java.util.stream.Collectors.toList());
+    }
+
     // ========================================
     // 3. Circular Dependency Tests
     // ========================================
@@ -391,6 +435,76 @@ public class AdvancedMetadataParserTest {
         assertEquals(0, stats.getCachedFilesReused(), "Should not use cache when disabled");
     }
 
+    @Test
+    @DisplayName("Test cache invalidation when a referenced file changes")
+    void testCacheInvalidatedByReferencedFileChange(@TempDir Path tempDir) throws Exception {
+        Path types = tempDir.resolve("types.xml");
+        Path main = tempDir.resolve("main.xml");
+        Files.write(types, typesSchema("Code").getBytes(StandardCharsets.UTF_8));
+        Files.write(main, ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<edmx:Edmx Version=\"4.0\" xmlns:edmx=\"http://docs.oasis-open.org/odata/ns/edmx\">\n"
+            + "  <edmx:Reference Uri=\"types.xml\">\n"
+            + "    <edmx:Include Namespace=\"Cache.Types\"/>\n"
+            + "  </edmx:Reference>\n"
+            + "  <edmx:DataServices>\n"
+            + "    <Schema Namespace=\"Cache.Main\" xmlns=\"http://docs.oasis-open.org/odata/ns/edm\">\n"
+            + "      <EntityType Name=\"Item\">\n"
+            + "        <Key><PropertyRef Name=\"ID\"/></Key>\n"
+            + "        <Property Name=\"ID\" Type=\"Edm.Int32\" Nullable=\"false\"/>\n"
+            + "        <Property Name=\"Details\" Type=\"Cache.Types.Details\"/>\n"
+            + "      </EntityType>\n"
+            + "    </Schema>\n"
+            + "  </edmx:DataServices>\n"
+            + "</edmx:Edmx>\n").getBytes(StandardCharsets.UTF_8));
+        String mainPath = main.toAbsolutePath().toString().replace('\\', '/');
+        
+        parser.enableCaching(true);
+        parser.buildEdmProvider(mainPath);
+        parser.buildEdmProvider(mainPath);
+        
+        ParseStatistics stats = parser.getStatistics();
+        assertEquals(2, stats.getCacheHits(), "Unchanged files should be served from the cache");
+        assertEquals(0, stats.getCacheInvalidations());
+        
+        // Changing only the referenced file must invalidate both entries
+        Files.write(types, typesSchema("Label").getBytes(StandardCharsets.UTF_8));
+        SchemaBasedEdmProvider provider = parser.buildEdmProvider(mainPath);
+        
+        assertEquals(2, stats.getCacheHits(), "Changed closure should not hit the cache");
+        assertEquals(2, stats.getCacheInvalidations(), "Both the changed file and its referrer should be replaced");
+        CsdlComplexType details = provider.getComplexType(
+            new org.apache.olingo.commons.api.edm.FullQualifiedName("Cache.Types", "Details"));
+        assertNotNull(details);
+        assertNotNull(details.getProperty("Label"), "Should see the updated referenced schema");
+    }
+
+    @Test
+    @DisplayName("Test cache eviction when the entry limit is reached")
+    void testCacheEviction() throws Exception {
+        parser.enableCaching(true).maxCacheEntries(1);
+        
+        parser.buildEdmProvider(testResourcesPath + "/simple/basic-schema.xml");
+        parser.buildEdmProvider(testResourcesPath + "/dependencies/core-types.xml");
+        parser.buildEdmProvider(testResourcesPath + "/simple/basic-schema.xml");
+        
+        ParseStatistics stats = parser.getStatistics();
+        assertEquals(0, stats.getCacheHits(), "Evicted entries should not be served");
+        assertEquals(2, stats.getCacheEvictions());
+    }
+
+    private static String typesSchema(String propertyName) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<edmx:Edmx Version=\"4.0\" xmlns:edmx=\"http://docs.oasis-open.org/odata/ns/edmx\">\n"
+            + "  <edmx:DataServices>\n"
+            + "    <Schema Namespace=\"Cache.Types\" xmlns=\"http://docs.oasis-open.org/odata/ns/edm\">\n"
+            + "      <ComplexType Name=\"Details\">\n"
+            + "        <Property Name=\"" + propertyName + "\" Type=\"Edm.String\"/>\n"
+            + "      </ComplexType>\n"
+            + "    </Schema>\n"
+            + "  </edmx:DataServices>\n"
+            + "</edmx:Edmx>\n";
+    }
+
     // ========================================
     // 5. Configuration Tests
     // ========================================
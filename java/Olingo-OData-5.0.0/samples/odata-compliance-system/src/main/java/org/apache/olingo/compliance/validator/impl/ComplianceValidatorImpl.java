@@ -5,13 +5,22 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
@@ -24,13 +33,8 @@ import org.apache.olingo.compliance.engine.core.SchemaRegistry;
 import org.apache.olingo.compliance.engine.core.ValidationContext;
 import org.apache.olingo.compliance.engine.core.ValidationEngine;
 import org.apache.olingo.compliance.engine.core.impl.DefaultValidationEngineImpl;
+import org.apache.olingo.compliance.engine.rule.ValidationRule;
 import org.apache.olingo.compliance.validator.ComplianceValidator;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 
 /**
  * 统一的合规性验证器实现，支持文件和目录的验证
@@ -40,30 +44,56 @@ import javax.xml.parsers.DocumentBuilderFactory;
  * 2. 目录验证 - 扫描目录中所有XML文件并聚合验证结果
  * 3. 跨文件引用验证 - 使用SchemaRegistry进行类型依赖检查
  * 4. 统一的返回结果格式 - 所有验证都返回ComplianceResult
+ * 
+ * 目录验证时每个文件只解析一次（见ParsedSchemaFile），解析和验证在ForkJoinPool中并行执行，
+ * 结果按文件路径顺序合并，因此与并行度无关。
+ * 
+ * 设置了结果缓存文件时（见setResultCacheFile），目录验证只重新验证内容发生变化的文件
+ * 以及依赖它们的文件，其余文件直接使用缓存中的模型和验证结果。
  */
 public class ComplianceValidatorImpl implements ComplianceValidator {
     
     private final ValidationEngine engine;
     private final SchemaExtractor schemaExtractor;
+    private final int parallelism;
+    private Path resultCacheFile;
     
     // 用于目录验证时的命名空间和Schema管理
     private final Map<String, Set<SchemaInfo>> namespaceToSchemas;
     private final Map<String, SchemaInfo> fileToSchema;
     
     public ComplianceValidatorImpl() {
-        this.engine = createBasicValidationEngine();
-        this.schemaExtractor = new SchemaExtractor();
-        this.namespaceToSchemas = new ConcurrentHashMap<>();
-        this.fileToSchema = new ConcurrentHashMap<>();
+        this(null);
     }
     
     public ComplianceValidatorImpl(ValidationEngine customEngine) {
+        this(customEngine, Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * @param customEngine 自定义验证引擎，为null时使用默认引擎
+     * @param parallelism 目录验证时使用的线程数，至少为1
+     */
+    public ComplianceValidatorImpl(ValidationEngine customEngine, int parallelism) {
         this.engine = customEngine != null ? customEngine : createBasicValidationEngine();
         this.schemaExtractor = new SchemaExtractor();
+        this.parallelism = Math.max(1, parallelism);
         this.namespaceToSchemas = new ConcurrentHashMap<>();
         this.fileToSchema = new ConcurrentHashMap<>();
     }
     
+    /**
+     * 启用目录验证结果的持久化缓存
+     * 
+     * 缓存以文件内容哈希、依赖文件的内容哈希、规则集和Schema注册表为键，
+     * 任何一项变化都会使对应的缓存条目失效。
+     *
+     * @param cacheFile 缓存文件路径，为null时禁用缓存
+     */
+    public void setResultCacheFile(Path cacheFile) {
+        this.resultCacheFile = cacheFile;
+    }
+    
     // ==================== 文件验证方法 ====================
     
     @Override
@@ -153,6 +183,14 @@ public class ComplianceValidatorImpl implements ComplianceValidator {
      * 验证单个文件的核心逻辑
      */
     private ComplianceResult validateSingleFile(File xmlFile, SchemaRegistry registry) {
+        return validateParsedFile(ParsedSchemaFile.parse(xmlFile), registry);
+    }
+    
+    /**
+     * 基于已解析的文件模型进行验证，可在多个线程中并发调用
+     */
+    private ComplianceResult validateParsedFile(ParsedSchemaFile parsedFile, SchemaRegistry registry) {
+        File xmlFile = parsedFile.getFile();
         long startTime = System.currentTimeMillis();
         List<ComplianceIssue> allIssues = new ArrayList<>();
         Set<String> referencedNamespaces = new HashSet<>();
@@ -160,8 +198,8 @@ public class ComplianceValidatorImpl implements ComplianceValidator {
         
         try {
             // 1. 基础的Registry验证
-            allIssues.addAll(validateTypeReferences(xmlFile, registry));
-            allIssues.addAll(validateInheritanceRelations(xmlFile, registry));
+            allIssues.addAll(validateTypeReferences(parsedFile, registry));
+            allIssues.addAll(validateInheritanceRelations(parsedFile, registry));
             
             // 2. 增强的ValidationEngine验证
             ValidationContext context = ValidationContext.forFile(xmlFile.toPath());
@@ -186,22 +224,22 @@ public class ComplianceValidatorImpl implements ComplianceValidator {
             
             // 添加ValidationEngine的验证结果
             for (String error : result.getErrors()) {
-                allIssues.add(createComplianceIssue(error, xmlFile.getAbsolutePath(), ComplianceIssue.Severity.ERROR));
+                allIssues.add(createComplianceIssue(error, parsedFile.getFilePath(), ComplianceIssue.Severity.ERROR));
             }
             
             for (String warning : result.getWarnings()) {
-                allIssues.add(createComplianceIssue(warning, xmlFile.getAbsolutePath(), ComplianceIssue.Severity.WARNING));
+                allIssues.add(createComplianceIssue(warning, parsedFile.getFilePath(), ComplianceIssue.Severity.WARNING));
             }
             
             // 添加元数据
-            metadata.put("fileSize", xmlFile.length());
+            metadata.put("fileSize", parsedFile.getFileSize());
             metadata.put("fileName", xmlFile.getName());
             metadata.put("validationType", "single-file");
             
         } catch (Exception e) {
             allIssues.add(createComplianceIssue(
                 "Failed to validate file: " + e.getMessage(), 
-                xmlFile.getAbsolutePath(), 
+                parsedFile.getFilePath(), 
                 ComplianceIssue.Severity.ERROR
             ));
         }
@@ -219,7 +257,7 @@ public class ComplianceValidatorImpl implements ComplianceValidator {
             allIssues,
             referencedNamespaces,
             metadata,
-            xmlFile.getAbsolutePath(),
+            parsedFile.getFilePath(),
             validationTime
         );
     }
@@ -239,12 +277,15 @@ public class ComplianceValidatorImpl implements ComplianceValidator {
         
         List<File> xmlFiles = new ArrayList<>();
         int processedFiles = 0;
+        AtomicInteger cachedFiles = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
 
         try {
-            // 1. 扫描所有XML文件
+            // 1. 扫描所有XML文件，按路径排序保证结果顺序稳定
             try (Stream<Path> files = Files.walk(directoryPath)) {
                 files.filter(Files::isRegularFile)
                      .filter(path -> path.toString().toLowerCase().endsWith(".xml"))
+                     .sorted()
                      .forEach(path -> xmlFiles.add(path.toFile()));
             }
             
@@ -266,15 +307,35 @@ public class ComplianceValidatorImpl implements ComplianceValidator {
                 );
             }
             
-            // 2. 如果启用跨文件验证，先构建Schema Registry
+            // 2. 并行解析所有文件，每个文件只解析一次，后续步骤共享解析结果
+            //    启用缓存时，内容未变化的文件直接使用缓存中的模型
+            ValidationResultCache previousCache = resultCacheFile != null
+                ? ValidationResultCache.load(resultCacheFile, computeEnvironmentKey(registry)) : null;
+            List<Future<ParsedSchemaFile>> parseTasks =
+                submitAll(pool, xmlFiles, xmlFile -> loadFile(xmlFile, previousCache));
+            List<ParsedSchemaFile> parsedFiles = new ArrayList<>(totalFiles);
+            for (Future<ParsedSchemaFile> task : parseTasks) {
+                parsedFiles.add(task.get());
+            }
+            
+            // 3. 如果启用跨文件验证，先构建Schema Registry
             if (enableCrossFileValidation) {
-                buildSchemaRegistry(xmlFiles, registry, allIssues);
+                buildSchemaRegistry(parsedFiles, registry, allIssues);
             }
             
-            // 3. 验证每个文件
-            for (File xmlFile : xmlFiles) {
+            // 4. 并行验证每个文件，按文件顺序聚合结果
+            //    启用缓存时，内容和依赖都未变化的文件直接复用上次的验证结果
+            ValidationResultCache currentCache = previousCache != null ? previousCache.emptyCopy() : null;
+            Map<String, String> dependencyKeys = previousCache != null
+                ? computeDependencyKeys(parsedFiles) : Collections.<String, String>emptyMap();
+            List<Future<ComplianceResult>> validationTasks = submitAll(pool, parsedFiles, parsedFile ->
+                previousCache == null
+                    ? validateParsedFile(parsedFile, registry)
+                    : validateIncrementally(parsedFile, registry, dependencyKeys.get(parsedFile.getFilePath()),
+                                            previousCache, currentCache, cachedFiles));
+            for (int i = 0; i < totalFiles; i++) {
                 try {
-                    ComplianceResult fileResult = validateSingleFile(xmlFile, registry);
+                    ComplianceResult fileResult = validationTasks.get(i).get();
                     
                     // 聚合结果
                     allIssues.addAll(fileResult.getIssues());
@@ -282,26 +343,48 @@ public class ComplianceValidatorImpl implements ComplianceValidator {
                     
                     processedFiles++;
                     
-                } catch (Exception e) {
+                } catch (ExecutionException e) {
                     allIssues.add(createComplianceIssue(
-                        "Failed to validate file: " + e.getMessage(),
-                        xmlFile.getAbsolutePath(),
+                        "Failed to validate file: " + e.getCause().getMessage(),
+                        xmlFiles.get(i).getAbsolutePath(),
                         ComplianceIssue.Severity.ERROR
                     ));
                 }
             }
             
-            // 4. 如果启用跨文件验证，检查命名空间冲突
+            // 5. 如果启用跨文件验证，检查命名空间冲突
             if (enableCrossFileValidation) {
                 allIssues.addAll(detectNamespaceConflicts());
             }
             
+            // 6. 保存本次的验证结果，已删除的文件不再保留在缓存中
+            if (currentCache != null) {
+                try {
+                    currentCache.save();
+                } catch (IOException e) {
+                    allIssues.add(createComplianceIssue(
+                        "Failed to write validation cache: " + e.getMessage(),
+                        resultCacheFile.toString(),
+                        ComplianceIssue.Severity.WARNING
+                    ));
+                }
+            }
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            allIssues.add(createComplianceIssue(
+                "Directory validation was interrupted",
+                directoryPath.toString(),
+                ComplianceIssue.Severity.ERROR
+            ));
         } catch (Exception e) {
             allIssues.add(createComplianceIssue(
                 "Failed to process directory: " + e.getMessage(),
                 directoryPath.toString(),
                 ComplianceIssue.Severity.ERROR
             ));
+        } finally {
+            pool.shutdown();
         }
         
         // 设置元数据
@@ -311,6 +394,9 @@ public class ComplianceValidatorImpl implements ComplianceValidator {
         metadata.put("processedFiles", processedFiles);
         metadata.put("crossFileValidationEnabled", enableCrossFileValidation);
         metadata.put("validationTimeMs", validationTime);
+        metadata.put("parallelism", parallelism);
+        metadata.put("cachedFiles", cachedFiles.get());
+        metadata.put("filesPerSecond", processedFiles * 1000.0 / Math.max(1L, validationTime));
         
         // 确定合规性状态
         boolean isCompliant = allIssues.isEmpty() || 
@@ -329,27 +415,20 @@ public class ComplianceValidatorImpl implements ComplianceValidator {
     /**
      * 构建Schema Registry用于跨文件验证
      */
-    private void buildSchemaRegistry(List<File> xmlFiles, SchemaRegistry registry, List<ComplianceIssue> issues) {
-        for (File xmlFile : xmlFiles) {
-            try {
-                // 简化的Schema信息提取 - 基于XML解析
-                SchemaInfo schemaInfo = extractSimpleSchemaInfo(xmlFile);
-                if (schemaInfo != null && schemaInfo.getNamespace() != null) {
-                    // 注册到SchemaRegistry
-                    for (String typeName : schemaInfo.getTypes()) {
-//                        registry.registerType(schemaInfo.getNamespace() + "." + typeName);
-                    }
-
-                    // 维护本地映射用于冲突检测
-                    namespaceToSchemas.computeIfAbsent(schemaInfo.getNamespace(), k -> new HashSet<>()).add(schemaInfo);
-                    fileToSchema.put(xmlFile.getAbsolutePath(), schemaInfo);
+    private void buildSchemaRegistry(List<ParsedSchemaFile> parsedFiles, SchemaRegistry registry,
+                                     List<ComplianceIssue> issues) {
+        for (ParsedSchemaFile parsedFile : parsedFiles) {
+            // 简化的Schema信息提取 - 基于已解析的文件模型
+            SchemaInfo schemaInfo = extractSimpleSchemaInfo(parsedFile);
+            if (schemaInfo != null) {
+                // 注册到SchemaRegistry
+                for (String typeName : schemaInfo.getTypes()) {
+//                    registry.registerType(schemaInfo.getNamespace() + "." + typeName);
                 }
-            } catch (Exception e) {
-                issues.add(createComplianceIssue(
-                    "Failed to extract schema from file: " + e.getMessage(),
-                    xmlFile.getAbsolutePath(),
-                    ComplianceIssue.Severity.WARNING
-                ));
+
+                // 维护本地映射用于冲突检测
+                namespaceToSchemas.computeIfAbsent(schemaInfo.getNamespace(), k -> new HashSet<>()).add(schemaInfo);
+                fileToSchema.put(parsedFile.getFilePath(), schemaInfo);
             }
         }
     }
@@ -357,56 +436,136 @@ public class ComplianceValidatorImpl implements ComplianceValidator {
     /**
      * 简化的Schema信息提取
      */
-    private SchemaInfo extractSimpleSchemaInfo(File xmlFile) {
-        try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            // 安全配置
-            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
-            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document document = builder.parse(xmlFile);
+    private SchemaInfo extractSimpleSchemaInfo(ParsedSchemaFile parsedFile) {
+        String namespace = parsedFile.getNamespace();
+        if (!parsedFile.isParsed() || namespace == null || namespace.isEmpty()) {
+            return null;
+        }
 
-            // 获取Schema命名空间
-            NodeList schemas = document.getElementsByTagNameNS("*", "Schema");
-            if (schemas.getLength() > 0) {
-                Element schema = (Element) schemas.item(0);
-                String namespace = schema.getAttribute("Namespace");
+        Set<String> types = new HashSet<>();
+        // 收集EntityType和ComplexType
+        addTypeNames(parsedFile.getEntityTypes(), types);
+        addTypeNames(parsedFile.getComplexTypes(), types);
 
-                if (namespace != null && !namespace.isEmpty()) {
-                    Set<String> types = new HashSet<>();
+        return new SchemaInfo(namespace, parsedFile.getFilePath(), types);
+    }
 
-                    // 收集EntityType
-                    NodeList entityTypes = document.getElementsByTagNameNS("*", "EntityType");
-                    for (int i = 0; i < entityTypes.getLength(); i++) {
-                        Element entityType = (Element) entityTypes.item(i);
-                        String typeName = entityType.getAttribute("Name");
-                        if (typeName != null && !typeName.isEmpty()) {
-                            types.add(typeName);
-                        }
-                    }
+    private void addTypeNames(List<ParsedSchemaFile.TypeDeclaration> declarations, Set<String> types) {
+        for (ParsedSchemaFile.TypeDeclaration declaration : declarations) {
+            String typeName = declaration.getName();
+            if (typeName != null && !typeName.isEmpty()) {
+                types.add(typeName);
+            }
+        }
+    }
 
-                    // 收集ComplexType
-                    NodeList complexTypes = document.getElementsByTagNameNS("*", "ComplexType");
-                    for (int i = 0; i < complexTypes.getLength(); i++) {
-                        Element complexType = (Element) complexTypes.item(i);
-                        String typeName = complexType.getAttribute("Name");
-                        if (typeName != null && !typeName.isEmpty()) {
-                            types.add(typeName);
-                        }
+    /**
+     * 读取文件并在内容未变化时复用缓存中的解析模型，否则重新解析
+     */
+    private static ParsedSchemaFile loadFile(File xmlFile, ValidationResultCache cache) {
+        if (cache == null) {
+            return ParsedSchemaFile.parse(xmlFile);
+        }
+        byte[] content;
+        try {
+            content = Files.readAllBytes(xmlFile.toPath());
+        } catch (IOException e) {
+            // 由parse生成带有读取错误的模型
+            return ParsedSchemaFile.parse(xmlFile);
+        }
+        String contentHash = ParsedSchemaFile.contentHash(content);
+        ValidationResultCache.Entry cached = cache.get(xmlFile.getAbsolutePath());
+        if (cached != null && contentHash.equals(cached.getParsedFile().getContentHash())) {
+            return cached.getParsedFile();
+        }
+        return ParsedSchemaFile.parse(xmlFile, content, contentHash);
+    }
+    
+    /**
+     * 内容和依赖指纹都与缓存一致时复用上次的验证结果，否则重新验证并更新缓存
+     */
+    private ComplianceResult validateIncrementally(ParsedSchemaFile parsedFile, SchemaRegistry registry,
+                                                   String dependencyKey, ValidationResultCache previousCache,
+                                                   ValidationResultCache currentCache, AtomicInteger cachedFiles) {
+        if (parsedFile.getContentHash().isEmpty()) {
+            // 文件无法读取，不缓存
+            return validateParsedFile(parsedFile, registry);
+        }
+        ValidationResultCache.Entry cached = previousCache.get(parsedFile.getFilePath());
+        if (cached != null
+                && parsedFile.getContentHash().equals(cached.getParsedFile().getContentHash())
+                && dependencyKey.equals(cached.getDependencyKey())) {
+            cachedFiles.incrementAndGet();
+            currentCache.put(cached);
+            return cached.getResult();
+        }
+        ComplianceResult result = validateParsedFile(parsedFile, registry);
+        currentCache.put(new ValidationResultCache.Entry(parsedFile, dependencyKey, result));
+        return result;
+    }
+    
+    /**
+     * 计算每个文件的依赖指纹
+     * 
+     * 指纹由文件引用的每个命名空间以及定义该命名空间的所有文件的内容哈希组成，
+     * 被引用的文件修改、新增或删除时，引用它的文件的指纹随之变化。
+     */
+    private static Map<String, String> computeDependencyKeys(List<ParsedSchemaFile> parsedFiles) {
+        Map<String, List<ParsedSchemaFile>> declaringFiles = new HashMap<>();
+        for (ParsedSchemaFile parsedFile : parsedFiles) {
+            if (!parsedFile.getNamespace().isEmpty()) {
+                declaringFiles.computeIfAbsent(parsedFile.getNamespace(), k -> new ArrayList<>()).add(parsedFile);
+            }
+        }
+        
+        Map<String, String> dependencyKeys = new HashMap<>();
+        for (ParsedSchemaFile parsedFile : parsedFiles) {
+            StringBuilder key = new StringBuilder();
+            for (String namespace : parsedFile.getReferencedNamespaces()) {
+                key.append(namespace).append('=');
+                List<ParsedSchemaFile> declaring = declaringFiles.get(namespace);
+                if (declaring != null) {
+                    for (ParsedSchemaFile dependency : declaring) {
+                        key.append(dependency.getContentHash()).append(',');
                     }
-
-                    return new SchemaInfo(namespace, xmlFile.getAbsolutePath(), types);
                 }
+                key.append(';');
             }
-
-            return null;
-
-        } catch (Exception e) {
-            return null;
+            dependencyKeys.put(parsedFile.getFilePath(),
+                ParsedSchemaFile.contentHash(key.toString().getBytes(StandardCharsets.UTF_8)));
         }
+        return dependencyKeys;
+    }
+    
+    /**
+     * 计算验证环境的指纹：已注册的规则和Schema注册表中的类型，二者变化时整个缓存失效
+     */
+    private String computeEnvironmentKey(SchemaRegistry registry) {
+        List<String> rules = new ArrayList<>();
+        for (ValidationRule rule : engine.getRegisteredRules()) {
+            rules.add(rule.getClass().getName() + ':' + rule.getName() + ':' + rule.getSeverity());
+        }
+        Collections.sort(rules);
+        
+        StringBuilder key = new StringBuilder(engine.getClass().getName()).append(rules);
+        if (registry != null) {
+            for (String namespace : new TreeSet<>(registry.getAllNamespaces())) {
+                key.append('|').append(namespace).append(new TreeSet<>(registry.getTypesInNamespace(namespace)));
+            }
+        }
+        key.append('|').append(ValidationConfig.standard());
+        return ParsedSchemaFile.contentHash(key.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * 将每个元素作为独立任务提交到线程池，返回的Future与输入顺序一致
+     */
+    private static <T, R> List<Future<R>> submitAll(ForkJoinPool pool, List<T> inputs, Function<T, R> task) {
+        List<Callable<R>> callables = new ArrayList<>(inputs.size());
+        for (T input : inputs) {
+            callables.add(() -> task.apply(input));
+        }
+        return pool.invokeAll(callables);
     }
 
     /**
@@ -447,65 +606,47 @@ public class ComplianceValidatorImpl implements ComplianceValidator {
     /**
      * 验证类型引用（复用自原有实现）
      */
-    private List<ComplianceIssue> validateTypeReferences(File xmlFile, SchemaRegistry registry) {
+    private List<ComplianceIssue> validateTypeReferences(ParsedSchemaFile parsedFile, SchemaRegistry registry) {
         List<ComplianceIssue> issues = new ArrayList<>();
         
-        try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            // 安全配置
-            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
-            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-            
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document document = builder.parse(xmlFile);
-            
-            // 检查Property元素的Type属性
-            NodeList properties = document.getElementsByTagNameNS("*", "Property");
-            for (int i = 0; i < properties.getLength(); i++) {
-                Element property = (Element) properties.item(i);
-                String typeName = property.getAttribute("Type");
-                
-                if (typeName != null && !typeName.isEmpty() && !isBuiltInType(typeName)) {
-                    if (!registry.isTypeExists(typeName)) {
-                        issues.add(new ComplianceIssue(
-                            ComplianceErrorType.TYPE_NOT_EXIST,
-                            "Type '" + typeName + "' is not defined in any schema",
-                            null,
-                            xmlFile.getAbsolutePath(),
-                            ComplianceIssue.Severity.ERROR
-                        ));
-                    }
+        if (!parsedFile.isParsed()) {
+            issues.add(createComplianceIssue(
+                "Failed to validate type references: " + parsedFile.getParseError(),
+                parsedFile.getFilePath(),
+                ComplianceIssue.Severity.ERROR
+            ));
+            return issues;
+        }
+        
+        // 检查Property元素的Type属性
+        for (String typeName : parsedFile.getPropertyTypes()) {
+            if (typeName != null && !typeName.isEmpty() && !isBuiltInType(typeName)) {
+                if (!registry.isTypeExists(typeName)) {
+                    issues.add(new ComplianceIssue(
+                        ComplianceErrorType.TYPE_NOT_EXIST,
+                        "Type '" + typeName + "' is not defined in any schema",
+                        null,
+                        parsedFile.getFilePath(),
+                        ComplianceIssue.Severity.ERROR
+                    ));
                 }
             }
-            
-            // 检查NavigationProperty元素的Type属性
-            NodeList navProperties = document.getElementsByTagNameNS("*", "NavigationProperty");
-            for (int i = 0; i < navProperties.getLength(); i++) {
-                Element navProperty = (Element) navProperties.item(i);
-                String typeName = navProperty.getAttribute("Type");
-                
-                if (typeName != null && !typeName.isEmpty()) {
-                    String actualTypeName = extractTypeFromCollection(typeName);
-                    if (!isBuiltInType(actualTypeName) && !registry.isTypeExists(actualTypeName)) {
-                        issues.add(new ComplianceIssue(
-                            ComplianceErrorType.TYPE_NOT_EXIST,
-                            "Type '" + actualTypeName + "' is not defined in any schema",
-                            null,
-                            xmlFile.getAbsolutePath(),
-                            ComplianceIssue.Severity.ERROR
-                        ));
-                    }
+        }
+        
+        // 检查NavigationProperty元素的Type属性
+        for (String typeName : parsedFile.getNavigationPropertyTypes()) {
+            if (typeName != null && !typeName.isEmpty()) {
+                String actualTypeName = extractTypeFromCollection(typeName);
+                if (!isBuiltInType(actualTypeName) && !registry.isTypeExists(actualTypeName)) {
+                    issues.add(new ComplianceIssue(
+                        ComplianceErrorType.TYPE_NOT_EXIST,
+                        "Type '" + actualTypeName + "' is not defined in any schema",
+                        null,
+                        parsedFile.getFilePath(),
+                        ComplianceIssue.Severity.ERROR
+                    ));
                 }
             }
-            
-        } catch (Exception e) {
-            issues.add(createComplianceIssue(
-                "Failed to validate type references: " + e.getMessage(),
-                xmlFile.getAbsolutePath(),
-                ComplianceIssue.Severity.ERROR
-            ));
         }
         
         return issues;
@@ -514,87 +655,49 @@ public class ComplianceValidatorImpl implements ComplianceValidator {
     /**
      * 验证继承关系（复用自原有实现）
      */
-    private List<ComplianceIssue> validateInheritanceRelations(File xmlFile, SchemaRegistry registry) {
+    private List<ComplianceIssue> validateInheritanceRelations(ParsedSchemaFile parsedFile, SchemaRegistry registry) {
         List<ComplianceIssue> issues = new ArrayList<>();
         
-        try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            // 安全配置
-            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
-            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-            
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document document = builder.parse(xmlFile);
-            
-            // 获取当前文件的Schema命名空间
-            NodeList schemas = document.getElementsByTagNameNS("*", "Schema");
-            String currentNamespace = "";
-            if (schemas.getLength() > 0) {
-                Element schema = (Element) schemas.item(0);
-                currentNamespace = schema.getAttribute("Namespace");
-            }
-            
-            // 检查EntityType的继承关系
-            NodeList entityTypes = document.getElementsByTagNameNS("*", "EntityType");
-            for (int i = 0; i < entityTypes.getLength(); i++) {
-                Element entityType = (Element) entityTypes.item(i);
-                String typeName = entityType.getAttribute("Name");
-                String baseType = entityType.getAttribute("BaseType");
-                
-                if (baseType != null && !baseType.isEmpty()) {
-                    String fullTypeName = currentNamespace + "." + typeName;
-                    if (!registry.isValidBaseType(fullTypeName, baseType)) {
-                        ComplianceErrorType errorType = determineInheritanceErrorType(baseType, registry);
-                        String message = determineInheritanceErrorMessage(typeName, baseType, errorType);
-                        
-                        issues.add(new ComplianceIssue(
-                            errorType,
-                            message,
-                            null,
-                            xmlFile.getAbsolutePath(),
-                            ComplianceIssue.Severity.ERROR
-                        ));
-                    }
-                }
-            }
-            
-            // 检查ComplexType的继承关系
-            NodeList complexTypes = document.getElementsByTagNameNS("*", "ComplexType");
-            for (int i = 0; i < complexTypes.getLength(); i++) {
-                Element complexType = (Element) complexTypes.item(i);
-                String typeName = complexType.getAttribute("Name");
-                String baseType = complexType.getAttribute("BaseType");
-                
-                if (baseType != null && !baseType.isEmpty()) {
-                    String fullTypeName = currentNamespace + "." + typeName;
-                    if (!registry.isValidBaseType(fullTypeName, baseType)) {
-                        ComplianceErrorType errorType = determineInheritanceErrorType(baseType, registry);
-                        String message = determineInheritanceErrorMessage(typeName, baseType, errorType);
-                        
-                        issues.add(new ComplianceIssue(
-                            errorType,
-                            message,
-                            null,
-                            xmlFile.getAbsolutePath(),
-                            ComplianceIssue.Severity.ERROR
-                        ));
-                    }
-                }
-            }
-            
-        } catch (Exception e) {
+        if (!parsedFile.isParsed()) {
             issues.add(createComplianceIssue(
-                "Failed to validate inheritance relations: " + e.getMessage(),
-                xmlFile.getAbsolutePath(),
+                "Failed to validate inheritance relations: " + parsedFile.getParseError(),
+                parsedFile.getFilePath(),
                 ComplianceIssue.Severity.ERROR
             ));
+            return issues;
         }
         
+        // 检查EntityType和ComplexType的继承关系
+        validateBaseTypes(parsedFile, parsedFile.getEntityTypes(), registry, issues);
+        validateBaseTypes(parsedFile, parsedFile.getComplexTypes(), registry, issues);
+        
         return issues;
     }
     
+    private void validateBaseTypes(ParsedSchemaFile parsedFile, List<ParsedSchemaFile.TypeDeclaration> declarations,
+                                   SchemaRegistry registry, List<ComplianceIssue> issues) {
+        for (ParsedSchemaFile.TypeDeclaration declaration : declarations) {
+            String typeName = declaration.getName();
+            String baseType = declaration.getBaseType();
+            
+            if (baseType != null && !baseType.isEmpty()) {
+                String fullTypeName = parsedFile.getNamespace() + "." + typeName;
+                if (!registry.isValidBaseType(fullTypeName, baseType)) {
+                    ComplianceErrorType errorType = determineInheritanceErrorType(baseType, registry);
+                    String message = determineInheritanceErrorMessage(typeName, baseType, errorType);
+                    
+                    issues.add(new ComplianceIssue(
+                        errorType,
+                        message,
+                        null,
+                        parsedFile.getFilePath(),
+                        ComplianceIssue.Severity.ERROR
+                    ));
+                }
+            }
+        }
+    }
+    
     /**
      * 创建基础的ValidationEngine
      */
@@ -0,0 +1,254 @@
+package org.apache.olingo.compliance.validator.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * 单个XML文件解析后的不可变模型
+ *
+ * 每个文件只解析一次，类型引用、继承关系和Schema注册表的构建都基于同一个模型，
+ * 不再各自重新构建DOM。实例创建后不可修改，可以在多个验证线程之间共享。
+ * 模型同时记录文件内容的哈希值，用于增量验证时判断文件是否发生变化。
+ */
+final class ParsedSchemaFile {
+
+    /**
+     * 每个线程复用一个DocumentBuilder，DocumentBuilderFactory和DocumentBuilder都不是线程安全的
+     */
+    private static final ThreadLocal<DocumentBuilder> BUILDER = new ThreadLocal<DocumentBuilder>() {
+        @Override
+        protected DocumentBuilder initialValue() {
+            try {
+                DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+                factory.setNamespaceAware(true);
+                // 安全配置
+                factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+                factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+                factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+                return factory.newDocumentBuilder();
+            } catch (ParserConfigurationException e) {
+                throw new IllegalStateException("Failed to create XML document builder", e);
+            }
+        }
+    };
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final File file;
+    private final String filePath;
+    private final long fileSize;
+    private final String contentHash;
+    private final String namespace;
+    private final List<TypeDeclaration> entityTypes;
+    private final List<TypeDeclaration> complexTypes;
+    private final List<String> propertyTypes;
+    private final List<String> navigationPropertyTypes;
+    private final Set<String> referencedNamespaces;
+    private final String parseError;
+
+    private ParsedSchemaFile(File file, long fileSize, String contentHash, String namespace,
+                             List<TypeDeclaration> entityTypes, List<TypeDeclaration> complexTypes,
+                             List<String> propertyTypes, List<String> navigationPropertyTypes, String parseError) {
+        this.file = file;
+        this.filePath = file.getAbsolutePath();
+        this.fileSize = fileSize;
+        this.contentHash = contentHash;
+        this.namespace = namespace;
+        this.entityTypes = Collections.unmodifiableList(entityTypes);
+        this.complexTypes = Collections.unmodifiableList(complexTypes);
+        this.propertyTypes = Collections.unmodifiableList(propertyTypes);
+        this.navigationPropertyTypes = Collections.unmodifiableList(navigationPropertyTypes);
+        this.referencedNamespaces = Collections.unmodifiableSet(collectReferencedNamespaces());
+        this.parseError = parseError;
+    }
+
+    /**
+     * 读取并解析XML文件，读取或解析失败时返回带有错误信息的模型而不是抛出异常
+     */
+    static ParsedSchemaFile parse(File xmlFile) {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(xmlFile.toPath());
+        } catch (Exception e) {
+            return failed(xmlFile, xmlFile.length(), "", String.valueOf(e.getMessage()));
+        }
+        return parse(xmlFile, content, contentHash(content));
+    }
+
+    /**
+     * 解析已读入内存的XML文件内容
+     */
+    static ParsedSchemaFile parse(File xmlFile, byte[] content, String contentHash) {
+        Document document;
+        try {
+            DocumentBuilder builder = BUILDER.get();
+            builder.reset();
+            document = builder.parse(new ByteArrayInputStream(content), xmlFile.toURI().toString());
+        } catch (Exception e) {
+            return failed(xmlFile, content.length, contentHash, String.valueOf(e.getMessage()));
+        }
+
+        // 获取第一个Schema的命名空间
+        NodeList schemas = document.getElementsByTagNameNS("*", "Schema");
+        String namespace = "";
+        if (schemas.getLength() > 0) {
+            namespace = ((Element) schemas.item(0)).getAttribute("Namespace");
+        }
+
+        return new ParsedSchemaFile(xmlFile, content.length, contentHash, namespace,
+            collectTypes(document, "EntityType"),
+            collectTypes(document, "ComplexType"),
+            collectAttributes(document, "Property", "Type"),
+            collectAttributes(document, "NavigationProperty", "Type"),
+            null);
+    }
+
+    /**
+     * 从缓存中恢复模型，不需要重新读取和解析文件
+     */
+    static ParsedSchemaFile restore(File xmlFile, long fileSize, String contentHash, String namespace,
+                                    List<TypeDeclaration> entityTypes, List<TypeDeclaration> complexTypes,
+                                    List<String> propertyTypes, List<String> navigationPropertyTypes,
+                                    String parseError) {
+        return new ParsedSchemaFile(xmlFile, fileSize, contentHash, namespace, entityTypes, complexTypes,
+            propertyTypes, navigationPropertyTypes, parseError);
+    }
+
+    private static ParsedSchemaFile failed(File xmlFile, long fileSize, String contentHash, String parseError) {
+        return new ParsedSchemaFile(xmlFile, fileSize, contentHash, "", Collections.<TypeDeclaration>emptyList(),
+            Collections.<TypeDeclaration>emptyList(), Collections.<String>emptyList(),
+            Collections.<String>emptyList(), parseError);
+    }
+
+    /**
+     * 计算文件内容的SHA-256哈希值（十六进制字符串）
+     */
+    static String contentHash(byte[] content) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        byte[] hash = digest.digest(content);
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[2 * i] = HEX[(hash[i] >> 4) & 0x0F];
+            hex[2 * i + 1] = HEX[hash[i] & 0x0F];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * 收集类型引用和基类型所在的命名空间，即当前文件依赖的命名空间
+     */
+    private Set<String> collectReferencedNamespaces() {
+        Set<String> namespaces = new TreeSet<>();
+        for (String typeName : propertyTypes) {
+            addNamespaceOf(typeName, namespaces);
+        }
+        for (String typeName : navigationPropertyTypes) {
+            addNamespaceOf(typeName, namespaces);
+        }
+        for (TypeDeclaration declaration : entityTypes) {
+            addNamespaceOf(declaration.getBaseType(), namespaces);
+        }
+        for (TypeDeclaration declaration : complexTypes) {
+            addNamespaceOf(declaration.getBaseType(), namespaces);
+        }
+        return namespaces;
+    }
+
+    private static void addNamespaceOf(String typeName, Set<String> namespaces) {
+        if (typeName == null) {
+            return;
+        }
+        String qualifiedName = typeName.startsWith("Collection(") && typeName.endsWith(")")
+            ? typeName.substring(11, typeName.length() - 1) : typeName;
+        int lastDot = qualifiedName.lastIndexOf('.');
+        if (lastDot > 0 && !qualifiedName.startsWith("Edm.")) {
+            namespaces.add(qualifiedName.substring(0, lastDot));
+        }
+    }
+
+    private static List<TypeDeclaration> collectTypes(Document document, String localName) {
+        NodeList elements = document.getElementsByTagNameNS("*", localName);
+        List<TypeDeclaration> types = new ArrayList<>(elements.getLength());
+        for (int i = 0; i < elements.getLength(); i++) {
+            Element element = (Element) elements.item(i);
+            types.add(new TypeDeclaration(element.getAttribute("Name"), element.getAttribute("BaseType")));
+        }
+        return types;
+    }
+
+    private static List<String> collectAttributes(Document document, String localName, String attribute) {
+        NodeList elements = document.getElementsByTagNameNS("*", localName);
+        List<String> values = new ArrayList<>(elements.getLength());
+        for (int i = 0; i < elements.getLength(); i++) {
+            values.add(((Element) elements.item(i)).getAttribute(attribute));
+        }
+        return values;
+    }
+
+    File getFile() { return file; }
+    String getFilePath() { return filePath; }
+    long getFileSize() { return fileSize; }
+    String getContentHash() { return contentHash; }
+
+    /**
+     * 第一个Schema的命名空间，没有Schema或解析失败时为空字符串
+     */
+    String getNamespace() { return namespace; }
+    List<TypeDeclaration> getEntityTypes() { return entityTypes; }
+    List<TypeDeclaration> getComplexTypes() { return complexTypes; }
+
+    /**
+     * 所有Property元素的Type属性，按文档顺序
+     */
+    List<String> getPropertyTypes() { return propertyTypes; }
+
+    /**
+     * 所有NavigationProperty元素的Type属性，按文档顺序
+     */
+    List<String> getNavigationPropertyTypes() { return navigationPropertyTypes; }
+
+    /**
+     * 当前文件引用的其他命名空间（按名称排序），不包含Edm内置类型
+     */
+    Set<String> getReferencedNamespaces() { return referencedNamespaces; }
+
+    boolean isParsed() { return parseError == null; }
+    String getParseError() { return parseError; }
+
+    /**
+     * EntityType或ComplexType的声明
+     */
+    static final class TypeDeclaration {
+        private final String name;
+        private final String baseType;
+
+        TypeDeclaration(String name, String baseType) {
+            this.name = name;
+            this.baseType = baseType;
+        }
+
+        String getName() { return name; }
+        String getBaseType() { return baseType; }
+    }
+}
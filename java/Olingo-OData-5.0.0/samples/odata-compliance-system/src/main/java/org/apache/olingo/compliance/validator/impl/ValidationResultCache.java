@@ -0,0 +1,304 @@
+package org.apache.olingo.compliance.validator.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.olingo.compliance.core.model.ComplianceErrorType;
+import org.apache.olingo.compliance.core.model.ComplianceIssue;
+import org.apache.olingo.compliance.core.model.ComplianceResult;
+
+/**
+ * 目录验证结果的持久化缓存
+ *
+ * 每个条目保存一个文件的解析模型（含内容哈希）、依赖指纹和单文件验证结果。
+ * 依赖指纹由该文件引用的命名空间及定义这些命名空间的文件的内容哈希计算得到，
+ * 因此被依赖的文件发生变化时，依赖它的文件也会重新验证。
+ *
+ * 缓存文件头部记录格式版本和环境指纹（规则集和Schema注册表），任何一个不匹配时整个缓存失效。
+ * 读取失败或格式不匹配时视为空缓存，不会影响验证本身。
+ */
+final class ValidationResultCache {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path cacheFile;
+    private final String environmentKey;
+    private final Map<String, Entry> entries;
+
+    private ValidationResultCache(Path cacheFile, String environmentKey, Map<String, Entry> entries) {
+        this.cacheFile = cacheFile;
+        this.environmentKey = environmentKey;
+        this.entries = entries;
+    }
+
+    /**
+     * 加载缓存文件，文件不存在、无法读取或环境指纹不匹配时返回空缓存
+     */
+    static ValidationResultCache load(Path cacheFile, String environmentKey) {
+        Map<String, Entry> entries = new ConcurrentHashMap<>();
+        if (Files.isRegularFile(cacheFile)) {
+            try (InputStream stream = Files.newInputStream(cacheFile);
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+                if (in.readInt() == FORMAT_VERSION && environmentKey.equals(in.readUTF())) {
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        Entry entry = readEntry(in);
+                        entries.put(entry.getParsedFile().getFilePath(), entry);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                entries.clear();
+            }
+        }
+        return new ValidationResultCache(cacheFile, environmentKey, entries);
+    }
+
+    /**
+     * 创建一个写入同一缓存文件的空缓存，用于收集本次验证的结果
+     */
+    ValidationResultCache emptyCopy() {
+        return new ValidationResultCache(cacheFile, environmentKey, new ConcurrentHashMap<String, Entry>());
+    }
+
+    Entry get(String filePath) {
+        return entries.get(filePath);
+    }
+
+    void put(Entry entry) {
+        entries.put(entry.getParsedFile().getFilePath(), entry);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * 写入缓存文件，先写临时文件再替换，避免中断时留下不完整的缓存
+     */
+    void save() throws IOException {
+        Path directory = cacheFile.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path tempFile = Files.createTempFile(directory, cacheFile.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream stream = Files.newOutputStream(tempFile);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(environmentKey);
+                out.writeInt(entries.size());
+                for (Entry entry : entries.values()) {
+                    writeEntry(entry, out);
+                }
+            }
+            Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    // ==================== 序列化 ====================
+
+    private static void writeEntry(Entry entry, DataOutputStream out) throws IOException {
+        ParsedSchemaFile parsedFile = entry.getParsedFile();
+        out.writeUTF(parsedFile.getFilePath());
+        out.writeLong(parsedFile.getFileSize());
+        out.writeUTF(parsedFile.getContentHash());
+        out.writeUTF(parsedFile.getNamespace());
+        writeDeclarations(parsedFile.getEntityTypes(), out);
+        writeDeclarations(parsedFile.getComplexTypes(), out);
+        writeStrings(parsedFile.getPropertyTypes(), out);
+        writeStrings(parsedFile.getNavigationPropertyTypes(), out);
+        writeNullable(parsedFile.getParseError(), out);
+        out.writeUTF(entry.getDependencyKey());
+
+        ComplianceResult result = entry.getResult();
+        out.writeBoolean(result.isCompliant());
+        out.writeInt(result.getIssues().size());
+        for (ComplianceIssue issue : result.getIssues()) {
+            out.writeUTF(issue.getErrorType().name());
+            writeNullable(issue.getMessage(), out);
+            writeNullable(issue.getElementName(), out);
+            writeNullable(issue.getLocation(), out);
+            out.writeUTF(issue.getSeverity().name());
+        }
+        writeStrings(result.getReferencedNamespaces(), out);
+        writeMetadata(result.getMetadata(), out);
+        writeNullable(result.getFileName(), out);
+        out.writeLong(result.getValidationTimeMs());
+    }
+
+    private static Entry readEntry(DataInputStream in) throws IOException {
+        File file = new File(in.readUTF());
+        long fileSize = in.readLong();
+        String contentHash = in.readUTF();
+        String namespace = in.readUTF();
+        List<ParsedSchemaFile.TypeDeclaration> entityTypes = readDeclarations(in);
+        List<ParsedSchemaFile.TypeDeclaration> complexTypes = readDeclarations(in);
+        List<String> propertyTypes = readStrings(in);
+        List<String> navigationPropertyTypes = readStrings(in);
+        String parseError = readNullable(in);
+        ParsedSchemaFile parsedFile = ParsedSchemaFile.restore(file, fileSize, contentHash, namespace,
+            entityTypes, complexTypes, propertyTypes, navigationPropertyTypes, parseError);
+        String dependencyKey = in.readUTF();
+
+        boolean compliant = in.readBoolean();
+        int issueCount = in.readInt();
+        List<ComplianceIssue> issues = new ArrayList<>(issueCount);
+        for (int i = 0; i < issueCount; i++) {
+            ComplianceErrorType errorType = ComplianceErrorType.valueOf(in.readUTF());
+            String message = readNullable(in);
+            String elementName = readNullable(in);
+            String location = readNullable(in);
+            ComplianceIssue.Severity severity = ComplianceIssue.Severity.valueOf(in.readUTF());
+            issues.add(new ComplianceIssue(errorType, message, elementName, location, severity));
+        }
+        Set<String> referencedNamespaces = new HashSet<>(readStrings(in));
+        Map<String, Object> metadata = readMetadata(in);
+        String fileName = readNullable(in);
+        long validationTime = in.readLong();
+
+        return new Entry(parsedFile, dependencyKey,
+            new ComplianceResult(compliant, issues, referencedNamespaces, metadata, fileName, validationTime));
+    }
+
+    private static void writeDeclarations(List<ParsedSchemaFile.TypeDeclaration> declarations, DataOutputStream out)
+            throws IOException {
+        out.writeInt(declarations.size());
+        for (ParsedSchemaFile.TypeDeclaration declaration : declarations) {
+            writeNullable(declaration.getName(), out);
+            writeNullable(declaration.getBaseType(), out);
+        }
+    }
+
+    private static List<ParsedSchemaFile.TypeDeclaration> readDeclarations(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<ParsedSchemaFile.TypeDeclaration> declarations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            declarations.add(new ParsedSchemaFile.TypeDeclaration(readNullable(in), readNullable(in)));
+        }
+        return declarations;
+    }
+
+    private static void writeStrings(Collection<String> values, DataOutputStream out) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeNullable(value, out);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readNullable(in));
+        }
+        return values;
+    }
+
+    /**
+     * 只保存字符串、数值和布尔类型的元数据，单文件验证结果中只有这些类型
+     */
+    private static void writeMetadata(Map<String, Object> metadata, DataOutputStream out) throws IOException {
+        Map<String, Object> supported = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof String || value instanceof Long || value instanceof Integer
+                || value instanceof Boolean) {
+                supported.put(entry.getKey(), value);
+            }
+        }
+        out.writeInt(supported.size());
+        for (Map.Entry<String, Object> entry : supported.entrySet()) {
+            out.writeUTF(entry.getKey());
+            Object value = entry.getValue();
+            if (value instanceof String) {
+                out.writeByte('S');
+                out.writeUTF((String) value);
+            } else if (value instanceof Long) {
+                out.writeByte('J');
+                out.writeLong((Long) value);
+            } else if (value instanceof Integer) {
+                out.writeByte('I');
+                out.writeInt((Integer) value);
+            } else {
+                out.writeByte('Z');
+                out.writeBoolean((Boolean) value);
+            }
+        }
+    }
+
+    private static Map<String, Object> readMetadata(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Map<String, Object> metadata = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String key = in.readUTF();
+            byte type = in.readByte();
+            switch (type) {
+                case 'S':
+                    metadata.put(key, in.readUTF());
+                    break;
+                case 'J':
+                    metadata.put(key, in.readLong());
+                    break;
+                case 'I':
+                    metadata.put(key, in.readInt());
+                    break;
+                case 'Z':
+                    metadata.put(key, in.readBoolean());
+                    break;
+                default:
+                    throw new IOException("Unknown metadata type: " + type);
+            }
+        }
+        return metadata;
+    }
+
+    private static void writeNullable(String value, DataOutputStream out) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * 单个文件的缓存条目
+     */
+    static final class Entry {
+        private final ParsedSchemaFile parsedFile;
+        private final String dependencyKey;
+        private final ComplianceResult result;
+
+        Entry(ParsedSchemaFile parsedFile, String dependencyKey, ComplianceResult result) {
+            this.parsedFile = parsedFile;
+            this.dependencyKey = dependencyKey;
+            this.result = result;
+        }
+
+        ParsedSchemaFile getParsedFile() { return parsedFile; }
+        String getDependencyKey() { return dependencyKey; }
+        ComplianceResult getResult() { return result; }
+    }
+}
@@ -122,6 +122,25 @@ public class ValidXmlDirectoriesTest extends BaseComplianceTest {
         assertTrue(passedTests > 0, "At least some valid directory tests should pass");
     }
     
+    @Test
+    void testDirectoryResultIndependentOfParallelism() {
+        if (!Files.exists(validDirectoriesRoot)) {
+            logger.warn("Valid directories root does not exist: {}", validDirectoriesRoot);
+            return;
+        }
+        
+        ComplianceResult sequential = new ComplianceValidatorImpl(null, 1)
+            .validateDirectory(validDirectoriesRoot, new DefaultSchemaRegistryImpl(), true);
+        ComplianceResult parallel = new ComplianceValidatorImpl(null, 4)
+            .validateDirectory(validDirectoriesRoot, new DefaultSchemaRegistryImpl(), true);
+        
+        assertEquals(sequential.getMetadata().get("processedFiles"), parallel.getMetadata().get("processedFiles"));
+        assertEquals(sequential.isCompliant(), parallel.isCompliant());
+        assertEquals(
+            sequential.getIssues().stream().map(ComplianceIssue::getMessage).collect(Collectors.toList()),
+            parallel.getIssues().stream().map(ComplianceIssue::getMessage).collect(Collectors.toList()));
+    }
+    
     /**
      * Helper method to test valid directories
      */
@@ -0,0 +1,100 @@
+package org.apache.olingo.compliance.validator.impl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.olingo.compliance.core.model.ComplianceResult;
+import org.apache.olingo.compliance.engine.core.impl.DefaultSchemaRegistryImpl;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for incremental directory validation in ComplianceValidatorImpl.
+ */
+class ComplianceValidatorImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path schemaDir;
+    private Path cacheFile;
+    private ComplianceValidatorImpl validator;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        schemaDir = Files.createDirectory(tempDir.resolve("schemas"));
+        cacheFile = tempDir.resolve("cache").resolve("results.bin");
+        validator = new ComplianceValidatorImpl(null, 2);
+        validator.setResultCacheFile(cacheFile);
+
+        writeSchema("A.xml", "A", "<EntityType Name=\"Base\"><Property Name=\"Id\" Type=\"Edm.Int32\"/></EntityType>");
+        writeSchema("B.xml", "B", "<EntityType Name=\"Derived\" BaseType=\"A.Base\"/>");
+        writeSchema("C.xml", "C", "<ComplexType Name=\"Address\"><Property Name=\"City\" Type=\"Edm.String\"/></ComplexType>");
+    }
+
+    @Test
+    void testUnchangedFilesAreTakenFromCache() {
+        ComplianceResult first = validate();
+        assertEquals(0, first.getMetadata().get("cachedFiles"));
+        assertTrue(Files.exists(cacheFile));
+
+        ComplianceResult second = validate();
+        assertEquals(3, second.getMetadata().get("cachedFiles"));
+        assertEquals(3, second.getMetadata().get("processedFiles"));
+        assertEquals(first.getErrorMessages(), second.getErrorMessages());
+    }
+
+    @Test
+    void testChangedFileAndItsDependentsAreRevalidated() throws IOException {
+        validate();
+        writeSchema("A.xml", "A", "<EntityType Name=\"Base\"><Property Name=\"Key\" Type=\"Edm.Int32\"/></EntityType>");
+
+        // A changed, B references A, only C is unaffected
+        ComplianceResult result = validate();
+        assertEquals(1, result.getMetadata().get("cachedFiles"));
+    }
+
+    @Test
+    void testCachedResultMatchesFreshValidation() throws IOException {
+        validate();
+        writeSchema("C.xml", "C", "<ComplexType Name=\"Address\" BaseType=\"Missing.Base\"/>");
+
+        ComplianceResult cached = validate();
+        ComplianceResult fresh = new ComplianceValidatorImpl(null, 2)
+            .validateDirectory(schemaDir, new DefaultSchemaRegistryImpl(), true);
+        assertEquals(2, cached.getMetadata().get("cachedFiles"));
+        assertEquals(fresh.getErrorMessages(), cached.getErrorMessages());
+        assertEquals(fresh.isCompliant(), cached.isCompliant());
+    }
+
+    @Test
+    void testUnreadableCacheIsIgnored() throws IOException {
+        Files.createDirectories(cacheFile.getParent());
+        Files.write(cacheFile, "not a cache".getBytes(StandardCharsets.UTF_8));
+
+        ComplianceResult result = validate();
+        assertEquals(0, result.getMetadata().get("cachedFiles"));
+        assertEquals(3, validate().getMetadata().get("cachedFiles"));
+    }
+
+    private ComplianceResult validate() {
+        return validator.validateDirectory(schemaDir, new DefaultSchemaRegistryImpl(), true);
+    }
+
+    private void writeSchema(String fileName, String namespace, String types) throws IOException {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<edmx:Edmx xmlns:edmx=\"http://docs.oasis-open.org/odata/ns/edmx\" Version=\"4.0\">\n"
+            + "  <edmx:DataServices>\n"
+            + "    <Schema xmlns=\"http://docs.oasis-open.org/odata/ns/edm\" Namespace=\"" + namespace + "\">\n"
+            + "      " + types + "\n"
+            + "    </Schema>\n"
+            + "  </edmx:DataServices>\n"
+            + "</edmx:Edmx>\n";
+        Files.write(schemaDir.resolve(fileName), xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,634 @@
+package org.apache.olingo.schema.processor.analyzer.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于整数节点编号的依赖图
+ *
+ * 元素全限定名在加入时被分配一个连续的整数编号，边保存在平铺的int数组中，
+ * 查询时按需构建正向和反向的CSR（压缩稀疏行）邻接数组。所有遍历都是迭代实现，
+ * 复杂度为O(V+E)，不会因依赖链过长而栈溢出：
+ * <ul>
+ * <li>Tarjan算法计算强连通分量，用于环检测和最长依赖链</li>
+ * <li>Kahn算法计算依赖分层</li>
+ * <li>基于BitSet的传递依赖和反向影响查询</li>
+ * </ul>
+ *
+ * 边的增删是增量的（O(1)），只会使CSR快照和强连通分量失效，下一次查询时重新构建。
+ * 节点编号一旦分配不会回收。该类不是线程安全的。
+ */
+public final class DependencyGraph {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    // 边列表：第i条边为 edgeFrom[i] -> edgeTo[i]
+    private int[] edgeFrom = new int[16];
+    private int[] edgeTo = new int[16];
+    private int edgeCount;
+    private final EdgeIndex edgeIndex = new EdgeIndex();
+
+    // CSR快照，snapshotValid为false时需要重建
+    private boolean snapshotValid;
+    private int[] outOffsets;
+    private int[] outTargets;
+    private int[] inOffsets;
+    private int[] inSources;
+
+    // 强连通分量，随快照一起失效
+    private int[] component;
+    private int componentCount;
+    private boolean[] cyclicComponent;
+
+    // ==================== 节点 ====================
+
+    /**
+     * 返回名称对应的节点编号，不存在时创建新节点
+     */
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        int newId = names.size();
+        ids.put(name, newId);
+        names.add(name);
+        snapshotValid = false;
+        return newId;
+    }
+
+    /**
+     * 返回名称对应的节点编号，不存在时返回-1
+     */
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : -1;
+    }
+
+    public String nameOf(int id) {
+        return names.get(id);
+    }
+
+    public int nodeCount() {
+        return names.size();
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    // ==================== 边的增量更新 ====================
+
+    /**
+     * 添加依赖边 from -> to（from依赖to），边已存在时返回false
+     */
+    public boolean addEdge(String from, String to) {
+        return addEdge(intern(from), intern(to));
+    }
+
+    public boolean addEdge(int from, int to) {
+        long key = edgeKey(from, to);
+        if (edgeIndex.get(key) >= 0) {
+            return false;
+        }
+        if (edgeCount == edgeFrom.length) {
+            edgeFrom = Arrays.copyOf(edgeFrom, edgeCount * 2);
+            edgeTo = Arrays.copyOf(edgeTo, edgeCount * 2);
+        }
+        edgeFrom[edgeCount] = from;
+        edgeTo[edgeCount] = to;
+        edgeIndex.put(key, edgeCount);
+        edgeCount++;
+        snapshotValid = false;
+        return true;
+    }
+
+    /**
+     * 删除依赖边 from -> to，边不存在时返回false
+     */
+    public boolean removeEdge(String from, String to) {
+        int fromId = idOf(from);
+        int toId = idOf(to);
+        return fromId >= 0 && toId >= 0 && removeEdge(fromId, toId);
+    }
+
+    public boolean removeEdge(int from, int to) {
+        int index = edgeIndex.remove(edgeKey(from, to));
+        if (index < 0) {
+            return false;
+        }
+        // 用最后一条边填补空位
+        int last = --edgeCount;
+        if (index != last) {
+            edgeFrom[index] = edgeFrom[last];
+            edgeTo[index] = edgeTo[last];
+            edgeIndex.put(edgeKey(edgeFrom[index], edgeTo[index]), index);
+        }
+        snapshotValid = false;
+        return true;
+    }
+
+    public boolean hasEdge(int from, int to) {
+        return edgeIndex.get(edgeKey(from, to)) >= 0;
+    }
+
+    // ==================== 邻接查询 ====================
+
+    /**
+     * 节点的直接依赖
+     */
+    public int[] dependencies(int id) {
+        snapshot();
+        return Arrays.copyOfRange(outTargets, outOffsets[id], outOffsets[id + 1]);
+    }
+
+    /**
+     * 直接依赖该节点的节点
+     */
+    public int[] dependents(int id) {
+        snapshot();
+        return Arrays.copyOfRange(inSources, inOffsets[id], inOffsets[id + 1]);
+    }
+
+    public int outDegree(int id) {
+        snapshot();
+        return outOffsets[id + 1] - outOffsets[id];
+    }
+
+    public int inDegree(int id) {
+        snapshot();
+        return inOffsets[id + 1] - inOffsets[id];
+    }
+
+    // ==================== 可达性 ====================
+
+    /**
+     * 经过至少一条边可以到达的所有节点（传递依赖）。节点处于环中时结果包含其自身。
+     */
+    public BitSet transitiveDependencies(int id) {
+        snapshot();
+        return reach(id, outOffsets, outTargets);
+    }
+
+    /**
+     * 经过至少一条反向边可以到达的所有节点（直接和间接受影响的节点）。节点处于环中时结果包含其自身。
+     */
+    public BitSet transitiveDependents(int id) {
+        snapshot();
+        return reach(id, inOffsets, inSources);
+    }
+
+    private BitSet reach(int start, int[] offsets, int[] adjacency) {
+        BitSet visited = new BitSet(nodeCount());
+        int[] stack = new int[16];
+        int size = 0;
+        for (int i = offsets[start]; i < offsets[start + 1]; i++) {
+            int next = adjacency[i];
+            if (!visited.get(next)) {
+                visited.set(next);
+                if (size == stack.length) {
+                    stack = Arrays.copyOf(stack, size * 2);
+                }
+                stack[size++] = next;
+            }
+        }
+        while (size > 0) {
+            int node = stack[--size];
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                int next = adjacency[i];
+                if (!visited.get(next)) {
+                    visited.set(next);
+                    if (size == stack.length) {
+                        stack = Arrays.copyOf(stack, size * 2);
+                    }
+                    stack[size++] = next;
+                }
+            }
+        }
+        return visited;
+    }
+
+    // ==================== 强连通分量与环 ====================
+
+    /**
+     * 节点所在强连通分量的编号。分量按逆拓扑序编号：一个分量依赖的分量编号都比它小。
+     */
+    public int componentOf(int id) {
+        components();
+        return component[id];
+    }
+
+    public int componentCount() {
+        components();
+        return componentCount;
+    }
+
+    /**
+     * 节点是否处于依赖环中（所在分量多于一个节点，或者存在自依赖）
+     */
+    public boolean isInCycle(int id) {
+        components();
+        return cyclicComponent[component[id]];
+    }
+
+    /**
+     * 从节点出发是否能到达某个依赖环（包括节点自身处于环中）
+     */
+    public boolean reachesCycle(int id) {
+        components();
+        if (cyclicComponent[component[id]]) {
+            return true;
+        }
+        BitSet reachable = transitiveDependencies(id);
+        for (int node = reachable.nextSetBit(0); node >= 0; node = reachable.nextSetBit(node + 1)) {
+            if (cyclicComponent[component[node]]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 每个包含环的强连通分量返回一条具体的环路径，首尾节点相同，例如 [a, b, a]。
+     * 环从分量中编号最小的节点出发，是经过该节点的最短环。
+     */
+    public List<int[]> cycles() {
+        components();
+        snapshot();
+        int n = nodeCount();
+        boolean[] reported = new boolean[componentCount];
+        List<int[]> cycles = new ArrayList<>();
+        int[] parent = new int[n];
+        int[] queue = new int[n];
+        for (int node = 0; node < n; node++) {
+            int c = component[node];
+            if (!cyclicComponent[c] || reported[c]) {
+                continue;
+            }
+            reported[c] = true;
+            cycles.add(shortestCycle(node, parent, queue));
+        }
+        return cycles;
+    }
+
+    private int[] shortestCycle(int start, int[] parent, int[] queue) {
+        int c = component[start];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        parent[start] = -1;
+        BitSet seen = new BitSet();
+        seen.set(start);
+        while (head < tail) {
+            int node = queue[head++];
+            for (int i = outOffsets[node]; i < outOffsets[node + 1]; i++) {
+                int next = outTargets[i];
+                if (next == start) {
+                    // 回到起点，沿parent还原路径
+                    int length = 1;
+                    for (int p = node; p != -1; p = parent[p]) {
+                        length++;
+                    }
+                    int[] path = new int[length];
+                    path[length - 1] = start;
+                    int position = length - 2;
+                    for (int p = node; p != -1; p = parent[p]) {
+                        path[position--] = p;
+                    }
+                    return path;
+                }
+                if (component[next] == c && !seen.get(next)) {
+                    seen.set(next);
+                    parent[next] = node;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        throw new IllegalStateException("No cycle through " + nameOf(start));
+    }
+
+    /**
+     * 最长依赖链的边数，环被视为一个节点
+     */
+    public int longestDependencyChain() {
+        components();
+        snapshot();
+        int n = nodeCount();
+        // 按分量编号对节点做计数排序，编号小的分量（被依赖方）先处理
+        int[] start = new int[componentCount + 1];
+        for (int node = 0; node < n; node++) {
+            start[component[node] + 1]++;
+        }
+        for (int c = 0; c < componentCount; c++) {
+            start[c + 1] += start[c];
+        }
+        int[] ordered = new int[n];
+        int[] fill = Arrays.copyOf(start, componentCount);
+        for (int node = 0; node < n; node++) {
+            ordered[fill[component[node]]++] = node;
+        }
+
+        int[] depth = new int[componentCount];
+        int longest = 0;
+        for (int c = 0; c < componentCount; c++) {
+            int best = 0;
+            for (int k = start[c]; k < start[c + 1]; k++) {
+                int node = ordered[k];
+                for (int i = outOffsets[node]; i < outOffsets[node + 1]; i++) {
+                    int target = component[outTargets[i]];
+                    if (target != c) {
+                        best = Math.max(best, depth[target] + 1);
+                    }
+                }
+            }
+            depth[c] = best;
+            longest = Math.max(longest, best);
+        }
+        return longest;
+    }
+
+    // ==================== 分层 ====================
+
+    /**
+     * 按依赖关系分层（Kahn算法）：第一层的节点在members中没有依赖，之后每层节点的依赖都在前面的层中。
+     * 依赖不在members中的节点永远无法满足。无法分层的节点（处于环中或依赖环）合并为最后一层。
+     *
+     * @param members 参与分层的节点
+     */
+    public List<int[]> layers(BitSet members) {
+        snapshot();
+        int[] remaining = new int[nodeCount()];
+        int[] current = new int[members.cardinality()];
+        int currentSize = 0;
+        for (int node = members.nextSetBit(0); node >= 0; node = members.nextSetBit(node + 1)) {
+            remaining[node] = outOffsets[node + 1] - outOffsets[node];
+            if (remaining[node] == 0) {
+                current[currentSize++] = node;
+            }
+        }
+
+        List<int[]> layers = new ArrayList<>();
+        BitSet emitted = new BitSet(nodeCount());
+        int[] next = new int[current.length];
+        while (currentSize > 0) {
+            layers.add(Arrays.copyOf(current, currentSize));
+            int nextSize = 0;
+            for (int k = 0; k < currentSize; k++) {
+                int node = current[k];
+                emitted.set(node);
+                for (int i = inOffsets[node]; i < inOffsets[node + 1]; i++) {
+                    int dependent = inSources[i];
+                    if (members.get(dependent) && --remaining[dependent] == 0) {
+                        next[nextSize++] = dependent;
+                    }
+                }
+            }
+            int[] swap = current;
+            current = next;
+            next = swap;
+            currentSize = nextSize;
+        }
+
+        BitSet rest = (BitSet) members.clone();
+        rest.andNot(emitted);
+        if (!rest.isEmpty()) {
+            layers.add(rest.stream().toArray());
+        }
+        return layers;
+    }
+
+    // ==================== 名称转换 ====================
+
+    public Set<String> namesOf(BitSet nodes) {
+        Set<String> result = new HashSet<>(Math.max(16, nodes.cardinality() * 2));
+        for (int node = nodes.nextSetBit(0); node >= 0; node = nodes.nextSetBit(node + 1)) {
+            result.add(names.get(node));
+        }
+        return result;
+    }
+
+    public Set<String> namesOf(int[] nodes) {
+        Set<String> result = new HashSet<>(Math.max(16, nodes.length * 2));
+        for (int node : nodes) {
+            result.add(names.get(node));
+        }
+        return result;
+    }
+
+    public List<String> pathOf(int[] nodes) {
+        List<String> result = new ArrayList<>(nodes.length);
+        for (int node : nodes) {
+            result.add(names.get(node));
+        }
+        return result;
+    }
+
+    // ==================== 内部构建 ====================
+
+    private void snapshot() {
+        if (snapshotValid) {
+            return;
+        }
+        int n = nodeCount();
+        outOffsets = new int[n + 1];
+        inOffsets = new int[n + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            outOffsets[edgeFrom[i] + 1]++;
+            inOffsets[edgeTo[i] + 1]++;
+        }
+        for (int node = 0; node < n; node++) {
+            outOffsets[node + 1] += outOffsets[node];
+            inOffsets[node + 1] += inOffsets[node];
+        }
+        outTargets = edgeCount == 0 ? EMPTY : new int[edgeCount];
+        inSources = edgeCount == 0 ? EMPTY : new int[edgeCount];
+        int[] outFill = Arrays.copyOf(outOffsets, n);
+        int[] inFill = Arrays.copyOf(inOffsets, n);
+        for (int i = 0; i < edgeCount; i++) {
+            outTargets[outFill[edgeFrom[i]]++] = edgeTo[i];
+            inSources[inFill[edgeTo[i]]++] = edgeFrom[i];
+        }
+        component = null;
+        snapshotValid = true;
+    }
+
+    /**
+     * 迭代版Tarjan算法
+     */
+    private void components() {
+        snapshot();
+        if (component != null) {
+            return;
+        }
+        int n = nodeCount();
+        int[] index = new int[n];
+        int[] low = new int[n];
+        Arrays.fill(index, -1);
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int stackSize = 0;
+        int[] callStack = new int[n];
+        int[] edgePosition = new int[n];
+        int callSize = 0;
+        int counter = 0;
+
+        int[] result = new int[n];
+        int count = 0;
+        List<Boolean> cyclic = new ArrayList<>();
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            index[root] = low[root] = counter++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            callStack[callSize] = root;
+            edgePosition[callSize++] = outOffsets[root];
+
+            while (callSize > 0) {
+                int node = callStack[callSize - 1];
+                if (edgePosition[callSize - 1] < outOffsets[node + 1]) {
+                    int next = outTargets[edgePosition[callSize - 1]++];
+                    if (index[next] < 0) {
+                        index[next] = low[next] = counter++;
+                        stack[stackSize++] = next;
+                        onStack[next] = true;
+                        callStack[callSize] = next;
+                        edgePosition[callSize++] = outOffsets[next];
+                    } else if (onStack[next]) {
+                        low[node] = Math.min(low[node], index[next]);
+                    }
+                    continue;
+                }
+
+                callSize--;
+                if (low[node] == index[node]) {
+                    int size = 0;
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        onStack[member] = false;
+                        result[member] = count;
+                        size++;
+                    } while (member != node);
+                    cyclic.add(size > 1 || hasEdge(node, node));
+                    count++;
+                }
+                if (callSize > 0) {
+                    int parent = callStack[callSize - 1];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+            }
+        }
+
+        cyclicComponent = new boolean[count];
+        for (int c = 0; c < count; c++) {
+            cyclicComponent[c] = cyclic.get(c);
+        }
+        componentCount = count;
+        component = result;
+    }
+
+    private static long edgeKey(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 边到边列表下标的开放寻址哈希表（线性探测），避免每条边装箱成Long
+     */
+    private static final class EdgeIndex {
+        private static final long FREE = -1L;
+
+        private long[] keys = newKeys(64);
+        private int[] values = new int[64];
+        private int size;
+
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, FREE);
+            return keys;
+        }
+
+        private int slot(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 33) & (keys.length - 1);
+        }
+
+        int get(long key) {
+            for (int i = slot(key); ; i = (i + 1) & (keys.length - 1)) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+                if (keys[i] == FREE) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(long key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            for (int i = slot(key); ; i = (i + 1) & (keys.length - 1)) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                if (keys[i] == FREE) {
+                    keys[i] = key;
+                    values[i] = value;
+                    size++;
+                    return;
+                }
+            }
+        }
+
+        int remove(long key) {
+            int mask = keys.length - 1;
+            int i = slot(key);
+            while (keys[i] != key) {
+                if (keys[i] == FREE) {
+                    return -1;
+                }
+                i = (i + 1) & mask;
+            }
+            int removed = values[i];
+            // 后移删除：把后续同一探测链上的元素前移，保持探测链连续
+            int gap = i;
+            for (int j = (gap + 1) & mask; keys[j] != FREE; j = (j + 1) & mask) {
+                int home = slot(keys[j]);
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            keys[gap] = FREE;
+            size--;
+            return removed;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = newKeys(oldKeys.length * 2);
+            values = new int[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != FREE) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+    }
+}
@@ -1,315 +1,147 @@
 package org.apache.olingo.schema.processor.analyzer.impl;
 
 import org.apache.olingo.schema.processor.analyzer.DependencyAnalyzer;
+import org.apache.olingo.schema.processor.analyzer.graph.DependencyGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 依赖分析器默认实现
  * 提供OData模式间依赖关系的分析功能
+ *
+ * 依赖关系保存在基于整数编号的{@link DependencyGraph}中，所有查询都是线性复杂度。
+ * 方法之间通过同步保证线程安全。
  */
 public class DefaultDependencyAnalyzer implements DependencyAnalyzer {
     
     private static final Logger logger = LoggerFactory.getLogger(DefaultDependencyAnalyzer.class);
     
-    // 依赖关系图：key为元素全限定名，value为其依赖的元素集合
-    private final Map<String, Set<String>> dependencyGraph = new ConcurrentHashMap<>();
-    
-    // 反向依赖关系图：key为元素全限定名，value为依赖它的元素集合
-    private final Map<String, Set<String>> reverseDependencyGraph = new ConcurrentHashMap<>();
+    // 依赖关系图：边 a -> b 表示a依赖b
+    private final DependencyGraph graph = new DependencyGraph();
     
     /**
      * 添加依赖关系
      */
-    public void addDependency(String element, String dependency) {
-        dependencyGraph.computeIfAbsent(element, k -> new HashSet<>()).add(dependency);
-        reverseDependencyGraph.computeIfAbsent(dependency, k -> new HashSet<>()).add(element);
+    public synchronized void addDependency(String element, String dependency) {
+        graph.addEdge(element, dependency);
     }
     
     /**
      * 移除依赖关系
      */
-    public void removeDependency(String element, String dependency) {
-        Set<String> deps = dependencyGraph.get(element);
-        if (deps != null) {
-            deps.remove(dependency);
-            if (deps.isEmpty()) {
-                dependencyGraph.remove(element);
-            }
-        }
-        
-        Set<String> reverseDeps = reverseDependencyGraph.get(dependency);
-        if (reverseDeps != null) {
-            reverseDeps.remove(element);
-            if (reverseDeps.isEmpty()) {
-                reverseDependencyGraph.remove(dependency);
-            }
-        }
+    public synchronized void removeDependency(String element, String dependency) {
+        graph.removeEdge(element, dependency);
     }
     
     @Override
-    public Set<String> getDirectDependencies(String fullyQualifiedName) {
-        Set<String> dependencies = dependencyGraph.get(fullyQualifiedName);
-        return dependencies != null ? new HashSet<>(dependencies) : new HashSet<>();
+    public synchronized Set<String> getDirectDependencies(String fullyQualifiedName) {
+        int id = graph.idOf(fullyQualifiedName);
+        return id >= 0 ? graph.namesOf(graph.dependencies(id)) : new HashSet<>();
     }
     
     @Override
-    public Set<String> getRecursiveDependencies(String fullyQualifiedName) {
-        Set<String> visited = new HashSet<>();
-        Set<String> result = new HashSet<>();
-        getRecursiveDependenciesHelper(fullyQualifiedName, visited, result);
-        return result;
-    }
-    
-    private void getRecursiveDependenciesHelper(String element, Set<String> visited, Set<String> result) {
-        if (visited.contains(element)) {
-            return; // 避免循环依赖造成的无限递归
-        }
-        
-        visited.add(element);
-        Set<String> directDeps = dependencyGraph.get(element);
-        if (directDeps != null) {
-            for (String dep : directDeps) {
-                result.add(dep);
-                getRecursiveDependenciesHelper(dep, visited, result);
-            }
-        }
+    public synchronized Set<String> getRecursiveDependencies(String fullyQualifiedName) {
+        int id = graph.idOf(fullyQualifiedName);
+        return id >= 0 ? graph.namesOf(graph.transitiveDependencies(id)) : new HashSet<>();
     }
     
     @Override
-    public Set<String> getReverseDependencies(String fullyQualifiedName) {
-        Set<String> dependencies = reverseDependencyGraph.get(fullyQualifiedName);
-        return dependencies != null ? new HashSet<>(dependencies) : new HashSet<>();
+    public synchronized Set<String> getReverseDependencies(String fullyQualifiedName) {
+        int id = graph.idOf(fullyQualifiedName);
+        return id >= 0 ? graph.namesOf(graph.dependents(id)) : new HashSet<>();
     }
     
     @Override
-    public List<DependencyCycle> detectCircularDependencies() {
+    public synchronized List<DependencyCycle> detectCircularDependencies() {
         List<DependencyCycle> cycles = new ArrayList<>();
-        Set<String> visited = new HashSet<>();
-        Set<String> recursionStack = new HashSet<>();
-        
-        for (String element : dependencyGraph.keySet()) {
-            if (!visited.contains(element)) {
-                List<String> currentPath = new ArrayList<>();
-                detectCycleDFS(element, visited, recursionStack, currentPath, cycles);
-            }
+        for (int[] cycle : graph.cycles()) {
+            List<String> path = graph.pathOf(cycle);
+            String description = "Circular dependency detected: " + String.join(" -> ", path);
+            cycles.add(new DependencyCycle(path, description));
         }
-        
         return cycles;
     }
     
-    private void detectCycleDFS(String element, Set<String> visited, Set<String> recursionStack,
-                               List<String> currentPath, List<DependencyCycle> cycles) {
-        
-        visited.add(element);
-        recursionStack.add(element);
-        currentPath.add(element);
-        
-        Set<String> deps = dependencyGraph.get(element);
-        if (deps != null) {
-            for (String dependency : deps) {
-                if (!visited.contains(dependency)) {
-                    detectCycleDFS(dependency, visited, recursionStack, currentPath, cycles);
-                } else if (recursionStack.contains(dependency)) {
-                    // 发现环形依赖
-                    int cycleStart = currentPath.indexOf(dependency);
-                    List<String> cycle = new ArrayList<>(currentPath.subList(cycleStart, currentPath.size()));
-                    cycle.add(dependency); // 完成环
-                    String description = "Circular dependency detected: " + String.join(" -> ", cycle);
-                    cycles.add(new DependencyCycle(cycle, description));
-                }
-            }
-        }
-        
-        recursionStack.remove(element);
-        currentPath.remove(currentPath.size() - 1);
-    }
-    
     @Override
-    public boolean hasCircularDependency(String fullyQualifiedName) {
-        Set<String> visited = new HashSet<>();
-        Set<String> recursionStack = new HashSet<>();
-        return hasCircularDependencyDFS(fullyQualifiedName, visited, recursionStack);
-    }
-    
-    private boolean hasCircularDependencyDFS(String element, Set<String> visited, Set<String> recursionStack) {
-        if (recursionStack.contains(element)) {
-            return true; // 发现环
-        }
-        if (visited.contains(element)) {
-            return false; // 已经访问过且没有环
-        }
-        
-        visited.add(element);
-        recursionStack.add(element);
-        
-        Set<String> deps = dependencyGraph.get(element);
-        if (deps != null) {
-            for (String dependency : deps) {
-                if (hasCircularDependencyDFS(dependency, visited, recursionStack)) {
-                    return true;
-                }
-            }
-        }
-        
-        recursionStack.remove(element);
-        return false;
+    public synchronized boolean hasCircularDependency(String fullyQualifiedName) {
+        int id = graph.idOf(fullyQualifiedName);
+        return id >= 0 && graph.reachesCycle(id);
     }
     
     @Override
-    public Map<String, Set<String>> getDependencyGraph() {
+    public synchronized Map<String, Set<String>> getDependencyGraph() {
         Map<String, Set<String>> result = new HashMap<>();
-        for (Map.Entry<String, Set<String>> entry : dependencyGraph.entrySet()) {
-            result.put(entry.getKey(), new HashSet<>(entry.getValue()));
+        for (int id = 0; id < graph.nodeCount(); id++) {
+            if (graph.outDegree(id) > 0) {
+                result.put(graph.nameOf(id), graph.namesOf(graph.dependencies(id)));
+            }
         }
         return result;
     }
     
     @Override
-    public Map<String, Set<String>> getReverseDependencyGraph() {
+    public synchronized Map<String, Set<String>> getReverseDependencyGraph() {
         Map<String, Set<String>> result = new HashMap<>();
-        for (Map.Entry<String, Set<String>> entry : reverseDependencyGraph.entrySet()) {
-            result.put(entry.getKey(), new HashSet<>(entry.getValue()));
+        for (int id = 0; id < graph.nodeCount(); id++) {
+            if (graph.inDegree(id) > 0) {
+                result.put(graph.nameOf(id), graph.namesOf(graph.dependents(id)));
+            }
         }
         return result;
     }
     
     @Override
-    public List<Set<String>> getDependencyLayers() {
+    public synchronized List<Set<String>> getDependencyLayers() {
         List<Set<String>> layers = new ArrayList<>();
-        Set<String> allElements = new HashSet<>(dependencyGraph.keySet());
-        allElements.addAll(reverseDependencyGraph.keySet());
-        Set<String> processed = new HashSet<>();
-        
-        while (processed.size() < allElements.size()) {
-            Set<String> currentLayer = new HashSet<>();
-            
-            for (String element : allElements) {
-                if (!processed.contains(element)) {
-                    Set<String> deps = dependencyGraph.get(element);
-                    if (deps == null || deps.isEmpty() || processed.containsAll(deps)) {
-                        currentLayer.add(element);
-                    }
-                }
-            }
-            
-            if (currentLayer.isEmpty()) {
-                // 存在循环依赖，无法继续分层
-                Set<String> remaining = new HashSet<>(allElements);
-                remaining.removeAll(processed);
-                layers.add(remaining);
-                break;
-            }
-            
-            layers.add(currentLayer);
-            processed.addAll(currentLayer);
+        for (int[] layer : graph.layers(connectedNodes())) {
+            layers.add(graph.namesOf(layer));
         }
-        
         return layers;
     }
     
     @Override
-    public DependencyStatistics getDependencyStatistics() {
-        Set<String> allElements = new HashSet<>(dependencyGraph.keySet());
-        allElements.addAll(reverseDependencyGraph.keySet());
-        
-        int totalElements = allElements.size();
-        int elementsWithDependencies = (int) allElements.stream()
-                .filter(element -> {
-                    Set<String> deps = dependencyGraph.get(element);
-                    return deps != null && !deps.isEmpty();
-                })
-                .count();
+    public synchronized DependencyStatistics getDependencyStatistics() {
+        BitSet allElements = connectedNodes();
+        
+        int totalElements = allElements.cardinality();
+        int elementsWithDependencies = 0;
+        int totalDeps = 0;
+        Map<String, Integer> depCountByNamespace = new HashMap<>();
+        for (int id = allElements.nextSetBit(0); id >= 0; id = allElements.nextSetBit(id + 1)) {
+            int deps = graph.outDegree(id);
+            if (deps > 0) {
+                elementsWithDependencies++;
+                totalDeps += deps;
+                depCountByNamespace.merge(getNamespace(graph.nameOf(id)), deps, Integer::sum);
+            }
+        }
         int elementsWithoutDependencies = totalElements - elementsWithDependencies;
         
-        int maxDepth = calculateMaxDependencyDepth();
-        double avgDeps = calculateAverageDependencies();
-        Map<String, Integer> depCountByNamespace = calculateDependencyCountByNamespace();
+        int maxDepth = graph.longestDependencyChain();
+        double avgDeps = elementsWithDependencies > 0 ? (double) totalDeps / elementsWithDependencies : 0.0;
         
         return new DependencyStatistics(totalElements, elementsWithDependencies,
                 elementsWithoutDependencies, maxDepth, avgDeps, depCountByNamespace);
     }
     
-    private int calculateMaxDependencyDepth() {
-        int maxDepth = 0;
-        for (String element : dependencyGraph.keySet()) {
-            Set<String> visited = new HashSet<>();
-            int depth = calculateDepthDFS(element, visited);
-            maxDepth = Math.max(maxDepth, depth);
-        }
-        return maxDepth;
-    }
-    
-    private int calculateDepthDFS(String element, Set<String> visited) {
-        if (visited.contains(element)) {
-            return 0; // 避免循环依赖造成的无限递归
-        }
-        
-        visited.add(element);
-        Set<String> deps = dependencyGraph.get(element);
-        if (deps == null || deps.isEmpty()) {
-            return 0;
-        }
-        
-        int maxChildDepth = 0;
-        for (String dep : deps) {
-            int childDepth = calculateDepthDFS(dep, new HashSet<>(visited));
-            maxChildDepth = Math.max(maxChildDepth, childDepth);
-        }
-        
-        return 1 + maxChildDepth;
-    }
-    
-    private double calculateAverageDependencies() {
-        if (dependencyGraph.isEmpty()) {
-            return 0.0;
-        }
-        
-        int totalDeps = dependencyGraph.values().stream()
-                .mapToInt(Set::size)
-                .sum();
-        
-        return (double) totalDeps / dependencyGraph.size();
-    }
-    
-    private Map<String, Integer> calculateDependencyCountByNamespace() {
-        Map<String, Integer> result = new HashMap<>();
-        
-        for (Map.Entry<String, Set<String>> entry : dependencyGraph.entrySet()) {
-            String elementName = entry.getKey();
-            int lastDotIndex = elementName.lastIndexOf('.');
-            String namespace = lastDotIndex > 0 ? elementName.substring(0, lastDotIndex) : "default";
-            
-            result.merge(namespace, entry.getValue().size(), Integer::sum);
-        }
-        
-        return result;
-    }
-    
     @Override
-    public ImpactAnalysis analyzeImpact(String fullyQualifiedName) {
-        Set<String> directlyAffected = getReverseDependencies(fullyQualifiedName);
+    public synchronized ImpactAnalysis analyzeImpact(String fullyQualifiedName) {
+        int id = graph.idOf(fullyQualifiedName);
+        Set<String> directlyAffected = new HashSet<>();
         Set<String> indirectlyAffected = new HashSet<>();
         
-        // 计算间接影响
-        Queue<String> queue = new LinkedList<>(directlyAffected);
-        Set<String> visited = new HashSet<>(directlyAffected);
-        
-        while (!queue.isEmpty()) {
-            String current = queue.poll();
-            Set<String> reverseDeps = reverseDependencyGraph.get(current);
-            if (reverseDeps != null) {
-                for (String dep : reverseDeps) {
-                    if (!visited.contains(dep)) {
-                        indirectlyAffected.add(dep);
-                        visited.add(dep);
-                        queue.offer(dep);
-                    }
-                }
+        if (id >= 0) {
+            int[] direct = graph.dependents(id);
+            directlyAffected = graph.namesOf(direct);
+            
+            // 计算间接影响：所有受影响的元素去掉直接影响的元素
+            BitSet indirect = graph.transitiveDependents(id);
+            for (int dependent : direct) {
+                indirect.clear(dependent);
             }
+            indirectlyAffected = graph.namesOf(indirect);
         }
         
         int totalAffected = directlyAffected.size() + indirectlyAffected.size();
@@ -319,6 +151,19 @@ public class DefaultDependencyAnalyzer implements DependencyAnalyzer {
                 totalAffected, affectedByNamespace);
     }
     
+    /**
+     * 至少有一条依赖边的节点，移除所有边的节点不再视为元素
+     */
+    private BitSet connectedNodes() {
+        BitSet nodes = new BitSet(graph.nodeCount());
+        for (int id = 0; id < graph.nodeCount(); id++) {
+            if (graph.outDegree(id) > 0 || graph.inDegree(id) > 0) {
+                nodes.set(id);
+            }
+        }
+        return nodes;
+    }
+    
     private Map<String, Integer> calculateAffectedByNamespace(Set<String> directlyAffected, Set<String> indirectlyAffected) {
         Map<String, Integer> result = new HashMap<>();
         
@@ -326,11 +171,14 @@ public class DefaultDependencyAnalyzer implements DependencyAnalyzer {
         allAffected.addAll(indirectlyAffected);
         
         for (String element : allAffected) {
-            int lastDotIndex = element.lastIndexOf('.');
-            String namespace = lastDotIndex > 0 ? element.substring(0, lastDotIndex) : "default";
-            result.merge(namespace, 1, Integer::sum);
+            result.merge(getNamespace(element), 1, Integer::sum);
         }
         
         return result;
     }
+    
+    private String getNamespace(String elementName) {
+        int lastDotIndex = elementName.lastIndexOf('.');
+        return lastDotIndex > 0 ? elementName.substring(0, lastDotIndex) : "default";
+    }
 }
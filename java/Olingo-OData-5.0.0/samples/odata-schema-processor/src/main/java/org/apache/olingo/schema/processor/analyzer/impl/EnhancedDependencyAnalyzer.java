@@ -1,13 +1,12 @@
 package org.apache.olingo.schema.processor.analyzer.impl;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 
 import org.apache.olingo.commons.api.edm.provider.CsdlAction;
@@ -22,6 +21,7 @@ import org.apache.olingo.commons.api.edm.provider.CsdlParameter;
 import org.apache.olingo.commons.api.edm.provider.CsdlProperty;
 import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
 import org.apache.olingo.schema.processor.analyzer.DependencyAnalyzer;
+import org.apache.olingo.schema.processor.analyzer.graph.DependencyGraph;
 import org.apache.olingo.schema.processor.repository.SchemaRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,14 +29,19 @@ import org.slf4j.LoggerFactory;
 /**
  * 增强的依赖分析器实现
  * 支持递归依赖分析、继承链分析、annotation处理等高级功能
+ *
+ * repository中所有元素的直接依赖只分析一次并保存在{@link DependencyGraph}中，
+ * 其余查询都在图上完成。repository发生变化后需要调用{@link #clearCache()}。
  */
 public class EnhancedDependencyAnalyzer implements DependencyAnalyzer {
     
     private static final Logger logger = LoggerFactory.getLogger(EnhancedDependencyAnalyzer.class);
     
     private final SchemaRepository repository;
-    private final Map<String, Set<String>> dependencyCache = new HashMap<>();
-    private final Map<String, Set<String>> reverseDependencyCache = new HashMap<>();
+    
+    // 第一次查询时从repository构建，clearCache()后重新构建
+    private DependencyGraph graph;
+    private BitSet elements;
     
     public EnhancedDependencyAnalyzer(SchemaRepository repository) {
         this.repository = repository;
@@ -46,253 +51,106 @@ public class EnhancedDependencyAnalyzer implements DependencyAnalyzer {
     public Set<String> getDirectDependencies(String fullyQualifiedName) {
         logger.debug("Analyzing direct dependencies for: {}", fullyQualifiedName);
         
-        Set<String> dependencies = new HashSet<>();
-        
-        // 解析类型和namespace
-        String[] parts = fullyQualifiedName.split("\\.");
-        if (parts.length < 2) {
-            logger.warn("Invalid fully qualified name: {}", fullyQualifiedName);
-            return dependencies;
-        }
-        
-        String typeName = parts[parts.length - 1];
-        String namespace = String.join(".", Arrays.copyOf(parts, parts.length - 1));
-        
-        CsdlSchema schema = repository.getSchema(namespace);
-        if (schema == null) {
-            logger.warn("Schema not found for namespace: {}", namespace);
-            return dependencies;
-        }
-        
-        // 检查EntityType
-        dependencies.addAll(analyzeEntityTypeDependencies(schema, typeName));
-        
-        // 检查ComplexType
-        dependencies.addAll(analyzeComplexTypeDependencies(schema, typeName));
-        
-        // 检查EnumType (EnumType通常没有依赖，但可能有annotation)
-        dependencies.addAll(analyzeEnumTypeDependencies(schema, typeName));
-        
-        // 检查Action
-        dependencies.addAll(analyzeActionDependencies(schema, typeName));
-        
-        // 检查Function
-        dependencies.addAll(analyzeFunctionDependencies(schema, typeName));
-        
-        // 检查EntitySet (在EntityContainer中)
-        dependencies.addAll(analyzeEntitySetDependencies(schema, typeName));
-        
-        return dependencies;
+        DependencyGraph graph = graph();
+        int id = graph.idOf(fullyQualifiedName);
+        return id >= 0 ? graph.namesOf(graph.dependencies(id)) : new HashSet<>();
     }
     
     @Override
     public Set<String> getRecursiveDependencies(String fullyQualifiedName) {
-        if (dependencyCache.containsKey(fullyQualifiedName)) {
-            return new HashSet<>(dependencyCache.get(fullyQualifiedName));
+        DependencyGraph graph = graph();
+        int id = graph.idOf(fullyQualifiedName);
+        if (id < 0) {
+            return new HashSet<>(Collections.singleton(fullyQualifiedName));
         }
         
-        Set<String> allDependencies = new HashSet<>();
-        Set<String> visited = new HashSet<>();
-        Queue<String> toProcess = new LinkedList<>();
-        
         // 包含自身
-        allDependencies.add(fullyQualifiedName);
-        
-        toProcess.add(fullyQualifiedName);
-        visited.add(fullyQualifiedName);
-        
-        while (!toProcess.isEmpty()) {
-            String current = toProcess.poll();
-            Set<String> directDeps = getDirectDependencies(current);
-            
-            for (String dep : directDeps) {
-                if (!visited.contains(dep)) {
-                    visited.add(dep);
-                    toProcess.add(dep);
-                    allDependencies.add(dep);
-                }
-            }
-        }
-        
-        dependencyCache.put(fullyQualifiedName, allDependencies);
-        return new HashSet<>(allDependencies);
+        BitSet allDependencies = graph.transitiveDependencies(id);
+        allDependencies.set(id);
+        return graph.namesOf(allDependencies);
     }
     
     @Override
     public Set<String> getReverseDependencies(String fullyQualifiedName) {
-        if (reverseDependencyCache.containsKey(fullyQualifiedName)) {
-            return new HashSet<>(reverseDependencyCache.get(fullyQualifiedName));
-        }
-        
-        Set<String> reverseDeps = new HashSet<>();
-        
-        // 遍历所有schema中的所有元素，查找依赖于指定元素的
-        for (CsdlSchema schema : repository.getAllSchemas()) {
-            String namespace = schema.getNamespace();
-            
-            // 检查EntityType
-            if (schema.getEntityTypes() != null) {
-                for (CsdlEntityType entityType : schema.getEntityTypes()) {
-                    String entityFqn = namespace + "." + entityType.getName();
-                    Set<String> deps = getDirectDependencies(entityFqn);
-                    if (deps.contains(fullyQualifiedName)) {
-                        reverseDeps.add(entityFqn);
-                    }
-                }
-            }
-            
-            // 检查ComplexType
-            if (schema.getComplexTypes() != null) {
-                for (CsdlComplexType complexType : schema.getComplexTypes()) {
-                    String complexFqn = namespace + "." + complexType.getName();
-                    Set<String> deps = getDirectDependencies(complexFqn);
-                    if (deps.contains(fullyQualifiedName)) {
-                        reverseDeps.add(complexFqn);
-                    }
-                }
-            }
-            
-            // 检查Action和Function
-            if (schema.getActions() != null) {
-                for (CsdlAction action : schema.getActions()) {
-                    String actionFqn = namespace + "." + action.getName();
-                    Set<String> deps = getDirectDependencies(actionFqn);
-                    if (deps.contains(fullyQualifiedName)) {
-                        reverseDeps.add(actionFqn);
-                    }
-                }
-            }
-            
-            if (schema.getFunctions() != null) {
-                for (CsdlFunction function : schema.getFunctions()) {
-                    String functionFqn = namespace + "." + function.getName();
-                    Set<String> deps = getDirectDependencies(functionFqn);
-                    if (deps.contains(fullyQualifiedName)) {
-                        reverseDeps.add(functionFqn);
-                    }
-                }
-            }
-        }
-        
-        reverseDependencyCache.put(fullyQualifiedName, reverseDeps);
-        return new HashSet<>(reverseDeps);
+        DependencyGraph graph = graph();
+        int id = graph.idOf(fullyQualifiedName);
+        return id >= 0 ? graph.namesOf(graph.dependents(id)) : new HashSet<>();
     }
     
     @Override
     public List<DependencyCycle> detectCircularDependencies() {
+        DependencyGraph graph = graph();
         List<DependencyCycle> cycles = new ArrayList<>();
-        Set<String> visited = new HashSet<>();
-        Set<String> recursionStack = new HashSet<>();
-        
-        // 获取所有元素
-        Set<String> allElements = getAllElements();
-        
-        for (String element : allElements) {
-            if (!visited.contains(element)) {
-                List<String> path = new ArrayList<>();
-                detectCycleDFS(element, visited, recursionStack, path, cycles);
-            }
+        for (int[] cycle : graph.cycles()) {
+            List<String> path = graph.pathOf(cycle);
+            String description = String.format("Circular dependency detected: %s", 
+                String.join(" -> ", path));
+            cycles.add(new DependencyCycle(path, description));
         }
-        
         return cycles;
     }
     
     @Override
     public boolean hasCircularDependency(String fullyQualifiedName) {
-        Set<String> visited = new HashSet<>();
-        Set<String> recursionStack = new HashSet<>();
-        List<String> path = new ArrayList<>();
-        List<DependencyCycle> cycles = new ArrayList<>();
-        
-        return detectCycleDFS(fullyQualifiedName, visited, recursionStack, path, cycles);
+        DependencyGraph graph = graph();
+        int id = graph.idOf(fullyQualifiedName);
+        return id >= 0 && graph.reachesCycle(id);
     }
     
     @Override
     public Map<String, Set<String>> getDependencyGraph() {
-        Map<String, Set<String>> graph = new HashMap<>();
-        Set<String> allElements = getAllElements();
-        
-        for (String element : allElements) {
-            graph.put(element, getDirectDependencies(element));
+        DependencyGraph graph = graph();
+        Map<String, Set<String>> result = new HashMap<>();
+        for (int id = elements.nextSetBit(0); id >= 0; id = elements.nextSetBit(id + 1)) {
+            result.put(graph.nameOf(id), graph.namesOf(graph.dependencies(id)));
         }
-        
-        return graph;
+        return result;
     }
     
     @Override
     public Map<String, Set<String>> getReverseDependencyGraph() {
+        DependencyGraph graph = graph();
         Map<String, Set<String>> reverseGraph = new HashMap<>();
-        Set<String> allElements = getAllElements();
-        
-        for (String element : allElements) {
-            reverseGraph.put(element, getReverseDependencies(element));
+        for (int id = elements.nextSetBit(0); id >= 0; id = elements.nextSetBit(id + 1)) {
+            reverseGraph.put(graph.nameOf(id), graph.namesOf(graph.dependents(id)));
         }
-        
         return reverseGraph;
     }
     
     @Override
     public List<Set<String>> getDependencyLayers() {
+        DependencyGraph graph = graph();
         List<Set<String>> layers = new ArrayList<>();
-        Set<String> allElements = getAllElements();
-        Set<String> processed = new HashSet<>();
-        
-        while (processed.size() < allElements.size()) {
-            Set<String> currentLayer = new HashSet<>();
-            
-            for (String element : allElements) {
-                if (!processed.contains(element)) {
-                    Set<String> deps = getDirectDependencies(element);
-                    deps.removeAll(processed); // 移除已处理的依赖
-                    
-                    if (deps.isEmpty()) {
-                        currentLayer.add(element);
-                    }
-                }
-            }
-            
-            if (currentLayer.isEmpty()) {
-                // 存在循环依赖，强制添加剩余元素到当前层
-                for (String element : allElements) {
-                    if (!processed.contains(element)) {
-                        currentLayer.add(element);
-                    }
-                }
-            }
-            
-            layers.add(currentLayer);
-            processed.addAll(currentLayer);
+        // 依赖不在repository中的元素和循环依赖的元素会被放入最后一层
+        for (int[] layer : graph.layers(elements)) {
+            layers.add(graph.namesOf(layer));
         }
-        
         return layers;
     }
     
     @Override
     public DependencyStatistics getDependencyStatistics() {
-        Set<String> allElements = getAllElements();
-        int totalElements = allElements.size();
+        DependencyGraph graph = graph();
+        int totalElements = elements.cardinality();
         int elementsWithDependencies = 0;
-        int maxDepth = 0;
         double totalDependencies = 0;
         Map<String, Integer> dependencyCountByNamespace = new HashMap<>();
         
-        for (String element : allElements) {
-            Set<String> deps = getDirectDependencies(element);
-            if (!deps.isEmpty()) {
+        for (int id = elements.nextSetBit(0); id >= 0; id = elements.nextSetBit(id + 1)) {
+            int deps = graph.outDegree(id);
+            if (deps > 0) {
                 elementsWithDependencies++;
             }
             
-            totalDependencies += deps.size();
-            
-            // 计算最大深度
-            Set<String> recursiveDeps = getRecursiveDependencies(element);
-            maxDepth = Math.max(maxDepth, recursiveDeps.size());
+            totalDependencies += deps;
             
             // 按namespace统计
-            String namespace = getNamespace(element);
-            dependencyCountByNamespace.merge(namespace, deps.size(), Integer::sum);
+            String namespace = getNamespace(graph.nameOf(id));
+            dependencyCountByNamespace.merge(namespace, deps, Integer::sum);
         }
         
+        // 最大深度为最长依赖链的长度，循环依赖视为一个节点
+        int maxDepth = graph.longestDependencyChain();
         double averageDependencies = totalElements > 0 ? totalDependencies / totalElements : 0;
         int elementsWithoutDependencies = totalElements - elementsWithDependencies;
         
@@ -308,35 +166,28 @@ public class EnhancedDependencyAnalyzer implements DependencyAnalyzer {
     
     @Override
     public ImpactAnalysis analyzeImpact(String fullyQualifiedName) {
-        Set<String> directlyAffected = getReverseDependencies(fullyQualifiedName);
+        DependencyGraph graph = graph();
+        int id = graph.idOf(fullyQualifiedName);
+        Set<String> directlyAffected = new HashSet<>();
         Set<String> indirectlyAffected = new HashSet<>();
+        Set<String> allAffected = new HashSet<>();
         
-        // 递归查找间接影响
-        Set<String> toProcess = new HashSet<>(directlyAffected);
-        Set<String> processed = new HashSet<>();
-        
-        while (!toProcess.isEmpty()) {
-            String current = toProcess.iterator().next();
-            toProcess.remove(current);
-            processed.add(current);
-            
-            Set<String> currentReverseDeps = getReverseDependencies(current);
-            for (String dep : currentReverseDeps) {
-                if (!processed.contains(dep) && !directlyAffected.contains(dep)) {
-                    indirectlyAffected.add(dep);
-                    toProcess.add(dep);
-                }
+        if (id >= 0) {
+            // 递归查找间接影响
+            int[] direct = graph.dependents(id);
+            BitSet affected = graph.transitiveDependents(id);
+            allAffected = graph.namesOf(affected);
+            directlyAffected = graph.namesOf(direct);
+            for (int dependent : direct) {
+                affected.clear(dependent);
             }
+            indirectlyAffected = graph.namesOf(affected);
         }
         
         int totalAffected = directlyAffected.size() + indirectlyAffected.size();
         
         // 按namespace统计影响
         Map<String, Integer> affectedByNamespace = new HashMap<>();
-        Set<String> allAffected = new HashSet<>();
-        allAffected.addAll(directlyAffected);
-        allAffected.addAll(indirectlyAffected);
-        
         for (String affected : allAffected) {
             String namespace = getNamespace(affected);
             affectedByNamespace.merge(namespace, 1, Integer::sum);
@@ -414,188 +265,132 @@ public class EnhancedDependencyAnalyzer implements DependencyAnalyzer {
     }
     
     // 私有辅助方法
-    private Set<String> analyzeEntityTypeDependencies(CsdlSchema schema, String typeName) {
+    private Set<String> analyzeEntityTypeDependencies(CsdlEntityType entityType) {
         Set<String> dependencies = new HashSet<>();
         
-        if (schema.getEntityTypes() != null) {
-            for (CsdlEntityType entityType : schema.getEntityTypes()) {
-                if (entityType.getName().equals(typeName)) {
-                    // 基类型依赖
-                    if (entityType.getBaseType() != null) {
-                        dependencies.add(entityType.getBaseType());
-                    }
-                    
-                    // 属性类型依赖
-                    if (entityType.getProperties() != null) {
-                        for (CsdlProperty property : entityType.getProperties()) {
-                            String propType = extractTypeFromEdmType(property.getType());
-                            if (!isPrimitiveType(propType)) {
-                                dependencies.add(propType);
-                            }
-                        }
-                    }
-                    
-                    // 导航属性依赖
-                    if (entityType.getNavigationProperties() != null) {
-                        for (CsdlNavigationProperty navProp : entityType.getNavigationProperties()) {
-                            String navType = extractTypeFromEdmType(navProp.getType());
-                            dependencies.add(navType);
-                        }
-                    }
-                    
-                    // Annotation依赖
-                    dependencies.addAll(analyzeAnnotationDependencies(entityType.getAnnotations()));
-                    
-                    break;
+        // 基类型依赖
+        if (entityType.getBaseType() != null) {
+            dependencies.add(entityType.getBaseType());
+        }
+        
+        // 属性类型依赖
+        if (entityType.getProperties() != null) {
+            for (CsdlProperty property : entityType.getProperties()) {
+                String propType = extractTypeFromEdmType(property.getType());
+                if (!isPrimitiveType(propType)) {
+                    dependencies.add(propType);
                 }
             }
         }
         
-        return dependencies;
-    }
-    
-    private Set<String> analyzeComplexTypeDependencies(CsdlSchema schema, String typeName) {
-        Set<String> dependencies = new HashSet<>();
-        
-        if (schema.getComplexTypes() != null) {
-            for (CsdlComplexType complexType : schema.getComplexTypes()) {
-                if (complexType.getName().equals(typeName)) {
-                    // 基类型依赖
-                    if (complexType.getBaseType() != null) {
-                        dependencies.add(complexType.getBaseType());
-                    }
-                    
-                    // 属性类型依赖
-                    if (complexType.getProperties() != null) {
-                        for (CsdlProperty property : complexType.getProperties()) {
-                            String propType = extractTypeFromEdmType(property.getType());
-                            if (!isPrimitiveType(propType)) {
-                                dependencies.add(propType);
-                            }
-                        }
-                    }
-                    
-                    // 导航属性依赖
-                    if (complexType.getNavigationProperties() != null) {
-                        for (CsdlNavigationProperty navProp : complexType.getNavigationProperties()) {
-                            String navType = extractTypeFromEdmType(navProp.getType());
-                            dependencies.add(navType);
-                        }
-                    }
-                    
-                    // Annotation依赖
-                    dependencies.addAll(analyzeAnnotationDependencies(complexType.getAnnotations()));
-                    
-                    break;
-                }
+        // 导航属性依赖
+        if (entityType.getNavigationProperties() != null) {
+            for (CsdlNavigationProperty navProp : entityType.getNavigationProperties()) {
+                String navType = extractTypeFromEdmType(navProp.getType());
+                dependencies.add(navType);
             }
         }
         
+        // Annotation依赖
+        dependencies.addAll(analyzeAnnotationDependencies(entityType.getAnnotations()));
+        
         return dependencies;
     }
     
-    private Set<String> analyzeEnumTypeDependencies(CsdlSchema schema, String typeName) {
+    private Set<String> analyzeComplexTypeDependencies(CsdlComplexType complexType) {
         Set<String> dependencies = new HashSet<>();
         
-        if (schema.getEnumTypes() != null) {
-            for (CsdlEnumType enumType : schema.getEnumTypes()) {
-                if (enumType.getName().equals(typeName)) {
-                    // EnumType主要检查annotation依赖
-                    dependencies.addAll(analyzeAnnotationDependencies(enumType.getAnnotations()));
-                    break;
+        // 基类型依赖
+        if (complexType.getBaseType() != null) {
+            dependencies.add(complexType.getBaseType());
+        }
+        
+        // 属性类型依赖
+        if (complexType.getProperties() != null) {
+            for (CsdlProperty property : complexType.getProperties()) {
+                String propType = extractTypeFromEdmType(property.getType());
+                if (!isPrimitiveType(propType)) {
+                    dependencies.add(propType);
                 }
             }
         }
         
+        // 导航属性依赖
+        if (complexType.getNavigationProperties() != null) {
+            for (CsdlNavigationProperty navProp : complexType.getNavigationProperties()) {
+                String navType = extractTypeFromEdmType(navProp.getType());
+                dependencies.add(navType);
+            }
+        }
+        
+        // Annotation依赖
+        dependencies.addAll(analyzeAnnotationDependencies(complexType.getAnnotations()));
+        
         return dependencies;
     }
     
-    private Set<String> analyzeActionDependencies(CsdlSchema schema, String actionName) {
+    private Set<String> analyzeActionDependencies(CsdlAction action) {
         Set<String> dependencies = new HashSet<>();
         
-        if (schema.getActions() != null) {
-            for (CsdlAction action : schema.getActions()) {
-                if (action.getName().equals(actionName)) {
-                    // 参数类型依赖
-                    if (action.getParameters() != null) {
-                        for (CsdlParameter parameter : action.getParameters()) {
-                            String paramType = extractTypeFromEdmType(parameter.getType());
-                            if (!isPrimitiveType(paramType)) {
-                                dependencies.add(paramType);
-                            }
-                        }
-                    }
-                    
-                    // 返回类型依赖
-                    if (action.getReturnType() != null) {
-                        String returnType = extractTypeFromEdmType(action.getReturnType().getType());
-                        if (!isPrimitiveType(returnType)) {
-                            dependencies.add(returnType);
-                        }
-                    }
-                    
-                    // Annotation依赖
-                    dependencies.addAll(analyzeAnnotationDependencies(action.getAnnotations()));
-                    
-                    break;
+        // 参数类型依赖
+        if (action.getParameters() != null) {
+            for (CsdlParameter parameter : action.getParameters()) {
+                String paramType = extractTypeFromEdmType(parameter.getType());
+                if (!isPrimitiveType(paramType)) {
+                    dependencies.add(paramType);
                 }
             }
         }
         
+        // 返回类型依赖
+        if (action.getReturnType() != null) {
+            String returnType = extractTypeFromEdmType(action.getReturnType().getType());
+            if (!isPrimitiveType(returnType)) {
+                dependencies.add(returnType);
+            }
+        }
+        
+        // Annotation依赖
+        dependencies.addAll(analyzeAnnotationDependencies(action.getAnnotations()));
+        
         return dependencies;
     }
     
-    private Set<String> analyzeFunctionDependencies(CsdlSchema schema, String functionName) {
+    private Set<String> analyzeFunctionDependencies(CsdlFunction function) {
         Set<String> dependencies = new HashSet<>();
         
-        if (schema.getFunctions() != null) {
-            for (CsdlFunction function : schema.getFunctions()) {
-                if (function.getName().equals(functionName)) {
-                    // 参数类型依赖
-                    if (function.getParameters() != null) {
-                        for (CsdlParameter parameter : function.getParameters()) {
-                            String paramType = extractTypeFromEdmType(parameter.getType());
-                            if (!isPrimitiveType(paramType)) {
-                                dependencies.add(paramType);
-                            }
-                        }
-                    }
-                    
-                    // 返回类型依赖
-                    if (function.getReturnType() != null) {
-                        String returnType = extractTypeFromEdmType(function.getReturnType().getType());
-                        if (!isPrimitiveType(returnType)) {
-                            dependencies.add(returnType);
-                        }
-                    }
-                    
-                    // Annotation依赖
-                    dependencies.addAll(analyzeAnnotationDependencies(function.getAnnotations()));
-                    
-                    break;
+        // 参数类型依赖
+        if (function.getParameters() != null) {
+            for (CsdlParameter parameter : function.getParameters()) {
+                String paramType = extractTypeFromEdmType(parameter.getType());
+                if (!isPrimitiveType(paramType)) {
+                    dependencies.add(paramType);
                 }
             }
         }
         
+        // 返回类型依赖
+        if (function.getReturnType() != null) {
+            String returnType = extractTypeFromEdmType(function.getReturnType().getType());
+            if (!isPrimitiveType(returnType)) {
+                dependencies.add(returnType);
+            }
+        }
+        
+        // Annotation依赖
+        dependencies.addAll(analyzeAnnotationDependencies(function.getAnnotations()));
+        
         return dependencies;
     }
     
-    private Set<String> analyzeEntitySetDependencies(CsdlSchema schema, String entitySetName) {
+    private Set<String> analyzeEntitySetDependencies(CsdlEntitySet entitySet) {
         Set<String> dependencies = new HashSet<>();
         
-        if (schema.getEntityContainer() != null && schema.getEntityContainer().getEntitySets() != null) {
-            for (CsdlEntitySet entitySet : schema.getEntityContainer().getEntitySets()) {
-                if (entitySet.getName().equals(entitySetName)) {
-                    // EntityType依赖
-                    dependencies.add(entitySet.getType());
-                    
-                    // Annotation依赖
-                    dependencies.addAll(analyzeAnnotationDependencies(entitySet.getAnnotations()));
-                    
-                    break;
-                }
-            }
-        }
+        // EntityType依赖
+        dependencies.add(entitySet.getType());
+        
+        // Annotation依赖
+        dependencies.addAll(analyzeAnnotationDependencies(entitySet.getAnnotations()));
         
         return dependencies;
     }
@@ -637,91 +432,84 @@ public class EnhancedDependencyAnalyzer implements DependencyAnalyzer {
         return dependencies;
     }
     
-    private boolean detectCycleDFS(String element, Set<String> visited, Set<String> recursionStack,
-                                  List<String> path, List<DependencyCycle> cycles) {
-        if (recursionStack.contains(element)) {
-            // 发现循环
-            int cycleStart = path.indexOf(element);
-            List<String> cycle = new ArrayList<>(path.subList(cycleStart, path.size()));
-            cycle.add(element);
-            
-            String description = String.format("Circular dependency detected: %s", 
-                String.join(" -> ", cycle));
-            cycles.add(new DependencyCycle(cycle, description));
-            return true;
+    /**
+     * 返回依赖图，第一次调用时遍历repository中的所有元素构建
+     */
+    private DependencyGraph graph() {
+        if (graph == null) {
+            DependencyGraph newGraph = new DependencyGraph();
+            BitSet newElements = new BitSet();
+            for (CsdlSchema schema : repository.getAllSchemas()) {
+                addSchema(schema, newGraph, newElements);
+            }
+            logger.debug("Built dependency graph with {} nodes and {} edges",
+                newGraph.nodeCount(), newGraph.edgeCount());
+            graph = newGraph;
+            elements = newElements;
         }
+        return graph;
+    }
+    
+    private void addSchema(CsdlSchema schema, DependencyGraph graph, BitSet elements) {
+        String namespace = schema.getNamespace();
         
-        if (visited.contains(element)) {
-            return false;
+        // EntityType
+        if (schema.getEntityTypes() != null) {
+            for (CsdlEntityType entityType : schema.getEntityTypes()) {
+                addElement(namespace, entityType.getName(), analyzeEntityTypeDependencies(entityType),
+                    graph, elements);
+            }
         }
         
-        visited.add(element);
-        recursionStack.add(element);
-        path.add(element);
-        
-        Set<String> dependencies = getDirectDependencies(element);
-        for (String dep : dependencies) {
-            if (detectCycleDFS(dep, visited, recursionStack, path, cycles)) {
-                return true;
+        // ComplexType
+        if (schema.getComplexTypes() != null) {
+            for (CsdlComplexType complexType : schema.getComplexTypes()) {
+                addElement(namespace, complexType.getName(), analyzeComplexTypeDependencies(complexType),
+                    graph, elements);
             }
         }
         
-        recursionStack.remove(element);
-        path.remove(path.size() - 1);
-        
-        return false;
-    }
-    
-    private Set<String> getAllElements() {
-        Set<String> allElements = new HashSet<>();
-        
-        for (CsdlSchema schema : repository.getAllSchemas()) {
-            String namespace = schema.getNamespace();
-            
-            // EntityType
-            if (schema.getEntityTypes() != null) {
-                for (CsdlEntityType entityType : schema.getEntityTypes()) {
-                    allElements.add(namespace + "." + entityType.getName());
-                }
-            }
-            
-            // ComplexType
-            if (schema.getComplexTypes() != null) {
-                for (CsdlComplexType complexType : schema.getComplexTypes()) {
-                    allElements.add(namespace + "." + complexType.getName());
-                }
+        // EnumType (EnumType通常没有依赖，但可能有annotation)
+        if (schema.getEnumTypes() != null) {
+            for (CsdlEnumType enumType : schema.getEnumTypes()) {
+                addElement(namespace, enumType.getName(),
+                    analyzeAnnotationDependencies(enumType.getAnnotations()), graph, elements);
             }
-            
-            // EnumType
-            if (schema.getEnumTypes() != null) {
-                for (CsdlEnumType enumType : schema.getEnumTypes()) {
-                    allElements.add(namespace + "." + enumType.getName());
-                }
+        }
+        
+        // Action
+        if (schema.getActions() != null) {
+            for (CsdlAction action : schema.getActions()) {
+                addElement(namespace, action.getName(), analyzeActionDependencies(action), graph, elements);
             }
-            
-            // Action
-            if (schema.getActions() != null) {
-                for (CsdlAction action : schema.getActions()) {
-                    allElements.add(namespace + "." + action.getName());
-                }
+        }
+        
+        // Function
+        if (schema.getFunctions() != null) {
+            for (CsdlFunction function : schema.getFunctions()) {
+                addElement(namespace, function.getName(), analyzeFunctionDependencies(function),
+                    graph, elements);
             }
-            
-            // Function
-            if (schema.getFunctions() != null) {
-                for (CsdlFunction function : schema.getFunctions()) {
-                    allElements.add(namespace + "." + function.getName());
-                }
+        }
+        
+        // EntitySet (在EntityContainer中)
+        if (schema.getEntityContainer() != null && schema.getEntityContainer().getEntitySets() != null) {
+            for (CsdlEntitySet entitySet : schema.getEntityContainer().getEntitySets()) {
+                addElement(namespace, entitySet.getName(), analyzeEntitySetDependencies(entitySet),
+                    graph, elements);
             }
-            
-            // EntitySet
-            if (schema.getEntityContainer() != null && schema.getEntityContainer().getEntitySets() != null) {
-                for (CsdlEntitySet entitySet : schema.getEntityContainer().getEntitySets()) {
-                    allElements.add(namespace + "." + entitySet.getName());
-                }
+        }
+    }
+    
+    private void addElement(String namespace, String name, Set<String> dependencies,
+                            DependencyGraph graph, BitSet elements) {
+        int id = graph.intern(namespace + "." + name);
+        elements.set(id);
+        for (String dependency : dependencies) {
+            if (dependency != null) {
+                graph.addEdge(id, graph.intern(dependency));
             }
         }
-        
-        return allElements;
     }
     
     private String extractTypeFromEdmType(String edmType) {
@@ -763,7 +551,7 @@ public class EnhancedDependencyAnalyzer implements DependencyAnalyzer {
      * 清除缓存
      */
     public void clearCache() {
-        dependencyCache.clear();
-        reverseDependencyCache.clear();
+        graph = null;
+        elements = null;
     }
 }
@@ -206,11 +206,8 @@ public class SqlDdlGenerator {
             // 第二步：验证继承关系的一致性
             validateInheritanceTree(warnings);
             
-            // 第三步：按依赖关系排序EntityType
-            List<CsdlEntityType> sortedEntityTypes = sortEntityTypesByDependency();
-            
-            // 第四步：生成SQL文件
-            String fileName = generateSqlFile(sortedEntityTypes, schemas);
+            // 第三步：生成SQL文件
+            String fileName = generateSqlFile(generateSql(schemas));
             generatedFiles.add(fileName);
             
             logger.info("Generated SQL DDL file: {}", fileName);
@@ -223,6 +220,18 @@ public class SqlDdlGenerator {
         return new GenerationResult(errors.isEmpty(), generatedFiles, errors, warnings);
     }
     
+    /**
+     * 生成DDL脚本文本但不写文件，供直接在数据库上执行
+     * 语句以分号结尾，注释为整行的--注释或语句内的块注释
+     */
+    public String generateDdl(List<CsdlSchema> schemas) {
+        allEntityTypes.clear();
+        inheritanceTree.clear();
+        collectAllEntityTypes(schemas);
+        buildInheritanceTree();
+        return generateSql(schemas);
+    }
+    
     /**
      * 收集所有EntityType
      */
@@ -345,12 +354,24 @@ public class SqlDdlGenerator {
     /**
      * 生成SQL文件
      */
-    private String generateSqlFile(List<CsdlEntityType> entityTypes, List<CsdlSchema> schemas) throws IOException {
+    private String generateSqlFile(String sql) throws IOException {
         Files.createDirectories(outputDirectory);
         
         String fileName = "create_tables_" + dialect.name().toLowerCase() + ".sql";
         Path sqlFile = outputDirectory.resolve(fileName);
         
+        Files.write(sqlFile, sql.getBytes("UTF-8"), 
+                   StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        
+        return fileName;
+    }
+    
+    /**
+     * 按依赖关系排序EntityType并生成完整的DDL文本
+     */
+    private String generateSql(List<CsdlSchema> schemas) {
+        List<CsdlEntityType> entityTypes = sortEntityTypesByDependency();
+        
         StringBuilder sql = new StringBuilder();
         
         // 添加文件头注释
@@ -374,10 +395,7 @@ public class SqlDdlGenerator {
         // 生成索引
         sql.append(generateIndexes(entityTypes));
         
-        Files.write(sqlFile, sql.toString().getBytes("UTF-8"), 
-                   StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-        
-        return fileName;
+        return sql.toString();
     }
 
     private static String repeat(String str, int count) {
@@ -442,7 +460,7 @@ public class SqlDdlGenerator {
         
         // 如果是继承的实体，添加鉴别器列
         if (entityType.getBaseType() != null || hasSubTypes(entityType.getName())) {
-            columns.add("    EntityType VARCHAR(100) NOT NULL -- Discriminator column");
+            columns.add("    EntityType VARCHAR(100) NOT NULL /* Discriminator column */");
         }
         
         sql.append(String.join(",\n", columns));
@@ -480,7 +498,7 @@ public class SqlDdlGenerator {
         // 添加基类的属性
         if (baseType.getProperties() != null) {
             for (CsdlProperty property : baseType.getProperties()) {
-                columns.add(generateColumnDefinition(property) + " -- Inherited from " + baseTypeName);
+                columns.add(generateColumnDefinition(property) + " /* Inherited from " + baseTypeName + " */");
             }
         }
         
@@ -523,7 +541,7 @@ public class SqlDdlGenerator {
                     column.append("CLOB");
                     break;
             }
-            column.append(" -- Collection of ").append(elementType);
+            column.append(" /* Collection of ").append(elementType).append(" */");
         } else {
             column.append(getSqlType(property.getType(), property.getMaxLength(), property.getPrecision()));
         }
@@ -614,9 +632,9 @@ public class SqlDdlGenerator {
     }
     
     /**
-     * 获取表名
+     * 获取表名，JDBC实体访问按同样的规则定位表
      */
-    private String getTableName(String entityName) {
+    public static String getTableName(String entityName) {
         // 简单的命名策略：实体名转换为表名
         return entityName.replaceAll("([a-z])([A-Z])", "$1_$2").toUpperCase();
     }
@@ -0,0 +1,232 @@
+package org.apache.olingo.schema.processor.jdbc;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityIterator;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.commons.core.edm.primitivetype.EdmPrimitiveTypeFactory;
+import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.api.uri.UriHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 逐行读取ResultSet的实体迭代器
+ * 序列化器消费到哪一行才读取到哪一行，内存中只保留当前实体。读满一页后再探测一行，
+ * 存在时设置下一页链接。迭代结束或出错时关闭结果集、语句和连接。
+ */
+class JdbcEntityIterator extends EntityIterator implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcEntityIterator.class);
+
+    private final RowReader rowReader;
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
+    private final boolean restoreAutoCommit;
+    private final int pageSize;
+    private final URI nextLink;
+
+    private Entity pending;
+    private int read;
+    private boolean closed;
+
+    /**
+     * @param pageSize 本页最多返回的实体数
+     * @param nextLink 结果集在本页之后还有数据时使用的下一页链接，为null时不探测
+     * @param restoreAutoCommit 关闭前是否恢复连接的自动提交
+     */
+    JdbcEntityIterator(RowReader rowReader, Connection connection, PreparedStatement statement,
+                       ResultSet resultSet, boolean restoreAutoCommit, int pageSize, URI nextLink) {
+        this.rowReader = rowReader;
+        this.connection = connection;
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.restoreAutoCommit = restoreAutoCommit;
+        this.pageSize = pageSize;
+        this.nextLink = nextLink;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (pending != null) {
+            return true;
+        }
+        if (closed) {
+            return false;
+        }
+        if (read >= pageSize) {
+            if (nextLink != null && advance()) {
+                setNext(nextLink);
+            }
+            close();
+            return false;
+        }
+        if (!advance()) {
+            close();
+            return false;
+        }
+        try {
+            pending = rowReader.read(resultSet);
+        } catch (SQLException e) {
+            close();
+            throw new ODataRuntimeException("Reading a row failed", e);
+        }
+        return true;
+    }
+
+    @Override
+    public Entity next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Entity entity = pending;
+        pending = null;
+        read++;
+        return entity;
+    }
+
+    private boolean advance() {
+        try {
+            return resultSet.next();
+        } catch (SQLException e) {
+            close();
+            throw new ODataRuntimeException("Reading the result set failed", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            resultSet.close();
+            statement.close();
+            if (restoreAutoCommit) {
+                // 只读游标，结束事务即可
+                connection.commit();
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.warn("Closing the result set failed: {}", e.getMessage());
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.warn("Closing the connection failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 把结果集的当前行转换为实体
+     */
+    static class RowReader {
+        private final String entitySetName;
+        private final EdmEntityType entityType;
+        private final List<JdbcEntitySetMapping.Column> columns;
+        private final UriHelper uriHelper;
+
+        /**
+         * @param columns 结果集中的列，按查询中的顺序
+         */
+        RowReader(String entitySetName, EdmEntityType entityType, List<JdbcEntitySetMapping.Column> columns,
+                  UriHelper uriHelper) {
+            this.entitySetName = entitySetName;
+            this.entityType = entityType;
+            this.columns = columns;
+            this.uriHelper = uriHelper;
+        }
+
+        Entity read(ResultSet resultSet) throws SQLException {
+            Entity entity = new Entity();
+            for (int i = 0; i < columns.size(); i++) {
+                JdbcEntitySetMapping.Column column = columns.get(i);
+                entity.addProperty(new Property(null, column.getPropertyName(), ValueType.PRIMITIVE,
+                    readValue(resultSet, i + 1, column)));
+            }
+            try {
+                entity.setId(URI.create(entitySetName + "(" + uriHelper.buildKeyPredicate(entityType, entity) + ")"));
+            } catch (SerializerException e) {
+                throw new ODataRuntimeException("Building the id of an entity failed", e);
+            }
+            return entity;
+        }
+
+        private static Object readValue(ResultSet resultSet, int index, JdbcEntitySetMapping.Column column)
+                throws SQLException {
+            Object value;
+            switch (column.getType()) {
+                case Boolean:
+                    value = resultSet.getBoolean(index);
+                    break;
+                case Byte:
+                case Int16:
+                    value = resultSet.getShort(index);
+                    break;
+                case SByte:
+                    value = resultSet.getByte(index);
+                    break;
+                case Int32:
+                    value = resultSet.getInt(index);
+                    break;
+                case Int64:
+                    value = resultSet.getLong(index);
+                    break;
+                case Decimal:
+                    return resultSet.getBigDecimal(index);
+                case Double:
+                    value = resultSet.getDouble(index);
+                    break;
+                case Single:
+                    value = resultSet.getFloat(index);
+                    break;
+                case String:
+                    return resultSet.getString(index);
+                case Date:
+                    return resultSet.getDate(index);
+                case TimeOfDay:
+                    return resultSet.getTime(index);
+                case DateTimeOffset:
+                    return resultSet.getTimestamp(index);
+                case Binary:
+                    return resultSet.getBytes(index);
+                case Guid:
+                    value = resultSet.getObject(index);
+                    return value == null || value instanceof UUID ? value : UUID.fromString(value.toString());
+                default:
+                    // 其他类型在DDL中存为字符串
+                    return parse(resultSet.getString(index), column);
+            }
+            return resultSet.wasNull() ? null : value;
+        }
+
+        private static Object parse(String text, JdbcEntitySetMapping.Column column) throws SQLException {
+            if (text == null) {
+                return null;
+            }
+            EdmPrimitiveType type = EdmPrimitiveTypeFactory.getInstance(column.getType());
+            try {
+                return type.valueOfString(text, true, null, null, null, true, type.getDefaultType());
+            } catch (EdmPrimitiveTypeException e) {
+                throw new SQLException("Invalid value of column " + column.getColumnName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package org.apache.olingo.schema.processor.jdbc;
+
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+
+import javax.sql.DataSource;
+
+import org.apache.olingo.commons.api.data.ContextURL;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.schema.processor.generator.SqlDdlGenerator.DatabaseDialect;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.processor.EntityCollectionProcessor;
+import org.apache.olingo.server.api.processor.EntityProcessor;
+import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions;
+import org.apache.olingo.server.api.serializer.EntitySerializerOptions;
+import org.apache.olingo.server.api.serializer.ODataSerializer;
+import org.apache.olingo.server.api.serializer.SerializerResult;
+import org.apache.olingo.server.api.serializer.SerializerStreamResult;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 基于SqlDdlGenerator生成的表提供只读的实体集访问
+ * 集合请求的查询选项都转换为SQL，结果集按JDBC fetchSize分批读取并直接流式写入响应，
+ * 连接在响应写完（或写入失败）时才释放。超过一页的结果返回下一页链接。
+ */
+public class JdbcEntityProcessor implements EntityCollectionProcessor, EntityProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcEntityProcessor.class);
+
+    private final DataSource dataSource;
+    private final JdbcSchemaMapping mapping;
+    private final DatabaseDialect dialect;
+
+    private int maxPageSize = 1000;
+    private int fetchSize = 100;
+
+    private OData odata;
+    private ServiceMetadata serviceMetadata;
+
+    public JdbcEntityProcessor(DataSource dataSource, JdbcSchemaMapping mapping, DatabaseDialect dialect) {
+        this.dataSource = dataSource;
+        this.mapping = mapping;
+        this.dialect = dialect;
+    }
+
+    /**
+     * 设置每页最多返回的实体数
+     */
+    public void setMaxPageSize(int maxPageSize) {
+        if (maxPageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + maxPageSize);
+        }
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * 设置JDBC每次从数据库读取的行数，0表示使用驱动的默认值
+     * MySQL需要在连接URL中设置useCursorFetch=true才会按批读取
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 0) {
+            throw new IllegalArgumentException("Fetch size must not be negative: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public void init(OData odata, ServiceMetadata serviceMetadata) {
+        this.odata = odata;
+        this.serviceMetadata = serviceMetadata;
+    }
+
+    @Override
+    public void readEntityCollection(ODataRequest request, ODataResponse response, UriInfo uriInfo,
+                                     ContentType responseFormat) throws ODataApplicationException, ODataLibraryException {
+        EdmEntitySet edmEntitySet = getEntitySet(uriInfo);
+        EdmEntityType edmEntityType = edmEntitySet.getEntityType();
+        JdbcEntitySetMapping entitySetMapping = getMapping(edmEntitySet);
+        SqlQueryBuilder queryBuilder = new SqlQueryBuilder(entitySetMapping, dialect);
+
+        int skip = uriInfo.getSkipOption() != null ? uriInfo.getSkipOption().getValue() : 0;
+        Integer top = uriInfo.getTopOption() != null ? uriInfo.getTopOption().getValue() : null;
+        // $top在一页以内时不需要探测下一页
+        boolean lastPage = top != null && top <= maxPageSize;
+        int pageSize = lastPage ? top : maxPageSize;
+        SqlQuery query = queryBuilder.buildSelect(uriInfo, skip, lastPage ? pageSize : pageSize + 1);
+        URI nextLink = lastPage ? null
+            : createNextLink(request, edmEntitySet, skip + pageSize, top == null ? null : top - pageSize);
+
+        Integer count = null;
+        if (uriInfo.getCountOption() != null && uriInfo.getCountOption().getValue()) {
+            count = executeCount(queryBuilder.buildCount(uriInfo));
+        }
+
+        JdbcEntityIterator.RowReader rowReader = new JdbcEntityIterator.RowReader(edmEntitySet.getName(),
+            edmEntityType, queryBuilder.selectedColumnMappings(uriInfo.getSelectOption()), odata.createUriHelper());
+        final JdbcEntityIterator iterator = openIterator(query, rowReader, pageSize, nextLink);
+        iterator.setCount(count);
+
+        try {
+            ODataSerializer serializer = odata.createSerializer(responseFormat);
+            ContextURL contextUrl = ContextURL.with()
+                .entitySet(edmEntitySet)
+                .selectList(odata.createUriHelper().buildContextURLSelectList(edmEntityType, null,
+                    uriInfo.getSelectOption()))
+                .build();
+            EntityCollectionSerializerOptions options = EntityCollectionSerializerOptions.with()
+                .id(request.getRawBaseUri() + "/" + edmEntitySet.getName())
+                .contextURL(contextUrl)
+                .select(uriInfo.getSelectOption())
+                .count(uriInfo.getCountOption())
+                .writeContentErrorCallback((context, channel) -> {
+                    logger.warn("Writing {} failed: {}", edmEntitySet.getName(), context.getException().getMessage());
+                    iterator.close();
+                })
+                .build();
+
+            // 实体在写响应时才从结果集读取
+            SerializerStreamResult serializerResult = serializer.entityCollectionStreamed(serviceMetadata,
+                edmEntityType, iterator, options);
+            response.setODataContent(serializerResult.getODataContent());
+            response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+            response.setHeader(HttpHeader.CONTENT_TYPE, responseFormat.toContentTypeString());
+        } catch (ODataLibraryException | RuntimeException e) {
+            iterator.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void readEntity(ODataRequest request, ODataResponse response, UriInfo uriInfo, ContentType responseFormat)
+            throws ODataApplicationException, ODataLibraryException {
+        EdmEntitySet edmEntitySet = getEntitySet(uriInfo);
+        EdmEntityType edmEntityType = edmEntitySet.getEntityType();
+        SqlQueryBuilder queryBuilder = new SqlQueryBuilder(getMapping(edmEntitySet), dialect);
+        UriResourceEntitySet resource = (UriResourceEntitySet) uriInfo.getUriResourceParts().get(0);
+        SqlQuery query = queryBuilder.buildSelectByKey(resource.getKeyPredicates(), uriInfo.getSelectOption());
+        JdbcEntityIterator.RowReader rowReader = new JdbcEntityIterator.RowReader(edmEntitySet.getName(),
+            edmEntityType, queryBuilder.selectedColumnMappings(uriInfo.getSelectOption()), odata.createUriHelper());
+
+        Entity entity;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = query.prepare(connection);
+             ResultSet resultSet = statement.executeQuery()) {
+            entity = resultSet.next() ? rowReader.read(resultSet) : null;
+        } catch (SQLException e) {
+            throw databaseError(query, e);
+        }
+        if (entity == null) {
+            throw new ODataApplicationException("Entity not found", HttpStatusCode.NOT_FOUND.getStatusCode(),
+                Locale.ROOT);
+        }
+
+        ODataSerializer serializer = odata.createSerializer(responseFormat);
+        ContextURL contextUrl = ContextURL.with()
+            .entitySet(edmEntitySet)
+            .selectList(odata.createUriHelper().buildContextURLSelectList(edmEntityType, null,
+                uriInfo.getSelectOption()))
+            .suffix(ContextURL.Suffix.ENTITY)
+            .build();
+        EntitySerializerOptions options = EntitySerializerOptions.with()
+            .contextURL(contextUrl)
+            .select(uriInfo.getSelectOption())
+            .build();
+        SerializerResult serializerResult = serializer.entity(serviceMetadata, edmEntityType, entity, options);
+
+        response.setContent(serializerResult.getContent());
+        response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+        response.setHeader(HttpHeader.CONTENT_TYPE, responseFormat.toContentTypeString());
+    }
+
+    @Override
+    public void createEntity(ODataRequest request, ODataResponse response, UriInfo uriInfo,
+                             ContentType requestFormat, ContentType responseFormat)
+            throws ODataApplicationException, ODataLibraryException {
+        throw notImplemented("Entity sets are read-only");
+    }
+
+    @Override
+    public void updateEntity(ODataRequest request, ODataResponse response, UriInfo uriInfo,
+                             ContentType requestFormat, ContentType responseFormat)
+            throws ODataApplicationException, ODataLibraryException {
+        throw notImplemented("Entity sets are read-only");
+    }
+
+    @Override
+    public void deleteEntity(ODataRequest request, ODataResponse response, UriInfo uriInfo)
+            throws ODataApplicationException, ODataLibraryException {
+        throw notImplemented("Entity sets are read-only");
+    }
+
+    /**
+     * 执行查询并返回未读取的迭代器，连接由迭代器负责关闭
+     */
+    private JdbcEntityIterator openIterator(SqlQuery query, JdbcEntityIterator.RowReader rowReader,
+                                            int pageSize, URI nextLink) throws ODataApplicationException {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        boolean restoreAutoCommit = false;
+        try {
+            connection = dataSource.getConnection();
+            // PostgreSQL只在事务中按fetchSize使用游标
+            if (dialect == DatabaseDialect.POSTGRESQL && connection.getAutoCommit()) {
+                connection.setAutoCommit(false);
+                restoreAutoCommit = true;
+            }
+            statement = query.prepare(connection);
+            statement.setFetchSize(fetchSize);
+            ResultSet resultSet = statement.executeQuery();
+            return new JdbcEntityIterator(rowReader, connection, statement, resultSet, restoreAutoCommit,
+                pageSize, nextLink);
+        } catch (SQLException e) {
+            closeQuietly(connection, statement, restoreAutoCommit);
+            throw databaseError(query, e);
+        }
+    }
+
+    private Integer executeCount(SqlQuery query) throws ODataApplicationException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = query.prepare(connection);
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        } catch (SQLException e) {
+            throw databaseError(query, e);
+        }
+    }
+
+    private static void closeQuietly(Connection connection, PreparedStatement statement, boolean restoreAutoCommit) {
+        try {
+            if (statement != null) {
+                statement.close();
+            }
+            if (connection != null) {
+                if (restoreAutoCommit) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+                connection.close();
+            }
+        } catch (SQLException e) {
+            logger.warn("Closing the connection failed: {}", e.getMessage());
+        }
+    }
+
+    private URI createNextLink(ODataRequest request, EdmEntitySet edmEntitySet, int nextSkip, Integer remainingTop) {
+        StringBuilder query = new StringBuilder();
+        String rawQuery = request.getRawQueryPath();
+        if (rawQuery != null && !rawQuery.isEmpty()) {
+            for (String option : rawQuery.split("&")) {
+                String name = option.split("=", 2)[0].replace("%24", "$");
+                if (!name.equals("$skip") && !name.equals("$top")) {
+                    query.append(option).append('&');
+                }
+            }
+        }
+        query.append("$skip=").append(nextSkip);
+        if (remainingTop != null) {
+            query.append("&$top=").append(remainingTop);
+        }
+        return URI.create(request.getRawBaseUri() + "/" + edmEntitySet.getName() + "?" + query);
+    }
+
+    private static EdmEntitySet getEntitySet(UriInfo uriInfo) throws ODataApplicationException {
+        List<UriResource> resourceParts = uriInfo.getUriResourceParts();
+        if (resourceParts.size() != 1 || !(resourceParts.get(0) instanceof UriResourceEntitySet)) {
+            throw notImplemented("Only entity sets and entities addressed by key are supported");
+        }
+        return ((UriResourceEntitySet) resourceParts.get(0)).getEntitySet();
+    }
+
+    private JdbcEntitySetMapping getMapping(EdmEntitySet edmEntitySet) throws ODataApplicationException {
+        JdbcEntitySetMapping entitySetMapping = mapping.getEntitySet(edmEntitySet.getName());
+        if (entitySetMapping == null) {
+            throw notImplemented("Entity set " + edmEntitySet.getName() + " is not mapped to a table");
+        }
+        return entitySetMapping;
+    }
+
+    private static ODataApplicationException databaseError(SqlQuery query, SQLException e) {
+        logger.error("Query {} failed", query, e);
+        return new ODataApplicationException("Database query failed",
+            HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT, e);
+    }
+
+    private static ODataApplicationException notImplemented(String message) {
+        return new ODataApplicationException(message, HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+    }
+}
@@ -0,0 +1,87 @@
+package org.apache.olingo.schema.processor.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+
+/**
+ * 实体集到SqlDdlGenerator生成的表的映射
+ * 列名与属性名相同，列顺序与DDL一致（祖先类型的属性在前）
+ */
+public class JdbcEntitySetMapping {
+
+    private final String entitySetName;
+    private final FullQualifiedName entityType;
+    private final String tableName;
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+    private final List<String> keyProperties = new ArrayList<>();
+
+    public JdbcEntitySetMapping(String entitySetName, FullQualifiedName entityType, String tableName) {
+        this.entitySetName = entitySetName;
+        this.entityType = entityType;
+        this.tableName = tableName;
+    }
+
+    /**
+     * 表中的一列
+     */
+    public static class Column {
+        private final String propertyName;
+        private final String columnName;
+        private final EdmPrimitiveTypeKind type;
+        private final boolean nullable;
+
+        /**
+         * 可空的列，与CSDL中Nullable的默认值一致
+         */
+        public Column(String propertyName, String columnName, EdmPrimitiveTypeKind type) {
+            this(propertyName, columnName, type, true);
+        }
+
+        public Column(String propertyName, String columnName, EdmPrimitiveTypeKind type, boolean nullable) {
+            this.propertyName = propertyName;
+            this.columnName = columnName;
+            this.type = type;
+            this.nullable = nullable;
+        }
+
+        public String getPropertyName() { return propertyName; }
+        public String getColumnName() { return columnName; }
+        public EdmPrimitiveTypeKind getType() { return type; }
+        public boolean isNullable() { return nullable; }
+    }
+
+    void addColumn(Column column) {
+        columns.put(column.getPropertyName(), column);
+    }
+
+    void addKeyProperty(String propertyName) {
+        if (!keyProperties.contains(propertyName)) {
+            keyProperties.add(propertyName);
+        }
+    }
+
+    public String getEntitySetName() { return entitySetName; }
+    public FullQualifiedName getEntityType() { return entityType; }
+    public String getTableName() { return tableName; }
+
+    /**
+     * 获取属性对应的列，非基本类型或集合属性没有列
+     */
+    public Column getColumn(String propertyName) {
+        return columns.get(propertyName);
+    }
+
+    public List<Column> getColumns() {
+        return Collections.unmodifiableList(new ArrayList<>(columns.values()));
+    }
+
+    public List<String> getKeyProperties() {
+        return Collections.unmodifiableList(keyProperties);
+    }
+}
@@ -0,0 +1,157 @@
+package org.apache.olingo.schema.processor.jdbc;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.schema.processor.generator.SqlDdlGenerator;
+import org.apache.olingo.schema.processor.generator.SqlDdlGenerator.DatabaseDialect;
+import org.apache.olingo.schema.processor.loader.SchemaDirectoryLoader;
+import org.apache.olingo.schema.processor.parser.impl.CsdlXmlParserImpl;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataHandler;
+import org.apache.olingo.server.api.ODataHttpHandler;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.core.SchemaBasedEdmProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 把Schema目录发布为基于数据库表的只读OData服务
+ * 表结构由SqlDdlGenerator生成，请求由JdbcEntityProcessor处理，不需要手写Processor。
+ *
+ * 用法：
+ * <pre>
+ * JdbcODataService service = JdbcODataService.fromDirectory(schemaDir, dataSource, DatabaseDialect.H2);
+ * service.createTables();
+ * ODataHttpHandler handler = service.createHandler();
+ * </pre>
+ */
+public class JdbcODataService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcODataService.class);
+
+    private final List<CsdlSchema> schemas;
+    private final DataSource dataSource;
+    private final DatabaseDialect dialect;
+    private final JdbcEntityProcessor processor;
+
+    private JdbcODataService(List<CsdlSchema> schemas, DataSource dataSource, DatabaseDialect dialect) {
+        this.schemas = new ArrayList<>(schemas);
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+        this.processor = new JdbcEntityProcessor(dataSource, JdbcSchemaMapping.fromSchemas(schemas), dialect);
+    }
+
+    public static JdbcODataService fromSchemas(List<CsdlSchema> schemas, DataSource dataSource,
+                                               DatabaseDialect dialect) {
+        return new JdbcODataService(schemas, dataSource, dialect);
+    }
+
+    /**
+     * 加载目录中的所有Schema文件
+     *
+     * @throws IllegalStateException 目录加载失败时
+     */
+    public static JdbcODataService fromDirectory(Path directory, DataSource dataSource, DatabaseDialect dialect) {
+        SchemaDirectoryLoader.LoadResult loadResult =
+            new SchemaDirectoryLoader(new CsdlXmlParserImpl()).loadDirectory(directory);
+        if (!loadResult.isSuccess()) {
+            throw new IllegalStateException("Loading schemas from " + directory + " failed: " + loadResult.getErrors());
+        }
+        return new JdbcODataService(loadResult.getSchemas(), dataSource, dialect);
+    }
+
+    /**
+     * 在数据源中执行生成的DDL
+     * 建表失败时抛出异常；外键和索引依赖导航属性的约定，失败时只记录警告。
+     */
+    public void createTables() throws SQLException {
+        String ddl = new SqlDdlGenerator(null, dialect).generateDdl(schemas);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String sql : splitStatements(ddl)) {
+                try {
+                    statement.execute(sql);
+                } catch (SQLException e) {
+                    if (sql.startsWith("CREATE TABLE")) {
+                        throw e;
+                    }
+                    logger.warn("Skipping statement {}: {}", sql, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 按行尾的分号拆分DDL，跳过注释行
+     */
+    static List<String> splitStatements(String ddl) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : ddl.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            if (trimmed.endsWith(";")) {
+                current.append(trimmed, 0, trimmed.length() - 1);
+                statements.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(trimmed).append('\n');
+            }
+        }
+        return statements;
+    }
+
+    /**
+     * 创建注册了JdbcEntityProcessor的Servlet请求处理器
+     */
+    public ODataHttpHandler createHandler() {
+        OData odata = OData.newInstance();
+        ODataHttpHandler handler = odata.createHandler(createServiceMetadata(odata));
+        handler.register(processor);
+        return handler;
+    }
+
+    /**
+     * 创建不依赖Servlet的请求处理器，直接处理ODataRequest
+     */
+    public ODataHandler createRawHandler() {
+        OData odata = OData.newInstance();
+        ODataHandler handler = odata.createRawHandler(createServiceMetadata(odata));
+        handler.register(processor);
+        return handler;
+    }
+
+    private ServiceMetadata createServiceMetadata(OData odata) {
+        return odata.createServiceMetadata(new JdbcEdmProvider(schemas), Collections.<EdmxReference>emptyList());
+    }
+
+    /**
+     * 获取处理器，用于设置分页大小和fetchSize
+     */
+    public JdbcEntityProcessor getProcessor() {
+        return processor;
+    }
+
+    /**
+     * 直接由加载的Schema提供元数据
+     */
+    private static class JdbcEdmProvider extends SchemaBasedEdmProvider {
+        JdbcEdmProvider(List<CsdlSchema> schemas) {
+            for (CsdlSchema schema : schemas) {
+                addSchema(schema);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.apache.olingo.schema.processor.jdbc;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntitySet;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
+import org.apache.olingo.commons.api.edm.provider.CsdlProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlPropertyRef;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.schema.processor.generator.SqlDdlGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 从CSDL Schema推导出各实体集的表映射
+ * 命名规则与SqlDdlGenerator相同：表名由实体类型名生成，列名即属性名，派生类型的表包含继承的列。
+ * 只映射基本类型的单值属性；复杂类型、枚举和集合属性不参与读取。
+ */
+public class JdbcSchemaMapping {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcSchemaMapping.class);
+
+    private final Map<String, JdbcEntitySetMapping> entitySets = new LinkedHashMap<>();
+
+    private JdbcSchemaMapping() {
+    }
+
+    public static JdbcSchemaMapping fromSchemas(Collection<CsdlSchema> schemas) {
+        Map<String, String> aliases = new HashMap<>();
+        Map<String, CsdlEntityType> entityTypes = new HashMap<>();
+        for (CsdlSchema schema : schemas) {
+            if (schema.getAlias() != null) {
+                aliases.put(schema.getAlias(), schema.getNamespace());
+            }
+            if (schema.getEntityTypes() != null) {
+                for (CsdlEntityType entityType : schema.getEntityTypes()) {
+                    entityTypes.put(schema.getNamespace() + "." + entityType.getName(), entityType);
+                }
+            }
+        }
+
+        JdbcSchemaMapping mapping = new JdbcSchemaMapping();
+        for (CsdlSchema schema : schemas) {
+            if (schema.getEntityContainer() == null || schema.getEntityContainer().getEntitySets() == null) {
+                continue;
+            }
+            for (CsdlEntitySet entitySet : schema.getEntityContainer().getEntitySets()) {
+                String typeName = resolve(entitySet.getType(), aliases);
+                CsdlEntityType entityType = entityTypes.get(typeName);
+                if (entityType == null) {
+                    logger.warn("Entity type {} of entity set {} not found, entity set is not mapped",
+                        typeName, entitySet.getName());
+                    continue;
+                }
+                JdbcEntitySetMapping entitySetMapping = new JdbcEntitySetMapping(entitySet.getName(),
+                    new FullQualifiedName(typeName), SqlDdlGenerator.getTableName(entityType.getName()));
+                addTypeHierarchy(entitySetMapping, entityType, entityTypes, aliases, new HashSet<String>());
+                if (entitySetMapping.getKeyProperties().isEmpty()) {
+                    logger.warn("Entity set {} has no key, entity set is not mapped", entitySet.getName());
+                    continue;
+                }
+                mapping.entitySets.put(entitySet.getName(), entitySetMapping);
+            }
+        }
+        return mapping;
+    }
+
+    /**
+     * 先添加祖先类型的列和键，与DDL中继承列的顺序一致
+     */
+    private static void addTypeHierarchy(JdbcEntitySetMapping mapping, CsdlEntityType entityType,
+                                         Map<String, CsdlEntityType> entityTypes, Map<String, String> aliases,
+                                         Set<String> visited) {
+        if (!visited.add(entityType.getName())) {
+            return; // 循环继承
+        }
+        if (entityType.getBaseType() != null) {
+            CsdlEntityType baseType = entityTypes.get(resolve(entityType.getBaseType(), aliases));
+            if (baseType != null) {
+                addTypeHierarchy(mapping, baseType, entityTypes, aliases, visited);
+            }
+        }
+        if (entityType.getProperties() != null) {
+            for (CsdlProperty property : entityType.getProperties()) {
+                EdmPrimitiveTypeKind kind = primitiveKind(property);
+                if (kind != null) {
+                    mapping.addColumn(new JdbcEntitySetMapping.Column(property.getName(), property.getName(), kind,
+                        property.isNullable()));
+                }
+            }
+        }
+        if (entityType.getKey() != null) {
+            for (CsdlPropertyRef keyRef : entityType.getKey()) {
+                mapping.addKeyProperty(keyRef.getName());
+            }
+        }
+    }
+
+    private static EdmPrimitiveTypeKind primitiveKind(CsdlProperty property) {
+        if (property.isCollection() || property.getType() == null) {
+            return null;
+        }
+        try {
+            EdmPrimitiveTypeKind kind = EdmPrimitiveTypeKind.valueOfFQN(property.getType());
+            // 流和地理类型没有对应的列类型
+            return kind == EdmPrimitiveTypeKind.Stream || kind.name().startsWith("Geo") ? null : kind;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String resolve(String qualifiedName, Map<String, String> aliases) {
+        int dot = qualifiedName.lastIndexOf('.');
+        if (dot > 0) {
+            String namespace = aliases.get(qualifiedName.substring(0, dot));
+            if (namespace != null) {
+                return namespace + qualifiedName.substring(dot);
+            }
+        }
+        return qualifiedName;
+    }
+
+    /**
+     * 获取实体集映射，未映射时返回null
+     */
+    public JdbcEntitySetMapping getEntitySet(String entitySetName) {
+        return entitySets.get(entitySetName);
+    }
+
+    public Collection<JdbcEntitySetMapping> getEntitySets() {
+        return Collections.unmodifiableCollection(entitySets.values());
+    }
+}
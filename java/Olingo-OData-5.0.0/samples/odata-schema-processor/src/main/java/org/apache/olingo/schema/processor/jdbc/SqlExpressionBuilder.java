@@ -0,0 +1,446 @@
+package org.apache.olingo.schema.processor.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import org.apache.olingo.commons.api.edm.EdmEnumType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.schema.processor.generator.SqlDdlGenerator.DatabaseDialect;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourcePrimitiveProperty;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitor;
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+import org.apache.olingo.server.api.uri.queryoption.expression.MethodKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.UnaryOperatorKind;
+
+/**
+ * 把$filter和$orderby表达式翻译成SQL片段
+ * 每个片段携带自己的参数，组合时按文本顺序拼接参数，因此函数参数顺序因方言而不同时也不会错位。
+ * null字面量翻译为NULL，与之比较时生成IS [NOT] NULL。OData中eq、ne和in总是得到true或false，
+ * 操作数可能为NULL时补充IS [NOT] NULL条件，避免得到UNKNOWN后被NOT保留为UNKNOWN而丢行；
+ * 其他比较与null的结果是null，翻译为UNKNOWN，NOT之后仍为UNKNOWN。AND、OR、NOT的三值逻辑与SQL一致。
+ * 不能翻译的表达式返回501，不做内存计算。
+ */
+class SqlExpressionBuilder implements ExpressionVisitor<SqlExpressionBuilder.Fragment> {
+
+    private static final char LIKE_ESCAPE = '!';
+    private static final Fragment NULL = new Fragment("NULL", Collections.emptyList());
+    private static final Fragment FALSE = new Fragment("(1 = 0)", Collections.emptyList());
+    private static final Fragment TRUE = new Fragment("(1 = 1)", Collections.emptyList());
+    private static final Fragment UNKNOWN = new Fragment("(1 = NULL)", Collections.emptyList(), false, true);
+
+    private final JdbcEntitySetMapping mapping;
+    private final DatabaseDialect dialect;
+
+    SqlExpressionBuilder(JdbcEntitySetMapping mapping, DatabaseDialect dialect) {
+        this.mapping = mapping;
+        this.dialect = dialect;
+    }
+
+    /**
+     * SQL文本及其中占位符对应的参数
+     */
+    static final class Fragment {
+        private final String sql;
+        private final List<Object> parameters;
+        private final boolean literal;
+        private final boolean nullable;
+
+        private Fragment(String sql, List<Object> parameters) {
+            this(sql, parameters, false, false);
+        }
+
+        /**
+         * @param nullable 值可能为NULL（条件可能为UNKNOWN），即引用了可空的列或null
+         */
+        private Fragment(String sql, List<Object> parameters, boolean literal, boolean nullable) {
+            this.sql = sql;
+            this.parameters = parameters;
+            this.literal = literal;
+            this.nullable = nullable;
+        }
+
+        String getSql() {
+            return sql;
+        }
+
+        List<Object> getParameters() {
+            return parameters;
+        }
+    }
+
+    Fragment build(Expression expression) throws ODataApplicationException {
+        try {
+            return expression.accept(this);
+        } catch (ExpressionVisitException e) {
+            throw new ODataApplicationException(e.getMessage(), HttpStatusCode.BAD_REQUEST.getStatusCode(),
+                Locale.ROOT, e);
+        }
+    }
+
+    /**
+     * 已保证不为NULL的条件，例如补充了IS [NOT] NULL的比较
+     */
+    private static Fragment twoValued(Fragment fragment) {
+        return new Fragment(fragment.sql, fragment.parameters, false, false);
+    }
+
+    /**
+     * 按顺序拼接字符串和片段，片段的参数随之合并，任一片段可空时结果也可空
+     */
+    private static Fragment sql(Object... parts) {
+        StringBuilder sql = new StringBuilder();
+        List<Object> parameters = new ArrayList<>();
+        boolean nullable = false;
+        for (Object part : parts) {
+            if (part instanceof Fragment) {
+                sql.append(((Fragment) part).sql);
+                parameters.addAll(((Fragment) part).parameters);
+                nullable |= ((Fragment) part).nullable;
+            } else {
+                sql.append(part);
+            }
+        }
+        return new Fragment(sql.toString(), parameters, false, nullable);
+    }
+
+    @Override
+    public Fragment visitMember(Member member) throws ExpressionVisitException, ODataApplicationException {
+        List<UriResource> parts = member.getResourcePath().getUriResourceParts();
+        if (parts.size() == 1 && parts.get(0) instanceof UriResourcePrimitiveProperty) {
+            String propertyName = ((UriResourcePrimitiveProperty) parts.get(0)).getProperty().getName();
+            JdbcEntitySetMapping.Column column = mapping.getColumn(propertyName);
+            if (column != null) {
+                boolean nullable = column.isNullable() && !mapping.getKeyProperties().contains(propertyName);
+                return new Fragment(column.getColumnName(), Collections.emptyList(), false, nullable);
+            }
+        }
+        throw notImplemented("Only primitive properties stored in " + mapping.getTableName() + " can be queried");
+    }
+
+    @Override
+    public Fragment visitLiteral(Literal literal) throws ExpressionVisitException, ODataApplicationException {
+        EdmType type = literal.getType();
+        if (type == null) {
+            return NULL;
+        }
+        if (!(type instanceof EdmPrimitiveType)) {
+            throw notImplemented("Literal " + literal.getText() + " is not supported");
+        }
+        Object value = toJdbcValue((EdmPrimitiveType) type, literal.getText());
+        return new Fragment("?", Collections.singletonList(value), true, false);
+    }
+
+    /**
+     * 把URI字面量转换为JDBC参数值
+     */
+    Object toJdbcValue(EdmPrimitiveType type, String text) throws ODataApplicationException {
+        Class<?> returnType = type.getDefaultType();
+        if (is(type, EdmPrimitiveTypeKind.Date)) {
+            returnType = java.sql.Date.class;
+        } else if (is(type, EdmPrimitiveTypeKind.TimeOfDay)) {
+            returnType = java.sql.Time.class;
+        } else if (is(type, EdmPrimitiveTypeKind.DateTimeOffset)) {
+            returnType = java.sql.Timestamp.class;
+        }
+        try {
+            Object value = type.valueOfString(type.fromUriLiteral(text), true, null, null, null, true, returnType);
+            // 只有H2和PostgreSQL有原生UUID类型
+            if (value instanceof UUID && dialect != DatabaseDialect.H2 && dialect != DatabaseDialect.POSTGRESQL) {
+                return value.toString();
+            }
+            return value;
+        } catch (EdmPrimitiveTypeException e) {
+            throw new ODataApplicationException("Invalid literal " + text, HttpStatusCode.BAD_REQUEST.getStatusCode(),
+                Locale.ROOT, e);
+        }
+    }
+
+    private static boolean is(EdmPrimitiveType type, EdmPrimitiveTypeKind kind) {
+        return kind.getFullQualifiedName().equals(type.getFullQualifiedName());
+    }
+
+    @Override
+    public Fragment visitUnaryOperator(UnaryOperatorKind operator, Fragment operand)
+            throws ExpressionVisitException, ODataApplicationException {
+        switch (operator) {
+            case NOT:
+                return operand == NULL ? UNKNOWN : sql("(NOT ", operand, ")");
+            case MINUS:
+                return operand == NULL ? NULL : sql("(-", operand, ")");
+            default:
+                throw notImplemented("Operator " + operator + " is not supported");
+        }
+    }
+
+    @Override
+    public Fragment visitBinaryOperator(BinaryOperatorKind operator, Fragment left, Fragment right)
+            throws ExpressionVisitException, ODataApplicationException {
+        if (operator == BinaryOperatorKind.EQ || operator == BinaryOperatorKind.NE) {
+            String test = operator == BinaryOperatorKind.EQ ? " IS NULL)" : " IS NOT NULL)";
+            if (left == NULL && right == NULL) {
+                return operator == BinaryOperatorKind.EQ ? TRUE : FALSE;
+            } else if (right == NULL) {
+                return twoValued(sql("(", left, test));
+            } else if (left == NULL) {
+                return twoValued(sql("(", right, test));
+            }
+        } else if (operator == BinaryOperatorKind.AND || operator == BinaryOperatorKind.OR) {
+            // null作为条件即UNKNOWN，由SQL的三值逻辑处理
+            left = left == NULL ? UNKNOWN : left;
+            right = right == NULL ? UNKNOWN : right;
+        } else if (left == NULL || right == NULL) {
+            // 其他运算与null的结果都是null：算术结果继续传递NULL，比较结果为UNKNOWN，NOT之后仍被过滤
+            return isArithmetic(operator) ? NULL : UNKNOWN;
+        }
+        switch (operator) {
+            case AND:
+                return sql("(", left, " AND ", right, ")");
+            case OR:
+                return sql("(", left, " OR ", right, ")");
+            case EQ:
+                return equal(left, right);
+            case NE:
+                return notEqual(left, right);
+            case GT:
+                return sql("(", left, " > ", right, ")");
+            case GE:
+                return sql("(", left, " >= ", right, ")");
+            case LT:
+                return sql("(", left, " < ", right, ")");
+            case LE:
+                return sql("(", left, " <= ", right, ")");
+            case ADD:
+                return sql("(", left, " + ", right, ")");
+            case SUB:
+                return sql("(", left, " - ", right, ")");
+            case MUL:
+                return sql("(", left, " * ", right, ")");
+            case DIV:
+                return sql("(", left, " / ", right, ")");
+            case MOD:
+                return dialect == DatabaseDialect.SQL_SERVER
+                    ? sql("(", left, " % ", right, ")") : sql("MOD(", left, ", ", right, ")");
+            default:
+                throw notImplemented("Operator " + operator + " is not supported");
+        }
+    }
+
+    /**
+     * SQL中NULL = x的结果是UNKNOWN，NOT之后仍为UNKNOWN；OData中null eq 非null值为false，null eq null为true
+     */
+    private static Fragment equal(Fragment left, Fragment right) {
+        if (left.nullable && right.nullable) {
+            return twoValued(sql("((", left, " = ", right, " AND ", left, " IS NOT NULL AND ", right,
+                " IS NOT NULL) OR (", left, " IS NULL AND ", right, " IS NULL))"));
+        } else if (left.nullable) {
+            return twoValued(sql("(", left, " = ", right, " AND ", left, " IS NOT NULL)"));
+        } else if (right.nullable) {
+            return twoValued(sql("(", left, " = ", right, " AND ", right, " IS NOT NULL)"));
+        }
+        return sql("(", left, " = ", right, ")");
+    }
+
+    /**
+     * SQL中NULL <> x的结果是UNKNOWN，行会被过滤掉；OData中null ne 非null值为true，null ne null为false
+     */
+    private static Fragment notEqual(Fragment left, Fragment right) {
+        if (left.nullable && right.nullable) {
+            return twoValued(sql("(NOT ", equal(left, right), ")"));
+        } else if (left.nullable) {
+            return twoValued(sql("(", left, " <> ", right, " OR ", left, " IS NULL)"));
+        } else if (right.nullable) {
+            return twoValued(sql("(", left, " <> ", right, " OR ", right, " IS NULL)"));
+        }
+        return sql("(", left, " <> ", right, ")");
+    }
+
+    private static boolean isArithmetic(BinaryOperatorKind operator) {
+        return operator == BinaryOperatorKind.ADD || operator == BinaryOperatorKind.SUB
+            || operator == BinaryOperatorKind.MUL || operator == BinaryOperatorKind.DIV
+            || operator == BinaryOperatorKind.MOD;
+    }
+
+    @Override
+    public Fragment visitBinaryOperator(BinaryOperatorKind operator, Fragment left, List<Fragment> right)
+            throws ExpressionVisitException, ODataApplicationException {
+        if (operator != BinaryOperatorKind.IN) {
+            throw notImplemented("Operator " + operator + " is not supported");
+        }
+        boolean nullableValues = false;
+        for (Fragment value : right) {
+            if (value == NULL) {
+                throw notImplemented("null is not supported in an in list");
+            }
+            nullableValues |= value.nullable;
+        }
+        // in与eq一样总是得到true或false，列表中有可空的值时按eq展开
+        List<Object> parts = new ArrayList<>();
+        parts.add("(");
+        if (nullableValues) {
+            for (int i = 0; i < right.size(); i++) {
+                parts.add(i > 0 ? " OR " : "");
+                parts.add(equal(left, right.get(i)));
+            }
+        } else {
+            parts.add(left);
+            parts.add(" IN (");
+            for (int i = 0; i < right.size(); i++) {
+                if (i > 0) {
+                    parts.add(", ");
+                }
+                parts.add(right.get(i));
+            }
+            parts.add(")");
+            if (left.nullable) {
+                parts.add(" AND ");
+                parts.add(left);
+                parts.add(" IS NOT NULL");
+            }
+        }
+        parts.add(")");
+        return twoValued(sql(parts.toArray()));
+    }
+
+    @Override
+    public Fragment visitMethodCall(MethodKind methodCall, List<Fragment> parameters)
+            throws ExpressionVisitException, ODataApplicationException {
+        switch (methodCall) {
+            case CONTAINS:
+                return like(parameters, "%", "%");
+            case STARTSWITH:
+                return like(parameters, "", "%");
+            case ENDSWITH:
+                return like(parameters, "%", "");
+            case TOLOWER:
+                return sql("LOWER(", parameters.get(0), ")");
+            case TOUPPER:
+                return sql("UPPER(", parameters.get(0), ")");
+            case TRIM:
+                return sql("TRIM(", parameters.get(0), ")");
+            case CONCAT:
+                return sql("CONCAT(", parameters.get(0), ", ", parameters.get(1), ")");
+            case LENGTH:
+                return length(parameters.get(0));
+            case INDEXOF:
+                return sql("(", position(parameters.get(0), parameters.get(1)), " - 1)");
+            case SUBSTRING:
+                return substring(parameters);
+            case YEAR:
+            case MONTH:
+            case DAY:
+            case HOUR:
+            case MINUTE:
+            case SECOND:
+                return dialect == DatabaseDialect.SQL_SERVER
+                    ? sql("DATEPART(", methodCall.name(), ", ", parameters.get(0), ")")
+                    : sql("EXTRACT(", methodCall.name(), " FROM ", parameters.get(0), ")");
+            default:
+                throw notImplemented("Method " + methodCall + " is not supported");
+        }
+    }
+
+    /**
+     * LIKE的模式必须是字面量，其中的通配符转义后再加上前后缀
+     */
+    private Fragment like(List<Fragment> arguments, String prefix, String suffix) throws ODataApplicationException {
+        Fragment pattern = arguments.get(1);
+        if (!pattern.literal) {
+            throw notImplemented("The pattern of contains, startswith and endswith must be a literal");
+        }
+        String value = prefix + escapeLike(String.valueOf(pattern.parameters.get(0))) + suffix;
+        return sql("(", arguments.get(0), " LIKE ", new Fragment("?", Collections.singletonList(value)),
+            " ESCAPE '" + LIKE_ESCAPE + "')");
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    private Fragment length(Fragment value) {
+        switch (dialect) {
+            case SQL_SERVER:
+                return sql("LEN(", value, ")");
+            case ORACLE:
+                return sql("LENGTH(", value, ")");
+            default:
+                return sql("CHAR_LENGTH(", value, ")");
+        }
+    }
+
+    private Fragment position(Fragment value, Fragment search) {
+        switch (dialect) {
+            case POSTGRESQL:
+                return sql("STRPOS(", value, ", ", search, ")");
+            case ORACLE:
+                return sql("INSTR(", value, ", ", search, ")");
+            case SQL_SERVER:
+                return sql("CHARINDEX(", search, ", ", value, ")");
+            default:
+                return sql("LOCATE(", search, ", ", value, ")");
+        }
+    }
+
+    private Fragment substring(List<Fragment> arguments) {
+        // OData从0开始，SQL从1开始
+        Fragment start = sql("(", arguments.get(1), " + 1)");
+        String function = dialect == DatabaseDialect.ORACLE ? "SUBSTR(" : "SUBSTRING(";
+        if (arguments.size() > 2) {
+            return sql(function, arguments.get(0), ", ", start, ", ", arguments.get(2), ")");
+        } else if (dialect == DatabaseDialect.SQL_SERVER) {
+            return sql(function, arguments.get(0), ", ", start, ", ", length(arguments.get(0)), ")");
+        }
+        return sql(function, arguments.get(0), ", ", start, ")");
+    }
+
+    @Override
+    public Fragment visitLambdaExpression(String lambdaFunction, String lambdaVariable, Expression expression)
+            throws ExpressionVisitException, ODataApplicationException {
+        throw notImplemented("Lambda expressions are not supported");
+    }
+
+    @Override
+    public Fragment visitAlias(String aliasName) throws ExpressionVisitException, ODataApplicationException {
+        throw notImplemented("Aliases are not supported");
+    }
+
+    @Override
+    public Fragment visitTypeLiteral(EdmType type) throws ExpressionVisitException, ODataApplicationException {
+        throw notImplemented("Type literals are not supported");
+    }
+
+    @Override
+    public Fragment visitLambdaReference(String variableName) throws ExpressionVisitException, ODataApplicationException {
+        throw notImplemented("Lambda references are not supported");
+    }
+
+    @Override
+    public Fragment visitEnum(EdmEnumType type, List<String> enumValues)
+            throws ExpressionVisitException, ODataApplicationException {
+        throw notImplemented("Enum values are not supported");
+    }
+
+    private static ODataApplicationException notImplemented(String message) {
+        return new ODataApplicationException(message, HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+    }
+}
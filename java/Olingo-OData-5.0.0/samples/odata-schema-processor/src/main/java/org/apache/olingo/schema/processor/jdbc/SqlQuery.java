@@ -0,0 +1,51 @@
+package org.apache.olingo.schema.processor.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 带参数的SQL语句，所有来自请求的值都以参数绑定，不拼接进SQL文本
+ */
+final class SqlQuery {
+
+    private final String sql;
+    private final List<Object> parameters;
+
+    SqlQuery(String sql, List<Object> parameters) {
+        this.sql = sql;
+        this.parameters = new ArrayList<>(parameters);
+    }
+
+    String getSql() {
+        return sql;
+    }
+
+    List<Object> getParameters() {
+        return Collections.unmodifiableList(parameters);
+    }
+
+    /**
+     * 创建只进只读的语句并绑定参数
+     */
+    PreparedStatement prepare(Connection connection) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        try {
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            return statement;
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return sql + " " + parameters;
+    }
+}
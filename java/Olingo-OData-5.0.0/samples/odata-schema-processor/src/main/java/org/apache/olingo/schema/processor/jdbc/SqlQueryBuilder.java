@@ -0,0 +1,185 @@
+package org.apache.olingo.schema.processor.jdbc;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.commons.core.edm.primitivetype.EdmPrimitiveTypeFactory;
+import org.apache.olingo.schema.processor.generator.SqlDdlGenerator.DatabaseDialect;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourcePrimitiveProperty;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
+import org.apache.olingo.server.api.uri.queryoption.SelectItem;
+import org.apache.olingo.server.api.uri.queryoption.SelectOption;
+
+/**
+ * 根据URI生成实体集的查询语句
+ * $filter、$orderby、$select、$top和$skip都在数据库中执行，排序最后总是追加键列，保证分页稳定。
+ */
+class SqlQueryBuilder {
+
+    private final JdbcEntitySetMapping mapping;
+    private final DatabaseDialect dialect;
+    private final SqlExpressionBuilder expressionBuilder;
+
+    SqlQueryBuilder(JdbcEntitySetMapping mapping, DatabaseDialect dialect) {
+        this.mapping = mapping;
+        this.dialect = dialect;
+        this.expressionBuilder = new SqlExpressionBuilder(mapping, dialect);
+    }
+
+    /**
+     * 生成一页数据的查询
+     *
+     * @param skip 跳过的行数
+     * @param limit 最多读取的行数
+     */
+    SqlQuery buildSelect(UriInfo uriInfo, int skip, int limit) throws ODataApplicationException {
+        checkSupported(uriInfo);
+        List<Object> parameters = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT ");
+        sql.append(String.join(", ", selectedColumns(uriInfo.getSelectOption())));
+        sql.append(" FROM ").append(mapping.getTableName());
+        appendWhere(uriInfo, sql, parameters);
+
+        sql.append(" ORDER BY ");
+        List<String> orderBy = new ArrayList<>();
+        if (uriInfo.getOrderByOption() != null) {
+            for (OrderByItem item : uriInfo.getOrderByOption().getOrders()) {
+                SqlExpressionBuilder.Fragment expression = expressionBuilder.build(item.getExpression());
+                orderBy.add(expression.getSql() + (item.isDescending() ? " DESC" : " ASC"));
+                parameters.addAll(expression.getParameters());
+            }
+        }
+        for (String keyProperty : mapping.getKeyProperties()) {
+            orderBy.add(columnName(keyProperty) + " ASC");
+        }
+        sql.append(String.join(", ", orderBy));
+
+        switch (dialect) {
+            case SQL_SERVER:
+            case ORACLE:
+                sql.append(" OFFSET ? ROWS FETCH NEXT ? ROWS ONLY");
+                parameters.add(skip);
+                parameters.add(limit);
+                break;
+            default:
+                sql.append(" LIMIT ? OFFSET ?");
+                parameters.add(limit);
+                parameters.add(skip);
+                break;
+        }
+        return new SqlQuery(sql.toString(), parameters);
+    }
+
+    /**
+     * 生成$count查询，只受$filter影响
+     */
+    SqlQuery buildCount(UriInfo uriInfo) throws ODataApplicationException {
+        checkSupported(uriInfo);
+        List<Object> parameters = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM ").append(mapping.getTableName());
+        appendWhere(uriInfo, sql, parameters);
+        return new SqlQuery(sql.toString(), parameters);
+    }
+
+    /**
+     * 生成按键读取单个实体的查询
+     */
+    SqlQuery buildSelectByKey(List<UriParameter> keyPredicates, SelectOption selectOption)
+            throws ODataApplicationException {
+        List<Object> parameters = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        for (UriParameter keyPredicate : keyPredicates) {
+            JdbcEntitySetMapping.Column column = mapping.getColumn(keyPredicate.getName());
+            if (column == null || keyPredicate.getText() == null) {
+                throw new ODataApplicationException("Invalid key " + keyPredicate.getName(),
+                    HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+            }
+            conditions.add(column.getColumnName() + " = ?");
+            parameters.add(expressionBuilder.toJdbcValue(
+                EdmPrimitiveTypeFactory.getInstance(column.getType()), keyPredicate.getText()));
+        }
+        String sql = "SELECT " + String.join(", ", selectedColumns(selectOption))
+            + " FROM " + mapping.getTableName() + " WHERE " + String.join(" AND ", conditions);
+        return new SqlQuery(sql, parameters);
+    }
+
+    /**
+     * 查询结果的列，与selectedColumns的顺序一致
+     */
+    List<JdbcEntitySetMapping.Column> selectedColumnMappings(SelectOption selectOption) {
+        List<JdbcEntitySetMapping.Column> columns = new ArrayList<>();
+        Set<String> selected = selectedProperties(selectOption);
+        for (JdbcEntitySetMapping.Column column : mapping.getColumns()) {
+            if (selected == null || selected.contains(column.getPropertyName())
+                    || mapping.getKeyProperties().contains(column.getPropertyName())) {
+                columns.add(column);
+            }
+        }
+        return columns;
+    }
+
+    private List<String> selectedColumns(SelectOption selectOption) {
+        List<String> columns = new ArrayList<>();
+        for (JdbcEntitySetMapping.Column column : selectedColumnMappings(selectOption)) {
+            columns.add(column.getColumnName());
+        }
+        return columns;
+    }
+
+    /**
+     * 获取$select选中的属性，全部选中时返回null
+     */
+    private static Set<String> selectedProperties(SelectOption selectOption) {
+        if (selectOption == null) {
+            return null;
+        }
+        Set<String> properties = new LinkedHashSet<>();
+        for (SelectItem item : selectOption.getSelectItems()) {
+            if (item.isStar() || item.getResourcePath() == null) {
+                return null;
+            }
+            List<UriResource> parts = item.getResourcePath().getUriResourceParts();
+            if (!parts.isEmpty() && parts.get(0) instanceof UriResourcePrimitiveProperty) {
+                properties.add(((UriResourcePrimitiveProperty) parts.get(0)).getProperty().getName());
+            }
+        }
+        return properties;
+    }
+
+    private void appendWhere(UriInfo uriInfo, StringBuilder sql, List<Object> parameters)
+            throws ODataApplicationException {
+        if (uriInfo.getFilterOption() != null) {
+            SqlExpressionBuilder.Fragment filter = expressionBuilder.build(uriInfo.getFilterOption().getExpression());
+            sql.append(" WHERE ").append(filter.getSql());
+            parameters.addAll(filter.getParameters());
+        }
+    }
+
+    private String columnName(String propertyName) {
+        return mapping.getColumn(propertyName).getColumnName();
+    }
+
+    private static void checkSupported(UriInfo uriInfo) throws ODataApplicationException {
+        if (uriInfo.getExpandOption() != null && !uriInfo.getExpandOption().getExpandItems().isEmpty()) {
+            throw notImplemented("$expand is not supported");
+        }
+        if (uriInfo.getSearchOption() != null) {
+            throw notImplemented("$search is not supported");
+        }
+        if (uriInfo.getApplyOption() != null) {
+            throw notImplemented("$apply is not supported");
+        }
+    }
+
+    private static ODataApplicationException notImplemented(String message) {
+        return new ODataApplicationException(message, HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+    }
+}
@@ -5,8 +5,8 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 import org.apache.olingo.commons.api.edm.provider.CsdlAction;
@@ -16,21 +16,17 @@ import org.apache.olingo.commons.api.edm.provider.CsdlComplexType;
 import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainer;
 import org.apache.olingo.commons.api.edm.provider.CsdlEntitySet;
 import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
-import org.apache.olingo.commons.api.edm.provider.CsdlEnumMember;
 import org.apache.olingo.commons.api.edm.provider.CsdlEnumType;
 import org.apache.olingo.commons.api.edm.provider.CsdlFunction;
-import org.apache.olingo.commons.api.edm.provider.CsdlNavigationProperty;
 import org.apache.olingo.commons.api.edm.provider.CsdlParameter;
-import org.apache.olingo.commons.api.edm.provider.CsdlProperty;
-import org.apache.olingo.commons.api.edm.provider.CsdlPropertyRef;
-import org.apache.olingo.commons.api.edm.provider.CsdlReturnType;
 import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * 高级Schema合并器
- * 支持多文件、多namespace的Schema合并，确保元素唯一性
+ * 支持多文件、多namespace的Schema合并，确保元素唯一性。
+ * 同名元素通过结构指纹判断是否相同，不同namespace之间并行合并
  */
 public class AdvancedSchemaMerger {
     
@@ -56,7 +52,13 @@ public class AdvancedSchemaMerger {
             }
         }
         
-        // 合并同名namespace的Schema
+        // 各namespace互不影响，多个Schema的namespace并行合并
+        Map<String, MergeResult> namespaceResults = schemasByNamespace.entrySet().parallelStream()
+            .filter(entry -> entry.getValue().size() > 1)
+            .collect(Collectors.toConcurrentMap(Map.Entry::getKey,
+                entry -> mergeSingleNamespace(entry.getKey(), entry.getValue())));
+        
+        // 按namespace原有顺序汇总，保证错误和警告顺序与串行合并一致
         for (Map.Entry<String, List<CsdlSchema>> entry : schemasByNamespace.entrySet()) {
             String namespace = entry.getKey();
             List<CsdlSchema> schemas = entry.getValue();
@@ -65,8 +67,7 @@ public class AdvancedSchemaMerger {
                 // 单个Schema，直接使用
                 mergedSchemas.put(namespace, schemas.get(0));
             } else {
-                // 多个Schema需要合并
-                MergeResult singleNamespaceResult = mergeSingleNamespace(namespace, schemas);
+                MergeResult singleNamespaceResult = namespaceResults.get(namespace);
                 if (singleNamespaceResult.isSuccess()) {
                     mergedSchemas.put(namespace, singleNamespaceResult.getMergedSchemas().get(namespace));
                 } else {
@@ -126,6 +127,7 @@ public class AdvancedSchemaMerger {
                                  List<String> errors, List<String> warnings,
                                  Map<String, Set<String>> duplicateElements) {
         Map<String, CsdlEntityType> entityTypes = new HashMap<>();
+        Map<String, Long> fingerprints = new HashMap<>();
         String namespace = mergedSchema.getNamespace();
         
         for (CsdlSchema schema : schemas) {
@@ -134,7 +136,7 @@ public class AdvancedSchemaMerger {
                     String name = entityType.getName();
                     if (entityTypes.containsKey(name)) {
                         // 检查是否完全相同
-                        if (!areEntityTypesEquivalent(entityTypes.get(name), entityType)) {
+                        if (!sameDefinition(fingerprints, name, entityTypes.get(name), entityType, ElementFingerprint::of)) {
                             errors.add(String.format("Duplicate EntityType '%s' found in namespace '%s' with different definitions", name, namespace));
                             duplicateElements.computeIfAbsent("EntityType", k -> new HashSet<>()).add(name);
                         } else {
@@ -159,6 +161,7 @@ public class AdvancedSchemaMerger {
                                   List<String> errors, List<String> warnings,
                                   Map<String, Set<String>> duplicateElements) {
         Map<String, CsdlComplexType> complexTypes = new HashMap<>();
+        Map<String, Long> fingerprints = new HashMap<>();
         String namespace = mergedSchema.getNamespace();
         
         for (CsdlSchema schema : schemas) {
@@ -166,7 +169,7 @@ public class AdvancedSchemaMerger {
                 for (CsdlComplexType complexType : schema.getComplexTypes()) {
                     String name = complexType.getName();
                     if (complexTypes.containsKey(name)) {
-                        if (!areComplexTypesEquivalent(complexTypes.get(name), complexType)) {
+                        if (!sameDefinition(fingerprints, name, complexTypes.get(name), complexType, ElementFingerprint::of)) {
                             errors.add(String.format("Duplicate ComplexType '%s' found in namespace '%s' with different definitions", name, namespace));
                             duplicateElements.computeIfAbsent("ComplexType", k -> new HashSet<>()).add(name);
                         } else {
@@ -191,6 +194,7 @@ public class AdvancedSchemaMerger {
                                List<String> errors, List<String> warnings,
                                Map<String, Set<String>> duplicateElements) {
         Map<String, CsdlEnumType> enumTypes = new HashMap<>();
+        Map<String, Long> fingerprints = new HashMap<>();
         String namespace = mergedSchema.getNamespace();
         
         for (CsdlSchema schema : schemas) {
@@ -198,7 +202,7 @@ public class AdvancedSchemaMerger {
                 for (CsdlEnumType enumType : schema.getEnumTypes()) {
                     String name = enumType.getName();
                     if (enumTypes.containsKey(name)) {
-                        if (!areEnumTypesEquivalent(enumTypes.get(name), enumType)) {
+                        if (!sameDefinition(fingerprints, name, enumTypes.get(name), enumType, ElementFingerprint::of)) {
                             errors.add(String.format("Duplicate EnumType '%s' found in namespace '%s' with different definitions", name, namespace));
                             duplicateElements.computeIfAbsent("EnumType", k -> new HashSet<>()).add(name);
                         } else {
@@ -223,6 +227,7 @@ public class AdvancedSchemaMerger {
                              List<String> errors, List<String> warnings,
                              Map<String, Set<String>> duplicateElements) {
         Map<String, CsdlAction> actions = new HashMap<>();
+        Map<String, Long> fingerprints = new HashMap<>();
         String namespace = mergedSchema.getNamespace();
         
         for (CsdlSchema schema : schemas) {
@@ -230,7 +235,7 @@ public class AdvancedSchemaMerger {
                 for (CsdlAction action : schema.getActions()) {
                     String key = getActionKey(action);
                     if (actions.containsKey(key)) {
-                        if (!areActionsEquivalent(actions.get(key), action)) {
+                        if (!sameDefinition(fingerprints, key, actions.get(key), action, ElementFingerprint::of)) {
                             errors.add(String.format("Duplicate Action '%s' found in namespace '%s' with different definitions", action.getName(), namespace));
                             duplicateElements.computeIfAbsent("Action", k -> new HashSet<>()).add(action.getName());
                         } else {
@@ -255,6 +260,7 @@ public class AdvancedSchemaMerger {
                                List<String> errors, List<String> warnings,
                                Map<String, Set<String>> duplicateElements) {
         Map<String, CsdlFunction> functions = new HashMap<>();
+        Map<String, Long> fingerprints = new HashMap<>();
         String namespace = mergedSchema.getNamespace();
         
         for (CsdlSchema schema : schemas) {
@@ -262,7 +268,7 @@ public class AdvancedSchemaMerger {
                 for (CsdlFunction function : schema.getFunctions()) {
                     String key = getFunctionKey(function);
                     if (functions.containsKey(key)) {
-                        if (!areFunctionsEquivalent(functions.get(key), function)) {
+                        if (!sameDefinition(fingerprints, key, functions.get(key), function, ElementFingerprint::of)) {
                             errors.add(String.format("Duplicate Function '%s' found in namespace '%s' with different definitions", function.getName(), namespace));
                             duplicateElements.computeIfAbsent("Function", k -> new HashSet<>()).add(function.getName());
                         } else {
@@ -349,185 +355,13 @@ public class AdvancedSchemaMerger {
         logger.warn("References merging is not supported in current Olingo version");
     }
     
-    // 辅助方法用于检查元素等价性
-    private boolean areEntityTypesEquivalent(CsdlEntityType et1, CsdlEntityType et2) {
-        if (!Objects.equals(et1.getName(), et2.getName())) return false;
-        if (!Objects.equals(et1.getBaseType(), et2.getBaseType())) return false;
-        if (!Objects.equals(et1.isAbstract(), et2.isAbstract())) return false;
-        if (!Objects.equals(et1.isOpenType(), et2.isOpenType())) return false;
-        if (!Objects.equals(et1.hasStream(), et2.hasStream())) return false;
-        
-        // 比较属性
-        if (!arePropertiesEquivalent(et1.getProperties(), et2.getProperties())) return false;
-        
-        // 比较导航属性
-        if (!areNavigationPropertiesEquivalent(et1.getNavigationProperties(), et2.getNavigationProperties())) return false;
-        
-        // 比较键
-        if (!areKeysEquivalent(et1.getKey(), et2.getKey())) return false;
-        
-        return true;
-    }
-    
-    private boolean areComplexTypesEquivalent(CsdlComplexType ct1, CsdlComplexType ct2) {
-        if (!Objects.equals(ct1.getName(), ct2.getName())) return false;
-        if (!Objects.equals(ct1.getBaseType(), ct2.getBaseType())) return false;
-        if (!Objects.equals(ct1.isAbstract(), ct2.isAbstract())) return false;
-        if (!Objects.equals(ct1.isOpenType(), ct2.isOpenType())) return false;
-        
-        return arePropertiesEquivalent(ct1.getProperties(), ct2.getProperties());
-    }
-    
-    private boolean areEnumTypesEquivalent(CsdlEnumType et1, CsdlEnumType et2) {
-        if (!Objects.equals(et1.getName(), et2.getName())) return false;
-        if (!Objects.equals(et1.getUnderlyingType(), et2.getUnderlyingType())) return false;
-        if (!Objects.equals(et1.isFlags(), et2.isFlags())) return false;
-        
-        // 比较枚举成员
-        List<CsdlEnumMember> members1 = et1.getMembers();
-        List<CsdlEnumMember> members2 = et2.getMembers();
-        
-        if ((members1 == null) != (members2 == null)) return false;
-        if (members1 != null && members1.size() != members2.size()) return false;
-        
-        if (members1 != null) {
-            for (int i = 0; i < members1.size(); i++) {
-                CsdlEnumMember m1 = members1.get(i);
-                CsdlEnumMember m2 = members2.get(i);
-                if (!Objects.equals(m1.getName(), m2.getName()) ||
-                    !Objects.equals(m1.getValue(), m2.getValue())) {
-                    return false;
-                }
-            }
-        }
-        
-        return true;
-    }
-    
-    private boolean areActionsEquivalent(CsdlAction a1, CsdlAction a2) {
-        if (!Objects.equals(a1.getName(), a2.getName())) return false;
-        if (!Objects.equals(a1.isBound(), a2.isBound())) return false;
-        if (!Objects.equals(a1.getEntitySetPath(), a2.getEntitySetPath())) return false;
-        
-        // 比较参数
-        return areParametersEquivalent(a1.getParameters(), a2.getParameters());
-    }
-    
-    private boolean areFunctionsEquivalent(CsdlFunction f1, CsdlFunction f2) {
-        if (!Objects.equals(f1.getName(), f2.getName())) return false;
-        if (!Objects.equals(f1.isBound(), f2.isBound())) return false;
-        if (!Objects.equals(f1.isComposable(), f2.isComposable())) return false;
-        if (!Objects.equals(f1.getEntitySetPath(), f2.getEntitySetPath())) return false;
-        
-        // 比较参数
-        if (!areParametersEquivalent(f1.getParameters(), f2.getParameters())) return false;
-        
-        // 比较返回类型
-        return areReturnTypesEquivalent(f1.getReturnType(), f2.getReturnType());
-    }
-    
-    private boolean arePropertiesEquivalent(List<CsdlProperty> props1, List<CsdlProperty> props2) {
-        if ((props1 == null) != (props2 == null)) return false;
-        if (props1 != null && props1.size() != props2.size()) return false;
-        
-        if (props1 != null) {
-            Map<String, CsdlProperty> map1 = props1.stream().collect(Collectors.toMap(CsdlProperty::getName, p -> p));
-            Map<String, CsdlProperty> map2 = props2.stream().collect(Collectors.toMap(CsdlProperty::getName, p -> p));
-            
-            if (!map1.keySet().equals(map2.keySet())) return false;
-            
-            for (String name : map1.keySet()) {
-                CsdlProperty p1 = map1.get(name);
-                CsdlProperty p2 = map2.get(name);
-                if (!arePropertyDefinitionsEquivalent(p1, p2)) return false;
-            }
-        }
-        
-        return true;
-    }
-    
-    private boolean areNavigationPropertiesEquivalent(List<CsdlNavigationProperty> navProps1, List<CsdlNavigationProperty> navProps2) {
-        if ((navProps1 == null) != (navProps2 == null)) return false;
-        if (navProps1 != null && navProps1.size() != navProps2.size()) return false;
-        
-        if (navProps1 != null) {
-            Map<String, CsdlNavigationProperty> map1 = navProps1.stream().collect(Collectors.toMap(CsdlNavigationProperty::getName, p -> p));
-            Map<String, CsdlNavigationProperty> map2 = navProps2.stream().collect(Collectors.toMap(CsdlNavigationProperty::getName, p -> p));
-            
-            if (!map1.keySet().equals(map2.keySet())) return false;
-            
-            for (String name : map1.keySet()) {
-                CsdlNavigationProperty np1 = map1.get(name);
-                CsdlNavigationProperty np2 = map2.get(name);
-                if (!areNavigationPropertyDefinitionsEquivalent(np1, np2)) return false;
-            }
-        }
-        
-        return true;
-    }
-    
-    private boolean areKeysEquivalent(List<CsdlPropertyRef> keys1, List<CsdlPropertyRef> keys2) {
-        if ((keys1 == null) != (keys2 == null)) return false;
-        if (keys1 != null && keys1.size() != keys2.size()) return false;
-        
-        if (keys1 != null) {
-            for (int i = 0; i < keys1.size(); i++) {
-                if (!Objects.equals(keys1.get(i).getName(), keys2.get(i).getName())) {
-                    return false;
-                }
-            }
-        }
-        
-        return true;
-    }
-    
-    private boolean areParametersEquivalent(List<CsdlParameter> params1, List<CsdlParameter> params2) {
-        if ((params1 == null) != (params2 == null)) return false;
-        if (params1 != null && params1.size() != params2.size()) return false;
-        
-        if (params1 != null) {
-            for (int i = 0; i < params1.size(); i++) {
-                CsdlParameter p1 = params1.get(i);
-                CsdlParameter p2 = params2.get(i);
-                if (!Objects.equals(p1.getName(), p2.getName()) ||
-                    !Objects.equals(p1.getType(), p2.getType()) ||
-                    !Objects.equals(p1.isCollection(), p2.isCollection()) ||
-                    !Objects.equals(p1.isNullable(), p2.isNullable())) {
-                    return false;
-                }
-            }
-        }
-        
-        return true;
-    }
-    
-    private boolean areReturnTypesEquivalent(CsdlReturnType rt1, CsdlReturnType rt2) {
-        if ((rt1 == null) != (rt2 == null)) return false;
-        if (rt1 == null) return true;
-        
-        return Objects.equals(rt1.getType(), rt2.getType()) &&
-               Objects.equals(rt1.isCollection(), rt2.isCollection()) &&
-               Objects.equals(rt1.isNullable(), rt2.isNullable());
-    }
-    
-    private boolean arePropertyDefinitionsEquivalent(CsdlProperty p1, CsdlProperty p2) {
-        return Objects.equals(p1.getName(), p2.getName()) &&
-               Objects.equals(p1.getType(), p2.getType()) &&
-               Objects.equals(p1.isCollection(), p2.isCollection()) &&
-               Objects.equals(p1.isNullable(), p2.isNullable()) &&
-               Objects.equals(p1.getMaxLength(), p2.getMaxLength()) &&
-               Objects.equals(p1.getPrecision(), p2.getPrecision()) &&
-               Objects.equals(p1.getScale(), p2.getScale()) &&
-               Objects.equals(p1.isUnicode(), p2.isUnicode());
-    }
-    
-    private boolean areNavigationPropertyDefinitionsEquivalent(CsdlNavigationProperty np1, CsdlNavigationProperty np2) {
-        return Objects.equals(np1.getName(), np2.getName()) &&
-               Objects.equals(np1.getType(), np2.getType()) &&
-               Objects.equals(np1.isCollection(), np2.isCollection()) &&
-               Objects.equals(np1.isNullable(), np2.isNullable()) &&
-               Objects.equals(np1.getPartner(), np2.getPartner()) &&
-               Objects.equals(np1.isContainsTarget(), np2.isContainsTarget());
+    /**
+     * 比较同名元素的结构指纹，已有元素的指纹按key缓存，多次重复定义时只计算一次
+     */
+    private static <T> boolean sameDefinition(Map<String, Long> fingerprints, String key, T existing, T candidate,
+                                              ToLongFunction<T> fingerprint) {
+        long existingFingerprint = fingerprints.computeIfAbsent(key, k -> fingerprint.applyAsLong(existing));
+        return existingFingerprint == fingerprint.applyAsLong(candidate);
     }
     
     // 注意：由于CsdlSchema不支持References，此方法暂时保留为占位符
@@ -576,7 +410,7 @@ public class AdvancedSchemaMerger {
         if (container2.getEntitySets() != null) {
             for (CsdlEntitySet es : container2.getEntitySets()) {
                 if (entitySets.containsKey(es.getName())) {
-                    if (!areEntitySetsEquivalent(entitySets.get(es.getName()), es)) {
+                    if (ElementFingerprint.of(entitySets.get(es.getName())) != ElementFingerprint.of(es)) {
                         errors.add(String.format("Duplicate EntitySet '%s' with different definitions in namespace '%s'", es.getName(), namespace));
                     }
                 } else {
@@ -591,12 +425,6 @@ public class AdvancedSchemaMerger {
         return new MergeContainerResult(merged, errors, warnings);
     }
     
-    private boolean areEntitySetsEquivalent(CsdlEntitySet es1, CsdlEntitySet es2) {
-        return Objects.equals(es1.getName(), es2.getName()) &&
-               Objects.equals(es1.getType(), es2.getType()) &&
-               Objects.equals(es1.isIncludeInServiceDocument(), es2.isIncludeInServiceDocument());
-    }
-    
     private CsdlAnnotations mergeAnnotationsForTarget(CsdlAnnotations existing, CsdlAnnotations additional) {
         CsdlAnnotations merged = new CsdlAnnotations();
         merged.setTarget(existing.getTarget());
@@ -0,0 +1,206 @@
+package org.apache.olingo.schema.processor.merger;
+
+import java.util.List;
+
+import org.apache.olingo.commons.api.edm.provider.CsdlAction;
+import org.apache.olingo.commons.api.edm.provider.CsdlComplexType;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntitySet;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
+import org.apache.olingo.commons.api.edm.provider.CsdlEnumMember;
+import org.apache.olingo.commons.api.edm.provider.CsdlEnumType;
+import org.apache.olingo.commons.api.edm.provider.CsdlFunction;
+import org.apache.olingo.commons.api.edm.provider.CsdlNavigationProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlParameter;
+import org.apache.olingo.commons.api.edm.provider.CsdlProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlPropertyRef;
+import org.apache.olingo.commons.api.edm.provider.CsdlReturnType;
+
+/**
+ * CSDL元素的结构指纹
+ * 对参与等价性判断的字段计算64位规范哈希，指纹相同即视为定义相同。
+ * 属性和导航属性按名称无序组合，键、参数和枚举成员按顺序组合，与原有逐字段比较的语义一致。
+ * 字符串逐字符参与哈希，不依赖String.hashCode，也不拼接中间字符串。
+ */
+final class ElementFingerprint {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long NULL_MARKER = 0x9e3779b97f4a7c15L;
+
+    private long hash = FNV_OFFSET;
+
+    private ElementFingerprint() {
+    }
+
+    static long of(CsdlEntityType entityType) {
+        return new ElementFingerprint()
+            .add(entityType.getName())
+            .add(entityType.getBaseType())
+            .add(entityType.isAbstract())
+            .add(entityType.isOpenType())
+            .add(entityType.hasStream())
+            .addProperties(entityType.getProperties())
+            .addNavigationProperties(entityType.getNavigationProperties())
+            .addKeys(entityType.getKey())
+            .hash;
+    }
+
+    static long of(CsdlComplexType complexType) {
+        return new ElementFingerprint()
+            .add(complexType.getName())
+            .add(complexType.getBaseType())
+            .add(complexType.isAbstract())
+            .add(complexType.isOpenType())
+            .addProperties(complexType.getProperties())
+            .hash;
+    }
+
+    static long of(CsdlEnumType enumType) {
+        ElementFingerprint fingerprint = new ElementFingerprint()
+            .add(enumType.getName())
+            .add(enumType.getUnderlyingType())
+            .add(enumType.isFlags());
+        List<CsdlEnumMember> members = enumType.getMembers();
+        if (members == null) {
+            return fingerprint.add(NULL_MARKER).hash;
+        }
+        fingerprint.add(members.size());
+        for (CsdlEnumMember member : members) {
+            fingerprint.add(member.getName()).add(member.getValue());
+        }
+        return fingerprint.hash;
+    }
+
+    static long of(CsdlAction action) {
+        return new ElementFingerprint()
+            .add(action.getName())
+            .add(action.isBound())
+            .add(action.getEntitySetPath())
+            .addParameters(action.getParameters())
+            .hash;
+    }
+
+    static long of(CsdlFunction function) {
+        ElementFingerprint fingerprint = new ElementFingerprint()
+            .add(function.getName())
+            .add(function.isBound())
+            .add(function.isComposable())
+            .add(function.getEntitySetPath())
+            .addParameters(function.getParameters());
+        CsdlReturnType returnType = function.getReturnType();
+        if (returnType == null) {
+            return fingerprint.add(NULL_MARKER).hash;
+        }
+        return fingerprint
+            .add(returnType.getType())
+            .add(returnType.isCollection())
+            .add(returnType.isNullable())
+            .hash;
+    }
+
+    static long of(CsdlEntitySet entitySet) {
+        return new ElementFingerprint()
+            .add(entitySet.getName())
+            .add(entitySet.getType())
+            .add(entitySet.isIncludeInServiceDocument())
+            .hash;
+    }
+
+    // ==================== 组合 ====================
+
+    private ElementFingerprint addProperties(List<CsdlProperty> properties) {
+        if (properties == null) {
+            return add(NULL_MARKER);
+        }
+        long combined = 0;
+        for (CsdlProperty property : properties) {
+            combined += mix(new ElementFingerprint()
+                .add(property.getName())
+                .add(property.getType())
+                .add(property.isCollection())
+                .add(property.isNullable())
+                .add(property.getMaxLength())
+                .add(property.getPrecision())
+                .add(property.getScale())
+                .add(property.isUnicode())
+                .hash);
+        }
+        return add(properties.size()).add(combined);
+    }
+
+    private ElementFingerprint addNavigationProperties(List<CsdlNavigationProperty> navigationProperties) {
+        if (navigationProperties == null) {
+            return add(NULL_MARKER);
+        }
+        long combined = 0;
+        for (CsdlNavigationProperty navigationProperty : navigationProperties) {
+            combined += mix(new ElementFingerprint()
+                .add(navigationProperty.getName())
+                .add(navigationProperty.getType())
+                .add(navigationProperty.isCollection())
+                .add(navigationProperty.isNullable())
+                .add(navigationProperty.getPartner())
+                .add(navigationProperty.isContainsTarget())
+                .hash);
+        }
+        return add(navigationProperties.size()).add(combined);
+    }
+
+    private ElementFingerprint addKeys(List<CsdlPropertyRef> keys) {
+        if (keys == null) {
+            return add(NULL_MARKER);
+        }
+        add(keys.size());
+        for (CsdlPropertyRef key : keys) {
+            add(key.getName());
+        }
+        return this;
+    }
+
+    private ElementFingerprint addParameters(List<CsdlParameter> parameters) {
+        if (parameters == null) {
+            return add(NULL_MARKER);
+        }
+        add(parameters.size());
+        for (CsdlParameter parameter : parameters) {
+            add(parameter.getName())
+                .add(parameter.getType())
+                .add(parameter.isCollection())
+                .add(parameter.isNullable());
+        }
+        return this;
+    }
+
+    // ==================== 基本类型 ====================
+
+    private ElementFingerprint add(String value) {
+        if (value == null) {
+            return add(NULL_MARKER);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        // 长度作为分隔，避免相邻字段拼接后相同
+        return add(value.length());
+    }
+
+    private ElementFingerprint add(Integer value) {
+        return value == null ? add(NULL_MARKER) : add(value.longValue());
+    }
+
+    private ElementFingerprint add(Boolean value) {
+        return value == null ? add(NULL_MARKER) : add(value ? 1L : 2L);
+    }
+
+    private ElementFingerprint add(long value) {
+        hash = mix(hash ^ value) * FNV_PRIME;
+        return this;
+    }
+
+    private static long mix(long value) {
+        // SplitMix64终结函数
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
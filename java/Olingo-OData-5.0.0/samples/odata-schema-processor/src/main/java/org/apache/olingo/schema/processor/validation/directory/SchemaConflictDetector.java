@@ -1,12 +1,15 @@
 package org.apache.olingo.schema.processor.validation.directory;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.apache.olingo.commons.api.edm.provider.CsdlAction;
@@ -40,6 +43,9 @@ public class SchemaConflictDetector {
     
     private static final Logger logger = LoggerFactory.getLogger(SchemaConflictDetector.class);
     
+    // getValue() accessors by expression class, looked up once per class instead of once per annotation
+    private static final Map<Class<?>, Optional<Method>> VALUE_ACCESSORS = new ConcurrentHashMap<>();
+    
     // Maps namespace to files that define schemas for that namespace
     private final Map<String, Set<String>> namespaceToFiles = new HashMap<>();
     
@@ -200,13 +206,15 @@ public class SchemaConflictDetector {
     }
     
     /**
-     * Analyze all elements in a schema and track them
+     * Analyze all elements in a schema and track them together with their annotations,
+     * so each element (and its overload key) is visited once
      */
     private void analyzeSchemaElements(CsdlSchema schema, String fileName, String namespace) {
         // Entity Types
         if (schema.getEntityTypes() != null) {
             for (CsdlEntityType entityType : schema.getEntityTypes()) {
                 addElement(namespace, entityType.getName(), "EntityType", entityType, fileName);
+                analyzeElementAnnotations(entityType.getAnnotations(), namespace, entityType.getName(), fileName);
             }
         }
         
@@ -214,6 +222,7 @@ public class SchemaConflictDetector {
         if (schema.getComplexTypes() != null) {
             for (CsdlComplexType complexType : schema.getComplexTypes()) {
                 addElement(namespace, complexType.getName(), "ComplexType", complexType, fileName);
+                analyzeElementAnnotations(complexType.getAnnotations(), namespace, complexType.getName(), fileName);
             }
         }
         
@@ -221,6 +230,7 @@ public class SchemaConflictDetector {
         if (schema.getEnumTypes() != null) {
             for (CsdlEnumType enumType : schema.getEnumTypes()) {
                 addElement(namespace, enumType.getName(), "EnumType", enumType, fileName);
+                analyzeElementAnnotations(enumType.getAnnotations(), namespace, enumType.getName(), fileName);
             }
         }
         
@@ -235,11 +245,13 @@ public class SchemaConflictDetector {
         if (schema.getEntityContainer() != null) {
             CsdlEntityContainer container = schema.getEntityContainer();
             addElement(namespace, container.getName(), "EntityContainer", container, fileName);
+            analyzeElementAnnotations(container.getAnnotations(), namespace, container.getName(), fileName);
             
             // Entity Sets
             if (container.getEntitySets() != null) {
                 for (CsdlEntitySet entitySet : container.getEntitySets()) {
                     addElement(namespace, entitySet.getName(), "EntitySet", entitySet, fileName);
+                    analyzeElementAnnotations(entitySet.getAnnotations(), namespace, entitySet.getName(), fileName);
                 }
             }
             
@@ -247,6 +259,7 @@ public class SchemaConflictDetector {
             if (container.getSingletons() != null) {
                 for (CsdlSingleton singleton : container.getSingletons()) {
                     addElement(namespace, singleton.getName(), "Singleton", singleton, fileName);
+                    analyzeElementAnnotations(singleton.getAnnotations(), namespace, singleton.getName(), fileName);
                 }
             }
             
@@ -271,6 +284,7 @@ public class SchemaConflictDetector {
                 // Functions can be overloaded, so we need to include parameters in the key
                 String functionKey = createFunctionKey(function);
                 addElement(namespace, functionKey, "Function", function, fileName);
+                analyzeElementAnnotations(function.getAnnotations(), namespace, functionKey, fileName);
             }
         }
         
@@ -280,6 +294,7 @@ public class SchemaConflictDetector {
                 // Actions can be overloaded, so we need to include parameters in the key
                 String actionKey = createActionKey(action);
                 addElement(namespace, actionKey, "Action", action, fileName);
+                analyzeElementAnnotations(action.getAnnotations(), namespace, actionKey, fileName);
             }
         }
         
@@ -287,82 +302,11 @@ public class SchemaConflictDetector {
         if (schema.getTerms() != null) {
             for (CsdlTerm term : schema.getTerms()) {
                 addElement(namespace, term.getName(), "Term", term, fileName);
-            }
-        }
-
-        // Analyze annotations on schema elements
-        analyzeAnnotations(schema, fileName, namespace);
-    }
-    
-    /**
-     * Analyze annotations on all elements in a schema
-     */
-    private void analyzeAnnotations(CsdlSchema schema, String fileName, String namespace) {
-        // Entity Types
-        if (schema.getEntityTypes() != null) {
-            for (CsdlEntityType entityType : schema.getEntityTypes()) {
-                analyzeElementAnnotations(entityType.getAnnotations(), namespace, entityType.getName(), fileName);
-            }
-        }
-
-        // Complex Types
-        if (schema.getComplexTypes() != null) {
-            for (CsdlComplexType complexType : schema.getComplexTypes()) {
-                analyzeElementAnnotations(complexType.getAnnotations(), namespace, complexType.getName(), fileName);
-            }
-        }
-
-        // Enum Types
-        if (schema.getEnumTypes() != null) {
-            for (CsdlEnumType enumType : schema.getEnumTypes()) {
-                analyzeElementAnnotations(enumType.getAnnotations(), namespace, enumType.getName(), fileName);
-            }
-        }
-
-        // Entity Container
-        if (schema.getEntityContainer() != null) {
-            CsdlEntityContainer container = schema.getEntityContainer();
-            analyzeElementAnnotations(container.getAnnotations(), namespace, container.getName(), fileName);
-
-            // Entity Sets
-            if (container.getEntitySets() != null) {
-                for (CsdlEntitySet entitySet : container.getEntitySets()) {
-                    analyzeElementAnnotations(entitySet.getAnnotations(), namespace, entitySet.getName(), fileName);
-                }
-            }
-
-            // Singletons
-            if (container.getSingletons() != null) {
-                for (CsdlSingleton singleton : container.getSingletons()) {
-                    analyzeElementAnnotations(singleton.getAnnotations(), namespace, singleton.getName(), fileName);
-                }
-            }
-        }
-
-        // Functions
-        if (schema.getFunctions() != null) {
-            for (CsdlFunction function : schema.getFunctions()) {
-                String functionKey = createFunctionKey(function);
-                analyzeElementAnnotations(function.getAnnotations(), namespace, functionKey, fileName);
-            }
-        }
-
-        // Actions
-        if (schema.getActions() != null) {
-            for (CsdlAction action : schema.getActions()) {
-                String actionKey = createActionKey(action);
-                analyzeElementAnnotations(action.getAnnotations(), namespace, actionKey, fileName);
-            }
-        }
-
-        // Terms
-        if (schema.getTerms() != null) {
-            for (CsdlTerm term : schema.getTerms()) {
                 analyzeElementAnnotations(term.getAnnotations(), namespace, term.getName(), fileName);
             }
         }
     }
-
+    
     /**
      * Analyze annotations on a specific element
      */
@@ -391,14 +335,17 @@ public class SchemaConflictDetector {
         if (annotation.getExpression() != null) {
             Object expr = annotation.getExpression();
             // Try to call getValue() reflectively if available
-            try {
-                java.lang.reflect.Method getValueMethod = expr.getClass().getMethod("getValue");
-                Object value = getValueMethod.invoke(expr);
-                if (value != null) {
-                    return value.toString();
+            Method getValueMethod = VALUE_ACCESSORS.computeIfAbsent(expr.getClass(), SchemaConflictDetector::findValueAccessor)
+                                                   .orElse(null);
+            if (getValueMethod != null) {
+                try {
+                    Object value = getValueMethod.invoke(expr);
+                    if (value != null) {
+                        return value.toString();
+                    }
+                } catch (Exception e) {
+                    // Ignore, fallback to toString()
                 }
-            } catch (Exception e) {
-                // Ignore, fallback to toString()
             }
             // Fallback: use toString()
             return expr.toString();
@@ -408,6 +355,17 @@ public class SchemaConflictDetector {
         return annotation.getTerm();
     }
     
+    /**
+     * Look up the public getValue() accessor of an expression class, if any
+     */
+    private static Optional<Method> findValueAccessor(Class<?> expressionClass) {
+        try {
+            return Optional.of(expressionClass.getMethod("getValue"));
+        } catch (NoSuchMethodException e) {
+            return Optional.empty();
+        }
+    }
+    
     /**
      * Create a unique key for function including its parameters
      */
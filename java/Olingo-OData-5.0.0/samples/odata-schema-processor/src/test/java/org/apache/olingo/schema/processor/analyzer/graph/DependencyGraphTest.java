@@ -0,0 +1,162 @@
+package org.apache.olingo.schema.processor.analyzer.graph;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DependencyGraph test class
+ */
+public class DependencyGraphTest {
+
+    private DependencyGraph graph;
+
+    @BeforeEach
+    public void setUp() {
+        graph = new DependencyGraph();
+    }
+
+    @Test
+    public void testDuplicateEdgesAreIgnored() {
+        assertTrue(graph.addEdge("A", "B"));
+        assertFalse(graph.addEdge("A", "B"));
+
+        assertEquals(2, graph.nodeCount());
+        assertEquals(1, graph.edgeCount());
+        assertEquals(names("B"), graph.namesOf(graph.dependencies(graph.idOf("A"))));
+        assertEquals(names("A"), graph.namesOf(graph.dependents(graph.idOf("B"))));
+        assertEquals(-1, graph.idOf("X"));
+    }
+
+    @Test
+    public void testRemoveEdgeUpdatesQueries() {
+        graph.addEdge("A", "B");
+        graph.addEdge("B", "C");
+        graph.addEdge("C", "D");
+        assertEquals(names("B", "C", "D"), graph.namesOf(graph.transitiveDependencies(graph.idOf("A"))));
+
+        assertTrue(graph.removeEdge("B", "C"));
+        assertFalse(graph.removeEdge("B", "C"));
+        assertFalse(graph.removeEdge("A", "X"));
+
+        assertEquals(2, graph.edgeCount());
+        assertEquals(names("B"), graph.namesOf(graph.transitiveDependencies(graph.idOf("A"))));
+        assertEquals(names("C"), graph.namesOf(graph.transitiveDependents(graph.idOf("D"))));
+        assertTrue(graph.hasEdge(graph.idOf("C"), graph.idOf("D")));
+
+        graph.addEdge("B", "C");
+        assertEquals(names("B", "C", "D"), graph.namesOf(graph.transitiveDependencies(graph.idOf("A"))));
+    }
+
+    @Test
+    public void testStronglyConnectedComponents() {
+        graph.addEdge("A", "B");
+        graph.addEdge("B", "C");
+        graph.addEdge("C", "A");
+        graph.addEdge("C", "D");
+        graph.addEdge("E", "E");
+        graph.addEdge("F", "A");
+
+        int a = graph.idOf("A");
+        assertEquals(graph.componentOf(a), graph.componentOf(graph.idOf("B")));
+        assertEquals(graph.componentOf(a), graph.componentOf(graph.idOf("C")));
+        // 被依赖的分量编号更小
+        assertTrue(graph.componentOf(graph.idOf("D")) < graph.componentOf(a));
+        assertTrue(graph.componentOf(a) < graph.componentOf(graph.idOf("F")));
+        assertEquals(4, graph.componentCount());
+
+        assertTrue(graph.isInCycle(a));
+        assertTrue(graph.isInCycle(graph.idOf("E")));
+        assertFalse(graph.isInCycle(graph.idOf("D")));
+        assertFalse(graph.isInCycle(graph.idOf("F")));
+        assertTrue(graph.reachesCycle(graph.idOf("F")));
+        assertFalse(graph.reachesCycle(graph.idOf("D")));
+
+        List<int[]> cycles = graph.cycles();
+        assertEquals(2, cycles.size());
+        assertEquals(Arrays.asList("A", "B", "C", "A"), graph.pathOf(cycles.get(0)));
+        assertEquals(Arrays.asList("E", "E"), graph.pathOf(cycles.get(1)));
+    }
+
+    @Test
+    public void testLayers() {
+        graph.addEdge("Order", "Customer");
+        graph.addEdge("Order", "Product");
+        graph.addEdge("Product", "Category");
+        graph.addEdge("Customer", "Address");
+        graph.addEdge("Invoice", "Order");
+        graph.addEdge("Invoice", "Unknown");
+        graph.addEdge("X", "Y");
+        graph.addEdge("Y", "X");
+
+        BitSet members = new BitSet();
+        for (String name : Arrays.asList("Order", "Customer", "Product", "Category", "Address", "Invoice",
+                "X", "Y")) {
+            members.set(graph.idOf(name));
+        }
+
+        List<int[]> layers = graph.layers(members);
+        assertEquals(4, layers.size());
+        assertEquals(names("Category", "Address"), graph.namesOf(layers.get(0)));
+        assertEquals(names("Product", "Customer"), graph.namesOf(layers.get(1)));
+        assertEquals(names("Order"), graph.namesOf(layers.get(2)));
+        // 依赖不在members中的元素和环中的元素放在最后一层
+        assertEquals(names("Invoice", "X", "Y"), graph.namesOf(layers.get(3)));
+    }
+
+    @Test
+    public void testLongestDependencyChain() {
+        assertEquals(0, graph.longestDependencyChain());
+
+        graph.addEdge("A", "B");
+        graph.addEdge("B", "C");
+        graph.addEdge("C", "B");
+        graph.addEdge("C", "D");
+        graph.addEdge("A", "D");
+
+        // A -> {B, C} -> D，环B、C视为一个节点
+        assertEquals(2, graph.longestDependencyChain());
+    }
+
+    @Test
+    public void testTransitiveQueriesIncludeCycleMembers() {
+        graph.addEdge("A", "B");
+        graph.addEdge("B", "A");
+        graph.addEdge("C", "A");
+
+        assertEquals(names("A", "B"), graph.namesOf(graph.transitiveDependencies(graph.idOf("A"))));
+        assertEquals(names("A", "B", "C"), graph.namesOf(graph.transitiveDependents(graph.idOf("A"))));
+        assertTrue(graph.transitiveDependencies(graph.idOf("C")).get(graph.idOf("A")));
+        assertFalse(graph.transitiveDependencies(graph.idOf("C")).get(graph.idOf("C")));
+    }
+
+    @Test
+    public void testLargeChainDoesNotOverflowStack() {
+        int size = 200000;
+        for (int i = 0; i < size - 1; i++) {
+            graph.addEdge("N" + i, "N" + (i + 1));
+        }
+        graph.addEdge("N" + (size - 1), "N0");
+
+        assertEquals(1, graph.componentCount());
+        assertEquals(size, graph.transitiveDependencies(graph.idOf("N0")).cardinality());
+        assertEquals(1, graph.cycles().size());
+        assertEquals(size + 1, graph.cycles().get(0).length);
+
+        graph.removeEdge("N" + (size - 1), "N0");
+        assertEquals(size, graph.componentCount());
+        assertEquals(size - 1, graph.longestDependencyChain());
+        assertTrue(graph.cycles().isEmpty());
+
+        BitSet members = new BitSet();
+        members.set(0, size);
+        assertEquals(size, graph.layers(members).size());
+    }
+
+    private static Set<String> names(String... names) {
+        return new HashSet<>(Arrays.asList(names));
+    }
+}
@@ -34,6 +34,59 @@ public class DefaultDependencyAnalyzerTest {
         assertTrue(analyzer.getDirectDependencies("X").isEmpty());
     }
     
+    @Test
+    public void testRemoveDependency() {
+        analyzer.addDependency("A", "B");
+        analyzer.addDependency("B", "C");
+        analyzer.removeDependency("B", "C");
+        
+        assertEquals(Collections.singleton("B"), analyzer.getRecursiveDependencies("A"));
+        assertFalse(analyzer.getDependencyGraph().containsKey("B"));
+        assertFalse(analyzer.getReverseDependencyGraph().containsKey("C"));
+        assertEquals(2, analyzer.getDependencyStatistics().getTotalElements());
+    }
+    
+    @Test
+    public void testCircularDependencies() {
+        analyzer.addDependency("ns.A", "ns.B");
+        analyzer.addDependency("ns.B", "ns.A");
+        analyzer.addDependency("ns.C", "ns.A");
+        analyzer.addDependency("ns.D", "ns.E");
+        
+        List<DependencyAnalyzer.DependencyCycle> cycles = analyzer.detectCircularDependencies();
+        assertEquals(1, cycles.size());
+        assertEquals(Arrays.asList("ns.A", "ns.B", "ns.A"), cycles.get(0).getCycle());
+        assertTrue(analyzer.hasCircularDependency("ns.C"));
+        assertFalse(analyzer.hasCircularDependency("ns.D"));
+        assertFalse(analyzer.hasCircularDependency("ns.X"));
+    }
+    
+    @Test
+    public void testDependencyLayers() {
+        analyzer.addDependency("A", "B");
+        analyzer.addDependency("B", "C");
+        analyzer.addDependency("D", "C");
+        
+        List<Set<String>> layers = analyzer.getDependencyLayers();
+        assertEquals(3, layers.size());
+        assertEquals(Collections.singleton("C"), layers.get(0));
+        assertEquals(new HashSet<>(Arrays.asList("B", "D")), layers.get(1));
+        assertEquals(Collections.singleton("A"), layers.get(2));
+    }
+    
+    @Test
+    public void testImpactAnalysis() {
+        analyzer.addDependency("ns.Order", "ns.Customer");
+        analyzer.addDependency("ns.Invoice", "ns.Order");
+        analyzer.addDependency("other.Report", "ns.Invoice");
+        
+        DependencyAnalyzer.ImpactAnalysis impact = analyzer.analyzeImpact("ns.Customer");
+        assertEquals(Collections.singleton("ns.Order"), impact.getDirectlyAffected());
+        assertEquals(new HashSet<>(Arrays.asList("ns.Invoice", "other.Report")), impact.getIndirectlyAffected());
+        assertEquals(3, impact.getTotalAffected());
+        assertEquals(Integer.valueOf(2), impact.getAffectedByNamespace().get("ns"));
+    }
+    
     @Test
     public void testBasicFunctionality() {
         assertNotNull(analyzer);
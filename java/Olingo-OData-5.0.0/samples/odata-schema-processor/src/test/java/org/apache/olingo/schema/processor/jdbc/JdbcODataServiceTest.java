@@ -0,0 +1,195 @@
+package org.apache.olingo.schema.processor.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainer;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntitySet;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
+import org.apache.olingo.commons.api.edm.provider.CsdlProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlPropertyRef;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.schema.processor.generator.SqlDdlGenerator.DatabaseDialect;
+import org.apache.olingo.server.api.ODataHandler;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 在内存H2数据库上验证生成的表和JDBC实体处理器
+ */
+class JdbcODataServiceTest {
+
+    private static final String BASE_URI = "http://localhost/odata";
+
+    private JdbcDataSource dataSource;
+    private ODataHandler handler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+
+        JdbcODataService service = JdbcODataService.fromSchemas(
+            Collections.singletonList(schema()), dataSource, DatabaseDialect.H2);
+        service.createTables();
+        service.getProcessor().setMaxPageSize(2);
+        service.getProcessor().setFetchSize(1);
+        handler = service.createRawHandler();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(
+                 "INSERT INTO PRODUCT (ID, Name, Price, Released) VALUES (?, ?, ?, DATE '2020-01-01')")) {
+            String[] names = {"Apple", "Banana", "Cherry", "Date", "Elderberry"};
+            for (int i = 0; i < names.length; i++) {
+                insert.setInt(1, i + 1);
+                insert.setString(2, names[i]);
+                insert.setInt(3, (i + 1) * 10);
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    @Test
+    void testFilteredCollectionIsPaged() throws Exception {
+        JsonNode body = get("/Products", "$filter=Price%20gt%2015&$orderby=Price%20desc&$count=true");
+
+        assertEquals(4, body.get("@odata.count").asInt());
+        assertEquals(2, body.get("value").size());
+        assertEquals("Elderberry", body.get("value").get(0).get("Name").asText());
+        assertEquals("Date", body.get("value").get(1).get("Name").asText());
+        String nextLink = body.get("@odata.nextLink").asText();
+        assertTrue(nextLink.startsWith(BASE_URI + "/Products?"));
+        assertTrue(nextLink.endsWith("$skip=2"));
+
+        JsonNode next = get("/Products", nextLink.substring(nextLink.indexOf('?') + 1));
+        assertEquals(2, next.get("value").size());
+        assertEquals("Banana", next.get("value").get(1).get("Name").asText());
+        assertFalse(next.has("@odata.nextLink"));
+    }
+
+    @Test
+    void testTopIsCarriedIntoNextLink() throws Exception {
+        JsonNode body = get("/Products", "$top=3&$select=Name");
+
+        assertEquals(2, body.get("value").size());
+        assertFalse(body.get("value").get(0).has("Price"));
+        assertTrue(body.get("@odata.nextLink").asText().endsWith("$skip=2&$top=1"));
+
+        JsonNode last = get("/Products", "$skip=2&$top=1");
+        assertEquals(1, last.get("value").size());
+        assertFalse(last.has("@odata.nextLink"));
+    }
+
+    @Test
+    void testEntityByKey() throws Exception {
+        JsonNode body = get("/Products(3)", null);
+
+        assertEquals("Cherry", body.get("Name").asText());
+        assertEquals("2020-01-01", body.get("Released").asText());
+        assertEquals(404, process("/Products(42)", null).getStatusCode());
+    }
+
+    @Test
+    void testNotEqualIncludesNullValues() throws Exception {
+        insertEmptyProduct(6);
+
+        JsonNode body = get("/Products", "$filter=Name%20ne%20'Apple'&$count=true");
+
+        assertEquals(5, body.get("@odata.count").asInt());
+    }
+
+    @Test
+    void testNegatedEqualIncludesNullValues() throws Exception {
+        insertEmptyProduct(6);
+
+        // null eq 'Apple'在OData中为false，取反后空值行必须保留
+        assertEquals(5, get("/Products", "$filter=not%20(Name%20eq%20'Apple')&$count=true")
+            .get("@odata.count").asInt());
+        assertEquals(5, get("/Products", "$filter=not%20(Price%20eq%2010%20and%20Name%20eq%20'Apple')&$count=true")
+            .get("@odata.count").asInt());
+    }
+
+    @Test
+    void testNegatedComparisonWithNullSelectsNothing() throws Exception {
+        insertEmptyProduct(6);
+
+        // Price gt null为null，取反后仍为null，不应选中任何行
+        assertEquals(0, get("/Products", "$filter=not%20(Price%20gt%20null)&$count=true")
+            .get("@odata.count").asInt());
+        assertEquals(0, get("/Products", "$filter=Price%20gt%20null%20or%20false&$count=true")
+            .get("@odata.count").asInt());
+    }
+
+    @Test
+    void testUnsupportedQueryReturnsNotImplemented() throws Exception {
+        assertEquals(501, process("/Products", "$filter=round(Price)%20eq%2010").getStatusCode());
+    }
+
+    private void insertEmptyProduct(int id) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO PRODUCT (ID) VALUES (?)")) {
+            insert.setInt(1, id);
+            insert.executeUpdate();
+        }
+    }
+
+    private JsonNode get(String path, String query) throws Exception {
+        ODataResponse response = process(path, query);
+        assertEquals(200, response.getStatusCode());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (response.getODataContent() != null) {
+            response.getODataContent().write(out);
+        } else {
+            byte[] buffer = new byte[4096];
+            for (int n; (n = response.getContent().read(buffer)) > 0; ) {
+                out.write(buffer, 0, n);
+            }
+        }
+        return new ObjectMapper().readTree(out.toByteArray());
+    }
+
+    private ODataResponse process(String path, String query) {
+        ODataRequest request = new ODataRequest();
+        request.setMethod(HttpMethod.GET);
+        request.setRawBaseUri(BASE_URI);
+        request.setRawODataPath(path);
+        request.setRawQueryPath(query);
+        request.setRawRequestUri(BASE_URI + path + (query == null ? "" : "?" + query));
+        request.setRawServiceResolutionUri("");
+        request.addHeader(HttpHeader.ACCEPT, Collections.singletonList("application/json;odata.metadata=minimal"));
+        return handler.process(request);
+    }
+
+    private static CsdlSchema schema() {
+        CsdlEntityType product = new CsdlEntityType().setName("Product")
+            .setKey(Collections.singletonList(new CsdlPropertyRef().setName("ID")))
+            .setProperties(Arrays.asList(
+                new CsdlProperty().setName("ID").setType("Edm.Int32").setNullable(false),
+                new CsdlProperty().setName("Name").setType("Edm.String").setMaxLength(50),
+                new CsdlProperty().setName("Price").setType("Edm.Decimal").setPrecision(10),
+                new CsdlProperty().setName("Released").setType("Edm.Date")));
+
+        CsdlSchema schema = new CsdlSchema();
+        schema.setNamespace("Test");
+        schema.setEntityTypes(new ArrayList<>(Collections.singletonList(product)));
+        schema.setEntityContainer(new CsdlEntityContainer().setName("Container")
+            .setEntitySets(Collections.singletonList(new CsdlEntitySet().setName("Products").setType("Test.Product"))));
+        return schema;
+    }
+}
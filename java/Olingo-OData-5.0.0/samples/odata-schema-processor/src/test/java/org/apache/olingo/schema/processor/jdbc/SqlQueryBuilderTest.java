@@ -0,0 +1,163 @@
+package org.apache.olingo.schema.processor.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainer;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntitySet;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
+import org.apache.olingo.commons.api.edm.provider.CsdlProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlPropertyRef;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.schema.processor.generator.SqlDdlGenerator;
+import org.apache.olingo.schema.processor.generator.SqlDdlGenerator.DatabaseDialect;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.core.SchemaBasedEdmProvider;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+class SqlQueryBuilderTest {
+
+    private final List<CsdlSchema> schemas = Collections.singletonList(schema());
+    private final JdbcSchemaMapping mapping = JdbcSchemaMapping.fromSchemas(schemas);
+
+    @Test
+    void testFilterOrderByAndPagingArePushedDown() throws Exception {
+        SqlQuery query = builder(DatabaseDialect.H2).buildSelect(
+            parse("Books", "$filter=Price gt 10 and contains(Title,'50%25')&$orderby=Title desc"), 20, 11);
+
+        assertEquals("SELECT ID, Title, Price, Released, Author FROM BOOK"
+            + " WHERE ((Price > ?) AND (Title LIKE ? ESCAPE '!'))"
+            + " ORDER BY Title DESC, ID ASC LIMIT ? OFFSET ?", query.getSql());
+        assertEquals(10, ((Number) query.getParameters().get(0)).intValue());
+        assertEquals(Arrays.<Object>asList("%50!%%", 11, 20), query.getParameters().subList(1, 4));
+    }
+
+    @Test
+    void testParametersFollowDialectArgumentOrder() throws Exception {
+        // SQL Server的CHARINDEX先写查找串，参数顺序要随之调整
+        SqlQuery query = builder(DatabaseDialect.SQL_SERVER).buildSelect(
+            parse("Books", "$filter=indexof(Title,'x') eq 2 and Author eq 'y'"), 0, 5);
+
+        assertEquals("SELECT ID, Title, Price, Released, Author FROM BOOK"
+            + " WHERE (((CHARINDEX(?, Title) - 1) = ? AND (CHARINDEX(?, Title) - 1) IS NOT NULL)"
+            + " AND (Author = ? AND Author IS NOT NULL))"
+            + " ORDER BY ID ASC OFFSET ? ROWS FETCH NEXT ? ROWS ONLY", query.getSql());
+        assertEquals("x", query.getParameters().get(0));
+        assertEquals(2, ((Number) query.getParameters().get(1)).intValue());
+        assertEquals(Arrays.<Object>asList("x", "y", 0, 5), query.getParameters().subList(2, 6));
+    }
+
+    @Test
+    void testNullComparisonAndSelect() throws Exception {
+        SqlQuery query = builder(DatabaseDialect.POSTGRESQL).buildSelect(
+            parse("Books", "$filter=Released ne null&$select=Title"), 0, 10);
+
+        assertEquals("SELECT ID, Title FROM BOOK WHERE (Released IS NOT NULL) ORDER BY ID ASC LIMIT ? OFFSET ?",
+            query.getSql());
+    }
+
+    @Test
+    void testNotEqualKeepsNullRows() throws Exception {
+        // null ne 'x'在OData中为true，可空列需要补充IS NULL，键列不需要
+        SqlQuery query = builder(DatabaseDialect.H2).buildCount(
+            parse("Books", "$filter=Author ne 'x' and ID ne 3 and Title ne Author"));
+
+        assertEquals("SELECT COUNT(*) FROM BOOK WHERE (((Author <> ? OR Author IS NULL) AND (ID <> ?))"
+            + " AND (NOT ((Title = Author AND Title IS NOT NULL AND Author IS NOT NULL)"
+            + " OR (Title IS NULL AND Author IS NULL))))", query.getSql());
+        assertEquals("x", query.getParameters().get(0));
+        assertEquals(3, ((Number) query.getParameters().get(1)).intValue());
+    }
+
+    @Test
+    void testCountAndKeyQueries() throws Exception {
+        SqlQuery count = builder(DatabaseDialect.H2).buildCount(parse("Books", "$filter=year(Released) eq 2020"));
+        assertEquals("SELECT COUNT(*) FROM BOOK"
+            + " WHERE (EXTRACT(YEAR FROM Released) = ? AND EXTRACT(YEAR FROM Released) IS NOT NULL)", count.getSql());
+
+        UriInfo uriInfo = parse("Books(7)", null);
+        UriResourceEntitySet resource = (UriResourceEntitySet) uriInfo.getUriResourceParts().get(0);
+        SqlQuery byKey = builder(DatabaseDialect.H2).buildSelectByKey(resource.getKeyPredicates(), null);
+        assertEquals("SELECT ID, Title, Price, Released, Author FROM BOOK WHERE ID = ?", byKey.getSql());
+        assertEquals(Collections.<Object>singletonList(7), byKey.getParameters());
+    }
+
+    @Test
+    void testUnsupportedExpressionIsRejected() throws Exception {
+        UriInfo uriInfo = parse("Books", "$filter=round(Price) eq 1");
+
+        ODataApplicationException e = assertThrows(ODataApplicationException.class,
+            () -> builder(DatabaseDialect.H2).buildSelect(uriInfo, 0, 10));
+        assertEquals(501, e.getStatusCode());
+    }
+
+    @Test
+    void testMappingFollowsGeneratedTables() {
+        JdbcEntitySetMapping books = mapping.getEntitySet("Books");
+        assertEquals("BOOK", books.getTableName());
+        assertEquals(Collections.singletonList("ID"), books.getKeyProperties());
+        // Tags是集合属性，存为JSON列，不参与查询
+        assertEquals(null, books.getColumn("Tags"));
+
+        List<String> statements = JdbcODataService.splitStatements(
+            new SqlDdlGenerator(null, DatabaseDialect.H2).generateDdl(schemas));
+        String createBook = statements.stream().filter(s -> s.startsWith("CREATE TABLE BOOK")).findFirst().get();
+        for (JdbcEntitySetMapping.Column column : books.getColumns()) {
+            assertTrue(createBook.contains(column.getColumnName() + " "));
+        }
+        // 列注释不能吞掉列之间的逗号
+        assertFalse(createBook.contains("--"));
+    }
+
+    private SqlQueryBuilder builder(DatabaseDialect dialect) {
+        return new SqlQueryBuilder(mapping.getEntitySet("Books"), dialect);
+    }
+
+    private UriInfo parse(String path, String query) throws Exception {
+        TestEdmProvider provider = new TestEdmProvider(schemas);
+        OData odata = OData.newInstance();
+        return new Parser(odata.createServiceMetadata(provider, Collections.<EdmxReference>emptyList()).getEdm(), odata)
+            .parseUri(path, query, null, "http://localhost/odata");
+    }
+
+    private static CsdlSchema schema() {
+        CsdlEntityType item = new CsdlEntityType().setName("Item")
+            .setKey(Collections.singletonList(new CsdlPropertyRef().setName("ID")))
+            .setProperties(Arrays.asList(
+                new CsdlProperty().setName("ID").setType("Edm.Int32").setNullable(false),
+                new CsdlProperty().setName("Title").setType("Edm.String").setMaxLength(100),
+                new CsdlProperty().setName("Price").setType("Edm.Decimal").setPrecision(10).setScale(2),
+                new CsdlProperty().setName("Released").setType("Edm.Date")));
+        CsdlEntityType book = new CsdlEntityType().setName("Book").setBaseType("Test.Item")
+            .setProperties(Arrays.asList(
+                new CsdlProperty().setName("Author").setType("Edm.String"),
+                new CsdlProperty().setName("Tags").setType("Collection(Edm.String)")));
+
+        CsdlSchema schema = new CsdlSchema();
+        schema.setNamespace("Test");
+        schema.setEntityTypes(new ArrayList<>(Arrays.asList(item, book)));
+        schema.setEntityContainer(new CsdlEntityContainer().setName("Container")
+            .setEntitySets(Collections.singletonList(new CsdlEntitySet().setName("Books").setType("Test.Book"))));
+        return schema;
+    }
+
+    private static class TestEdmProvider extends SchemaBasedEdmProvider {
+        TestEdmProvider(List<CsdlSchema> schemas) {
+            for (CsdlSchema schema : schemas) {
+                addSchema(schema);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.apache.olingo.schema.processor.merger;
+
+import org.apache.olingo.commons.api.edm.provider.CsdlComplexType;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
+import org.apache.olingo.commons.api.edm.provider.CsdlEnumMember;
+import org.apache.olingo.commons.api.edm.provider.CsdlEnumType;
+import org.apache.olingo.commons.api.edm.provider.CsdlProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlPropertyRef;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AdvancedSchemaMerger test class
+ */
+public class AdvancedSchemaMergerTest {
+
+    private AdvancedSchemaMerger merger;
+
+    @BeforeEach
+    public void setUp() {
+        merger = new AdvancedSchemaMerger();
+    }
+
+    @Test
+    public void testIdenticalDuplicatesAreMergedWithWarning() {
+        Map<String, List<CsdlSchema>> schemasByFile = new LinkedHashMap<>();
+        schemasByFile.put("a.xml", Collections.singletonList(schema("Test", product(property("ID", "Edm.Int32"), property("Name", "Edm.String")))));
+        // Same properties in a different order are still the same definition
+        schemasByFile.put("b.xml", Collections.singletonList(schema("Test", product(property("Name", "Edm.String"), property("ID", "Edm.Int32")))));
+
+        AdvancedSchemaMerger.MergeResult result = merger.mergeSchemas(schemasByFile);
+
+        assertTrue(result.isSuccess());
+        assertEquals(1, result.getMergedSchemas().get("Test").getEntityTypes().size());
+        assertEquals(1, result.getWarnings().size());
+        assertTrue(result.getWarnings().get(0).contains("Duplicate but identical EntityType 'Product'"));
+    }
+
+    @Test
+    public void testDifferentDefinitionsAreReportedAsConflict() {
+        Map<String, List<CsdlSchema>> schemasByFile = new LinkedHashMap<>();
+        schemasByFile.put("a.xml", Collections.singletonList(schema("Test", product(property("ID", "Edm.Int32")))));
+        schemasByFile.put("b.xml", Collections.singletonList(schema("Test", product(property("ID", "Edm.Int64")))));
+        CsdlProperty withMaxLength = property("ID", "Edm.Int32").setMaxLength(10);
+        schemasByFile.put("c.xml", Collections.singletonList(schema("Test", product(withMaxLength))));
+
+        AdvancedSchemaMerger.MergeResult result = merger.mergeSchemas(schemasByFile);
+
+        assertFalse(result.isSuccess());
+        assertEquals(2, result.getErrors().size());
+        assertEquals(Collections.singleton("Product"), result.getDuplicateElements().get("EntityType"));
+    }
+
+    @Test
+    public void testFingerprintCoversNestedDefinitions() {
+        CsdlEnumType first = new CsdlEnumType().setName("Color").setMembers(Arrays.asList(
+            new CsdlEnumMember().setName("Red").setValue("0"), new CsdlEnumMember().setName("Green").setValue("1")));
+        CsdlEnumType reordered = new CsdlEnumType().setName("Color").setMembers(Arrays.asList(
+            new CsdlEnumMember().setName("Green").setValue("1"), new CsdlEnumMember().setName("Red").setValue("0")));
+        assertNotEquals(ElementFingerprint.of(first), ElementFingerprint.of(reordered));
+
+        CsdlComplexType address = new CsdlComplexType().setName("Address")
+            .setProperties(Arrays.asList(property("Street", "Edm.String"), property("City", "Edm.String")));
+        CsdlComplexType swapped = new CsdlComplexType().setName("Address")
+            .setProperties(Arrays.asList(property("Street", "Edm.String"), property("City", "Edm.Int32")));
+        assertNotEquals(ElementFingerprint.of(address), ElementFingerprint.of(swapped));
+
+        // Field boundaries are part of the hash
+        assertNotEquals(ElementFingerprint.of(new CsdlComplexType().setName("AB").setBaseType("NS.C")),
+                        ElementFingerprint.of(new CsdlComplexType().setName("A").setBaseType("BNS.C")));
+    }
+
+    @Test
+    public void testManyNamespacesMergeIndependently() {
+        Map<String, List<CsdlSchema>> schemasByFile = new LinkedHashMap<>();
+        for (int file = 0; file < 20; file++) {
+            List<CsdlSchema> schemas = new ArrayList<>();
+            for (int ns = 0; ns < 50; ns++) {
+                CsdlEntityType type = new CsdlEntityType().setName("Type" + file)
+                    .setKey(Collections.singletonList(new CsdlPropertyRef().setName("ID")))
+                    .setProperties(Collections.singletonList(property("ID", "Edm.Int32")));
+                schemas.add(schema("NS" + ns, type, product(property("ID", "Edm.Int32"))));
+            }
+            schemasByFile.put("file" + file + ".xml", schemas);
+        }
+
+        AdvancedSchemaMerger.MergeResult result = merger.mergeSchemas(schemasByFile);
+
+        assertTrue(result.isSuccess());
+        assertEquals(50, result.getMergedSchemas().size());
+        for (CsdlSchema merged : result.getMergedSchemas().values()) {
+            assertEquals(21, merged.getEntityTypes().size());
+        }
+        assertEquals(50 * 19, result.getWarnings().stream().filter(w -> w.contains("identical EntityType")).count());
+    }
+
+    private static CsdlSchema schema(String namespace, CsdlEntityType... entityTypes) {
+        CsdlSchema schema = new CsdlSchema();
+        schema.setNamespace(namespace);
+        schema.setEntityTypes(new ArrayList<>(Arrays.asList(entityTypes)));
+        return schema;
+    }
+
+    private static CsdlEntityType product(CsdlProperty... properties) {
+        return new CsdlEntityType().setName("Product")
+            .setKey(Collections.singletonList(new CsdlPropertyRef().setName("ID")))
+            .setProperties(new ArrayList<>(Arrays.asList(properties)));
+    }
+
+    private static CsdlProperty property(String name, String type) {
+        return new CsdlProperty().setName(name).setType(type);
+    }
+}
@@ -368,9 +368,7 @@ public class ODataSchemaRepository implements AutoCloseable {
     private void analyzeLoadedSchema() {
         // 获取最新的Schema并分析其依赖关系
         Map<String, CsdlSchema> allSchemas = context.getAllSchemas();
-        for (CsdlSchema schema : allSchemas.values()) {
-            dependencyAnalyzer.analyzeSchema(schema);
-        }
+        dependencyAnalyzer.analyzeSchemas(allSchemas.values());
     }
     
     /**
@@ -378,9 +376,7 @@ public class ODataSchemaRepository implements AutoCloseable {
      */
     private void analyzeAllSchemas() {
         Map<String, CsdlSchema> allSchemas = context.getAllSchemas();
-        for (CsdlSchema schema : allSchemas.values()) {
-            dependencyAnalyzer.analyzeSchema(schema);
-        }
+        dependencyAnalyzer.analyzeSchemas(allSchemas.values());
         
         LOG.info("Analyzed dependencies for {} schemas", allSchemas.size());
     }
@@ -1,8 +1,11 @@
 package org.apache.olingo.schema.repository.loader;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
@@ -40,10 +43,24 @@ public class SchemaDependencyAnalyzer {
         this.context = context;
     }
     
+    /**
+     * 分析一组Schema的依赖关系，以完整的依赖图替换已发布的依赖节点
+     * 依赖图在私有的Map中构建，所有节点和边建立完成后一次性发布，发布后的节点不再修改
+     */
+    public void analyzeSchemas(Collection<CsdlSchema> schemas) {
+        Map<FullQualifiedName, SchemaDependencyNode> nodes = new HashMap<>();
+        if (schemas != null) {
+            for (CsdlSchema schema : schemas) {
+                analyzeSchema(nodes, schema);
+            }
+        }
+        context.setDependencyNodes(nodes);
+    }
+    
     /**
      * 分析Schema的所有依赖关系
      */
-    public void analyzeSchema(CsdlSchema schema) {
+    private void analyzeSchema(Map<FullQualifiedName, SchemaDependencyNode> nodes, CsdlSchema schema) {
         if (schema == null || schema.getNamespace() == null) {
             return;
         }
@@ -53,34 +70,34 @@ public class SchemaDependencyAnalyzer {
         // 分析EntityTypes
         if (schema.getEntityTypes() != null) {
             for (CsdlEntityType entityType : schema.getEntityTypes()) {
-                analyzeEntityType(schema.getNamespace(), entityType);
+                analyzeEntityType(nodes, schema.getNamespace(), entityType);
             }
         }
         
         // 分析ComplexTypes
         if (schema.getComplexTypes() != null) {
             for (CsdlComplexType complexType : schema.getComplexTypes()) {
-                analyzeComplexType(schema.getNamespace(), complexType);
+                analyzeComplexType(nodes, schema.getNamespace(), complexType);
             }
         }
         
         // 分析Actions
         if (schema.getActions() != null) {
             for (CsdlAction action : schema.getActions()) {
-                analyzeAction(schema.getNamespace(), action);
+                analyzeAction(nodes, schema.getNamespace(), action);
             }
         }
         
         // 分析Functions
         if (schema.getFunctions() != null) {
             for (CsdlFunction function : schema.getFunctions()) {
-                analyzeFunction(schema.getNamespace(), function);
+                analyzeFunction(nodes, schema.getNamespace(), function);
             }
         }
         
         // 分析EntityContainer
         if (schema.getEntityContainer() != null) {
-            analyzeEntityContainer(schema.getNamespace(), schema.getEntityContainer());
+            analyzeEntityContainer(nodes, schema.getNamespace(), schema.getEntityContainer());
         }
         
         LOG.debug("Completed dependency analysis for schema: {}", schema.getNamespace());
@@ -89,17 +106,18 @@ public class SchemaDependencyAnalyzer {
     /**
      * 分析EntityType依赖关系
      */
-    private void analyzeEntityType(String namespace, CsdlEntityType entityType) {
+    private void analyzeEntityType(Map<FullQualifiedName, SchemaDependencyNode> nodes,
+                                   String namespace, CsdlEntityType entityType) {
         FullQualifiedName entityTypeFqn = new FullQualifiedName(namespace, entityType.getName());
         
-        SchemaDependencyNode entityTypeNode = getOrCreateDependencyNode(
+        SchemaDependencyNode entityTypeNode = getOrCreateDependencyNode(nodes,
             entityTypeFqn, SchemaDependencyNode.DependencyType.ENTITY_TYPE);
         
         // 分析基类型依赖
         if (entityType.getBaseType() != null) {
             FullQualifiedName baseTypeFqn = parseFullQualifiedName(entityType.getBaseType());
             if (baseTypeFqn != null) {
-                SchemaDependencyNode baseTypeNode = getOrCreateDependencyNode(
+                SchemaDependencyNode baseTypeNode = getOrCreateDependencyNode(nodes,
                     baseTypeFqn, SchemaDependencyNode.DependencyType.BASE_TYPE);
                 entityTypeNode.addDependency(baseTypeNode);
             }
@@ -108,14 +126,14 @@ public class SchemaDependencyAnalyzer {
         // 分析Properties依赖
         if (entityType.getProperties() != null) {
             for (CsdlProperty property : entityType.getProperties()) {
-                analyzePropertyDependencies(entityTypeNode, property);
+                analyzePropertyDependencies(nodes, entityTypeNode, property);
             }
         }
         
         // 分析NavigationProperties依赖
         if (entityType.getNavigationProperties() != null) {
             for (CsdlNavigationProperty navProp : entityType.getNavigationProperties()) {
-                analyzeNavigationPropertyDependencies(entityTypeNode, navProp);
+                analyzeNavigationPropertyDependencies(nodes, entityTypeNode, navProp);
             }
         }
     }
@@ -123,17 +141,18 @@ public class SchemaDependencyAnalyzer {
     /**
      * 分析ComplexType依赖关系
      */
-    private void analyzeComplexType(String namespace, CsdlComplexType complexType) {
+    private void analyzeComplexType(Map<FullQualifiedName, SchemaDependencyNode> nodes,
+                                    String namespace, CsdlComplexType complexType) {
         FullQualifiedName complexTypeFqn = new FullQualifiedName(namespace, complexType.getName());
         
-        SchemaDependencyNode complexTypeNode = getOrCreateDependencyNode(
+        SchemaDependencyNode complexTypeNode = getOrCreateDependencyNode(nodes,
             complexTypeFqn, SchemaDependencyNode.DependencyType.COMPLEX_TYPE);
         
         // 分析基类型依赖
         if (complexType.getBaseType() != null) {
             FullQualifiedName baseTypeFqn = parseFullQualifiedName(complexType.getBaseType());
             if (baseTypeFqn != null) {
-                SchemaDependencyNode baseTypeNode = getOrCreateDependencyNode(
+                SchemaDependencyNode baseTypeNode = getOrCreateDependencyNode(nodes,
                     baseTypeFqn, SchemaDependencyNode.DependencyType.BASE_TYPE);
                 complexTypeNode.addDependency(baseTypeNode);
             }
@@ -142,14 +161,14 @@ public class SchemaDependencyAnalyzer {
         // 分析Properties依赖
         if (complexType.getProperties() != null) {
             for (CsdlProperty property : complexType.getProperties()) {
-                analyzePropertyDependencies(complexTypeNode, property);
+                analyzePropertyDependencies(nodes, complexTypeNode, property);
             }
         }
         
         // 分析NavigationProperties依赖
         if (complexType.getNavigationProperties() != null) {
             for (CsdlNavigationProperty navProp : complexType.getNavigationProperties()) {
-                analyzeNavigationPropertyDependencies(complexTypeNode, navProp);
+                analyzeNavigationPropertyDependencies(nodes, complexTypeNode, navProp);
             }
         }
     }
@@ -157,76 +176,79 @@ public class SchemaDependencyAnalyzer {
     /**
      * 分析Action依赖关系
      */
-    private void analyzeAction(String namespace, CsdlAction action) {
+    private void analyzeAction(Map<FullQualifiedName, SchemaDependencyNode> nodes,
+                               String namespace, CsdlAction action) {
         FullQualifiedName actionFqn = new FullQualifiedName(namespace, action.getName());
         
-        SchemaDependencyNode actionNode = getOrCreateDependencyNode(
+        SchemaDependencyNode actionNode = getOrCreateDependencyNode(nodes,
             actionFqn, SchemaDependencyNode.DependencyType.ACTION);
         
         // 分析参数依赖
         if (action.getParameters() != null) {
             for (CsdlParameter parameter : action.getParameters()) {
-                analyzeParameterDependencies(actionNode, parameter);
+                analyzeParameterDependencies(nodes, actionNode, parameter);
             }
         }
         
         // 分析返回类型依赖
         if (action.getReturnType() != null) {
-            analyzeReturnTypeDependencies(actionNode, action.getReturnType());
+            analyzeReturnTypeDependencies(nodes, actionNode, action.getReturnType());
         }
     }
     
     /**
      * 分析Function依赖关系
      */
-    private void analyzeFunction(String namespace, CsdlFunction function) {
+    private void analyzeFunction(Map<FullQualifiedName, SchemaDependencyNode> nodes,
+                                 String namespace, CsdlFunction function) {
         FullQualifiedName functionFqn = new FullQualifiedName(namespace, function.getName());
         
-        SchemaDependencyNode functionNode = getOrCreateDependencyNode(
+        SchemaDependencyNode functionNode = getOrCreateDependencyNode(nodes,
             functionFqn, SchemaDependencyNode.DependencyType.FUNCTION);
         
         // 分析参数依赖
         if (function.getParameters() != null) {
             for (CsdlParameter parameter : function.getParameters()) {
-                analyzeParameterDependencies(functionNode, parameter);
+                analyzeParameterDependencies(nodes, functionNode, parameter);
             }
         }
         
         // 分析返回类型依赖
         if (function.getReturnType() != null) {
-            analyzeReturnTypeDependencies(functionNode, function.getReturnType());
+            analyzeReturnTypeDependencies(nodes, functionNode, function.getReturnType());
         }
     }
     
     /**
      * 分析EntityContainer依赖关系
      */
-    private void analyzeEntityContainer(String namespace, CsdlEntityContainer container) {
+    private void analyzeEntityContainer(Map<FullQualifiedName, SchemaDependencyNode> nodes,
+                                        String namespace, CsdlEntityContainer container) {
         // 分析EntitySets
         if (container.getEntitySets() != null) {
             for (CsdlEntitySet entitySet : container.getEntitySets()) {
-                analyzeEntitySet(namespace, entitySet);
+                analyzeEntitySet(nodes, namespace, entitySet);
             }
         }
         
         // 分析Singletons
         if (container.getSingletons() != null) {
             for (CsdlSingleton singleton : container.getSingletons()) {
-                analyzeSingleton(namespace, singleton);
+                analyzeSingleton(nodes, namespace, singleton);
             }
         }
         
         // 分析ActionImports
         if (container.getActionImports() != null) {
             for (CsdlActionImport actionImport : container.getActionImports()) {
-                analyzeActionImport(namespace, actionImport);
+                analyzeActionImport(nodes, namespace, actionImport);
             }
         }
         
         // 分析FunctionImports
         if (container.getFunctionImports() != null) {
             for (CsdlFunctionImport functionImport : container.getFunctionImports()) {
-                analyzeFunctionImport(namespace, functionImport);
+                analyzeFunctionImport(nodes, namespace, functionImport);
             }
         }
     }
@@ -234,17 +256,18 @@ public class SchemaDependencyAnalyzer {
     /**
      * 分析EntitySet依赖关系
      */
-    private void analyzeEntitySet(String namespace, CsdlEntitySet entitySet) {
+    private void analyzeEntitySet(Map<FullQualifiedName, SchemaDependencyNode> nodes,
+                                  String namespace, CsdlEntitySet entitySet) {
         FullQualifiedName entitySetFqn = new FullQualifiedName(namespace, entitySet.getName());
         
-        SchemaDependencyNode entitySetNode = getOrCreateDependencyNode(
+        SchemaDependencyNode entitySetNode = getOrCreateDependencyNode(nodes,
             entitySetFqn, SchemaDependencyNode.DependencyType.ENTITY_SET);
         
         // 分析EntityType依赖
         if (entitySet.getType() != null) {
             FullQualifiedName entityTypeFqn = parseFullQualifiedName(entitySet.getType());
             if (entityTypeFqn != null) {
-                SchemaDependencyNode entityTypeNode = getOrCreateDependencyNode(
+                SchemaDependencyNode entityTypeNode = getOrCreateDependencyNode(nodes,
                     entityTypeFqn, SchemaDependencyNode.DependencyType.ENTITY_TYPE);
                 entitySetNode.addDependency(entityTypeNode);
             }
@@ -253,7 +276,7 @@ public class SchemaDependencyAnalyzer {
         // 分析NavigationPropertyBindings依赖
         if (entitySet.getNavigationPropertyBindings() != null) {
             for (CsdlNavigationPropertyBinding binding : entitySet.getNavigationPropertyBindings()) {
-                analyzeNavigationPropertyBinding(entitySetNode, binding);
+                analyzeNavigationPropertyBinding(nodes, entitySetNode, binding);
             }
         }
     }
@@ -261,17 +284,18 @@ public class SchemaDependencyAnalyzer {
     /**
      * 分析Singleton依赖关系
      */
-    private void analyzeSingleton(String namespace, CsdlSingleton singleton) {
+    private void analyzeSingleton(Map<FullQualifiedName, SchemaDependencyNode> nodes,
+                                  String namespace, CsdlSingleton singleton) {
         FullQualifiedName singletonFqn = new FullQualifiedName(namespace, singleton.getName());
         
-        SchemaDependencyNode singletonNode = getOrCreateDependencyNode(
+        SchemaDependencyNode singletonNode = getOrCreateDependencyNode(nodes,
             singletonFqn, SchemaDependencyNode.DependencyType.SINGLETON);
         
         // 分析EntityType依赖
         if (singleton.getType() != null) {
             FullQualifiedName entityTypeFqn = parseFullQualifiedName(singleton.getType());
             if (entityTypeFqn != null) {
-                SchemaDependencyNode entityTypeNode = getOrCreateDependencyNode(
+                SchemaDependencyNode entityTypeNode = getOrCreateDependencyNode(nodes,
                     entityTypeFqn, SchemaDependencyNode.DependencyType.ENTITY_TYPE);
                 singletonNode.addDependency(entityTypeNode);
             }
@@ -280,7 +304,7 @@ public class SchemaDependencyAnalyzer {
         // 分析NavigationPropertyBindings依赖
         if (singleton.getNavigationPropertyBindings() != null) {
             for (CsdlNavigationPropertyBinding binding : singleton.getNavigationPropertyBindings()) {
-                analyzeNavigationPropertyBinding(singletonNode, binding);
+                analyzeNavigationPropertyBinding(nodes, singletonNode, binding);
             }
         }
     }
@@ -288,11 +312,12 @@ public class SchemaDependencyAnalyzer {
     /**
      * 分析Property依赖关系
      */
-    private void analyzePropertyDependencies(SchemaDependencyNode parentNode, CsdlProperty property) {
+    private void analyzePropertyDependencies(Map<FullQualifiedName, SchemaDependencyNode> nodes,
+                                             SchemaDependencyNode parentNode, CsdlProperty property) {
         if (property.getType() != null) {
             FullQualifiedName typeFqn = parseFullQualifiedName(property.getType());
             if (typeFqn != null && !isPrimitiveType(property.getType())) {
-                SchemaDependencyNode typeNode = getOrCreateDependencyNode(
+                SchemaDependencyNode typeNode = getOrCreateDependencyNode(nodes,
                     typeFqn, SchemaDependencyNode.DependencyType.TYPE_REFERENCE);
                 typeNode.setPropertyName(property.getName());
                 parentNode.addDependency(typeNode);
@@ -303,12 +328,13 @@ public class SchemaDependencyAnalyzer {
     /**
      * 分析NavigationProperty依赖关系
      */
-    private void analyzeNavigationPropertyDependencies(SchemaDependencyNode parentNode, 
-                                                      CsdlNavigationProperty navProp) {
+    private void analyzeNavigationPropertyDependencies(Map<FullQualifiedName, SchemaDependencyNode> nodes,
+                                                       SchemaDependencyNode parentNode,
+                                                       CsdlNavigationProperty navProp) {
         if (navProp.getType() != null) {
             FullQualifiedName typeFqn = parseFullQualifiedName(navProp.getType());
             if (typeFqn != null) {
-                SchemaDependencyNode typeNode = getOrCreateDependencyNode(
+                SchemaDependencyNode typeNode = getOrCreateDependencyNode(nodes,
                     typeFqn, SchemaDependencyNode.DependencyType.NAVIGATION_PROPERTY);
                 typeNode.setPropertyName(navProp.getName());
                 parentNode.addDependency(typeNode);
@@ -319,11 +345,12 @@ public class SchemaDependencyAnalyzer {
     /**
      * 分析Parameter依赖关系
      */
-    private void analyzeParameterDependencies(SchemaDependencyNode parentNode, CsdlParameter parameter) {
+    private void analyzeParameterDependencies(Map<FullQualifiedName, SchemaDependencyNode> nodes,
+                                              SchemaDependencyNode parentNode, CsdlParameter parameter) {
         if (parameter.getType() != null) {
             FullQualifiedName typeFqn = parseFullQualifiedName(parameter.getType());
             if (typeFqn != null && !isPrimitiveType(parameter.getType())) {
-                SchemaDependencyNode typeNode = getOrCreateDependencyNode(
+                SchemaDependencyNode typeNode = getOrCreateDependencyNode(nodes,
                     typeFqn, SchemaDependencyNode.DependencyType.PARAMETER_TYPE);
                 typeNode.setPropertyName(parameter.getName());
                 parentNode.addDependency(typeNode);
@@ -334,11 +361,12 @@ public class SchemaDependencyAnalyzer {
     /**
      * 分析ReturnType依赖关系
      */
-    private void analyzeReturnTypeDependencies(SchemaDependencyNode parentNode, CsdlReturnType returnType) {
+    private void analyzeReturnTypeDependencies(Map<FullQualifiedName, SchemaDependencyNode> nodes,
+                                               SchemaDependencyNode parentNode, CsdlReturnType returnType) {
         if (returnType.getType() != null) {
             FullQualifiedName typeFqn = parseFullQualifiedName(returnType.getType());
             if (typeFqn != null && !isPrimitiveType(returnType.getType())) {
-                SchemaDependencyNode typeNode = getOrCreateDependencyNode(
+                SchemaDependencyNode typeNode = getOrCreateDependencyNode(nodes,
                     typeFqn, SchemaDependencyNode.DependencyType.RETURN_TYPE);
                 parentNode.addDependency(typeNode);
             }
@@ -348,17 +376,18 @@ public class SchemaDependencyAnalyzer {
     /**
      * 分析ActionImport依赖关系
      */
-    private void analyzeActionImport(String namespace, CsdlActionImport actionImport) {
+    private void analyzeActionImport(Map<FullQualifiedName, SchemaDependencyNode> nodes,
+                                     String namespace, CsdlActionImport actionImport) {
         FullQualifiedName actionImportFqn = new FullQualifiedName(namespace, actionImport.getName());
         
-        SchemaDependencyNode actionImportNode = getOrCreateDependencyNode(
+        SchemaDependencyNode actionImportNode = getOrCreateDependencyNode(nodes,
             actionImportFqn, SchemaDependencyNode.DependencyType.ACTION_IMPORT);
         
         // 分析Action依赖
         if (actionImport.getAction() != null) {
             FullQualifiedName actionFqn = parseFullQualifiedName(actionImport.getAction());
             if (actionFqn != null) {
-                SchemaDependencyNode actionNode = getOrCreateDependencyNode(
+                SchemaDependencyNode actionNode = getOrCreateDependencyNode(nodes,
                     actionFqn, SchemaDependencyNode.DependencyType.ACTION_REFERENCE);
                 actionImportNode.addDependency(actionNode);
             }
@@ -368,17 +397,18 @@ public class SchemaDependencyAnalyzer {
     /**
      * 分析FunctionImport依赖关系
      */
-    private void analyzeFunctionImport(String namespace, CsdlFunctionImport functionImport) {
+    private void analyzeFunctionImport(Map<FullQualifiedName, SchemaDependencyNode> nodes,
+                                       String namespace, CsdlFunctionImport functionImport) {
         FullQualifiedName functionImportFqn = new FullQualifiedName(namespace, functionImport.getName());
         
-        SchemaDependencyNode functionImportNode = getOrCreateDependencyNode(
+        SchemaDependencyNode functionImportNode = getOrCreateDependencyNode(nodes,
             functionImportFqn, SchemaDependencyNode.DependencyType.FUNCTION_IMPORT);
         
         // 分析Function依赖
         if (functionImport.getFunction() != null) {
             FullQualifiedName functionFqn = parseFullQualifiedName(functionImport.getFunction());
             if (functionFqn != null) {
-                SchemaDependencyNode functionNode = getOrCreateDependencyNode(
+                SchemaDependencyNode functionNode = getOrCreateDependencyNode(nodes,
                     functionFqn, SchemaDependencyNode.DependencyType.FUNCTION_REFERENCE);
                 functionImportNode.addDependency(functionNode);
             }
@@ -388,8 +418,9 @@ public class SchemaDependencyAnalyzer {
     /**
      * 分析NavigationPropertyBinding依赖关系
      */
-    private void analyzeNavigationPropertyBinding(SchemaDependencyNode parentNode, 
-                                                 CsdlNavigationPropertyBinding binding) {
+    private void analyzeNavigationPropertyBinding(Map<FullQualifiedName, SchemaDependencyNode> nodes,
+                                                  SchemaDependencyNode parentNode,
+                                                  CsdlNavigationPropertyBinding binding) {
         if (binding.getTarget() != null) {
             // NavigationPropertyBinding中的target通常是EntitySet或Singleton的名称
             String target = binding.getTarget();
@@ -398,7 +429,7 @@ public class SchemaDependencyAnalyzer {
             FullQualifiedName targetFqn = new FullQualifiedName(
                 parentNode.getFullyQualifiedName().getNamespace(), target);
             
-            SchemaDependencyNode targetNode = getOrCreateDependencyNode(
+            SchemaDependencyNode targetNode = getOrCreateDependencyNode(nodes,
                 targetFqn, SchemaDependencyNode.DependencyType.NAVIGATION_TARGET);
             parentNode.addDependency(targetNode);
         }
@@ -407,16 +438,15 @@ public class SchemaDependencyAnalyzer {
     /**
      * 获取或创建依赖节点
      */
-    private SchemaDependencyNode getOrCreateDependencyNode(FullQualifiedName fqn, 
-                                                          SchemaDependencyNode.DependencyType type) {
-        SchemaDependencyNode existingNode = context.getDependencyNode(fqn);
-        if (existingNode != null) {
-            return existingNode;
-        }
-        
-        SchemaDependencyNode newNode = new SchemaDependencyNode(fqn, type);
-        context.addDependencyNode(newNode);
-        return newNode;
+    private SchemaDependencyNode getOrCreateDependencyNode(Map<FullQualifiedName, SchemaDependencyNode> nodes,
+                                                           FullQualifiedName fqn,
+                                                           SchemaDependencyNode.DependencyType type) {
+        SchemaDependencyNode node = nodes.get(fqn);
+        if (node == null) {
+            node = new SchemaDependencyNode(fqn, type);
+            nodes.put(fqn, node);
+        }
+        return node;
     }
     
     /**
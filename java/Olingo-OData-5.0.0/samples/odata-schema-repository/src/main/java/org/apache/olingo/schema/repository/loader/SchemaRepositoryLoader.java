@@ -1,16 +1,42 @@
 package org.apache.olingo.schema.repository.loader;
 
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.olingo.client.api.ODataClient;
 import org.apache.olingo.client.api.edm.xml.XMLMetadata;
@@ -18,22 +44,43 @@ import org.apache.olingo.client.core.ODataClientFactory;
 import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.schema.repository.model.SchemaRepositoryContext;
+import org.apache.olingo.schema.repository.model.SchemaRepositorySnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Schema Repository的加载器
  * 支持从多种数据源加载Schema
+ * 
+ * 从文件加载的Schema会记录文件的修改时间、大小和内容哈希，重新加载时只解析发生变化的文件，
+ * 新内容在旁边构建完成后以新快照原子地发布到{@link SchemaRepositoryContext}。
+ * 调用{@link #startWatching(Path, boolean)}后，目录中的变化会通过WatchService增量推送。
  */
 public class SchemaRepositoryLoader {
     
     private static final Logger LOG = LoggerFactory.getLogger(SchemaRepositoryLoader.class);
     
+    // 合并短时间内连续到达的文件事件，避免编辑器保存时多次重载
+    private static final long WATCH_DEBOUNCE_MILLIS = 100;
+    
     private final SchemaRepositoryContext context;
     private final ExecutorService executorService;
     private final SchemaValidator validator;
     private final ODataClient oDataClient;
     
+    // 已加载文件的状态，key为规范化的绝对路径
+    private final Map<Path, TrackedFile> trackedFiles = new ConcurrentHashMap<>();
+    
+    // 串行化文件加载与重载，保证trackedFiles与发布的快照一致
+    private final Object reloadLock = new Object();
+    
+    private final List<ReloadListener> reloadListeners = new CopyOnWriteArrayList<>();
+    
+    // 并行加载的等待上限，0表示不限制
+    private volatile long loadTimeoutMillis = 0;
+    
+    private volatile DirectoryWatcher watcher;
+    
     /**
      * 构造函数
      */
@@ -56,6 +103,32 @@ public class SchemaRepositoryLoader {
         this.oDataClient = ODataClientFactory.getClient();
     }
     
+    /**
+     * 设置并行加载的等待上限，0表示一直等待所有文件加载完成
+     */
+    public void setLoadTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Timeout cannot be negative: " + timeout);
+        }
+        this.loadTimeoutMillis = unit.toMillis(timeout);
+    }
+    
+    /**
+     * 注册重载监听器，每次发布新快照后回调
+     */
+    public void addReloadListener(ReloadListener listener) {
+        if (listener != null) {
+            reloadListeners.add(listener);
+        }
+    }
+    
+    /**
+     * 移除重载监听器
+     */
+    public void removeReloadListener(ReloadListener listener) {
+        reloadListeners.remove(listener);
+    }
+    
     /**
      * 从XML文件加载Schema
      */
@@ -64,11 +137,7 @@ public class SchemaRepositoryLoader {
             throw new SchemaLoadException("Invalid file: " + file);
         }
         
-        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
-            loadFromInputStream(inputStream, file.getName());
-        } catch (IOException e) {
-            throw new SchemaLoadException("Failed to read file: " + file.getAbsolutePath(), e);
-        }
+        loadFromPath(file.toPath());
     }
     
     /**
@@ -86,10 +155,15 @@ public class SchemaRepositoryLoader {
             throw new SchemaLoadException("Invalid path: " + path);
         }
         
-        try (InputStream inputStream = Files.newInputStream(path)) {
-            loadFromInputStream(inputStream, path.getFileName().toString());
-        } catch (IOException e) {
-            throw new SchemaLoadException("Failed to read path: " + path.toString(), e);
+        Path key = normalize(path);
+        synchronized (reloadLock) {
+            TrackedFile previous = trackedFiles.get(key);
+            TrackedFile file = readFile(key, previous);
+            // 文件内容变化时，先移除它上一次提供的namespace
+            List<String> removedNamespaces = previous != null && isChanged(file, previous)
+                ? previous.namespaces() : null;
+            publish(context.applyChanges(removedNamespaces, withReplaceWarnings(file.schemas)), 1, 0, 0);
+            trackedFiles.put(key, file);
         }
     }
     
@@ -101,6 +175,14 @@ public class SchemaRepositoryLoader {
             throw new SchemaLoadException("InputStream cannot be null");
         }
         
+        List<CsdlSchema> schemas = parseSchemas(inputStream, sourceName);
+        context.addSchemas(withReplaceWarnings(schemas));
+    }
+    
+    /**
+     * 解析并验证InputStream中的所有Schema，不修改context
+     */
+    private List<CsdlSchema> parseSchemas(InputStream inputStream, String sourceName) throws SchemaLoadException {
         try {
             LOG.info("Loading schema from: {}", sourceName != null ? sourceName : "InputStream");
             
@@ -114,12 +196,13 @@ public class SchemaRepositoryLoader {
                 throw new SchemaLoadException("No schemas found in: " + sourceName);
             }
             
-            // 验证和加载每个Schema
+            // 验证每个Schema
             for (CsdlSchema schema : schemas) {
-                loadSchema(schema, sourceName);
+                validateSchema(schema, sourceName);
             }
             
             LOG.info("Successfully loaded {} schemas from: {}", schemas.size(), sourceName);
+            return schemas;
             
         } catch (Exception e) {
             throw new SchemaLoadException("Failed to parse schema from: " + sourceName, e);
@@ -130,6 +213,20 @@ public class SchemaRepositoryLoader {
      * 加载单个Schema
      */
     public void loadSchema(CsdlSchema schema, String sourceName) throws SchemaLoadException {
+        validateSchema(schema, sourceName);
+        
+        // 检查是否已存在相同namespace的Schema
+        if (context.containsSchema(schema.getNamespace())) {
+            LOG.warn("Schema with namespace '{}' already exists, it will be replaced", schema.getNamespace());
+        }
+        
+        // 添加到context
+        context.addSchema(schema);
+        
+        LOG.debug("Loaded schema: {} from: {}", schema.getNamespace(), sourceName);
+    }
+    
+    private void validateSchema(CsdlSchema schema, String sourceName) throws SchemaLoadException {
         if (schema == null) {
             throw new SchemaLoadException("Schema cannot be null");
         }
@@ -139,22 +236,19 @@ public class SchemaRepositoryLoader {
         }
         
         try {
-            // 验证Schema
             validator.validate(schema);
-            
-            // 检查是否已存在相同namespace的Schema
+        } catch (SchemaValidationException e) {
+            throw new SchemaLoadException("Schema validation failed for: " + sourceName, e);
+        }
+    }
+    
+    private List<CsdlSchema> withReplaceWarnings(List<CsdlSchema> schemas) {
+        for (CsdlSchema schema : schemas) {
             if (context.containsSchema(schema.getNamespace())) {
                 LOG.warn("Schema with namespace '{}' already exists, it will be replaced", schema.getNamespace());
             }
-            
-            // 添加到context
-            context.addSchema(schema);
-            
-            LOG.debug("Loaded schema: {} from: {}", schema.getNamespace(), sourceName);
-            
-        } catch (SchemaValidationException e) {
-            throw new SchemaLoadException("Schema validation failed for: " + sourceName, e);
         }
+        return schemas;
     }
     
     /**
@@ -165,15 +259,7 @@ public class SchemaRepositoryLoader {
             throw new SchemaLoadException("Invalid directory: " + directory);
         }
         
-        List<Path> xmlFiles = new ArrayList<>();
-        try {
-            Files.walk(directory, recursive ? Integer.MAX_VALUE : 1)
-                .filter(Files::isRegularFile)
-                .filter(path -> path.toString().toLowerCase().endsWith(".xml"))
-                .forEach(xmlFiles::add);
-        } catch (IOException e) {
-            throw new SchemaLoadException("Failed to scan directory: " + directory, e);
-        }
+        List<Path> xmlFiles = scanXmlFiles(directory, recursive);
         
         if (xmlFiles.isEmpty()) {
             LOG.warn("No XML files found in directory: {}", directory);
@@ -186,41 +272,242 @@ public class SchemaRepositoryLoader {
         loadFilesInParallel(xmlFiles);
     }
     
+    private List<Path> scanXmlFiles(Path directory, boolean recursive) throws SchemaLoadException {
+        List<Path> xmlFiles = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(directory, recursive ? Integer.MAX_VALUE : 1)) {
+            paths.filter(Files::isRegularFile)
+                .filter(SchemaRepositoryLoader::isXmlFile)
+                .forEach(xmlFiles::add);
+        } catch (IOException e) {
+            throw new SchemaLoadException("Failed to scan directory: " + directory, e);
+        }
+        return xmlFiles;
+    }
+    
     /**
      * 并行加载多个文件
+     * 成功解析的Schema在同一个新快照中发布，之后再抛出失败文件的异常
      */
     public void loadFilesInParallel(List<Path> files) throws SchemaLoadException {
         if (files == null || files.isEmpty()) {
             return;
         }
         
-        List<CompletableFuture<Void>> futures = new ArrayList<>();
         List<SchemaLoadException> exceptions = new ArrayList<>();
+        synchronized (reloadLock) {
+            Map<Path, TrackedFile> loaded = readFilesInParallel(files, exceptions);
+            
+            List<CsdlSchema> schemas = new ArrayList<>();
+            for (TrackedFile file : loaded.values()) {
+                schemas.addAll(file.schemas);
+            }
+            
+            if (!loaded.isEmpty()) {
+                publish(context.applyChanges(null, withReplaceWarnings(schemas)), loaded.size(), 0, 0);
+                trackedFiles.putAll(loaded);
+            }
+        }
+        
+        throwCollected(exceptions);
+    }
+    
+    /**
+     * 重新加载所有Schema
+     * 新快照只包含给定文件中的Schema；未变化的文件复用上次的解析结果。
+     * 任一文件加载失败时不发布新快照，context保持重载前的内容
+     */
+    public void reloadAll(List<Path> files) throws SchemaLoadException {
+        List<Path> fileList = files != null ? files : new ArrayList<Path>();
+        
+        synchronized (reloadLock) {
+            List<SchemaLoadException> exceptions = new ArrayList<>();
+            Map<Path, TrackedFile> loaded = readFilesInParallel(fileList, exceptions);
+            throwCollected(exceptions);
+            
+            List<CsdlSchema> schemas = new ArrayList<>();
+            int reloaded = 0;
+            for (Map.Entry<Path, TrackedFile> entry : loaded.entrySet()) {
+                schemas.addAll(entry.getValue().schemas);
+                if (isChanged(entry.getValue(), trackedFiles.get(entry.getKey()))) {
+                    reloaded++;
+                }
+            }
+            
+            int removed = 0;
+            for (Path path : trackedFiles.keySet()) {
+                if (!loaded.containsKey(path)) {
+                    removed++;
+                }
+            }
+            
+            SchemaRepositorySnapshot snapshot = context.replaceAll(schemas);
+            trackedFiles.clear();
+            trackedFiles.putAll(loaded);
+            
+            LOG.info("Reloaded {} files ({} parsed, {} unchanged), published version {}",
+                loaded.size(), reloaded, loaded.size() - reloaded, snapshot.getVersion());
+            publish(snapshot, reloaded, loaded.size() - reloaded, removed);
+        }
+    }
+    
+    /**
+     * 增量重载：检查所有已加载的文件，只重新解析修改时间或内容发生变化的文件，
+     * 并移除已删除文件提供的Schema。解析失败的文件保留上一次的Schema
+     */
+    public ReloadResult reloadChanged() throws SchemaLoadException {
+        return refresh(new ArrayList<>(trackedFiles.keySet()));
+    }
+    
+    /**
+     * 按给定路径增量刷新：新文件被加载，变化的文件被重新解析，不存在的已加载文件被移除
+     */
+    private ReloadResult refresh(Collection<Path> paths) throws SchemaLoadException {
+        List<SchemaLoadException> exceptions = new ArrayList<>();
+        ReloadResult result;
+        
+        synchronized (reloadLock) {
+            List<Path> existing = new ArrayList<>();
+            List<Path> removed = new ArrayList<>();
+            for (Path path : paths) {
+                Path key = normalize(path);
+                if (Files.isRegularFile(key)) {
+                    existing.add(key);
+                } else if (trackedFiles.containsKey(key)) {
+                    removed.add(key);
+                }
+            }
+            
+            Map<Path, TrackedFile> loaded = readFilesInParallel(existing, exceptions);
+            
+            Set<String> removedNamespaces = new LinkedHashSet<>();
+            List<CsdlSchema> addedSchemas = new ArrayList<>();
+            Map<Path, TrackedFile> changed = new HashMap<>();
+            for (Map.Entry<Path, TrackedFile> entry : loaded.entrySet()) {
+                TrackedFile previous = trackedFiles.get(entry.getKey());
+                if (isChanged(entry.getValue(), previous)) {
+                    if (previous != null) {
+                        removedNamespaces.addAll(previous.namespaces());
+                    }
+                    addedSchemas.addAll(entry.getValue().schemas);
+                    changed.put(entry.getKey(), entry.getValue());
+                } else {
+                    // 只有修改时间变化而内容未变，更新记录的文件属性
+                    trackedFiles.put(entry.getKey(), entry.getValue());
+                }
+            }
+            for (Path path : removed) {
+                removedNamespaces.addAll(trackedFiles.get(path).namespaces());
+            }
+            
+            int unchanged = loaded.size() - changed.size();
+            if (changed.isEmpty() && removed.isEmpty()) {
+                result = new ReloadResult(0, unchanged, 0, context.getVersion());
+            } else {
+                SchemaRepositorySnapshot snapshot = context.applyChanges(removedNamespaces, addedSchemas);
+                trackedFiles.putAll(changed);
+                for (Path path : removed) {
+                    trackedFiles.remove(path);
+                }
+                
+                LOG.info("Incremental reload: {} changed, {} removed, {} unchanged, published version {}",
+                    changed.size(), removed.size(), unchanged, snapshot.getVersion());
+                result = publish(snapshot, changed.size(), unchanged, removed.size());
+            }
+        }
+        
+        throwCollected(exceptions);
+        return result;
+    }
+    
+    /**
+     * 并行读取文件，未变化的文件直接复用已记录的解析结果
+     * 返回成功读取的文件（按输入顺序），失败的文件异常收集到exceptions
+     */
+    private Map<Path, TrackedFile> readFilesInParallel(List<Path> files,
+                                                       List<SchemaLoadException> exceptions) throws SchemaLoadException {
+        Map<Path, CompletableFuture<TrackedFile>> futures = new LinkedHashMap<>();
         
         for (Path file : files) {
-            CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
+            Path key = normalize(file);
+            TrackedFile previous = trackedFiles.get(key);
+            futures.put(key, CompletableFuture.supplyAsync(() -> {
                 try {
-                    loadFromPath(file);
+                    return readFile(key, previous);
                 } catch (SchemaLoadException e) {
                     synchronized (exceptions) {
                         exceptions.add(e);
                     }
+                    return null;
                 }
-            }, executorService);
-            
-            futures.add(future);
+            }, executorService));
         }
         
         // 等待所有任务完成
         CompletableFuture<Void> allFutures = CompletableFuture.allOf(
-            futures.toArray(new CompletableFuture[0]));
+            futures.values().toArray(new CompletableFuture[0]));
         
         try {
-            allFutures.get(30, TimeUnit.SECONDS); // 30秒超时
-        } catch (Exception e) {
+            if (loadTimeoutMillis > 0) {
+                allFutures.get(loadTimeoutMillis, TimeUnit.MILLISECONDS);
+            } else {
+                allFutures.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SchemaLoadException("Interrupted while loading files in parallel", e);
+        } catch (TimeoutException e) {
+            for (CompletableFuture<TrackedFile> future : futures.values()) {
+                future.cancel(true);
+            }
+            throw new SchemaLoadException("Timed out after " + loadTimeoutMillis + " ms loading files in parallel", e);
+        } catch (ExecutionException e) {
             throw new SchemaLoadException("Failed to load files in parallel", e);
         }
         
+        Map<Path, TrackedFile> loaded = new LinkedHashMap<>();
+        for (Map.Entry<Path, CompletableFuture<TrackedFile>> entry : futures.entrySet()) {
+            TrackedFile file = entry.getValue().join();
+            if (file != null) {
+                loaded.put(entry.getKey(), file);
+            }
+        }
+        return loaded;
+    }
+    
+    /**
+     * 读取单个文件
+     * 修改时间和大小都未变化时不读取内容；内容哈希未变化时不重新解析
+     */
+    private TrackedFile readFile(Path path, TrackedFile previous) throws SchemaLoadException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            long size = attributes.size();
+            if (previous != null && previous.lastModified == lastModified && previous.size == size) {
+                return previous;
+            }
+            
+            byte[] content = Files.readAllBytes(path);
+            String hash = sha256(content);
+            if (previous != null && previous.hash.equals(hash)) {
+                return new TrackedFile(lastModified, size, hash, previous.schemas);
+            }
+            
+            List<CsdlSchema> schemas = parseSchemas(new ByteArrayInputStream(content), path.getFileName().toString());
+            return new TrackedFile(lastModified, size, hash, schemas);
+        } catch (IOException e) {
+            throw new SchemaLoadException("Failed to read path: " + path.toString(), e);
+        }
+    }
+    
+    /**
+     * 读取结果是否带来了新的Schema（复用的解析结果视为未变化）
+     */
+    private static boolean isChanged(TrackedFile current, TrackedFile previous) {
+        return previous == null || current.schemas != previous.schemas;
+    }
+    
+    private static void throwCollected(List<SchemaLoadException> exceptions) throws SchemaLoadException {
         // 检查是否有异常
         if (!exceptions.isEmpty()) {
             SchemaLoadException firstException = exceptions.get(0);
@@ -231,12 +518,87 @@ public class SchemaRepositoryLoader {
         }
     }
     
+    private ReloadResult publish(SchemaRepositorySnapshot snapshot, int reloaded, int unchanged, int removed) {
+        ReloadResult result = new ReloadResult(reloaded, unchanged, removed, snapshot.getVersion());
+        for (ReloadListener listener : reloadListeners) {
+            try {
+                listener.onReload(result);
+            } catch (RuntimeException e) {
+                LOG.warn("Reload listener failed", e);
+            }
+        }
+        return result;
+    }
+    
+    private static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+    
+    private static boolean isXmlFile(Path path) {
+        return path.toString().toLowerCase().endsWith(".xml");
+    }
+    
+    private static String sha256(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+                hex.append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
     /**
-     * 重新加载所有Schema（清空后重新加载）
+     * 开始监听目录，先加载目录中新增或变化的XML文件，之后文件的创建、修改和删除
+     * 会在后台线程中增量应用到context
      */
-    public void reloadAll(List<Path> files) throws SchemaLoadException {
-        context.clear();
-        loadFilesInParallel(files);
+    public void startWatching(Path directory, boolean recursive) throws SchemaLoadException {
+        if (directory == null || !Files.isDirectory(directory)) {
+            throw new SchemaLoadException("Invalid directory: " + directory);
+        }
+        
+        stopWatching();
+        
+        DirectoryWatcher newWatcher;
+        try {
+            newWatcher = new DirectoryWatcher(normalize(directory), recursive);
+        } catch (IOException e) {
+            throw new SchemaLoadException("Failed to watch directory: " + directory, e);
+        }
+        
+        // 先注册再扫描，扫描期间发生的变化不会丢失；个别文件加载失败时仍然开始监听，
+        // 文件修复后会被重新加载
+        try {
+            refresh(scanXmlFiles(directory, recursive));
+        } catch (SchemaLoadException e) {
+            LOG.warn("Initial load of watched directory incomplete: {}", e.getMessage());
+        }
+        
+        watcher = newWatcher;
+        newWatcher.start();
+        LOG.info("Watching schema directory: {}", directory);
+    }
+    
+    /**
+     * 停止目录监听
+     */
+    public void stopWatching() {
+        DirectoryWatcher current = watcher;
+        watcher = null;
+        if (current != null) {
+            current.stop();
+        }
+    }
+    
+    /**
+     * 是否正在监听目录
+     */
+    public boolean isWatching() {
+        return watcher != null;
     }
     
     /**
@@ -250,6 +612,7 @@ public class SchemaRepositoryLoader {
      * 关闭资源
      */
     public void shutdown() {
+        stopWatching();
         if (executorService != null && !executorService.isShutdown()) {
             executorService.shutdown();
             try {
@@ -263,6 +626,193 @@ public class SchemaRepositoryLoader {
         }
     }
     
+    /**
+     * 已加载文件的状态及其解析结果
+     */
+    private static final class TrackedFile {
+        private final long lastModified;
+        private final long size;
+        private final String hash;
+        private final List<CsdlSchema> schemas;
+        
+        TrackedFile(long lastModified, long size, String hash, List<CsdlSchema> schemas) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.hash = hash;
+            this.schemas = schemas;
+        }
+        
+        List<String> namespaces() {
+            List<String> namespaces = new ArrayList<>(schemas.size());
+            for (CsdlSchema schema : schemas) {
+                namespaces.add(schema.getNamespace());
+            }
+            return namespaces;
+        }
+    }
+    
+    /**
+     * 基于WatchService的目录监听，在单个守护线程中合并事件后调用增量刷新
+     */
+    private final class DirectoryWatcher implements Runnable {
+        private final Path root;
+        private final boolean recursive;
+        private final WatchService watchService;
+        private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+        private final Thread thread;
+        
+        DirectoryWatcher(Path root, boolean recursive) throws IOException {
+            this.root = root;
+            this.recursive = recursive;
+            this.watchService = root.getFileSystem().newWatchService();
+            try {
+                registerTree(root);
+            } catch (IOException e) {
+                watchService.close();
+                throw e;
+            }
+            this.thread = new Thread(this, "schema-watcher-" + root.getFileName());
+            this.thread.setDaemon(true);
+        }
+        
+        void start() {
+            thread.start();
+        }
+        
+        void stop() {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                LOG.warn("Failed to close watch service for: {}", root, e);
+            }
+            thread.interrupt();
+        }
+        
+        private void registerTree(Path directory) throws IOException {
+            if (!recursive) {
+                register(directory);
+                return;
+            }
+            List<Path> directories;
+            try (Stream<Path> paths = Files.walk(directory)) {
+                directories = paths.filter(Files::isDirectory).collect(Collectors.toList());
+            }
+            for (Path path : directories) {
+                register(path);
+            }
+        }
+        
+        private void register(Path directory) throws IOException {
+            WatchKey key = directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+            watchedDirectories.put(key, directory);
+        }
+        
+        @Override
+        public void run() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Set<Path> changedPaths = new LinkedHashSet<>();
+                    boolean overflow = drain(watchService.take(), changedPaths);
+                    
+                    // 在静默期内继续收集事件，合并为一次刷新
+                    WatchKey next;
+                    while ((next = watchService.poll(WATCH_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                        overflow |= drain(next, changedPaths);
+                    }
+                    
+                    try {
+                        if (overflow) {
+                            changedPaths.addAll(trackedFiles.keySet());
+                            changedPaths.addAll(scanXmlFiles(root, recursive));
+                        }
+                        refresh(changedPaths);
+                    } catch (SchemaLoadException e) {
+                        LOG.warn("Incremental reload failed, previous schemas are kept: {}", e.getMessage());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ClosedWatchServiceException e) {
+                // stop() 关闭了WatchService
+            } catch (Exception e) {
+                LOG.error("Schema directory watcher stopped unexpectedly: {}", root, e);
+            }
+        }
+        
+        /**
+         * 收集一个WatchKey上的事件，返回是否发生了事件溢出
+         */
+        private boolean drain(WatchKey key, Set<Path> changedPaths) {
+            boolean overflow = false;
+            Path directory = watchedDirectories.get(key);
+            
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    overflow = true;
+                    continue;
+                }
+                if (directory == null) {
+                    continue;
+                }
+                
+                Path path = directory.resolve((Path) event.context());
+                if (recursive && event.kind() == ENTRY_CREATE
+                    && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    try {
+                        registerTree(path);
+                    } catch (IOException e) {
+                        LOG.warn("Failed to watch new directory: {}", path, e);
+                    }
+                    try {
+                        changedPaths.addAll(scanXmlFiles(path, true));
+                    } catch (SchemaLoadException e) {
+                        LOG.warn("Failed to scan new directory: {}", path, e);
+                    }
+                } else if (isXmlFile(path)) {
+                    changedPaths.add(path);
+                }
+            }
+            
+            if (!key.reset()) {
+                watchedDirectories.remove(key);
+            }
+            return overflow;
+        }
+    }
+    
+    /**
+     * 重载监听器，每次发布新快照后回调
+     */
+    public interface ReloadListener {
+        void onReload(ReloadResult result);
+    }
+    
+    /**
+     * 一次加载或重载的结果
+     */
+    public static class ReloadResult {
+        private final int reloadedFiles;
+        private final int unchangedFiles;
+        private final int removedFiles;
+        private final long version;
+        
+        public ReloadResult(int reloadedFiles, int unchangedFiles, int removedFiles, long version) {
+            this.reloadedFiles = reloadedFiles;
+            this.unchangedFiles = unchangedFiles;
+            this.removedFiles = removedFiles;
+            this.version = version;
+        }
+        
+        public int getReloadedFiles() { return reloadedFiles; }
+        public int getUnchangedFiles() { return unchangedFiles; }
+        public int getRemovedFiles() { return removedFiles; }
+        public long getVersion() { return version; }
+        
+        public boolean hasChanges() {
+            return reloadedFiles > 0 || removedFiles > 0;
+        }
+    }
+    
     /**
      * Schema验证器接口
      */
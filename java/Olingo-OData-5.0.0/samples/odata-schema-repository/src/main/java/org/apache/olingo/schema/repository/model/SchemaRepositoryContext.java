@@ -1,380 +1,254 @@
 package org.apache.olingo.schema.repository.model;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
 import org.apache.olingo.commons.api.edm.provider.CsdlAction;
-import org.apache.olingo.commons.api.edm.provider.CsdlActionImport;
 import org.apache.olingo.commons.api.edm.provider.CsdlComplexType;
 import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainer;
-import org.apache.olingo.commons.api.edm.provider.CsdlEntitySet;
 import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
 import org.apache.olingo.commons.api.edm.provider.CsdlFunction;
-import org.apache.olingo.commons.api.edm.provider.CsdlFunctionImport;
 import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
-import org.apache.olingo.commons.api.edm.provider.CsdlSingleton;
 import org.apache.olingo.commons.api.edm.provider.CsdlTerm;
 import org.apache.olingo.commons.api.edm.provider.CsdlTypeDefinition;
 
 /**
  * Schema Repository的上下文信息
  * 管理所有Schema及其元素的索引和依赖关系
+ * 
+ * 数据保存在不可变的{@link SchemaRepositorySnapshot}中，修改时在旁边构建新快照后原子替换，
+ * 读取方不会看到空的或只加载了一半的Repository
  */
 public class SchemaRepositoryContext {
     
-    // Schema缓存 - 线程安全
-    private final Map<String, CsdlSchema> schemas = new ConcurrentHashMap<>();
-    
-    // 依赖关系图
-    private final Map<FullQualifiedName, SchemaDependencyNode> dependencyNodes = new ConcurrentHashMap<>();
-    
-    // 元素索引 - 按类型分组，提高查找性能
-    private final Map<String, Map<FullQualifiedName, CsdlEntityType>> entityTypes = new ConcurrentHashMap<>();
-    private final Map<String, Map<FullQualifiedName, CsdlComplexType>> complexTypes = new ConcurrentHashMap<>();
-    private final Map<String, Map<FullQualifiedName, CsdlAction>> actions = new ConcurrentHashMap<>();
-    private final Map<String, Map<FullQualifiedName, CsdlFunction>> functions = new ConcurrentHashMap<>();
-    private final Map<String, Map<FullQualifiedName, CsdlTypeDefinition>> typeDefinitions = new ConcurrentHashMap<>();
-    private final Map<String, Map<FullQualifiedName, CsdlTerm>> terms = new ConcurrentHashMap<>();
-    private final Map<String, CsdlEntityContainer> entityContainers = new ConcurrentHashMap<>();
-    
-    // 别名映射
-    private final Map<String, String> aliasToNamespaceMap = new ConcurrentHashMap<>();
-    private final Map<String, String> namespaceToAliasMap = new ConcurrentHashMap<>();
-    
-    // 统计信息
-    private volatile long lastUpdateTime = System.currentTimeMillis();
-    private volatile int totalElements = 0;
+    // 当前快照 - 写操作串行化，读操作无锁
+    private volatile SchemaRepositorySnapshot snapshot = SchemaRepositorySnapshot.empty(0);
     
     /**
      * 添加Schema到context中
      */
     public synchronized void addSchema(CsdlSchema schema) {
-        if (schema == null || schema.getNamespace() == null) {
-            throw new IllegalArgumentException("Schema and namespace cannot be null");
-        }
-        
-        String namespace = schema.getNamespace();
-        schemas.put(namespace, schema);
-        
-        // 更新别名映射
-        if (schema.getAlias() != null) {
-            aliasToNamespaceMap.put(schema.getAlias(), namespace);
-            namespaceToAliasMap.put(namespace, schema.getAlias());
-        }
-        
-        // 建立索引
-        indexSchemaElements(schema);
-        
-        lastUpdateTime = System.currentTimeMillis();
+        checkSchema(schema);
+        snapshot = snapshot.withChanges(null, Collections.singletonList(schema), false);
+    }
+    
+    /**
+     * 批量添加Schema，所有Schema在同一个新快照中生效
+     */
+    public synchronized void addSchemas(Collection<CsdlSchema> schemas) {
+        applyChanges(null, schemas);
     }
     
     /**
      * 移除Schema
      */
     public synchronized boolean removeSchema(String namespace) {
-        CsdlSchema removedSchema = schemas.remove(namespace);
-        if (removedSchema != null) {
-            // 清理索引
-            removeSchemaFromIndexes(removedSchema);
-            
-            // 清理别名映射
-            if (removedSchema.getAlias() != null) {
-                aliasToNamespaceMap.remove(removedSchema.getAlias());
-                namespaceToAliasMap.remove(namespace);
-            }
-            
-            lastUpdateTime = System.currentTimeMillis();
-            return true;
+        if (!snapshot.containsSchema(namespace)) {
+            return false;
         }
-        return false;
+        snapshot = snapshot.withChanges(Collections.singletonList(namespace), null, false);
+        return true;
     }
     
     /**
-     * 建立Schema元素索引
+     * 原子地移除和添加一批Schema，返回新发布的快照
      */
-    private void indexSchemaElements(CsdlSchema schema) {
-        String namespace = schema.getNamespace();
-        
-        // 索引EntityTypes
-        if (schema.getEntityTypes() != null) {
-            Map<FullQualifiedName, CsdlEntityType> namespaceEntityTypes = 
-                entityTypes.computeIfAbsent(namespace, k -> new ConcurrentHashMap<>());
-            for (CsdlEntityType entityType : schema.getEntityTypes()) {
-                FullQualifiedName fqn = new FullQualifiedName(namespace, entityType.getName());
-                namespaceEntityTypes.put(fqn, entityType);
-                totalElements++;
-            }
-        }
-        
-        // 索引ComplexTypes
-        if (schema.getComplexTypes() != null) {
-            Map<FullQualifiedName, CsdlComplexType> namespaceComplexTypes = 
-                complexTypes.computeIfAbsent(namespace, k -> new ConcurrentHashMap<>());
-            for (CsdlComplexType complexType : schema.getComplexTypes()) {
-                FullQualifiedName fqn = new FullQualifiedName(namespace, complexType.getName());
-                namespaceComplexTypes.put(fqn, complexType);
-                totalElements++;
-            }
-        }
-        
-        // 索引Actions
-        if (schema.getActions() != null) {
-            Map<FullQualifiedName, CsdlAction> namespaceActions = 
-                actions.computeIfAbsent(namespace, k -> new ConcurrentHashMap<>());
-            for (CsdlAction action : schema.getActions()) {
-                FullQualifiedName fqn = new FullQualifiedName(namespace, action.getName());
-                namespaceActions.put(fqn, action);
-                totalElements++;
-            }
-        }
-        
-        // 索引Functions
-        if (schema.getFunctions() != null) {
-            Map<FullQualifiedName, CsdlFunction> namespaceFunctions = 
-                functions.computeIfAbsent(namespace, k -> new ConcurrentHashMap<>());
-            for (CsdlFunction function : schema.getFunctions()) {
-                FullQualifiedName fqn = new FullQualifiedName(namespace, function.getName());
-                namespaceFunctions.put(fqn, function);
-                totalElements++;
-            }
-        }
-        
-        // 索引TypeDefinitions
-        if (schema.getTypeDefinitions() != null) {
-            Map<FullQualifiedName, CsdlTypeDefinition> namespaceTypeDefinitions = 
-                typeDefinitions.computeIfAbsent(namespace, k -> new ConcurrentHashMap<>());
-            for (CsdlTypeDefinition typeDefinition : schema.getTypeDefinitions()) {
-                FullQualifiedName fqn = new FullQualifiedName(namespace, typeDefinition.getName());
-                namespaceTypeDefinitions.put(fqn, typeDefinition);
-                totalElements++;
-            }
-        }
-        
-        // 索引Terms
-        if (schema.getTerms() != null) {
-            Map<FullQualifiedName, CsdlTerm> namespaceTerms = 
-                terms.computeIfAbsent(namespace, k -> new ConcurrentHashMap<>());
-            for (CsdlTerm term : schema.getTerms()) {
-                FullQualifiedName fqn = new FullQualifiedName(namespace, term.getName());
-                namespaceTerms.put(fqn, term);
-                totalElements++;
+    public synchronized SchemaRepositorySnapshot applyChanges(Collection<String> removedNamespaces,
+                                                              Collection<CsdlSchema> addedSchemas) {
+        checkSchemas(addedSchemas);
+        snapshot = snapshot.withChanges(removedNamespaces, addedSchemas, false);
+        return snapshot;
+    }
+    
+    /**
+     * 用给定的Schema集合原子地替换全部内容，返回新发布的快照
+     */
+    public synchronized SchemaRepositorySnapshot replaceAll(Collection<CsdlSchema> schemas) {
+        checkSchemas(schemas);
+        snapshot = snapshot.withChanges(null, schemas, true);
+        return snapshot;
+    }
+    
+    private static void checkSchemas(Collection<CsdlSchema> schemas) {
+        if (schemas != null) {
+            for (CsdlSchema schema : schemas) {
+                checkSchema(schema);
             }
         }
-        
-        // 索引EntityContainer
-        if (schema.getEntityContainer() != null) {
-            entityContainers.put(namespace, schema.getEntityContainer());
-            totalElements++;
+    }
+    
+    private static void checkSchema(CsdlSchema schema) {
+        if (schema == null || schema.getNamespace() == null) {
+            throw new IllegalArgumentException("Schema and namespace cannot be null");
         }
     }
     
     /**
-     * 从索引中移除Schema元素
+     * 获取当前快照，需要在多次查找之间保持一致时使用
      */
-    private void removeSchemaFromIndexes(CsdlSchema schema) {
-        String namespace = schema.getNamespace();
-        
-        // 移除各类型索引
-        entityTypes.remove(namespace);
-        complexTypes.remove(namespace);
-        actions.remove(namespace);
-        functions.remove(namespace);
-        typeDefinitions.remove(namespace);
-        terms.remove(namespace);
-        entityContainers.remove(namespace);
-        
-        // 移除依赖节点
-        dependencyNodes.entrySet().removeIf(entry -> 
-            entry.getKey().getNamespace().equals(namespace));
+    public SchemaRepositorySnapshot getSnapshot() {
+        return snapshot;
+    }
+    
+    /**
+     * 获取当前快照版本号
+     */
+    public long getVersion() {
+        return snapshot.getVersion();
     }
     
     /**
      * 获取EntityType
      */
     public CsdlEntityType getEntityType(FullQualifiedName fqn) {
-        if (fqn == null) return null;
-        
-        Map<FullQualifiedName, CsdlEntityType> namespaceMap = entityTypes.get(fqn.getNamespace());
-        return namespaceMap != null ? namespaceMap.get(fqn) : null;
+        return snapshot.getEntityType(fqn);
     }
     
     /**
      * 获取ComplexType
      */
     public CsdlComplexType getComplexType(FullQualifiedName fqn) {
-        if (fqn == null) return null;
-        
-        Map<FullQualifiedName, CsdlComplexType> namespaceMap = complexTypes.get(fqn.getNamespace());
-        return namespaceMap != null ? namespaceMap.get(fqn) : null;
+        return snapshot.getComplexType(fqn);
     }
     
     /**
      * 获取Action
      */
     public CsdlAction getAction(FullQualifiedName fqn) {
-        if (fqn == null) return null;
-        
-        Map<FullQualifiedName, CsdlAction> namespaceMap = actions.get(fqn.getNamespace());
-        return namespaceMap != null ? namespaceMap.get(fqn) : null;
+        return snapshot.getAction(fqn);
     }
     
     /**
      * 获取Function
      */
     public CsdlFunction getFunction(FullQualifiedName fqn) {
-        if (fqn == null) return null;
-        
-        Map<FullQualifiedName, CsdlFunction> namespaceMap = functions.get(fqn.getNamespace());
-        return namespaceMap != null ? namespaceMap.get(fqn) : null;
+        return snapshot.getFunction(fqn);
     }
     
     /**
      * 获取TypeDefinition
      */
     public CsdlTypeDefinition getTypeDefinition(FullQualifiedName fqn) {
-        if (fqn == null) return null;
-        
-        Map<FullQualifiedName, CsdlTypeDefinition> namespaceMap = typeDefinitions.get(fqn.getNamespace());
-        return namespaceMap != null ? namespaceMap.get(fqn) : null;
+        return snapshot.getTypeDefinition(fqn);
     }
     
     /**
      * 获取Term
      */
     public CsdlTerm getTerm(FullQualifiedName fqn) {
-        if (fqn == null) return null;
-        
-        Map<FullQualifiedName, CsdlTerm> namespaceMap = terms.get(fqn.getNamespace());
-        return namespaceMap != null ? namespaceMap.get(fqn) : null;
+        return snapshot.getTerm(fqn);
     }
     
     /**
      * 获取EntityContainer
      */
     public CsdlEntityContainer getEntityContainer(String namespace) {
-        return entityContainers.get(namespace);
+        return snapshot.getEntityContainer(namespace);
     }
     
     /**
      * 根据别名解析namespace
      */
     public String resolveNamespace(String aliasOrNamespace) {
-        if (aliasOrNamespace == null) return null;
-        
-        // 首先检查是否是别名
-        String namespace = aliasToNamespaceMap.get(aliasOrNamespace);
-        if (namespace != null) {
-            return namespace;
-        }
-        
-        // 如果不是别名，检查是否是有效的namespace
-        if (schemas.containsKey(aliasOrNamespace)) {
-            return aliasOrNamespace;
-        }
-        
-        return null;
+        return snapshot.resolveNamespace(aliasOrNamespace);
     }
     
     /**
-     * 添加依赖节点
+     * 添加单个依赖节点，与Schema修改一样发布新快照，已发布的快照不会被修改
+     * 批量构建的依赖图应通过{@link #setDependencyNodes(Map)}一次性发布
      */
-    public void addDependencyNode(SchemaDependencyNode node) {
+    public synchronized void addDependencyNode(SchemaDependencyNode node) {
         if (node != null && node.getFullyQualifiedName() != null) {
-            dependencyNodes.put(node.getFullyQualifiedName(), node);
+            Map<FullQualifiedName, SchemaDependencyNode> nodes = snapshot.getAllDependencyNodes();
+            nodes.put(node.getFullyQualifiedName(), node);
+            snapshot = snapshot.withDependencyNodes(nodes);
         }
     }
     
+    /**
+     * 用完整构建好的依赖图替换全部依赖节点，在一个新快照中发布
+     * 节点发布后不得再修改，持有旧快照的读取方看到的依赖图保持不变
+     */
+    public synchronized void setDependencyNodes(Map<FullQualifiedName, SchemaDependencyNode> nodes) {
+        snapshot = snapshot.withDependencyNodes(nodes);
+    }
+    
     /**
      * 获取依赖节点
      */
     public SchemaDependencyNode getDependencyNode(FullQualifiedName fqn) {
-        return dependencyNodes.get(fqn);
+        return snapshot.getDependencyNode(fqn);
     }
     
     /**
      * 获取所有依赖节点
      */
     public Map<FullQualifiedName, SchemaDependencyNode> getAllDependencyNodes() {
-        return new HashMap<>(dependencyNodes);
+        return snapshot.getAllDependencyNodes();
     }
     
     /**
      * 获取所有Schema
      */
     public Map<String, CsdlSchema> getAllSchemas() {
-        return new HashMap<>(schemas);
+        return snapshot.getAllSchemas();
     }
     
     /**
      * 获取Schema
      */
     public CsdlSchema getSchema(String namespace) {
-        return schemas.get(namespace);
+        return snapshot.getSchema(namespace);
     }
     
     /**
      * 检查是否包含Schema
      */
     public boolean containsSchema(String namespace) {
-        return schemas.containsKey(namespace);
+        return snapshot.containsSchema(namespace);
     }
     
     /**
      * 获取所有namespace
      */
     public Set<String> getAllNamespaces() {
-        return new HashSet<>(schemas.keySet());
+        return snapshot.getAllNamespaces();
     }
     
     /**
      * 获取别名到namespace的映射
      */
     public Map<String, String> getAliasToNamespaceMap() {
-        return new HashMap<>(aliasToNamespaceMap);
+        return snapshot.getAliasToNamespaceMap();
     }
     
     /**
      * 获取namespace到别名的映射
      */
     public Map<String, String> getNamespaceToAliasMap() {
-        return new HashMap<>(namespaceToAliasMap);
+        return snapshot.getNamespaceToAliasMap();
     }
     
     /**
      * 清空所有数据
      */
     public synchronized void clear() {
-        schemas.clear();
-        dependencyNodes.clear();
-        entityTypes.clear();
-        complexTypes.clear();
-        actions.clear();
-        functions.clear();
-        typeDefinitions.clear();
-        terms.clear();
-        entityContainers.clear();
-        aliasToNamespaceMap.clear();
-        namespaceToAliasMap.clear();
-        totalElements = 0;
-        lastUpdateTime = System.currentTimeMillis();
+        snapshot = SchemaRepositorySnapshot.empty(snapshot.getVersion() + 1);
     }
     
     /**
      * 获取统计信息
      */
     public RepositoryStatistics getStatistics() {
+        SchemaRepositorySnapshot current = snapshot;
         return new RepositoryStatistics(
-            schemas.size(),
-            totalElements,
-            dependencyNodes.size(),
-            lastUpdateTime
+            current.getSchemaCount(),
+            current.getTotalElements(),
+            current.getDependencyNodeCount(),
+            current.getCreateTime()
         );
     }
     
@@ -0,0 +1,380 @@
+package org.apache.olingo.schema.repository.model;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.edm.provider.CsdlAction;
+import org.apache.olingo.commons.api.edm.provider.CsdlComplexType;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainer;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
+import org.apache.olingo.commons.api.edm.provider.CsdlFunction;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.commons.api.edm.provider.CsdlTerm;
+import org.apache.olingo.commons.api.edm.provider.CsdlTypeDefinition;
+
+/**
+ * Schema Repository的不可变版本快照
+ * 每次修改都会基于当前快照生成新版本，未变化namespace的索引在版本之间共享，
+ * 读取方持有一个快照即可在多次查找之间看到一致的Repository视图
+ */
+public final class SchemaRepositorySnapshot {
+
+    private final long version;
+    private final long createTime;
+
+    // namespace -> 该namespace的元素索引，构建完成后不再修改
+    private final Map<String, NamespaceIndex> namespaces;
+
+    // 别名映射
+    private final Map<String, String> aliasToNamespaceMap;
+    private final Map<String, String> namespaceToAliasMap;
+
+    private final int totalElements;
+
+    // 依赖节点由分析器整体构建后一次性发布（见withDependencyNodes），未变化namespace的节点会带入下一个版本
+    private final Map<FullQualifiedName, SchemaDependencyNode> dependencyNodes;
+
+    private SchemaRepositorySnapshot(long version,
+                                     Map<String, NamespaceIndex> namespaces,
+                                     Map<String, String> aliasToNamespaceMap,
+                                     Map<String, String> namespaceToAliasMap,
+                                     Map<FullQualifiedName, SchemaDependencyNode> dependencyNodes) {
+        this.version = version;
+        this.createTime = System.currentTimeMillis();
+        this.namespaces = namespaces;
+        this.aliasToNamespaceMap = aliasToNamespaceMap;
+        this.namespaceToAliasMap = namespaceToAliasMap;
+        this.dependencyNodes = dependencyNodes;
+
+        int elements = 0;
+        for (NamespaceIndex index : namespaces.values()) {
+            elements += index.elementCount;
+        }
+        this.totalElements = elements;
+    }
+
+    /**
+     * 创建空快照
+     */
+    static SchemaRepositorySnapshot empty(long version) {
+        return new SchemaRepositorySnapshot(version,
+            Collections.<String, NamespaceIndex>emptyMap(),
+            Collections.<String, String>emptyMap(),
+            Collections.<String, String>emptyMap(),
+            Collections.<FullQualifiedName, SchemaDependencyNode>emptyMap());
+    }
+
+    /**
+     * 基于当前快照生成新版本
+     * 先移除removedNamespaces，再加入addedSchemas（同namespace的Schema会被替换）；
+     * replaceAll为true时不保留当前快照中的任何Schema
+     */
+    SchemaRepositorySnapshot withChanges(Collection<String> removedNamespaces,
+                                         Collection<CsdlSchema> addedSchemas,
+                                         boolean replaceAll) {
+        Map<String, NamespaceIndex> newNamespaces = new LinkedHashMap<>();
+        Map<String, String> newAliasToNamespace = new HashMap<>();
+        Map<String, String> newNamespaceToAlias = new HashMap<>();
+
+        // 需要从旧版本剔除的namespace
+        Set<String> changed = new HashSet<>();
+        if (removedNamespaces != null) {
+            changed.addAll(removedNamespaces);
+        }
+        if (addedSchemas != null) {
+            for (CsdlSchema schema : addedSchemas) {
+                changed.add(schema.getNamespace());
+            }
+        }
+
+        if (!replaceAll) {
+            for (Map.Entry<String, NamespaceIndex> entry : namespaces.entrySet()) {
+                if (!changed.contains(entry.getKey())) {
+                    newNamespaces.put(entry.getKey(), entry.getValue());
+                }
+            }
+            for (Map.Entry<String, String> entry : namespaceToAliasMap.entrySet()) {
+                if (!changed.contains(entry.getKey())) {
+                    newNamespaceToAlias.put(entry.getKey(), entry.getValue());
+                }
+            }
+            for (Map.Entry<String, String> entry : aliasToNamespaceMap.entrySet()) {
+                if (!changed.contains(entry.getValue())) {
+                    newAliasToNamespace.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        if (addedSchemas != null) {
+            for (CsdlSchema schema : addedSchemas) {
+                String namespace = schema.getNamespace();
+                newNamespaces.put(namespace, new NamespaceIndex(schema));
+                if (schema.getAlias() != null) {
+                    newAliasToNamespace.put(schema.getAlias(), namespace);
+                    newNamespaceToAlias.put(namespace, schema.getAlias());
+                }
+            }
+        }
+
+        Map<FullQualifiedName, SchemaDependencyNode> newDependencyNodes = new HashMap<>();
+        if (!replaceAll) {
+            for (Map.Entry<FullQualifiedName, SchemaDependencyNode> entry : dependencyNodes.entrySet()) {
+                if (!changed.contains(entry.getKey().getNamespace())) {
+                    newDependencyNodes.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        return new SchemaRepositorySnapshot(version + 1,
+            Collections.unmodifiableMap(newNamespaces),
+            Collections.unmodifiableMap(newAliasToNamespace),
+            Collections.unmodifiableMap(newNamespaceToAlias),
+            Collections.unmodifiableMap(newDependencyNodes));
+    }
+
+    /**
+     * 生成以给定依赖节点替换全部依赖节点的新快照
+     * 依赖节点是从Schema推导出的数据，Schema内容没有变化，因此版本号不变；
+     * 调用方在发布后不得再修改这些节点
+     */
+    SchemaRepositorySnapshot withDependencyNodes(Map<FullQualifiedName, SchemaDependencyNode> nodes) {
+        return new SchemaRepositorySnapshot(version, namespaces, aliasToNamespaceMap, namespaceToAliasMap,
+            Collections.unmodifiableMap(new HashMap<>(nodes)));
+    }
+
+    /**
+     * 快照版本号，每次修改递增
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 快照创建时间
+     */
+    public long getCreateTime() {
+        return createTime;
+    }
+
+    /**
+     * 获取Schema
+     */
+    public CsdlSchema getSchema(String namespace) {
+        NamespaceIndex index = namespace != null ? namespaces.get(namespace) : null;
+        return index != null ? index.schema : null;
+    }
+
+    /**
+     * 检查是否包含Schema
+     */
+    public boolean containsSchema(String namespace) {
+        return namespace != null && namespaces.containsKey(namespace);
+    }
+
+    /**
+     * 获取所有Schema
+     */
+    public Map<String, CsdlSchema> getAllSchemas() {
+        Map<String, CsdlSchema> result = new HashMap<>();
+        for (Map.Entry<String, NamespaceIndex> entry : namespaces.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().schema);
+        }
+        return result;
+    }
+
+    /**
+     * 获取所有namespace
+     */
+    public Set<String> getAllNamespaces() {
+        return new HashSet<>(namespaces.keySet());
+    }
+
+    /**
+     * 获取Schema数量
+     */
+    public int getSchemaCount() {
+        return namespaces.size();
+    }
+
+    /**
+     * 获取元素总数
+     */
+    public int getTotalElements() {
+        return totalElements;
+    }
+
+    /**
+     * 获取EntityType
+     */
+    public CsdlEntityType getEntityType(FullQualifiedName fqn) {
+        NamespaceIndex index = indexOf(fqn);
+        return index != null ? index.entityTypes.get(fqn) : null;
+    }
+
+    /**
+     * 获取ComplexType
+     */
+    public CsdlComplexType getComplexType(FullQualifiedName fqn) {
+        NamespaceIndex index = indexOf(fqn);
+        return index != null ? index.complexTypes.get(fqn) : null;
+    }
+
+    /**
+     * 获取Action
+     */
+    public CsdlAction getAction(FullQualifiedName fqn) {
+        NamespaceIndex index = indexOf(fqn);
+        return index != null ? index.actions.get(fqn) : null;
+    }
+
+    /**
+     * 获取Function
+     */
+    public CsdlFunction getFunction(FullQualifiedName fqn) {
+        NamespaceIndex index = indexOf(fqn);
+        return index != null ? index.functions.get(fqn) : null;
+    }
+
+    /**
+     * 获取TypeDefinition
+     */
+    public CsdlTypeDefinition getTypeDefinition(FullQualifiedName fqn) {
+        NamespaceIndex index = indexOf(fqn);
+        return index != null ? index.typeDefinitions.get(fqn) : null;
+    }
+
+    /**
+     * 获取Term
+     */
+    public CsdlTerm getTerm(FullQualifiedName fqn) {
+        NamespaceIndex index = indexOf(fqn);
+        return index != null ? index.terms.get(fqn) : null;
+    }
+
+    /**
+     * 获取EntityContainer
+     */
+    public CsdlEntityContainer getEntityContainer(String namespace) {
+        NamespaceIndex index = namespace != null ? namespaces.get(namespace) : null;
+        return index != null ? index.schema.getEntityContainer() : null;
+    }
+
+    /**
+     * 根据别名解析namespace
+     */
+    public String resolveNamespace(String aliasOrNamespace) {
+        if (aliasOrNamespace == null) return null;
+
+        String namespace = aliasToNamespaceMap.get(aliasOrNamespace);
+        if (namespace != null) {
+            return namespace;
+        }
+        return namespaces.containsKey(aliasOrNamespace) ? aliasOrNamespace : null;
+    }
+
+    /**
+     * 获取别名到namespace的映射
+     */
+    public Map<String, String> getAliasToNamespaceMap() {
+        return new HashMap<>(aliasToNamespaceMap);
+    }
+
+    /**
+     * 获取namespace到别名的映射
+     */
+    public Map<String, String> getNamespaceToAliasMap() {
+        return new HashMap<>(namespaceToAliasMap);
+    }
+
+    /**
+     * 获取依赖节点
+     */
+    public SchemaDependencyNode getDependencyNode(FullQualifiedName fqn) {
+        return fqn != null ? dependencyNodes.get(fqn) : null;
+    }
+
+    /**
+     * 获取所有依赖节点
+     */
+    public Map<FullQualifiedName, SchemaDependencyNode> getAllDependencyNodes() {
+        return new HashMap<>(dependencyNodes);
+    }
+
+    /**
+     * 获取依赖节点数量
+     */
+    public int getDependencyNodeCount() {
+        return dependencyNodes.size();
+    }
+
+    private NamespaceIndex indexOf(FullQualifiedName fqn) {
+        return fqn != null ? namespaces.get(fqn.getNamespace()) : null;
+    }
+
+    /**
+     * 单个namespace的元素索引
+     */
+    private static final class NamespaceIndex {
+        private final CsdlSchema schema;
+        private final Map<FullQualifiedName, CsdlEntityType> entityTypes = new HashMap<>();
+        private final Map<FullQualifiedName, CsdlComplexType> complexTypes = new HashMap<>();
+        private final Map<FullQualifiedName, CsdlAction> actions = new HashMap<>();
+        private final Map<FullQualifiedName, CsdlFunction> functions = new HashMap<>();
+        private final Map<FullQualifiedName, CsdlTypeDefinition> typeDefinitions = new HashMap<>();
+        private final Map<FullQualifiedName, CsdlTerm> terms = new HashMap<>();
+        private final int elementCount;
+
+        NamespaceIndex(CsdlSchema schema) {
+            this.schema = schema;
+            String namespace = schema.getNamespace();
+            int count = 0;
+
+            if (schema.getEntityTypes() != null) {
+                for (CsdlEntityType entityType : schema.getEntityTypes()) {
+                    entityTypes.put(new FullQualifiedName(namespace, entityType.getName()), entityType);
+                    count++;
+                }
+            }
+            if (schema.getComplexTypes() != null) {
+                for (CsdlComplexType complexType : schema.getComplexTypes()) {
+                    complexTypes.put(new FullQualifiedName(namespace, complexType.getName()), complexType);
+                    count++;
+                }
+            }
+            if (schema.getActions() != null) {
+                for (CsdlAction action : schema.getActions()) {
+                    actions.put(new FullQualifiedName(namespace, action.getName()), action);
+                    count++;
+                }
+            }
+            if (schema.getFunctions() != null) {
+                for (CsdlFunction function : schema.getFunctions()) {
+                    functions.put(new FullQualifiedName(namespace, function.getName()), function);
+                    count++;
+                }
+            }
+            if (schema.getTypeDefinitions() != null) {
+                for (CsdlTypeDefinition typeDefinition : schema.getTypeDefinitions()) {
+                    typeDefinitions.put(new FullQualifiedName(namespace, typeDefinition.getName()), typeDefinition);
+                    count++;
+                }
+            }
+            if (schema.getTerms() != null) {
+                for (CsdlTerm term : schema.getTerms()) {
+                    terms.put(new FullQualifiedName(namespace, term.getName()), term);
+                    count++;
+                }
+            }
+            if (schema.getEntityContainer() != null) {
+                count++;
+            }
+            this.elementCount = count;
+        }
+    }
+}
@@ -16,9 +16,14 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.schema.repository.loader.SchemaRepositoryLoader.ReloadResult;
 import org.apache.olingo.schema.repository.loader.SchemaRepositoryLoader.SchemaLoadException;
 import org.apache.olingo.schema.repository.loader.SchemaRepositoryLoader.SchemaValidationException;
 import org.apache.olingo.schema.repository.model.SchemaRepositoryContext;
@@ -533,6 +538,103 @@ class SchemaRepositoryLoaderTest {
             assertTrue(context.containsSchema("ComplexNamespace"));
             assertTrue(context.containsSchema("ActionFunctionNamespace"));
         }
+        
+        @Test
+        @DisplayName("Should keep previous schemas when reload fails")
+        void shouldKeepPreviousSchemasWhenReloadFails() throws IOException, SchemaLoadException {
+            Path schema1 = tempDir.resolve("schema1.xml");
+            Files.writeString(schema1, TestSchemaGenerator.generateSimpleEntityTypeSchema());
+            loader.loadFilesInParallel(List.of(schema1));
+            long version = context.getVersion();
+            
+            Path invalid = tempDir.resolve("invalid.xml");
+            Files.writeString(invalid, "invalid xml content");
+            
+            assertThrows(SchemaLoadException.class, () -> loader.reloadAll(List.of(invalid)));
+            
+            assertTrue(context.containsSchema("TestNamespace"));
+            assertEquals(version, context.getVersion());
+        }
+        
+        @Test
+        @DisplayName("Should reparse only changed files")
+        void shouldReparseOnlyChangedFiles() throws IOException, SchemaLoadException {
+            AtomicInteger validations = new AtomicInteger();
+            SchemaRepositoryLoader countingLoader = new SchemaRepositoryLoader(context,
+                schema -> validations.incrementAndGet());
+            
+            Path schema1 = tempDir.resolve("schema1.xml");
+            Path schema2 = tempDir.resolve("schema2.xml");
+            Files.writeString(schema1, TestSchemaGenerator.generateSimpleEntityTypeSchema());
+            Files.writeString(schema2, TestSchemaGenerator.generateComplexTypeSchema());
+            countingLoader.loadFilesInParallel(List.of(schema1, schema2));
+            assertEquals(2, validations.get());
+            
+            Files.writeString(schema2, TestSchemaGenerator.generateActionFunctionSchema());
+            Files.setLastModifiedTime(schema2, FileTime.fromMillis(System.currentTimeMillis() + 2000));
+            
+            ReloadResult result = countingLoader.reloadChanged();
+            
+            assertEquals(1, result.getReloadedFiles());
+            assertEquals(1, result.getUnchangedFiles());
+            assertEquals(3, validations.get());
+            assertTrue(context.containsSchema("TestNamespace"));
+            assertTrue(context.containsSchema("ActionFunctionNamespace"));
+            assertTrue(!context.containsSchema("ComplexNamespace"));
+            
+            // 没有变化时不发布新快照
+            long version = context.getVersion();
+            assertTrue(!countingLoader.reloadChanged().hasChanges());
+            assertEquals(version, context.getVersion());
+            
+            countingLoader.shutdown();
+        }
+        
+        @Test
+        @DisplayName("Should remove schemas of deleted files")
+        void shouldRemoveSchemasOfDeletedFiles() throws IOException, SchemaLoadException {
+            Path schema1 = tempDir.resolve("schema1.xml");
+            Path schema2 = tempDir.resolve("schema2.xml");
+            Files.writeString(schema1, TestSchemaGenerator.generateSimpleEntityTypeSchema());
+            Files.writeString(schema2, TestSchemaGenerator.generateComplexTypeSchema());
+            loader.loadFromDirectory(tempDir, false);
+            
+            Files.delete(schema2);
+            ReloadResult result = loader.reloadChanged();
+            
+            assertEquals(1, result.getRemovedFiles());
+            assertTrue(context.containsSchema("TestNamespace"));
+            assertTrue(!context.containsSchema("ComplexNamespace"));
+        }
+        
+        @Test
+        @DisplayName("Should push directory changes when watching")
+        void shouldPushDirectoryChangesWhenWatching() throws Exception {
+            Path schema1 = tempDir.resolve("schema1.xml");
+            Files.writeString(schema1, TestSchemaGenerator.generateSimpleEntityTypeSchema());
+            
+            loader.startWatching(tempDir, false);
+            try {
+                assertTrue(loader.isWatching());
+                assertTrue(context.containsSchema("TestNamespace"));
+                
+                CountDownLatch reloaded = new CountDownLatch(1);
+                loader.addReloadListener(result -> {
+                    if (context.containsSchema("ComplexNamespace")) {
+                        reloaded.countDown();
+                    }
+                });
+                
+                Files.writeString(tempDir.resolve("schema2.xml"), TestSchemaGenerator.generateComplexTypeSchema());
+                
+                assertTrue(reloaded.await(10, TimeUnit.SECONDS));
+                assertTrue(context.containsSchema("TestNamespace"));
+            } finally {
+                loader.stopWatching();
+            }
+            
+            assertTrue(!loader.isWatching());
+        }
     }
     
     @Nested
@@ -11,6 +11,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
 import org.apache.olingo.commons.api.edm.provider.CsdlAction;
@@ -18,9 +19,11 @@ import org.apache.olingo.commons.api.edm.provider.CsdlComplexType;
 import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainer;
 import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
 import org.apache.olingo.commons.api.edm.provider.CsdlFunction;
+import org.apache.olingo.commons.api.edm.provider.CsdlProperty;
 import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
 import org.apache.olingo.commons.api.edm.provider.CsdlTerm;
 import org.apache.olingo.commons.api.edm.provider.CsdlTypeDefinition;
+import org.apache.olingo.schema.repository.loader.SchemaDependencyAnalyzer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -133,6 +136,55 @@ class SchemaRepositoryContextTest {
             assertFalse(removed);
         }
         
+        @Test
+        @DisplayName("Should keep held snapshot unchanged after modifications")
+        void shouldKeepHeldSnapshotUnchangedAfterModifications() {
+            context.addSchema(testSchema);
+            SchemaRepositorySnapshot snapshot = context.getSnapshot();
+            
+            CsdlSchema otherSchema = new CsdlSchema();
+            otherSchema.setNamespace("OtherNamespace");
+            context.replaceAll(List.of(otherSchema));
+            
+            assertTrue(snapshot.containsSchema("TestNamespace"));
+            assertNotNull(snapshot.getEntityType(new FullQualifiedName("TestNamespace", "TestEntity")));
+            assertFalse(context.containsSchema("TestNamespace"));
+            assertTrue(context.containsSchema("OtherNamespace"));
+            assertTrue(context.getVersion() > snapshot.getVersion());
+        }
+        
+        @Test
+        @DisplayName("Should publish dependency nodes without modifying held snapshot")
+        void shouldPublishDependencyNodesWithoutModifyingHeldSnapshot() {
+            context.addSchema(testSchema);
+            SchemaRepositorySnapshot snapshot = context.getSnapshot();
+            FullQualifiedName fqn = new FullQualifiedName("TestNamespace", "TestEntity");
+            
+            context.addDependencyNode(new SchemaDependencyNode(fqn, SchemaDependencyNode.DependencyType.ENTITY_TYPE));
+            
+            assertNull(snapshot.getDependencyNode(fqn));
+            assertEquals(0, snapshot.getDependencyNodeCount());
+            assertNotNull(context.getDependencyNode(fqn));
+            assertEquals(1, context.getStatistics().getDependencyNodeCount());
+            // 依赖节点不改变Schema内容，版本号不变
+            assertEquals(snapshot.getVersion(), context.getVersion());
+        }
+        
+        @Test
+        @DisplayName("Should apply removals and additions in one version")
+        void shouldApplyRemovalsAndAdditionsInOneVersion() {
+            context.addSchema(testSchema);
+            long version = context.getVersion();
+            
+            CsdlSchema otherSchema = new CsdlSchema();
+            otherSchema.setNamespace("OtherNamespace");
+            SchemaRepositorySnapshot snapshot = context.applyChanges(List.of("TestNamespace"), List.of(otherSchema));
+            
+            assertEquals(version + 1, snapshot.getVersion());
+            assertEquals(Set.of("OtherNamespace"), context.getAllNamespaces());
+            assertNull(context.resolveNamespace("TN"));
+        }
+        
         @Test
         @DisplayName("Should replace existing schema")
         void shouldReplaceExistingSchema() {
@@ -381,6 +433,40 @@ class SchemaRepositoryContextTest {
             // Should not throw exception and should not add anything
             assertTrue(context.getAllDependencyNodes().isEmpty());
         }
+        
+        @Test
+        @DisplayName("Should publish analyzed dependency graph without modifying held snapshot")
+        void shouldPublishAnalyzedGraphWithoutModifyingHeldSnapshot() {
+            SchemaDependencyAnalyzer analyzer = new SchemaDependencyAnalyzer(context);
+            FullQualifiedName customerFqn = new FullQualifiedName("Sales", "Customer");
+            context.addSchema(createSchema("Sales", "Order", "Sales.Customer"));
+            analyzer.analyzeSchemas(context.getAllSchemas().values());
+            SchemaRepositorySnapshot snapshot = context.getSnapshot();
+            SchemaDependencyNode customer = snapshot.getDependencyNode(customerFqn);
+            assertEquals(1, customer.getDependents().size());
+            
+            context.addSchema(createSchema("Billing", "Invoice", "Sales.Customer"));
+            analyzer.analyzeSchemas(context.getAllSchemas().values());
+            
+            // 新的依赖图使用新的节点，旧快照中的节点保持不变
+            assertEquals(1, customer.getDependents().size());
+            assertEquals(2, snapshot.getDependencyNodeCount());
+            assertEquals(2, context.getDependencyNode(customerFqn).getDependents().size());
+            assertEquals(3, context.getAllDependencyNodes().size());
+        }
+        
+        private CsdlSchema createSchema(String namespace, String entityName, String propertyType) {
+            CsdlProperty property = new CsdlProperty();
+            property.setName("Customer");
+            property.setType(propertyType);
+            CsdlEntityType entityType = new CsdlEntityType();
+            entityType.setName(entityName);
+            entityType.setProperties(List.of(property));
+            CsdlSchema schema = new CsdlSchema();
+            schema.setNamespace(namespace);
+            schema.setEntityTypes(List.of(entityType));
+            return schema;
+        }
     }
     
     @Nested
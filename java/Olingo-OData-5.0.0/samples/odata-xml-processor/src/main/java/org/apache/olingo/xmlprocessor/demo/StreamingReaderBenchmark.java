@@ -0,0 +1,200 @@
+package org.apache.olingo.xmlprocessor.demo;
+
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.apache.olingo.server.core.MetadataParser;
+import org.apache.olingo.xmlprocessor.parser.CsdlElementHandler;
+import org.apache.olingo.xmlprocessor.parser.impl.StreamingCsdlReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * StreamingCsdlReader基准测试
+ * 生成多Schema的CSDL语料（默认100MB），分别用StreamingCsdlReader、Olingo MetadataParser和DOM读取，
+ * 输出耗时、吞吐量和读取期间的堆内存峰值。
+ *
+ * 用法：StreamingReaderBenchmark [语料大小MB] [语料目录]
+ */
+public class StreamingReaderBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingReaderBenchmark.class);
+
+    private static final int SCHEMAS_PER_FILE = 4;
+    private static final int TYPES_PER_SCHEMA = 250;
+
+    public static void main(String[] args) throws Exception {
+        long targetMegabytes = args.length > 0 ? Long.parseLong(args[0]) : 100;
+        Path corpus = args.length > 1 ? Paths.get(args[1]) : Files.createTempDirectory("csdl-corpus");
+
+        List<Path> files = generateCorpus(corpus, targetMegabytes * 1024 * 1024);
+        long totalBytes = 0;
+        for (Path file : files) {
+            totalBytes += Files.size(file);
+        }
+        logger.info("Corpus: {} files, {} MB in {}", files.size(), totalBytes / (1024 * 1024), corpus);
+
+        // 预热一轮，避免JIT影响第一个结果
+        runStreaming(files.subList(0, Math.min(files.size(), 5)));
+
+        report("StreamingCsdlReader", totalBytes, () -> runStreaming(files));
+        report("Olingo MetadataParser", totalBytes, () -> runMetadataParser(files));
+        report("DOM DocumentBuilder", totalBytes, () -> runDom(files));
+    }
+
+    private static long runStreaming(List<Path> files) throws Exception {
+        StreamingCsdlReader reader = new StreamingCsdlReader();
+        long[] elements = new long[1];
+        CsdlElementHandler counter = (schema, element, location) -> elements[0]++;
+        for (Path file : files) {
+            try (InputStream in = Files.newInputStream(file)) {
+                reader.read(in, file.toString(), counter);
+            }
+            HeapSampler.sample();
+        }
+        return elements[0];
+    }
+
+    private static long runMetadataParser(List<Path> files) throws Exception {
+        long schemas = 0;
+        for (Path file : files) {
+            try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                schemas += new MetadataParser()
+                    .parseAnnotations(true)
+                    .recursivelyLoadReferences(false)
+                    .implicitlyLoadCoreVocabularies(false)
+                    .buildEdmProvider(in)
+                    .getSchemas().size();
+            }
+            HeapSampler.sample();
+        }
+        return schemas;
+    }
+
+    private static long runDom(List<Path> files) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        long nodes = 0;
+        for (Path file : files) {
+            nodes += factory.newDocumentBuilder().parse(file.toFile()).getElementsByTagName("*").getLength();
+            HeapSampler.sample();
+        }
+        return nodes;
+    }
+
+    private static void report(String name, long totalBytes, Run run) throws Exception {
+        System.gc();
+        HeapSampler.reset();
+        long start = System.nanoTime();
+        long count = run.run();
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        double megabytesPerSecond = (totalBytes / (1024.0 * 1024.0)) / (elapsedMillis / 1000.0);
+        logger.info("{}: {} ms, {} MB/s, peak heap {} MB, result {}", name, elapsedMillis,
+            String.format("%.1f", megabytesPerSecond), HeapSampler.peak / (1024 * 1024), count);
+    }
+
+    /**
+     * 生成语料，已存在的语料文件直接复用
+     */
+    private static List<Path> generateCorpus(Path directory, long targetBytes) throws Exception {
+        Files.createDirectories(directory);
+        List<Path> existing;
+        try (Stream<Path> stream = Files.list(directory)) {
+            existing = stream.filter(p -> p.getFileName().toString().endsWith(".xml"))
+                .sorted().collect(Collectors.toList());
+        }
+        long existingBytes = 0;
+        for (Path file : existing) {
+            existingBytes += Files.size(file);
+        }
+        if (!existing.isEmpty() && existingBytes >= targetBytes) {
+            return existing;
+        }
+
+        List<Path> files = new ArrayList<>();
+        long written = 0;
+        for (int fileIndex = 0; written < targetBytes; fileIndex++) {
+            Path file = directory.resolve(String.format("corpus-%05d.xml", fileIndex));
+            writeCorpusFile(file, fileIndex);
+            written += Files.size(file);
+            files.add(file);
+        }
+        return files;
+    }
+
+    private static void writeCorpusFile(Path file, int fileIndex) throws Exception {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            out.write("<edmx:Edmx Version=\"4.0\" xmlns:edmx=\"http://docs.oasis-open.org/odata/ns/edmx\">\n");
+            out.write("  <edmx:DataServices>\n");
+            for (int s = 0; s < SCHEMAS_PER_FILE; s++) {
+                String namespace = "Bench.F" + fileIndex + ".S" + s;
+                out.write("    <Schema Namespace=\"" + namespace + "\" xmlns=\"http://docs.oasis-open.org/odata/ns/edm\">\n");
+                out.write("      <EnumType Name=\"Status\"><Member Name=\"Active\" Value=\"0\"/>"
+                    + "<Member Name=\"Inactive\" Value=\"1\"/></EnumType>\n");
+                for (int t = 0; t < TYPES_PER_SCHEMA; t++) {
+                    out.write("      <ComplexType Name=\"Address" + t + "\">\n");
+                    out.write("        <Property Name=\"Street\" Type=\"Edm.String\" MaxLength=\"100\"/>\n");
+                    out.write("        <Property Name=\"City\" Type=\"Edm.String\" MaxLength=\"50\"/>\n");
+                    out.write("      </ComplexType>\n");
+                    out.write("      <EntityType Name=\"Entity" + t + "\">\n");
+                    out.write("        <Key><PropertyRef Name=\"ID\"/></Key>\n");
+                    out.write("        <Property Name=\"ID\" Type=\"Edm.Int64\" Nullable=\"false\"/>\n");
+                    out.write("        <Property Name=\"Name\" Type=\"Edm.String\" MaxLength=\"200\">\n");
+                    out.write("          <Annotation Term=\"Core.Description\" String=\"Name of entity " + t + "\"/>\n");
+                    out.write("        </Property>\n");
+                    out.write("        <Property Name=\"Amount\" Type=\"Edm.Decimal\" Precision=\"18\" Scale=\"4\"/>\n");
+                    out.write("        <Property Name=\"Status\" Type=\"" + namespace + ".Status\"/>\n");
+                    out.write("        <Property Name=\"Address\" Type=\"" + namespace + ".Address" + t + "\"/>\n");
+                    out.write("        <Property Name=\"Tags\" Type=\"Collection(Edm.String)\"/>\n");
+                    if (t > 0) {
+                        out.write("        <NavigationProperty Name=\"Previous\" Type=\"" + namespace
+                            + ".Entity" + (t - 1) + "\"/>\n");
+                    }
+                    out.write("      </EntityType>\n");
+                }
+                out.write("      <EntityContainer Name=\"Container\">\n");
+                for (int t = 0; t < TYPES_PER_SCHEMA; t++) {
+                    out.write("        <EntitySet Name=\"Entities" + t + "\" EntityType=\"" + namespace
+                        + ".Entity" + t + "\"/>\n");
+                }
+                out.write("      </EntityContainer>\n");
+                out.write("    </Schema>\n");
+            }
+            out.write("  </edmx:DataServices>\n");
+            out.write("</edmx:Edmx>\n");
+        }
+    }
+
+    @FunctionalInterface
+    private interface Run {
+        long run() throws Exception;
+    }
+
+    /**
+     * 每读完一个文件采样一次堆使用量
+     */
+    private static final class HeapSampler {
+        private static long peak;
+
+        static void reset() {
+            peak = 0;
+        }
+
+        static void sample() {
+            Runtime runtime = Runtime.getRuntime();
+            peak = Math.max(peak, runtime.totalMemory() - runtime.freeMemory());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.apache.olingo.xmlprocessor.parser;
+
+import org.apache.olingo.commons.api.edm.provider.CsdlAnnotations;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.xmlprocessor.core.model.ExtendedCsdlSchema;
+import org.apache.olingo.xmlprocessor.core.model.ExtendedCsdlElement.ExtendedCsdlElement;
+
+/**
+ * 流式CSDL读取回调
+ * 每个顶层Schema元素读取完成后立即回调，由调用方决定保留还是丢弃，
+ * 读取器本身不持有已完成的元素
+ */
+public interface CsdlElementHandler {
+
+    /**
+     * edmx:Reference读取完成
+     * @param reference 引用及其Include
+     * @param location 引用在源文档中的位置
+     */
+    default void onReference(EdmxReference reference, SourceLocation location) {
+    }
+
+    /**
+     * Schema开始，此时只包含命名空间、别名和源路径
+     * @param schema Schema
+     * @param location Schema在源文档中的位置
+     */
+    default void onSchemaStart(ExtendedCsdlSchema schema, SourceLocation location) {
+    }
+
+    /**
+     * 顶层Schema元素读取完成，包括EntityType、ComplexType、EnumType、TypeDefinition、
+     * Term、Action、Function、EntityContainer以及Schema上的Annotation
+     * @param schema 所属Schema
+     * @param element 已完整读取的元素，命名空间已设置
+     * @param location 元素在源文档中的位置
+     */
+    void onElement(ExtendedCsdlSchema schema, ExtendedCsdlElement element, SourceLocation location);
+
+    /**
+     * Annotations注解组读取完成
+     * @param schema 所属Schema
+     * @param annotations 注解组
+     * @param location 注解组在源文档中的位置
+     */
+    default void onAnnotations(ExtendedCsdlSchema schema, CsdlAnnotations annotations, SourceLocation location) {
+    }
+
+    /**
+     * Schema结束
+     * @param schema Schema
+     */
+    default void onSchemaEnd(ExtendedCsdlSchema schema) {
+    }
+}
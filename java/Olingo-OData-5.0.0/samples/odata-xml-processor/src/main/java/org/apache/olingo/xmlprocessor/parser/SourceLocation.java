@@ -0,0 +1,56 @@
+package org.apache.olingo.xmlprocessor.parser;
+
+import java.util.Objects;
+
+/**
+ * CSDL元素在源文档中的位置
+ * 行号和列号取自StAX解析器报告的开始标签位置，用于诊断信息
+ */
+public final class SourceLocation {
+
+    private final String sourceName;
+    private final int line;
+    private final int column;
+
+    /**
+     * 构造函数
+     * @param sourceName 源名称
+     * @param line 行号，从1开始，未知时为-1
+     * @param column 列号，从1开始，未知时为-1
+     */
+    public SourceLocation(String sourceName, int line, int column) {
+        this.sourceName = sourceName;
+        this.line = line;
+        this.column = column;
+    }
+
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SourceLocation that = (SourceLocation) o;
+        return line == that.line && column == that.column && Objects.equals(sourceName, that.sourceName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sourceName, line, column);
+    }
+
+    @Override
+    public String toString() {
+        return sourceName + ":" + line + ":" + column;
+    }
+}
@@ -37,9 +37,6 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-
 import org.apache.olingo.commons.api.edm.provider.CsdlAction;
 import org.apache.olingo.commons.api.edm.provider.CsdlActionImport;
 import org.apache.olingo.commons.api.edm.provider.CsdlAnnotations;
@@ -64,9 +61,6 @@ import org.apache.olingo.commons.api.edmx.EdmxReference;
 import org.apache.olingo.server.core.MetadataParser;
 import org.apache.olingo.server.core.ReferenceResolver;
 import org.apache.olingo.server.core.SchemaBasedEdmProvider;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
 public class AdvancedMetadataParser {
     
@@ -81,6 +75,7 @@ public class AdvancedMetadataParser {
     private final Map<String, List<String>> errorReport = new ConcurrentHashMap<>();
     
     private final List<ReferenceResolver> referenceResolvers = new ArrayList<>();
+    private final StreamingCsdlReader referenceReader = new StreamingCsdlReader();
     private final MetadataParser underlyingParser;
     
     /**
@@ -1715,7 +1710,8 @@ public class AdvancedMetadataParser {
     }
     
     /**
-     * Extract edmx:Reference elements directly from XML to avoid Olingo's deduplication by namespace
+     * Extract edmx:Reference elements directly from XML to avoid Olingo's deduplication by namespace.
+     * References precede edmx:DataServices, so the stream is abandoned as soon as the schemas begin.
      */
     private Set<String> extractReferencesFromXml(String schemaPath) throws Exception {
         Set<String> references = new HashSet<>();
@@ -1726,24 +1722,12 @@ public class AdvancedMetadataParser {
                 return references;
             }
             
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.parse(inputStream);
-            
-            // Find all edmx:Reference elements
-            NodeList referenceNodes = doc.getElementsByTagNameNS("http://docs.oasis-open.org/odata/ns/edmx", "Reference");
-            
-            for (int i = 0; i < referenceNodes.getLength(); i++) {
-                Element refElement = (Element) referenceNodes.item(i);
-                String uri = refElement.getAttribute("Uri");
-                if (uri != null && !uri.trim().isEmpty()) {
-                    references.add(uri);
-                }
+            try {
+                references.addAll(referenceReader.readReferenceUris(inputStream));
+            } finally {
+                inputStream.close();
             }
             
-            inputStream.close();
-            
         } catch (Exception e) {
             // If XML parsing fails, fall back to empty set
             // Let other parts of the system handle the error
@@ -2,37 +2,26 @@ package org.apache.olingo.xmlprocessor.parser.impl;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
-import org.apache.olingo.commons.api.edm.provider.CsdlAction;
-import org.apache.olingo.commons.api.edm.provider.CsdlAnnotation;
-import org.apache.olingo.commons.api.edm.provider.CsdlComplexType;
-import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainer;
-import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
-import org.apache.olingo.commons.api.edm.provider.CsdlEnumType;
-import org.apache.olingo.commons.api.edm.provider.CsdlFunction;
-import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
-import org.apache.olingo.commons.api.edm.provider.CsdlTerm;
 import org.apache.olingo.xmlprocessor.core.model.ExtendedCsdlSchema;
 import org.apache.olingo.xmlprocessor.parser.ODataXmlParser;
-import org.apache.olingo.server.core.MetadataParser;
-import org.apache.olingo.server.core.SchemaBasedEdmProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * CSDL XML解析器实现
- * 使用Olingo原生解析方法并返回ExtendedCsdlSchema
+ * 使用StreamingCsdlReader一次读完文档并返回ExtendedCsdlSchema
  */
 public class CsdlXmlParserImpl implements ODataXmlParser {
     
     private static final Logger logger = LoggerFactory.getLogger(CsdlXmlParserImpl.class);
     
+    private final StreamingCsdlReader reader = new StreamingCsdlReader();
+    
     /**
      * 构造函数
      */
@@ -48,23 +37,14 @@ public class CsdlXmlParserImpl implements ODataXmlParser {
         try {
             logger.debug("Parsing XML from source: {}", sourceName);
 
-            // 使用Olingo原生解析器解析
-            List<CsdlSchema> parsedSchemas = parseWithOlingoNative(inputStream, sourceName);
+            // 流式读取，直接得到ExtendedCsdlSchema
+            List<ExtendedCsdlSchema> parsedSchemas = reader.readSchemas(inputStream, sourceName);
             
             if (parsedSchemas.isEmpty()) {
                 warnings.add("No valid schemas found in " + sourceName);
             } else {
-                // 转换为ExtendedCsdlSchema
-                for (CsdlSchema schema : parsedSchemas) {
-                    try {
-                        ExtendedCsdlSchema extendedSchema = convertToExtendedSchema(schema, sourceName);
-                        schemas.add(extendedSchema);
-                        logger.debug("Successfully converted schema: {}", schema.getNamespace());
-                    } catch (Exception e) {
-                        errors.add("Failed to convert schema '" + schema.getNamespace() + "': " + e.getMessage());
-                        logger.warn("Schema conversion failed for {}", schema.getNamespace(), e);
-                    }
-                }
+                schemas.addAll(parsedSchemas);
+                logger.debug("Successfully parsed {} schemas from {}", parsedSchemas.size(), sourceName);
             }
             
         } catch (Exception e) {
@@ -149,9 +129,9 @@ public class CsdlXmlParserImpl implements ODataXmlParser {
                 errors.add("Missing edmx:Edmx root element or Schema element");
             }
             
-            // 使用Olingo原生解析器进行更严格的验证
+            // 完整读取一遍进行更严格的验证，读到的元素直接丢弃
             try (InputStream inputStream = new ByteArrayInputStream(xmlContent.getBytes("UTF-8"))) {
-                parseWithOlingoNative(inputStream, "validation");
+                reader.read(inputStream, "validation", (schema, element, location) -> { });
             } catch (Exception e) {
                 errors.add("XML parsing validation failed: " + e.getMessage());
             }
@@ -162,70 +142,4 @@ public class CsdlXmlParserImpl implements ODataXmlParser {
         
         return new ValidationResult(errors.isEmpty(), errors, warnings);
     }
-    
-    /**
-     * 使用Olingo原生解析器解析XML
-     */
-    protected List<CsdlSchema> parseWithOlingoNative(InputStream inputStream, String sourceName) throws Exception {
-        try {
-            // 使用Olingo的MetadataParser来解析XML
-            MetadataParser parser = new MetadataParser();
-            
-            // 配置解析器
-            parser.parseAnnotations(true);
-            parser.useLocalCoreVocabularies(true);
-            parser.implicitlyLoadCoreVocabularies(true);
-            parser.recursivelyLoadReferences(false);
-
-            // 创建InputStreamReader确保正确的字符编码
-            InputStreamReader reader = new InputStreamReader(inputStream, "UTF-8");
-            
-            // 使用Olingo解析器构建EdmProvider
-            SchemaBasedEdmProvider provider = parser.buildEdmProvider(reader);
-            
-            // 从EdmProvider中提取Schemas
-            List<CsdlSchema> schemas = new ArrayList<>();
-            for (CsdlSchema schema : provider.getSchemas()) {
-                schemas.add(schema);
-            }
-            
-            logger.debug("Successfully parsed {} schemas using Olingo native parser from {}", 
-                        schemas.size(), sourceName);
-            
-            return schemas;
-            
-        } catch (Exception e) {
-            logger.error("Failed to parse with Olingo native parser from {}: {}", sourceName, e.getMessage());
-            throw new RuntimeException("Olingo native parsing failed: " + e.getMessage(), e);
-        }
-    }
-
-    /**
-     * 转换为ExtendedCsdlSchema模型
-     */
-    private ExtendedCsdlSchema convertToExtendedSchema(CsdlSchema baseSchema, String sourceName) {
-        logger.debug("Converting schema: {}", baseSchema.getNamespace());
-
-        // 创建ExtendedCsdlSchema
-        ExtendedCsdlSchema extendedSchema = ExtendedCsdlSchema.fromCsdlSchema(baseSchema);
-
-        // 设置源路径
-        extendedSchema.setSourcePath(sourceName);
-
-        // 转换所有内部元素为扩展模型（如果需要的话）
-        convertSchemaElements(extendedSchema);
-
-        return extendedSchema;
-    }
-
-    /**
-     * 转换Schema内部元素为扩展模型
-     */
-    private void convertSchemaElements(ExtendedCsdlSchema schema) {
-        // 这里可以进一步转换内部的EntityType、ComplexType等为扩展模型
-        // 目前先保持原有的元素类型，如果需要可以进一步扩展
-
-        logger.debug("Schema elements conversion completed for: {}", schema.getNamespace());
-    }
 }
-
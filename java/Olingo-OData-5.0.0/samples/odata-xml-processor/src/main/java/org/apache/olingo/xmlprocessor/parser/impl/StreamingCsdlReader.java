@@ -0,0 +1,951 @@
+package org.apache.olingo.xmlprocessor.parser.impl;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.olingo.commons.api.edm.geo.SRID;
+import org.apache.olingo.commons.api.edm.provider.CsdlAction;
+import org.apache.olingo.commons.api.edm.provider.CsdlActionImport;
+import org.apache.olingo.commons.api.edm.provider.CsdlAnnotatable;
+import org.apache.olingo.commons.api.edm.provider.CsdlAnnotation;
+import org.apache.olingo.commons.api.edm.provider.CsdlAnnotations;
+import org.apache.olingo.commons.api.edm.provider.CsdlBindingTarget;
+import org.apache.olingo.commons.api.edm.provider.CsdlComplexType;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainer;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntitySet;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
+import org.apache.olingo.commons.api.edm.provider.CsdlEnumMember;
+import org.apache.olingo.commons.api.edm.provider.CsdlEnumType;
+import org.apache.olingo.commons.api.edm.provider.CsdlFunction;
+import org.apache.olingo.commons.api.edm.provider.CsdlFunctionImport;
+import org.apache.olingo.commons.api.edm.provider.CsdlNavigationProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlNavigationPropertyBinding;
+import org.apache.olingo.commons.api.edm.provider.CsdlOnDelete;
+import org.apache.olingo.commons.api.edm.provider.CsdlOnDeleteAction;
+import org.apache.olingo.commons.api.edm.provider.CsdlOperation;
+import org.apache.olingo.commons.api.edm.provider.CsdlParameter;
+import org.apache.olingo.commons.api.edm.provider.CsdlProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlPropertyRef;
+import org.apache.olingo.commons.api.edm.provider.CsdlReferentialConstraint;
+import org.apache.olingo.commons.api.edm.provider.CsdlReturnType;
+import org.apache.olingo.commons.api.edm.provider.CsdlSingleton;
+import org.apache.olingo.commons.api.edm.provider.CsdlStructuralType;
+import org.apache.olingo.commons.api.edm.provider.CsdlTerm;
+import org.apache.olingo.commons.api.edm.provider.CsdlTypeDefinition;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlAnnotationPath;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlApply;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlCast;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlCollection;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlConstantExpression;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlConstantExpression.ConstantExpressionType;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlExpression;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlIf;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlIsOf;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlLabeledElement;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlLabeledElementReference;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlNavigationPropertyPath;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlNull;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlPath;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlPropertyPath;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlPropertyValue;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlRecord;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlUrlRef;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.edmx.EdmxReferenceInclude;
+import org.apache.olingo.commons.api.edmx.EdmxReferenceIncludeAnnotation;
+import org.apache.olingo.xmlprocessor.core.model.ExtendedCsdlAction;
+import org.apache.olingo.xmlprocessor.core.model.ExtendedCsdlAnnotation;
+import org.apache.olingo.xmlprocessor.core.model.ExtendedCsdlComplexType;
+import org.apache.olingo.xmlprocessor.core.model.ExtendedCsdlEntityContainer;
+import org.apache.olingo.xmlprocessor.core.model.ExtendedCsdlEntityType;
+import org.apache.olingo.xmlprocessor.core.model.ExtendedCsdlEnumType;
+import org.apache.olingo.xmlprocessor.core.model.ExtendedCsdlFunction;
+import org.apache.olingo.xmlprocessor.core.model.ExtendedCsdlSchema;
+import org.apache.olingo.xmlprocessor.core.model.ExtendedCsdlTerm;
+import org.apache.olingo.xmlprocessor.core.model.ExtendedCsdlTypeDefinition;
+import org.apache.olingo.xmlprocessor.core.model.ExtendedCsdlElement.ExtendedCsdlElement;
+import org.apache.olingo.xmlprocessor.parser.CsdlElementHandler;
+import org.apache.olingo.xmlprocessor.parser.SourceLocation;
+
+/**
+ * 基于StAX的流式CSDL读取器
+ * 读取结构参照server-core-ext中的MetadataParser，但使用游标式XMLStreamReader一次读完文档，
+ * 每个顶层Schema元素读取完成后立即交给CsdlElementHandler，内存占用只与单个元素的大小有关。
+ * 注解表达式的读取与MetadataParser一致，支持常量、Path类、Record、Collection、Apply、If、Cast等动态表达式。
+ */
+public class StreamingCsdlReader {
+
+    private static final String EDMX_NAMESPACE = "http://docs.oasis-open.org/odata/ns/edmx";
+
+    private static final Set<String> CONSTANT_EXPRESSIONS = new HashSet<>();
+
+    static {
+        for (ConstantExpressionType type : ConstantExpressionType.values()) {
+            CONSTANT_EXPRESSIONS.add(type.name());
+        }
+    }
+
+    private final XMLInputFactory inputFactory;
+    private boolean parseAnnotations = true;
+
+    /**
+     * 构造函数
+     */
+    public StreamingCsdlReader() {
+        inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * 是否读取注解，关闭时Annotation元素整体跳过
+     */
+    public StreamingCsdlReader parseAnnotations(boolean parse) {
+        this.parseAnnotations = parse;
+        return this;
+    }
+
+    /**
+     * 流式读取文档，每个元素读取完成后回调handler
+     * @param inputStream 输入流，由调用方关闭
+     * @param sourceName 源名称，用于位置信息和Schema源路径
+     * @param handler 元素回调
+     * @throws XMLStreamException XML格式错误或CSDL属性值无效，异常中带有出错位置
+     */
+    public void read(InputStream inputStream, String sourceName, CsdlElementHandler handler)
+            throws XMLStreamException {
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(inputStream);
+        try {
+            new DocumentPass(reader, sourceName, handler).readDocument();
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * 读取文档中的全部Schema
+     * @param inputStream 输入流，由调用方关闭
+     * @param sourceName 源名称
+     * @return 按文档顺序排列的Schema，引用的命名空间已填入referencedNamespaces
+     */
+    public List<ExtendedCsdlSchema> readSchemas(InputStream inputStream, String sourceName)
+            throws XMLStreamException {
+        SchemaCollector collector = new SchemaCollector();
+        read(inputStream, sourceName, collector);
+        return collector.schemas;
+    }
+
+    /**
+     * 只读取edmx:Reference的Uri，遇到edmx:DataServices即停止，不读取Schema内容
+     * @param inputStream 输入流，由调用方关闭
+     * @return 按文档顺序排列的引用Uri
+     */
+    public List<String> readReferenceUris(InputStream inputStream) throws XMLStreamException {
+        List<String> uris = new ArrayList<>();
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(inputStream);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT
+                        || !EDMX_NAMESPACE.equals(reader.getNamespaceURI())) {
+                    continue;
+                }
+                if ("DataServices".equals(reader.getLocalName())) {
+                    break;
+                }
+                if ("Reference".equals(reader.getLocalName())) {
+                    String uri = reader.getAttributeValue(null, "Uri");
+                    if (uri != null && !uri.trim().isEmpty()) {
+                        uris.add(uri);
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return uris;
+    }
+
+    /**
+     * 收集全部Schema的回调
+     */
+    private static class SchemaCollector implements CsdlElementHandler {
+
+        private final List<ExtendedCsdlSchema> schemas = new ArrayList<>();
+        private final List<String> referencedNamespaces = new ArrayList<>();
+
+        @Override
+        public void onReference(EdmxReference reference, SourceLocation location) {
+            for (EdmxReferenceInclude include : reference.getIncludes()) {
+                referencedNamespaces.add(include.getNamespace());
+            }
+        }
+
+        @Override
+        public void onSchemaStart(ExtendedCsdlSchema schema, SourceLocation location) {
+            for (String namespace : referencedNamespaces) {
+                schema.addReferencedNamespace(namespace);
+            }
+            schemas.add(schema);
+        }
+
+        @Override
+        public void onElement(ExtendedCsdlSchema schema, ExtendedCsdlElement element, SourceLocation location) {
+            if (element instanceof ExtendedCsdlEntityType) {
+                schema.addExtendedEntityType((ExtendedCsdlEntityType) element);
+            } else if (element instanceof ExtendedCsdlComplexType) {
+                schema.addExtendedComplexType((ExtendedCsdlComplexType) element);
+            } else if (element instanceof ExtendedCsdlEnumType) {
+                schema.addExtendedEnumType((ExtendedCsdlEnumType) element);
+            } else if (element instanceof ExtendedCsdlTypeDefinition) {
+                schema.addExtendedTypeDefinition((ExtendedCsdlTypeDefinition) element);
+            } else if (element instanceof ExtendedCsdlTerm) {
+                schema.addExtendedTerm((ExtendedCsdlTerm) element);
+            } else if (element instanceof ExtendedCsdlAction) {
+                schema.addExtendedAction((ExtendedCsdlAction) element);
+            } else if (element instanceof ExtendedCsdlFunction) {
+                schema.addExtendedFunction((ExtendedCsdlFunction) element);
+            } else if (element instanceof ExtendedCsdlEntityContainer) {
+                schema.setExtendedEntityContainer((ExtendedCsdlEntityContainer) element);
+            } else if (element instanceof ExtendedCsdlAnnotation) {
+                schema.addExtendedAnnotation((ExtendedCsdlAnnotation) element);
+            }
+        }
+
+        @Override
+        public void onAnnotations(ExtendedCsdlSchema schema, CsdlAnnotations annotations, SourceLocation location) {
+            schema.asCsdlSchema().getAnnotationGroups().add(annotations);
+        }
+    }
+
+    /**
+     * 单个文档的一次读取过程，游标始终停在当前元素上
+     */
+    private class DocumentPass {
+
+        private final XMLStreamReader reader;
+        private final String sourceName;
+        private final CsdlElementHandler handler;
+
+        DocumentPass(XMLStreamReader reader, String sourceName, CsdlElementHandler handler) {
+            this.reader = reader;
+            this.sourceName = sourceName;
+            this.handler = handler;
+        }
+
+        void readDocument() throws XMLStreamException {
+            while (reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT) {
+                // 跳过XML声明、注释和处理指令
+            }
+            if (!reader.isStartElement()) {
+                throw new XMLStreamException("Document has no root element", reader.getLocation());
+            }
+            if (!"Edmx".equals(reader.getLocalName())) {
+                throw new XMLStreamException("Root element must be edmx:Edmx but was " + reader.getName(),
+                    reader.getLocation());
+            }
+            while (nextChild()) {
+                if ("Reference".equals(reader.getLocalName())) {
+                    readReference();
+                } else if ("DataServices".equals(reader.getLocalName())) {
+                    while (nextChild()) {
+                        if ("Schema".equals(reader.getLocalName())) {
+                            readSchema();
+                        } else {
+                            skipElement();
+                        }
+                    }
+                } else {
+                    skipElement();
+                }
+            }
+        }
+
+        // ==================== 引用和Schema ====================
+
+        private void readReference() throws XMLStreamException {
+            SourceLocation location = location();
+            String uri = attr("Uri");
+            EdmxReference reference;
+            try {
+                reference = new EdmxReference(new URI(uri != null ? uri : ""));
+            } catch (URISyntaxException e) {
+                throw invalid("Uri", uri);
+            }
+            while (nextChild()) {
+                String name = reader.getLocalName();
+                if ("Include".equals(name)) {
+                    reference.addInclude(new EdmxReferenceInclude(attr("Namespace"), attr("Alias")));
+                    skipElement();
+                } else if ("IncludeAnnotations".equals(name)) {
+                    EdmxReferenceIncludeAnnotation include = new EdmxReferenceIncludeAnnotation(attr("TermNamespace"));
+                    include.setTargetNamespace(attr("TargetNamespace"));
+                    include.setQualifier(attr("Qualifier"));
+                    reference.addIncludeAnnotation(include);
+                    skipElement();
+                } else if ("Annotation".equals(name)) {
+                    readAnnotationInto(reference);
+                } else {
+                    skipElement();
+                }
+            }
+            handler.onReference(reference, location);
+        }
+
+        private void readSchema() throws XMLStreamException {
+            ExtendedCsdlSchema schema = new ExtendedCsdlSchema(attr("Namespace"));
+            schema.setAlias(attr("Alias"));
+            schema.setSourcePath(sourceName);
+            handler.onSchemaStart(schema, location());
+
+            while (nextChild()) {
+                SourceLocation location = location();
+                switch (reader.getLocalName()) {
+                    case "EntityType":
+                        emit(schema, ExtendedCsdlEntityType.fromCsdlEntityType(readEntityType()), location);
+                        break;
+                    case "ComplexType":
+                        emit(schema, ExtendedCsdlComplexType.fromCsdlComplexType(readComplexType()), location);
+                        break;
+                    case "EnumType":
+                        emit(schema, ExtendedCsdlEnumType.fromCsdlEnumType(readEnumType()), location);
+                        break;
+                    case "TypeDefinition":
+                        emit(schema, ExtendedCsdlTypeDefinition.fromCsdlTypeDefinition(readTypeDefinition()), location);
+                        break;
+                    case "Term":
+                        emit(schema, ExtendedCsdlTerm.fromCsdlTerm(readTerm()), location);
+                        break;
+                    case "Action":
+                        emit(schema, ExtendedCsdlAction.fromCsdlAction(readAction()), location);
+                        break;
+                    case "Function":
+                        emit(schema, ExtendedCsdlFunction.fromCsdlFunction(readFunction()), location);
+                        break;
+                    case "EntityContainer":
+                        emit(schema, ExtendedCsdlEntityContainer.fromCsdlEntityContainer(readEntityContainer()), location);
+                        break;
+                    case "Annotations":
+                        handler.onAnnotations(schema, readAnnotationGroup(), location);
+                        break;
+                    case "Annotation":
+                        if (parseAnnotations) {
+                            emit(schema, ExtendedCsdlAnnotation.fromCsdlAnnotation(readAnnotation()), location);
+                        } else {
+                            skipElement();
+                        }
+                        break;
+                    default:
+                        skipElement();
+                }
+            }
+            handler.onSchemaEnd(schema);
+        }
+
+        private void emit(ExtendedCsdlSchema schema, ExtendedCsdlElement element, SourceLocation location) {
+            element.setNamespace(schema.getNamespace());
+            handler.onElement(schema, element, location);
+        }
+
+        // ==================== 结构类型 ====================
+
+        private CsdlEntityType readEntityType() throws XMLStreamException {
+            CsdlEntityType entityType = new CsdlEntityType();
+            entityType.setKey(new ArrayList<CsdlPropertyRef>());
+            readStructuralTypeAttributes(entityType);
+            entityType.setHasStream(Boolean.parseBoolean(attr("HasStream")));
+
+            while (nextChild()) {
+                if ("Key".equals(reader.getLocalName())) {
+                    while (nextChild()) {
+                        if ("PropertyRef".equals(reader.getLocalName())) {
+                            CsdlPropertyRef ref = new CsdlPropertyRef();
+                            ref.setName(attr("Name"));
+                            ref.setAlias(attr("Alias"));
+                            entityType.getKey().add(ref);
+                        }
+                        skipElement();
+                    }
+                } else {
+                    readStructuralTypeChild(entityType);
+                }
+            }
+            return entityType;
+        }
+
+        private CsdlComplexType readComplexType() throws XMLStreamException {
+            CsdlComplexType complexType = new CsdlComplexType();
+            readStructuralTypeAttributes(complexType);
+            while (nextChild()) {
+                readStructuralTypeChild(complexType);
+            }
+            return complexType;
+        }
+
+        private void readStructuralTypeAttributes(CsdlStructuralType type) {
+            type.setProperties(new ArrayList<CsdlProperty>());
+            type.setNavigationProperties(new ArrayList<CsdlNavigationProperty>());
+            type.setName(attr("Name"));
+            if (attr("BaseType") != null) {
+                type.setBaseType(attr("BaseType"));
+            }
+            type.setAbstract(Boolean.parseBoolean(attr("Abstract")));
+            type.setOpenType(Boolean.parseBoolean(attr("OpenType")));
+        }
+
+        private void readStructuralTypeChild(CsdlStructuralType type) throws XMLStreamException {
+            String name = reader.getLocalName();
+            if ("Property".equals(name)) {
+                type.getProperties().add(readProperty());
+            } else if ("NavigationProperty".equals(name)) {
+                type.getNavigationProperties().add(readNavigationProperty());
+            } else if ("Annotation".equals(name)) {
+                readAnnotationInto(type);
+            } else {
+                skipElement();
+            }
+        }
+
+        private CsdlProperty readProperty() throws XMLStreamException {
+            CsdlProperty property = new CsdlProperty();
+            property.setName(attr("Name"));
+            property.setType(elementType());
+            property.setCollection(isCollectionType());
+            property.setNullable(nullable());
+            if (attr("Unicode") != null) {
+                property.setUnicode(Boolean.parseBoolean(attr("Unicode")));
+            }
+            property.setMaxLength(intFacet("MaxLength"));
+            property.setPrecision(intFacet("Precision"));
+            property.setScale(intFacet("Scale"));
+            property.setSrid(srid());
+            property.setDefaultValue(attr("DefaultValue"));
+            readAnnotationsOnly(property);
+            return property;
+        }
+
+        private CsdlNavigationProperty readNavigationProperty() throws XMLStreamException {
+            CsdlNavigationProperty property = new CsdlNavigationProperty();
+            property.setReferentialConstraints(new ArrayList<CsdlReferentialConstraint>());
+            property.setName(attr("Name"));
+            required("Type");
+            property.setType(elementType());
+            property.setCollection(isCollectionType());
+            property.setNullable(nullable());
+            property.setPartner(attr("Partner"));
+            property.setContainsTarget(Boolean.parseBoolean(attr("ContainsTarget")));
+
+            while (nextChild()) {
+                String name = reader.getLocalName();
+                if ("ReferentialConstraint".equals(name)) {
+                    CsdlReferentialConstraint constraint = new CsdlReferentialConstraint();
+                    constraint.setProperty(attr("Property"));
+                    constraint.setReferencedProperty(attr("ReferencedProperty"));
+                    readAnnotationsOnly(constraint);
+                    property.getReferentialConstraints().add(constraint);
+                } else if ("OnDelete".equals(name)) {
+                    CsdlOnDelete onDelete = new CsdlOnDelete();
+                    String action = attr("Action");
+                    try {
+                        onDelete.setAction(CsdlOnDeleteAction.valueOf(action));
+                    } catch (IllegalArgumentException | NullPointerException e) {
+                        throw invalid("Action", action);
+                    }
+                    readAnnotationsOnly(onDelete);
+                    property.setOnDelete(onDelete);
+                } else if ("Annotation".equals(name)) {
+                    readAnnotationInto(property);
+                } else {
+                    skipElement();
+                }
+            }
+            return property;
+        }
+
+        private CsdlEnumType readEnumType() throws XMLStreamException {
+            CsdlEnumType enumType = new CsdlEnumType();
+            enumType.setMembers(new ArrayList<CsdlEnumMember>());
+            enumType.setName(attr("Name"));
+            if (attr("UnderlyingType") != null) {
+                enumType.setUnderlyingType(attr("UnderlyingType"));
+            }
+            enumType.setFlags(Boolean.parseBoolean(attr("IsFlags")));
+
+            while (nextChild()) {
+                String name = reader.getLocalName();
+                if ("Member".equals(name)) {
+                    CsdlEnumMember member = new CsdlEnumMember();
+                    member.setName(attr("Name"));
+                    member.setValue(attr("Value"));
+                    readAnnotationsOnly(member);
+                    enumType.getMembers().add(member);
+                } else if ("Annotation".equals(name)) {
+                    readAnnotationInto(enumType);
+                } else {
+                    skipElement();
+                }
+            }
+            return enumType;
+        }
+
+        private CsdlTypeDefinition readTypeDefinition() throws XMLStreamException {
+            CsdlTypeDefinition typeDefinition = new CsdlTypeDefinition();
+            typeDefinition.setName(attr("Name"));
+            typeDefinition.setUnderlyingType(required("UnderlyingType"));
+            if (attr("Unicode") != null) {
+                typeDefinition.setUnicode(Boolean.parseBoolean(attr("Unicode")));
+            }
+            typeDefinition.setMaxLength(intFacet("MaxLength"));
+            typeDefinition.setPrecision(intFacet("Precision"));
+            typeDefinition.setScale(intFacet("Scale"));
+            typeDefinition.setSrid(srid());
+            readAnnotationsOnly(typeDefinition);
+            return typeDefinition;
+        }
+
+        private CsdlTerm readTerm() throws XMLStreamException {
+            CsdlTerm term = new CsdlTerm();
+            term.setName(attr("Name"));
+            term.setType(attr("Type"));
+            term.setBaseTerm(attr("BaseTerm"));
+            term.setDefaultValue(attr("DefaultValue"));
+            if (attr("AppliesTo") != null) {
+                term.setAppliesTo(Arrays.asList(attr("AppliesTo").trim().split("\\s+")));
+            }
+            term.setNullable(nullable());
+            term.setMaxLength(intFacet("MaxLength"));
+            term.setPrecision(intFacet("Precision"));
+            term.setScale(intFacet("Scale"));
+            term.setSrid(srid());
+            readAnnotationsOnly(term);
+            return term;
+        }
+
+        // ==================== 操作 ====================
+
+        private CsdlAction readAction() throws XMLStreamException {
+            CsdlAction action = new CsdlAction();
+            readOperation(action);
+            return action;
+        }
+
+        private CsdlFunction readFunction() throws XMLStreamException {
+            CsdlFunction function = new CsdlFunction();
+            function.setComposable(Boolean.parseBoolean(attr("IsComposable")));
+            readOperation(function);
+            return function;
+        }
+
+        private void readOperation(CsdlOperation operation) throws XMLStreamException {
+            operation.setParameters(new ArrayList<CsdlParameter>());
+            operation.setName(attr("Name"));
+            operation.setBound(Boolean.parseBoolean(attr("IsBound")));
+            operation.setEntitySetPath(attr("EntitySetPath"));
+
+            while (nextChild()) {
+                String name = reader.getLocalName();
+                if ("Parameter".equals(name)) {
+                    CsdlParameter parameter = new CsdlParameter();
+                    parameter.setName(attr("Name"));
+                    parameter.setType(elementType());
+                    parameter.setCollection(isCollectionType());
+                    parameter.setNullable(nullable());
+                    parameter.setMaxLength(intFacet("MaxLength"));
+                    parameter.setPrecision(intFacet("Precision"));
+                    parameter.setScale(intFacet("Scale"));
+                    parameter.setSrid(srid());
+                    readAnnotationsOnly(parameter);
+                    operation.getParameters().add(parameter);
+                } else if ("ReturnType".equals(name)) {
+                    CsdlReturnType returnType = new CsdlReturnType();
+                    returnType.setType(elementType());
+                    returnType.setCollection(isCollectionType());
+                    returnType.setNullable(nullable());
+                    returnType.setMaxLength(intFacet("MaxLength"));
+                    returnType.setPrecision(intFacet("Precision"));
+                    returnType.setScale(intFacet("Scale"));
+                    returnType.setSrid(srid());
+                    readAnnotationsOnly(returnType);
+                    operation.setReturnType(returnType);
+                } else if ("Annotation".equals(name)) {
+                    readAnnotationInto(operation);
+                } else {
+                    skipElement();
+                }
+            }
+        }
+
+        // ==================== 实体容器 ====================
+
+        private CsdlEntityContainer readEntityContainer() throws XMLStreamException {
+            CsdlEntityContainer container = new CsdlEntityContainer();
+            container.setName(attr("Name"));
+            if (attr("Extends") != null) {
+                container.setExtendsContainer(attr("Extends"));
+            }
+            container.setEntitySets(new ArrayList<CsdlEntitySet>());
+            container.setSingletons(new ArrayList<CsdlSingleton>());
+            container.setActionImports(new ArrayList<CsdlActionImport>());
+            container.setFunctionImports(new ArrayList<CsdlFunctionImport>());
+
+            while (nextChild()) {
+                String name = reader.getLocalName();
+                if ("EntitySet".equals(name)) {
+                    CsdlEntitySet entitySet = new CsdlEntitySet();
+                    entitySet.setName(attr("Name"));
+                    entitySet.setType(required("EntityType"));
+                    entitySet.setIncludeInServiceDocument(attr("IncludeInServiceDocument") == null
+                        || Boolean.parseBoolean(attr("IncludeInServiceDocument")));
+                    readBindingTarget(entitySet);
+                    container.getEntitySets().add(entitySet);
+                } else if ("Singleton".equals(name)) {
+                    CsdlSingleton singleton = new CsdlSingleton();
+                    singleton.setName(attr("Name"));
+                    singleton.setType(required("Type"));
+                    readBindingTarget(singleton);
+                    container.getSingletons().add(singleton);
+                } else if ("ActionImport".equals(name)) {
+                    CsdlActionImport actionImport = new CsdlActionImport();
+                    actionImport.setName(attr("Name"));
+                    actionImport.setAction(required("Action"));
+                    actionImport.setEntitySet(attr("EntitySet"));
+                    readAnnotationsOnly(actionImport);
+                    container.getActionImports().add(actionImport);
+                } else if ("FunctionImport".equals(name)) {
+                    CsdlFunctionImport functionImport = new CsdlFunctionImport();
+                    functionImport.setName(attr("Name"));
+                    functionImport.setFunction(required("Function"));
+                    functionImport.setEntitySet(attr("EntitySet"));
+                    functionImport.setIncludeInServiceDocument(Boolean.parseBoolean(attr("IncludeInServiceDocument")));
+                    readAnnotationsOnly(functionImport);
+                    container.getFunctionImports().add(functionImport);
+                } else if ("Annotation".equals(name)) {
+                    readAnnotationInto(container);
+                } else {
+                    skipElement();
+                }
+            }
+            return container;
+        }
+
+        private void readBindingTarget(CsdlBindingTarget target) throws XMLStreamException {
+            target.setNavigationPropertyBindings(new ArrayList<CsdlNavigationPropertyBinding>());
+            while (nextChild()) {
+                String name = reader.getLocalName();
+                if ("NavigationPropertyBinding".equals(name)) {
+                    CsdlNavigationPropertyBinding binding = new CsdlNavigationPropertyBinding();
+                    binding.setPath(attr("Path"));
+                    binding.setTarget(attr("Target"));
+                    target.getNavigationPropertyBindings().add(binding);
+                    skipElement();
+                } else if ("Annotation".equals(name)) {
+                    readAnnotationInto(target);
+                } else {
+                    skipElement();
+                }
+            }
+        }
+
+        // ==================== 注解 ====================
+
+        private CsdlAnnotations readAnnotationGroup() throws XMLStreamException {
+            CsdlAnnotations annotations = new CsdlAnnotations();
+            annotations.setTarget(attr("Target"));
+            annotations.setQualifier(attr("Qualifier"));
+            readAnnotationsOnly(annotations);
+            return annotations;
+        }
+
+        private CsdlAnnotation readAnnotation() throws XMLStreamException {
+            CsdlAnnotation annotation = new CsdlAnnotation();
+            annotation.setTerm(attr("Term"));
+            annotation.setQualifier(attr("Qualifier"));
+            annotation.setExpression(attributeExpression());
+
+            while (nextChild()) {
+                if ("Annotation".equals(reader.getLocalName())) {
+                    readAnnotationInto(annotation);
+                } else if (annotation.getExpression() == null) {
+                    annotation.setExpression(readExpression());
+                } else {
+                    skipElement();
+                }
+            }
+            return annotation;
+        }
+
+        /**
+         * 属性形式的表达式：常量、各类Path和UrlRef，没有时返回null
+         */
+        private CsdlExpression attributeExpression() {
+            for (ConstantExpressionType type : ConstantExpressionType.values()) {
+                String value = attr(type.name());
+                if (value != null) {
+                    return new CsdlConstantExpression(type, value);
+                }
+            }
+            if (attr("Path") != null) {
+                return new CsdlPath().setValue(attr("Path"));
+            }
+            if (attr("PropertyPath") != null) {
+                return new CsdlPropertyPath().setValue(attr("PropertyPath"));
+            }
+            if (attr("NavigationPropertyPath") != null) {
+                return new CsdlNavigationPropertyPath().setValue(attr("NavigationPropertyPath"));
+            }
+            if (attr("AnnotationPath") != null) {
+                return new CsdlAnnotationPath().setValue(attr("AnnotationPath"));
+            }
+            if (attr("UrlRef") != null) {
+                return new CsdlUrlRef().setValue(
+                    new CsdlConstantExpression(ConstantExpressionType.String, attr("UrlRef")));
+            }
+            return null;
+        }
+
+        /**
+         * 读取当前元素表示的表达式，游标停在其结束标签上；不是表达式的元素跳过并返回null
+         */
+        private CsdlExpression readExpression() throws XMLStreamException {
+            String name = reader.getLocalName();
+            if (CONSTANT_EXPRESSIONS.contains(name)) {
+                return new CsdlConstantExpression(ConstantExpressionType.valueOf(name), elementText());
+            } else if ("Path".equals(name)) {
+                return new CsdlPath().setValue(elementText());
+            } else if ("PropertyPath".equals(name)) {
+                return new CsdlPropertyPath().setValue(elementText());
+            } else if ("NavigationPropertyPath".equals(name)) {
+                return new CsdlNavigationPropertyPath().setValue(elementText());
+            } else if ("AnnotationPath".equals(name)) {
+                return new CsdlAnnotationPath().setValue(elementText());
+            } else if ("LabeledElementReference".equals(name)) {
+                return new CsdlLabeledElementReference().setValue(elementText());
+            } else if ("Null".equals(name)) {
+                CsdlNull expression = new CsdlNull();
+                readAnnotationsOnly(expression);
+                return expression;
+            } else if ("Record".equals(name)) {
+                return readRecord();
+            } else if ("Collection".equals(name)) {
+                return new CsdlCollection().setItems(readOperands(null));
+            } else if ("Apply".equals(name)) {
+                CsdlApply expression = new CsdlApply().setFunction(attr("Function"));
+                return expression.setParameters(readOperands(expression));
+            } else if ("If".equals(name)) {
+                CsdlIf expression = new CsdlIf();
+                List<CsdlExpression> operands = readOperands(expression);
+                return expression.setGuard(operand(operands, 0))
+                    .setThen(operand(operands, 1))
+                    .setElse(operand(operands, 2));
+            } else if ("Cast".equals(name)) {
+                CsdlCast expression = new CsdlCast().setType(attr("Type"))
+                    .setMaxLength(intFacet("MaxLength"))
+                    .setPrecision(intFacet("Precision"))
+                    .setScale(intFacet("Scale"))
+                    .setSrid(srid());
+                return expression.setValue(operand(readOperands(expression), 0));
+            } else if ("IsOf".equals(name)) {
+                CsdlIsOf expression = new CsdlIsOf().setType(attr("Type"))
+                    .setMaxLength(intFacet("MaxLength"))
+                    .setPrecision(intFacet("Precision"))
+                    .setScale(intFacet("Scale"))
+                    .setSrid(srid());
+                return expression.setValue(operand(readOperands(expression), 0));
+            } else if ("LabeledElement".equals(name)) {
+                CsdlLabeledElement expression = new CsdlLabeledElement().setName(attr("Name"));
+                CsdlExpression value = attributeExpression();
+                List<CsdlExpression> operands = readOperands(expression);
+                return expression.setValue(value != null ? value : operand(operands, 0));
+            } else if ("UrlRef".equals(name)) {
+                CsdlUrlRef expression = new CsdlUrlRef();
+                return expression.setValue(operand(readOperands(expression), 0));
+            }
+            skipElement();
+            return null;
+        }
+
+        private CsdlRecord readRecord() throws XMLStreamException {
+            CsdlRecord record = new CsdlRecord().setType(attr("Type"));
+            record.setPropertyValues(new ArrayList<CsdlPropertyValue>());
+            while (nextChild()) {
+                String name = reader.getLocalName();
+                if ("PropertyValue".equals(name)) {
+                    CsdlPropertyValue value = new CsdlPropertyValue().setProperty(attr("Property"));
+                    CsdlExpression attributeValue = attributeExpression();
+                    List<CsdlExpression> operands = readOperands(value);
+                    value.setValue(attributeValue != null ? attributeValue : operand(operands, 0));
+                    record.getPropertyValues().add(value);
+                } else if ("Annotation".equals(name)) {
+                    readAnnotationInto(record);
+                } else {
+                    skipElement();
+                }
+            }
+            return record;
+        }
+
+        /**
+         * 读取当前元素的子表达式，Annotation子元素加入annotatable（为null时跳过）
+         */
+        private List<CsdlExpression> readOperands(CsdlAnnotatable annotatable) throws XMLStreamException {
+            List<CsdlExpression> operands = new ArrayList<>();
+            while (nextChild()) {
+                if (annotatable != null && "Annotation".equals(reader.getLocalName())) {
+                    readAnnotationInto(annotatable);
+                } else {
+                    CsdlExpression operand = readExpression();
+                    if (operand != null) {
+                        operands.add(operand);
+                    }
+                }
+            }
+            return operands;
+        }
+
+        private CsdlExpression operand(List<CsdlExpression> operands, int index) {
+            return index < operands.size() ? operands.get(index) : null;
+        }
+
+        /**
+         * 与MetadataParser一致，元素文本去掉首尾空白
+         */
+        private String elementText() throws XMLStreamException {
+            return reader.getElementText().trim();
+        }
+
+        /**
+         * 当前元素是Annotation，读取后加入target
+         */
+        private void readAnnotationInto(CsdlAnnotatable target) throws XMLStreamException {
+            if (parseAnnotations) {
+                target.getAnnotations().add(readAnnotation());
+            } else {
+                skipElement();
+            }
+        }
+
+        /**
+         * 读取当前元素下的Annotation子元素，其余子元素跳过
+         */
+        private void readAnnotationsOnly(CsdlAnnotatable target) throws XMLStreamException {
+            while (nextChild()) {
+                if ("Annotation".equals(reader.getLocalName())) {
+                    readAnnotationInto(target);
+                } else {
+                    skipElement();
+                }
+            }
+        }
+
+        // ==================== 游标和属性工具 ====================
+
+        /**
+         * 前进到下一个子元素的开始标签，返回false表示当前元素已结束
+         */
+        private boolean nextChild() throws XMLStreamException {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    return true;
+                }
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    return false;
+                }
+            }
+            throw new XMLStreamException("Unexpected end of document", reader.getLocation());
+        }
+
+        /**
+         * 跳过当前元素及其全部子元素，游标停在其结束标签上
+         */
+        private void skipElement() throws XMLStreamException {
+            int depth = 1;
+            while (depth > 0) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                }
+            }
+        }
+
+        private SourceLocation location() {
+            return new SourceLocation(sourceName, reader.getLocation().getLineNumber(),
+                reader.getLocation().getColumnNumber());
+        }
+
+        private String attr(String name) {
+            return reader.getAttributeValue(null, name);
+        }
+
+        private String required(String name) throws XMLStreamException {
+            String value = attr(name);
+            if (value == null) {
+                throw new XMLStreamException("Missing attribute " + name + " of " + reader.getLocalName()
+                    + " in " + location(), reader.getLocation());
+            }
+            return value;
+        }
+
+        private String elementType() {
+            String type = attr("Type");
+            return isCollectionType() ? type.substring("Collection(".length(), type.length() - 1) : type;
+        }
+
+        private boolean isCollectionType() {
+            String type = attr("Type");
+            return type != null && type.startsWith("Collection(") && type.endsWith(")");
+        }
+
+        /**
+         * Nullable未声明时按CSDL规范默认为true
+         */
+        private boolean nullable() {
+            return attr("Nullable") == null || Boolean.parseBoolean(attr("Nullable"));
+        }
+
+        /**
+         * 整数facet，max、variable、floating等符号值返回null
+         */
+        private Integer intFacet(String name) throws XMLStreamException {
+            String value = attr(name);
+            if (value == null || "max".equals(value) || "variable".equals(value) || "floating".equals(value)) {
+                return null;
+            }
+            try {
+                return Integer.valueOf(value);
+            } catch (NumberFormatException e) {
+                throw invalid(name, value);
+            }
+        }
+
+        private SRID srid() throws XMLStreamException {
+            String value = attr("SRID");
+            if (value == null) {
+                return null;
+            }
+            try {
+                return SRID.valueOf(value);
+            } catch (IllegalArgumentException e) {
+                throw invalid("SRID", value);
+            }
+        }
+
+        private XMLStreamException invalid(String attribute, String value) {
+            return new XMLStreamException("Invalid value '" + value + "' for attribute " + attribute
+                + " of " + reader.getLocalName() + " in " + location(), reader.getLocation());
+        }
+    }
+}
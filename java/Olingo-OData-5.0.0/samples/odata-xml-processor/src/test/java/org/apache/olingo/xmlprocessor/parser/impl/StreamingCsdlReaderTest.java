@@ -0,0 +1,173 @@
+package org.apache.olingo.xmlprocessor.parser.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.olingo.commons.api.edm.provider.CsdlAnnotation;
+import org.apache.olingo.commons.api.edm.provider.CsdlProperty;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlApply;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlCollection;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlIf;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlRecord;
+import org.apache.olingo.xmlprocessor.core.model.ExtendedCsdlEntityType;
+import org.apache.olingo.xmlprocessor.core.model.ExtendedCsdlSchema;
+import org.apache.olingo.xmlprocessor.parser.SourceLocation;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StreamingCsdlReaderTest {
+
+    private static final String DOCUMENT =
+        "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+        + "<edmx:Edmx Version=\"4.0\" xmlns:edmx=\"http://docs.oasis-open.org/odata/ns/edmx\">\n"
+        + "  <edmx:Reference Uri=\"common.xml\">\n"
+        + "    <edmx:Include Namespace=\"Test.Common\" Alias=\"Common\"/>\n"
+        + "  </edmx:Reference>\n"
+        + "  <edmx:DataServices>\n"
+        + "    <Schema Namespace=\"Test.Main\" xmlns=\"http://docs.oasis-open.org/odata/ns/edm\">\n"
+        + "      <EntityType Name=\"Product\">\n"
+        + "        <Key><PropertyRef Name=\"ID\"/></Key>\n"
+        + "        <Property Name=\"ID\" Type=\"Edm.Int32\" Nullable=\"false\"/>\n"
+        + "        <Property Name=\"Name\" Type=\"Edm.String\" MaxLength=\"100\">\n"
+        + "          <Annotation Term=\"Core.Description\" String=\"Product name\"/>\n"
+        + "        </Property>\n"
+        + "      </EntityType>\n"
+        + "      <EntityContainer Name=\"Container\">\n"
+        + "        <EntitySet Name=\"Products\" EntityType=\"Test.Main.Product\"/>\n"
+        + "      </EntityContainer>\n"
+        + "    </Schema>\n"
+        + "  </edmx:DataServices>\n"
+        + "</edmx:Edmx>\n";
+
+    private StreamingCsdlReader reader;
+
+    @BeforeEach
+    void setUp() {
+        reader = new StreamingCsdlReader();
+    }
+
+    @Test
+    void testReadReportsElementLocations() throws Exception {
+        // 每个顶层元素回调时应带有开始标签的行号
+        List<SourceLocation> locations = new ArrayList<>();
+        reader.read(stream(DOCUMENT), "main.xml", (schema, element, location) -> locations.add(location));
+
+        assertEquals(2, locations.size());
+        assertEquals("main.xml", locations.get(0).getSourceName());
+        assertEquals(8, locations.get(0).getLine());
+        assertEquals(15, locations.get(1).getLine());
+    }
+
+    @Test
+    void testReadSchemasCollectsElementsAndReferences() throws Exception {
+        List<ExtendedCsdlSchema> schemas = reader.readSchemas(stream(DOCUMENT), "main.xml");
+
+        assertEquals(1, schemas.size());
+        ExtendedCsdlSchema schema = schemas.get(0);
+        assertEquals("Test.Main", schema.getNamespace());
+        assertTrue(schema.getReferencedNamespaces().contains("Test.Common"));
+        assertEquals(1, schema.getExtendedEntityTypes().size());
+        assertEquals("Products", schema.getEntityContainer().getEntitySets().get(0).getName());
+
+        ExtendedCsdlEntityType product = schema.getExtendedEntityTypes().get(0);
+        CsdlProperty name = product.getProperty("Name");
+        assertEquals(Integer.valueOf(100), name.getMaxLength());
+        assertEquals(false, product.getProperty("ID").isNullable());
+
+        CsdlAnnotation description = name.getAnnotations().get(0);
+        assertEquals("Core.Description", description.getTerm());
+        assertEquals("Product name", description.getExpression().asConstant().getValue());
+    }
+
+    @Test
+    void testReadDynamicAnnotationExpressions() throws Exception {
+        String annotations = "<Annotation Term=\"UI.LineItem\"><Collection>"
+            + "<Record Type=\"UI.DataField\">"
+            + "<PropertyValue Property=\"Value\" Path=\"Name\"/>"
+            + "<PropertyValue Property=\"Label\"><String> Product </String></PropertyValue>"
+            + "</Record>"
+            + "<Record Type=\"UI.DataField\">"
+            + "<Annotation Term=\"Core.Description\" String=\"computed\"/>"
+            + "<PropertyValue Property=\"Value\">"
+            + "<Apply Function=\"odata.concat\"><Path>Name</Path><String>!</String></Apply>"
+            + "</PropertyValue>"
+            + "</Record>"
+            + "</Collection></Annotation>"
+            + "<Annotation Term=\"Core.Immutable\"><If><Path>Locked</Path><Bool>true</Bool><Null/></If></Annotation>";
+        String document = DOCUMENT.replace("</Property>", annotations + "</Property>");
+
+        CsdlProperty name = reader.readSchemas(stream(document), "main.xml").get(0)
+            .getExtendedEntityTypes().get(0).getProperty("Name");
+        assertEquals(3, name.getAnnotations().size());
+
+        CsdlCollection lineItem = name.getAnnotations().get(1).getExpression().asDynamic().asCollection();
+        assertEquals(2, lineItem.getItems().size());
+
+        CsdlRecord first = lineItem.getItems().get(0).asDynamic().asRecord();
+        assertEquals("UI.DataField", first.getType());
+        assertEquals("Value", first.getPropertyValues().get(0).getProperty());
+        assertEquals("Name", first.getPropertyValues().get(0).getValue().asDynamic().asPath().getValue());
+        assertEquals("Product", first.getPropertyValues().get(1).getValue().asConstant().getValue());
+
+        CsdlRecord second = lineItem.getItems().get(1).asDynamic().asRecord();
+        assertEquals("Core.Description", second.getAnnotations().get(0).getTerm());
+        CsdlApply concat = second.getPropertyValues().get(0).getValue().asDynamic().asApply();
+        assertEquals("odata.concat", concat.getFunction());
+        assertEquals(2, concat.getParameters().size());
+        assertEquals("Name", concat.getParameters().get(0).asDynamic().asPath().getValue());
+        assertEquals("!", concat.getParameters().get(1).asConstant().getValue());
+
+        CsdlIf immutable = name.getAnnotations().get(2).getExpression().asDynamic().asIf();
+        assertEquals("Locked", immutable.getGuard().asDynamic().asPath().getValue());
+        assertEquals("true", immutable.getThen().asConstant().getValue());
+        assertTrue(immutable.getElse().asDynamic().isNull());
+    }
+
+    @Test
+    void testAnnotationsSkippedWhenDisabled() throws Exception {
+        List<ExtendedCsdlSchema> schemas = reader.parseAnnotations(false).readSchemas(stream(DOCUMENT), "main.xml");
+
+        CsdlProperty name = schemas.get(0).getExtendedEntityTypes().get(0).getProperty("Name");
+        assertTrue(name.getAnnotations().isEmpty());
+    }
+
+    @Test
+    void testReadReferenceUrisStopsBeforeDataServices() throws Exception {
+        // DataServices中的错误不应影响引用提取
+        String document = DOCUMENT.replace("<EntityType Name=\"Product\">", "<EntityType Name=\"Product\"><<broken");
+
+        List<String> uris = reader.readReferenceUris(stream(document));
+
+        assertEquals(1, uris.size());
+        assertEquals("common.xml", uris.get(0));
+    }
+
+    @Test
+    void testInvalidFacetReportsLocation() {
+        String document = DOCUMENT.replace("MaxLength=\"100\"", "MaxLength=\"abc\"");
+
+        XMLStreamException e = assertThrows(XMLStreamException.class,
+            () -> reader.readSchemas(stream(document), "main.xml"));
+        assertTrue(e.getMessage().contains("MaxLength"));
+        assertTrue(e.getMessage().contains("main.xml:11"));
+    }
+
+    @Test
+    void testNonEdmxRootRejected() {
+        String document = "<?xml version=\"1.0\"?><Schema Namespace=\"Test\"/>";
+
+        assertThrows(XMLStreamException.class, () -> reader.readSchemas(stream(document), "main.xml"));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
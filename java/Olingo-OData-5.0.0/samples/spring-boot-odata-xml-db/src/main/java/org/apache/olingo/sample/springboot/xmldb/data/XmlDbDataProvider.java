@@ -22,20 +22,78 @@ import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.data.Property;
 import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.sample.springboot.xmldb.entity.CarEntity;
 import org.apache.olingo.sample.springboot.xmldb.entity.ManufacturerEntity;
+import org.apache.olingo.sample.springboot.xmldb.query.JpaEntityMapping;
+import org.apache.olingo.sample.springboot.xmldb.query.JpaQueryExecutor;
+import org.apache.olingo.sample.springboot.xmldb.query.ODataQueryTranslator;
+import org.apache.olingo.sample.springboot.xmldb.query.QueryResultIterator;
 import org.apache.olingo.sample.springboot.xmldb.service.XmlDbDataService;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Locale;
 
 @Component
 public class XmlDbDataProvider {
 
+    public static final JpaEntityMapping<CarEntity> CARS = new JpaEntityMapping<>("Cars", CarEntity.class)
+        .key("ID", "id")
+        .property("Model", "model")
+        .property("ModelYear", "modelYear")
+        .property("Price", "price")
+        .property("Currency", "currency")
+        .property("ManufacturerID", "manufacturerId");
+
+    public static final JpaEntityMapping<ManufacturerEntity> MANUFACTURERS =
+        new JpaEntityMapping<>("Manufacturers", ManufacturerEntity.class)
+            .key("ID", "id")
+            .property("Name", "name")
+            .property("Founded", "founded")
+            .property("Headquarters", "headquarters");
+
     @Autowired
     private XmlDbDataService dataService;
 
+    @Autowired
+    private JpaQueryExecutor queryExecutor;
+
+    @Value("${xmldb.odata.max-page-size:1000}")
+    private int maxPageSize;
+
+    /**
+     * Read one page of an entity set, applying $filter, $orderby, $select, $skip, $top and $count
+     * in the database where possible
+     * @param entitySetName entity set name
+     * @param uriInfo URI information with the query options
+     * @return the requested page
+     */
+    public QueryResultIterator queryEntityCollection(String entitySetName, UriInfo uriInfo)
+            throws ODataApplicationException {
+        JpaEntityMapping<?> mapping = getMapping(entitySetName);
+        if (mapping == null) {
+            throw new ODataApplicationException("Entity set not found: " + entitySetName,
+                HttpStatusCode.NOT_FOUND.getStatusCode(), Locale.ENGLISH);
+        }
+        return queryExecutor.execute(ODataQueryTranslator.translate(uriInfo, mapping), Math.max(1, maxPageSize));
+    }
+
+    private JpaEntityMapping<?> getMapping(String entitySetName) {
+        switch (entitySetName) {
+            case "Cars":
+                return CARS;
+            case "Manufacturers":
+                return MANUFACTURERS;
+            default:
+                return null;
+        }
+    }
+
     public EntityCollection getCars() {
         EntityCollection entityCollection = new EntityCollection();
         List<CarEntity> cars = dataService.getAllCars();
@@ -18,15 +18,18 @@
  */
 package org.apache.olingo.sample.springboot.xmldb.processor;
 
+import java.net.URI;
 import java.util.List;
 
 import org.apache.olingo.commons.api.data.ContextURL;
 import org.apache.olingo.commons.api.data.Entity;
-import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.sample.springboot.xmldb.data.XmlDbDataProvider;
+import org.apache.olingo.sample.springboot.xmldb.query.QueryResultIterator;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.ODataLibraryException;
 import org.apache.olingo.server.api.ODataRequest;
@@ -37,6 +40,7 @@ import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions
 import org.apache.olingo.server.api.serializer.EntitySerializerOptions;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerResult;
+import org.apache.olingo.server.api.serializer.SerializerStreamResult;
 import org.apache.olingo.server.api.uri.UriInfo;
 import org.apache.olingo.server.api.uri.UriResourceEntitySet;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -53,18 +57,31 @@ public class XmlDbEntityProcessor extends BaseXmlDbODataProcessor implements Ent
             ContentType responseFormat) throws ODataApplicationException, ODataLibraryException {
         
         EdmEntitySet edmEntitySet = getEntitySetFromUri(uriInfo);
-        EntityCollection entityCollection = getEntityCollection(edmEntitySet);
+        EdmEntityType edmEntityType = edmEntitySet.getEntityType();
+        QueryResultIterator page = dataProvider.queryEntityCollection(edmEntitySet.getName(), uriInfo);
+        if (page.getNextSkip() != null) {
+            page.setNext(createNextLink(request, edmEntitySet, page));
+        }
         
         ODataSerializer serializer = odata.createSerializer(responseFormat);
-        ContextURL contextUrl = createContextUrl(edmEntitySet);
+        ContextURL contextUrl = ContextURL.with()
+                .entitySet(edmEntitySet)
+                .selectList(odata.createUriHelper().buildContextURLSelectList(edmEntityType, null, uriInfo.getSelectOption()))
+                .build();
         
         EntityCollectionSerializerOptions options = EntityCollectionSerializerOptions.with()
+                .id(request.getRawBaseUri() + "/" + edmEntitySet.getName())
                 .contextURL(contextUrl)
+                .select(uriInfo.getSelectOption())
+                .count(uriInfo.getCountOption())
                 .build();
         
-        SerializerResult serializerResult = serializer.entityCollection(serviceMetadata, edmEntitySet.getEntityType(), entityCollection, options);
+        // the page is already bounded, entities are written as the iterator is consumed
+        SerializerStreamResult serializerResult = serializer.entityCollectionStreamed(serviceMetadata, edmEntityType, page, options);
         
-        configureResponse(response, serializerResult, responseFormat, HttpStatusCode.OK);
+        response.setODataContent(serializerResult.getODataContent());
+        response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+        response.setHeader(HttpHeader.CONTENT_TYPE, responseFormat.toContentTypeString());
     }
     
     @Override
@@ -111,17 +128,29 @@ public class XmlDbEntityProcessor extends BaseXmlDbODataProcessor implements Ent
         throw new ODataApplicationException("Delete operation not supported", HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), null);
     }
     
-    private EntityCollection getEntityCollection(EdmEntitySet edmEntitySet) {
-        String entitySetName = edmEntitySet.getName();
-
-        switch (entitySetName) {
-            case "Cars":
-                return dataProvider.getCars();
-            case "Manufacturers":
-                return dataProvider.getManufacturers();
-            default:
-                return new EntityCollection();
+    /**
+     * Build the next link from the request query, replacing $skip and $top
+     * @param request OData request
+     * @param edmEntitySet entity set
+     * @param page current page
+     * @return next link URI
+     */
+    private URI createNextLink(ODataRequest request, EdmEntitySet edmEntitySet, QueryResultIterator page) {
+        StringBuilder query = new StringBuilder();
+        String rawQuery = request.getRawQueryPath();
+        if (rawQuery != null && !rawQuery.isEmpty()) {
+            for (String option : rawQuery.split("&")) {
+                String name = option.split("=", 2)[0].replace("%24", "$");
+                if (!name.equals("$skip") && !name.equals("$top")) {
+                    query.append(option).append('&');
+                }
+            }
+        }
+        query.append("$skip=").append(page.getNextSkip());
+        if (page.getRemainingTop() != null) {
+            query.append("&$top=").append(page.getRemainingTop());
         }
+        return URI.create(request.getRawBaseUri() + "/" + edmEntitySet.getName() + "?" + query);
     }
     
     private Entity getEntity(EdmEntitySet edmEntitySet, List<org.apache.olingo.server.api.uri.UriParameter> keyPredicates) {
@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.sample.springboot.xmldb.query;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.edm.EdmEnumType;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitor;
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+import org.apache.olingo.server.api.uri.queryoption.expression.MethodKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.UnaryOperatorKind;
+
+/**
+ * Evaluates a query expression against a single OData entity.
+ * Used for the residual part of $filter that could not be translated to JPA, and for $orderby
+ * expressions that have to be sorted in memory. Null operands propagate as in OData: any comparison
+ * other than eq/ne with null yields null, which a filter treats as false.
+ */
+class InMemoryExpressionEvaluator implements ExpressionVisitor<Object> {
+
+    private final Entity entity;
+
+    InMemoryExpressionEvaluator(Entity entity) {
+        this.entity = entity;
+    }
+
+    /**
+     * @return true if the entity satisfies the boolean expression
+     */
+    static boolean matches(Expression expression, Entity entity) throws ODataApplicationException {
+        return Boolean.TRUE.equals(evaluate(expression, entity));
+    }
+
+    static Object evaluate(Expression expression, Entity entity) throws ODataApplicationException {
+        try {
+            return expression.accept(new InMemoryExpressionEvaluator(entity));
+        } catch (ExpressionVisitException e) {
+            throw new ODataApplicationException(e.getMessage(), HttpStatusCode.BAD_REQUEST.getStatusCode(),
+                Locale.ENGLISH, e);
+        }
+    }
+
+    @Override
+    public Object visitMember(Member member) throws ExpressionVisitException, ODataApplicationException {
+        String name = QueryValues.propertyName(member);
+        if (name == null) {
+            throw notImplemented("Only primitive properties are supported in query expressions");
+        }
+        Property property = entity.getProperty(name);
+        return property != null ? property.getValue() : null;
+    }
+
+    @Override
+    public Object visitLiteral(Literal literal) throws ExpressionVisitException, ODataApplicationException {
+        return QueryValues.parseLiteral(literal);
+    }
+
+    @Override
+    public Object visitUnaryOperator(UnaryOperatorKind operator, Object operand)
+            throws ExpressionVisitException, ODataApplicationException {
+        if (operand == null) {
+            return null;
+        }
+        if (operator == UnaryOperatorKind.NOT && operand instanceof Boolean) {
+            return !(Boolean) operand;
+        } else if (operator == UnaryOperatorKind.MINUS && operand instanceof Number) {
+            return QueryValues.toBigDecimal((Number) operand).negate();
+        }
+        throw badRequest("Invalid operand for unary operator " + operator);
+    }
+
+    @Override
+    public Object visitBinaryOperator(BinaryOperatorKind operator, Object left, Object right)
+            throws ExpressionVisitException, ODataApplicationException {
+        switch (operator) {
+            case AND:
+                // false wins over null
+                if (Boolean.FALSE.equals(left) || Boolean.FALSE.equals(right)) {
+                    return false;
+                }
+                return left == null || right == null ? null : (Boolean) left && (Boolean) right;
+            case OR:
+                if (Boolean.TRUE.equals(left) || Boolean.TRUE.equals(right)) {
+                    return true;
+                }
+                return left == null || right == null ? null : false;
+            case EQ:
+                return left == null || right == null ? left == right : QueryValues.compare(left, right) == 0;
+            case NE:
+                return left == null || right == null ? left != right : QueryValues.compare(left, right) != 0;
+            default:
+                break;
+        }
+        if (left == null || right == null) {
+            return null;
+        }
+        switch (operator) {
+            case GT:
+                return QueryValues.compare(left, right) > 0;
+            case GE:
+                return QueryValues.compare(left, right) >= 0;
+            case LT:
+                return QueryValues.compare(left, right) < 0;
+            case LE:
+                return QueryValues.compare(left, right) <= 0;
+            case ADD:
+            case SUB:
+            case MUL:
+            case DIV:
+            case MOD:
+                return evaluateArithmeticOperation(operator, left, right);
+            default:
+                throw notImplemented("Binary operation " + operator.name() + " is not implemented");
+        }
+    }
+
+    @Override
+    public Object visitBinaryOperator(BinaryOperatorKind operator, Object left, List<Object> right)
+            throws ExpressionVisitException, ODataApplicationException {
+        if (operator != BinaryOperatorKind.IN) {
+            throw notImplemented("Binary operation " + operator.name() + " is not implemented");
+        }
+        if (left == null) {
+            return null;
+        }
+        for (Object candidate : right) {
+            if (candidate != null && QueryValues.compare(left, candidate) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Object evaluateArithmeticOperation(BinaryOperatorKind operator, Object left, Object right)
+            throws ODataApplicationException {
+        if (!(left instanceof Number) || !(right instanceof Number)) {
+            throw badRequest("Arithmetic operations need two numeric operands");
+        }
+        BigDecimal valueLeft = QueryValues.toBigDecimal((Number) left);
+        BigDecimal valueRight = QueryValues.toBigDecimal((Number) right);
+        if ((operator == BinaryOperatorKind.DIV || operator == BinaryOperatorKind.MOD)
+                && valueRight.signum() == 0) {
+            throw badRequest("Division by zero");
+        }
+        switch (operator) {
+            case ADD:
+                return valueLeft.add(valueRight);
+            case SUB:
+                return valueLeft.subtract(valueRight);
+            case MUL:
+                return valueLeft.multiply(valueRight);
+            case DIV:
+                return valueLeft.divide(valueRight, 10, RoundingMode.HALF_EVEN).stripTrailingZeros();
+            default:
+                return valueLeft.remainder(valueRight);
+        }
+    }
+
+    @Override
+    public Object visitMethodCall(MethodKind methodCall, List<Object> parameters)
+            throws ExpressionVisitException, ODataApplicationException {
+        for (Object parameter : parameters) {
+            if (parameter == null) {
+                return null;
+            }
+        }
+        switch (methodCall) {
+            case CONTAINS:
+                return string(parameters, 0).contains(string(parameters, 1));
+            case STARTSWITH:
+                return string(parameters, 0).startsWith(string(parameters, 1));
+            case ENDSWITH:
+                return string(parameters, 0).endsWith(string(parameters, 1));
+            case LENGTH:
+                return string(parameters, 0).length();
+            case INDEXOF:
+                return string(parameters, 0).indexOf(string(parameters, 1));
+            case SUBSTRING:
+                return substring(parameters);
+            case TOLOWER:
+                return string(parameters, 0).toLowerCase(Locale.ROOT);
+            case TOUPPER:
+                return string(parameters, 0).toUpperCase(Locale.ROOT);
+            case TRIM:
+                return string(parameters, 0).trim();
+            case CONCAT:
+                return string(parameters, 0) + string(parameters, 1);
+            case ROUND:
+                return number(parameters, 0).setScale(0, RoundingMode.HALF_UP);
+            case FLOOR:
+                return number(parameters, 0).setScale(0, RoundingMode.FLOOR);
+            case CEILING:
+                return number(parameters, 0).setScale(0, RoundingMode.CEILING);
+            default:
+                throw notImplemented("Method call " + methodCall + " is not implemented");
+        }
+    }
+
+    private String substring(List<Object> parameters) throws ODataApplicationException {
+        String value = string(parameters, 0);
+        int start = Math.min(Math.max(number(parameters, 1).intValue(), 0), value.length());
+        if (parameters.size() < 3) {
+            return value.substring(start);
+        }
+        int length = Math.max(number(parameters, 2).intValue(), 0);
+        return value.substring(start, Math.min(start + length, value.length()));
+    }
+
+    private static String string(List<Object> parameters, int index) throws ODataApplicationException {
+        Object value = parameters.get(index);
+        if (!(value instanceof String)) {
+            throw badRequest("Parameter " + (index + 1) + " must be of type Edm.String");
+        }
+        return (String) value;
+    }
+
+    private static BigDecimal number(List<Object> parameters, int index) throws ODataApplicationException {
+        Object value = parameters.get(index);
+        if (!(value instanceof Number)) {
+            throw badRequest("Parameter " + (index + 1) + " must be numeric");
+        }
+        return QueryValues.toBigDecimal((Number) value);
+    }
+
+    @Override
+    public Object visitTypeLiteral(EdmType type) throws ExpressionVisitException, ODataApplicationException {
+        throw notImplemented("Type literals are not implemented");
+    }
+
+    @Override
+    public Object visitAlias(String aliasName) throws ExpressionVisitException, ODataApplicationException {
+        throw notImplemented("Aliases are not implemented");
+    }
+
+    @Override
+    public Object visitEnum(EdmEnumType type, List<String> enumValues)
+            throws ExpressionVisitException, ODataApplicationException {
+        throw notImplemented("Enums are not implemented");
+    }
+
+    @Override
+    public Object visitLambdaExpression(String lambdaFunction, String lambdaVariable, Expression expression)
+            throws ExpressionVisitException, ODataApplicationException {
+        throw notImplemented("Lambda expressions are not implemented");
+    }
+
+    @Override
+    public Object visitLambdaReference(String variableName) throws ExpressionVisitException, ODataApplicationException {
+        throw notImplemented("Lambda references are not implemented");
+    }
+
+    private static ODataApplicationException badRequest(String message) {
+        return new ODataApplicationException(message, HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ENGLISH);
+    }
+
+    private static ODataApplicationException notImplemented(String message) {
+        return new ODataApplicationException(message, HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ENGLISH);
+    }
+}
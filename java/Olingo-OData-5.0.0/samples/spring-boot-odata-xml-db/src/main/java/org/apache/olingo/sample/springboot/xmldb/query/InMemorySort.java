@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.sample.springboot.xmldb.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
+
+/**
+ * Sorts entities by $orderby items that could not be pushed down. Sort keys are evaluated once per
+ * entity; null sorts before any value. The sort is stable, so the key order of the input is kept for ties.
+ */
+final class InMemorySort {
+
+    private InMemorySort() {
+    }
+
+    static List<Entity> sort(List<Entity> entities, List<OrderByItem> orderBy) throws ODataApplicationException {
+        List<SortKey> keys = new ArrayList<>(entities.size());
+        for (Entity entity : entities) {
+            Object[] values = new Object[orderBy.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = InMemoryExpressionEvaluator.evaluate(orderBy.get(i).getExpression(), entity);
+            }
+            keys.add(new SortKey(entity, values));
+        }
+        try {
+            keys.sort((left, right) -> compare(left.values, right.values, orderBy));
+        } catch (IncomparableException e) {
+            throw e.odataException;
+        }
+        List<Entity> sorted = new ArrayList<>(keys.size());
+        for (SortKey key : keys) {
+            sorted.add(key.entity);
+        }
+        return sorted;
+    }
+
+    private static int compare(Object[] left, Object[] right, List<OrderByItem> orderBy) {
+        for (int i = 0; i < left.length; i++) {
+            int result;
+            if (left[i] == null || right[i] == null) {
+                result = left[i] == null ? (right[i] == null ? 0 : -1) : 1;
+            } else {
+                try {
+                    result = QueryValues.compare(left[i], right[i]);
+                } catch (ODataApplicationException e) {
+                    throw new IncomparableException(e);
+                }
+            }
+            if (result != 0) {
+                return orderBy.get(i).isDescending() ? -result : result;
+            }
+        }
+        return 0;
+    }
+
+    private static final class SortKey {
+        private final Entity entity;
+        private final Object[] values;
+
+        SortKey(Entity entity, Object[] values) {
+            this.entity = entity;
+            this.values = values;
+        }
+    }
+
+    /**
+     * Carries the checked exception out of the comparator
+     */
+    private static final class IncomparableException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final transient ODataApplicationException odataException;
+
+        IncomparableException(ODataApplicationException cause) {
+            super(cause);
+            this.odataException = cause;
+        }
+    }
+}
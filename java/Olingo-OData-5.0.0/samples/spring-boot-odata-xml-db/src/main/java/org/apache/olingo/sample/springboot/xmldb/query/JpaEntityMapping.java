@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.sample.springboot.xmldb.query;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps the primitive properties of an OData entity set onto the attributes of a JPA entity class.
+ * Properties are kept in declaration order, which is also the order they are written to the response.
+ */
+public class JpaEntityMapping<T> {
+
+    private final String entitySetName;
+    private final Class<T> entityClass;
+    private final Map<String, String> attributes = new LinkedHashMap<>();
+    private String keyProperty;
+
+    public JpaEntityMapping(String entitySetName, Class<T> entityClass) {
+        this.entitySetName = entitySetName;
+        this.entityClass = entityClass;
+    }
+
+    /**
+     * Map an EDM property onto a JPA attribute
+     * @param edmProperty EDM property name
+     * @param jpaAttribute JPA attribute name
+     * @return this mapping
+     */
+    public JpaEntityMapping<T> property(String edmProperty, String jpaAttribute) {
+        attributes.put(edmProperty, jpaAttribute);
+        return this;
+    }
+
+    /**
+     * Map the key property; the key is always read so that entity ids can be built
+     * @param edmProperty EDM key property name
+     * @param jpaAttribute JPA id attribute name
+     * @return this mapping
+     */
+    public JpaEntityMapping<T> key(String edmProperty, String jpaAttribute) {
+        this.keyProperty = edmProperty;
+        return property(edmProperty, jpaAttribute);
+    }
+
+    public String getEntitySetName() {
+        return entitySetName;
+    }
+
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    public String getKeyProperty() {
+        return keyProperty;
+    }
+
+    /**
+     * @param edmProperty EDM property name
+     * @return the JPA attribute name, or null if the property is not mapped
+     */
+    public String getAttribute(String edmProperty) {
+        return attributes.get(edmProperty);
+    }
+
+    public Set<String> getProperties() {
+        return Collections.unmodifiableSet(attributes.keySet());
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.sample.springboot.xmldb.query;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.expression.Binary;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+import org.apache.olingo.server.api.uri.queryoption.expression.Method;
+import org.apache.olingo.server.api.uri.queryoption.expression.MethodKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Unary;
+import org.apache.olingo.server.api.uri.queryoption.expression.UnaryOperatorKind;
+
+/**
+ * Translates OData query expressions into JPA Criteria expressions for one entity mapping.
+ * {@link #isTranslatable} and the translation share the same supported subset, so an expression
+ * accepted by the former never fails in the latter.
+ */
+final class JpaExpressionTranslator {
+
+    private static final Set<BinaryOperatorKind> BINARY_OPERATORS = EnumSet.of(
+        BinaryOperatorKind.AND, BinaryOperatorKind.OR,
+        BinaryOperatorKind.EQ, BinaryOperatorKind.NE,
+        BinaryOperatorKind.GT, BinaryOperatorKind.GE, BinaryOperatorKind.LT, BinaryOperatorKind.LE,
+        BinaryOperatorKind.ADD, BinaryOperatorKind.SUB, BinaryOperatorKind.MUL, BinaryOperatorKind.DIV,
+        BinaryOperatorKind.IN);
+
+    private static final Set<MethodKind> METHODS = EnumSet.of(
+        MethodKind.CONTAINS, MethodKind.STARTSWITH, MethodKind.ENDSWITH,
+        MethodKind.LENGTH, MethodKind.INDEXOF, MethodKind.TOLOWER, MethodKind.TOUPPER,
+        MethodKind.TRIM, MethodKind.CONCAT);
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private final JpaEntityMapping<?> mapping;
+    private final Root<?> root;
+    private final CriteriaBuilder cb;
+
+    JpaExpressionTranslator(JpaEntityMapping<?> mapping, Root<?> root, CriteriaBuilder cb) {
+        this.mapping = mapping;
+        this.root = root;
+        this.cb = cb;
+    }
+
+    // ==================== Support check ====================
+
+    /**
+     * @return true if the expression only uses mapped properties, literals and supported operators
+     */
+    static boolean isTranslatable(Expression expression, JpaEntityMapping<?> mapping) {
+        if (expression instanceof Member) {
+            String property = QueryValues.propertyName((Member) expression);
+            return property != null && mapping.getAttribute(property) != null;
+        } else if (expression instanceof Literal) {
+            return !isNullLiteral(expression);
+        } else if (expression instanceof Unary) {
+            Unary unary = (Unary) expression;
+            return isTranslatable(unary.getOperand(), mapping);
+        } else if (expression instanceof Binary) {
+            return isTranslatableBinary((Binary) expression, mapping);
+        } else if (expression instanceof Method) {
+            return isTranslatableMethod((Method) expression, mapping);
+        }
+        return false;
+    }
+
+    private static boolean isTranslatableBinary(Binary binary, JpaEntityMapping<?> mapping) {
+        BinaryOperatorKind operator = binary.getOperator();
+        if (!BINARY_OPERATORS.contains(operator)) {
+            return false;
+        }
+        if (operator == BinaryOperatorKind.IN) {
+            if (!isTranslatable(binary.getLeftOperand(), mapping)) {
+                return false;
+            }
+            for (Expression candidate : binary.getExpressions()) {
+                if (!(candidate instanceof Literal) || isNullLiteral(candidate)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        Expression left = binary.getLeftOperand();
+        Expression right = binary.getRightOperand();
+        if (operator == BinaryOperatorKind.EQ || operator == BinaryOperatorKind.NE) {
+            // comparison with null becomes IS [NOT] NULL
+            if (isNullLiteral(right)) {
+                return isTranslatable(left, mapping);
+            } else if (isNullLiteral(left)) {
+                return isTranslatable(right, mapping);
+            }
+        }
+        return isTranslatable(left, mapping) && isTranslatable(right, mapping);
+    }
+
+    private static boolean isTranslatableMethod(Method method, JpaEntityMapping<?> mapping) {
+        if (!METHODS.contains(method.getMethod())) {
+            return false;
+        }
+        List<Expression> parameters = method.getParameters();
+        if (isLikeMethod(method.getMethod()) && !(parameters.get(1) instanceof Literal)) {
+            // the pattern has to be a literal so that wildcards in it can be escaped
+            return false;
+        }
+        for (Expression parameter : parameters) {
+            if (!isTranslatable(parameter, mapping)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLikeMethod(MethodKind method) {
+        return method == MethodKind.CONTAINS || method == MethodKind.STARTSWITH || method == MethodKind.ENDSWITH;
+    }
+
+    private static boolean isNullLiteral(Expression expression) {
+        return expression instanceof Literal && "null".equals(((Literal) expression).getText());
+    }
+
+    // ==================== Translation ====================
+
+    /**
+     * Translate a boolean expression into a predicate
+     */
+    @SuppressWarnings("unchecked")
+    Predicate toPredicate(Expression expression) throws ODataApplicationException {
+        Object translated = translate(expression);
+        if (translated instanceof Predicate) {
+            return (Predicate) translated;
+        }
+        return cb.isTrue((jakarta.persistence.criteria.Expression<Boolean>) toExpression(translated, Boolean.class));
+    }
+
+    /**
+     * Translate a value expression, e.g. an $orderby item
+     */
+    jakarta.persistence.criteria.Expression<?> toValueExpression(Expression expression) throws ODataApplicationException {
+        return toExpression(translate(expression), null);
+    }
+
+    /**
+     * @return either a JPA expression or, for literals, the plain Java value
+     */
+    private Object translate(Expression expression) throws ODataApplicationException {
+        if (expression instanceof Member) {
+            return root.get(mapping.getAttribute(QueryValues.propertyName((Member) expression)));
+        } else if (expression instanceof Literal) {
+            return QueryValues.parseLiteral((Literal) expression);
+        } else if (expression instanceof Unary) {
+            return translateUnary((Unary) expression);
+        } else if (expression instanceof Binary) {
+            return translateBinary((Binary) expression);
+        } else if (expression instanceof Method) {
+            return translateMethod((Method) expression);
+        }
+        throw notTranslatable(expression);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object translateUnary(Unary unary) throws ODataApplicationException {
+        Object operand = translate(unary.getOperand());
+        if (unary.getOperator() == UnaryOperatorKind.NOT) {
+            return cb.not(operand instanceof Predicate ? (Predicate) operand
+                : cb.isTrue((jakarta.persistence.criteria.Expression<Boolean>) toExpression(operand, Boolean.class)));
+        }
+        return cb.neg((jakarta.persistence.criteria.Expression<Number>) toExpression(operand, null));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Object translateBinary(Binary binary) throws ODataApplicationException {
+        BinaryOperatorKind operator = binary.getOperator();
+        if (operator == BinaryOperatorKind.AND) {
+            return cb.and(toPredicate(binary.getLeftOperand()), toPredicate(binary.getRightOperand()));
+        } else if (operator == BinaryOperatorKind.OR) {
+            return cb.or(toPredicate(binary.getLeftOperand()), toPredicate(binary.getRightOperand()));
+        } else if (operator == BinaryOperatorKind.IN) {
+            jakarta.persistence.criteria.Expression<?> left = toExpression(translate(binary.getLeftOperand()), null);
+            CriteriaBuilder.In<Object> in = cb.in((jakarta.persistence.criteria.Expression<Object>) left);
+            for (Expression candidate : binary.getExpressions()) {
+                in.value(QueryValues.coerce(translate(candidate), left.getJavaType()));
+            }
+            return in;
+        }
+
+        if (isNullLiteral(binary.getRightOperand()) || isNullLiteral(binary.getLeftOperand())) {
+            Expression operand = isNullLiteral(binary.getRightOperand()) ? binary.getLeftOperand() : binary.getRightOperand();
+            jakarta.persistence.criteria.Expression<?> value = toExpression(translate(operand), null);
+            return operator == BinaryOperatorKind.EQ ? cb.isNull(value) : cb.isNotNull(value);
+        }
+
+        Object leftOperand = translate(binary.getLeftOperand());
+        Object rightOperand = translate(binary.getRightOperand());
+        // a literal takes the Java type of the expression on the other side
+        jakarta.persistence.criteria.Expression left = toExpression(leftOperand, javaTypeOf(rightOperand));
+        jakarta.persistence.criteria.Expression right = toExpression(rightOperand, left.getJavaType());
+        switch (operator) {
+            case EQ:
+                return equal(left, right, isNullable(binary.getLeftOperand()), isNullable(binary.getRightOperand()));
+            case NE:
+                return notEqual(left, right, isNullable(binary.getLeftOperand()), isNullable(binary.getRightOperand()));
+            case GT:
+                return cb.greaterThan(left, right);
+            case GE:
+                return cb.greaterThanOrEqualTo(left, right);
+            case LT:
+                return cb.lessThan(left, right);
+            case LE:
+                return cb.lessThanOrEqualTo(left, right);
+            case ADD:
+                return cb.sum(left, right);
+            case SUB:
+                return cb.diff(left, right);
+            case MUL:
+                return cb.prod(left, right);
+            case DIV:
+                return cb.quot(left, right);
+            default:
+                throw notTranslatable(binary);
+        }
+    }
+
+    /**
+     * SQL's = is unknown when an operand is null, and stays unknown under NOT; like
+     * {@link InMemoryExpressionEvaluator}, eq is always true or false, so a negated eq keeps null rows.
+     */
+    private Predicate equal(jakarta.persistence.criteria.Expression<?> left,
+            jakarta.persistence.criteria.Expression<?> right, boolean leftNullable, boolean rightNullable) {
+        Predicate equal = cb.equal(left, right);
+        if (leftNullable && rightNullable) {
+            return cb.or(
+                cb.and(equal, cb.isNotNull(left), cb.isNotNull(right)),
+                cb.and(cb.isNull(left), cb.isNull(right)));
+        } else if (leftNullable) {
+            return cb.and(equal, cb.isNotNull(left));
+        } else if (rightNullable) {
+            return cb.and(equal, cb.isNotNull(right));
+        }
+        return equal;
+    }
+
+    /**
+     * SQL's &lt;&gt; is unknown when an operand is null, which would drop the row; like
+     * {@link InMemoryExpressionEvaluator}, null is not equal to any non-null value but equal to null.
+     */
+    private Predicate notEqual(jakarta.persistence.criteria.Expression<?> left,
+            jakarta.persistence.criteria.Expression<?> right, boolean leftNullable, boolean rightNullable) {
+        if (leftNullable && rightNullable) {
+            return cb.not(equal(left, right, true, true));
+        }
+        Predicate notEqual = cb.notEqual(left, right);
+        if (leftNullable) {
+            return cb.or(notEqual, cb.isNull(left));
+        } else if (rightNullable) {
+            return cb.or(notEqual, cb.isNull(right));
+        }
+        return notEqual;
+    }
+
+    /**
+     * @return false for literals (null literals are handled separately) and the key, true for anything else
+     */
+    private boolean isNullable(Expression expression) {
+        if (expression instanceof Literal) {
+            return false;
+        } else if (expression instanceof Member) {
+            return !QueryValues.propertyName((Member) expression).equals(mapping.getKeyProperty());
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object translateMethod(Method method) throws ODataApplicationException {
+        List<Object> parameters = new ArrayList<>();
+        for (Expression parameter : method.getParameters()) {
+            parameters.add(translate(parameter));
+        }
+        jakarta.persistence.criteria.Expression<String> first =
+            (jakarta.persistence.criteria.Expression<String>) toExpression(parameters.get(0), String.class);
+        switch (method.getMethod()) {
+            case CONTAINS:
+                return cb.like(first, "%" + escapeLike(parameters.get(1)) + "%", LIKE_ESCAPE);
+            case STARTSWITH:
+                return cb.like(first, escapeLike(parameters.get(1)) + "%", LIKE_ESCAPE);
+            case ENDSWITH:
+                return cb.like(first, "%" + escapeLike(parameters.get(1)), LIKE_ESCAPE);
+            case LENGTH:
+                return cb.length(first);
+            case INDEXOF:
+                // LOCATE is 1-based and returns 0 when not found, indexof is 0-based and returns -1
+                return cb.diff(cb.locate(first,
+                    (jakarta.persistence.criteria.Expression<String>) toExpression(parameters.get(1), String.class)), 1);
+            case TOLOWER:
+                return cb.lower(first);
+            case TOUPPER:
+                return cb.upper(first);
+            case TRIM:
+                return cb.trim(first);
+            case CONCAT:
+                return cb.concat(first,
+                    (jakarta.persistence.criteria.Expression<String>) toExpression(parameters.get(1), String.class));
+            default:
+                throw notTranslatable(method);
+        }
+    }
+
+    private jakarta.persistence.criteria.Expression<?> toExpression(Object operand, Class<?> javaType) {
+        if (operand instanceof jakarta.persistence.criteria.Expression) {
+            return (jakarta.persistence.criteria.Expression<?>) operand;
+        }
+        return cb.literal(QueryValues.coerce(operand, javaType));
+    }
+
+    private static Class<?> javaTypeOf(Object operand) {
+        return operand instanceof jakarta.persistence.criteria.Expression
+            ? ((jakarta.persistence.criteria.Expression<?>) operand).getJavaType() : null;
+    }
+
+    private static String escapeLike(Object value) {
+        String text = String.valueOf(value);
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    private static ODataApplicationException notTranslatable(Expression expression) {
+        return new ODataApplicationException("Expression cannot be translated to JPA: " + expression,
+            HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ENGLISH);
+    }
+}
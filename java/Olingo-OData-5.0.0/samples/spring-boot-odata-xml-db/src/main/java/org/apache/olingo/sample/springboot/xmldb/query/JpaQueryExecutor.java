@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.sample.springboot.xmldb.query;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Executes a {@link TranslatedQuery} with the JPA Criteria API and returns one page of entities.
+ * <p>
+ * When the whole query is pushed down, the database applies filter, order, projection and paging and
+ * only the page is loaded. Otherwise the pushed-down part of the filter still restricts the rows, which
+ * are then streamed through the residual filter; only the requested page is kept, unless the sort
+ * order itself has to be evaluated in memory.
+ */
+@Component
+public class JpaQueryExecutor {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param query translated query options
+     * @param maxPageSize server side page size limit
+     * @return the requested page
+     */
+    @Transactional(readOnly = true)
+    public <T> QueryResultIterator execute(TranslatedQuery<T> query, int maxPageSize) throws ODataApplicationException {
+        Integer top = query.getTop();
+        // a next link is only needed when the server limit is lower than the requested $top
+        boolean serverPaged = top == null || top > maxPageSize;
+        int pageSize = serverPaged ? maxPageSize : top;
+
+        Page page = query.isFullyPushedDown()
+            ? executePushedDown(query, pageSize, serverPaged)
+            : executeWithResidual(query, pageSize, serverPaged);
+
+        if (page.entities.size() <= pageSize) {
+            return new QueryResultIterator(page.entities, page.count, null, null);
+        }
+        return new QueryResultIterator(page.entities.subList(0, pageSize), page.count,
+            query.getSkip() + pageSize, top != null ? top - pageSize : null);
+    }
+
+    private <T> Page executePushedDown(TranslatedQuery<T> query, int pageSize, boolean serverPaged)
+            throws ODataApplicationException {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        Integer count = query.isCount() ? count(query, cb) : null;
+        if (pageSize == 0) {
+            return new Page(Collections.emptyList(), count);
+        }
+
+        CriteriaQuery<Tuple> criteria = cb.createTupleQuery();
+        Root<T> root = criteria.from(query.getMapping().getEntityClass());
+        List<String> properties = query.getSelectedProperties();
+        select(criteria, root, query, properties, cb);
+
+        // one extra row tells whether a next page exists
+        List<Tuple> rows = entityManager.createQuery(criteria)
+            .setFirstResult(query.getSkip())
+            .setMaxResults(serverPaged ? pageSize + 1 : pageSize)
+            .getResultList();
+        List<Entity> entities = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            entities.add(toEntity(row, properties, query.getMapping()));
+        }
+        return new Page(entities, count);
+    }
+
+    private <T> Page executeWithResidual(TranslatedQuery<T> query, int pageSize, boolean serverPaged)
+            throws ODataApplicationException {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> criteria = cb.createTupleQuery();
+        Root<T> root = criteria.from(query.getMapping().getEntityClass());
+        // the residual filter and in-memory sort may use any property
+        List<String> properties = new ArrayList<>(query.getMapping().getProperties());
+        select(criteria, root, query, properties, cb);
+
+        int limit = serverPaged ? pageSize + 1 : pageSize;
+        try (Stream<Tuple> rows = entityManager.createQuery(criteria).getResultStream()) {
+            Iterator<Tuple> iterator = rows.iterator();
+            if (!query.isSortPushedDown()) {
+                List<Entity> matches = new ArrayList<>();
+                while (iterator.hasNext()) {
+                    Entity entity = toEntity(iterator.next(), properties, query.getMapping());
+                    if (matchesResidual(query, entity)) {
+                        matches.add(entity);
+                    }
+                }
+                List<Entity> sorted = InMemorySort.sort(matches, query.getOrderBy());
+                int from = Math.min(query.getSkip(), sorted.size());
+                int to = Math.min(sorted.size(), from + limit);
+                return new Page(new ArrayList<>(sorted.subList(from, to)), query.isCount() ? sorted.size() : null);
+            }
+
+            List<Entity> page = new ArrayList<>();
+            int matched = 0;
+            while (iterator.hasNext()) {
+                Entity entity = toEntity(iterator.next(), properties, query.getMapping());
+                if (!matchesResidual(query, entity)) {
+                    continue;
+                }
+                matched++;
+                if (matched > query.getSkip() && page.size() < limit) {
+                    page.add(entity);
+                } else if (!query.isCount() && page.size() == limit) {
+                    // page is complete and nobody needs the total
+                    break;
+                }
+            }
+            return new Page(page, query.isCount() ? matched : null);
+        }
+    }
+
+    private <T> void select(CriteriaQuery<Tuple> criteria, Root<T> root, TranslatedQuery<T> query,
+                            List<String> properties, CriteriaBuilder cb) throws ODataApplicationException {
+        List<Selection<?>> selections = new ArrayList<>(properties.size());
+        for (String property : properties) {
+            selections.add(root.get(query.getMapping().getAttribute(property)).alias(property));
+        }
+        criteria.multiselect(selections);
+        Predicate where = query.toPredicate(root, cb);
+        if (where != null) {
+            criteria.where(where);
+        }
+        criteria.orderBy(query.toOrders(root, cb));
+    }
+
+    private <T> int count(TranslatedQuery<T> query, CriteriaBuilder cb) throws ODataApplicationException {
+        CriteriaQuery<Long> criteria = cb.createQuery(Long.class);
+        Root<T> root = criteria.from(query.getMapping().getEntityClass());
+        criteria.select(cb.count(root));
+        Predicate where = query.toPredicate(root, cb);
+        if (where != null) {
+            criteria.where(where);
+        }
+        return Math.toIntExact(entityManager.createQuery(criteria).getSingleResult());
+    }
+
+    private static boolean matchesResidual(TranslatedQuery<?> query, Entity entity) throws ODataApplicationException {
+        for (Expression filter : query.getResidualFilters()) {
+            if (!InMemoryExpressionEvaluator.matches(filter, entity)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Entity toEntity(Tuple row, List<String> properties, JpaEntityMapping<?> mapping) {
+        Entity entity = new Entity();
+        for (String property : properties) {
+            entity.addProperty(new Property(null, property, ValueType.PRIMITIVE, row.get(property)));
+        }
+        entity.setId(URI.create(mapping.getEntitySetName() + "(" + row.get(mapping.getKeyProperty()) + ")"));
+        return entity;
+    }
+
+    private static final class Page {
+        private final List<Entity> entities;
+        private final Integer count;
+
+        Page(List<Entity> entities, Integer count) {
+            this.entities = entities;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.sample.springboot.xmldb.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourcePrimitiveProperty;
+import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
+import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
+import org.apache.olingo.server.api.uri.queryoption.SelectItem;
+import org.apache.olingo.server.api.uri.queryoption.SelectOption;
+import org.apache.olingo.server.api.uri.queryoption.expression.Binary;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+
+/**
+ * Translates the query options of an entity collection request into a {@link TranslatedQuery}.
+ * The $filter expression is split into its top-level AND conjuncts; every conjunct that
+ * {@link JpaExpressionTranslator} supports is pushed down to the database, the others remain as the
+ * residual filter. $orderby is pushed down only as a whole.
+ */
+public final class ODataQueryTranslator {
+
+    private ODataQueryTranslator() {
+    }
+
+    public static <T> TranslatedQuery<T> translate(UriInfo uriInfo, JpaEntityMapping<T> mapping)
+            throws ODataApplicationException {
+        ExpandOption expandOption = uriInfo.getExpandOption();
+        if (expandOption != null && !expandOption.getExpandItems().isEmpty()) {
+            throw new ODataApplicationException("$expand is not supported, " + mapping.getEntitySetName()
+                + " has no navigation properties", HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ENGLISH);
+        }
+
+        List<Expression> pushedFilters = new ArrayList<>();
+        List<Expression> residualFilters = new ArrayList<>();
+        if (uriInfo.getFilterOption() != null) {
+            List<Expression> conjuncts = new ArrayList<>();
+            splitConjuncts(uriInfo.getFilterOption().getExpression(), conjuncts);
+            for (Expression conjunct : conjuncts) {
+                (JpaExpressionTranslator.isTranslatable(conjunct, mapping) ? pushedFilters : residualFilters).add(conjunct);
+            }
+        }
+
+        List<OrderByItem> orderBy = Collections.emptyList();
+        boolean sortPushedDown = true;
+        OrderByOption orderByOption = uriInfo.getOrderByOption();
+        if (orderByOption != null) {
+            orderBy = orderByOption.getOrders();
+            for (OrderByItem item : orderBy) {
+                if (!JpaExpressionTranslator.isTranslatable(item.getExpression(), mapping)) {
+                    sortPushedDown = false;
+                    break;
+                }
+            }
+        }
+
+        int skip = uriInfo.getSkipOption() != null ? uriInfo.getSkipOption().getValue() : 0;
+        Integer top = uriInfo.getTopOption() != null ? uriInfo.getTopOption().getValue() : null;
+        boolean count = uriInfo.getCountOption() != null && uriInfo.getCountOption().getValue();
+
+        return new TranslatedQuery<>(mapping, pushedFilters, residualFilters, orderBy, sortPushedDown,
+            selectedProperties(uriInfo.getSelectOption(), mapping), skip, top, count);
+    }
+
+    private static void splitConjuncts(Expression expression, List<Expression> conjuncts) {
+        if (expression instanceof Binary && ((Binary) expression).getOperator() == BinaryOperatorKind.AND) {
+            splitConjuncts(((Binary) expression).getLeftOperand(), conjuncts);
+            splitConjuncts(((Binary) expression).getRightOperand(), conjuncts);
+        } else {
+            conjuncts.add(expression);
+        }
+    }
+
+    private static List<String> selectedProperties(SelectOption selectOption, JpaEntityMapping<?> mapping) {
+        List<String> all = new ArrayList<>(mapping.getProperties());
+        if (selectOption == null || selectOption.getSelectItems().isEmpty()) {
+            return all;
+        }
+        List<String> selected = new ArrayList<>();
+        selected.add(mapping.getKeyProperty());
+        for (SelectItem item : selectOption.getSelectItems()) {
+            if (item.isStar()) {
+                return all;
+            }
+            List<UriResource> parts = item.getResourcePath() != null
+                ? item.getResourcePath().getUriResourceParts() : Collections.emptyList();
+            if (parts.size() != 1 || !(parts.get(0) instanceof UriResourcePrimitiveProperty)) {
+                return all;
+            }
+            String property = ((UriResourcePrimitiveProperty) parts.get(0)).getProperty().getName();
+            if (mapping.getAttribute(property) != null && !selected.contains(property)) {
+                selected.add(property);
+            }
+        }
+        return selected;
+    }
+}
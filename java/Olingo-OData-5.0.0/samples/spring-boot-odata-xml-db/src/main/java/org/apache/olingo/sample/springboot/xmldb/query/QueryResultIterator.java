@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.sample.springboot.xmldb.query;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityIterator;
+
+/**
+ * One page of query results. The page itself is bounded by the page size; when more results exist,
+ * {@link #getNextSkip()} tells the processor where the next page starts.
+ */
+public class QueryResultIterator extends EntityIterator {
+
+    private final Iterator<Entity> entities;
+    private final Integer nextSkip;
+    private final Integer remainingTop;
+
+    QueryResultIterator(List<Entity> page, Integer count, Integer nextSkip, Integer remainingTop) {
+        this.entities = page.iterator();
+        this.nextSkip = nextSkip;
+        this.remainingTop = remainingTop;
+        setCount(count);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return entities.hasNext();
+    }
+
+    @Override
+    public Entity next() {
+        return entities.next();
+    }
+
+    /**
+     * @return the $skip of the next page, or null if this is the last page
+     */
+    public Integer getNextSkip() {
+        return nextSkip;
+    }
+
+    /**
+     * @return the $top still to be served by the following pages, or null if no $top was requested
+     */
+    public Integer getRemainingTop() {
+        return remainingTop;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.sample.springboot.xmldb.query;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourcePrimitiveProperty;
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+
+/**
+ * Value helpers shared by the JPA translation and the in-memory evaluation of query expressions
+ */
+final class QueryValues {
+
+    private QueryValues() {
+    }
+
+    /**
+     * Convert a URI literal into its default Java value; the null literal yields null
+     */
+    static Object parseLiteral(Literal literal) throws ODataApplicationException {
+        if (!(literal.getType() instanceof EdmPrimitiveType)) {
+            return null;
+        }
+        EdmPrimitiveType type = (EdmPrimitiveType) literal.getType();
+        try {
+            return type.valueOfString(type.fromUriLiteral(literal.getText()),
+                true, null, null, null, true, type.getDefaultType());
+        } catch (EdmPrimitiveTypeException e) {
+            throw new ODataApplicationException("Invalid literal " + literal.getText(),
+                HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ENGLISH, e);
+        }
+    }
+
+    /**
+     * Name of the property addressed by a member expression, or null for anything other than
+     * a single primitive property segment
+     */
+    static String propertyName(Member member) {
+        List<UriResource> parts = member.getResourcePath().getUriResourceParts();
+        if (parts.size() == 1 && parts.get(0) instanceof UriResourcePrimitiveProperty) {
+            return ((UriResourcePrimitiveProperty) parts.get(0)).getProperty().getName();
+        }
+        return null;
+    }
+
+    /**
+     * Convert a numeric value to the Java type of the operand it is compared with,
+     * e.g. the Edm.Int16 literal 2021 to the Integer attribute it is compared against
+     */
+    static Object coerce(Object value, Class<?> target) {
+        if (!(value instanceof Number) || target == null || target.isInstance(value)) {
+            return value;
+        }
+        Number number = (Number) value;
+        if (target == Integer.class) {
+            return number.intValue();
+        } else if (target == Long.class) {
+            return number.longValue();
+        } else if (target == Short.class) {
+            return number.shortValue();
+        } else if (target == Byte.class) {
+            return number.byteValue();
+        } else if (target == Double.class) {
+            return number.doubleValue();
+        } else if (target == Float.class) {
+            return number.floatValue();
+        } else if (target == BigDecimal.class) {
+            return toBigDecimal(number);
+        } else if (target == BigInteger.class) {
+            return toBigDecimal(number).toBigInteger();
+        }
+        return value;
+    }
+
+    static BigDecimal toBigDecimal(Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        } else if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        } else if (number instanceof Double || number instanceof Float) {
+            return BigDecimal.valueOf(number.doubleValue());
+        }
+        return BigDecimal.valueOf(number.longValue());
+    }
+
+    /**
+     * Compare two non-null values; numbers of different Java types are compared by value
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static int compare(Object left, Object right) throws ODataApplicationException {
+        if (left instanceof Number && right instanceof Number) {
+            return toBigDecimal((Number) left).compareTo(toBigDecimal((Number) right));
+        }
+        if (left instanceof Comparable && left.getClass().isInstance(right)) {
+            return ((Comparable) left).compareTo(right);
+        }
+        throw new ODataApplicationException("Cannot compare " + left.getClass().getSimpleName()
+            + " with " + right.getClass().getSimpleName(), HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ENGLISH);
+    }
+}
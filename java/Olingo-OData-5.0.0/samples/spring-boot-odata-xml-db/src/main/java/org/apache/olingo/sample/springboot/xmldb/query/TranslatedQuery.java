@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.sample.springboot.xmldb.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
+
+/**
+ * The query options of one entity collection request, split into the part the database evaluates
+ * and the part that has to be evaluated in memory. Created by {@link ODataQueryTranslator}.
+ */
+public class TranslatedQuery<T> {
+
+    private final JpaEntityMapping<T> mapping;
+    private final List<Expression> pushedFilters;
+    private final List<Expression> residualFilters;
+    private final List<OrderByItem> orderBy;
+    private final boolean sortPushedDown;
+    private final List<String> selectedProperties;
+    private final int skip;
+    private final Integer top;
+    private final boolean count;
+
+    TranslatedQuery(JpaEntityMapping<T> mapping, List<Expression> pushedFilters, List<Expression> residualFilters,
+                    List<OrderByItem> orderBy, boolean sortPushedDown, List<String> selectedProperties,
+                    int skip, Integer top, boolean count) {
+        this.mapping = mapping;
+        this.pushedFilters = pushedFilters;
+        this.residualFilters = residualFilters;
+        this.orderBy = orderBy;
+        this.sortPushedDown = sortPushedDown;
+        this.selectedProperties = selectedProperties;
+        this.skip = skip;
+        this.top = top;
+        this.count = count;
+    }
+
+    public JpaEntityMapping<T> getMapping() {
+        return mapping;
+    }
+
+    public List<Expression> getPushedFilters() {
+        return Collections.unmodifiableList(pushedFilters);
+    }
+
+    /**
+     * @return the $filter conjuncts that could not be translated and are evaluated per entity
+     */
+    public List<Expression> getResidualFilters() {
+        return Collections.unmodifiableList(residualFilters);
+    }
+
+    public List<OrderByItem> getOrderBy() {
+        return Collections.unmodifiableList(orderBy);
+    }
+
+    public boolean isSortPushedDown() {
+        return sortPushedDown;
+    }
+
+    /**
+     * @return the properties to read, always including the key
+     */
+    public List<String> getSelectedProperties() {
+        return Collections.unmodifiableList(selectedProperties);
+    }
+
+    public int getSkip() {
+        return skip;
+    }
+
+    /**
+     * @return the $top value, or null if none was requested
+     */
+    public Integer getTop() {
+        return top;
+    }
+
+    public boolean isCount() {
+        return count;
+    }
+
+    /**
+     * Paging and projection can only be done by the database when it sees the complete filter
+     * and the complete sort order
+     * @return true if the database can return exactly the requested page
+     */
+    public boolean isFullyPushedDown() {
+        return residualFilters.isEmpty() && sortPushedDown;
+    }
+
+    /**
+     * Build the WHERE predicate from the translated conjuncts
+     * @return the predicate, or null if nothing was pushed down
+     */
+    public Predicate toPredicate(Root<T> root, CriteriaBuilder cb) throws ODataApplicationException {
+        if (pushedFilters.isEmpty()) {
+            return null;
+        }
+        JpaExpressionTranslator translator = new JpaExpressionTranslator(mapping, root, cb);
+        List<Predicate> predicates = new ArrayList<>(pushedFilters.size());
+        for (Expression filter : pushedFilters) {
+            predicates.add(translator.toPredicate(filter));
+        }
+        return cb.and(predicates.toArray(new Predicate[0]));
+    }
+
+    /**
+     * Build the ORDER BY clause; the key is appended so that pages are stable.
+     * When the sort cannot be pushed down, only the key order is returned.
+     */
+    public List<Order> toOrders(Root<T> root, CriteriaBuilder cb) throws ODataApplicationException {
+        List<Order> orders = new ArrayList<>();
+        if (sortPushedDown) {
+            JpaExpressionTranslator translator = new JpaExpressionTranslator(mapping, root, cb);
+            for (OrderByItem item : orderBy) {
+                jakarta.persistence.criteria.Expression<?> value = translator.toValueExpression(item.getExpression());
+                orders.add(item.isDescending() ? cb.desc(value) : cb.asc(value));
+            }
+        }
+        orders.add(cb.asc(root.get(mapping.getAttribute(mapping.getKeyProperty()))));
+        return orders;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.sample.springboot.xmldb.query;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.sample.springboot.xmldb.data.XmlDbDataProvider;
+import org.apache.olingo.sample.springboot.xmldb.edm.XmlDbEdmProvider;
+import org.apache.olingo.sample.springboot.xmldb.entity.CarEntity;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the translation of query options and the in-memory evaluation of residual expressions.
+ */
+public class ODataQueryTranslatorTest {
+
+    private Parser parser;
+
+    @BeforeEach
+    public void setUp() {
+        OData odata = OData.newInstance();
+        Edm edm = odata.createServiceMetadata(new XmlDbEdmProvider(), Collections.emptyList()).getEdm();
+        parser = new Parser(edm, odata);
+    }
+
+    @Test
+    public void testFilterIsSplitIntoPushedAndResidualConjuncts() throws Exception {
+        // Arrange
+        UriInfo uriInfo = parse("$filter=Price gt 50000 and substring(Model,0,5) eq 'Model' and Currency eq 'USD'");
+
+        // Act
+        TranslatedQuery<?> query = ODataQueryTranslator.translate(uriInfo, XmlDbDataProvider.CARS);
+
+        // Assert
+        assertEquals(2, query.getPushedFilters().size());
+        assertEquals(1, query.getResidualFilters().size());
+        assertTrue(query.isSortPushedDown());
+        assertFalse(query.isFullyPushedDown());
+    }
+
+    @Test
+    public void testFullyTranslatableQueryIsPushedDown() throws Exception {
+        // Arrange
+        UriInfo uriInfo = parse("$filter=contains(Model,'S') or ModelYear in (2022,2023) and Price ne null"
+            + "&$orderby=Price desc,Model&$select=Model,ModelYear&$skip=10&$top=5&$count=true");
+
+        // Act
+        TranslatedQuery<?> query = ODataQueryTranslator.translate(uriInfo, XmlDbDataProvider.CARS);
+
+        // Assert
+        assertTrue(query.isFullyPushedDown());
+        assertEquals(1, query.getPushedFilters().size());
+        assertEquals(Arrays.asList("ID", "Model", "ModelYear"), query.getSelectedProperties());
+        assertEquals(10, query.getSkip());
+        assertEquals(Integer.valueOf(5), query.getTop());
+        assertTrue(query.isCount());
+    }
+
+    @Test
+    public void testUntranslatableOrderByIsSortedInMemory() throws Exception {
+        // Arrange
+        UriInfo uriInfo = parse("$orderby=substring(Model,6) desc");
+        TranslatedQuery<?> query = ODataQueryTranslator.translate(uriInfo, XmlDbDataProvider.CARS);
+        List<Entity> cars = new ArrayList<>(Arrays.asList(
+            car(1, "Model 3", 2022, "45000"), car(2, null, 2023, "80000"), car(3, "Model Y", 2023, "60000")));
+
+        // Act
+        List<Entity> sorted = InMemorySort.sort(cars, query.getOrderBy());
+
+        // Assert
+        assertFalse(query.isSortPushedDown());
+        assertFalse(query.isFullyPushedDown());
+        assertEquals(3, sorted.get(0).getProperty("ID").getValue());
+        assertEquals(1, sorted.get(1).getProperty("ID").getValue());
+        // null sorts first ascending, so last descending
+        assertEquals(2, sorted.get(2).getProperty("ID").getValue());
+    }
+
+    @Test
+    public void testResidualFilterEvaluation() throws Exception {
+        // Arrange
+        UriInfo uriInfo = parse("$filter=substring(Model,0,5) eq 'Model' and round(Price div 1000) ge 60");
+        Entity modelY = car(1, "Model Y", 2023, "59600");
+        Entity roadster = car(2, "Roadster", 2024, "200000");
+        Entity noModel = car(3, null, 2023, "90000");
+
+        // Act & Assert
+        assertTrue(InMemoryExpressionEvaluator.matches(uriInfo.getFilterOption().getExpression(), modelY));
+        assertFalse(InMemoryExpressionEvaluator.matches(uriInfo.getFilterOption().getExpression(), roadster));
+        assertFalse(InMemoryExpressionEvaluator.matches(uriInfo.getFilterOption().getExpression(), noModel));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testNotEqualKeepsNullValues() throws Exception {
+        // Arrange
+        UriInfo uriInfo = parse("$filter=Model ne 'X'");
+        CriteriaBuilder cb = mock(CriteriaBuilder.class);
+        Root<CarEntity> root = mock(Root.class);
+        Path<Object> model = mock(Path.class);
+        jakarta.persistence.criteria.Expression<Object> literal = mock(jakarta.persistence.criteria.Expression.class);
+        Predicate notEqual = mock(Predicate.class);
+        Predicate isNull = mock(Predicate.class);
+        Predicate either = mock(Predicate.class);
+        when(root.get("model")).thenReturn(model);
+        doReturn(literal).when(cb).literal(any());
+        when(cb.notEqual(model, literal)).thenReturn(notEqual);
+        when(cb.isNull(model)).thenReturn(isNull);
+        when(cb.or(notEqual, isNull)).thenReturn(either);
+
+        // Act
+        Predicate predicate = new JpaExpressionTranslator(XmlDbDataProvider.CARS, root, cb)
+            .toPredicate(uriInfo.getFilterOption().getExpression());
+
+        // Assert: the pushed-down filter agrees with the in-memory evaluation
+        assertSame(either, predicate);
+        assertTrue(InMemoryExpressionEvaluator.matches(uriInfo.getFilterOption().getExpression(),
+            car(1, null, 2023, "90000")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testNegatedEqualKeepsNullValues() throws Exception {
+        // Arrange
+        UriInfo uriInfo = parse("$filter=not (Model eq 'X')");
+        CriteriaBuilder cb = mock(CriteriaBuilder.class);
+        Root<CarEntity> root = mock(Root.class);
+        Path<Object> model = mock(Path.class);
+        jakarta.persistence.criteria.Expression<Object> literal = mock(jakarta.persistence.criteria.Expression.class);
+        Predicate equal = mock(Predicate.class);
+        Predicate isNotNull = mock(Predicate.class);
+        Predicate both = mock(Predicate.class);
+        Predicate negated = mock(Predicate.class);
+        when(root.get("model")).thenReturn(model);
+        doReturn(literal).when(cb).literal(any());
+        when(cb.equal(model, literal)).thenReturn(equal);
+        when(cb.isNotNull(model)).thenReturn(isNotNull);
+        when(cb.and(equal, isNotNull)).thenReturn(both);
+        when(cb.not(both)).thenReturn(negated);
+
+        // Act
+        Predicate predicate = new JpaExpressionTranslator(XmlDbDataProvider.CARS, root, cb)
+            .toPredicate(uriInfo.getFilterOption().getExpression());
+
+        // Assert: null eq 'X' is false rather than unknown, so both paths keep the null row
+        assertSame(negated, predicate);
+        assertTrue(InMemoryExpressionEvaluator.matches(uriInfo.getFilterOption().getExpression(),
+            car(1, null, 2023, "90000")));
+    }
+
+    @Test
+    public void testExpandIsRejected() throws Exception {
+        // Arrange
+        UriInfo uriInfo = parse("$expand=*");
+
+        // Act & Assert
+        ODataApplicationException e = assertThrows(ODataApplicationException.class,
+            () -> ODataQueryTranslator.translate(uriInfo, XmlDbDataProvider.CARS));
+        assertEquals(HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), e.getStatusCode());
+    }
+
+    private UriInfo parse(String query) throws Exception {
+        return parser.parseUri("Cars", query, null, "http://localhost/xmldb-odata/odata");
+    }
+
+    private static Entity car(int id, String model, int modelYear, String price) {
+        Entity entity = new Entity();
+        entity.addProperty(new Property(null, "ID", ValueType.PRIMITIVE, id));
+        entity.addProperty(new Property(null, "Model", ValueType.PRIMITIVE, model));
+        entity.addProperty(new Property(null, "ModelYear", ValueType.PRIMITIVE, modelYear));
+        entity.addProperty(new Property(null, "Price", ValueType.PRIMITIVE, new BigDecimal(price)));
+        return entity;
+    }
+}